@@ -31,6 +31,25 @@ tasks.named<Test>("test") {
     enabled = false
 }
 
+// Micro-benchmarks (src/benchmark/java) are kept out of the test task and are run with: gradle benchmark
+sourceSets {
+    create("benchmark") {
+        compileClasspath += sourceSets.main.get().output + sourceSets.test.get().output
+        runtimeClasspath += sourceSets.main.get().output + sourceSets.test.get().output
+    }
+}
+
+configurations["benchmarkImplementation"].extendsFrom(configurations.testImplementation.get())
+configurations["benchmarkRuntimeOnly"].extendsFrom(configurations.testRuntimeOnly.get())
+
+tasks.register<Test>("benchmark") {
+    description = "Runs the micro-benchmarks logging their BENCH results."
+    group = "verification"
+    testClassesDirs = sourceSets["benchmark"].output.classesDirs
+    classpath = sourceSets["benchmark"].runtimeClasspath
+    useJUnitPlatform()
+}
+
 java {
     //withJavadocJar() // Removed to avoid double signing
     withSourcesJar()
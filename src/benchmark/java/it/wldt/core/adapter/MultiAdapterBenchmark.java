@@ -0,0 +1,75 @@
+package it.wldt.core.adapter;
+
+import it.wldt.core.engine.DigitalTwin;
+import it.wldt.core.engine.DigitalTwinEngine;
+import it.wldt.core.execution.WldtSharedExecutors;
+import it.wldt.log.WldtLogger;
+import it.wldt.log.WldtLoggerProvider;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the adapter execution on the engine shared executors with 50 Physical Adapters per Digital Twin,
+ * reusing the adapters of {@link MultiAdapterExecutionTester}. It is not part of the test suite and is run with the
+ * benchmark task: the start-to-sync time is only logged (BENCH lines) since it depends on the host.
+ */
+public class MultiAdapterBenchmark {
+
+    private static final WldtLogger logger = WldtLoggerProvider.getLogger(MultiAdapterBenchmark.class);
+
+    private static final int PHYSICAL_ADAPTER_COUNT = 50;
+
+    private static final int BENCHMARK_ROUNDS = 5;
+
+    @Test
+    public void benchmarkFiftyPhysicalAdaptersPerTwin() throws Exception {
+
+        // Warm-up round
+        runRound("warmup-dt", PHYSICAL_ADAPTER_COUNT);
+
+        long totalSingleAdapterNs = 0;
+        long totalMultiAdapterNs = 0;
+
+        for(int i = 0; i < BENCHMARK_ROUNDS; i++) {
+            totalSingleAdapterNs += runRound("single-adapter-dt-" + i, 1);
+            totalMultiAdapterNs += runRound("multi-adapter-dt-" + i, PHYSICAL_ADAPTER_COUNT);
+        }
+
+        double avgSingleMs = totalSingleAdapterNs / (double) BENCHMARK_ROUNDS / 1000000.0;
+        double avgMultiMs = totalMultiAdapterNs / (double) BENCHMARK_ROUNDS / 1000000.0;
+        double perAdapterOverheadMs = (avgMultiMs - avgSingleMs) / (PHYSICAL_ADAPTER_COUNT - 1);
+
+        logger.info("BENCH Adapter Start-to-Sync: 1 adapter = {} ms, {} adapters = {} ms, per-adapter overhead = {} ms, shared pool threads = {}",
+                String.format("%.3f", avgSingleMs),
+                PHYSICAL_ADAPTER_COUNT,
+                String.format("%.3f", avgMultiMs),
+                String.format("%.3f", perAdapterOverheadMs),
+                WldtSharedExecutors.getBlockingExecutorPoolSize());
+    }
+
+    private long runRound(String digitalTwinId, int physicalAdapterCount) throws Exception {
+
+        CountDownLatch syncLatch = new CountDownLatch(1);
+
+        DigitalTwin digitalTwin = new DigitalTwin(digitalTwinId, MultiAdapterExecutionTester.buildShadowingFunction());
+
+        for(int i = 0; i < physicalAdapterCount; i++)
+            digitalTwin.addPhysicalAdapter(new MultiAdapterExecutionTester.BindingPhysicalAdapter(String.format("pa-%d", i)));
+
+        digitalTwin.addDigitalAdapter(new MultiAdapterExecutionTester.SyncDigitalAdapter("da-1", syncLatch));
+
+        DigitalTwinEngine digitalTwinEngine = new DigitalTwinEngine();
+        digitalTwinEngine.addDigitalTwin(digitalTwin);
+
+        long startTime = System.nanoTime();
+        digitalTwinEngine.startDigitalTwin(digitalTwinId);
+        syncLatch.await(10, TimeUnit.SECONDS);
+        long elapsed = System.nanoTime() - startTime;
+
+        digitalTwinEngine.stopDigitalTwin(digitalTwinId);
+
+        return elapsed;
+    }
+}
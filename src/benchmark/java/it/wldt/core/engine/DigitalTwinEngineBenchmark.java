@@ -0,0 +1,247 @@
+package it.wldt.core.engine;
+
+import it.wldt.adapter.physical.PhysicalAssetDescription;
+import it.wldt.adapter.physical.PhysicalAssetProperty;
+import it.wldt.adapter.physical.event.PhysicalAssetPropertyWldtEvent;
+import it.wldt.core.adapter.digital.TestDigitalAdapter;
+import it.wldt.core.adapter.digital.TestDigitalAdapterConfiguration;
+import it.wldt.core.adapter.physical.TestPhysicalAdapter;
+import it.wldt.core.adapter.physical.TestPhysicalAdapterConfiguration;
+import it.wldt.core.adapter.shadowing.TestShadowingFunction;
+import it.wldt.core.event.WldtEventFilter;
+import it.wldt.core.state.DigitalTwinState;
+import it.wldt.core.state.DigitalTwinStateManager;
+import it.wldt.core.state.DigitalTwinStateProperty;
+import it.wldt.core.state.DigitalTwinStateRelationship;
+import it.wldt.core.state.DigitalTwinStateRelationshipInstance;
+import it.wldt.log.WldtLogger;
+import it.wldt.log.WldtLoggerProvider;
+import it.wldt.storage.DefaultWldtStorage;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Micro-benchmarks of the Digital Twin Engine and of the Digital Twin life cycle, reusing the fixtures of the engine
+ * testers. They are not part of the test suite and are run with the benchmark task: the measured costs are only logged
+ * (BENCH lines) since they depend on the host.
+ */
+public class DigitalTwinEngineBenchmark {
+
+    private static final WldtLogger logger = WldtLoggerProvider.getLogger(DigitalTwinEngineBenchmark.class);
+
+    private static final int DIGITAL_TWIN_COUNT = 100;
+
+    private static final int SENSOR_COUNT = 10000;
+
+    private static final int QUERY_COUNT = 1000;
+
+    private static final int INSTANCE_COUNT = 2000;
+
+    private static final long SLOW_LISTENER_DELAY_MS = 500;
+
+    @Test
+    public void benchmarkRegistryReadsDuringSlowStart() throws Exception {
+
+        DigitalTwinEngine digitalTwinEngine = new DigitalTwinEngine();
+
+        for(int i = 0; i < DIGITAL_TWIN_COUNT; i++)
+            digitalTwinEngine.addDigitalTwin(new DigitalTwin(String.format("read-dt-%04d", i), new TestShadowingFunction()));
+
+        DigitalTwin slowDigitalTwin = new DigitalTwin("slow-dt", new TestShadowingFunction());
+        slowDigitalTwin.addPhysicalAdapter(new DigitalTwinEngineRegistryTester.SlowPhysicalAdapter("slow-physical-adapter"));
+        slowDigitalTwin.addDigitalAdapter(new TestDigitalAdapter("slow-digital-adapter", new TestDigitalAdapterConfiguration()));
+        digitalTwinEngine.addDigitalTwin(slowDigitalTwin);
+
+        Thread starterThread = new Thread(() -> {
+            try {
+                digitalTwinEngine.startDigitalTwin("slow-dt");
+            } catch (Exception e) {
+                logger.error("Error starting slow DT: {}", e.getLocalizedMessage());
+            }
+        });
+        starterThread.start();
+
+        long maxReadLatencyNanos = 0;
+        int readCount = 0;
+
+        while (starterThread.isAlive()) {
+            long startNanos = System.nanoTime();
+            digitalTwinEngine.getDigitalTwin(String.format("read-dt-%04d", readCount % DIGITAL_TWIN_COUNT));
+            digitalTwinEngine.getDigitalTwinPage(null, 10);
+            maxReadLatencyNanos = Math.max(maxReadLatencyNanos, System.nanoTime() - startNanos);
+            readCount++;
+        }
+
+        logger.info("BENCH Registry reads during slow start: {} reads, max latency = {} us", readCount, maxReadLatencyNanos / 1000);
+
+        digitalTwinEngine.stopDigitalTwin("slow-dt");
+    }
+
+    @Test
+    public void benchmarkIncomingEdgesQuery() throws Exception {
+
+        DigitalTwinEngine digitalTwinEngine = new DigitalTwinEngine();
+        DigitalTwinRelationshipGraph relationshipGraph = digitalTwinEngine.getRelationshipGraph();
+
+        DigitalTwin plantDigitalTwin = new DigitalTwin("plant-dt", new TestShadowingFunction());
+        digitalTwinEngine.addDigitalTwin(plantDigitalTwin);
+
+        DigitalTwinStateManager digitalTwinStateManager = plantDigitalTwin.getDigitalTwinStateManager();
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.createRelationship(new DigitalTwinStateRelationship<>("isPartOf", "isPartOf"));
+        for(int i = 0; i < SENSOR_COUNT; i++)
+            digitalTwinStateManager.addRelationshipInstance(new DigitalTwinStateRelationshipInstance<>("isPartOf", "line-" + (i % 100), "sensor-" + i));
+        digitalTwinStateManager.commitStateTransaction();
+
+        DigitalTwinRelationshipGraphTester.waitForEdges(relationshipGraph, SENSOR_COUNT);
+
+        long startNanos = System.nanoTime();
+        int edgeCount = 0;
+        for(int i = 0; i < QUERY_COUNT; i++)
+            edgeCount += relationshipGraph.getIncomingEdges("line-" + (i % 100)).size();
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        logger.info("BENCH Incoming edges query on a graph with {} edges -> {} us/query ({} edges per target)",
+                relationshipGraph.getEdgeCount(),
+                String.format("%.2f", elapsedNanos / 1e3 / QUERY_COUNT),
+                edgeCount / QUERY_COUNT);
+    }
+
+    @Test
+    public void benchmarkTemplateInstantiation() throws Exception {
+
+        PhysicalAssetDescription physicalAssetDescription = DigitalTwinTemplateTester.buildPhysicalAssetDescription();
+
+        // Baseline: each instance builds its own filter and creates its state resources in a transaction
+        long baselineStartNanos = System.nanoTime();
+        for(int i = 0; i < INSTANCE_COUNT; i++){
+
+            DigitalTwin digitalTwin = new DigitalTwin(String.format("manual-dt-%d", i), new TestShadowingFunction());
+            String digitalTwinId = digitalTwin.getDigitalTwinId();
+            digitalTwin.addPhysicalAdapter(new TestPhysicalAdapter(String.format("%s-physical-adapter", digitalTwinId), new TestPhysicalAdapterConfiguration(), false));
+            digitalTwin.addDigitalAdapter(new TestDigitalAdapter(String.format("%s-digital-adapter", digitalTwinId), new TestDigitalAdapterConfiguration()));
+
+            WldtEventFilter wldtEventFilter = new WldtEventFilter();
+            for(PhysicalAssetProperty<?> physicalAssetProperty : physicalAssetDescription.getProperties())
+                wldtEventFilter.add(PhysicalAssetPropertyWldtEvent.buildEventType(PhysicalAssetPropertyWldtEvent.PHYSICAL_EVENT_BASIC_TYPE, physicalAssetProperty.getKey()));
+
+            DigitalTwinStateManager digitalTwinStateManager = digitalTwin.getDigitalTwinStateManager();
+            digitalTwinStateManager.startStateTransaction();
+            for(PhysicalAssetProperty<?> physicalAssetProperty : physicalAssetDescription.getProperties())
+                digitalTwinStateManager.createProperty(new DigitalTwinStateProperty<>(physicalAssetProperty.getKey(), physicalAssetProperty.getInitialValue()));
+            digitalTwinStateManager.commitStateTransaction();
+        }
+        long baselineElapsedNanos = System.nanoTime() - baselineStartNanos;
+
+        // Template: filters, event types and state skeleton are computed once
+        DigitalTwinTemplate digitalTwinTemplate = DigitalTwinTemplateTester.buildTemplate();
+
+        long templateStartNanos = System.nanoTime();
+        for(int i = 0; i < INSTANCE_COUNT; i++)
+            digitalTwinTemplate.newInstance(String.format("template-dt-%d", i));
+        long templateElapsedNanos = System.nanoTime() - templateStartNanos;
+
+        logger.info("BENCH DigitalTwinTemplate instances: {} properties: {} -> manual: {} instances/s template: {} instances/s",
+                INSTANCE_COUNT,
+                physicalAssetDescription.getProperties().size(),
+                String.format("%.0f", INSTANCE_COUNT / (baselineElapsedNanos / 1e9)),
+                String.format("%.0f", INSTANCE_COUNT / (templateElapsedNanos / 1e9)));
+    }
+
+    @Test
+    public void benchmarkTimeToFirstStateWithWarmRestart() throws Exception {
+
+        String digitalTwinId = DigitalTwinWarmRestartTester.DIGITAL_TWIN_ID;
+        DefaultWldtStorage storage = new DefaultWldtStorage("warm-restart-storage", true);
+        DigitalTwinEngine digitalTwinEngine = new DigitalTwinEngine();
+
+        // Cold start: the first state is available only after the physical binding and the shadowing
+        CountDownLatch coldSyncLatch = new CountDownLatch(1);
+        DigitalTwin coldDigitalTwin = DigitalTwinWarmRestartTester.buildDigitalTwin(storage, new CountDownLatch(1), coldSyncLatch, new AtomicReference<>());
+
+        digitalTwinEngine.addDigitalTwin(coldDigitalTwin);
+        digitalTwinEngine.startDigitalTwin(digitalTwinId);
+        coldSyncLatch.await(10, TimeUnit.SECONDS);
+        long coldTimeToFirstStateNanos = coldDigitalTwin.getTimeToFirstStateNanos();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while(storage.getDigitalTwinStateCount() == 0 && System.currentTimeMillis() < deadline)
+            Thread.sleep(20);
+
+        digitalTwinEngine.stopDigitalTwin(digitalTwinId);
+        digitalTwinEngine.removeDigitalTwin(digitalTwinId);
+
+        // Warm restart: the stored state is restored and served before the physical binding
+        CountDownLatch warmSyncLatch = new CountDownLatch(1);
+        DigitalTwin warmDigitalTwin = DigitalTwinWarmRestartTester.buildDigitalTwin(storage, new CountDownLatch(1), warmSyncLatch, new AtomicReference<DigitalTwinState>());
+        warmDigitalTwin.setWarmRestartEnabled(true);
+
+        digitalTwinEngine.addDigitalTwin(warmDigitalTwin);
+        digitalTwinEngine.startDigitalTwin(digitalTwinId);
+        warmSyncLatch.await(10, TimeUnit.SECONDS);
+
+        logger.info("BENCH Time to first served state -> cold start: {} ms, warm restart: {} ms",
+                String.format("%.3f", coldTimeToFirstStateNanos / 1e6),
+                String.format("%.3f", warmDigitalTwin.getTimeToFirstStateNanos() / 1e6));
+
+        digitalTwinEngine.stopDigitalTwin(digitalTwinId);
+        digitalTwinEngine.removeDigitalTwin(digitalTwinId);
+    }
+
+    @Test
+    public void benchmarkPhysicalBindingWithSlowListener() throws Exception {
+
+        String digitalTwinId = "life-cycle-benchmark-dt";
+        AtomicLong bindingDurationNanos = new AtomicLong(-1);
+        CountDownLatch syncLatch = new CountDownLatch(1);
+
+        DigitalTwin digitalTwin = new DigitalTwin(digitalTwinId, new TestShadowingFunction());
+
+        // Physical Adapter measuring the time required to notify its binding to the Digital Twin
+        digitalTwin.addPhysicalAdapter(new TestPhysicalAdapter("physical-adapter", new TestPhysicalAdapterConfiguration(), false) {
+            @Override
+            public void onAdapterStart() {
+                long startNanos = System.nanoTime();
+                super.onAdapterStart();
+                bindingDurationNanos.set(System.nanoTime() - startNanos);
+            }
+        });
+
+        // Slow Digital Adapter spending time on each physical adapter binding
+        TestDigitalAdapter slowDigitalAdapter = new TestDigitalAdapter("slow-digital-adapter", new TestDigitalAdapterConfiguration()) {
+
+            @Override
+            public void onPhysicalAdapterBound(String adapterId, PhysicalAssetDescription physicalAssetDescription) {
+                try {
+                    Thread.sleep(SLOW_LISTENER_DELAY_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public void onDigitalTwinSync(DigitalTwinState digitalTwinState) {
+                super.onDigitalTwinSync(digitalTwinState);
+                syncLatch.countDown();
+            }
+        };
+        digitalTwin.addDigitalAdapter(slowDigitalAdapter);
+
+        DigitalTwinEngine digitalTwinEngine = new DigitalTwinEngine();
+        digitalTwinEngine.addDigitalTwin(digitalTwin);
+        digitalTwinEngine.startDigitalTwin(digitalTwinId);
+        syncLatch.await(SLOW_LISTENER_DELAY_MS + 10000, TimeUnit.MILLISECONDS);
+
+        logger.info("BENCH Life cycle fan-out -> physical binding notification: {} ms with a {} ms listener, slow listener stats: {}",
+                String.format("%.3f", bindingDurationNanos.get() / 1e6),
+                SLOW_LISTENER_DELAY_MS,
+                digitalTwin.getLifeCycleListenerStats(slowDigitalAdapter).orElse(null));
+
+        digitalTwinEngine.stopDigitalTwin(digitalTwinId);
+        digitalTwinEngine.removeDigitalTwin(digitalTwinId);
+    }
+}
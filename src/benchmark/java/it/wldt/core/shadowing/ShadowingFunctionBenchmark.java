@@ -0,0 +1,280 @@
+package it.wldt.core.shadowing;
+
+import it.wldt.adapter.physical.event.PhysicalAssetPropertyWldtEvent;
+import it.wldt.core.adapter.digital.TestDigitalAdapter;
+import it.wldt.core.adapter.digital.TestDigitalAdapterConfiguration;
+import it.wldt.core.adapter.physical.TestPhysicalAdapter;
+import it.wldt.core.adapter.physical.TestPhysicalAdapterConfiguration;
+import it.wldt.core.engine.DigitalTwin;
+import it.wldt.core.engine.DigitalTwinEngine;
+import it.wldt.core.event.WldtEventBus;
+import it.wldt.core.model.ShadowingFunction;
+import it.wldt.core.state.DigitalTwinState;
+import it.wldt.core.state.DigitalTwinStateChange;
+import it.wldt.core.state.DigitalTwinStateManager;
+import it.wldt.core.state.DigitalTwinStateProperty;
+import it.wldt.log.WldtLogger;
+import it.wldt.log.WldtLoggerProvider;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Micro-benchmarks of the Shadowing Function event handling modes, reusing the fixtures of the shadowing testers.
+ * They are not part of the test suite and are run with the benchmark task: the measured costs are only logged
+ * (BENCH lines) since they depend on the host.
+ */
+public class ShadowingFunctionBenchmark {
+
+    private static final WldtLogger logger = WldtLoggerProvider.getLogger(ShadowingFunctionBenchmark.class);
+
+    private static final String DIGITAL_TWIN_ID = "shadowing-benchmark-dt";
+
+    private static long commitCount(DigitalTwinStateManager digitalTwinStateManager, long startVersion) {
+        return digitalTwinStateManager.getDigitalTwinState().getVersion() - startVersion;
+    }
+
+    @Test
+    public void benchmarkParallelShadowing() throws Exception {
+
+        List<PhysicalAssetPropertyWldtEvent<Double>> variationList = ParallelShadowingTester.createVariations();
+
+        // Reference: serial shadowing with a transaction for each variation
+        ParallelShadowingTester.SensorShadowingFunction serialShadowingFunction = new ParallelShadowingTester.SensorShadowingFunction(ParallelShadowingTester.createStateManager());
+
+        long startNanos = System.nanoTime();
+        for(PhysicalAssetPropertyWldtEvent<Double> variation : variationList)
+            serialShadowingFunction.onEvent(variation);
+        long serialNanos = System.nanoTime() - startNanos;
+
+        ParallelShadowingTester.SensorShadowingFunction parallelShadowingFunction = new ParallelShadowingTester.SensorShadowingFunction(ParallelShadowingTester.createStateManager());
+        parallelShadowingFunction.enableParallelShadowing();
+
+        startNanos = System.nanoTime();
+        for(PhysicalAssetPropertyWldtEvent<Double> variation : variationList)
+            parallelShadowingFunction.onEvent(variation);
+        parallelShadowingFunction.awaitParallelShadowing(60, TimeUnit.SECONDS);
+        long parallelNanos = System.nanoTime() - startNanos;
+
+        logger.info("BENCH {} sensor variations ({} cores) -> parallel shadowing ({} transactions): {} events/s, serial shadowing: {} events/s",
+                variationList.size(),
+                Runtime.getRuntime().availableProcessors(),
+                parallelShadowingFunction.getParallelShadowingCommittedTransactionCount(),
+                String.format("%.0f", variationList.size() / (parallelNanos / 1e9)),
+                String.format("%.0f", variationList.size() / (serialNanos / 1e9)));
+
+        parallelShadowingFunction.disableParallelShadowing();
+    }
+
+    @Test
+    public void benchmarkPropertyMappingBursts() throws Exception {
+
+        int burstCount = 50;
+        int propertyCount = PropertyMappingShadowingFunctionTester.PROPERTY_COUNT;
+
+        // Reference: the same mapping without batching, committing each variation
+        DigitalTwinStateManager singleStateManager = new DigitalTwinStateManager(DIGITAL_TWIN_ID);
+        PropertyMappingShadowingFunctionTester.TestPropertyMappingShadowingFunction singleShadowingFunction = new PropertyMappingShadowingFunctionTester.TestPropertyMappingShadowingFunction(singleStateManager, 1);
+        singleShadowingFunction.bind(PropertyMappingShadowingFunctionTester.createPhysicalAssetDescription(propertyCount));
+
+        long startVersion = singleStateManager.getDigitalTwinState().getVersion();
+        long startNanos = System.nanoTime();
+        for(int i = 0; i < burstCount; i++)
+            PropertyMappingShadowingFunctionTester.sendBurst(singleShadowingFunction, i);
+        long singleNanos = System.nanoTime() - startNanos;
+        long singleTransactionCount = commitCount(singleStateManager, startVersion);
+
+        DigitalTwinStateManager batchStateManager = new DigitalTwinStateManager(DIGITAL_TWIN_ID);
+        PropertyMappingShadowingFunctionTester.TestPropertyMappingShadowingFunction batchShadowingFunction = new PropertyMappingShadowingFunctionTester.TestPropertyMappingShadowingFunction(batchStateManager, propertyCount);
+        batchShadowingFunction.create();
+        batchShadowingFunction.bind(PropertyMappingShadowingFunctionTester.createPhysicalAssetDescription(propertyCount));
+
+        startVersion = batchStateManager.getDigitalTwinState().getVersion();
+        startNanos = System.nanoTime();
+        for(int i = 0; i < burstCount; i++)
+            PropertyMappingShadowingFunctionTester.sendBurst(batchShadowingFunction, i);
+        batchShadowingFunction.flushPhysicalAssetPropertyVariations();
+        long batchNanos = System.nanoTime() - startNanos;
+        long batchTransactionCount = commitCount(batchStateManager, startVersion);
+
+        logger.info("BENCH {} bursts of {} property variations -> mapping function: {} transactions in {} ms, per event commit: {} transactions in {} ms",
+                burstCount,
+                propertyCount,
+                batchTransactionCount,
+                String.format("%.2f", batchNanos / 1e6),
+                singleTransactionCount,
+                String.format("%.2f", singleNanos / 1e6));
+    }
+
+    @Test
+    public void benchmarkVariationBatching() throws Exception {
+
+        int sampleCount = 50;
+        int propertyCount = ShadowingFunctionBatchingTester.PROPERTY_COUNT;
+
+        DigitalTwinStateManager singleStateManager = ShadowingFunctionBatchingTester.createStateManager();
+        ShadowingFunctionBatchingTester.RecordingShadowingFunction singleShadowingFunction = new ShadowingFunctionBatchingTester.RecordingShadowingFunction(singleStateManager, false);
+
+        long startVersion = singleStateManager.getDigitalTwinState().getVersion();
+        long startNanos = System.nanoTime();
+        for(int i = 0; i < sampleCount; i++)
+            ShadowingFunctionBatchingTester.sendSample(singleShadowingFunction, i);
+        long singleNanos = System.nanoTime() - startNanos;
+        long singleTransactionCount = commitCount(singleStateManager, startVersion);
+
+        DigitalTwinStateManager batchStateManager = ShadowingFunctionBatchingTester.createStateManager();
+        ShadowingFunctionBatchingTester.RecordingShadowingFunction batchShadowingFunction = new ShadowingFunctionBatchingTester.RecordingShadowingFunction(batchStateManager, true);
+        batchShadowingFunction.enableBatching(propertyCount, 100);
+
+        startVersion = batchStateManager.getDigitalTwinState().getVersion();
+        startNanos = System.nanoTime();
+        for(int i = 0; i < sampleCount; i++)
+            ShadowingFunctionBatchingTester.sendSample(batchShadowingFunction, i);
+        batchShadowingFunction.flushPhysicalAssetPropertyVariations();
+        long batchNanos = System.nanoTime() - startNanos;
+        long batchTransactionCount = commitCount(batchStateManager, startVersion);
+
+        logger.info("BENCH {} device samples of {} properties -> batched callback: {} transactions in {} ms, single event callback: {} transactions in {} ms",
+                sampleCount,
+                propertyCount,
+                batchTransactionCount,
+                String.format("%.2f", batchNanos / 1e6),
+                singleTransactionCount,
+                String.format("%.2f", singleNanos / 1e6));
+    }
+
+    @Test
+    public void benchmarkStalenessTracking() throws Exception {
+
+        int propertyCount = StalenessWatchdogTester.PROPERTY_COUNT;
+        int roundCount = StalenessWatchdogTester.UPDATE_ROUND_COUNT;
+
+        DigitalTwinStateManager untrackedStateManager = new DigitalTwinStateManager("staleness-untracked-dt");
+        untrackedStateManager.startStateTransaction();
+        for(int i = 0; i < propertyCount; i++)
+            untrackedStateManager.createProperty(new DigitalTwinStateProperty<>("property-" + i, 0.0));
+        untrackedStateManager.commitStateTransaction();
+
+        // Warm up
+        StalenessWatchdogTester.updateAllProperties(untrackedStateManager);
+
+        DigitalTwinStateManager trackedStateManager = StalenessWatchdogTester.createStateManager("staleness-tracked-dt");
+
+        long startNanos = System.nanoTime();
+        StalenessWatchdogTester.updateAllProperties(trackedStateManager);
+        long trackedNanos = System.nanoTime() - startNanos;
+
+        startNanos = System.nanoTime();
+        StalenessWatchdogTester.updateAllProperties(untrackedStateManager);
+        long untrackedNanos = System.nanoTime() - startNanos;
+
+        // Reference: a periodic check comparing the last update time of all the properties of the state
+        Map<String, Long> lastUpdateMap = new HashMap<>();
+        for(int i = 0; i < propertyCount; i++)
+            lastUpdateMap.put("property-" + i, System.nanoTime());
+
+        startNanos = System.nanoTime();
+
+        int stalePropertyCount = 0;
+        for(int round = 0; round < roundCount; round++) {
+            long nowNanos = System.nanoTime();
+            for(DigitalTwinStateProperty<?> property : trackedStateManager.getDigitalTwinState().getPropertyList().get())
+                if(nowNanos - lastUpdateMap.get(property.getKey()) > TimeUnit.HOURS.toNanos(1))
+                    stalePropertyCount++;
+        }
+
+        long scanNanos = System.nanoTime() - startNanos;
+
+        for(int i = 0; i < propertyCount; i++)
+            trackedStateManager.removePropertyMaxAge("property-" + i);
+
+        logger.info("BENCH Commit of {} property updates -> with max age: {} ns/update, without: {} ns/update, periodic scan of the state: {} us/scan ({} stale)",
+                propertyCount,
+                String.format("%.2f", (double) trackedNanos / roundCount / propertyCount),
+                String.format("%.2f", (double) untrackedNanos / roundCount / propertyCount),
+                String.format("%.2f", scanNanos / 1e3 / roundCount),
+                stalePropertyCount);
+    }
+
+    @Test
+    public void benchmarkHotSwap() throws Exception {
+
+        int eventCount = 2000;
+
+        AtomicReference<CountDownLatch> syncLatchReference = new AtomicReference<>(new CountDownLatch(1));
+
+        ShadowingFunctionHotSwapTester.CountingShadowingFunction firstShadowingFunction = new ShadowingFunctionHotSwapTester.CountingShadowingFunction("shadowing-function-v1");
+        ShadowingFunctionHotSwapTester.CountingShadowingFunction secondShadowingFunction = new ShadowingFunctionHotSwapTester.CountingShadowingFunction("shadowing-function-v2");
+
+        DigitalTwinEngine digitalTwinEngine = new DigitalTwinEngine();
+        DigitalTwin digitalTwin = buildDigitalTwin(firstShadowingFunction, syncLatchReference);
+        digitalTwinEngine.addDigitalTwin(digitalTwin);
+        digitalTwinEngine.startDigitalTwin(DIGITAL_TWIN_ID);
+        syncLatchReference.get().await(10, TimeUnit.SECONDS);
+
+        // Stream of physical property variations while the shadowing function is replaced
+        CountDownLatch swapLatch = new CountDownLatch(1);
+        Thread publisherThread = new Thread(() -> {
+            try {
+                for(int i = 0; i < eventCount; i++) {
+                    WldtEventBus.getInstance().publishEvent(DIGITAL_TWIN_ID, "test-physical-adapter",
+                            new PhysicalAssetPropertyWldtEvent<>(TestPhysicalAdapter.ENERGY_PROPERTY_KEY, (double) i));
+                    if(i == eventCount / 2)
+                        swapLatch.countDown();
+                }
+            } catch (Exception e) {
+                logger.error("Error publishing the variations ! Error: {}", e.getLocalizedMessage());
+            }
+        });
+        publisherThread.start();
+
+        swapLatch.await(10, TimeUnit.SECONDS);
+        digitalTwin.replaceShadowingFunction(secondShadowingFunction);
+        publisherThread.join(10000);
+
+        // Reference: the restart previously required to deploy a new shadowing logic
+        syncLatchReference.set(new CountDownLatch(1));
+        long startNanos = System.nanoTime();
+        digitalTwinEngine.stopDigitalTwin(DIGITAL_TWIN_ID);
+        digitalTwinEngine.removeDigitalTwin(DIGITAL_TWIN_ID);
+        digitalTwinEngine.addDigitalTwin(buildDigitalTwin(new ShadowingFunctionHotSwapTester.CountingShadowingFunction("shadowing-function-v2"), syncLatchReference));
+        digitalTwinEngine.startDigitalTwin(DIGITAL_TWIN_ID);
+        syncLatchReference.get().await(10, TimeUnit.SECONDS);
+        long restartNanos = System.nanoTime() - startNanos;
+
+        logger.info("BENCH Shadowing Function hot swap -> event delivery paused for {} ms (v1 events: {}, v2 events: {}), full restart: {} ms",
+                String.format("%.3f", digitalTwin.getLastShadowingFunctionSwapNanos() / 1e6),
+                firstShadowingFunction.getReceivedEventCount(),
+                secondShadowingFunction.getReceivedEventCount(),
+                String.format("%.3f", restartNanos / 1e6));
+
+        digitalTwinEngine.stopDigitalTwin(DIGITAL_TWIN_ID);
+        digitalTwinEngine.removeDigitalTwin(DIGITAL_TWIN_ID);
+    }
+
+    private DigitalTwin buildDigitalTwin(ShadowingFunction shadowingFunction, AtomicReference<CountDownLatch> syncLatchReference) throws Exception {
+
+        DigitalTwin digitalTwin = new DigitalTwin(DIGITAL_TWIN_ID, shadowingFunction);
+        digitalTwin.addPhysicalAdapter(new TestPhysicalAdapter("test-physical-adapter", new TestPhysicalAdapterConfiguration(), false));
+        digitalTwin.addDigitalAdapter(new TestDigitalAdapter("test-digital-adapter", new TestDigitalAdapterConfiguration()) {
+            @Override
+            public void onDigitalTwinSync(DigitalTwinState digitalTwinState) {
+                super.onDigitalTwinSync(digitalTwinState);
+                syncLatchReference.get().countDown();
+            }
+
+            @Override
+            protected void onStateUpdate(DigitalTwinState newDigitalTwinState, DigitalTwinState previousDigitalTwinState, ArrayList<DigitalTwinStateChange> digitalTwinStateChangeList) {
+                // Updates are generated faster than the evaluation instant resolution
+            }
+        });
+
+        return digitalTwin;
+    }
+}
@@ -0,0 +1,637 @@
+package it.wldt.core.state;
+
+import it.wldt.log.WldtLogger;
+import it.wldt.log.WldtLoggerProvider;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Micro-benchmarks of the Digital Twin State and of its manager. They are not part of the test suite and are run
+ * with the benchmark task: the measured costs are only logged (BENCH lines) since they depend on the host.
+ */
+public class DigitalTwinStateBenchmark {
+
+    private static final WldtLogger logger = WldtLoggerProvider.getLogger(DigitalTwinStateBenchmark.class);
+
+    private static final String DIGITAL_TWIN_ID = "state-benchmark-dt";
+
+    private static DigitalTwinStateManager createStateManager(int propertyCount) throws Exception {
+
+        DigitalTwinStateManager digitalTwinStateManager = new DigitalTwinStateManager(DIGITAL_TWIN_ID);
+
+        digitalTwinStateManager.startStateTransaction();
+        for(int i = 0; i < propertyCount; i++)
+            digitalTwinStateManager.createProperty(new DigitalTwinStateProperty<>(String.format("property-%05d", i), (double) i));
+        digitalTwinStateManager.commitStateTransaction();
+
+        return digitalTwinStateManager;
+    }
+
+    private static void updateAndCommit(DigitalTwinStateManager digitalTwinStateManager, String propertyKey, double value) throws Exception {
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.updatePropertyValue(propertyKey, value);
+        digitalTwinStateManager.commitStateTransaction();
+    }
+
+    @Test
+    public void benchmarkCommitOnLargeState() throws Exception {
+
+        int propertyCount = 10000;
+        int commitCount = 5000;
+
+        DigitalTwinStateManager digitalTwinStateManager = createStateManager(propertyCount);
+
+        long startNanos = System.nanoTime();
+
+        for(int i = 0; i < commitCount; i++)
+            updateAndCommit(digitalTwinStateManager, String.format("property-%05d", i % propertyCount), (double) -i);
+
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        logger.info("BENCH Single property commit on a state with {} properties -> {} us/commit",
+                propertyCount,
+                String.format("%.2f", elapsedNanos / 1e3 / commitCount));
+    }
+
+    @Test
+    public void benchmarkBulkUpdate() throws Exception {
+
+        int propertyCount = 500;
+        int sampleCount = 200;
+
+        DigitalTwinStateManager digitalTwinStateManager = createStateManager(propertyCount);
+
+        // Warm up both paths before measuring
+        commitSamples(digitalTwinStateManager, propertyCount, sampleCount, false);
+        commitSamples(digitalTwinStateManager, propertyCount, sampleCount, true);
+
+        long singleNanos = commitSamples(digitalTwinStateManager, propertyCount, sampleCount, false);
+        long bulkNanos = commitSamples(digitalTwinStateManager, propertyCount, sampleCount, true);
+
+        logger.info("BENCH Commit of {} property values per sample -> single updates: {} ns/property bulk update: {} ns/property",
+                propertyCount,
+                singleNanos / ((long) sampleCount * propertyCount),
+                bulkNanos / ((long) sampleCount * propertyCount));
+    }
+
+    private long commitSamples(DigitalTwinStateManager digitalTwinStateManager, int propertyCount, int sampleCount, boolean bulk) throws Exception {
+
+        long startNanos = System.nanoTime();
+
+        for(int sample = 0; sample < sampleCount; sample++) {
+
+            digitalTwinStateManager.startStateTransaction();
+
+            if(bulk) {
+                Map<String, Object> sampleMap = new HashMap<>();
+                for(int i = 0; i < propertyCount; i++)
+                    sampleMap.put(String.format("property-%05d", i), sample + (double) i);
+                digitalTwinStateManager.updatePropertyValues(sampleMap);
+            }
+            else
+                for(int i = 0; i < propertyCount; i++)
+                    digitalTwinStateManager.updatePropertyValue(new DigitalTwinStateProperty<>(String.format("property-%05d", i), sample + (double) i));
+
+            digitalTwinStateManager.commitStateTransaction();
+        }
+
+        return System.nanoTime() - startNanos;
+    }
+
+    @Test
+    public void benchmarkChangeCompaction() throws Exception {
+
+        int commitCount = 100;
+
+        DigitalTwinStateManager digitalTwinStateManager = createStateManager(2);
+
+        long startNanos = System.nanoTime();
+
+        // A shadowing function updating the same properties several times within the same transaction
+        for(int i = 1; i <= commitCount; i++) {
+            digitalTwinStateManager.startStateTransaction();
+            for(int j = 0; j < 50; j++) {
+                digitalTwinStateManager.updatePropertyValue("property-00000", 20.0 + i + j);
+                digitalTwinStateManager.updatePropertyValue("property-00001", 50.0 + i + j);
+            }
+            digitalTwinStateManager.commitStateTransaction();
+        }
+
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        logger.info("BENCH Commit of {} transactions with 100 changes on 2 properties -> {} us/commit",
+                commitCount,
+                String.format("%.2f", elapsedNanos / 1e3 / commitCount));
+    }
+
+    @Test
+    public void benchmarkDerivedProperties() throws Exception {
+
+        int inputPropertyCount = 400;
+        int derivedPropertyCount = 200;
+        int commitCount = 2000;
+
+        DigitalTwinStateManager digitalTwinStateManager = new DigitalTwinStateManager(DIGITAL_TWIN_ID);
+
+        digitalTwinStateManager.startStateTransaction();
+        for(int i = 0; i < inputPropertyCount; i++)
+            digitalTwinStateManager.createProperty(new DigitalTwinStateDoubleProperty(String.format("input-%03d", i), i));
+        for(int i = 0; i < derivedPropertyCount; i++)
+            digitalTwinStateManager.createProperty(new DigitalTwinStateDoubleProperty(String.format("manual-%03d", i), 0.0));
+        digitalTwinStateManager.commitStateTransaction();
+
+        for(int i = 0; i < derivedPropertyCount; i++)
+            digitalTwinStateManager.registerDerivedProperty(String.format("derived-%03d", i),
+                    Arrays.asList(String.format("input-%03d", 2 * i), String.format("input-%03d", 2 * i + 1)),
+                    inputValues -> (Double) inputValues.get(0) * (Double) inputValues.get(1));
+
+        // Reference: a shadowing function updating all the computed metrics on every event
+        long startNanos = System.nanoTime();
+
+        for(int i = 0; i < commitCount; i++) {
+            digitalTwinStateManager.startStateTransaction();
+            digitalTwinStateManager.updatePropertyValue(String.format("input-%03d", (2 * i) % inputPropertyCount), (double) i);
+            Map<String, Object> manualValueMap = new HashMap<>();
+            for(int j = 0; j < derivedPropertyCount; j++)
+                manualValueMap.put(String.format("manual-%03d", j), (double) (i * j));
+            digitalTwinStateManager.updatePropertyValues(manualValueMap);
+            digitalTwinStateManager.commitStateTransaction();
+        }
+
+        long recomputeAllNanos = System.nanoTime() - startNanos;
+
+        // Derived properties: only the one depending on the changed input is computed
+        startNanos = System.nanoTime();
+
+        for(int i = 0; i < commitCount; i++)
+            updateAndCommit(digitalTwinStateManager, String.format("input-%03d", (2 * i) % inputPropertyCount), (double) i + 1);
+
+        long derivedNanos = System.nanoTime() - startNanos;
+
+        logger.info("BENCH Commit of 1 input change with {} derived properties -> incremental: {} us/commit, shadowing function updating all of them: {} us/commit",
+                derivedPropertyCount,
+                String.format("%.2f", derivedNanos / 1e3 / commitCount),
+                String.format("%.2f", recomputeAllNanos / 1e3 / commitCount));
+    }
+
+    @Test
+    public void benchmarkDiff() throws Exception {
+
+        int propertyCount = 10000;
+        int changedPropertyCount = 5;
+        int diffCount = 2000;
+
+        Map<String, DigitalTwinStateProperty<?>> propertyMap = new HashMap<>();
+        for(int i = 0; i < propertyCount; i++)
+            propertyMap.put(String.format("property-%05d", i), new DigitalTwinStateProperty<>(String.format("property-%05d", i), (double) i));
+
+        DigitalTwinState previousState = new DigitalTwinState(propertyMap, Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
+        DigitalTwinState newState = new DigitalTwinState(previousState);
+        for(int i = 0; i < changedPropertyCount; i++)
+            newState.updatePropertyValue(String.format("property-%05d", i * 1000), -1.0);
+
+        long startNanos = System.nanoTime();
+
+        for(int i = 0; i < diffCount; i++)
+            DigitalTwinStateDiff.diff(previousState, newState);
+
+        long diffNanos = System.nanoTime() - startNanos;
+
+        // Reference: comparison of all the properties of the two states
+        startNanos = System.nanoTime();
+
+        for(int i = 0; i < diffCount / 10; i++)
+            for(DigitalTwinStateProperty<?> property : newState.getPropertyList().get())
+                property.equals(previousState.getProperty(property.getKey()).orElse(null));
+
+        long fullComparisonNanos = System.nanoTime() - startNanos;
+
+        logger.info("BENCH Diff of two states with {} properties and {} changed ones -> structural: {} us/diff, full comparison: {} us/diff",
+                propertyCount,
+                changedPropertyCount,
+                String.format("%.2f", diffNanos / 1e3 / diffCount),
+                String.format("%.2f", fullComparisonNanos / 1e3 / (diffCount / 10)));
+    }
+
+    @Test
+    public void benchmarkGroupCommit() throws Exception {
+
+        int transactionCount = 2000;
+
+        DigitalTwinStateManager digitalTwinStateManager = createStateManager(1);
+        digitalTwinStateManager.enableGroupCommit(10, TimeUnit.SECONDS, 100);
+
+        long startNanos = System.nanoTime();
+
+        for(int i = 0; i < transactionCount; i++)
+            updateAndCommit(digitalTwinStateManager, "property-00000", (double) i);
+
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        digitalTwinStateManager.flushGroupCommit();
+
+        logger.info("BENCH Group commit of {} transactions (max 100 per group) -> {} us/commit",
+                transactionCount,
+                String.format("%.2f", elapsedNanos / 1e3 / transactionCount));
+    }
+
+    @Test
+    public void benchmarkOptimisticTransactions() throws Exception {
+
+        int writerCount = 4;
+        int updateCount = 2000;
+
+        DigitalTwinStateManager digitalTwinStateManager = new DigitalTwinStateManager(DIGITAL_TWIN_ID);
+
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.createProperty(new DigitalTwinStateLongProperty("counter", 0L));
+        for(int i = 0; i < writerCount; i++)
+            digitalTwinStateManager.createProperty(new DigitalTwinStateLongProperty("property-" + i, 0L));
+        digitalTwinStateManager.commitStateTransaction();
+
+        List<Thread> writerList = new ArrayList<>();
+
+        long startNanos = System.nanoTime();
+
+        for(int w = 0; w < writerCount; w++) {
+
+            String propertyKey = "property-" + w;
+
+            Thread writer = new Thread(() -> {
+                try {
+                    for(long i = 1; i <= updateCount; i++) {
+
+                        long value = i;
+
+                        // Disjoint keys never conflict
+                        digitalTwinStateManager.executeStateTransaction(transaction ->
+                                digitalTwinStateManager.updatePropertyValue(transaction, propertyKey, value), 1);
+
+                        // Shared key: read-modify-write retried on conflict
+                        if(i % 10 == 0)
+                            digitalTwinStateManager.executeStateTransaction(transaction -> {
+                                try {
+                                    long counter = ((DigitalTwinStateLongProperty) transaction.getStartDigitalTwinState().getProperty("counter").get()).getLongValue();
+                                    digitalTwinStateManager.updatePropertyValue(transaction, "counter", counter + 1);
+                                } catch (Exception e) {
+                                    throw new RuntimeException(e);
+                                }
+                            }, Integer.MAX_VALUE);
+                    }
+                } catch (Exception e) {
+                    logger.error("Optimistic writer error: {}", e.getLocalizedMessage());
+                }
+            });
+
+            writerList.add(writer);
+            writer.start();
+        }
+
+        for(Thread writer : writerList)
+            writer.join();
+
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        logger.info("BENCH Optimistic transactions with {} writers -> {} commits in {} ms",
+                writerCount,
+                writerCount * (updateCount + updateCount / 10),
+                elapsedNanos / 1000000);
+    }
+
+    @Test
+    public void benchmarkPropertyDeadband() throws Exception {
+
+        int updateCount = 20000;
+
+        DigitalTwinStateManager filteredStateManager = new DigitalTwinStateManager(DIGITAL_TWIN_ID);
+        DigitalTwinStateManager unfilteredStateManager = new DigitalTwinStateManager(DIGITAL_TWIN_ID);
+
+        filteredStateManager.startStateTransaction();
+        filteredStateManager.createProperty(new DigitalTwinStateDoubleProperty("temperature", 20.0), new DigitalTwinStatePropertyDeadband(0.5, 0.0));
+        filteredStateManager.commitStateTransaction();
+
+        unfilteredStateManager.startStateTransaction();
+        unfilteredStateManager.createProperty(new DigitalTwinStateDoubleProperty("temperature", 20.0));
+        unfilteredStateManager.commitStateTransaction();
+
+        // Readings of a slowly increasing temperature with a small noise
+        double[] readings = new double[updateCount];
+        Random random = new Random(42);
+        for(int i = 0; i < updateCount; i++)
+            readings[i] = 20.0 + i * 0.0005 + random.nextGaussian() * 0.05;
+
+        long startVersion = unfilteredStateManager.getDigitalTwinState().getVersion();
+        long startNanos = System.nanoTime();
+
+        for(double reading : readings)
+            updateAndCommit(unfilteredStateManager, "temperature", reading);
+
+        long unfilteredNanos = System.nanoTime() - startNanos;
+        long unfilteredCommitCount = unfilteredStateManager.getDigitalTwinState().getVersion() - startVersion;
+
+        startVersion = filteredStateManager.getDigitalTwinState().getVersion();
+        startNanos = System.nanoTime();
+
+        for(double reading : readings)
+            updateAndCommit(filteredStateManager, "temperature", reading);
+
+        long filteredNanos = System.nanoTime() - startNanos;
+        long filteredCommitCount = filteredStateManager.getDigitalTwinState().getVersion() - startVersion;
+
+        logger.info("BENCH {} noisy readings -> deadband: {} published states in {} ms, no deadband: {} published states in {} ms",
+                updateCount,
+                filteredCommitCount,
+                String.format("%.2f", filteredNanos / 1e6),
+                unfilteredCommitCount,
+                String.format("%.2f", unfilteredNanos / 1e6));
+    }
+
+    @Test
+    public void benchmarkPropertyHistory() throws Exception {
+
+        int propertyCount = 100;
+        int sampleCount = 100000;
+        int windowSize = 100;
+        int readCount = 200;
+
+        DigitalTwinStateManager digitalTwinStateManager = new DigitalTwinStateManager(DIGITAL_TWIN_ID);
+
+        digitalTwinStateManager.startStateTransaction();
+        for(int i = 0; i < propertyCount; i++)
+            digitalTwinStateManager.createProperty(new DigitalTwinStateDoubleProperty("property-" + i, 0.0));
+        digitalTwinStateManager.commitStateTransaction();
+
+        DigitalTwinStatePropertyHistory propertyHistory = digitalTwinStateManager.enablePropertyHistory("property-0", windowSize);
+
+        // Reference: variations stored by timestamp as in the storage, filtered by key on each read
+        Map<Long, Map.Entry<String, Double>> variationMap = new HashMap<>();
+
+        for(int i = 0; i < sampleCount; i++) {
+            String propertyKey = "property-" + (i % propertyCount);
+            variationMap.put((long) i, new AbstractMap.SimpleEntry<>(propertyKey, (double) i));
+            if(i % propertyCount == 0 && i >= (sampleCount - windowSize * propertyCount))
+                updateAndCommit(digitalTwinStateManager, propertyKey, (double) i);
+        }
+
+        long startNanos = System.nanoTime();
+
+        for(int i = 0; i < readCount; i++)
+            propertyHistory.getLastValues(windowSize);
+
+        long historyNanos = System.nanoTime() - startNanos;
+
+        startNanos = System.nanoTime();
+
+        for(int i = 0; i < readCount / 10; i++) {
+            List<Double> scannedValues = new ArrayList<>();
+            for(long timestamp = sampleCount - 1; timestamp >= 0 && scannedValues.size() < windowSize; timestamp--) {
+                Map.Entry<String, Double> variation = variationMap.get(timestamp);
+                if(variation.getKey().equals("property-0"))
+                    scannedValues.add(0, variation.getValue());
+            }
+        }
+
+        long scanNanos = System.nanoTime() - startNanos;
+
+        logger.info("BENCH Read of the last {} values of a property among {} variations -> history: {} us/read ({} bytes), variation scan: {} us/read",
+                windowSize,
+                sampleCount,
+                String.format("%.2f", historyNanos / 1e3 / readCount),
+                propertyHistory.getMemorySize(),
+                String.format("%.2f", scanNanos / 1e3 / (readCount / 10)));
+    }
+
+    @Test
+    public void benchmarkRelationshipFanOut() throws Exception {
+
+        int instanceCount = 20000;
+        int targetCount = 100;
+
+        DigitalTwinStateManager digitalTwinStateManager = new DigitalTwinStateManager(DIGITAL_TWIN_ID);
+
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.createRelationship(new DigitalTwinStateRelationship<>("connectedTo", "connectedTo"));
+        digitalTwinStateManager.commitStateTransaction();
+
+        long startNanos = System.nanoTime();
+
+        // Each instance is added with its own transaction: the relationship is copied at each commit
+        for(int i = 0; i < instanceCount; i++) {
+            digitalTwinStateManager.startStateTransaction();
+            digitalTwinStateManager.addRelationshipInstance(new DigitalTwinStateRelationshipInstance<>("connectedTo", "device-" + (i % targetCount), "instance-" + i));
+            digitalTwinStateManager.commitStateTransaction();
+        }
+
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        DigitalTwinState digitalTwinState = digitalTwinStateManager.getDigitalTwinState();
+
+        startNanos = System.nanoTime();
+        for(int i = 0; i < targetCount; i++)
+            digitalTwinState.getRelationshipInstancesByTarget("device-" + i);
+        long lookupNanos = System.nanoTime() - startNanos;
+
+        logger.info("BENCH Relationship with {} instances -> {} us/instance add, {} us/target lookup ({} instances per target)",
+                instanceCount,
+                String.format("%.2f", elapsedNanos / 1e3 / instanceCount),
+                String.format("%.2f", lookupNanos / 1e3 / targetCount),
+                instanceCount / targetCount);
+    }
+
+    @Test
+    public void benchmarkSnapshotReads() throws Exception {
+
+        int commitCount = 5000;
+        int readerCount = 4;
+
+        DigitalTwinStateManager digitalTwinStateManager = createStateManager(2);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong readCount = new AtomicLong(0);
+        List<Thread> readerList = new ArrayList<>();
+
+        for(int r = 0; r < readerCount; r++) {
+            Thread reader = new Thread(() -> {
+                try {
+                    while(running.get()) {
+                        digitalTwinStateManager.getDigitalTwinState().getProperty("property-00000");
+                        readCount.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    logger.error("Snapshot reader error: {}", e.getLocalizedMessage());
+                }
+            });
+            readerList.add(reader);
+            reader.start();
+        }
+
+        long startNanos = System.nanoTime();
+
+        for(long i = 1; i <= commitCount; i++) {
+            digitalTwinStateManager.startStateTransaction();
+            digitalTwinStateManager.updatePropertyValue("property-00000", (double) i);
+            digitalTwinStateManager.updatePropertyValue("property-00001", (double) i);
+            digitalTwinStateManager.commitStateTransaction();
+        }
+
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        running.set(false);
+        for(Thread reader : readerList)
+            reader.join();
+
+        logger.info("BENCH Snapshot reads with {} readers during {} commits -> {} reads, {} us/commit",
+                readerCount,
+                commitCount,
+                readCount.get(),
+                String.format("%.2f", elapsedNanos / 1e3 / commitCount));
+    }
+
+    @Test
+    public void benchmarkPrimitivePropertyAllocation() throws Exception {
+
+        int updateCount = 20000;
+
+        DigitalTwinStateManager digitalTwinStateManager = new DigitalTwinStateManager(DIGITAL_TWIN_ID);
+
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.createProperty(new DigitalTwinStateProperty<>("generic-temperature", 0.0));
+        digitalTwinStateManager.createProperty(new DigitalTwinStateDoubleProperty("temperature", 0.0));
+        digitalTwinStateManager.commitStateTransaction();
+
+        // Warm up both paths before measuring
+        applyUpdates(digitalTwinStateManager.getDigitalTwinState(), updateCount, true);
+        applyUpdates(digitalTwinStateManager.getDigitalTwinState(), updateCount, false);
+
+        long genericBytes = measureAllocatedBytes(digitalTwinStateManager.getDigitalTwinState(), updateCount, true);
+        long primitiveBytes = measureAllocatedBytes(digitalTwinStateManager.getDigitalTwinState(), updateCount, false);
+
+        logger.info("BENCH Property value update allocation -> generic: {} bytes/update primitive: {} bytes/update",
+                genericBytes < 0 ? "n/a" : genericBytes / updateCount,
+                primitiveBytes < 0 ? "n/a" : primitiveBytes / updateCount);
+    }
+
+    /**
+     * Measures the bytes allocated by the current thread applying the updates (without notifying the new state)
+     */
+    private long measureAllocatedBytes(DigitalTwinState digitalTwinState, int updateCount, boolean generic) throws Exception {
+
+        java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+        if(!(threadMXBean instanceof com.sun.management.ThreadMXBean))
+            return -1;
+
+        long startBytes = ((com.sun.management.ThreadMXBean) threadMXBean).getCurrentThreadAllocatedBytes();
+        applyUpdates(digitalTwinState, updateCount, generic);
+        return ((com.sun.management.ThreadMXBean) threadMXBean).getCurrentThreadAllocatedBytes() - startBytes;
+    }
+
+    private void applyUpdates(DigitalTwinState digitalTwinState, int updateCount, boolean generic) throws Exception {
+
+        DigitalTwinState currentState = digitalTwinState;
+
+        for(int i = 0; i < updateCount; i++) {
+
+            DigitalTwinStateTransaction digitalTwinStateTransaction = new DigitalTwinStateTransaction(currentState);
+
+            digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_UPDATE_VALUE,
+                    DigitalTwinStateChange.ResourceType.PROPERTY_VALUE,
+                    generic ? new DigitalTwinStateProperty<>("generic-temperature", i + 0.5) : new DigitalTwinStateDoubleProperty("temperature", i + 0.5)));
+
+            digitalTwinStateTransaction.handleStateChanges();
+            currentState = digitalTwinStateTransaction.getEndDigitalTwinState();
+        }
+    }
+
+    @Test
+    public void benchmarkBinaryCodec() throws Exception {
+
+        int propertyCount = 10000;
+        int warmUpCount = 50;
+        int roundCount = 100;
+
+        Map<String, DigitalTwinStateProperty<?>> propertyMap = new HashMap<>();
+        HashMap<String, Object> valueMap = new HashMap<>();
+
+        for(int i = 0; i < propertyCount; i++) {
+            String key = String.format("sensor-%05d.temperature", i);
+            DigitalTwinStateProperty<?> property = i % 2 == 0 ?
+                    new DigitalTwinStateDoubleProperty(key, 20.0 + i / 100.0) :
+                    new DigitalTwinStateProperty<>(key, 20.0 + i / 100.0);
+            propertyMap.put(key, property);
+            valueMap.put(key, property.getValue());
+        }
+
+        DigitalTwinState digitalTwinState = new DigitalTwinState(propertyMap, Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
+
+        for(int i = 0; i < warmUpCount; i++)
+            DigitalTwinStateBinaryCodec.decodeState(DigitalTwinStateBinaryCodec.encode(digitalTwinState));
+
+        int encodedSize = 0;
+        long encodeNanos = 0;
+        long decodeNanos = 0;
+
+        for(int i = 0; i < roundCount; i++) {
+
+            long startNanos = System.nanoTime();
+            ByteBuffer buffer = DigitalTwinStateBinaryCodec.encode(digitalTwinState);
+            encodeNanos += System.nanoTime() - startNanos;
+
+            encodedSize = buffer.remaining();
+
+            startNanos = System.nanoTime();
+            DigitalTwinStateBinaryCodec.decodeState(buffer);
+            decodeNanos += System.nanoTime() - startNanos;
+        }
+
+        // Reference: Java serialization of the bare key -> value map (without types and attributes)
+        long startNanos = System.nanoTime();
+        int serializedSize = 0;
+        for(int i = 0; i < roundCount; i++) {
+            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+            try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(byteArrayOutputStream)) {
+                objectOutputStream.writeObject(valueMap);
+            }
+            serializedSize = byteArrayOutputStream.size();
+        }
+        long serializationNanos = System.nanoTime() - startNanos;
+
+        // Value updates of the same properties in a single stream: keys and types are written only once
+        DigitalTwinStateBinaryCodec.Encoder encoder = new DigitalTwinStateBinaryCodec.Encoder();
+        int firstRoundSize = 0;
+        for(int round = 0; round < 2; round++) {
+            for(DigitalTwinStateProperty<?> property : propertyMap.values())
+                encoder.writeChange(new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_UPDATE_VALUE, DigitalTwinStateChange.ResourceType.PROPERTY_VALUE, property));
+            if(round == 0)
+                firstRoundSize = encoder.size();
+        }
+        int streamSize = encoder.flush().remaining();
+
+        logger.info("BENCH State with {} properties -> {} bytes ({} bytes/property), encode: {} us, decode: {} us, java serialization of the values: {} bytes, {} us; stream of {} value updates after the first {}: {} bytes/change",
+                propertyCount,
+                encodedSize,
+                String.format("%.2f", (double) encodedSize / propertyCount),
+                String.format("%.2f", encodeNanos / 1e3 / roundCount),
+                String.format("%.2f", decodeNanos / 1e3 / roundCount),
+                serializedSize,
+                String.format("%.2f", serializationNanos / 1e3 / roundCount),
+                propertyCount,
+                propertyCount,
+                String.format("%.2f", (double) (streamSize - firstRoundSize) / propertyCount));
+    }
+}
@@ -36,6 +36,7 @@ import it.wldt.log.WldtLogger;
 import it.wldt.log.WldtLoggerProvider;
 import it.wldt.storage.query.QueryExecutor;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.stream.Collectors;
 
 /**
@@ -87,6 +88,13 @@ public abstract class DigitalAdapter<C> extends DigitalTwinWorker implements Wld
     // Query Executor to send query to the storage layer in both synchronous and asynchronous way
     protected QueryExecutor queryExecutor = null;
 
+    // Events received between the synchronization of the Digital Twin and the delivery of the onSync() callback
+    private final Queue<WldtEvent<?>> pendingSyncEventQueue = new ConcurrentLinkedQueue<>();
+
+    private final Object pendingSyncLock = new Object();
+
+    private volatile boolean syncPending = false;
+
     private DigitalAdapter() {
         super();
     }
@@ -427,6 +435,21 @@ public abstract class DigitalAdapter<C> extends DigitalTwinWorker implements Wld
     @Override
     public void onEvent(WldtEvent<?> wldtEvent) {
 
+        // Buffer the events until the asynchronous onSync() callback has been delivered
+        if(this.syncPending) {
+            synchronized (this.pendingSyncLock) {
+                if(this.syncPending) {
+                    this.pendingSyncEventQueue.add(wldtEvent);
+                    return;
+                }
+            }
+        }
+
+        handleEvent(wldtEvent);
+    }
+
+    private void handleEvent(WldtEvent<?> wldtEvent) {
+
         logger.debug("{} - Digital Adapter - Received Event: {}", getId(), wldtEvent);
 
         //DT State Events Management
@@ -460,6 +483,26 @@ public abstract class DigitalAdapter<C> extends DigitalTwinWorker implements Wld
 
     }
 
+    /**
+     * Invoked by the Digital Twin on the thread triggering the synchronization, before the asynchronous delivery of
+     * onSync(). The adapter starts observing the Digital Twin State variations and buffers the received events until
+     * onSync() has been delivered, so that the variations generated in between are not lost and are received after
+     * the synchronized state.
+     */
+    public void prepareForSync() {
+        try{
+
+            synchronized (this.pendingSyncLock) {
+                this.syncPending = true;
+            }
+
+            observeDigitalTwinState();
+
+        }catch (Exception e){
+            logger.error(String.format("Digital Adapter (%s) -> observe DigitalTwin State: Error: %s", id, e.getLocalizedMessage()));
+        }
+    }
+
     @Override
     public void onSync(DigitalTwinState digitalTwinState) {
 
@@ -477,9 +520,65 @@ public abstract class DigitalAdapter<C> extends DigitalTwinWorker implements Wld
 
         }catch (Exception e){
             logger.error(String.format("Digital Adapter (%s) -> observe DigitalTwin State: Error: %s", id, e.getLocalizedMessage()));
+        } finally {
+            deliverPendingSyncEvents();
         }
     }
 
+    /**
+     * Delivers in order the events buffered while waiting for the onSync() callback. Concurrent events wait for the
+     * end of the delivery in order to be received after the buffered ones.
+     */
+    private void deliverPendingSyncEvents() {
+        synchronized (this.pendingSyncLock) {
+
+            WldtEvent<?> wldtEvent;
+            while ((wldtEvent = this.pendingSyncEventQueue.poll()) != null) {
+                try {
+                    handleEvent(wldtEvent);
+                } catch (Exception e) {
+                    logger.error("Digital Adapter ({}) -> Error handling buffered event {} ! Error: {}", this.id, wldtEvent, e.getLocalizedMessage());
+                }
+            }
+
+            this.syncPending = false;
+        }
+    }
+
+    /**
+     * Callback invoked by the Digital Twin in warm restart mode, before the adapter is started, with the state
+     * restored from the last stored checkpoint. The adapter can serve the restored state immediately and, by
+     * default, observes the following state variations generated by the incremental reconciliation.
+     * The regular onSync() callback is still received once the Digital Twin is synchronized.
+     *
+     * @param restoredDigitalTwinState The restored Digital Twin State
+     */
+    public void onStateRestored(DigitalTwinState restoredDigitalTwinState) {
+
+        try{
+
+            logger.info("Digital Adapter ({}) Received restored Digital Twin State ...", this.id);
+
+            this.digitalTwinState = restoredDigitalTwinState;
+
+            onDigitalTwinStateRestored(restoredDigitalTwinState);
+
+            observeDigitalTwinState();
+
+        }catch (Exception e){
+            logger.error(String.format("Digital Adapter (%s) -> restored DigitalTwin State: Error: %s", id, e.getLocalizedMessage()));
+        }
+    }
+
+    /**
+     * Notifies the adapter implementation about the Digital Twin State restored in warm restart mode.
+     * The default implementation does nothing.
+     *
+     * @param restoredDigitalTwinState The restored Digital Twin State
+     */
+    protected void onDigitalTwinStateRestored(DigitalTwinState restoredDigitalTwinState) {
+    }
+
     @Override
     public void onUnSync(DigitalTwinState digitalTwinState) {
         logger.debug("Digital Adapter ({}) Received DT unSync callback ...", this.id);
@@ -20,6 +20,8 @@
  */
 package it.wldt.adapter.physical;
 
+import it.wldt.core.state.DigitalTwinStatePropertyDeadband;
+
 import java.util.Objects;
 
 /**
@@ -68,6 +70,12 @@ public class PhysicalAssetProperty<T> {
      */
     private boolean writable = true;
 
+    /**
+     * Optional deadband policy attached to the corresponding Digital Twin State property when the Physical Adapter
+     * is bound. Variations of noisy properties falling within the deadband are dropped before reaching the state.
+     */
+    private DigitalTwinStatePropertyDeadband deadband = null;
+
     private PhysicalAssetProperty() {
     }
 
@@ -115,6 +123,14 @@ public class PhysicalAssetProperty<T> {
         this.writable = writable;
     }
 
+    public DigitalTwinStatePropertyDeadband getDeadband() {
+        return deadband;
+    }
+
+    public void setDeadband(DigitalTwinStatePropertyDeadband deadband) {
+        this.deadband = deadband;
+    }
+
     public String getType(){
         return this.type;
     }
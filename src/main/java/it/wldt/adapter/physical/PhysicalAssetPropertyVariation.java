@@ -42,6 +42,12 @@ public class PhysicalAssetPropertyVariation {
     // Metadata associated to the variation
     private Map<String, Object> variationMetadata;
 
+    // Primitive type (double, long or boolean) of the value if the variation carries a primitive value, null otherwise
+    private Class<?> primitiveType = null;
+
+    // Raw bits of the primitive value (used when primitiveType is not null)
+    private long primitiveBits;
+
     /**
      * Default Constructor
      */
@@ -63,6 +69,54 @@ public class PhysicalAssetPropertyVariation {
         this.variationMetadata = variationMetadata;
     }
 
+    /**
+     * Constructor for a variation carrying a double value that is stored without boxing it
+     *
+     * @param timestamp Timestamp of the variation
+     * @param propertykey Property Key associated to the variation
+     * @param value Double value of the variation
+     * @param variationMetadata Metadata associated to the variation
+     */
+    public PhysicalAssetPropertyVariation(long timestamp, String propertykey, double value, Map<String, Object> variationMetadata) {
+        this.timestamp = timestamp;
+        this.propertykey = propertykey;
+        this.variationMetadata = variationMetadata;
+        this.primitiveType = double.class;
+        this.primitiveBits = Double.doubleToRawLongBits(value);
+    }
+
+    /**
+     * Constructor for a variation carrying a long value that is stored without boxing it
+     *
+     * @param timestamp Timestamp of the variation
+     * @param propertykey Property Key associated to the variation
+     * @param value Long value of the variation
+     * @param variationMetadata Metadata associated to the variation
+     */
+    public PhysicalAssetPropertyVariation(long timestamp, String propertykey, long value, Map<String, Object> variationMetadata) {
+        this.timestamp = timestamp;
+        this.propertykey = propertykey;
+        this.variationMetadata = variationMetadata;
+        this.primitiveType = long.class;
+        this.primitiveBits = value;
+    }
+
+    /**
+     * Constructor for a variation carrying a boolean value that is stored without boxing it
+     *
+     * @param timestamp Timestamp of the variation
+     * @param propertykey Property Key associated to the variation
+     * @param value Boolean value of the variation
+     * @param variationMetadata Metadata associated to the variation
+     */
+    public PhysicalAssetPropertyVariation(long timestamp, String propertykey, boolean value, Map<String, Object> variationMetadata) {
+        this.timestamp = timestamp;
+        this.propertykey = propertykey;
+        this.variationMetadata = variationMetadata;
+        this.primitiveType = boolean.class;
+        this.primitiveBits = value ? 1L : 0L;
+    }
+
     /**
      * Get the timestamp of the variation
      * @return timestamp of the variation
@@ -100,6 +154,14 @@ public class PhysicalAssetPropertyVariation {
      * @return Body of the variation
      */
     public Object getBody() {
+        if(this.body == null && this.primitiveType != null) {
+            if(this.primitiveType == double.class)
+                return getDoubleBody();
+            else if(this.primitiveType == long.class)
+                return getLongBody();
+            else
+                return getBooleanBody();
+        }
         return body;
     }
 
@@ -109,6 +171,54 @@ public class PhysicalAssetPropertyVariation {
      */
     public void setBody(Object body) {
         this.body = body;
+        this.primitiveType = null;
+    }
+
+    /**
+     * Get the primitive type of the value of the variation
+     * @return double.class, long.class or boolean.class if the variation carries a primitive value, null otherwise
+     */
+    public Class<?> getPrimitiveType() {
+        return primitiveType;
+    }
+
+    /**
+     * Get the value of the variation as a double without boxing it
+     * @return the double value of the variation
+     * @throws IllegalStateException if the variation does not carry a double or a numeric body
+     */
+    public double getDoubleBody() {
+        if(this.primitiveType == double.class)
+            return Double.longBitsToDouble(this.primitiveBits);
+        if(this.primitiveType == null && this.body instanceof Number)
+            return ((Number) this.body).doubleValue();
+        throw new IllegalStateException(String.format("Variation of %s does not carry a double value !", this.propertykey));
+    }
+
+    /**
+     * Get the value of the variation as a long without boxing it
+     * @return the long value of the variation
+     * @throws IllegalStateException if the variation does not carry a long or an integer body
+     */
+    public long getLongBody() {
+        if(this.primitiveType == long.class)
+            return this.primitiveBits;
+        if(this.primitiveType == null && (this.body instanceof Long || this.body instanceof Integer))
+            return ((Number) this.body).longValue();
+        throw new IllegalStateException(String.format("Variation of %s does not carry a long value !", this.propertykey));
+    }
+
+    /**
+     * Get the value of the variation as a boolean without boxing it
+     * @return the boolean value of the variation
+     * @throws IllegalStateException if the variation does not carry a boolean value
+     */
+    public boolean getBooleanBody() {
+        if(this.primitiveType == boolean.class)
+            return this.primitiveBits != 0;
+        if(this.primitiveType == null && this.body instanceof Boolean)
+            return (Boolean) this.body;
+        throw new IllegalStateException(String.format("Variation of %s does not carry a boolean value !", this.propertykey));
     }
 
     /**
@@ -132,7 +242,7 @@ public class PhysicalAssetPropertyVariation {
         final StringBuilder sb = new StringBuilder("PhysicalAssetPropertyVariation{");
         sb.append("timestamp=").append(timestamp);
         sb.append(", propertykey='").append(propertykey).append('\'');
-        sb.append(", body=").append(body);
+        sb.append(", body=").append(getBody());
         sb.append(", variationMetadata=").append(variationMetadata);
         sb.append('}');
         return sb.toString();
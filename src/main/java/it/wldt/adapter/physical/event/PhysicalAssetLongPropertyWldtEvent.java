@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2025 - Current Year
+ * Marco Picone Ph.D
+ * Email: picone.m@gmail.com
+ * Website: https://www.marcopicone.net/
+ * All rights reserved.
+ *
+ * This program is provided under a Dual Licensing model:
+ * 1) GNU General Public License version 3.0 (GPL-3.0) for open-source, academic,
+ *    research, non-profit, and other non-commercial use; or
+ * 2) Commercial License, for any commercial use, proprietary development, or
+ *    closed-source distribution. To obtain a Commercial License, please contact: Marco Picone (picone.m@gmail.com)
+ *
+ * By using this software, you agree to comply with the terms of the applicable license.
+ * This applies to all forms of the software, including source code and compiled/binary forms.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+package it.wldt.adapter.physical.event;
+
+import it.wldt.exception.EventBusException;
+
+import java.util.Map;
+
+/**
+ * A WLDT event describing a variation of a long physical property.
+ * The value is carried in a primitive field and it can be read through getLongValue() without boxing. The event
+ * is a {@code PhysicalAssetPropertyWldtEvent<Long>}, so it is delivered and filtered as any other property variation
+ * and the generic getBody() is still available (boxing the value on demand).
+ *
+ * @author Marco Picone, Ph.D. - picone.m@gmail.com
+ */
+public class PhysicalAssetLongPropertyWldtEvent extends PhysicalAssetPropertyWldtEvent<Long> {
+
+    private long longValue;
+
+    public PhysicalAssetLongPropertyWldtEvent(String propertyKey, long value) throws EventBusException {
+        super(propertyKey);
+        this.longValue = value;
+        setContentType(Long.class.getName());
+    }
+
+    public PhysicalAssetLongPropertyWldtEvent(String propertyKey, long value, Map<String, Object> metadata) throws EventBusException {
+        this(propertyKey, value);
+        if(metadata != null)
+            getMetadata().putAll(metadata);
+    }
+
+    public long getLongValue() {
+        return longValue;
+    }
+
+    @Override
+    public Long getBody() {
+        return this.longValue;
+    }
+
+    @Override
+    public void setBody(Long body) {
+        if(body != null)
+            this.longValue = body;
+    }
+}
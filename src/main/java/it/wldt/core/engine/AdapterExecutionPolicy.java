@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2025 - Current Year
+ * Marco Picone Ph.D
+ * Email: picone.m@gmail.com
+ * Website: https://www.marcopicone.net/
+ * All rights reserved.
+ *
+ * This program is provided under a Dual Licensing model:
+ * 1) GNU General Public License version 3.0 (GPL-3.0) for open-source, academic,
+ *    research, non-profit, and other non-commercial use; or
+ * 2) Commercial License, for any commercial use, proprietary development, or
+ *    closed-source distribution. To obtain a Commercial License, please contact: Marco Picone (picone.m@gmail.com)
+ *
+ * By using this software, you agree to comply with the terms of the applicable license.
+ * This applies to all forms of the software, including source code and compiled/binary forms.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+package it.wldt.core.engine;
+
+/**
+ * Resource policy applied by a {@link DigitalTwin} to its adapters.
+ * Adapters are executed as tasks on the engine shared executors so the number of adapters is no longer bound to
+ * the number of dedicated threads. The maximum number of physical and digital adapters of a DT is a configurable
+ * limit (unlimited by default).
+ *
+ * @author Marco Picone, Ph.D. - picone.m@gmail.com
+ */
+public class AdapterExecutionPolicy {
+
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private int maxPhysicalAdapters = UNLIMITED;
+
+    private int maxDigitalAdapters = UNLIMITED;
+
+    /**
+     * Creates a policy without limits on the number of adapters
+     */
+    public AdapterExecutionPolicy() {
+    }
+
+    /**
+     * Creates a policy with the specified limits
+     *
+     * @param maxPhysicalAdapters maximum number of physical adapters of the DT
+     * @param maxDigitalAdapters maximum number of digital adapters of the DT
+     */
+    public AdapterExecutionPolicy(int maxPhysicalAdapters, int maxDigitalAdapters) {
+        setMaxPhysicalAdapters(maxPhysicalAdapters);
+        setMaxDigitalAdapters(maxDigitalAdapters);
+    }
+
+    public int getMaxPhysicalAdapters() {
+        return maxPhysicalAdapters;
+    }
+
+    public void setMaxPhysicalAdapters(int maxPhysicalAdapters) {
+        if(maxPhysicalAdapters <= 0)
+            throw new IllegalArgumentException("Max Physical Adapters must be > 0 !");
+        this.maxPhysicalAdapters = maxPhysicalAdapters;
+    }
+
+    public int getMaxDigitalAdapters() {
+        return maxDigitalAdapters;
+    }
+
+    public void setMaxDigitalAdapters(int maxDigitalAdapters) {
+        if(maxDigitalAdapters <= 0)
+            throw new IllegalArgumentException("Max Digital Adapters must be > 0 !");
+        this.maxDigitalAdapters = maxDigitalAdapters;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuffer sb = new StringBuffer("AdapterExecutionPolicy{");
+        sb.append("maxPhysicalAdapters=").append(maxPhysicalAdapters);
+        sb.append(", maxDigitalAdapters=").append(maxDigitalAdapters);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -28,6 +28,11 @@ import it.wldt.adapter.physical.PhysicalAssetDescription;
 import it.wldt.core.event.DefaultWldtEventLogger;
 import it.wldt.core.event.EventManager;
 import it.wldt.core.event.WldtEventBus;
+import it.wldt.core.execution.WldtEventLoop;
+import it.wldt.core.execution.WldtEventLoopGroup;
+import it.wldt.core.execution.WldtSerialExecutor;
+import it.wldt.core.execution.WldtSharedExecutors;
+import it.wldt.core.execution.WldtTimerService;
 import it.wldt.core.model.DigitalTwinModel;
 import it.wldt.core.model.ShadowingFunction;
 import it.wldt.core.model.ShadowingModelListener;
@@ -40,8 +45,14 @@ import it.wldt.management.ManagementInterface;
 import it.wldt.management.ResourceManager;
 import it.wldt.storage.StorageManager;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -62,24 +73,19 @@ public class DigitalTwin implements ShadowingModelListener, PhysicalAdapterListe
     private static final String TAG = "[WLDT-DigitalTwin]";
 
     /**
-     * Number of Thread limit for DT Physical Adapters
+     * Resource policy for DT Adapters (e.g., max number of physical and digital adapters)
      */
-    private static final int PHYSICAL_ADAPTERS_THREAD_POOL_SIZE_LIMIT = 5;
+    private AdapterExecutionPolicy adapterExecutionPolicy = new AdapterExecutionPolicy();
 
     /**
-     * Number of Thread limit for DT Digital Adapters
+     * Running tasks of the Physical Adapters on the engine shared executor
      */
-    private static final int DIGITAL_ADAPTERS_THREAD_POOL_SIZE_LIMIT = 5;
+    private List<Future<?>> physicalAdapterFutureList = new ArrayList<>();
 
     /**
-     * Executor Service for Physical Adapters
+     * Running tasks of the Digital Adapters on the engine shared executor
      */
-    private ExecutorService physicalAdapterExecutor = null;
-
-    /**
-     * Executor Service for Digital Adapters
-     */
-    private ExecutorService digitalAdapterExecutor = null;
+    private List<Future<?>> digitalAdapterFutureList = new ArrayList<>();
 
     /**
      * Executor Service for Digital Adapters
@@ -129,7 +135,7 @@ public class DigitalTwin implements ShadowingModelListener, PhysicalAdapterListe
     /**
      * Current Life Cycle State of the Digital Twin
      */
-    private LifeCycleState currentLifeCycleState = LifeCycleState.NONE;
+    private volatile LifeCycleState currentLifeCycleState = LifeCycleState.NONE;
 
     /**
      * Thread for the Model Engine Execution
@@ -137,9 +143,46 @@ public class DigitalTwin implements ShadowingModelListener, PhysicalAdapterListe
     private Thread modelEngineThread = null;
 
     /**
-     * Thread for the Storage Manager Execution
+     * Execution mode of the Digital Twin (DEFAULT or EVENT_LOOP)
+     */
+    private DigitalTwinExecutionMode executionMode = DigitalTwinExecutionMode.DEFAULT;
+
+    /**
+     * Event loop shard of the Digital Twin when running in EVENT_LOOP mode (null otherwise)
+     */
+    private volatile WldtEventLoop eventLoop = null;
+
+    /**
+     * If enabled the last stored Digital Twin State is restored before starting the adapters (warm restart)
+     */
+    private volatile boolean warmRestartEnabled = false;
+
+    /**
+     * Instant (System.nanoTime()) of the beginning of the last life cycle start
+     */
+    private volatile long lifeCycleStartNanos = 0;
+
+    /**
+     * Time elapsed between the beginning of the last life cycle start and the first Digital Twin State made
+     * available to the Digital Adapters (restored or synchronized). -1 if no state has been served yet.
+     */
+    private volatile long timeToFirstStateNanos = -1;
+
+    /**
+     * Serial executor delivering the life cycle notifications in order when the Digital Twin is not running in
+     * EVENT_LOOP mode (in EVENT_LOOP mode notifications are delivered in order on the shard of the Digital Twin)
+     */
+    private WldtSerialExecutor lifeCycleNotificationExecutor = null;
+
+    /**
+     * Latency statistics of the life cycle notifications for each registered listener
+     */
+    private final Map<LifeCycleListener, LifeCycleListenerStats> lifeCycleListenerStatsMap = new ConcurrentHashMap<>();
+
+    /**
+     * Future of the Storage Manager bootstrap executed on the engine shared worker executor
      */
-    private Thread storageManagerThread = null;
+    private Future<?> storageManagerFuture = null;
 
     /**
      * Resource Manager for the Digital Twin
@@ -161,7 +204,13 @@ public class DigitalTwin implements ShadowingModelListener, PhysicalAdapterListe
     /**
      * Reference to the Shadowing Function used by the Digital Twin and its Model Engine
      */
-    private ShadowingFunction shadowingFunction = null;
+    private volatile ShadowingFunction shadowingFunction = null;
+
+    /**
+     * Time the event delivery has been paused during the last hot swap of the Shadowing Function. -1 if no swap
+     * has been performed yet.
+     */
+    private volatile long lastShadowingFunctionSwapNanos = -1;
 
     /**
      * Id of the target Digital Twin
@@ -244,7 +293,8 @@ public class DigitalTwin implements ShadowingModelListener, PhysicalAdapterListe
             throw new WldtRuntimeException("Error ! Shadowing Function = NULL !");
 
         //Init Life Cycle Listeners & Status Map
-        this.lifeCycleListenerList = new ArrayList<>();
+        this.lifeCycleListenerList = new CopyOnWriteArrayList<>();
+        this.lifeCycleNotificationExecutor = new WldtSerialExecutor(String.format("%s-life-cycle", this.digitalTwinId), WldtSharedExecutors.getBlockingExecutor());
         this.physicalAdaptersBoundStatusMap = new HashMap<>();
         this.digitalAdaptersBoundStatusMap = new HashMap<>();
 
@@ -288,19 +338,131 @@ public class DigitalTwin implements ShadowingModelListener, PhysicalAdapterListe
      * Executes the model engine in a dedicated thread.
      */
     private void executeModelEngine(){
+
+        // In EVENT_LOOP mode the Model Engine is started directly on the shard of the Digital Twin
+        if(this.eventLoop != null) {
+            this.eventLoop.execute(this.digitalTwinModel);
+            return;
+        }
+
         modelEngineThread = new Thread(this.digitalTwinModel);
         modelEngineThread.setName(String.format("%s-model-engine", this.getId()));
         modelEngineThread.start();
     }
 
     /**
-     * Executes the storage manager in a dedicated thread.
-     * This method is responsible for starting the storage manager thread, which handles data storage operations for the digital twin.
+     * Enqueues the delivery of a life cycle notification to all the currently registered listeners. Notifications
+     * are delivered asynchronously, one at a time and in the same order they have been dispatched, on the shard of
+     * the Digital Twin in EVENT_LOOP mode or on the Digital Twin serial executor otherwise. In this way a slow
+     * listener does not block the thread that triggered the change (e.g., a Physical Adapter binding).
+     * If the notification is associated to a Life Cycle State change, the corresponding life cycle event is
+     * published on the event bus before notifying the listeners.
+     *
+     * @param lifeCycleState the new Life Cycle State to publish or null if the notification is not associated to a state change
+     * @param notification the callback to invoke on each listener
+     */
+    private void dispatchLifeCycleNotification(LifeCycleState lifeCycleState, Consumer<LifeCycleListener> notification){
+
+        // Snapshot the listeners registered when the notification is generated (the Model Engine is notified inline)
+        List<LifeCycleListener> listenerList = new ArrayList<>(this.lifeCycleListenerList);
+        listenerList.remove(this.digitalTwinModel);
+        long dispatchNanos = System.nanoTime();
+
+        Runnable deliveryTask = () -> {
+
+            if(lifeCycleState != null)
+                EventManager.publishLifeCycleEvent(digitalTwinId, EVENT_PUBLISHER_ID, lifeCycleState);
+
+            for(LifeCycleListener listener : listenerList){
+                long startNanos = System.nanoTime();
+                boolean failed = false;
+                try {
+                    notification.accept(listener);
+                } catch (Exception e) {
+                    failed = true;
+                    logger.error("{} Error notifying Life Cycle Listener {} ! Error: {}", TAG, listener, e.getLocalizedMessage());
+                } finally {
+                    recordLifeCycleNotification(listener, startNanos - dispatchNanos, System.nanoTime() - startNanos, failed);
+                }
+            }
+        };
+
+        executeInLifeCycleOrder(deliveryTask);
+    }
+
+    /**
+     * Notifies the Model Engine on the caller thread. The Model Engine is the component establishing the shadowing
+     * (e.g., the Shadowing Function observes the physical properties in onDigitalTwinBound) so it is notified
+     * inline, as soon as the transition has been dispatched to the other listeners, in order to be ready before
+     * the adapters go on (e.g., publishing telemetry right after their binding). It must be invoked without holding
+     * the state lock since the Shadowing Function can trigger other life cycle transitions (e.g., sync).
+     *
+     * @param notification the callback to invoke on the Model Engine
+     */
+    private void notifyModelEngine(Consumer<LifeCycleListener> notification){
+
+        if(!this.lifeCycleListenerList.contains(this.digitalTwinModel))
+            return;
+
+        long startNanos = System.nanoTime();
+        boolean failed = false;
+        try {
+            notification.accept(this.digitalTwinModel);
+        } catch (Exception e) {
+            failed = true;
+            logger.error("{} Error notifying Model Engine ! Error: {}", TAG, e.getLocalizedMessage());
+        } finally {
+            recordLifeCycleNotification(this.digitalTwinModel, 0, System.nanoTime() - startNanos, failed);
+        }
+    }
+
+    private void recordLifeCycleNotification(LifeCycleListener listener, long queueNanos, long callbackNanos, boolean failed){
+        this.lifeCycleListenerStatsMap
+                .computeIfAbsent(listener, l -> new LifeCycleListenerStats(getLifeCycleListenerName(l)))
+                .record(queueNanos, callbackNanos, failed);
+    }
+
+    /**
+     * Enqueues a task after all the already dispatched life cycle notifications
+     *
+     * @param task the task to execute
+     */
+    private void executeInLifeCycleOrder(Runnable task){
+        WldtEventLoop currentEventLoop = this.eventLoop;
+        if(currentEventLoop != null)
+            currentEventLoop.execute(task);
+        else
+            this.lifeCycleNotificationExecutor.execute(task);
+    }
+
+    private static String getLifeCycleListenerName(LifeCycleListener listener){
+        if(listener instanceof DigitalAdapter)
+            return ((DigitalAdapter<?>) listener).getId();
+        return listener.getClass().getName();
+    }
+
+    /**
+     * Executes a task in the execution context of the Digital Twin. In EVENT_LOOP mode the task is serialized on the
+     * shard of the Digital Twin (or executed immediately if the caller is already on the shard), otherwise it is
+     * executed on the caller thread.
+     *
+     * @param task The task to be executed.
+     */
+    private void executeOnDigitalTwinContext(Runnable task){
+        WldtEventLoop currentEventLoop = this.eventLoop;
+        if(currentEventLoop != null && !currentEventLoop.inEventLoop())
+            currentEventLoop.execute(task);
+        else
+            task.run();
+    }
+
+    /**
+     * Executes the storage manager on the engine shared worker executor.
+     * The bootstrap of the storage manager only registers its observers on the event bus, so it does not require
+     * a dedicated thread for each Digital Twin instance.
      */
     private void executeStorageManager(){
-        storageManagerThread = new Thread(this.storageManager);
-        storageManagerThread.setName(String.format("%s-storage-manager", this.getId()));
-        storageManagerThread.start();
+        storageManagerFuture = WldtSharedExecutors.getWorkerExecutor().submit(this.storageManager);
     }
 
     /**
@@ -352,15 +514,11 @@ public class DigitalTwin implements ShadowingModelListener, PhysicalAdapterListe
 
             this.currentLifeCycleState = LifeCycleState.CREATED;
 
-            // Notify the change in the DT Life Cycle
-            EventManager.publishLifeCycleEvent(
-                    digitalTwinId,
-                    EVENT_PUBLISHER_ID,
-                    this.currentLifeCycleState);
+            // Enqueue the notification of the change in the DT Life Cycle (the lock only orders the state changes)
+            dispatchLifeCycleNotification(this.currentLifeCycleState, LifeCycleListener::onCreate);
         }
 
-        for(LifeCycleListener listener : this.lifeCycleListenerList)
-            listener.onCreate();
+        notifyModelEngine(LifeCycleListener::onCreate);
     }
 
     /**
@@ -372,34 +530,33 @@ public class DigitalTwin implements ShadowingModelListener, PhysicalAdapterListe
 
             this.currentLifeCycleState = LifeCycleState.STARTED;
 
-            // Notify the change in the DT Life Cycle
-            EventManager.publishLifeCycleEvent(
-                    digitalTwinId,
-                    EVENT_PUBLISHER_ID,
-                    this.currentLifeCycleState);
+            // Enqueue the notification of the change in the DT Life Cycle (the lock only orders the state changes)
+            dispatchLifeCycleNotification(this.currentLifeCycleState, LifeCycleListener::onStart);
         }
 
-        for(LifeCycleListener listener : this.lifeCycleListenerList)
-            listener.onStart();
+        notifyModelEngine(LifeCycleListener::onStart);
     }
 
     /**
      * Notifies listeners when the digital twin is bound.
      */
     private void notifyLifeCycleOnBound(){
+
+        Consumer<LifeCycleListener> notification;
+
         synchronized (this.syncStateObject){
 
             this.currentLifeCycleState = LifeCycleState.BOUND;
 
-            // Notify the change in the DT Life Cycle
-            EventManager.publishLifeCycleEvent(
-                    digitalTwinId,
-                    EVENT_PUBLISHER_ID,
-                    this.currentLifeCycleState);
+            // Notify a snapshot of the current descriptions since the notification is delivered asynchronously
+            Map<String, PhysicalAssetDescription> physicalAssetDescriptionMap = new HashMap<>(this.physicalAdaptersPhysicalAssetDescriptionMap);
+            notification = listener -> listener.onDigitalTwinBound(physicalAssetDescriptionMap);
+
+            // Enqueue the notification of the change in the DT Life Cycle (the lock only orders the state changes)
+            dispatchLifeCycleNotification(this.currentLifeCycleState, notification);
         }
 
-        for(LifeCycleListener listener : this.lifeCycleListenerList)
-            listener.onDigitalTwinBound(this.physicalAdaptersPhysicalAssetDescriptionMap);
+        notifyModelEngine(notification);
     }
 
     /**
@@ -408,18 +565,21 @@ public class DigitalTwin implements ShadowingModelListener, PhysicalAdapterListe
      * @param errorMessage The error message associated with the unbound event.
      */
     private void notifyLifeCycleOnUnBound(String errorMessage){
+
+        Consumer<LifeCycleListener> notification;
+
         synchronized (this.syncStateObject){
             this.currentLifeCycleState = LifeCycleState.UN_BOUND;
 
-            // Notify the change in the DT Life Cycle
-            EventManager.publishLifeCycleEvent(
-                    digitalTwinId,
-                    EVENT_PUBLISHER_ID,
-                    this.currentLifeCycleState);
+            // Notify a snapshot of the current descriptions since the notification is delivered asynchronously
+            Map<String, PhysicalAssetDescription> physicalAssetDescriptionMap = new HashMap<>(this.physicalAdaptersPhysicalAssetDescriptionMap);
+            notification = listener -> listener.onDigitalTwinUnBound(physicalAssetDescriptionMap, errorMessage);
+
+            // Enqueue the notification of the change in the DT Life Cycle (the lock only orders the state changes)
+            dispatchLifeCycleNotification(this.currentLifeCycleState, notification);
         }
 
-        for(LifeCycleListener listener : this.lifeCycleListenerList)
-            listener.onDigitalTwinUnBound(this.physicalAdaptersPhysicalAssetDescriptionMap, errorMessage);
+        notifyModelEngine(notification);
     }
 
     /**
@@ -429,8 +589,9 @@ public class DigitalTwin implements ShadowingModelListener, PhysicalAdapterListe
      * @param physicalAssetDescription The description of the associated physical asset.
      */
     private void notifyLifeCycleOnPhysicalAdapterBound(String adapterId, PhysicalAssetDescription physicalAssetDescription){
-        for(LifeCycleListener listener : this.lifeCycleListenerList)
-            listener.onPhysicalAdapterBound(adapterId, physicalAssetDescription);
+        Consumer<LifeCycleListener> notification = listener -> listener.onPhysicalAdapterBound(adapterId, physicalAssetDescription);
+        dispatchLifeCycleNotification(null, notification);
+        notifyModelEngine(notification);
     }
 
     /**
@@ -440,8 +601,9 @@ public class DigitalTwin implements ShadowingModelListener, PhysicalAdapterListe
      * @param physicalAssetDescription The updated description of the associated physical asset.
      */
     private void notifyLifeCycleOnPhysicalAdapterBindingUpdate(String adapterId, PhysicalAssetDescription physicalAssetDescription){
-        for(LifeCycleListener listener : this.lifeCycleListenerList)
-            listener.onPhysicalAdapterBindingUpdate(adapterId, physicalAssetDescription);
+        Consumer<LifeCycleListener> notification = listener -> listener.onPhysicalAdapterBindingUpdate(adapterId, physicalAssetDescription);
+        dispatchLifeCycleNotification(null, notification);
+        notifyModelEngine(notification);
     }
 
     /**
@@ -452,8 +614,9 @@ public class DigitalTwin implements ShadowingModelListener, PhysicalAdapterListe
      * @param errorMessage            The error message associated with the unbound event.
      */
     private void notifyLifeCycleOnPhysicalAdapterUnBound(String adapterId, PhysicalAssetDescription physicalAssetDescription, String errorMessage){
-        for(LifeCycleListener listener : this.lifeCycleListenerList)
-            listener.onPhysicalAdapterUnBound(adapterId, physicalAssetDescription, errorMessage);
+        Consumer<LifeCycleListener> notification = listener -> listener.onPhysicalAdapterUnBound(adapterId, physicalAssetDescription, errorMessage);
+        dispatchLifeCycleNotification(null, notification);
+        notifyModelEngine(notification);
     }
 
     /**
@@ -462,8 +625,9 @@ public class DigitalTwin implements ShadowingModelListener, PhysicalAdapterListe
      * @param adapterId The ID of the bound digital adapter.
      */
     private void notifyLifeCycleOnDigitalAdapterBound(String adapterId){
-        for(LifeCycleListener listener : this.lifeCycleListenerList)
-            listener.onDigitalAdapterBound(adapterId);
+        Consumer<LifeCycleListener> notification = listener -> listener.onDigitalAdapterBound(adapterId);
+        dispatchLifeCycleNotification(null, notification);
+        notifyModelEngine(notification);
     }
 
 
@@ -474,8 +638,9 @@ public class DigitalTwin implements ShadowingModelListener, PhysicalAdapterListe
      * @param errorMessage The error message associated with the unbound event.
      */
     private void notifyLifeCycleOnDigitalAdapterUnBound(String adapterId, String errorMessage){
-        for(LifeCycleListener listener : this.lifeCycleListenerList)
-            listener.onDigitalAdapterUnBound(adapterId, errorMessage);
+        Consumer<LifeCycleListener> notification = listener -> listener.onDigitalAdapterUnBound(adapterId, errorMessage);
+        dispatchLifeCycleNotification(null, notification);
+        notifyModelEngine(notification);
     }
 
     /**
@@ -487,15 +652,19 @@ public class DigitalTwin implements ShadowingModelListener, PhysicalAdapterListe
         synchronized (this.syncStateObject){
             this.currentLifeCycleState = LifeCycleState.SYNCHRONIZED;
 
-            // Notify the change in the DT Life Cycle
-            EventManager.publishLifeCycleEvent(
-                    digitalTwinId,
-                    EVENT_PUBLISHER_ID,
-                    this.currentLifeCycleState);
+            if(this.timeToFirstStateNanos < 0)
+                this.timeToFirstStateNanos = System.nanoTime() - this.lifeCycleStartNanos;
+
+            // Digital Adapters start observing (and buffering) the state variations before the asynchronous onSync()
+            for(DigitalAdapter<?> digitalAdapter : this.getDigitalAdapterList())
+                if(this.lifeCycleListenerList.contains(digitalAdapter))
+                    digitalAdapter.prepareForSync();
+
+            // Enqueue the notification of the change in the DT Life Cycle (the lock only orders the state changes)
+            dispatchLifeCycleNotification(this.currentLifeCycleState, listener -> listener.onSync(digitalTwinState));
         }
 
-        for(LifeCycleListener listener : this.lifeCycleListenerList)
-            listener.onSync(digitalTwinState);
+        notifyModelEngine(listener -> listener.onSync(digitalTwinState));
     }
 
     /**
@@ -507,15 +676,11 @@ public class DigitalTwin implements ShadowingModelListener, PhysicalAdapterListe
         synchronized (this.syncStateObject){
             this.currentLifeCycleState = LifeCycleState.NOT_SYNCHRONIZED;
 
-            // Notify the change in the DT Life Cycle
-            EventManager.publishLifeCycleEvent(
-                    digitalTwinId,
-                    EVENT_PUBLISHER_ID,
-                    this.currentLifeCycleState);
+            // Enqueue the notification of the change in the DT Life Cycle (the lock only orders the state changes)
+            dispatchLifeCycleNotification(this.currentLifeCycleState, listener -> listener.onUnSync(digitalTwinState));
         }
 
-        for(LifeCycleListener listener : this.lifeCycleListenerList)
-            listener.onUnSync(digitalTwinState);
+        notifyModelEngine(listener -> listener.onUnSync(digitalTwinState));
     }
 
     /**
@@ -525,15 +690,11 @@ public class DigitalTwin implements ShadowingModelListener, PhysicalAdapterListe
         synchronized (this.syncStateObject){
             this.currentLifeCycleState = LifeCycleState.STOPPED;
 
-            // Notify the change in the DT Life Cycle
-            EventManager.publishLifeCycleEvent(
-                    digitalTwinId,
-                    EVENT_PUBLISHER_ID,
-                    this.currentLifeCycleState);
+            // Enqueue the notification of the change in the DT Life Cycle (the lock only orders the state changes)
+            dispatchLifeCycleNotification(this.currentLifeCycleState, LifeCycleListener::onStop);
         }
 
-        for(LifeCycleListener listener : this.lifeCycleListenerList)
-            listener.onStop();
+        notifyModelEngine(LifeCycleListener::onStop);
     }
 
     /**
@@ -543,21 +704,17 @@ public class DigitalTwin implements ShadowingModelListener, PhysicalAdapterListe
         synchronized (this.syncStateObject){
             this.currentLifeCycleState = LifeCycleState.DESTROYED;
 
-            // Notify the change in the DT Life Cycle
-            EventManager.publishLifeCycleEvent(
-                    digitalTwinId,
-                    EVENT_PUBLISHER_ID,
-                    this.currentLifeCycleState);
+            // Enqueue the notification of the change in the DT Life Cycle (the lock only orders the state changes)
+            dispatchLifeCycleNotification(this.currentLifeCycleState, LifeCycleListener::onDestroy);
         }
 
-        for(LifeCycleListener listener : this.lifeCycleListenerList)
-            listener.onDestroy();
+        notifyModelEngine(LifeCycleListener::onDestroy);
     }
 
     /**
-     * Add a new Physical Adapter to the Digital Twin in order to be executed through a dedicated Thread.
-     * The method validates the request checking if the adapter is already in the list and if there is enough
-     * thread to handle it within the thread pool
+     * Add a new Physical Adapter to the Digital Twin in order to be executed on the engine shared executor.
+     * The method validates the request checking if the adapter is already in the list and if the limit defined
+     * by the configured AdapterExecutionPolicy has been reached
      *
      * @param physicalAdapter the Physical Adapter to be added
      * @throws WldtConfigurationException if the physical adapter is invalid, already added, or the list limit is reached
@@ -567,7 +724,7 @@ public class DigitalTwin implements ShadowingModelListener, PhysicalAdapterListe
         if(physicalAdapter != null
                 && this.getPhysicalAdapterList() != null
                 && !this.getPhysicalAdapterList().contains(physicalAdapter)
-                && this.getPhysicalAdapterList().size() < PHYSICAL_ADAPTERS_THREAD_POOL_SIZE_LIMIT) {
+                && this.getPhysicalAdapterList().size() < this.adapterExecutionPolicy.getMaxPhysicalAdapters()) {
 
             physicalAdapter.setDigitalTwinId(this.digitalTwinId);
             physicalAdapter.setPhysicalAdapterListener(this);
@@ -596,9 +753,9 @@ public class DigitalTwin implements ShadowingModelListener, PhysicalAdapterListe
     }
 
     /**
-     * Add a new Digital Adapter to the Digital Twin in order to be executed through a dedicated Thread.
-     * The method validates the request checking if the adapter is already in the list and if there is enough
-     * thread to handle it within the thread pool
+     * Add a new Digital Adapter to the Digital Twin in order to be executed on the engine shared executor.
+     * The method validates the request checking if the adapter is already in the list and if the limit defined
+     * by the configured AdapterExecutionPolicy has been reached
      *
      * @param digitalAdapter the Digital Adapter to be added
      * @throws WldtConfigurationException if the digital adapter is invalid, already added, or the list limit is reached
@@ -608,7 +765,7 @@ public class DigitalTwin implements ShadowingModelListener, PhysicalAdapterListe
         if(digitalAdapter != null
                 && this.getDigitalAdapterList() != null
                 && !this.getDigitalAdapterList().contains(digitalAdapter)
-                && this.getDigitalAdapterList().size() < DIGITAL_ADAPTERS_THREAD_POOL_SIZE_LIMIT) {
+                && this.getDigitalAdapterList().size() < this.adapterExecutionPolicy.getMaxDigitalAdapters()) {
 
             digitalAdapter.setDigitalTwinId(this.digitalTwinId);
             digitalAdapter.setDigitalAdapterListener(this);
@@ -651,6 +808,13 @@ public class DigitalTwin implements ShadowingModelListener, PhysicalAdapterListe
      */
     protected void startLifeCycle() throws WldtConfigurationException {
 
+        this.lifeCycleStartNanos = System.nanoTime();
+        this.timeToFirstStateNanos = -1;
+
+        // In EVENT_LOOP mode pin the Digital Twin to one of the shards of the engine event loop group
+        if(this.executionMode == DigitalTwinExecutionMode.EVENT_LOOP)
+            this.eventLoop = WldtEventLoopGroup.getInstance().pin(this.digitalTwinId);
+
         // Start Executing as first component the Model Engine
         executeModelEngine();
 
@@ -660,34 +824,148 @@ public class DigitalTwin implements ShadowingModelListener, PhysicalAdapterListe
         //In order to start its LifeCycle the Digital Twin need at least one Physical and one Digital Adapter in order
         //to properly bridge the physical and the digital world
         //TODO Check -> Does it make sense to force to have at least one Digital Adapter in order to start the Life Cycle ?
-        if(this.getPhysicalAdapterList() == null || this.getPhysicalAdapterList().isEmpty() || this.getDigitalAdapterList() == null || this.getDigitalAdapterList().isEmpty())
+        if(this.getPhysicalAdapterList() == null || this.getPhysicalAdapterList().isEmpty() || this.getDigitalAdapterList() == null || this.getDigitalAdapterList().isEmpty()) {
+            if(this.eventLoop != null) {
+                WldtEventLoopGroup.getInstance().unpin(this.digitalTwinId);
+                this.eventLoop = null;
+            }
             throw new WldtConfigurationException("Empty PhysicalAdapter o DigitalAdapter List !");
+        }
 
         notifyLifeCycleOnCreate();
 
-        //Init PhysicalAdapter Executor
-        physicalAdapterExecutor = Executors.newFixedThreadPool(this.getPhysicalAdapterList().size());
+        //In warm restart mode restore the last stored state and provide it to the Digital Adapters before starting them
+        if(this.warmRestartEnabled)
+            restoreLastStoredState();
+
+        //Adapters are multiplexed as tasks on the engine shared executor
+        ExecutorService adapterExecutor = WldtSharedExecutors.getBlockingExecutor();
 
+        this.physicalAdapterFutureList = new ArrayList<>();
         this.getPhysicalAdapterList().forEach(physicalAdapter -> {
             logger.info("Executing PhysicalAdapter: {}", physicalAdapter.getClass());
-            physicalAdapterExecutor.execute(physicalAdapter);
+            this.physicalAdapterFutureList.add(adapterExecutor.submit(physicalAdapter));
         });
 
-        //Init DigitalAdapter Executor
-        digitalAdapterExecutor = Executors.newFixedThreadPool(this.getDigitalAdapterList().size());
-
+        this.digitalAdapterFutureList = new ArrayList<>();
         this.getDigitalAdapterList().forEach(digitalAdapter -> {
             logger.info("Executing DigitalAdapter: {}", digitalAdapter.getClass());
-            digitalAdapterExecutor.execute(digitalAdapter);
+            this.digitalAdapterFutureList.add(adapterExecutor.submit(digitalAdapter));
         });
 
         //When all Physical and Digital Adapters have been started the DT moves to the Start State
         notifyLifeCycleOnStart();
 
-        physicalAdapterExecutor.shutdown();
+        //Wait for the completion of the start phase of the Physical Adapters
+        for(Future<?> physicalAdapterFuture : this.physicalAdapterFutureList) {
+            try {
+                physicalAdapterFuture.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (CancellationException | ExecutionException e) {
+                logger.warn("{} PhysicalAdapter start interrupted ! Error: {}", TAG, e.getLocalizedMessage());
+            }
+        }
+    }
+
+    /**
+     * Restores the most recent Digital Twin State available on the storages of the Digital Twin and provides it to
+     * the Digital Adapters. The restored resources are then reconciled incrementally by the committed transactions
+     * of the shadowing function once the physical bindings are available. If no state is available (or it can not be
+     * restored) the Digital Twin performs a regular cold start.
+     */
+    private void restoreLastStoredState(){
+        try {
+
+            Optional<DigitalTwinState> lastStoredState = this.storageManager.getLastDigitalTwinState();
+
+            if(!lastStoredState.isPresent()) {
+                logger.info("{} Warm Restart -> No stored Digital Twin State available for {} ! Cold start ...", TAG, this.digitalTwinId);
+                return;
+            }
+
+            this.digitalTwinStateManager.restoreState(lastStoredState.get());
+
+            DigitalTwinState restoredState = this.digitalTwinStateManager.getDigitalTwinState();
 
-        while (!physicalAdapterExecutor.isTerminated() && ! digitalAdapterExecutor.isTerminated()) {}
+            // Deliver the restored state after the already dispatched life cycle notifications and wait for the
+            // delivery in order to provide the state to the Digital Adapters before starting them
+            CompletableFuture<Void> restoredStateDelivery = new CompletableFuture<>();
+            executeInLifeCycleOrder(() -> {
+                try {
+                    for(DigitalAdapter<?> digitalAdapter : this.getDigitalAdapterList())
+                        digitalAdapter.onStateRestored(restoredState);
+                } finally {
+                    restoredStateDelivery.complete(null);
+                }
+            });
+            restoredStateDelivery.get();
 
+            this.timeToFirstStateNanos = System.nanoTime() - this.lifeCycleStartNanos;
+
+            logger.info("{} Warm Restart -> Digital Twin {} State restored in {} ms", TAG, this.digitalTwinId, this.timeToFirstStateNanos / 1000000.0);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("{} Warm Restart -> Error restoring Digital Twin {} State ! Cold start ... Error: {}", TAG, this.digitalTwinId, e.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * Replaces the Shadowing Function of the Digital Twin without restarting it (and without running again the
+     * unbind/bind/sync procedure of the adapters). The current function is paused and its event subscriptions are
+     * moved to the new one that keeps working on the same Digital Twin State. Events received during the swap are
+     * buffered and delivered to the new function once it has been started, so the downtime is limited to the pause
+     * of the event delivery. In EVENT_LOOP mode the swap is executed on the shard of the Digital Twin.
+     * The method must not be invoked from a callback of the Shadowing Function that is going to be replaced.
+     *
+     * @param newShadowingFunction the new Shadowing Function
+     * @throws ModelException if the new function is not valid or the swap fails
+     */
+    public void replaceShadowingFunction(ShadowingFunction newShadowingFunction) throws ModelException {
+
+        if(newShadowingFunction == null)
+            throw new ModelException("Error ! Provided ShadowingFunction == Null !");
+
+        CompletableFuture<Long> swapResult = new CompletableFuture<>();
+
+        executeOnDigitalTwinContext(() -> {
+            try {
+                long swapNanos = this.digitalTwinModel.replaceShadowingFunction(newShadowingFunction, new HashMap<>(this.physicalAdaptersPhysicalAssetDescriptionMap));
+                this.shadowingFunction = newShadowingFunction;
+                swapResult.complete(swapNanos);
+            } catch (Throwable t) {
+                swapResult.completeExceptionally(t);
+            }
+        });
+
+        try {
+
+            this.lastShadowingFunctionSwapNanos = swapResult.get();
+
+            logger.info("{} Shadowing Function of {} replaced with {} ! Event delivery paused for {} ms", TAG, this.digitalTwinId, newShadowingFunction.getId(), this.lastShadowingFunctionSwapNanos / 1000000.0);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ModelException(String.format("Error replacing Shadowing Function of %s ! Interrupted !", this.digitalTwinId));
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof ModelException)
+                throw (ModelException) e.getCause();
+            throw new ModelException(String.format("Error replacing Shadowing Function of %s ! Error: %s", this.digitalTwinId, e.getCause().getLocalizedMessage()));
+        }
+    }
+
+    /**
+     * Cancels (interrupting them if running) the tasks of a set of adapters on the engine shared executor
+     *
+     * @param adapterFutureList the list of adapter tasks to cancel
+     */
+    private void cancelAdapterTasks(List<Future<?>> adapterFutureList){
+        for(Future<?> adapterFuture : adapterFutureList)
+            adapterFuture.cancel(true);
+        adapterFutureList.clear();
     }
 
     /**
@@ -699,23 +977,30 @@ public class DigitalTwin implements ShadowingModelListener, PhysicalAdapterListe
         try{
 
             //Stop and Notify Model Engine
-            this.modelEngineThread.interrupt();
-            this.modelEngineThread = null;
-            this.digitalTwinModel.onWorkerStop();
+            if(this.modelEngineThread != null) {
+                this.modelEngineThread.interrupt();
+                this.modelEngineThread = null;
+            }
+            executeOnDigitalTwinContext(this.digitalTwinModel::onWorkerStop);
             removeLifeCycleListener(this.digitalTwinModel);
 
             //Stop and Notify Physical Adapters
-            this.physicalAdapterExecutor.shutdownNow();
-            this.physicalAdapterExecutor = null;
+            cancelAdapterTasks(this.physicalAdapterFutureList);
             for(PhysicalAdapter physicalAdapter : this.getPhysicalAdapterList())
                 physicalAdapter.onWorkerStop();
 
             //Stop and Notify Digital Adapters
-            this.digitalAdapterExecutor.shutdownNow();
-            this.digitalAdapterExecutor = null;
+            cancelAdapterTasks(this.digitalAdapterFutureList);
             for(DigitalAdapter<?> digitalAdapter : this.getDigitalAdapterList())
                 digitalAdapter.onWorkerStop();
 
+            // Notify the state transactions still pending in the group commit window (if enabled)
+            if(this.digitalTwinStateManager != null)
+                this.digitalTwinStateManager.flushGroupCommit();
+
+            // Cancel all the tasks scheduled by the DT components on the shared timer service
+            WldtTimerService.getInstance().cancelAll(this.digitalTwinId);
+
             notifyLifeCycleOnStop();
             notifyLifeCycleOnDestroy();
 
@@ -723,8 +1008,10 @@ public class DigitalTwin implements ShadowingModelListener, PhysicalAdapterListe
             Thread.sleep(2000);
 
             // Stop Storage Manager
-            this.storageManagerThread.interrupt();
-            this.storageManagerThread = null;
+            if(this.storageManagerFuture != null) {
+                this.storageManagerFuture.cancel(true);
+                this.storageManagerFuture = null;
+            }
             this.storageManager.onWorkerStop();
 
             // Stop Management Interface
@@ -734,6 +1021,12 @@ public class DigitalTwin implements ShadowingModelListener, PhysicalAdapterListe
                 this.managementInterface.onWorkerStop();
             }
 
+            // Release the event loop shard (tasks already enqueued are still executed)
+            if(this.eventLoop != null) {
+                WldtEventLoopGroup.getInstance().unpin(this.digitalTwinId);
+                this.eventLoop = null;
+            }
+
         } catch (Exception e){
             logger.error("ERROR Stopping DT LifeCycle ! Error: {}", e.getLocalizedMessage());
         }
@@ -788,21 +1081,22 @@ public class DigitalTwin implements ShadowingModelListener, PhysicalAdapterListe
      */
     @Override
     public void onPhysicalAdapterBound(String adapterId, PhysicalAssetDescription physicalAssetDescription) {
+        executeOnDigitalTwinContext(() -> {
+            logger.info("PhysicalAdapter {} BOUND ! PhysicalAssetDescription: {}", adapterId, physicalAssetDescription);
 
-        logger.info("PhysicalAdapter {} BOUND ! PhysicalAssetDescription: {}", adapterId, physicalAssetDescription);
-
-        //Store the information that the adapter is correctly bound
-        this.physicalAdaptersBoundStatusMap.put(adapterId, true);
+            //Store the information that the adapter is correctly bound
+            this.physicalAdaptersBoundStatusMap.put(adapterId, true);
 
-        //Save the last Physical Asset Description from the adapter
-        this.physicalAdaptersPhysicalAssetDescriptionMap.put(adapterId, physicalAssetDescription);
+            //Save the last Physical Asset Description from the adapter
+            this.physicalAdaptersPhysicalAssetDescriptionMap.put(adapterId, physicalAssetDescription);
 
-        notifyLifeCycleOnPhysicalAdapterBound(adapterId, physicalAssetDescription);
+            notifyLifeCycleOnPhysicalAdapterBound(adapterId, physicalAssetDescription);
 
-        if(isDtBound()) {
-            logger.info("Digital Twin BOUND !");
-            notifyLifeCycleOnBound();
-        }
+            if(isDtBound()) {
+                logger.info("Digital Twin BOUND !");
+                notifyLifeCycleOnBound();
+            }
+        });
     }
 
     /**
@@ -813,14 +1107,15 @@ public class DigitalTwin implements ShadowingModelListener, PhysicalAdapterListe
      */
     @Override
     public void onPhysicalBindingUpdate(String adapterId, PhysicalAssetDescription physicalAssetDescription) {
+        executeOnDigitalTwinContext(() -> {
+            logger.info("PhysicalAdapter {} Binding Update ! New PA-Descriptor: {}", adapterId, physicalAssetDescription);
 
-        logger.info("PhysicalAdapter {} Binding Update ! New PA-Descriptor: {}", adapterId, physicalAssetDescription);
+            //Update the last Physical Asset Description from the adapter
+            this.physicalAdaptersPhysicalAssetDescriptionMap.put(adapterId, physicalAssetDescription);
 
-        //Update the last Physical Asset Description from the adapter
-        this.physicalAdaptersPhysicalAssetDescriptionMap.put(adapterId, physicalAssetDescription);
-
-        //Notify Biding Change
-        notifyLifeCycleOnPhysicalAdapterBindingUpdate(adapterId, physicalAssetDescription);
+            //Notify Biding Change
+            notifyLifeCycleOnPhysicalAdapterBindingUpdate(adapterId, physicalAssetDescription);
+        });
     }
 
     /**
@@ -832,24 +1127,25 @@ public class DigitalTwin implements ShadowingModelListener, PhysicalAdapterListe
      */
     @Override
     public void onPhysicalAdapterUnBound(String adapterId, PhysicalAssetDescription physicalAssetDescription, String errorMessage) {
+        executeOnDigitalTwinContext(() -> {
+            //Set the current adapter to unbound
+            logger.info("PhysicalAdapter {} UN-BOUND ! Error: {}", adapterId, errorMessage);
 
-        //Set the current adapter to unbound
-        logger.info("PhysicalAdapter {} UN-BOUND ! Error: {}", adapterId, errorMessage);
-
-        //Store the information that the adapter is UnBound
-        this.physicalAdaptersBoundStatusMap.put(adapterId, false);
+            //Store the information that the adapter is UnBound
+            this.physicalAdaptersBoundStatusMap.put(adapterId, false);
 
-        //Retrieve the last physical asset description of the associated physical asset
-        PhysicalAssetDescription currentPhysicalAssetDescription = this.physicalAdaptersPhysicalAssetDescriptionMap.get(adapterId);
+            //Retrieve the last physical asset description of the associated physical asset
+            PhysicalAssetDescription currentPhysicalAssetDescription = this.physicalAdaptersPhysicalAssetDescriptionMap.get(adapterId);
 
-        //Notify the adapter unbound status
-        notifyLifeCycleOnPhysicalAdapterUnBound(adapterId, currentPhysicalAssetDescription, errorMessage);
+            //Notify the adapter unbound status
+            notifyLifeCycleOnPhysicalAdapterUnBound(adapterId, currentPhysicalAssetDescription, errorMessage);
 
-        //Check if the DT is still bound
-        if(!isDtBound()) {
-            logger.info("Digital Twin UN-BOUND !");
-            notifyLifeCycleOnUnBound(String.format("Adapter %s UnBound - Error ?: %b", adapterId, errorMessage));
-        }
+            //Check if the DT is still bound
+            if(!isDtBound()) {
+                logger.info("Digital Twin UN-BOUND !");
+                notifyLifeCycleOnUnBound(String.format("Adapter %s UnBound - Error ?: %b", adapterId, errorMessage));
+            }
+        });
     }
 
     /**
@@ -859,14 +1155,15 @@ public class DigitalTwin implements ShadowingModelListener, PhysicalAdapterListe
      */
     @Override
     public void onDigitalAdapterBound(String adapterId) {
+        executeOnDigitalTwinContext(() -> {
+            logger.info("DigitalAdapter {} BOUND !", adapterId);
 
-        logger.info("DigitalAdapter {} BOUND !", adapterId);
+            //Store the information that the adapter is correctly bound
+            this.digitalAdaptersBoundStatusMap.put(adapterId, true);
 
-        //Store the information that the adapter is correctly bound
-        this.digitalAdaptersBoundStatusMap.put(adapterId, true);
-
-        //Notify the adapter bound status
-        notifyLifeCycleOnDigitalAdapterBound(adapterId);
+            //Notify the adapter bound status
+            notifyLifeCycleOnDigitalAdapterBound(adapterId);
+        });
     }
 
     /**
@@ -877,15 +1174,16 @@ public class DigitalTwin implements ShadowingModelListener, PhysicalAdapterListe
      */
     @Override
     public void onDigitalAdapterUnBound(String adapterId, String errorMessage) {
+        executeOnDigitalTwinContext(() -> {
+            //Set the current adapter to unbound
+            logger.info("DigitalAdapter {} UN-BOUND ! Error: {}", adapterId, errorMessage);
 
-        //Set the current adapter to unbound
-        logger.info("DigitalAdapter {} UN-BOUND ! Error: {}", adapterId, errorMessage);
-
-        //Store the information that the adapter is UnBound
-        this.digitalAdaptersBoundStatusMap.put(adapterId, false);
+            //Store the information that the adapter is UnBound
+            this.digitalAdaptersBoundStatusMap.put(adapterId, false);
 
-        //Notify the adapter unbound status
-        notifyLifeCycleOnDigitalAdapterUnBound(adapterId, errorMessage);
+            //Notify the adapter unbound status
+            notifyLifeCycleOnDigitalAdapterUnBound(adapterId, errorMessage);
+        });
     }
 
     /**
@@ -952,6 +1250,14 @@ public class DigitalTwin implements ShadowingModelListener, PhysicalAdapterListe
         return digitalAdapterList;
     }
 
+    /**
+     * Returns the State Manager of the current Digital Twin
+     * @return DigitalTwinStateManager instance associated with the Digital Twin.
+     */
+    protected DigitalTwinStateManager getDigitalTwinStateManager() {
+        return digitalTwinStateManager;
+    }
+
     /**
      * Returns the Storage Manager of the current Digital Twin
      * @return StorageManager instance associated with the Digital Twin.
@@ -990,4 +1296,143 @@ public class DigitalTwin implements ShadowingModelListener, PhysicalAdapterListe
     public ResourceManager getResourceManager() {
         return resourceManager;
     }
+
+    /**
+     * Returns the resource policy applied to the adapters of the Digital Twin.
+     * @return AdapterExecutionPolicy of the Digital Twin.
+     */
+    public AdapterExecutionPolicy getAdapterExecutionPolicy() {
+        return adapterExecutionPolicy;
+    }
+
+    /**
+     * Sets the resource policy applied to the adapters of the Digital Twin.
+     * @param adapterExecutionPolicy The AdapterExecutionPolicy to be set.
+     * @throws WldtConfigurationException if the policy is null or the already configured adapters exceed its limits
+     */
+    public void setAdapterExecutionPolicy(AdapterExecutionPolicy adapterExecutionPolicy) throws WldtConfigurationException {
+
+        if(adapterExecutionPolicy == null)
+            throw new WldtConfigurationException("Error setting Adapter Execution Policy ! Policy can not be null !");
+
+        if(this.getPhysicalAdapterList().size() > adapterExecutionPolicy.getMaxPhysicalAdapters()
+                || this.getDigitalAdapterList().size() > adapterExecutionPolicy.getMaxDigitalAdapters())
+            throw new WldtConfigurationException(String.format("Error setting Adapter Execution Policy ! Configured adapters (physical: %d, digital: %d) exceed the policy limits: %s",
+                    this.getPhysicalAdapterList().size(),
+                    this.getDigitalAdapterList().size(),
+                    adapterExecutionPolicy));
+
+        this.adapterExecutionPolicy = adapterExecutionPolicy;
+    }
+
+    /**
+     * Returns the execution mode of the Digital Twin.
+     * @return DigitalTwinExecutionMode of the Digital Twin.
+     */
+    public DigitalTwinExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    /**
+     * Sets the execution mode of the Digital Twin. The mode can be changed only when the Digital Twin is not running.
+     * @param executionMode The DigitalTwinExecutionMode to be set.
+     * @throws WldtConfigurationException if the mode is null or the Digital Twin is running
+     */
+    public void setExecutionMode(DigitalTwinExecutionMode executionMode) throws WldtConfigurationException {
+
+        if(executionMode == null)
+            throw new WldtConfigurationException("Error setting Execution Mode ! Mode can not be null !");
+
+        if(this.currentLifeCycleState != LifeCycleState.NONE
+                && this.currentLifeCycleState != LifeCycleState.STOPPED
+                && this.currentLifeCycleState != LifeCycleState.DESTROYED)
+            throw new WldtConfigurationException(String.format("Error setting Execution Mode ! Digital Twin %s is running (state: %s) !", this.digitalTwinId, this.currentLifeCycleState));
+
+        this.executionMode = executionMode;
+    }
+
+    /**
+     * Returns the latency statistics of the life cycle notifications delivered to each listener
+     * @return an unmodifiable snapshot of the statistics for each listener
+     */
+    public Map<LifeCycleListener, LifeCycleListenerStats> getLifeCycleListenerStats() {
+        return Collections.unmodifiableMap(new HashMap<>(this.lifeCycleListenerStatsMap));
+    }
+
+    /**
+     * Returns the latency statistics of the life cycle notifications delivered to a target listener
+     * @param listener the target listener
+     * @return the statistics or an empty Optional if no notification has been delivered to the listener
+     */
+    public Optional<LifeCycleListenerStats> getLifeCycleListenerStats(LifeCycleListener listener) {
+        return listener == null ? Optional.empty() : Optional.ofNullable(this.lifeCycleListenerStatsMap.get(listener));
+    }
+
+    /**
+     * Returns the number of life cycle notifications not yet delivered when the Digital Twin is not running in
+     * EVENT_LOOP mode (in EVENT_LOOP mode pending notifications are part of the shard queue)
+     * @return the number of pending life cycle notifications
+     */
+    public int getPendingLifeCycleNotificationCount() {
+        return this.lifeCycleNotificationExecutor.getPendingTaskCount();
+    }
+
+    /**
+     * Returns if the warm restart mode is enabled.
+     * @return true if the last stored state is restored before starting the adapters
+     */
+    public boolean isWarmRestartEnabled() {
+        return warmRestartEnabled;
+    }
+
+    /**
+     * Enables or disables the warm restart mode. When enabled the last Digital Twin State stored on the configured
+     * storages is restored before starting the adapters so that Digital Adapters can serve it immediately, while
+     * the shadowing function reconciles it incrementally once the physical bindings are available.
+     * The mode can be changed only when the Digital Twin is not running.
+     * @param warmRestartEnabled true to enable the warm restart mode
+     * @throws WldtConfigurationException if the Digital Twin is running
+     */
+    public void setWarmRestartEnabled(boolean warmRestartEnabled) throws WldtConfigurationException {
+
+        if(this.currentLifeCycleState != LifeCycleState.NONE
+                && this.currentLifeCycleState != LifeCycleState.STOPPED
+                && this.currentLifeCycleState != LifeCycleState.DESTROYED)
+            throw new WldtConfigurationException(String.format("Error setting Warm Restart ! Digital Twin %s is running (state: %s) !", this.digitalTwinId, this.currentLifeCycleState));
+
+        this.warmRestartEnabled = warmRestartEnabled;
+    }
+
+    /**
+     * Returns the time elapsed between the beginning of the last life cycle start and the first Digital Twin State
+     * made available to the Digital Adapters (the restored state in warm restart mode or the synchronized one).
+     * @return the time to first state in nanoseconds or -1 if no state has been served yet
+     */
+    public long getTimeToFirstStateNanos() {
+        return timeToFirstStateNanos;
+    }
+
+    /**
+     * Returns the Shadowing Function currently executed by the Digital Twin.
+     * @return the active Shadowing Function
+     */
+    public ShadowingFunction getShadowingFunction() {
+        return shadowingFunction;
+    }
+
+    /**
+     * Returns the time the event delivery has been paused during the last hot swap of the Shadowing Function.
+     * @return the swap downtime in nanoseconds or -1 if no swap has been performed yet
+     */
+    public long getLastShadowingFunctionSwapNanos() {
+        return lastShadowingFunctionSwapNanos;
+    }
+
+    /**
+     * Returns the event loop shard of the Digital Twin.
+     * @return the WldtEventLoop of the Digital Twin or null if it is not running in EVENT_LOOP mode.
+     */
+    public WldtEventLoop getEventLoop() {
+        return eventLoop;
+    }
 }
@@ -20,31 +20,61 @@
  */
 package it.wldt.core.engine;
 
+import it.wldt.exception.EventBusException;
 import it.wldt.exception.WldtConfigurationException;
 import it.wldt.exception.WldtEngineException;
 import it.wldt.log.WldtLogger;
 import it.wldt.log.WldtLoggerProvider;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * The DigitalTwinEngine class manages a collection of DigitalTwin instances.
  *
+ * The registry is based on concurrent data structures: lookups by id, listing and pagination are lock-free and never
+ * copy the registry, while life cycle transitions (start/stop/remove) are serialized through a dedicated lock for each
+ * Digital Twin. In this way a read-heavy management workload is not blocked by the start or stop of other twins.
+ *
  * @author Marco Picone, Ph.D. - picone.m@gmail.com
  */
 public class DigitalTwinEngine {
 
     private static final WldtLogger logger = WldtLoggerProvider.getLogger(DigitalTwinEngine.class);
 
-    private Map<String, DigitalTwin> digitalTwinMap;
+    private final Map<String, DigitalTwin> digitalTwinMap;
+
+    /**
+     * Sorted index of the registered Digital Twin ids used for cursor based pagination
+     */
+    private final NavigableSet<String> digitalTwinIdIndex;
+
+    /**
+     * Locks used to serialize the life cycle transitions of each Digital Twin
+     */
+    private final Map<String, ReentrantLock> lifeCycleLockMap;
+
+    /**
+     * Indexed graph of the relationships of the registered Digital Twins
+     */
+    private final DigitalTwinRelationshipGraph relationshipGraph;
 
     /**
      * Constructs a DigitalTwinEngine with an empty map of DigitalTwins.
      */
     public DigitalTwinEngine(){
-        this.digitalTwinMap = new HashMap<>();
+        this.digitalTwinMap = new ConcurrentHashMap<>();
+        this.digitalTwinIdIndex = new ConcurrentSkipListSet<>();
+        this.lifeCycleLockMap = new ConcurrentHashMap<>();
+        this.relationshipGraph = new DigitalTwinRelationshipGraph();
     }
 
     /**
@@ -55,7 +85,7 @@ public class DigitalTwinEngine {
      * @throws WldtEngineException If an error occurs while adding the DigitalTwin.
      * @throws WldtConfigurationException If there is a configuration error in the DigitalTwin.
      */
-    public synchronized void addDigitalTwin(DigitalTwin digitalTwin, boolean startDigitalTwin) throws WldtEngineException, WldtConfigurationException {
+    public void addDigitalTwin(DigitalTwin digitalTwin, boolean startDigitalTwin) throws WldtEngineException, WldtConfigurationException {
 
         addDigitalTwin(digitalTwin);
 
@@ -69,12 +99,27 @@ public class DigitalTwinEngine {
      * @param digitalTwin The DigitalTwin instance to add.
      * @throws WldtEngineException If an error occurs while adding the DigitalTwin.
      */
-    public synchronized void addDigitalTwin(DigitalTwin digitalTwin) throws WldtEngineException {
+    public void addDigitalTwin(DigitalTwin digitalTwin) throws WldtEngineException {
 
         if(this.digitalTwinMap != null && digitalTwin != null && digitalTwin.getId() != null) {
-            logger.debug("Adding Digital Twin: {} to the Engine ...", digitalTwin.getId());
-            this.digitalTwinMap.put(digitalTwin.getId(), digitalTwin);
-            logger.debug("Digital Twin: {} added to the Engine !", digitalTwin.getId());
+
+            ReentrantLock lifeCycleLock = lockLifeCycle(digitalTwin.getId());
+
+            try {
+                logger.debug("Adding Digital Twin: {} to the Engine ...", digitalTwin.getId());
+                this.digitalTwinMap.put(digitalTwin.getId(), digitalTwin);
+                this.digitalTwinIdIndex.add(digitalTwin.getId());
+
+                try {
+                    this.relationshipGraph.track(digitalTwin.getId(), digitalTwin.getDigitalTwinStateManager());
+                } catch (EventBusException e) {
+                    throw new WldtEngineException(String.format("Error tracking the relationships of Digital Twin: %s ! Error: %s", digitalTwin.getId(), e.getLocalizedMessage()));
+                }
+
+                logger.debug("Digital Twin: {} added to the Engine !", digitalTwin.getId());
+            } finally {
+                lifeCycleLock.unlock();
+            }
         }
         else
             throw new WldtEngineException("Error adding new Digital Twin to the Engine ! On value among twinMap, twin or twinId = null");
@@ -86,13 +131,24 @@ public class DigitalTwinEngine {
      * @param digitalTwinId The ID of the DigitalTwin to remove.
      * @throws WldtEngineException If an error occurs while removing the DigitalTwin.
      */
-    public synchronized void removeDigitalTwin(String digitalTwinId) throws WldtEngineException {
+    public void removeDigitalTwin(String digitalTwinId) throws WldtEngineException {
 
         if(this.digitalTwinMap != null && digitalTwinId != null) {
-            logger.debug("Removing Digital Twin: {} from the Engine ...", digitalTwinId);
-            stopDigitalTwin(digitalTwinId);
-            this.digitalTwinMap.remove(digitalTwinId);
-            logger.debug("Digital Twin: {} removed from the Engine !", digitalTwinId);
+
+            ReentrantLock lifeCycleLock = lockLifeCycle(digitalTwinId);
+
+            try {
+                logger.debug("Removing Digital Twin: {} from the Engine ...", digitalTwinId);
+                stopDigitalTwin(digitalTwinId);
+                this.digitalTwinIdIndex.remove(digitalTwinId);
+                this.digitalTwinMap.remove(digitalTwinId);
+                this.relationshipGraph.untrack(digitalTwinId);
+                logger.debug("Digital Twin: {} removed from the Engine !", digitalTwinId);
+            } finally {
+                // Dropped while still held: a concurrent add of the same id waits for the end of the removal
+                this.lifeCycleLockMap.remove(digitalTwinId, lifeCycleLock);
+                lifeCycleLock.unlock();
+            }
         }
         else
             throw new WldtEngineException("Error removing new Digital Twin to the Engine ! On value among twinMap, twin or twinId = null");
@@ -103,8 +159,8 @@ public class DigitalTwinEngine {
      *
      * @throws WldtEngineException If an error occurs while removing DigitalTwins.
      */
-    public synchronized void removeAll() throws WldtEngineException {
-        List<String> idList = new ArrayList<>(digitalTwinMap.keySet());
+    public void removeAll() throws WldtEngineException {
+        List<String> idList = new ArrayList<>(this.digitalTwinIdIndex);
         for (String digitalTwinId : idList)
             removeDigitalTwin(digitalTwinId);
     }
@@ -115,9 +171,9 @@ public class DigitalTwinEngine {
      * @throws WldtEngineException If an error occurs while starting DigitalTwins.
      * @throws WldtConfigurationException If there is a configuration error in a DigitalTwin.
      */
-    public synchronized void startAll() throws WldtEngineException, WldtConfigurationException {
-        for (Map.Entry<String, DigitalTwin> digitalTwinEntry : this.digitalTwinMap.entrySet())
-            startDigitalTwin(digitalTwinEntry.getKey());
+    public void startAll() throws WldtEngineException, WldtConfigurationException {
+        for (String digitalTwinId : this.digitalTwinIdIndex)
+            startDigitalTwin(digitalTwinId);
     }
 
     /**
@@ -125,9 +181,9 @@ public class DigitalTwinEngine {
      *
      * @throws WldtEngineException If an error occurs while stopping DigitalTwins.
      */
-    public synchronized void stopAll() throws WldtEngineException {
-        for (Map.Entry<String, DigitalTwin> digitalTwinEntry : this.digitalTwinMap.entrySet())
-            stopDigitalTwin(digitalTwinEntry.getKey());
+    public void stopAll() throws WldtEngineException {
+        for (String digitalTwinId : this.digitalTwinIdIndex)
+            stopDigitalTwin(digitalTwinId);
     }
 
     /**
@@ -137,7 +193,7 @@ public class DigitalTwinEngine {
      * @throws WldtEngineException If an error occurs while starting the DigitalTwin.
      * @throws WldtConfigurationException If there is a configuration error in the DigitalTwin.
      */
-    public synchronized void startDigitalTwin(String digitalTwinId) throws WldtEngineException, WldtConfigurationException {
+    public void startDigitalTwin(String digitalTwinId) throws WldtEngineException, WldtConfigurationException {
 
         logger.debug("Starting Digital Twin: {} ...", digitalTwinId);
 
@@ -147,28 +203,38 @@ public class DigitalTwinEngine {
         if(!this.digitalTwinMap.containsKey(digitalTwinId))
             throw new WldtEngineException(String.format("Error starting the target DT with id: %s -> DT not available in the Engine !", digitalTwinId));
 
-        DigitalTwin targetDigitalTwin = this.digitalTwinMap.get(digitalTwinId);
+        ReentrantLock lifeCycleLock = lockLifeCycle(digitalTwinId);
 
-        // Check the current DT Life Cycle State
-        if(targetDigitalTwin.getCurrentLifeCycleState().equals(LifeCycleState.NONE) ||
-                targetDigitalTwin.getCurrentLifeCycleState().equals(LifeCycleState.STOPPED) ||
-                targetDigitalTwin.getCurrentLifeCycleState().equals(LifeCycleState.DESTROYED)) {
-            targetDigitalTwin.startLifeCycle();
-            logger.debug("Digital Twin: {} STARTED !", digitalTwinId);
+        try {
+
+            DigitalTwin targetDigitalTwin = this.digitalTwinMap.get(digitalTwinId);
+
+            if(targetDigitalTwin == null)
+                throw new WldtEngineException(String.format("Error starting the target DT with id: %s -> DT not available in the Engine !", digitalTwinId));
+
+            // Check the current DT Life Cycle State
+            if(targetDigitalTwin.getCurrentLifeCycleState().equals(LifeCycleState.NONE) ||
+                    targetDigitalTwin.getCurrentLifeCycleState().equals(LifeCycleState.STOPPED) ||
+                    targetDigitalTwin.getCurrentLifeCycleState().equals(LifeCycleState.DESTROYED)) {
+                targetDigitalTwin.startLifeCycle();
+                logger.debug("Digital Twin: {} STARTED !", digitalTwinId);
+            }
+            else
+                logger.warn(String.format("Warning starting the target DT with id: %s -> DT already started ! LifeCycle State: %s !",
+                        digitalTwinId,
+                        targetDigitalTwin.getCurrentLifeCycleState().getValue()
+                ));
+                /*
+                throw new WldtEngineException(
+                        String.format("Error starting the target DT with id: %s -> DT already started ! LifeCycle State: %s !",
+                                digitalTwinId,
+                                targetDigitalTwin.getCurrentLifeCycleState().getValue()
+                        )
+                );
+                */
+        } finally {
+            lifeCycleLock.unlock();
         }
-        else
-            logger.warn(String.format("Warning starting the target DT with id: %s -> DT already started ! LifeCycle State: %s !",
-                    digitalTwinId,
-                    targetDigitalTwin.getCurrentLifeCycleState().getValue()
-            ));
-            /*
-            throw new WldtEngineException(
-                    String.format("Error starting the target DT with id: %s -> DT already started ! LifeCycle State: %s !",
-                            digitalTwinId,
-                            targetDigitalTwin.getCurrentLifeCycleState().getValue()
-                    )
-            );
-            */
     }
 
     /**
@@ -177,7 +243,7 @@ public class DigitalTwinEngine {
      * @param digitalTwinId
      * @throws WldtEngineException
      */
-    public synchronized void stopDigitalTwin(String digitalTwinId) throws WldtEngineException {
+    public void stopDigitalTwin(String digitalTwinId) throws WldtEngineException {
 
         logger.debug("Stopping Digital Twin: {} ...", digitalTwinId);
 
@@ -187,28 +253,38 @@ public class DigitalTwinEngine {
         if(!this.digitalTwinMap.containsKey(digitalTwinId))
             throw new WldtEngineException(String.format("Error starting the target DT with id: %s -> DT not available in the Engine !", digitalTwinId));
 
-        DigitalTwin targetDigitalTwin = this.digitalTwinMap.get(digitalTwinId);
+        ReentrantLock lifeCycleLock = lockLifeCycle(digitalTwinId);
+
+        try {
 
-        // Check the current DT Life Cycle State
-        if(!targetDigitalTwin.getCurrentLifeCycleState().equals(LifeCycleState.NONE) &&
-                !targetDigitalTwin.getCurrentLifeCycleState().equals(LifeCycleState.STOPPED) &&
-                !targetDigitalTwin.getCurrentLifeCycleState().equals(LifeCycleState.DESTROYED)) {
-            targetDigitalTwin.stopLifeCycle();
-            logger.debug("Digital Twin: {} STOPPED !", digitalTwinId);
+            DigitalTwin targetDigitalTwin = this.digitalTwinMap.get(digitalTwinId);
+
+            if(targetDigitalTwin == null)
+                throw new WldtEngineException(String.format("Error stopping the target DT with id: %s -> DT not available in the Engine !", digitalTwinId));
+
+            // Check the current DT Life Cycle State
+            if(!targetDigitalTwin.getCurrentLifeCycleState().equals(LifeCycleState.NONE) &&
+                    !targetDigitalTwin.getCurrentLifeCycleState().equals(LifeCycleState.STOPPED) &&
+                    !targetDigitalTwin.getCurrentLifeCycleState().equals(LifeCycleState.DESTROYED)) {
+                targetDigitalTwin.stopLifeCycle();
+                logger.debug("Digital Twin: {} STOPPED !", digitalTwinId);
+            }
+            else
+                logger.warn(String.format("Error starting the target DT with id: %s -> DT already stopped ! ! LifeCycle State: %s !",
+                        digitalTwinId,
+                        targetDigitalTwin.getCurrentLifeCycleState().getValue()
+                ));
+                /*
+                throw new WldtEngineException(
+                        String.format("Error starting the target DT with id: %s -> DT already stopped ! ! LifeCycle State: %s !",
+                                digitalTwinId,
+                                targetDigitalTwin.getCurrentLifeCycleState().getValue()
+                        )
+                );
+                */
+        } finally {
+            lifeCycleLock.unlock();
         }
-        else
-            logger.warn(String.format("Error starting the target DT with id: %s -> DT already stopped ! ! LifeCycle State: %s !",
-                    digitalTwinId,
-                    targetDigitalTwin.getCurrentLifeCycleState().getValue()
-            ));
-            /*
-            throw new WldtEngineException(
-                    String.format("Error starting the target DT with id: %s -> DT already stopped ! ! LifeCycle State: %s !",
-                            digitalTwinId,
-                            targetDigitalTwin.getCurrentLifeCycleState().getValue()
-                    )
-            );
-            */
     }
 
     /**
@@ -221,12 +297,110 @@ public class DigitalTwinEngine {
     }
 
     /**
-     * Returns a synchronized copy of the map containing DigitalTwin instances.
+     * Returns a DigitalTwin by its id through a lock-free lookup.
      *
-     * @return A synchronized copy of the map containing DigitalTwin instances.
+     * @param digitalTwinId The ID of the target DigitalTwin.
+     * @return An Optional containing the DigitalTwin if it is registered on the engine.
      */
-    public synchronized Map<String, DigitalTwin> getDigitalTwinMap() {
-        return new HashMap<>(digitalTwinMap);
+    public Optional<DigitalTwin> getDigitalTwin(String digitalTwinId) {
+        if(digitalTwinId == null)
+            return Optional.empty();
+        return Optional.ofNullable(this.digitalTwinMap.get(digitalTwinId));
+    }
+
+    /**
+     * Checks if a DigitalTwin is registered on the engine.
+     *
+     * @param digitalTwinId The ID of the target DigitalTwin.
+     * @return true if the DigitalTwin is registered, false otherwise.
+     */
+    public boolean containsDigitalTwin(String digitalTwinId) {
+        return digitalTwinId != null && this.digitalTwinMap.containsKey(digitalTwinId);
+    }
+
+    /**
+     * Returns a page of DigitalTwins ordered by id using a cursor. The cursor is the id of the last DigitalTwin of the
+     * previous page (null to start from the first one). Pages are computed on the live registry without copying it.
+     *
+     * @param afterDigitalTwinId The id of the last DigitalTwin of the previous page (exclusive) or null.
+     * @param limit The maximum number of DigitalTwins in the page.
+     * @return The list of DigitalTwins of the requested page.
+     * @throws WldtEngineException If the limit is not valid.
+     */
+    public List<DigitalTwin> getDigitalTwinPage(String afterDigitalTwinId, int limit) throws WldtEngineException {
+
+        if(limit <= 0)
+            throw new WldtEngineException(String.format("Error retrieving Digital Twin Page ! Invalid limit: %d", limit));
+
+        NavigableSet<String> idView = afterDigitalTwinId == null ? this.digitalTwinIdIndex : this.digitalTwinIdIndex.tailSet(afterDigitalTwinId, false);
+
+        List<DigitalTwin> page = new ArrayList<>(Math.min(limit, 128));
+
+        for(String digitalTwinId : idView) {
+            DigitalTwin digitalTwin = this.digitalTwinMap.get(digitalTwinId);
+            // Skip twins removed in the meantime
+            if(digitalTwin != null)
+                page.add(digitalTwin);
+            if(page.size() >= limit)
+                break;
+        }
+
+        return page;
+    }
+
+    /**
+     * Returns a stream over the registered DigitalTwins (weakly consistent, no copy of the registry).
+     *
+     * @return A Stream of the registered DigitalTwins.
+     */
+    public Stream<DigitalTwin> streamDigitalTwins() {
+        return this.digitalTwinMap.values().stream();
+    }
+
+    /**
+     * Executes an action on each registered DigitalTwin (weakly consistent, no copy of the registry).
+     *
+     * @param action The action to execute.
+     */
+    public void forEachDigitalTwin(Consumer<DigitalTwin> action) {
+        this.digitalTwinMap.values().forEach(action);
+    }
+
+    /**
+     * Returns an unmodifiable live view of the map containing DigitalTwin instances. The view reflects the updates of
+     * the registry without copying it and its iteration is weakly consistent.
+     *
+     * @return An unmodifiable view of the map containing DigitalTwin instances.
+     */
+    public Map<String, DigitalTwin> getDigitalTwinMap() {
+        return Collections.unmodifiableMap(this.digitalTwinMap);
+    }
+
+    /**
+     * Returns the graph of the relationships of the registered Digital Twins, updated with their state changes.
+     *
+     * @return The relationship graph of the engine.
+     */
+    public DigitalTwinRelationshipGraph getRelationshipGraph() {
+        return relationshipGraph;
+    }
+
+    /**
+     * Acquires the lock used to serialize the life cycle transitions of a DigitalTwin. The lock of a removed
+     * DigitalTwin is dropped from the map while held, so a thread that was waiting on it retries on the lock
+     * currently associated to the id.
+     *
+     * @param digitalTwinId The ID of the target DigitalTwin.
+     * @return The acquired life cycle lock of the DigitalTwin.
+     */
+    private ReentrantLock lockLifeCycle(String digitalTwinId) {
+        while(true) {
+            ReentrantLock lifeCycleLock = this.lifeCycleLockMap.computeIfAbsent(digitalTwinId, id -> new ReentrantLock());
+            lifeCycleLock.lock();
+            if(this.lifeCycleLockMap.get(digitalTwinId) == lifeCycleLock)
+                return lifeCycleLock;
+            lifeCycleLock.unlock();
+        }
     }
 
 }
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2025 - Current Year
+ * Marco Picone Ph.D
+ * Email: picone.m@gmail.com
+ * Website: https://www.marcopicone.net/
+ * All rights reserved.
+ *
+ * This program is provided under a Dual Licensing model:
+ * 1) GNU General Public License version 3.0 (GPL-3.0) for open-source, academic,
+ *    research, non-profit, and other non-commercial use; or
+ * 2) Commercial License, for any commercial use, proprietary development, or
+ *    closed-source distribution. To obtain a Commercial License, please contact: Marco Picone (picone.m@gmail.com)
+ *
+ * By using this software, you agree to comply with the terms of the applicable license.
+ * This applies to all forms of the software, including source code and compiled/binary forms.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+package it.wldt.core.engine;
+
+/**
+ * Execution mode of a Digital Twin.
+ *
+ * - DEFAULT: each component callback is executed on the thread that generated it (adapter threads, model engine
+ *   thread, event publisher thread).
+ * - EVENT_LOOP: the Digital Twin is pinned to a single-threaded shard of the engine event loop group and all its
+ *   callbacks (event bus deliveries, life cycle notifications, timers and state transactions) are serialized on that
+ *   shard. Adapters performing blocking I/O have to offload it through the blocking executor.
+ *
+ * @author Marco Picone, Ph.D. - picone.m@gmail.com
+ */
+public enum DigitalTwinExecutionMode {
+    DEFAULT,
+    EVENT_LOOP
+}
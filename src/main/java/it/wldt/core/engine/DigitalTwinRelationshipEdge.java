@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2025 - Current Year
+ * Marco Picone Ph.D
+ * Email: picone.m@gmail.com
+ * Website: https://www.marcopicone.net/
+ * All rights reserved.
+ *
+ * This program is provided under a Dual Licensing model:
+ * 1) GNU General Public License version 3.0 (GPL-3.0) for open-source, academic,
+ *    research, non-profit, and other non-commercial use; or
+ * 2) Commercial License, for any commercial use, proprietary development, or
+ *    closed-source distribution. To obtain a Commercial License, please contact: Marco Picone (picone.m@gmail.com)
+ *
+ * By using this software, you agree to comply with the terms of the applicable license.
+ * This applies to all forms of the software, including source code and compiled/binary forms.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+package it.wldt.core.engine;
+
+import it.wldt.core.state.DigitalTwinStateRelationshipInstance;
+
+/**
+ * Edge of the DigitalTwinRelationshipGraph: a relationship instance of the state of a Digital Twin (the source)
+ * pointing to its target id.
+ *
+ * @author Marco Picone, Ph.D. - picone.m@gmail.com
+ */
+public class DigitalTwinRelationshipEdge {
+
+    private final String sourceDigitalTwinId;
+
+    private final DigitalTwinStateRelationshipInstance<?> relationshipInstance;
+
+    public DigitalTwinRelationshipEdge(String sourceDigitalTwinId, DigitalTwinStateRelationshipInstance<?> relationshipInstance) {
+        this.sourceDigitalTwinId = sourceDigitalTwinId;
+        this.relationshipInstance = relationshipInstance;
+    }
+
+    public String getSourceDigitalTwinId() {
+        return sourceDigitalTwinId;
+    }
+
+    public String getRelationshipName() {
+        return relationshipInstance.getRelationshipName();
+    }
+
+    public String getInstanceKey() {
+        return relationshipInstance.getKey();
+    }
+
+    public Object getTargetId() {
+        return relationshipInstance.getTargetId();
+    }
+
+    public DigitalTwinStateRelationshipInstance<?> getRelationshipInstance() {
+        return relationshipInstance;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("DigitalTwinRelationshipEdge{");
+        sb.append("sourceDigitalTwinId='").append(sourceDigitalTwinId).append('\'');
+        sb.append(", relationshipName='").append(getRelationshipName()).append('\'');
+        sb.append(", instanceKey='").append(getInstanceKey()).append('\'');
+        sb.append(", targetId=").append(getTargetId());
+        sb.append('}');
+        return sb.toString();
+    }
+}
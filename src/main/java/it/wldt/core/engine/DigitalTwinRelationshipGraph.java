@@ -0,0 +1,523 @@
+/*
+ * Copyright (c) 2025 - Current Year
+ * Marco Picone Ph.D
+ * Email: picone.m@gmail.com
+ * Website: https://www.marcopicone.net/
+ * All rights reserved.
+ *
+ * This program is provided under a Dual Licensing model:
+ * 1) GNU General Public License version 3.0 (GPL-3.0) for open-source, academic,
+ *    research, non-profit, and other non-commercial use; or
+ * 2) Commercial License, for any commercial use, proprietary development, or
+ *    closed-source distribution. To obtain a Commercial License, please contact: Marco Picone (picone.m@gmail.com)
+ *
+ * By using this software, you agree to comply with the terms of the applicable license.
+ * This applies to all forms of the software, including source code and compiled/binary forms.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+package it.wldt.core.engine;
+
+import it.wldt.core.event.WldtEvent;
+import it.wldt.core.event.WldtEventBus;
+import it.wldt.core.event.WldtEventFilter;
+import it.wldt.core.event.WldtEventListener;
+import it.wldt.core.state.DigitalTwinState;
+import it.wldt.core.state.DigitalTwinStateChange;
+import it.wldt.core.state.DigitalTwinStateManager;
+import it.wldt.core.state.DigitalTwinStateRelationship;
+import it.wldt.core.state.DigitalTwinStateRelationshipInstance;
+import it.wldt.exception.EventBusException;
+import it.wldt.log.WldtLogger;
+import it.wldt.log.WldtLoggerProvider;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Graph of the relationship instances of the Digital Twins registered on a DigitalTwinEngine. Each instance is an
+ * edge from the Digital Twin owning it to its target id, so the graph can be navigated across twins when the target
+ * ids are Digital Twin ids.
+ *
+ * Edges are indexed both by source (and relationship name) and by target: outgoing and incoming edges of a node are
+ * found without scanning the relationships of every twin. The graph is kept up to date with the state update
+ * events of the tracked twins applying only their relationship changes; it is rebuilt from the published state
+ * when an update has been missed.
+ *
+ * @author Marco Picone, Ph.D. - picone.m@gmail.com
+ */
+public class DigitalTwinRelationshipGraph {
+
+    /**
+     * Direction of the edges followed while navigating the graph
+     */
+    public static enum Direction {
+        OUTGOING,
+        INCOMING,
+        BOTH
+    }
+
+    private static final WldtLogger logger = WldtLoggerProvider.getLogger(DigitalTwinRelationshipGraph.class);
+
+    private static final String SUBSCRIBER_ID = "dt-relationship-graph";
+
+    private final ReadWriteLock graphLock = new ReentrantReadWriteLock();
+
+    /**
+     * Outgoing edges: source Digital Twin id -> relationship name -> instance key -> edge
+     */
+    private final Map<String, Map<String, Map<String, DigitalTwinRelationshipEdge>>> outgoingEdgeMap = new HashMap<>();
+
+    /**
+     * Incoming edges: target id -> edges pointing to the target
+     */
+    private final Map<Object, Set<DigitalTwinRelationshipEdge>> incomingEdgeMap = new HashMap<>();
+
+    /**
+     * Version of the last state applied for each tracked Digital Twin. It is modified within the write lock, except
+     * for the updates without relationship changes that only advance the version of the twin.
+     */
+    private final Map<String, Long> stateVersionMap = new ConcurrentHashMap<>();
+
+    /**
+     * State update listeners of the tracked Digital Twins
+     */
+    private final Map<String, WldtEventListener> listenerMap = new ConcurrentHashMap<>();
+
+    private int edgeCount = 0;
+
+    /**
+     * Starts tracking the relationships of a Digital Twin: the graph is filled with the current state and then
+     * updated with the state update events of the twin
+     *
+     * @param digitalTwinId The id of the Digital Twin
+     * @param digitalTwinStateManager The state manager of the Digital Twin (null if it is not available yet)
+     * @throws EventBusException If the state updates can not be observed
+     */
+    void track(String digitalTwinId, DigitalTwinStateManager digitalTwinStateManager) throws EventBusException {
+
+        WldtEventListener stateUpdateListener = new WldtEventListener() {
+
+            @Override
+            public void onEventSubscribed(String eventType) {
+            }
+
+            @Override
+            public void onEventUnSubscribed(String eventType) {
+            }
+
+            @Override
+            public void onEvent(WldtEvent<?> wldtEvent) {
+                handleStateUpdateEvent(digitalTwinId, wldtEvent);
+            }
+        };
+
+        untrack(digitalTwinId);
+
+        this.graphLock.writeLock().lock();
+        try {
+            DigitalTwinState digitalTwinState = digitalTwinStateManager != null ? digitalTwinStateManager.getDigitalTwinState() : null;
+            if(digitalTwinState != null) {
+                rebuild(digitalTwinId, digitalTwinState);
+                this.stateVersionMap.put(digitalTwinId, digitalTwinState.getVersion());
+            }
+            else
+                this.stateVersionMap.put(digitalTwinId, -1L);
+        } finally {
+            this.graphLock.writeLock().unlock();
+        }
+
+        this.listenerMap.put(digitalTwinId, stateUpdateListener);
+        WldtEventBus.getInstance().subscribe(digitalTwinId, SUBSCRIBER_ID, getStateUpdateEventFilter(), stateUpdateListener);
+    }
+
+    /**
+     * Stops tracking a Digital Twin removing its edges from the graph
+     *
+     * @param digitalTwinId The id of the Digital Twin
+     */
+    void untrack(String digitalTwinId) {
+
+        WldtEventListener stateUpdateListener = this.listenerMap.remove(digitalTwinId);
+
+        if(stateUpdateListener != null) {
+            try {
+                WldtEventBus.getInstance().unSubscribe(digitalTwinId, SUBSCRIBER_ID, getStateUpdateEventFilter(), stateUpdateListener);
+            } catch (EventBusException e) {
+                logger.error("Error unsubscribing relationship graph from Digital Twin: {} ! Error: {}", digitalTwinId, e.getLocalizedMessage());
+            }
+        }
+
+        this.graphLock.writeLock().lock();
+        try {
+            this.stateVersionMap.remove(digitalTwinId);
+            removeOutgoingEdges(digitalTwinId);
+        } finally {
+            this.graphLock.writeLock().unlock();
+        }
+    }
+
+    private WldtEventFilter getStateUpdateEventFilter() {
+        WldtEventFilter wldtEventFilter = new WldtEventFilter();
+        wldtEventFilter.add(DigitalTwinStateManager.getStatusUpdatesWldtEventMessageType());
+        return wldtEventFilter;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void handleStateUpdateEvent(String digitalTwinId, WldtEvent<?> wldtEvent) {
+
+        if(!(wldtEvent.getBody() instanceof DigitalTwinState))
+            return;
+
+        Optional<Object> previousState = wldtEvent.getMetadata(DigitalTwinStateManager.DT_STATE_UPDATE_METADATA_PREVIOUS_STATE);
+        Optional<Object> changeList = wldtEvent.getMetadata(DigitalTwinStateManager.DT_STATE_UPDATE_METADATA_CHANGE_LIST);
+
+        onDigitalTwinStateUpdate(digitalTwinId,
+                previousState.filter(DigitalTwinState.class::isInstance).map(DigitalTwinState.class::cast).orElse(null),
+                (DigitalTwinState) wldtEvent.getBody(),
+                (List<DigitalTwinStateChange>) changeList.filter(List.class::isInstance).orElse(null));
+    }
+
+    /**
+     * Updates the edges of a tracked Digital Twin with a new state. Only the relationship changes are applied when
+     * the previous state is the last applied one, otherwise the edges of the twin are rebuilt from the new state.
+     * States older than the last applied one are ignored.
+     *
+     * @param digitalTwinId The id of the Digital Twin
+     * @param previousDigitalTwinState The state the changes have been applied to (null if unknown)
+     * @param newDigitalTwinState The new state
+     * @param digitalTwinStateChangeList The applied changes (null if unknown)
+     */
+    void onDigitalTwinStateUpdate(String digitalTwinId,
+                                  DigitalTwinState previousDigitalTwinState,
+                                  DigitalTwinState newDigitalTwinState,
+                                  List<DigitalTwinStateChange> digitalTwinStateChangeList) {
+
+        // Most of the updates do not change any relationship: the version is advanced without taking the write
+        // lock when it follows the last applied one, otherwise the update is handled as any other one
+        if(previousDigitalTwinState != null
+                && digitalTwinStateChangeList != null
+                && !hasRelationshipChanges(digitalTwinStateChangeList)
+                && this.stateVersionMap.replace(digitalTwinId, previousDigitalTwinState.getVersion(), newDigitalTwinState.getVersion()))
+            return;
+
+        this.graphLock.writeLock().lock();
+
+        try {
+
+            Long appliedVersion = this.stateVersionMap.get(digitalTwinId);
+
+            // Not tracked or already applied
+            if(appliedVersion == null || newDigitalTwinState.getVersion() <= appliedVersion)
+                return;
+
+            if(previousDigitalTwinState != null && digitalTwinStateChangeList != null && previousDigitalTwinState.getVersion() == appliedVersion)
+                applyChanges(digitalTwinId, newDigitalTwinState, digitalTwinStateChangeList);
+            else
+                rebuild(digitalTwinId, newDigitalTwinState);
+
+            this.stateVersionMap.put(digitalTwinId, newDigitalTwinState.getVersion());
+
+        } finally {
+            this.graphLock.writeLock().unlock();
+        }
+    }
+
+    private boolean hasRelationshipChanges(List<DigitalTwinStateChange> digitalTwinStateChangeList) {
+
+        for(DigitalTwinStateChange digitalTwinStateChange : digitalTwinStateChangeList)
+            if(digitalTwinStateChange.getResourceType() == DigitalTwinStateChange.ResourceType.RELATIONSHIP
+                    || digitalTwinStateChange.getResourceType() == DigitalTwinStateChange.ResourceType.RELATIONSHIP_INSTANCE)
+                return true;
+
+        return false;
+    }
+
+    private void applyChanges(String digitalTwinId, DigitalTwinState newDigitalTwinState, List<DigitalTwinStateChange> digitalTwinStateChangeList) {
+
+        for(DigitalTwinStateChange digitalTwinStateChange : digitalTwinStateChangeList) {
+
+            switch (digitalTwinStateChange.getResourceType()) {
+
+                case RELATIONSHIP:
+                    String relationshipName = ((DigitalTwinStateRelationship<?>) digitalTwinStateChange.getResource()).getName();
+                    removeRelationshipEdges(digitalTwinId, relationshipName);
+                    // A relationship can be created together with its instances
+                    if(digitalTwinStateChange.getOperation() == DigitalTwinStateChange.Operation.OPERATION_ADD)
+                        newDigitalTwinState.getRelationship(relationshipName).ifPresent(relationship -> addRelationshipEdges(digitalTwinId, relationship));
+                    break;
+
+                case RELATIONSHIP_INSTANCE:
+                    DigitalTwinStateRelationshipInstance<?> relationshipInstance = (DigitalTwinStateRelationshipInstance<?>) digitalTwinStateChange.getResource();
+                    if(digitalTwinStateChange.getOperation() == DigitalTwinStateChange.Operation.OPERATION_REMOVE)
+                        removeEdge(digitalTwinId, relationshipInstance.getRelationshipName(), relationshipInstance.getKey());
+                    else
+                        addEdge(digitalTwinId, relationshipInstance);
+                    break;
+
+                default:
+                    break;
+            }
+        }
+    }
+
+    private void rebuild(String digitalTwinId, DigitalTwinState digitalTwinState) {
+        removeOutgoingEdges(digitalTwinId);
+        digitalTwinState.getRelationshipList().ifPresent(relationshipList -> relationshipList.forEach(relationship -> addRelationshipEdges(digitalTwinId, relationship)));
+    }
+
+    private void addRelationshipEdges(String digitalTwinId, DigitalTwinStateRelationship<?> relationship) {
+        for(DigitalTwinStateRelationshipInstance<?> relationshipInstance : relationship.getInstanceCollection())
+            addEdge(digitalTwinId, relationshipInstance);
+    }
+
+    private void addEdge(String digitalTwinId, DigitalTwinStateRelationshipInstance<?> relationshipInstance) {
+
+        DigitalTwinRelationshipEdge edge = new DigitalTwinRelationshipEdge(digitalTwinId, relationshipInstance);
+
+        DigitalTwinRelationshipEdge replacedEdge = this.outgoingEdgeMap
+                .computeIfAbsent(digitalTwinId, id -> new HashMap<>())
+                .computeIfAbsent(relationshipInstance.getRelationshipName(), name -> new HashMap<>())
+                .put(relationshipInstance.getKey(), edge);
+
+        if(replacedEdge != null)
+            removeIncomingEdge(replacedEdge);
+        else
+            this.edgeCount++;
+
+        if(edge.getTargetId() != null)
+            this.incomingEdgeMap.computeIfAbsent(edge.getTargetId(), targetId -> new HashSet<>()).add(edge);
+    }
+
+    private void removeEdge(String digitalTwinId, String relationshipName, String instanceKey) {
+
+        Map<String, Map<String, DigitalTwinRelationshipEdge>> relationshipEdgeMap = this.outgoingEdgeMap.get(digitalTwinId);
+        Map<String, DigitalTwinRelationshipEdge> instanceEdgeMap = relationshipEdgeMap != null ? relationshipEdgeMap.get(relationshipName) : null;
+        DigitalTwinRelationshipEdge removedEdge = instanceEdgeMap != null ? instanceEdgeMap.remove(instanceKey) : null;
+
+        if(removedEdge == null)
+            return;
+
+        this.edgeCount--;
+        removeIncomingEdge(removedEdge);
+
+        if(instanceEdgeMap.isEmpty())
+            relationshipEdgeMap.remove(relationshipName);
+        if(relationshipEdgeMap.isEmpty())
+            this.outgoingEdgeMap.remove(digitalTwinId);
+    }
+
+    private void removeRelationshipEdges(String digitalTwinId, String relationshipName) {
+
+        Map<String, Map<String, DigitalTwinRelationshipEdge>> relationshipEdgeMap = this.outgoingEdgeMap.get(digitalTwinId);
+        Map<String, DigitalTwinRelationshipEdge> instanceEdgeMap = relationshipEdgeMap != null ? relationshipEdgeMap.remove(relationshipName) : null;
+
+        if(instanceEdgeMap == null)
+            return;
+
+        this.edgeCount -= instanceEdgeMap.size();
+        instanceEdgeMap.values().forEach(this::removeIncomingEdge);
+
+        if(relationshipEdgeMap.isEmpty())
+            this.outgoingEdgeMap.remove(digitalTwinId);
+    }
+
+    private void removeOutgoingEdges(String digitalTwinId) {
+
+        Map<String, Map<String, DigitalTwinRelationshipEdge>> relationshipEdgeMap = this.outgoingEdgeMap.remove(digitalTwinId);
+
+        if(relationshipEdgeMap == null)
+            return;
+
+        for(Map<String, DigitalTwinRelationshipEdge> instanceEdgeMap : relationshipEdgeMap.values()) {
+            this.edgeCount -= instanceEdgeMap.size();
+            instanceEdgeMap.values().forEach(this::removeIncomingEdge);
+        }
+    }
+
+    private void removeIncomingEdge(DigitalTwinRelationshipEdge edge) {
+
+        if(edge.getTargetId() == null)
+            return;
+
+        Set<DigitalTwinRelationshipEdge> targetEdgeSet = this.incomingEdgeMap.get(edge.getTargetId());
+
+        if(targetEdgeSet != null && targetEdgeSet.remove(edge) && targetEdgeSet.isEmpty())
+            this.incomingEdgeMap.remove(edge.getTargetId());
+    }
+
+    ///////////////////////////////////////////// QUERIES /////////////////////////////////////////////////
+
+    /**
+     * @param sourceDigitalTwinId The id of the source Digital Twin
+     * @return The edges of all the relationships of the Digital Twin
+     */
+    public List<DigitalTwinRelationshipEdge> getOutgoingEdges(String sourceDigitalTwinId) {
+        return getOutgoingEdges(sourceDigitalTwinId, null);
+    }
+
+    /**
+     * @param sourceDigitalTwinId The id of the source Digital Twin
+     * @param relationshipName The name of the relationship (null for all the relationships)
+     * @return The edges of the relationship of the Digital Twin
+     */
+    public List<DigitalTwinRelationshipEdge> getOutgoingEdges(String sourceDigitalTwinId, String relationshipName) {
+        this.graphLock.readLock().lock();
+        try {
+            List<DigitalTwinRelationshipEdge> edgeList = new ArrayList<>();
+            forEachOutgoingEdge(sourceDigitalTwinId, relationshipName, edgeList::add);
+            return edgeList;
+        } finally {
+            this.graphLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param targetId The target id
+     * @return The edges of all the tracked Digital Twins pointing to the target
+     */
+    public List<DigitalTwinRelationshipEdge> getIncomingEdges(Object targetId) {
+        return getIncomingEdges(targetId, null);
+    }
+
+    /**
+     * @param targetId The target id
+     * @param relationshipName The name of the relationship (null for all the relationships)
+     * @return The edges of the relationship of all the tracked Digital Twins pointing to the target
+     */
+    public List<DigitalTwinRelationshipEdge> getIncomingEdges(Object targetId, String relationshipName) {
+        this.graphLock.readLock().lock();
+        try {
+            List<DigitalTwinRelationshipEdge> edgeList = new ArrayList<>();
+            forEachIncomingEdge(targetId, relationshipName, edgeList::add);
+            return edgeList;
+        } finally {
+            this.graphLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the nodes directly connected to a node
+     *
+     * @param nodeId The id of the node (a Digital Twin id or a target id)
+     * @param direction The direction of the followed edges
+     * @return The connected nodes
+     */
+    public Set<Object> getNeighbors(Object nodeId, Direction direction) {
+        return getNeighborhood(nodeId, 1, direction, null);
+    }
+
+    /**
+     * Returns the nodes reachable from a node following at most the provided number of edges (breadth first)
+     *
+     * @param nodeId The id of the start node (a Digital Twin id or a target id)
+     * @param hops The maximum number of followed edges
+     * @param direction The direction of the followed edges
+     * @param relationshipName The name of the followed relationship (null for all the relationships)
+     * @return The reachable nodes, excluding the start node, ordered by distance
+     */
+    public Set<Object> getNeighborhood(Object nodeId, int hops, Direction direction, String relationshipName) {
+
+        if(nodeId == null || hops <= 0 || direction == null)
+            return Collections.emptySet();
+
+        this.graphLock.readLock().lock();
+
+        try {
+
+            Set<Object> visitedNodeSet = new LinkedHashSet<>();
+            visitedNodeSet.add(nodeId);
+
+            Deque<Object> frontier = new ArrayDeque<>();
+            frontier.add(nodeId);
+
+            for(int hop = 0; hop < hops && !frontier.isEmpty(); hop++) {
+
+                Deque<Object> nextFrontier = new ArrayDeque<>();
+
+                for(Object currentNodeId : frontier) {
+
+                    if(direction != Direction.INCOMING && currentNodeId instanceof String)
+                        forEachOutgoingEdge((String) currentNodeId, relationshipName, edge -> {
+                            if(edge.getTargetId() != null && visitedNodeSet.add(edge.getTargetId()))
+                                nextFrontier.add(edge.getTargetId());
+                        });
+
+                    if(direction != Direction.OUTGOING)
+                        forEachIncomingEdge(currentNodeId, relationshipName, edge -> {
+                            if(visitedNodeSet.add(edge.getSourceDigitalTwinId()))
+                                nextFrontier.add(edge.getSourceDigitalTwinId());
+                        });
+                }
+
+                frontier = nextFrontier;
+            }
+
+            visitedNodeSet.remove(nodeId);
+            return visitedNodeSet;
+
+        } finally {
+            this.graphLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The number of edges of the graph
+     */
+    public int getEdgeCount() {
+        this.graphLock.readLock().lock();
+        try {
+            return this.edgeCount;
+        } finally {
+            this.graphLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param digitalTwinId The id of the Digital Twin
+     * @return True if the relationships of the Digital Twin are tracked by the graph
+     */
+    public boolean isTracked(String digitalTwinId) {
+        return this.listenerMap.containsKey(digitalTwinId);
+    }
+
+    private void forEachOutgoingEdge(String sourceDigitalTwinId, String relationshipName, Consumer<DigitalTwinRelationshipEdge> action) {
+
+        Map<String, Map<String, DigitalTwinRelationshipEdge>> relationshipEdgeMap = this.outgoingEdgeMap.get(sourceDigitalTwinId);
+
+        if(relationshipEdgeMap == null)
+            return;
+
+        if(relationshipName == null)
+            relationshipEdgeMap.values().forEach(instanceEdgeMap -> instanceEdgeMap.values().forEach(action));
+        else if(relationshipEdgeMap.containsKey(relationshipName))
+            relationshipEdgeMap.get(relationshipName).values().forEach(action);
+    }
+
+    private void forEachIncomingEdge(Object targetId, String relationshipName, Consumer<DigitalTwinRelationshipEdge> action) {
+
+        Set<DigitalTwinRelationshipEdge> targetEdgeSet = this.incomingEdgeMap.get(targetId);
+
+        if(targetEdgeSet == null)
+            return;
+
+        for(DigitalTwinRelationshipEdge edge : targetEdgeSet)
+            if(relationshipName == null || relationshipName.equals(edge.getRelationshipName()))
+                action.accept(edge);
+    }
+}
@@ -0,0 +1,376 @@
+/*
+ * Copyright (c) 2025 - Current Year
+ * Marco Picone Ph.D
+ * Email: picone.m@gmail.com
+ * Website: https://www.marcopicone.net/
+ * All rights reserved.
+ *
+ * This program is provided under a Dual Licensing model:
+ * 1) GNU General Public License version 3.0 (GPL-3.0) for open-source, academic,
+ *    research, non-profit, and other non-commercial use; or
+ * 2) Commercial License, for any commercial use, proprietary development, or
+ *    closed-source distribution. To obtain a Commercial License, please contact: Marco Picone (picone.m@gmail.com)
+ *
+ * By using this software, you agree to comply with the terms of the applicable license.
+ * This applies to all forms of the software, including source code and compiled/binary forms.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+package it.wldt.core.engine;
+
+import it.wldt.adapter.digital.DigitalAdapter;
+import it.wldt.adapter.physical.PhysicalAdapter;
+import it.wldt.adapter.physical.PhysicalAssetAction;
+import it.wldt.adapter.physical.PhysicalAssetDescription;
+import it.wldt.adapter.physical.PhysicalAssetEvent;
+import it.wldt.adapter.physical.PhysicalAssetProperty;
+import it.wldt.adapter.physical.PhysicalAssetRelationship;
+import it.wldt.adapter.physical.event.PhysicalAssetEventWldtEvent;
+import it.wldt.adapter.physical.event.PhysicalAssetPropertyWldtEvent;
+import it.wldt.adapter.physical.event.PhysicalAssetRelationshipInstanceCreatedWldtEvent;
+import it.wldt.adapter.physical.event.PhysicalAssetRelationshipInstanceDeletedWldtEvent;
+import it.wldt.core.event.ImmutableWldtEventFilter;
+import it.wldt.core.event.WldtEventFilter;
+import it.wldt.core.model.ShadowingFunction;
+import it.wldt.core.state.DigitalTwinState;
+import it.wldt.core.state.DigitalTwinStateAction;
+import it.wldt.core.state.DigitalTwinStateEvent;
+import it.wldt.core.state.DigitalTwinStateProperty;
+import it.wldt.core.state.DigitalTwinStateRelationship;
+import it.wldt.exception.*;
+import it.wldt.log.WldtLogger;
+import it.wldt.log.WldtLoggerProvider;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Template used to create multiple similar Digital Twin instances (same shadowing logic, same Physical Asset
+ * Description shape and same adapters) paying the construction work that does not depend on the single instance
+ * only once.
+ * The template precomputes from the reference PhysicalAssetDescription:
+ *  - the immutable WldtEventFilter instances (properties, events, relationships and all the physical events)
+ *    that the ShadowingFunction of each instance can observe through the observePhysicalEvents() method;
+ *  - the event type associated to each physical property, event and relationship;
+ *  - the initial Digital Twin State skeleton with properties (set to their initial value), actions and events.
+ * Creating a new instance through newInstance() only creates the per-instance objects: the shadowing function,
+ * the adapters (through the registered factories) and the Digital Twin itself whose state is initialized with a
+ * copy of the skeleton.
+ * Since the state skeleton already contains the properties, actions and events of the description, the
+ * ShadowingFunction of a templated Digital Twin should update them instead of creating them again.
+ *
+ * @author Marco Picone, Ph.D. - picone.m@gmail.com
+ */
+public class DigitalTwinTemplate {
+
+    private static final WldtLogger logger = WldtLoggerProvider.getLogger(DigitalTwinTemplate.class);
+
+    private final String templateId;
+
+    private final PhysicalAssetDescription physicalAssetDescription;
+
+    private final Function<DigitalTwinTemplate, ShadowingFunction> shadowingFunctionFactory;
+
+    private final List<Function<String, PhysicalAdapter>> physicalAdapterFactoryList = new CopyOnWriteArrayList<>();
+
+    private final List<Function<String, DigitalAdapter<?>>> digitalAdapterFactoryList = new CopyOnWriteArrayList<>();
+
+    private final WldtEventFilter propertyEventsFilter;
+
+    private final WldtEventFilter eventEventsFilter;
+
+    private final WldtEventFilter relationshipEventsFilter;
+
+    private final WldtEventFilter physicalEventsFilter;
+
+    private final Map<String, String> propertyEventTypeMap;
+
+    private final Map<String, String> eventEventTypeMap;
+
+    private final DigitalTwinState stateSkeleton;
+
+    private volatile AdapterExecutionPolicy adapterExecutionPolicy = null;
+
+    private volatile DigitalTwinExecutionMode executionMode = DigitalTwinExecutionMode.DEFAULT;
+
+    private final AtomicLong instanceCount = new AtomicLong(0);
+
+    /**
+     * Creates a new template precomputing filters, event types and the state skeleton from the provided
+     * reference PhysicalAssetDescription
+     *
+     * @param templateId The identifier of the template
+     * @param physicalAssetDescription The reference description shared by all the instances of the template
+     * @param shadowingFunctionFactory The factory used to create a new ShadowingFunction for each instance.
+     *                                 It receives the template in order to access the precomputed filters.
+     * @throws WldtConfigurationException If a parameter is null or the state skeleton can not be built
+     */
+    public DigitalTwinTemplate(String templateId,
+                               PhysicalAssetDescription physicalAssetDescription,
+                               Function<DigitalTwinTemplate, ShadowingFunction> shadowingFunctionFactory) throws WldtConfigurationException {
+
+        if(templateId == null || physicalAssetDescription == null || shadowingFunctionFactory == null)
+            throw new WldtConfigurationException("Error creating DigitalTwinTemplate ! Template Id, PhysicalAssetDescription or ShadowingFunction factory = Null !");
+
+        this.templateId = templateId;
+        this.physicalAssetDescription = physicalAssetDescription;
+        this.shadowingFunctionFactory = shadowingFunctionFactory;
+
+        Map<String, String> propertyTypeMap = new HashMap<>();
+        Map<String, String> eventTypeMap = new HashMap<>();
+        List<String> relationshipTypeList = new ArrayList<>();
+
+        if(physicalAssetDescription.getProperties() != null)
+            for(PhysicalAssetProperty<?> physicalAssetProperty : physicalAssetDescription.getProperties())
+                propertyTypeMap.put(physicalAssetProperty.getKey(), PhysicalAssetPropertyWldtEvent.buildEventType(PhysicalAssetPropertyWldtEvent.PHYSICAL_EVENT_BASIC_TYPE, physicalAssetProperty.getKey()));
+
+        if(physicalAssetDescription.getEvents() != null)
+            for(PhysicalAssetEvent physicalAssetEvent : physicalAssetDescription.getEvents())
+                eventTypeMap.put(physicalAssetEvent.getKey(), PhysicalAssetEventWldtEvent.buildEventType(PhysicalAssetEventWldtEvent.PHYSICAL_EVENT_BASIC_TYPE, physicalAssetEvent.getKey()));
+
+        if(physicalAssetDescription.getRelationships() != null)
+            for(PhysicalAssetRelationship<?> physicalAssetRelationship : physicalAssetDescription.getRelationships()) {
+                relationshipTypeList.add(PhysicalAssetRelationshipInstanceCreatedWldtEvent.buildEventType(PhysicalAssetRelationshipInstanceCreatedWldtEvent.EVENT_BASIC_TYPE, physicalAssetRelationship.getName()));
+                relationshipTypeList.add(PhysicalAssetRelationshipInstanceDeletedWldtEvent.buildEventType(PhysicalAssetRelationshipInstanceDeletedWldtEvent.EVENT_BASIC_TYPE, physicalAssetRelationship.getName()));
+            }
+
+        this.propertyEventTypeMap = Collections.unmodifiableMap(propertyTypeMap);
+        this.eventEventTypeMap = Collections.unmodifiableMap(eventTypeMap);
+
+        this.propertyEventsFilter = new ImmutableWldtEventFilter(propertyTypeMap.values());
+        this.eventEventsFilter = new ImmutableWldtEventFilter(eventTypeMap.values());
+        this.relationshipEventsFilter = new ImmutableWldtEventFilter(relationshipTypeList);
+
+        List<String> physicalEventTypeList = new ArrayList<>(this.propertyEventsFilter);
+        physicalEventTypeList.addAll(this.eventEventsFilter);
+        physicalEventTypeList.addAll(this.relationshipEventsFilter);
+        this.physicalEventsFilter = new ImmutableWldtEventFilter(physicalEventTypeList);
+
+        this.stateSkeleton = buildStateSkeleton(physicalAssetDescription);
+    }
+
+    /**
+     * Builds the initial state skeleton associated to the reference PhysicalAssetDescription.
+     * Relationships are not part of the skeleton since their instances are specific for each Digital Twin.
+     *
+     * @param physicalAssetDescription The reference description
+     * @return The immutable state skeleton
+     * @throws WldtConfigurationException If a state resource can not be created
+     */
+    private DigitalTwinState buildStateSkeleton(PhysicalAssetDescription physicalAssetDescription) throws WldtConfigurationException {
+
+        try {
+
+            Map<String, DigitalTwinStateProperty<?>> propertyMap = new HashMap<>();
+            Map<String, DigitalTwinStateAction> actionMap = new HashMap<>();
+            Map<String, DigitalTwinStateEvent> eventMap = new HashMap<>();
+
+            if(physicalAssetDescription.getProperties() != null)
+                for(PhysicalAssetProperty<?> physicalAssetProperty : physicalAssetDescription.getProperties()) {
+                    if(physicalAssetProperty.getInitialValue() == null) {
+                        logger.warn("DigitalTwinTemplate {} -> Property {} has no initial value and will not be part of the state skeleton !", templateId, physicalAssetProperty.getKey());
+                        continue;
+                    }
+                    propertyMap.put(physicalAssetProperty.getKey(), new DigitalTwinStateProperty<>(physicalAssetProperty.getKey(), physicalAssetProperty.getInitialValue(), true, physicalAssetProperty.isWritable()));
+                }
+
+            if(physicalAssetDescription.getActions() != null)
+                for(PhysicalAssetAction physicalAssetAction : physicalAssetDescription.getActions())
+                    actionMap.put(physicalAssetAction.getKey(), new DigitalTwinStateAction(physicalAssetAction.getKey(), physicalAssetAction.getType(), physicalAssetAction.getContentType()));
+
+            if(physicalAssetDescription.getEvents() != null)
+                for(PhysicalAssetEvent physicalAssetEvent : physicalAssetDescription.getEvents())
+                    eventMap.put(physicalAssetEvent.getKey(), new DigitalTwinStateEvent(physicalAssetEvent.getKey(), physicalAssetEvent.getType()));
+
+            Map<String, DigitalTwinStateRelationship<?>> relationshipMap = Collections.emptyMap();
+
+            return new DigitalTwinState(Collections.unmodifiableMap(propertyMap),
+                    Collections.unmodifiableMap(actionMap),
+                    Collections.unmodifiableMap(eventMap),
+                    relationshipMap);
+
+        } catch (Exception e){
+            throw new WldtConfigurationException(String.format("Error building DigitalTwinTemplate %s state skeleton ! Error: %s", templateId, e.getLocalizedMessage()));
+        }
+    }
+
+    /**
+     * Adds a factory used to create a new Physical Adapter for each instance. The factory receives the id of the
+     * Digital Twin under creation (e.g., to build a unique adapter id or instance specific configuration)
+     *
+     * @param physicalAdapterFactory The Physical Adapter factory
+     * @throws WldtConfigurationException If the factory is null
+     */
+    public void addPhysicalAdapterFactory(Function<String, PhysicalAdapter> physicalAdapterFactory) throws WldtConfigurationException {
+
+        if(physicalAdapterFactory == null)
+            throw new WldtConfigurationException("Error adding Physical Adapter factory to DigitalTwinTemplate ! Factory = Null !");
+
+        this.physicalAdapterFactoryList.add(physicalAdapterFactory);
+    }
+
+    /**
+     * Adds a factory used to create a new Digital Adapter for each instance. The factory receives the id of the
+     * Digital Twin under creation
+     *
+     * @param digitalAdapterFactory The Digital Adapter factory
+     * @throws WldtConfigurationException If the factory is null
+     */
+    public void addDigitalAdapterFactory(Function<String, DigitalAdapter<?>> digitalAdapterFactory) throws WldtConfigurationException {
+
+        if(digitalAdapterFactory == null)
+            throw new WldtConfigurationException("Error adding Digital Adapter factory to DigitalTwinTemplate ! Factory = Null !");
+
+        this.digitalAdapterFactoryList.add(digitalAdapterFactory);
+    }
+
+    /**
+     * Creates a new Digital Twin instance from the template. Only the per-instance objects are created while the
+     * precomputed filters, event types and state skeleton are shared.
+     *
+     * @param digitalTwinId The id of the new Digital Twin
+     * @return The new Digital Twin ready to be added to a DigitalTwinEngine
+     * @throws WldtConfigurationException If the instance or its adapters can not be configured
+     * @throws ModelException If there is an issue with the model
+     * @throws EventBusException If there is an issue with the event bus
+     * @throws WldtRuntimeException If a runtime exception occurs during Digital Twin creation
+     * @throws WldtWorkerException If there is an issue with the DigitalTwinWorker
+     * @throws WldtDigitalTwinStateException If the state skeleton can not be applied
+     */
+    public DigitalTwin newInstance(String digitalTwinId) throws WldtConfigurationException, ModelException, EventBusException, WldtRuntimeException, WldtWorkerException, WldtDigitalTwinStateException {
+
+        if(digitalTwinId == null)
+            throw new WldtConfigurationException("Error creating Digital Twin from template ! Digital Twin Id = Null !");
+
+        ShadowingFunction shadowingFunction = this.shadowingFunctionFactory.apply(this);
+
+        if(shadowingFunction == null)
+            throw new WldtConfigurationException(String.format("Error creating Digital Twin %s from template %s ! ShadowingFunction factory returned Null !", digitalTwinId, templateId));
+
+        DigitalTwin digitalTwin = new DigitalTwin(digitalTwinId, shadowingFunction);
+
+        // Apply the shared state skeleton to the new instance
+        digitalTwin.getDigitalTwinStateManager().initializeState(this.stateSkeleton);
+
+        if(this.adapterExecutionPolicy != null)
+            digitalTwin.setAdapterExecutionPolicy(this.adapterExecutionPolicy);
+
+        digitalTwin.setExecutionMode(this.executionMode);
+
+        for(Function<String, PhysicalAdapter> physicalAdapterFactory : this.physicalAdapterFactoryList)
+            digitalTwin.addPhysicalAdapter(physicalAdapterFactory.apply(digitalTwinId));
+
+        for(Function<String, DigitalAdapter<?>> digitalAdapterFactory : this.digitalAdapterFactoryList)
+            digitalTwin.addDigitalAdapter(digitalAdapterFactory.apply(digitalTwinId));
+
+        this.instanceCount.incrementAndGet();
+
+        return digitalTwin;
+    }
+
+    public String getTemplateId() {
+        return templateId;
+    }
+
+    public PhysicalAssetDescription getPhysicalAssetDescription() {
+        return physicalAssetDescription;
+    }
+
+    /**
+     * @return The immutable filter with the event types of all the properties of the description
+     */
+    public WldtEventFilter getPropertyEventsFilter() {
+        return propertyEventsFilter;
+    }
+
+    /**
+     * @return The immutable filter with the event types of all the events of the description
+     */
+    public WldtEventFilter getEventEventsFilter() {
+        return eventEventsFilter;
+    }
+
+    /**
+     * @return The immutable filter with the created and deleted event types of all the relationships of the description
+     */
+    public WldtEventFilter getRelationshipEventsFilter() {
+        return relationshipEventsFilter;
+    }
+
+    /**
+     * @return The immutable filter with all the physical event types (properties, events and relationships) of the description
+     */
+    public WldtEventFilter getPhysicalEventsFilter() {
+        return physicalEventsFilter;
+    }
+
+    /**
+     * Returns the precomputed event type associated to a physical property
+     *
+     * @param propertyKey The key of the property
+     * @return The event type or an empty Optional if the property is not part of the description
+     */
+    public Optional<String> getPropertyEventType(String propertyKey) {
+        return Optional.ofNullable(this.propertyEventTypeMap.get(propertyKey));
+    }
+
+    /**
+     * Returns the precomputed event type associated to a physical event
+     *
+     * @param eventKey The key of the event
+     * @return The event type or an empty Optional if the event is not part of the description
+     */
+    public Optional<String> getEventEventType(String eventKey) {
+        return Optional.ofNullable(this.eventEventTypeMap.get(eventKey));
+    }
+
+    /**
+     * @return The immutable state skeleton used to initialize each instance
+     */
+    public DigitalTwinState getStateSkeleton() {
+        return stateSkeleton;
+    }
+
+    public AdapterExecutionPolicy getAdapterExecutionPolicy() {
+        return adapterExecutionPolicy;
+    }
+
+    public void setAdapterExecutionPolicy(AdapterExecutionPolicy adapterExecutionPolicy) {
+        this.adapterExecutionPolicy = adapterExecutionPolicy;
+    }
+
+    public DigitalTwinExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    public void setExecutionMode(DigitalTwinExecutionMode executionMode) throws WldtConfigurationException {
+
+        if(executionMode == null)
+            throw new WldtConfigurationException("Error setting DigitalTwinTemplate Execution Mode ! Mode can not be null !");
+
+        this.executionMode = executionMode;
+    }
+
+    /**
+     * @return The number of Digital Twin instances created from the template
+     */
+    public long getInstanceCount() {
+        return instanceCount.get();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuffer sb = new StringBuffer("DigitalTwinTemplate{");
+        sb.append("templateId='").append(templateId).append('\'');
+        sb.append(", physicalEventTypes=").append(physicalEventsFilter.size());
+        sb.append(", physicalAdapterFactories=").append(physicalAdapterFactoryList.size());
+        sb.append(", digitalAdapterFactories=").append(digitalAdapterFactoryList.size());
+        sb.append(", instanceCount=").append(instanceCount.get());
+        sb.append('}');
+        return sb.toString();
+    }
+}
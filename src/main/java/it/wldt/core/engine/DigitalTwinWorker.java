@@ -20,11 +20,24 @@
  */
 package it.wldt.core.engine;
 
+import it.wldt.core.execution.WldtEventLoop;
+import it.wldt.core.execution.WldtEventLoopGroup;
+import it.wldt.core.execution.WldtSharedExecutors;
+import it.wldt.core.execution.WldtTimerService;
+import it.wldt.core.execution.WldtTimerTask;
 import it.wldt.exception.WldtRuntimeException;
+import it.wldt.exception.WldtTimerException;
 import it.wldt.exception.WldtWorkerException;
 import it.wldt.log.WldtLogger;
 import it.wldt.log.WldtLoggerProvider;
 
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Author:
  *          Marco Picone, Ph.D. (picone.m@gmail.com)
@@ -45,6 +58,11 @@ public abstract class DigitalTwinWorker implements Runnable {
      */
     protected String digitalTwinId;
 
+    /**
+     * Tasks scheduled by this worker on the shared WldtTimerService
+     */
+    private final Set<WldtTimerTask> scheduledTaskSet = ConcurrentHashMap.newKeySet();
+
     /**
      * Default constructor for the DigitalTwinWorker class.
      */
@@ -114,4 +132,110 @@ public abstract class DigitalTwinWorker implements Runnable {
 
         this.digitalTwinId = digitalTwinId;
     }
+
+    /**
+     * Schedules a one-shot task on the shared engine timer service (instead of creating a dedicated thread).
+     *
+     * @param task The task to execute.
+     * @param delay The delay before the execution.
+     * @param unit The time unit of the delay.
+     * @return The handle of the scheduled task.
+     * @throws WldtTimerException If the worker is not associated to a Digital Twin or the parameters are not valid.
+     */
+    protected WldtTimerTask scheduleTask(Runnable task, long delay, TimeUnit unit) throws WldtTimerException {
+        return trackScheduledTask(WldtTimerService.getInstance().schedule(this.digitalTwinId, task, delay, unit));
+    }
+
+    /**
+     * Schedules a periodic task at a fixed rate on the shared engine timer service.
+     *
+     * @param task The task to execute.
+     * @param initialDelay The delay before the first execution.
+     * @param period The period between two successive executions.
+     * @param unit The time unit of the delay and period.
+     * @return The handle of the scheduled task.
+     * @throws WldtTimerException If the worker is not associated to a Digital Twin or the parameters are not valid.
+     */
+    protected WldtTimerTask scheduleTaskAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) throws WldtTimerException {
+        return trackScheduledTask(WldtTimerService.getInstance().scheduleAtFixedRate(this.digitalTwinId, task, initialDelay, period, unit));
+    }
+
+    /**
+     * Schedules a periodic task with a fixed delay between executions on the shared engine timer service.
+     *
+     * @param task The task to execute.
+     * @param initialDelay The delay before the first execution.
+     * @param delay The delay between the end of an execution and the start of the next one.
+     * @param unit The time unit of the delays.
+     * @return The handle of the scheduled task.
+     * @throws WldtTimerException If the worker is not associated to a Digital Twin or the parameters are not valid.
+     */
+    protected WldtTimerTask scheduleTaskWithFixedDelay(Runnable task, long initialDelay, long delay, TimeUnit unit) throws WldtTimerException {
+        return trackScheduledTask(WldtTimerService.getInstance().scheduleWithFixedDelay(this.digitalTwinId, task, initialDelay, delay, unit));
+    }
+
+    /**
+     * Cancels all the tasks scheduled by this worker that are still active.
+     *
+     * @return The number of cancelled tasks.
+     */
+    protected int cancelScheduledTasks() {
+        int cancelledCount = 0;
+        for(WldtTimerTask task : this.scheduledTaskSet)
+            if(task.cancel())
+                cancelledCount++;
+        this.scheduledTaskSet.clear();
+        return cancelledCount;
+    }
+
+    /**
+     * Returns the number of active tasks scheduled by this worker.
+     *
+     * @return The number of active scheduled tasks.
+     */
+    public int getScheduledTaskCount() {
+        return this.scheduledTaskSet.size();
+    }
+
+    /**
+     * Offloads a blocking operation (e.g., network or file I/O) to the engine shared blocking executor so that it
+     * does not stall the execution context of the Digital Twin (e.g., its event loop shard in EVENT_LOOP mode).
+     * Results can be brought back on the Digital Twin context through {@link #getDigitalTwinExecutor()}, e.g.,
+     * {@code executeBlocking(task).thenAcceptAsync(result -> ..., getDigitalTwinExecutor())}.
+     *
+     * @param task The blocking task to execute.
+     * @param <T> The type of the result.
+     * @return A CompletableFuture completed with the result of the task (or exceptionally).
+     */
+    protected <T> CompletableFuture<T> executeBlocking(Callable<T> task) {
+        CompletableFuture<T> resultFuture = new CompletableFuture<>();
+        WldtSharedExecutors.getBlockingExecutor().execute(() -> {
+            try {
+                resultFuture.complete(task.call());
+            } catch (Throwable t) {
+                resultFuture.completeExceptionally(t);
+            }
+        });
+        return resultFuture;
+    }
+
+    /**
+     * Returns the executor of the Digital Twin context. In EVENT_LOOP mode it is the event loop shard of the
+     * Digital Twin, otherwise tasks are executed directly on the caller thread.
+     *
+     * @return The Executor associated to the Digital Twin.
+     */
+    protected Executor getDigitalTwinExecutor() {
+        WldtEventLoop eventLoop = WldtEventLoopGroup.getInstance().getEventLoop(this.digitalTwinId);
+        if(eventLoop != null)
+            return eventLoop;
+        return Runnable::run;
+    }
+
+    private WldtTimerTask trackScheduledTask(WldtTimerTask task) {
+        // Completed and cancelled tasks drop themselves, so scheduling does not scan the tracked tasks
+        this.scheduledTaskSet.add(task);
+        task.setDoneCallback(() -> this.scheduledTaskSet.remove(task));
+        return task;
+    }
 }
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2025 - Current Year
+ * Marco Picone Ph.D
+ * Email: picone.m@gmail.com
+ * Website: https://www.marcopicone.net/
+ * All rights reserved.
+ *
+ * This program is provided under a Dual Licensing model:
+ * 1) GNU General Public License version 3.0 (GPL-3.0) for open-source, academic,
+ *    research, non-profit, and other non-commercial use; or
+ * 2) Commercial License, for any commercial use, proprietary development, or
+ *    closed-source distribution. To obtain a Commercial License, please contact: Marco Picone (picone.m@gmail.com)
+ *
+ * By using this software, you agree to comply with the terms of the applicable license.
+ * This applies to all forms of the software, including source code and compiled/binary forms.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+package it.wldt.core.engine;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency statistics of the life cycle notifications delivered to a single LifeCycleListener of a Digital Twin.
+ * For each notification it tracks both the time spent by the listener to handle the callback and the time the
+ * notification waited in the Digital Twin queue before being delivered.
+ *
+ * @author Marco Picone, Ph.D. - picone.m@gmail.com
+ */
+public class LifeCycleListenerStats {
+
+    private final String listenerName;
+
+    private final AtomicLong notificationCount = new AtomicLong(0);
+
+    private final AtomicLong failedNotificationCount = new AtomicLong(0);
+
+    private final AtomicLong totalCallbackNanos = new AtomicLong(0);
+
+    private final AtomicLong maxCallbackNanos = new AtomicLong(0);
+
+    private final AtomicLong lastCallbackNanos = new AtomicLong(0);
+
+    private final AtomicLong totalQueueNanos = new AtomicLong(0);
+
+    private final AtomicLong maxQueueNanos = new AtomicLong(0);
+
+    public LifeCycleListenerStats(String listenerName) {
+        this.listenerName = listenerName;
+    }
+
+    /**
+     * Records a delivered notification
+     * @param queueNanos time spent by the notification in the queue before the delivery to the listener
+     * @param callbackNanos time spent by the listener to handle the callback
+     * @param failed true if the callback raised an error
+     */
+    void record(long queueNanos, long callbackNanos, boolean failed){
+        this.notificationCount.incrementAndGet();
+        if(failed)
+            this.failedNotificationCount.incrementAndGet();
+        this.totalCallbackNanos.addAndGet(callbackNanos);
+        this.lastCallbackNanos.set(callbackNanos);
+        this.maxCallbackNanos.accumulateAndGet(callbackNanos, Math::max);
+        this.totalQueueNanos.addAndGet(queueNanos);
+        this.maxQueueNanos.accumulateAndGet(queueNanos, Math::max);
+    }
+
+    public String getListenerName() {
+        return listenerName;
+    }
+
+    public long getNotificationCount() {
+        return notificationCount.get();
+    }
+
+    public long getFailedNotificationCount() {
+        return failedNotificationCount.get();
+    }
+
+    public long getMaxCallbackLatency(TimeUnit unit) {
+        return unit.convert(maxCallbackNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    public long getLastCallbackLatency(TimeUnit unit) {
+        return unit.convert(lastCallbackNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    public long getAverageCallbackLatency(TimeUnit unit) {
+        long count = notificationCount.get();
+        return count == 0 ? 0 : unit.convert(totalCallbackNanos.get() / count, TimeUnit.NANOSECONDS);
+    }
+
+    public long getMaxQueueLatency(TimeUnit unit) {
+        return unit.convert(maxQueueNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    public long getAverageQueueLatency(TimeUnit unit) {
+        long count = notificationCount.get();
+        return count == 0 ? 0 : unit.convert(totalQueueNanos.get() / count, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuffer sb = new StringBuffer("LifeCycleListenerStats{");
+        sb.append("listenerName='").append(listenerName).append('\'');
+        sb.append(", notificationCount=").append(notificationCount.get());
+        sb.append(", failedNotificationCount=").append(failedNotificationCount.get());
+        sb.append(", avgCallbackUs=").append(getAverageCallbackLatency(TimeUnit.MICROSECONDS));
+        sb.append(", maxCallbackUs=").append(getMaxCallbackLatency(TimeUnit.MICROSECONDS));
+        sb.append(", avgQueueUs=").append(getAverageQueueLatency(TimeUnit.MICROSECONDS));
+        sb.append(", maxQueueUs=").append(getMaxQueueLatency(TimeUnit.MICROSECONDS));
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2025 - Current Year
+ * Marco Picone Ph.D
+ * Email: picone.m@gmail.com
+ * Website: https://www.marcopicone.net/
+ * All rights reserved.
+ *
+ * This program is provided under a Dual Licensing model:
+ * 1) GNU General Public License version 3.0 (GPL-3.0) for open-source, academic,
+ *    research, non-profit, and other non-commercial use; or
+ * 2) Commercial License, for any commercial use, proprietary development, or
+ *    closed-source distribution. To obtain a Commercial License, please contact: Marco Picone (picone.m@gmail.com)
+ *
+ * By using this software, you agree to comply with the terms of the applicable license.
+ * This applies to all forms of the software, including source code and compiled/binary forms.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+package it.wldt.core.event;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Authors:
+ *          Marco Picone, Ph.D. (picone.m@gmail.com)
+ * Project: White Label Digital Twin Java Framework - (whitelabel-digitaltwin)
+ *
+ * Read-only WldtEventFilter built once and then safely shared across multiple subscribers and Digital Twin
+ * instances (e.g., the filters precomputed by a DigitalTwinTemplate). The list of event types is fixed at
+ * construction time and any attempt to modify it raises an UnsupportedOperationException.
+ */
+public class ImmutableWldtEventFilter extends WldtEventFilter {
+
+    private final boolean sealed;
+
+    /**
+     * Creates a new immutable filter containing the provided event types
+     *
+     * @param eventTypes The event types of the filter
+     */
+    public ImmutableWldtEventFilter(Collection<String> eventTypes) {
+        if(eventTypes != null)
+            super.addAll(eventTypes);
+        this.sealed = true;
+    }
+
+    private void checkSealed(){
+        if(this.sealed)
+            throw new UnsupportedOperationException("ImmutableWldtEventFilter can not be modified !");
+    }
+
+    @Override
+    public boolean add(String eventType) {
+        checkSealed();
+        return super.add(eventType);
+    }
+
+    @Override
+    public void add(int index, String eventType) {
+        checkSealed();
+        super.add(index, eventType);
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends String> eventTypes) {
+        checkSealed();
+        return super.addAll(eventTypes);
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends String> eventTypes) {
+        checkSealed();
+        return super.addAll(index, eventTypes);
+    }
+
+    @Override
+    public String set(int index, String eventType) {
+        checkSealed();
+        return super.set(index, eventType);
+    }
+
+    @Override
+    public String remove(int index) {
+        checkSealed();
+        return super.remove(index);
+    }
+
+    @Override
+    public boolean remove(Object eventType) {
+        checkSealed();
+        return super.remove(eventType);
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> eventTypes) {
+        checkSealed();
+        return super.removeAll(eventTypes);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> eventTypes) {
+        checkSealed();
+        return super.retainAll(eventTypes);
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super String> filter) {
+        checkSealed();
+        return super.removeIf(filter);
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<String> operator) {
+        checkSealed();
+        super.replaceAll(operator);
+    }
+
+    @Override
+    public void sort(Comparator<? super String> comparator) {
+        checkSealed();
+        super.sort(comparator);
+    }
+
+    @Override
+    public void clear() {
+        checkSealed();
+        super.clear();
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        checkSealed();
+        super.removeRange(fromIndex, toIndex);
+    }
+}
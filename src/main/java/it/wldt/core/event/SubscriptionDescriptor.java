@@ -20,11 +20,14 @@
  */
 package it.wldt.core.event;
 
-import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
+ * Subscriptions of a single Digital Twin (event type -> subscribers). It is thread-safe since subscriptions and
+ * deliveries may happen concurrently from different threads.
+ *
  * @author Marco Picone, Ph.D. - picone.m@gmail.com
  */
-public class SubscriptionDescriptor extends HashMap<String, List<WldtSubscriberInfo>> {
+public class SubscriptionDescriptor extends ConcurrentHashMap<String, List<WldtSubscriberInfo>> {
 }
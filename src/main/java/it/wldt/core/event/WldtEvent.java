@@ -153,7 +153,7 @@ public class WldtEvent<T> {
         sb.append("id='").append(id).append('\'');
         sb.append(", type='").append(type).append('\'');
         sb.append(", contentType='").append(contentType).append('\'');
-        sb.append(", body=").append(body);
+        sb.append(", body=").append(getBody());
         sb.append(", metadata=").append(metadata);
         sb.append(", creationTimestamp=").append(creationTimestamp);
         sb.append('}');
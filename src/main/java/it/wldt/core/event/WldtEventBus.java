@@ -20,11 +20,15 @@
  */
 package it.wldt.core.event;
 
+import it.wldt.core.execution.WldtEventLoop;
+import it.wldt.core.execution.WldtEventLoopGroup;
 import it.wldt.exception.EventBusException;
 import it.wldt.log.WldtLogger;
 import it.wldt.log.WldtLoggerProvider;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Authors:
@@ -39,14 +43,17 @@ public class WldtEventBus {
 
     private static final WldtLogger logger = WldtLoggerProvider.getLogger(WldtEventBus.class);
 
-    private static WldtEventBus instance = null;
+    // Lazily created on the first access without locking (initialization-on-demand holder)
+    private static class InstanceHolder {
+        private static final WldtEventBus INSTANCE = new WldtEventBus();
+    }
 
     private Map<String, SubscriptionDescriptor> subscriberMap = null;
 
     private IWldtEventLogger eventLogger = null;
 
     private WldtEventBus(){
-        this.subscriberMap = new HashMap<>();
+        this.subscriberMap = new ConcurrentHashMap<>();
     }
 
     /**
@@ -54,9 +61,7 @@ public class WldtEventBus {
      * @return the current instance of the WLDT Event Bus
      */
     public static WldtEventBus getInstance(){
-        if(instance == null)
-            instance = new WldtEventBus();
-        return instance;
+        return InstanceHolder.INSTANCE;
     }
 
     /**
@@ -100,6 +105,23 @@ public class WldtEventBus {
         if(eventLogger != null)
             eventLogger.logEventPublished(publisherId, wldtEvent);
 
+        // If the target Digital Twin is pinned to an event loop shard the delivery is serialized on that shard
+        WldtEventLoop eventLoop = WldtEventLoopGroup.hasPinnedDigitalTwins() ? WldtEventLoopGroup.getInstance().getEventLoop(digitalTwinId) : null;
+
+        if(eventLoop != null && !eventLoop.inEventLoop())
+            eventLoop.execute(() -> deliverEvent(digitalTwinId, publisherId, wldtEvent));
+        else
+            deliverEvent(digitalTwinId, publisherId, wldtEvent);
+    }
+
+    /**
+     * Deliver an event to all the subscribers of the target Digital Twin matching its type (also through wildcards)
+     * @param digitalTwinId the digital twin id
+     * @param publisherId the publisher id
+     * @param wldtEvent the event to deliver
+     */
+    private void deliverEvent(String digitalTwinId, String publisherId, WldtEvent<?> wldtEvent) {
+
         Optional<SubscriptionDescriptor> digitalTwinSubscriptionOptional = getSubscriptionForDigitalTwin(digitalTwinId);
 
         // If there is a registered digital twin with that id and the target eventType among registered subscriptions
@@ -192,14 +214,12 @@ public class WldtEventBus {
             throw new EventBusException("EventBus-subscribe() -> Error: EventFilter = NULL or EventLister = NULL !");
 
         // Check if the DT is registered on the subscription map
-        if(!this.subscriberMap.containsKey(digitalTwinId))
-            this.subscriberMap.put(digitalTwinId, new SubscriptionDescriptor());
+        SubscriptionDescriptor subscriptionDescriptor = this.subscriberMap.computeIfAbsent(digitalTwinId, id -> new SubscriptionDescriptor());
 
         for(String eventType: wldtEventFilter) {
 
-            //If required init the ArrayList for target eventyType of the target Digital Twin
-            if (!this.subscriberMap.get(digitalTwinId).containsKey(eventType))
-                this.subscriberMap.get(digitalTwinId).put(eventType, new ArrayList<>());
+            //If required init the subscriber list for target eventyType of the target Digital Twin
+            subscriptionDescriptor.computeIfAbsent(eventType, type -> new CopyOnWriteArrayList<>());
 
             WldtSubscriberInfo newWldtSubscriberInfo = new WldtSubscriberInfo(subscriberId, wldtEventListener);
 
@@ -248,4 +268,76 @@ public class WldtEventBus {
         }
     }
 
+
+    /**
+     * Atomically moves all the subscriptions of a listener of the target Digital Twin to a new listener.
+     * Each subscription list is updated in a single step so every event is delivered either to the current or to
+     * the new listener and never lost in between (e.g., during the hot swap of a Shadowing Function).
+     * Listeners are matched by identity since different versions of the same component can share the same id.
+     *
+     * @param digitalTwinId the digital twin id
+     * @param currentListener the listener owning the subscriptions
+     * @param newSubscriberId the subscriber id of the new listener
+     * @param newListener the listener receiving the subscriptions
+     * @return the number of moved subscriptions
+     * @throws EventBusException in case of error contains the exception with the error message
+     */
+    public int replaceSubscriber(String digitalTwinId, WldtEventListener currentListener, String newSubscriberId, WldtEventListener newListener) throws EventBusException {
+
+        if(this.subscriberMap == null)
+            throw new EventBusException("EventBus-replaceSubscriber() -> Error: SubscriberMap = NULL !");
+
+        if(digitalTwinId == null)
+            throw new EventBusException("EventBus-replaceSubscriber() -> Error: digitalTwinId = NULL !");
+
+        if(currentListener == null || newListener == null)
+            throw new EventBusException("EventBus-replaceSubscriber() -> Error: Current or New EventLister = NULL !");
+
+        SubscriptionDescriptor subscriptionDescriptor = this.subscriberMap.get(digitalTwinId);
+
+        if(subscriptionDescriptor == null)
+            return 0;
+
+        WldtSubscriberInfo newWldtSubscriberInfo = new WldtSubscriberInfo(newSubscriberId, newListener);
+
+        int movedSubscriptions = 0;
+
+        for(Map.Entry<String, List<WldtSubscriberInfo>> subscriptionEntry : subscriptionDescriptor.entrySet()) {
+
+            List<WldtSubscriberInfo> subscriberList = subscriptionEntry.getValue();
+
+            String previousSubscriberId = null;
+            for(WldtSubscriberInfo subscriberInfo : subscriberList)
+                if(subscriberInfo.getEventListener() == currentListener)
+                    previousSubscriberId = subscriberInfo.getId();
+
+            if(previousSubscriberId == null)
+                continue;
+
+            // Replace in place to avoid a window without subscribers or remove if the new listener is already there.
+            // Listeners are matched by identity: the new one can be equal to the current one (e.g., same class and id)
+            boolean newListenerSubscribed = false;
+            for(WldtSubscriberInfo subscriberInfo : subscriberList)
+                if(subscriberInfo.getEventListener() == newListener)
+                    newListenerSubscribed = true;
+
+            if(newListenerSubscribed)
+                subscriberList.removeIf(subscriberInfo -> subscriberInfo.getEventListener() == currentListener);
+            else
+                subscriberList.replaceAll(subscriberInfo -> subscriberInfo.getEventListener() == currentListener ? newWldtSubscriberInfo : subscriberInfo);
+
+            currentListener.onEventUnSubscribed(subscriptionEntry.getKey());
+            newListener.onEventSubscribed(subscriptionEntry.getKey());
+
+            if(eventLogger != null) {
+                eventLogger.logClientUnSubscription(subscriptionEntry.getKey(), previousSubscriberId);
+                eventLogger.logClientSubscription(subscriptionEntry.getKey(), newSubscriberId);
+            }
+
+            movedSubscriptions++;
+        }
+
+        return movedSubscriptions;
+    }
+
 }
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2025 - Current Year
+ * Marco Picone Ph.D
+ * Email: picone.m@gmail.com
+ * Website: https://www.marcopicone.net/
+ * All rights reserved.
+ *
+ * This program is provided under a Dual Licensing model:
+ * 1) GNU General Public License version 3.0 (GPL-3.0) for open-source, academic,
+ *    research, non-profit, and other non-commercial use; or
+ * 2) Commercial License, for any commercial use, proprietary development, or
+ *    closed-source distribution. To obtain a Commercial License, please contact: Marco Picone (picone.m@gmail.com)
+ *
+ * By using this software, you agree to comply with the terms of the applicable license.
+ * This applies to all forms of the software, including source code and compiled/binary forms.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+package it.wldt.core.execution;
+
+import it.wldt.log.WldtLogger;
+import it.wldt.log.WldtLoggerProvider;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single-threaded event loop used as an execution shard for Digital Twins running in event-loop mode.
+ * All the tasks submitted to the loop are executed sequentially, in submission order, on the same thread so the
+ * internal components of the Digital Twins pinned to the loop do not need any additional synchronization.
+ *
+ * Tasks executed on the loop must not block: blocking operations have to be offloaded
+ * (e.g., on {@link WldtSharedExecutors#getBlockingExecutor()}).
+ *
+ * @author Marco Picone, Ph.D. - picone.m@gmail.com
+ */
+public class WldtEventLoop implements Executor {
+
+    private static final WldtLogger logger = WldtLoggerProvider.getLogger(WldtEventLoop.class);
+
+    private final String name;
+
+    private final BlockingQueue<Runnable> taskQueue = new LinkedBlockingQueue<>();
+
+    private final Thread thread;
+
+    private final AtomicInteger pinnedDigitalTwinCount = new AtomicInteger(0);
+
+    private final AtomicLong executedTaskCount = new AtomicLong(0);
+
+    private volatile boolean running = true;
+
+    /**
+     * Creates and starts a new event loop
+     * @param name name of the loop (used as thread name)
+     */
+    public WldtEventLoop(String name) {
+        this.name = name;
+        this.thread = new Thread(this::runLoop, name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Enqueues a task to be executed on the loop thread
+     * @param task task to execute
+     */
+    @Override
+    public void execute(Runnable task) {
+
+        if(task == null)
+            throw new NullPointerException("Event Loop Task can not be null !");
+
+        if(!this.running)
+            throw new RejectedExecutionException(String.format("Event Loop %s has been shutdown !", this.name));
+
+        this.taskQueue.add(task);
+    }
+
+    /**
+     * @return true if the caller is running on the thread of this event loop
+     */
+    public boolean inEventLoop() {
+        return Thread.currentThread() == this.thread;
+    }
+
+    /**
+     * Stops the loop after the execution of the tasks already enqueued
+     */
+    public void shutdown() {
+        if(!this.running)
+            return;
+        this.running = false;
+        this.taskQueue.add(() -> {});
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getPendingTaskCount() {
+        return taskQueue.size();
+    }
+
+    public long getExecutedTaskCount() {
+        return executedTaskCount.get();
+    }
+
+    public int getPinnedDigitalTwinCount() {
+        return pinnedDigitalTwinCount.get();
+    }
+
+    void onDigitalTwinPinned() {
+        this.pinnedDigitalTwinCount.incrementAndGet();
+    }
+
+    void onDigitalTwinUnPinned() {
+        this.pinnedDigitalTwinCount.decrementAndGet();
+    }
+
+    private void runLoop() {
+
+        while (this.running || !this.taskQueue.isEmpty()) {
+            try {
+                Runnable task = this.taskQueue.take();
+                task.run();
+                this.executedTaskCount.incrementAndGet();
+            } catch (InterruptedException e) {
+                if(!this.running)
+                    break;
+            } catch (Throwable t) {
+                logger.error("Event Loop {} - Error executing task ! Error: {}", this.name, t.getLocalizedMessage());
+            }
+        }
+
+        logger.debug("Event Loop {} stopped !", this.name);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuffer sb = new StringBuffer("WldtEventLoop{");
+        sb.append("name='").append(name).append('\'');
+        sb.append(", pinnedDigitalTwinCount=").append(pinnedDigitalTwinCount.get());
+        sb.append(", pendingTaskCount=").append(taskQueue.size());
+        sb.append(", executedTaskCount=").append(executedTaskCount.get());
+        sb.append('}');
+        return sb.toString();
+    }
+}
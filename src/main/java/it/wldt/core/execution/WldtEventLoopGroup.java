@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2025 - Current Year
+ * Marco Picone Ph.D
+ * Email: picone.m@gmail.com
+ * Website: https://www.marcopicone.net/
+ * All rights reserved.
+ *
+ * This program is provided under a Dual Licensing model:
+ * 1) GNU General Public License version 3.0 (GPL-3.0) for open-source, academic,
+ *    research, non-profit, and other non-commercial use; or
+ * 2) Commercial License, for any commercial use, proprietary development, or
+ *    closed-source distribution. To obtain a Commercial License, please contact: Marco Picone (picone.m@gmail.com)
+ *
+ * By using this software, you agree to comply with the terms of the applicable license.
+ * This applies to all forms of the software, including source code and compiled/binary forms.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+package it.wldt.core.execution;
+
+import it.wldt.log.WldtLogger;
+import it.wldt.log.WldtLoggerProvider;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Group of single-threaded {@link WldtEventLoop} shards (by default one for each available core).
+ * A Digital Twin running in event-loop mode is pinned to one shard for its entire life cycle: event bus deliveries,
+ * life cycle notifications, timers and state transactions of that twin are serialized on the same thread while
+ * different twins are spread across the shards in order to scale on all the cores.
+ *
+ * New twins are pinned to the least loaded shard (in terms of number of pinned twins).
+ *
+ * @author Marco Picone, Ph.D. - picone.m@gmail.com
+ */
+public class WldtEventLoopGroup {
+
+    private static final WldtLogger logger = WldtLoggerProvider.getLogger(WldtEventLoopGroup.class);
+
+    // Lazily created on the first access without locking (initialization-on-demand holder)
+    private static class InstanceHolder {
+        private static final WldtEventLoopGroup INSTANCE = createSharedInstance();
+    }
+
+    private static volatile boolean sharedInstanceCreated = false;
+
+    private final List<WldtEventLoop> eventLoopList;
+
+    private final Map<String, WldtEventLoop> pinnedDigitalTwinMap = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the shared event loop group used by the WLDT engine
+     * @return the shared WldtEventLoopGroup
+     */
+    public static WldtEventLoopGroup getInstance() {
+        return InstanceHolder.INSTANCE;
+    }
+
+    private static WldtEventLoopGroup createSharedInstance() {
+        WldtEventLoopGroup eventLoopGroup = new WldtEventLoopGroup(Runtime.getRuntime().availableProcessors());
+        sharedInstanceCreated = true;
+        return eventLoopGroup;
+    }
+
+    /**
+     * Checks whether any Digital Twin is pinned to the shared group without creating it, so that the components
+     * looking up the event loop of a twin on their hot path (e.g., the event bus) can skip the lookup
+     *
+     * @return true if at least one Digital Twin is pinned to the shared group
+     */
+    public static boolean hasPinnedDigitalTwins() {
+        return sharedInstanceCreated && !InstanceHolder.INSTANCE.pinnedDigitalTwinMap.isEmpty();
+    }
+
+    /**
+     * Creates a new group with the specified number of shards
+     * @param eventLoopCount number of event loops
+     */
+    public WldtEventLoopGroup(int eventLoopCount) {
+
+        if(eventLoopCount <= 0)
+            throw new IllegalArgumentException("Event Loop Count must be > 0 !");
+
+        List<WldtEventLoop> loops = new ArrayList<>();
+        for(int i = 0; i < eventLoopCount; i++)
+            loops.add(new WldtEventLoop(String.format("wldt-event-loop-%d", i + 1)));
+
+        this.eventLoopList = Collections.unmodifiableList(loops);
+    }
+
+    /**
+     * Pins a Digital Twin to one of the shards of the group. If the twin is already pinned the current
+     * shard is returned.
+     *
+     * @param digitalTwinId the id of the Digital Twin
+     * @return the event loop assigned to the Digital Twin
+     */
+    public WldtEventLoop pin(String digitalTwinId) {
+
+        if(digitalTwinId == null)
+            throw new IllegalArgumentException("Digital Twin Id can not be null !");
+
+        return this.pinnedDigitalTwinMap.computeIfAbsent(digitalTwinId, id -> {
+            WldtEventLoop selectedEventLoop = this.eventLoopList.get(0);
+            for(WldtEventLoop eventLoop : this.eventLoopList)
+                if(eventLoop.getPinnedDigitalTwinCount() < selectedEventLoop.getPinnedDigitalTwinCount())
+                    selectedEventLoop = eventLoop;
+            selectedEventLoop.onDigitalTwinPinned();
+            logger.debug("Digital Twin {} pinned to {}", id, selectedEventLoop.getName());
+            return selectedEventLoop;
+        });
+    }
+
+    /**
+     * Releases the shard associated to a Digital Twin. Tasks already enqueued on the loop are still executed.
+     *
+     * @param digitalTwinId the id of the Digital Twin
+     */
+    public void unpin(String digitalTwinId) {
+
+        if(digitalTwinId == null)
+            return;
+
+        WldtEventLoop eventLoop = this.pinnedDigitalTwinMap.remove(digitalTwinId);
+
+        if(eventLoop != null) {
+            eventLoop.onDigitalTwinUnPinned();
+            logger.debug("Digital Twin {} unpinned from {}", digitalTwinId, eventLoop.getName());
+        }
+    }
+
+    /**
+     * Returns the event loop of a Digital Twin
+     *
+     * @param digitalTwinId the id of the Digital Twin
+     * @return the event loop of the twin or null if the twin is not running in event-loop mode
+     */
+    public WldtEventLoop getEventLoop(String digitalTwinId) {
+        if(digitalTwinId == null)
+            return null;
+        return this.pinnedDigitalTwinMap.get(digitalTwinId);
+    }
+
+    public boolean isPinned(String digitalTwinId) {
+        return getEventLoop(digitalTwinId) != null;
+    }
+
+    public List<WldtEventLoop> getEventLoopList() {
+        return eventLoopList;
+    }
+
+    public int getEventLoopCount() {
+        return eventLoopList.size();
+    }
+}
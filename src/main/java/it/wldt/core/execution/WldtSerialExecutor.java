@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2025 - Current Year
+ * Marco Picone Ph.D
+ * Email: picone.m@gmail.com
+ * Website: https://www.marcopicone.net/
+ * All rights reserved.
+ *
+ * This program is provided under a Dual Licensing model:
+ * 1) GNU General Public License version 3.0 (GPL-3.0) for open-source, academic,
+ *    research, non-profit, and other non-commercial use; or
+ * 2) Commercial License, for any commercial use, proprietary development, or
+ *    closed-source distribution. To obtain a Commercial License, please contact: Marco Picone (picone.m@gmail.com)
+ *
+ * By using this software, you agree to comply with the terms of the applicable license.
+ * This applies to all forms of the software, including source code and compiled/binary forms.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+package it.wldt.core.execution;
+
+import it.wldt.log.WldtLogger;
+import it.wldt.log.WldtLoggerProvider;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor running the submitted tasks one at a time, in submission order, on top of a shared backing executor.
+ * It allows a component to get sequential (and ordered) asynchronous execution without owning a dedicated thread:
+ * when there are pending tasks a single drain task is scheduled on the backing executor and it executes a batch of
+ * queued tasks before giving the thread back.
+ *
+ * @author Marco Picone, Ph.D. - picone.m@gmail.com
+ */
+public class WldtSerialExecutor implements Executor {
+
+    private static final WldtLogger logger = WldtLoggerProvider.getLogger(WldtSerialExecutor.class);
+
+    private static final int DEFAULT_MAX_BATCH_SIZE = 64;
+
+    private final String name;
+
+    private final Executor backingExecutor;
+
+    private final int maxBatchSize;
+
+    private final Queue<Runnable> taskQueue = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    private final AtomicInteger pendingTaskCount = new AtomicInteger(0);
+
+    /**
+     * Creates a new serial executor on top of the provided backing executor
+     * @param name name of the executor (used in logs)
+     * @param backingExecutor the executor running the drain tasks
+     */
+    public WldtSerialExecutor(String name, Executor backingExecutor) {
+        this(name, backingExecutor, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    /**
+     * Creates a new serial executor on top of the provided backing executor
+     * @param name name of the executor (used in logs)
+     * @param backingExecutor the executor running the drain tasks
+     * @param maxBatchSize the max number of tasks executed by a single drain task before rescheduling
+     */
+    public WldtSerialExecutor(String name, Executor backingExecutor, int maxBatchSize) {
+
+        if(backingExecutor == null)
+            throw new NullPointerException("Serial Executor backing executor can not be null !");
+
+        if(maxBatchSize <= 0)
+            throw new IllegalArgumentException("Serial Executor max batch size must be > 0 !");
+
+        this.name = name;
+        this.backingExecutor = backingExecutor;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Enqueues a task to be executed after all the previously submitted ones
+     * @param task task to execute
+     */
+    @Override
+    public void execute(Runnable task) {
+
+        if(task == null)
+            throw new NullPointerException("Serial Executor Task can not be null !");
+
+        this.taskQueue.add(task);
+        this.pendingTaskCount.incrementAndGet();
+        scheduleDrain();
+    }
+
+    private void scheduleDrain(){
+        if(this.scheduled.compareAndSet(false, true)) {
+            try {
+                this.backingExecutor.execute(this::drain);
+            } catch (RuntimeException e) {
+                this.scheduled.set(false);
+                logger.error("Serial Executor {} -> Error scheduling queued tasks ! Error: {}", this.name, e.getLocalizedMessage());
+                throw e;
+            }
+        }
+    }
+
+    private void drain(){
+        try {
+            Runnable task;
+            int executedTasks = 0;
+            while (executedTasks < this.maxBatchSize && (task = this.taskQueue.poll()) != null) {
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    logger.error("Serial Executor {} -> Task Error: {}", this.name, t.getLocalizedMessage());
+                } finally {
+                    this.pendingTaskCount.decrementAndGet();
+                    executedTasks++;
+                }
+            }
+        } finally {
+            this.scheduled.set(false);
+            // Reschedule if tasks have been added after the last poll or the batch limit has been reached
+            if(!this.taskQueue.isEmpty())
+                scheduleDrain();
+        }
+    }
+
+    /**
+     * @return the number of submitted tasks not yet completed
+     */
+    public int getPendingTaskCount() {
+        return pendingTaskCount.get();
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2025 - Current Year
+ * Marco Picone Ph.D
+ * Email: picone.m@gmail.com
+ * Website: https://www.marcopicone.net/
+ * All rights reserved.
+ *
+ * This program is provided under a Dual Licensing model:
+ * 1) GNU General Public License version 3.0 (GPL-3.0) for open-source, academic,
+ *    research, non-profit, and other non-commercial use; or
+ * 2) Commercial License, for any commercial use, proprietary development, or
+ *    closed-source distribution. To obtain a Commercial License, please contact: Marco Picone (picone.m@gmail.com)
+ *
+ * By using this software, you agree to comply with the terms of the applicable license.
+ * This applies to all forms of the software, including source code and compiled/binary forms.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+package it.wldt.core.execution;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Engine-wide executors shared by all the Digital Twins, used to multiplex the execution of adapters and other
+ * DT components instead of creating dedicated thread pools for each Digital Twin.
+ *
+ * - Worker Executor: fixed size pool (number of available cores) for short, non-blocking tasks.
+ * - Blocking Executor: elastic pool used to run adapters and any component that may block (e.g., network I/O).
+ *   Threads are created on demand, reused across Digital Twins and released after an idle timeout, so an adapter
+ *   that returns from its start method does not hold any thread. The pool is capped (see
+ *   BLOCKING_EXECUTOR_MAX_POOL_SIZE): when all its threads are busy a new task is executed by the submitting
+ *   thread (CallerRunsPolicy), slowing down the submitter instead of creating threads without bound or dropping
+ *   the task.
+ *
+ * All the threads are daemon threads and executors are never shut down by Digital Twins: each DT keeps track
+ * of its own submitted tasks and cancels them when stopped.
+ *
+ * @author Marco Picone, Ph.D. - picone.m@gmail.com
+ */
+public class WldtSharedExecutors {
+
+    private static final long BLOCKING_EXECUTOR_KEEP_ALIVE_SEC = 60;
+
+    public static final int BLOCKING_EXECUTOR_MAX_POOL_SIZE = 512;
+
+    private static ThreadPoolExecutor workerExecutor = null;
+
+    private static ThreadPoolExecutor blockingExecutor = null;
+
+    private WldtSharedExecutors() {
+    }
+
+    /**
+     * @return the shared executor for short and non-blocking tasks
+     */
+    public static synchronized ExecutorService getWorkerExecutor() {
+        if(workerExecutor == null) {
+            int poolSize = Math.max(2, Runtime.getRuntime().availableProcessors());
+            workerExecutor = new ThreadPoolExecutor(poolSize, poolSize,
+                    0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(),
+                    new WldtThreadFactory("wldt-worker"));
+        }
+        return workerExecutor;
+    }
+
+    /**
+     * @return the shared elastic executor used for adapters and potentially blocking tasks
+     */
+    public static synchronized ExecutorService getBlockingExecutor() {
+        if(blockingExecutor == null)
+            blockingExecutor = new ThreadPoolExecutor(0, BLOCKING_EXECUTOR_MAX_POOL_SIZE,
+                    BLOCKING_EXECUTOR_KEEP_ALIVE_SEC, TimeUnit.SECONDS,
+                    new SynchronousQueue<>(),
+                    new WldtThreadFactory("wldt-blocking"),
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+        return blockingExecutor;
+    }
+
+    /**
+     * @return the number of threads currently alive in the blocking executor
+     */
+    public static int getBlockingExecutorPoolSize() {
+        return ((ThreadPoolExecutor) getBlockingExecutor()).getPoolSize();
+    }
+
+    /**
+     * @return the number of threads currently executing a task in the blocking executor
+     */
+    public static int getBlockingExecutorActiveCount() {
+        return ((ThreadPoolExecutor) getBlockingExecutor()).getActiveCount();
+    }
+
+    /**
+     * Thread factory creating named daemon threads
+     */
+    public static class WldtThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+
+        private final AtomicInteger threadCounter = new AtomicInteger(0);
+
+        public WldtThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, String.format("%s-%d", prefix, threadCounter.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
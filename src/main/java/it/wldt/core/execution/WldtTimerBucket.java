@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2025 - Current Year
+ * Marco Picone Ph.D
+ * Email: picone.m@gmail.com
+ * Website: https://www.marcopicone.net/
+ * All rights reserved.
+ *
+ * This program is provided under a Dual Licensing model:
+ * 1) GNU General Public License version 3.0 (GPL-3.0) for open-source, academic,
+ *    research, non-profit, and other non-commercial use; or
+ * 2) Commercial License, for any commercial use, proprietary development, or
+ *    closed-source distribution. To obtain a Commercial License, please contact: Marco Picone (picone.m@gmail.com)
+ *
+ * By using this software, you agree to comply with the terms of the applicable license.
+ * This applies to all forms of the software, including source code and compiled/binary forms.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+package it.wldt.core.execution;
+
+import java.util.function.Consumer;
+
+/**
+ * Slot of the hashed timing wheel. It is a simple doubly linked list of {@link WldtTimerTask} accessed only
+ * by the ticker thread of the {@link WldtTimerService}, so insertion and removal are O(1) without locking.
+ *
+ * @author Marco Picone, Ph.D. - picone.m@gmail.com
+ */
+class WldtTimerBucket {
+
+    private WldtTimerTask head;
+
+    private WldtTimerTask tail;
+
+    void add(WldtTimerTask task) {
+        task.bucket = this;
+        if(head == null) {
+            head = tail = task;
+        }
+        else {
+            tail.next = task;
+            task.prev = tail;
+            tail = task;
+        }
+    }
+
+    void remove(WldtTimerTask task) {
+        WldtTimerTask next = task.next;
+        if(task.prev != null)
+            task.prev.next = next;
+        if(task.next != null)
+            task.next.prev = task.prev;
+        if(task == head) {
+            if(task == tail) {
+                tail = null;
+                head = null;
+            }
+            else
+                head = next;
+        }
+        else if(task == tail)
+            tail = task.prev;
+        task.prev = null;
+        task.next = null;
+        task.bucket = null;
+    }
+
+    /**
+     * Removes and returns the tasks of the bucket whose deadline is expired. Tasks belonging to future
+     * rounds have their remaining rounds decremented.
+     *
+     * @param deadline the current deadline of the wheel
+     * @param expiredHandler handler invoked for each expired task
+     */
+    void expire(long deadline, Consumer<WldtTimerTask> expiredHandler) {
+        WldtTimerTask task = head;
+        while (task != null) {
+            WldtTimerTask next = task.next;
+            if(task.isDone()) {
+                remove(task);
+            }
+            else if(task.remainingRounds <= 0 && task.deadline <= deadline) {
+                remove(task);
+                expiredHandler.accept(task);
+            }
+            else if(task.remainingRounds > 0)
+                task.remainingRounds--;
+            task = next;
+        }
+    }
+}
@@ -0,0 +1,406 @@
+/*
+ * Copyright (c) 2025 - Current Year
+ * Marco Picone Ph.D
+ * Email: picone.m@gmail.com
+ * Website: https://www.marcopicone.net/
+ * All rights reserved.
+ *
+ * This program is provided under a Dual Licensing model:
+ * 1) GNU General Public License version 3.0 (GPL-3.0) for open-source, academic,
+ *    research, non-profit, and other non-commercial use; or
+ * 2) Commercial License, for any commercial use, proprietary development, or
+ *    closed-source distribution. To obtain a Commercial License, please contact: Marco Picone (picone.m@gmail.com)
+ *
+ * By using this software, you agree to comply with the terms of the applicable license.
+ * This applies to all forms of the software, including source code and compiled/binary forms.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+package it.wldt.core.execution;
+
+import it.wldt.exception.WldtTimerException;
+import it.wldt.log.WldtLogger;
+import it.wldt.log.WldtLoggerProvider;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Engine-wide scheduling service shared by all the Digital Twins and their workers (adapters, shadowing
+ * functions, etc.). It is implemented as a hashed timing wheel driven by a single ticker thread: scheduling and
+ * cancelling a task are O(1) operations and the number of threads does not depend on the number of scheduled
+ * tasks. Expired tasks are dispatched to a small shared worker pool so that a slow task does not delay the wheel.
+ *
+ * Supported task types are one-shot, fixed-rate and fixed-delay. Periodic tasks are re-armed only after the previous
+ * execution completes, so executions of the same task never overlap. Fixed-rate tasks are re-armed from their
+ * previous deadline (no cumulative drift), fixed-delay tasks from the completion time of the previous execution.
+ *
+ * Every task is associated to the Digital Twin that scheduled it, allowing per-twin accounting and the
+ * cancellation of all the tasks of a twin when it is stopped.
+ *
+ * Tasks are expected to be short and non-blocking, since they share a bounded pool of worker threads. Tasks of
+ * Digital Twins pinned to an event loop shard ({@link WldtEventLoopGroup}) are executed on the shard of the twin.
+ * The time resolution is bounded by the tick duration of the wheel (10 ms by default).
+ *
+ * @author Marco Picone, Ph.D. - picone.m@gmail.com
+ */
+public class WldtTimerService {
+
+    private static final WldtLogger logger = WldtLoggerProvider.getLogger(WldtTimerService.class);
+
+    public static final long DEFAULT_TICK_DURATION_MS = 10;
+
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private static final int MAX_PENDING_TRANSFER_PER_TICK = 100000;
+
+    private static WldtTimerService instance = null;
+
+    private final long tickDurationNanos;
+
+    private final WldtTimerBucket[] wheel;
+
+    private final int mask;
+
+    private final Queue<WldtTimerTask> pendingTasks = new ConcurrentLinkedQueue<>();
+
+    private final Queue<WldtTimerTask> cancelledTasks = new ConcurrentLinkedQueue<>();
+
+    private final Map<String, Set<WldtTimerTask>> digitalTwinTaskMap = new ConcurrentHashMap<>();
+
+    private final ExecutorService taskExecutor;
+
+    private final Thread tickerThread;
+
+    private final long startTime;
+
+    private volatile boolean running = true;
+
+    // Accessed only by the ticker thread
+    private long tick = 0;
+
+    /**
+     * Returns the shared instance of the timer service used by the WLDT engine
+     *
+     * @return the shared WldtTimerService
+     */
+    public static synchronized WldtTimerService getInstance(){
+        if(instance == null)
+            instance = new WldtTimerService(DEFAULT_TICK_DURATION_MS, TimeUnit.MILLISECONDS, DEFAULT_WHEEL_SIZE, Math.max(2, Runtime.getRuntime().availableProcessors()));
+        return instance;
+    }
+
+    /**
+     * Creates a new timer service with a dedicated ticker thread and worker pool.
+     *
+     * @param tickDuration duration of a single tick of the wheel
+     * @param unit time unit of the tick duration
+     * @param wheelSize number of slots of the wheel (rounded up to the next power of two)
+     * @param workerThreads number of threads used to execute expired tasks
+     */
+    public WldtTimerService(long tickDuration, TimeUnit unit, int wheelSize, int workerThreads) {
+
+        if(tickDuration <= 0 || wheelSize <= 0 || workerThreads <= 0)
+            throw new IllegalArgumentException("Invalid WldtTimerService configuration ! tickDuration, wheelSize and workerThreads must be > 0");
+
+        this.tickDurationNanos = Math.max(unit.toNanos(tickDuration), TimeUnit.MILLISECONDS.toNanos(1));
+
+        int normalizedWheelSize = 1;
+        while (normalizedWheelSize < wheelSize)
+            normalizedWheelSize <<= 1;
+
+        this.wheel = new WldtTimerBucket[normalizedWheelSize];
+        for(int i = 0; i < normalizedWheelSize; i++)
+            this.wheel[i] = new WldtTimerBucket();
+        this.mask = normalizedWheelSize - 1;
+
+        this.taskExecutor = new ThreadPoolExecutor(workerThreads, workerThreads,
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                new WldtSharedExecutors.WldtThreadFactory("wldt-timer-worker"));
+
+        this.startTime = System.nanoTime();
+        this.tickerThread = new WldtSharedExecutors.WldtThreadFactory("wldt-timer-ticker").newThread(this::runTicker);
+        this.tickerThread.start();
+    }
+
+    /**
+     * Schedules a one-shot task executed once after the specified delay
+     *
+     * @param digitalTwinId the id of the Digital Twin owning the task
+     * @param task the task to execute
+     * @param delay the delay before the execution
+     * @param unit the time unit of the delay
+     * @return the handle of the scheduled task
+     * @throws WldtTimerException if the parameters are not valid or the service has been shutdown
+     */
+    public WldtTimerTask schedule(String digitalTwinId, Runnable task, long delay, TimeUnit unit) throws WldtTimerException {
+        return scheduleTask(digitalTwinId, task, WldtTimerTask.Type.ONE_SHOT, delay, 0, unit);
+    }
+
+    /**
+     * Schedules a periodic task at a fixed rate. Subsequent executions are re-armed from the previous deadline,
+     * if an execution takes longer than the period the next one starts late but never concurrently.
+     *
+     * @param digitalTwinId the id of the Digital Twin owning the task
+     * @param task the task to execute
+     * @param initialDelay the delay before the first execution
+     * @param period the period between two successive executions
+     * @param unit the time unit of the delay and period
+     * @return the handle of the scheduled task
+     * @throws WldtTimerException if the parameters are not valid or the service has been shutdown
+     */
+    public WldtTimerTask scheduleAtFixedRate(String digitalTwinId, Runnable task, long initialDelay, long period, TimeUnit unit) throws WldtTimerException {
+        return scheduleTask(digitalTwinId, task, WldtTimerTask.Type.FIXED_RATE, initialDelay, period, unit);
+    }
+
+    /**
+     * Schedules a periodic task with a fixed delay between the end of an execution and the start of the next one
+     *
+     * @param digitalTwinId the id of the Digital Twin owning the task
+     * @param task the task to execute
+     * @param initialDelay the delay before the first execution
+     * @param delay the delay between the end of an execution and the beginning of the next one
+     * @param unit the time unit of the delays
+     * @return the handle of the scheduled task
+     * @throws WldtTimerException if the parameters are not valid or the service has been shutdown
+     */
+    public WldtTimerTask scheduleWithFixedDelay(String digitalTwinId, Runnable task, long initialDelay, long delay, TimeUnit unit) throws WldtTimerException {
+        return scheduleTask(digitalTwinId, task, WldtTimerTask.Type.FIXED_DELAY, initialDelay, delay, unit);
+    }
+
+    /**
+     * Returns the number of active (scheduled and not yet cancelled or completed) tasks of a Digital Twin
+     *
+     * @param digitalTwinId the id of the target Digital Twin
+     * @return the number of active tasks
+     */
+    public int getScheduledTaskCount(String digitalTwinId) {
+        Set<WldtTimerTask> taskSet = this.digitalTwinTaskMap.get(digitalTwinId);
+        return taskSet == null ? 0 : taskSet.size();
+    }
+
+    /**
+     * Returns the active tasks of a Digital Twin
+     *
+     * @param digitalTwinId the id of the target Digital Twin
+     * @return an unmodifiable snapshot of the active tasks
+     */
+    public List<WldtTimerTask> getScheduledTasks(String digitalTwinId) {
+        Set<WldtTimerTask> taskSet = this.digitalTwinTaskMap.get(digitalTwinId);
+        if(taskSet == null)
+            return Collections.emptyList();
+        return Collections.unmodifiableList(new ArrayList<>(taskSet));
+    }
+
+    /**
+     * @return the total number of active tasks on the service
+     */
+    public int getTotalScheduledTaskCount() {
+        int count = 0;
+        for(Set<WldtTimerTask> taskSet : this.digitalTwinTaskMap.values())
+            count += taskSet.size();
+        return count;
+    }
+
+    /**
+     * Cancels all the active tasks of a Digital Twin
+     *
+     * @param digitalTwinId the id of the target Digital Twin
+     * @return the number of cancelled tasks
+     */
+    public int cancelAll(String digitalTwinId) {
+
+        if(digitalTwinId == null)
+            return 0;
+
+        Set<WldtTimerTask> taskSet = this.digitalTwinTaskMap.get(digitalTwinId);
+
+        if(taskSet == null)
+            return 0;
+
+        int cancelledCount = 0;
+        for(WldtTimerTask task : new ArrayList<>(taskSet))
+            if(task.cancel())
+                cancelledCount++;
+
+        logger.debug("Cancelled {} scheduled tasks for Digital Twin: {}", cancelledCount, digitalTwinId);
+
+        return cancelledCount;
+    }
+
+    /**
+     * Stops the ticker thread and the worker pool. Pending tasks are discarded.
+     * The shared instance returned by {@link #getInstance()} is meant to live as long as the JVM.
+     */
+    public void shutdown() {
+        this.running = false;
+        this.tickerThread.interrupt();
+        this.taskExecutor.shutdownNow();
+        for(String digitalTwinId : new ArrayList<>(this.digitalTwinTaskMap.keySet()))
+            cancelAll(digitalTwinId);
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    private WldtTimerTask scheduleTask(String digitalTwinId, Runnable task, WldtTimerTask.Type type, long delay, long period, TimeUnit unit) throws WldtTimerException {
+
+        if(digitalTwinId == null || task == null || unit == null)
+            throw new WldtTimerException("Error scheduling timer task ! Digital Twin Id, task and time unit can not be null !");
+
+        if(delay < 0)
+            throw new WldtTimerException(String.format("Error scheduling timer task ! Invalid negative delay: %d", delay));
+
+        if(type != WldtTimerTask.Type.ONE_SHOT && period <= 0)
+            throw new WldtTimerException(String.format("Error scheduling periodic timer task ! Period must be > 0 (received: %d)", period));
+
+        if(!this.running)
+            throw new WldtTimerException("Error scheduling timer task ! Timer service has been shutdown !");
+
+        WldtTimerTask timerTask = new WldtTimerTask(this,
+                digitalTwinId,
+                task,
+                type,
+                currentTime() + unit.toNanos(delay),
+                unit.toNanos(period));
+
+        this.digitalTwinTaskMap.computeIfAbsent(digitalTwinId, k -> ConcurrentHashMap.newKeySet()).add(timerTask);
+        this.pendingTasks.add(timerTask);
+
+        return timerTask;
+    }
+
+    void onTaskCancelled(WldtTimerTask task) {
+        removeFromAccounting(task);
+        this.cancelledTasks.add(task);
+    }
+
+    private void removeFromAccounting(WldtTimerTask task) {
+        Set<WldtTimerTask> taskSet = this.digitalTwinTaskMap.get(task.getDigitalTwinId());
+        if(taskSet != null)
+            taskSet.remove(task);
+        task.runDoneCallback();
+    }
+
+    private long currentTime() {
+        return System.nanoTime() - this.startTime;
+    }
+
+    private void runTicker() {
+
+        while (this.running) {
+
+            long deadline = waitForNextTick();
+
+            if(deadline < 0)
+                break;
+
+            processCancelledTasks();
+            transferPendingTasks();
+            this.wheel[(int) (this.tick & this.mask)].expire(deadline, this::dispatch);
+            this.tick++;
+        }
+
+        logger.debug("WLDT Timer Service ticker stopped !");
+    }
+
+    private long waitForNextTick() {
+
+        long deadline = this.tickDurationNanos * (this.tick + 1);
+
+        while (true) {
+
+            long current = currentTime();
+            long sleepTimeMs = (deadline - current + 999999) / 1000000;
+
+            if(sleepTimeMs <= 0)
+                return current;
+
+            try {
+                Thread.sleep(sleepTimeMs);
+            } catch (InterruptedException e) {
+                if(!this.running)
+                    return -1;
+            }
+        }
+    }
+
+    private void processCancelledTasks() {
+        WldtTimerTask task;
+        while ((task = this.cancelledTasks.poll()) != null)
+            task.unlink();
+    }
+
+    private void transferPendingTasks() {
+
+        for(int i = 0; i < MAX_PENDING_TRANSFER_PER_TICK; i++) {
+
+            WldtTimerTask task = this.pendingTasks.poll();
+
+            if(task == null)
+                break;
+
+            if(task.isDone())
+                continue;
+
+            long calculatedTick = task.deadline / this.tickDurationNanos;
+            task.remainingRounds = (calculatedTick - this.tick) / this.wheel.length;
+
+            // Tasks already expired are scheduled on the current tick
+            long targetTick = Math.max(calculatedTick, this.tick);
+            this.wheel[(int) (targetTick & this.mask)].add(task);
+        }
+    }
+
+    private void dispatch(WldtTimerTask task) {
+        try {
+            // Tasks of Digital Twins running in event-loop mode are serialized on the shard of the twin
+            WldtEventLoop eventLoop = WldtEventLoopGroup.getInstance().getEventLoop(task.getDigitalTwinId());
+            if(eventLoop != null)
+                eventLoop.execute(() -> runTask(task));
+            else
+                this.taskExecutor.execute(() -> runTask(task));
+        } catch (Exception e) {
+            logger.error("Error dispatching timer task for Digital Twin: {} ! Error: {}", task.getDigitalTwinId(), e.getLocalizedMessage());
+        }
+    }
+
+    private void runTask(WldtTimerTask task) {
+
+        try {
+            task.execute();
+        } catch (Throwable t) {
+            logger.error("Error executing timer task for Digital Twin: {} ! Error: {}", task.getDigitalTwinId(), t.getLocalizedMessage());
+        }
+
+        if(task.getType() == WldtTimerTask.Type.ONE_SHOT) {
+            if(task.markDone())
+                removeFromAccounting(task);
+            return;
+        }
+
+        if(task.isDone() || !this.running)
+            return;
+
+        if(task.getType() == WldtTimerTask.Type.FIXED_RATE)
+            task.deadline = Math.max(task.deadline + task.getPeriodNanos(), currentTime());
+        else
+            task.deadline = currentTime() + task.getPeriodNanos();
+
+        this.pendingTasks.add(task);
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2025 - Current Year
+ * Marco Picone Ph.D
+ * Email: picone.m@gmail.com
+ * Website: https://www.marcopicone.net/
+ * All rights reserved.
+ *
+ * This program is provided under a Dual Licensing model:
+ * 1) GNU General Public License version 3.0 (GPL-3.0) for open-source, academic,
+ *    research, non-profit, and other non-commercial use; or
+ * 2) Commercial License, for any commercial use, proprietary development, or
+ *    closed-source distribution. To obtain a Commercial License, please contact: Marco Picone (picone.m@gmail.com)
+ *
+ * By using this software, you agree to comply with the terms of the applicable license.
+ * This applies to all forms of the software, including source code and compiled/binary forms.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+package it.wldt.core.execution;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Handle of a task scheduled on the {@link WldtTimerService}. It allows to cancel the task and to inspect its
+ * execution status. Wheel related fields (deadline, remaining rounds and bucket links) are owned exclusively
+ * by the ticker thread of the timer service.
+ *
+ * @author Marco Picone, Ph.D. - picone.m@gmail.com
+ */
+public class WldtTimerTask {
+
+    /**
+     * Scheduling type of the task
+     */
+    public enum Type {
+        ONE_SHOT,
+        FIXED_RATE,
+        FIXED_DELAY
+    }
+
+    private static final int STATE_SCHEDULED = 0;
+
+    private static final int STATE_DONE = 1;
+
+    private static final int STATE_CANCELLED = 2;
+
+    private final WldtTimerService timerService;
+
+    private final String digitalTwinId;
+
+    private final Runnable task;
+
+    private final Type type;
+
+    private final long periodNanos;
+
+    private final AtomicInteger state = new AtomicInteger(STATE_SCHEDULED);
+
+    private final AtomicLong executionCount = new AtomicLong(0);
+
+    // Invoked once when the task is no longer scheduled (e.g., to drop it from the tasks tracked by its owner)
+    private final AtomicReference<Runnable> doneCallback = new AtomicReference<>();
+
+    // Absolute deadline in nanoseconds relative to the start time of the timer service
+    volatile long deadline;
+
+    // Fields managed only by the ticker thread
+    long remainingRounds;
+
+    WldtTimerTask next;
+
+    WldtTimerTask prev;
+
+    WldtTimerBucket bucket;
+
+    WldtTimerTask(WldtTimerService timerService, String digitalTwinId, Runnable task, Type type, long deadline, long periodNanos) {
+        this.timerService = timerService;
+        this.digitalTwinId = digitalTwinId;
+        this.task = task;
+        this.type = type;
+        this.deadline = deadline;
+        this.periodNanos = periodNanos;
+    }
+
+    /**
+     * Cancels the task. A running execution is not interrupted but the task will not be executed again.
+     *
+     * @return true if the task has been cancelled by this call, false if it was already cancelled or completed
+     */
+    public boolean cancel() {
+        if(!this.state.compareAndSet(STATE_SCHEDULED, STATE_CANCELLED))
+            return false;
+        this.timerService.onTaskCancelled(this);
+        return true;
+    }
+
+    public boolean isCancelled() {
+        return this.state.get() == STATE_CANCELLED;
+    }
+
+    /**
+     * @return true if the task is no longer scheduled (completed one-shot task or cancelled task)
+     */
+    public boolean isDone() {
+        return this.state.get() != STATE_SCHEDULED;
+    }
+
+    /**
+     * Sets the callback invoked (once) when the task completes or is cancelled. If the task is already done the
+     * callback is invoked on the caller thread.
+     *
+     * @param doneCallback The callback to invoke
+     */
+    public void setDoneCallback(Runnable doneCallback) {
+        this.doneCallback.set(doneCallback);
+        if(isDone())
+            runDoneCallback();
+    }
+
+    void runDoneCallback() {
+        Runnable callback = this.doneCallback.getAndSet(null);
+        if(callback != null)
+            callback.run();
+    }
+
+    public String getDigitalTwinId() {
+        return digitalTwinId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getPeriod(TimeUnit unit) {
+        return unit.convert(this.periodNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public long getExecutionCount() {
+        return executionCount.get();
+    }
+
+    long getPeriodNanos() {
+        return periodNanos;
+    }
+
+    /**
+     * Executes the wrapped task once. Invoked by a worker thread of the timer service.
+     */
+    void execute() {
+        if(this.state.get() != STATE_SCHEDULED)
+            return;
+        try {
+            this.task.run();
+        } finally {
+            this.executionCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Marks a one-shot task as completed
+     * @return true if the task was still scheduled
+     */
+    boolean markDone() {
+        return this.state.compareAndSet(STATE_SCHEDULED, STATE_DONE);
+    }
+
+    void unlink() {
+        if(this.bucket != null)
+            this.bucket.remove(this);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuffer sb = new StringBuffer("WldtTimerTask{");
+        sb.append("digitalTwinId='").append(digitalTwinId).append('\'');
+        sb.append(", type=").append(type);
+        sb.append(", periodNanos=").append(periodNanos);
+        sb.append(", executionCount=").append(executionCount.get());
+        sb.append(", state=").append(state.get());
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -21,9 +21,12 @@
 package it.wldt.core.model;
 
 import it.wldt.adapter.physical.PhysicalAssetDescription;
+import it.wldt.adapter.physical.PhysicalAssetProperty;
 import it.wldt.core.engine.LifeCycleListener;
+import it.wldt.core.event.WldtEvent;
 import it.wldt.core.state.DigitalTwinState;
 import it.wldt.core.state.DigitalTwinStateManager;
+import it.wldt.exception.EventBusException;
 import it.wldt.exception.ModelException;
 import it.wldt.exception.WldtRuntimeException;
 import it.wldt.core.engine.DigitalTwinWorker;
@@ -32,6 +35,8 @@ import it.wldt.log.WldtLogger;
 import it.wldt.log.WldtLoggerProvider;
 import it.wldt.management.ResourceManager;
 import it.wldt.storage.StorageManager;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -48,9 +53,20 @@ public class DigitalTwinModel extends DigitalTwinWorker implements LifeCycleList
 
     private static final String MODEL_ENGINE_PUBLISHER_ID = "model_engine";
 
-    private String digitalTwinId = null;
+    private final DigitalTwinStateManager digitalTwinStateManager;
 
-    private final ShadowingFunction shadowingFunction;
+    private final StorageManager storageManager;
+
+    private final ResourceManager resourceManager;
+
+    private volatile ShadowingFunction shadowingFunction;
+
+    private volatile boolean started = false;
+
+    /**
+     * Lock serializing the invocations of the Shadowing Function callbacks with its replacement
+     */
+    private final Object shadowingFunctionLock = new Object();
 
     /**
      * Digital Twin Model Constructor
@@ -72,7 +88,11 @@ public class DigitalTwinModel extends DigitalTwinWorker implements LifeCycleList
         if(digitalTwinId == null)
             throw new ModelException("Error ! Digital Twin ID cannot be NULL !");
         else
-            this.digitalTwinId = digitalTwinId;
+            setDigitalTwinId(digitalTwinId);
+
+        this.digitalTwinStateManager = digitalTwinStateManager;
+        this.storageManager = storageManager;
+        this.resourceManager = resourceManager;
 
         if(shadowingFunction != null){
 
@@ -94,8 +114,14 @@ public class DigitalTwinModel extends DigitalTwinWorker implements LifeCycleList
         logger.info("Stopping Model Engine ....");
 
         //Stop Shadowing Function
-        if(this.shadowingFunction != null)
-            this.shadowingFunction.onStop();
+        synchronized (this.shadowingFunctionLock) {
+            this.started = false;
+            if(this.shadowingFunction != null) {
+                this.shadowingFunction.drainParallelShadowing();
+                this.shadowingFunction.flushPhysicalAssetPropertyVariations();
+                this.shadowingFunction.onStop();
+            }
+        }
 
         logger.info("Model Engine Correctly Stopped !");
     }
@@ -103,7 +129,10 @@ public class DigitalTwinModel extends DigitalTwinWorker implements LifeCycleList
     @Override
     public void onWorkerStart() throws WldtRuntimeException {
         try {
-            this.shadowingFunction.onStart();
+            synchronized (this.shadowingFunctionLock) {
+                this.shadowingFunction.onStart();
+                this.started = true;
+            }
         } catch (Exception e) {
             String errorMessage = String.format("Shadowing Function Error Observing Physical Event: %s", e.getLocalizedMessage());
             logger.error(errorMessage);
@@ -111,6 +140,77 @@ public class DigitalTwinModel extends DigitalTwinWorker implements LifeCycleList
         }
     }
 
+    /**
+     * Replaces the running Shadowing Function without restarting the Digital Twin. The current function is paused
+     * (waiting for its in-flight events), its event subscriptions and physical events filter are atomically moved
+     * to the new function that shares the same Digital Twin State, Storage and Resource Managers. The new function
+     * is then created, started (if the model is running) and notified through onTakeOver() before replaying the
+     * events buffered during the swap, so no physical or digital event is lost.
+     * The swap is serialized with the life cycle callbacks of the function. It must not be invoked from a callback
+     * of the function itself since the swap waits for the events in-flight.
+     *
+     * @param newShadowingFunction the new Shadowing Function
+     * @param adaptersPhysicalAssetDescriptionMap the Physical Asset Descriptions of the bound Physical Adapters
+     * @return the time in nanoseconds the event delivery has been paused
+     * @throws ModelException if the new function is not valid or the subscriptions can not be moved
+     */
+    public long replaceShadowingFunction(ShadowingFunction newShadowingFunction,
+                                         Map<String, PhysicalAssetDescription> adaptersPhysicalAssetDescriptionMap) throws ModelException {
+
+        if(newShadowingFunction == null)
+            throw new ModelException("Error ! Provided ShadowingFunction == Null !");
+
+        synchronized (this.shadowingFunctionLock) {
+
+            ShadowingFunction previousShadowingFunction = this.shadowingFunction;
+
+            if(newShadowingFunction == previousShadowingFunction)
+                throw new ModelException("Error ! The provided ShadowingFunction is already the active one !");
+
+            newShadowingFunction.setShadowingModelListener(previousShadowingFunction.getShadowingModelListener());
+            newShadowingFunction.init(this.digitalTwinStateManager, this.storageManager, this.resourceManager);
+            newShadowingFunction.pauseEventDelivery();
+            newShadowingFunction.onCreate();
+
+            long pauseStartNanos = System.nanoTime();
+
+            previousShadowingFunction.pauseEventDelivery();
+
+            try {
+                int movedSubscriptions = previousShadowingFunction.migrateSubscriptionsTo(newShadowingFunction);
+                logger.debug("Model Engine -> Moved {} subscriptions from {} to {}", movedSubscriptions, previousShadowingFunction.getId(), newShadowingFunction.getId());
+            } catch (EventBusException e) {
+                previousShadowingFunction.resumeEventDelivery(Collections.emptyList());
+                throw new ModelException(String.format("Error moving Shadowing Function subscriptions ! Error: %s", e.getLocalizedMessage()));
+            }
+
+            this.shadowingFunction = newShadowingFunction;
+
+            List<WldtEvent<?>> bufferedEventList = previousShadowingFunction.retire(newShadowingFunction);
+
+            try {
+                previousShadowingFunction.onStop();
+            } catch (Exception e) {
+                logger.error("Model Engine -> Error stopping replaced Shadowing Function {} ! Error: {}", previousShadowingFunction.getId(), e.getLocalizedMessage());
+            }
+
+            try {
+                if(this.started)
+                    newShadowingFunction.onStart();
+                newShadowingFunction.onTakeOver(adaptersPhysicalAssetDescriptionMap);
+            } finally {
+                int replayedEvents = newShadowingFunction.resumeEventDelivery(bufferedEventList);
+                logger.debug("Model Engine -> Replayed {} events buffered during the Shadowing Function swap", replayedEvents);
+            }
+
+            return System.nanoTime() - pauseStartNanos;
+        }
+    }
+
+    public ShadowingFunction getShadowingFunction() {
+        return shadowingFunction;
+    }
+
     @Override
     public void onCreate() {
         logger.debug("ModelEngine-Listener-DT-LifeCycle: onCreate()");
@@ -124,12 +224,36 @@ public class DigitalTwinModel extends DigitalTwinWorker implements LifeCycleList
     @Override
     public void onPhysicalAdapterBound(String adapterId, PhysicalAssetDescription physicalAssetDescription) {
         logger.debug("ModelEngine-Listener-DT-LifeCycle: onPhysicalAdapterBound({})", adapterId);
+        registerPropertyDeadbands(physicalAssetDescription);
     }
 
     @Override
     public void onPhysicalAdapterBindingUpdate(String adapterId, PhysicalAssetDescription physicalAssetDescription) {
         logger.debug("ModelEngine-Listener-DT-LifeCycle: onPhysicalAdapterBindingUpdate()");
-        this.shadowingFunction.onPhysicalAdapterBidingUpdate(adapterId, physicalAssetDescription);
+        registerPropertyDeadbands(physicalAssetDescription);
+        synchronized (this.shadowingFunctionLock) {
+            this.shadowingFunction.onPhysicalAdapterBidingUpdate(adapterId, physicalAssetDescription);
+        }
+    }
+
+    /**
+     * Attaches to the Digital Twin State properties the deadband policies declared in a Physical Asset Description,
+     * before the Shadowing Function is notified and starts mirroring the property variations
+     */
+    private void registerPropertyDeadbands(PhysicalAssetDescription physicalAssetDescription) {
+
+        if(physicalAssetDescription == null || physicalAssetDescription.getProperties() == null)
+            return;
+
+        for(PhysicalAssetProperty<?> physicalAssetProperty : physicalAssetDescription.getProperties()) {
+            if(physicalAssetProperty.getDeadband() == null)
+                continue;
+            try {
+                this.digitalTwinStateManager.setPropertyDeadband(physicalAssetProperty.getKey(), physicalAssetProperty.getDeadband());
+            } catch (Exception e) {
+                logger.error("Error attaching deadband to property {} ! Error: {}", physicalAssetProperty.getKey(), e.getLocalizedMessage());
+            }
+        }
     }
 
     @Override
@@ -150,13 +274,17 @@ public class DigitalTwinModel extends DigitalTwinWorker implements LifeCycleList
     @Override
     public void onDigitalTwinBound(Map<String, PhysicalAssetDescription> adaptersPhysicalAssetDescriptionMap) {
         logger.debug("ModelEngine-Listener-DT-LifeCycle: onDigitalTwinBound()");
-        this.shadowingFunction.onDigitalTwinBound(adaptersPhysicalAssetDescriptionMap);
+        synchronized (this.shadowingFunctionLock) {
+            this.shadowingFunction.onDigitalTwinBound(adaptersPhysicalAssetDescriptionMap);
+        }
     }
 
     @Override
     public void onDigitalTwinUnBound(Map<String, PhysicalAssetDescription> adaptersPhysicalAssetDescriptionMap, String errorMessage) {
         logger.debug("ModelEngine-Listener-DT-LifeCycle: onDigitalTwinUnBound()");
-        this.shadowingFunction.onDigitalTwinUnBound(adaptersPhysicalAssetDescriptionMap, errorMessage);
+        synchronized (this.shadowingFunctionLock) {
+            this.shadowingFunction.onDigitalTwinUnBound(adaptersPhysicalAssetDescriptionMap, errorMessage);
+        }
     }
 
     @Override
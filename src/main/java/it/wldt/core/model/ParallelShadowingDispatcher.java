@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2025 - Current Year
+ * Marco Picone Ph.D
+ * Email: picone.m@gmail.com
+ * Website: https://www.marcopicone.net/
+ * All rights reserved.
+ *
+ * This program is provided under a Dual Licensing model:
+ * 1) GNU General Public License version 3.0 (GPL-3.0) for open-source, academic,
+ *    research, non-profit, and other non-commercial use; or
+ * 2) Commercial License, for any commercial use, proprietary development, or
+ *    closed-source distribution. To obtain a Commercial License, please contact: Marco Picone (picone.m@gmail.com)
+ *
+ * By using this software, you agree to comply with the terms of the applicable license.
+ * This applies to all forms of the software, including source code and compiled/binary forms.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+package it.wldt.core.model;
+
+import it.wldt.adapter.physical.event.PhysicalAssetEventWldtEvent;
+import it.wldt.adapter.physical.event.PhysicalAssetPropertyWldtEvent;
+import it.wldt.core.event.WldtEvent;
+import it.wldt.core.execution.WldtSerialExecutor;
+import it.wldt.core.execution.WldtSharedExecutors;
+import it.wldt.core.state.DigitalTwinStateChange;
+import it.wldt.core.state.DigitalTwinStateManager;
+import it.wldt.core.state.DigitalTwinStateProperty;
+import it.wldt.exception.WldtDigitalTwinStateException;
+import it.wldt.log.WldtLogger;
+import it.wldt.log.WldtLoggerProvider;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dispatcher of the parallel shadowing mode of a ShadowingFunction. Physical property variations and physical
+ * event notifications are partitioned by key across N serial executors running on the shared worker executor, so
+ * events with the same key are handled in their arrival order while events with different keys are handled in
+ * parallel. For each property variation the partition prepares the state changes through the function and a single
+ * committer applies the changes prepared in the meantime by all the partitions as one grouped transaction,
+ * preserving the per-key order.
+ *
+ * @author Marco Picone, Ph.D. - picone.m@gmail.com
+ */
+class ParallelShadowingDispatcher {
+
+    private static final WldtLogger logger = WldtLoggerProvider.getLogger(ParallelShadowingDispatcher.class);
+
+    // Attempts of a grouped transaction conflicting with transactions committed outside the dispatcher
+    private static final int MAX_COMMIT_ATTEMPTS = 3;
+
+    /**
+     * State changes prepared for a single event
+     */
+    private static class PreparedStateChanges {
+
+        private final WldtEvent<?> wldtEvent;
+
+        private final List<DigitalTwinStateChange> digitalTwinStateChangeList;
+
+        private PreparedStateChanges(WldtEvent<?> wldtEvent, List<DigitalTwinStateChange> digitalTwinStateChangeList) {
+            this.wldtEvent = wldtEvent;
+            this.digitalTwinStateChangeList = digitalTwinStateChangeList;
+        }
+    }
+
+    private final ShadowingFunction shadowingFunction;
+
+    private final DigitalTwinStateManager digitalTwinStateManager;
+
+    private final WldtSerialExecutor[] partitionExecutors;
+
+    private final WldtSerialExecutor committerExecutor;
+
+    private final int maxBatchSize;
+
+    private final Queue<PreparedStateChanges> preparedQueue = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean commitScheduled = new AtomicBoolean(false);
+
+    // Dispatched events not handled yet (i.e., prepared and committed for property variations)
+    private final AtomicLong pendingEventCount = new AtomicLong(0);
+
+    private final AtomicLong committedTransactionCount = new AtomicLong(0);
+
+    private final Object idleLock = new Object();
+
+    ParallelShadowingDispatcher(ShadowingFunction shadowingFunction, DigitalTwinStateManager digitalTwinStateManager, int partitionCount, int maxBatchSize) {
+
+        this.shadowingFunction = shadowingFunction;
+        this.digitalTwinStateManager = digitalTwinStateManager;
+        this.maxBatchSize = maxBatchSize;
+        this.partitionExecutors = new WldtSerialExecutor[partitionCount];
+
+        for(int i = 0; i < partitionCount; i++)
+            this.partitionExecutors[i] = new WldtSerialExecutor(String.format("%s-partition-%d", shadowingFunction.getId(), i), WldtSharedExecutors.getWorkerExecutor());
+
+        this.committerExecutor = new WldtSerialExecutor(String.format("%s-committer", shadowingFunction.getId()), WldtSharedExecutors.getWorkerExecutor());
+    }
+
+    /**
+     * Dispatches an event to the partition of its key
+     *
+     * @return False if the event is not handled in parallel and has to be handled by the caller
+     */
+    boolean dispatch(WldtEvent<?> wldtEvent) {
+
+        if(wldtEvent instanceof PhysicalAssetPropertyWldtEvent) {
+            PhysicalAssetPropertyWldtEvent<?> physicalAssetPropertyWldtEvent = (PhysicalAssetPropertyWldtEvent<?>) wldtEvent;
+            this.pendingEventCount.incrementAndGet();
+            getPartitionExecutor(physicalAssetPropertyWldtEvent.getPhysicalPropertyId()).execute(() -> prepare(physicalAssetPropertyWldtEvent));
+            return true;
+        }
+
+        if(wldtEvent instanceof PhysicalAssetEventWldtEvent) {
+            PhysicalAssetEventWldtEvent<?> physicalAssetEventWldtEvent = (PhysicalAssetEventWldtEvent<?>) wldtEvent;
+            this.pendingEventCount.incrementAndGet();
+            getPartitionExecutor(physicalAssetEventWldtEvent.getPhysicalEventKey()).execute(() -> notifyEvent(physicalAssetEventWldtEvent));
+            return true;
+        }
+
+        return false;
+    }
+
+    private WldtSerialExecutor getPartitionExecutor(String key) {
+        int hash = key != null ? key.hashCode() : 0;
+        // Spread the bits of the hash as keys often differ only in their last characters
+        hash ^= (hash >>> 16);
+        return this.partitionExecutors[(hash & Integer.MAX_VALUE) % this.partitionExecutors.length];
+    }
+
+    private void prepare(PhysicalAssetPropertyWldtEvent<?> physicalAssetPropertyWldtEvent) {
+
+        List<DigitalTwinStateChange> digitalTwinStateChangeList;
+
+        try {
+            digitalTwinStateChangeList = this.shadowingFunction.preparePhysicalAssetPropertyVariation(physicalAssetPropertyWldtEvent);
+        } catch (Exception e) {
+            logger.error("Parallel Shadowing {} -> Error preparing the changes of {} ! Error: {}", this.shadowingFunction.getId(), physicalAssetPropertyWldtEvent.getType(), e.getLocalizedMessage());
+            digitalTwinStateChangeList = null;
+        }
+
+        if(digitalTwinStateChangeList == null || digitalTwinStateChangeList.isEmpty()) {
+            onEventsHandled(1);
+            return;
+        }
+
+        this.preparedQueue.add(new PreparedStateChanges(physicalAssetPropertyWldtEvent, digitalTwinStateChangeList));
+
+        if(this.commitScheduled.compareAndSet(false, true))
+            this.committerExecutor.execute(this::commitPreparedChanges);
+    }
+
+    private void notifyEvent(PhysicalAssetEventWldtEvent<?> physicalAssetEventWldtEvent) {
+        try {
+            this.shadowingFunction.onPhysicalAssetEventNotification(physicalAssetEventWldtEvent);
+        } catch (Exception e) {
+            logger.error("Parallel Shadowing {} -> Error handling {} ! Error: {}", this.shadowingFunction.getId(), physicalAssetEventWldtEvent.getType(), e.getLocalizedMessage());
+        } finally {
+            onEventsHandled(1);
+        }
+    }
+
+    /**
+     * Commits the prepared changes in grouped transactions of at most maxBatchSize changes (the changes of a
+     * single event are never split)
+     */
+    private void commitPreparedChanges() {
+
+        // Changes prepared from now on schedule a new commit
+        this.commitScheduled.set(false);
+
+        List<PreparedStateChanges> batch = new ArrayList<>();
+        int batchChangeCount = 0;
+        PreparedStateChanges preparedStateChanges;
+
+        while((preparedStateChanges = this.preparedQueue.poll()) != null) {
+
+            batch.add(preparedStateChanges);
+            batchChangeCount += preparedStateChanges.digitalTwinStateChangeList.size();
+
+            if(batchChangeCount >= this.maxBatchSize) {
+                commitBatch(batch);
+                batch = new ArrayList<>();
+                batchChangeCount = 0;
+            }
+        }
+
+        if(!batch.isEmpty())
+            commitBatch(batch);
+    }
+
+    private void commitBatch(List<PreparedStateChanges> batch) {
+
+        try {
+            commit(batch);
+        } catch (WldtDigitalTwinStateException e) {
+            // A failing event (e.g., the variation of a deleted property) does not discard the others
+            logger.error("Parallel Shadowing {} -> Error committing {} events ! Committing them one by one. Error: {}", this.shadowingFunction.getId(), batch.size(), e.getLocalizedMessage());
+            for(PreparedStateChanges preparedStateChanges : batch) {
+                try {
+                    commit(Collections.singletonList(preparedStateChanges));
+                } catch (WldtDigitalTwinStateException ex) {
+                    logger.error("Parallel Shadowing {} -> Error committing the changes of {} ! Error: {}", this.shadowingFunction.getId(), preparedStateChanges.wldtEvent.getType(), ex.getLocalizedMessage());
+                }
+            }
+        } finally {
+            onEventsHandled(batch.size());
+        }
+    }
+
+    private void commit(List<PreparedStateChanges> batch) throws WldtDigitalTwinStateException {
+
+        this.digitalTwinStateManager.executeStateTransaction(digitalTwinStateTransaction -> {
+            for(PreparedStateChanges preparedStateChanges : batch)
+                for(DigitalTwinStateChange digitalTwinStateChange : preparedStateChanges.digitalTwinStateChangeList) {
+                    // Value updates go through the manager to apply the deadband policies of the properties
+                    if(digitalTwinStateChange.getOperation() == DigitalTwinStateChange.Operation.OPERATION_UPDATE_VALUE && digitalTwinStateChange.getResource() instanceof DigitalTwinStateProperty)
+                        this.digitalTwinStateManager.updatePropertyValue(digitalTwinStateTransaction, (DigitalTwinStateProperty<?>) digitalTwinStateChange.getResource());
+                    else
+                        digitalTwinStateTransaction.addStateChange(digitalTwinStateChange);
+                }
+        }, MAX_COMMIT_ATTEMPTS);
+
+        this.committedTransactionCount.incrementAndGet();
+    }
+
+    private void onEventsHandled(int eventCount) {
+        if(this.pendingEventCount.addAndGet(-eventCount) == 0) {
+            synchronized (this.idleLock) {
+                this.idleLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Waits until all the dispatched events have been handled
+     *
+     * @return True if there are no pending events, false if the timeout expired
+     */
+    boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+
+        long deadlineNanos = System.nanoTime() + unit.toNanos(timeout);
+
+        synchronized (this.idleLock) {
+            while(this.pendingEventCount.get() > 0) {
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+                if(remainingMillis <= 0)
+                    return false;
+                this.idleLock.wait(remainingMillis);
+            }
+        }
+
+        return true;
+    }
+
+    int getPartitionCount() {
+        return this.partitionExecutors.length;
+    }
+
+    long getPendingEventCount() {
+        return this.pendingEventCount.get();
+    }
+
+    long getCommittedTransactionCount() {
+        return this.committedTransactionCount.get();
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2025 - Current Year
+ * Marco Picone Ph.D
+ * Email: picone.m@gmail.com
+ * Website: https://www.marcopicone.net/
+ * All rights reserved.
+ *
+ * This program is provided under a Dual Licensing model:
+ * 1) GNU General Public License version 3.0 (GPL-3.0) for open-source, academic,
+ *    research, non-profit, and other non-commercial use; or
+ * 2) Commercial License, for any commercial use, proprietary development, or
+ *    closed-source distribution. To obtain a Commercial License, please contact: Marco Picone (picone.m@gmail.com)
+ *
+ * By using this software, you agree to comply with the terms of the applicable license.
+ * This applies to all forms of the software, including source code and compiled/binary forms.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+package it.wldt.core.model;
+
+import it.wldt.exception.ModelException;
+
+import java.util.Objects;
+
+/**
+ * Entry of the mapping table of a PropertyMappingShadowingFunction: the values of the physical property with the
+ * source key (as declared in the Physical Asset Description) are written, after the optional transformation, to
+ * the Digital Twin State property with the target key.
+ *
+ * @author Marco Picone, Ph.D. - picone.m@gmail.com
+ */
+public class PropertyMapping {
+
+    private final String sourceKey;
+
+    private final String targetKey;
+
+    private final PropertyMappingTransform transform;
+
+    public PropertyMapping(String sourceKey, String targetKey, PropertyMappingTransform transform) throws ModelException {
+
+        if(sourceKey == null || targetKey == null)
+            throw new ModelException("Error creating PropertyMapping ! Source and target keys can not be null !");
+
+        this.sourceKey = sourceKey;
+        this.targetKey = targetKey;
+        this.transform = transform;
+    }
+
+    public PropertyMapping(String sourceKey, String targetKey) throws ModelException {
+        this(sourceKey, targetKey, null);
+    }
+
+    public String getSourceKey() {
+        return sourceKey;
+    }
+
+    public String getTargetKey() {
+        return targetKey;
+    }
+
+    /**
+     * @return The transformation of the values or null if the values are written as they are
+     */
+    public PropertyMappingTransform getTransform() {
+        return transform;
+    }
+
+    /**
+     * Applies the transformation (if any) to a value of the physical property
+     */
+    public Object apply(Object value) throws Exception {
+        return this.transform != null && value != null ? this.transform.apply(value) : value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PropertyMapping that = (PropertyMapping) o;
+        return sourceKey.equals(that.sourceKey) && targetKey.equals(that.targetKey) && Objects.equals(transform, that.transform);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sourceKey, targetKey, transform);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("PropertyMapping{");
+        sb.append("sourceKey='").append(sourceKey).append('\'');
+        sb.append(", targetKey='").append(targetKey).append('\'');
+        sb.append(", transform=").append(transform != null);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,469 @@
+/*
+ * Copyright (c) 2025 - Current Year
+ * Marco Picone Ph.D
+ * Email: picone.m@gmail.com
+ * Website: https://www.marcopicone.net/
+ * All rights reserved.
+ *
+ * This program is provided under a Dual Licensing model:
+ * 1) GNU General Public License version 3.0 (GPL-3.0) for open-source, academic,
+ *    research, non-profit, and other non-commercial use; or
+ * 2) Commercial License, for any commercial use, proprietary development, or
+ *    closed-source distribution. To obtain a Commercial License, please contact: Marco Picone (picone.m@gmail.com)
+ *
+ * By using this software, you agree to comply with the terms of the applicable license.
+ * This applies to all forms of the software, including source code and compiled/binary forms.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+package it.wldt.core.model;
+
+import it.wldt.adapter.digital.event.DigitalActionWldtEvent;
+import it.wldt.adapter.physical.PhysicalAssetAction;
+import it.wldt.adapter.physical.PhysicalAssetDescription;
+import it.wldt.adapter.physical.PhysicalAssetEvent;
+import it.wldt.adapter.physical.PhysicalAssetProperty;
+import it.wldt.adapter.physical.event.PhysicalAssetEventWldtEvent;
+import it.wldt.adapter.physical.event.PhysicalAssetPropertyWldtEvent;
+import it.wldt.adapter.physical.event.PhysicalAssetRelationshipInstanceCreatedWldtEvent;
+import it.wldt.adapter.physical.event.PhysicalAssetRelationshipInstanceDeletedWldtEvent;
+import it.wldt.core.state.DigitalTwinState;
+import it.wldt.core.state.DigitalTwinStateAction;
+import it.wldt.core.state.DigitalTwinStateEvent;
+import it.wldt.core.state.DigitalTwinStateEventNotification;
+import it.wldt.core.state.DigitalTwinStateProperty;
+import it.wldt.core.state.DigitalTwinStateTransaction;
+import it.wldt.exception.ModelException;
+import it.wldt.exception.WldtDigitalTwinStateException;
+import it.wldt.log.WldtLogger;
+import it.wldt.log.WldtLoggerProvider;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Built-in Shadowing Function for the common case of Digital Twins mirroring the properties of the physical asset,
+ * configured through a mapping table (physical property key -> Digital Twin State property key, with an optional
+ * transformation of the values such as a unit conversion).
+ *
+ * When the Digital Twin is bound the table is compiled against the Physical Asset Descriptions: each described
+ * property with a mapping (or all the described properties when unlisted properties are mapped as they are) gets
+ * an entry of a dispatch array and a lookup index, its target property is created with the transformed initial
+ * value and its variations are observed. Variations are delivered in bursts (see enablePropertyVariationBatching())
+ * and each burst is applied with a single transaction keeping only the last value of each property, creating the
+ * target properties that do not exist yet.
+ *
+ * Described actions and events are enabled and registered in the state with the same keys: digital actions are
+ * forwarded to the physical asset and physical event notifications to the digital adapters.
+ *
+ * @author Marco Picone, Ph.D. - picone.m@gmail.com
+ */
+public class PropertyMappingShadowingFunction extends ShadowingFunction {
+
+    private static final WldtLogger logger = WldtLoggerProvider.getLogger(PropertyMappingShadowingFunction.class);
+
+    private static final int DEFAULT_MAX_BATCH_SIZE = 1024;
+
+    private static final long DEFAULT_MAX_BATCH_DELAY_MS = 10;
+
+    // Attempts of a burst conflicting with transactions committed by other components
+    private static final int MAX_COMMIT_ATTEMPTS = 3;
+
+    /**
+     * Mapping table compiled against the Physical Asset Descriptions of the bound adapters
+     */
+    private static class CompiledPropertyMappings {
+
+        private static final CompiledPropertyMappings EMPTY = new CompiledPropertyMappings(new PropertyMapping[0], Collections.emptyMap());
+
+        // Dispatch array and index of its entries by physical property key
+        private final PropertyMapping[] mappings;
+
+        private final Map<String, Integer> sourceIndexMap;
+
+        private CompiledPropertyMappings(PropertyMapping[] mappings, Map<String, Integer> sourceIndexMap) {
+            this.mappings = mappings;
+            this.sourceIndexMap = sourceIndexMap;
+        }
+
+        private PropertyMapping get(String sourceKey) {
+            Integer index = this.sourceIndexMap.get(sourceKey);
+            return index != null ? this.mappings[index] : null;
+        }
+    }
+
+    private final int maxBatchSize;
+
+    private final long maxBatchDelayNanos;
+
+    private final Map<String, PropertyMapping> propertyMappingMap = new LinkedHashMap<>();
+
+    private volatile boolean mapUnlistedProperties = true;
+
+    private volatile CompiledPropertyMappings compiledPropertyMappings = CompiledPropertyMappings.EMPTY;
+
+    private final Map<String, PhysicalAssetDescription> adaptersPhysicalAssetDescriptionMap = new ConcurrentHashMap<>();
+
+    private final Set<String> observedSourceKeys = ConcurrentHashMap.newKeySet();
+
+    private final Set<String> observedEventKeys = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean isShadowed = false;
+
+    public PropertyMappingShadowingFunction(String id) {
+        this(id, DEFAULT_MAX_BATCH_SIZE, DEFAULT_MAX_BATCH_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param id Unique Identifier of the Shadowing Function
+     * @param maxBatchSize Max number of variations applied with a single transaction
+     * @param maxBatchDelay Max time a variation waits for the other variations of its burst
+     * @param unit Time unit of the delay
+     */
+    public PropertyMappingShadowingFunction(String id, int maxBatchSize, long maxBatchDelay, TimeUnit unit) {
+        super(id);
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchDelayNanos = unit.toNanos(maxBatchDelay);
+    }
+
+    /**
+     * Adds (or replaces) the mapping of a physical property. Mappings added after the binding are compiled at the
+     * next binding update.
+     *
+     * @param sourceKey The key of the physical property
+     * @param targetKey The key of the Digital Twin State property
+     * @param transform The transformation of the values or null to write them as they are
+     * @return This function
+     * @throws ModelException If a key is null
+     */
+    public PropertyMappingShadowingFunction addPropertyMapping(String sourceKey, String targetKey, PropertyMappingTransform transform) throws ModelException {
+        PropertyMapping propertyMapping = new PropertyMapping(sourceKey, targetKey, transform);
+        synchronized (this.propertyMappingMap) {
+            this.propertyMappingMap.put(sourceKey, propertyMapping);
+        }
+        return this;
+    }
+
+    public PropertyMappingShadowingFunction addPropertyMapping(String sourceKey, String targetKey) throws ModelException {
+        return addPropertyMapping(sourceKey, targetKey, null);
+    }
+
+    public List<PropertyMapping> getPropertyMappings() {
+        synchronized (this.propertyMappingMap) {
+            return new ArrayList<>(this.propertyMappingMap.values());
+        }
+    }
+
+    /**
+     * @param mapUnlistedProperties True (default) to mirror the described properties without a mapping with the same
+     *                              key and value, false to ignore them
+     */
+    public void setMapUnlistedProperties(boolean mapUnlistedProperties) {
+        this.mapUnlistedProperties = mapUnlistedProperties;
+    }
+
+    public boolean isMapUnlistedProperties() {
+        return mapUnlistedProperties;
+    }
+
+    /**
+     * @return The number of physical properties mirrored according to the last compiled mapping table
+     */
+    public int getCompiledMappingCount() {
+        return this.compiledPropertyMappings.mappings.length;
+    }
+
+    @Override
+    protected void onCreate() {
+        try {
+            enablePropertyVariationBatching(this.maxBatchSize, this.maxBatchDelayNanos, TimeUnit.NANOSECONDS);
+        } catch (ModelException e) {
+            logger.error("Property Mapping Shadowing Function {} -> Invalid batch configuration, variations are applied one at a time ! Error: {}", getId(), e.getLocalizedMessage());
+        }
+    }
+
+    @Override
+    protected void onStart() {
+    }
+
+    @Override
+    protected void onStop() {
+    }
+
+    @Override
+    protected void onDigitalTwinBound(Map<String, PhysicalAssetDescription> adaptersPhysicalAssetDescriptionMap) {
+
+        this.adaptersPhysicalAssetDescriptionMap.clear();
+        if(adaptersPhysicalAssetDescriptionMap != null)
+            this.adaptersPhysicalAssetDescriptionMap.putAll(adaptersPhysicalAssetDescriptionMap);
+
+        bind();
+
+        if(!this.isShadowed) {
+            this.isShadowed = true;
+            notifyShadowingSync();
+        }
+    }
+
+    @Override
+    protected void onDigitalTwinUnBound(Map<String, PhysicalAssetDescription> adaptersPhysicalAssetDescriptionMap, String errorMessage) {
+        logger.debug("Property Mapping Shadowing Function {} -> Digital Twin UnBound: {}", getId(), errorMessage);
+    }
+
+    @Override
+    protected void onPhysicalAdapterBidingUpdate(String adapterId, PhysicalAssetDescription adapterPhysicalAssetDescription) {
+
+        if(adapterId == null || adapterPhysicalAssetDescription == null)
+            return;
+
+        this.adaptersPhysicalAssetDescriptionMap.put(adapterId, adapterPhysicalAssetDescription);
+
+        bind();
+    }
+
+    /**
+     * Compiles the mapping table against the current Physical Asset Descriptions, creates the missing resources in
+     * the Digital Twin State and observes the physical properties and events not observed yet
+     */
+    private synchronized void bind() {
+
+        List<PhysicalAssetProperty<?>> physicalAssetPropertyList = new ArrayList<>();
+        List<PhysicalAssetAction> physicalAssetActionList = new ArrayList<>();
+        List<PhysicalAssetEvent> physicalAssetEventList = new ArrayList<>();
+
+        for(PhysicalAssetDescription physicalAssetDescription : this.adaptersPhysicalAssetDescriptionMap.values()) {
+            if(physicalAssetDescription.getProperties() != null)
+                physicalAssetPropertyList.addAll(physicalAssetDescription.getProperties());
+            if(physicalAssetDescription.getActions() != null)
+                physicalAssetActionList.addAll(physicalAssetDescription.getActions());
+            if(physicalAssetDescription.getEvents() != null)
+                physicalAssetEventList.addAll(physicalAssetDescription.getEvents());
+        }
+
+        CompiledPropertyMappings compiled = compile(physicalAssetPropertyList);
+        this.compiledPropertyMappings = compiled;
+
+        try {
+            this.digitalTwinStateManager.executeStateTransaction(digitalTwinStateTransaction ->
+                    addMissingResources(digitalTwinStateTransaction, compiled, physicalAssetPropertyList, physicalAssetActionList, physicalAssetEventList), MAX_COMMIT_ATTEMPTS);
+        } catch (Exception e) {
+            logger.error("Property Mapping Shadowing Function {} -> Error creating the Digital Twin State resources ! Error: {}", getId(), e.getLocalizedMessage());
+        }
+
+        try {
+
+            List<PhysicalAssetProperty<?>> newObservedPropertyList = new ArrayList<>();
+            for(PhysicalAssetProperty<?> physicalAssetProperty : physicalAssetPropertyList)
+                if(compiled.get(physicalAssetProperty.getKey()) != null && !this.observedSourceKeys.contains(physicalAssetProperty.getKey()))
+                    newObservedPropertyList.add(physicalAssetProperty);
+
+            List<PhysicalAssetEvent> newObservedEventList = new ArrayList<>();
+            for(PhysicalAssetEvent physicalAssetEvent : physicalAssetEventList)
+                if(!this.observedEventKeys.contains(physicalAssetEvent.getKey()))
+                    newObservedEventList.add(physicalAssetEvent);
+
+            if(!newObservedPropertyList.isEmpty()) {
+                observePhysicalAssetProperties(newObservedPropertyList);
+                for(PhysicalAssetProperty<?> physicalAssetProperty : newObservedPropertyList)
+                    this.observedSourceKeys.add(physicalAssetProperty.getKey());
+            }
+
+            if(!newObservedEventList.isEmpty()) {
+                observePhysicalAssetEvents(newObservedEventList);
+                for(PhysicalAssetEvent physicalAssetEvent : newObservedEventList)
+                    this.observedEventKeys.add(physicalAssetEvent.getKey());
+            }
+
+            if(!this.isShadowed)
+                observeDigitalActionEvents();
+
+        } catch (Exception e) {
+            logger.error("Property Mapping Shadowing Function {} -> Error observing the physical resources ! Error: {}", getId(), e.getLocalizedMessage());
+        }
+    }
+
+    private CompiledPropertyMappings compile(List<PhysicalAssetProperty<?>> physicalAssetPropertyList) {
+
+        Map<String, PropertyMapping> currentPropertyMappingMap;
+        synchronized (this.propertyMappingMap) {
+            currentPropertyMappingMap = new HashMap<>(this.propertyMappingMap);
+        }
+
+        List<PropertyMapping> mappingList = new ArrayList<>();
+        Map<String, Integer> sourceIndexMap = new HashMap<>();
+
+        for(PhysicalAssetProperty<?> physicalAssetProperty : physicalAssetPropertyList) {
+
+            String sourceKey = physicalAssetProperty.getKey();
+
+            if(sourceKey == null || sourceIndexMap.containsKey(sourceKey))
+                continue;
+
+            PropertyMapping propertyMapping = currentPropertyMappingMap.get(sourceKey);
+
+            if(propertyMapping == null && this.mapUnlistedProperties) {
+                try {
+                    propertyMapping = new PropertyMapping(sourceKey, sourceKey);
+                } catch (ModelException e) {
+                    continue;
+                }
+            }
+
+            if(propertyMapping == null)
+                continue;
+
+            sourceIndexMap.put(sourceKey, mappingList.size());
+            mappingList.add(propertyMapping);
+        }
+
+        return new CompiledPropertyMappings(mappingList.toArray(new PropertyMapping[0]), sourceIndexMap);
+    }
+
+    private void addMissingResources(DigitalTwinStateTransaction digitalTwinStateTransaction,
+                                     CompiledPropertyMappings compiled,
+                                     List<PhysicalAssetProperty<?>> physicalAssetPropertyList,
+                                     List<PhysicalAssetAction> physicalAssetActionList,
+                                     List<PhysicalAssetEvent> physicalAssetEventList) throws WldtDigitalTwinStateException {
+
+        DigitalTwinState currentDigitalTwinState = digitalTwinStateTransaction.getStartDigitalTwinState();
+        Set<String> createdPropertyKeys = new HashSet<>();
+        Set<String> enabledActionKeys = new HashSet<>();
+        Set<String> registeredEventKeys = new HashSet<>();
+
+        try {
+
+            for(PhysicalAssetProperty<?> physicalAssetProperty : physicalAssetPropertyList) {
+
+                PropertyMapping propertyMapping = compiled.get(physicalAssetProperty.getKey());
+
+                if(propertyMapping == null || currentDigitalTwinState.containsProperty(propertyMapping.getTargetKey()) || !createdPropertyKeys.add(propertyMapping.getTargetKey()))
+                    continue;
+
+                Object initialValue = transform(propertyMapping, physicalAssetProperty.getInitialValue());
+
+                // Properties without an initial value are created with their first variation
+                if(initialValue != null)
+                    this.digitalTwinStateManager.createProperty(digitalTwinStateTransaction, new DigitalTwinStateProperty<>(propertyMapping.getTargetKey(), initialValue));
+            }
+
+            for(PhysicalAssetAction physicalAssetAction : physicalAssetActionList)
+                if(!currentDigitalTwinState.containsAction(physicalAssetAction.getKey()) && enabledActionKeys.add(physicalAssetAction.getKey()))
+                    this.digitalTwinStateManager.enableAction(digitalTwinStateTransaction, new DigitalTwinStateAction(physicalAssetAction.getKey(),
+                            physicalAssetAction.getType(),
+                            physicalAssetAction.getContentType()));
+
+            for(PhysicalAssetEvent physicalAssetEvent : physicalAssetEventList)
+                if(!currentDigitalTwinState.containsEvent(physicalAssetEvent.getKey()) && registeredEventKeys.add(physicalAssetEvent.getKey()))
+                    this.digitalTwinStateManager.registerEvent(digitalTwinStateTransaction, new DigitalTwinStateEvent(physicalAssetEvent.getKey(), physicalAssetEvent.getType()));
+
+        } catch (WldtDigitalTwinStateException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new WldtDigitalTwinStateException(e.getLocalizedMessage());
+        }
+    }
+
+    private Object transform(PropertyMapping propertyMapping, Object value) {
+        try {
+            return propertyMapping.apply(value);
+        } catch (Exception e) {
+            logger.error("Property Mapping Shadowing Function {} -> Error transforming the value of {} ! Error: {}", getId(), propertyMapping.getSourceKey(), e.getLocalizedMessage());
+            return null;
+        }
+    }
+
+    @Override
+    protected void onPhysicalAssetPropertyVariation(PhysicalAssetPropertyWldtEvent<?> physicalPropertyEventMessage) {
+        onPhysicalAssetPropertyVariations(Collections.singletonList(physicalPropertyEventMessage));
+    }
+
+    @Override
+    protected void onPhysicalAssetPropertyVariations(List<PhysicalAssetPropertyWldtEvent<?>> physicalPropertyEventMessageList) {
+
+        CompiledPropertyMappings compiled = this.compiledPropertyMappings;
+
+        // Only the last value of each target property in the burst is applied
+        Map<String, Object> propertyValueMap = new LinkedHashMap<>();
+
+        for(PhysicalAssetPropertyWldtEvent<?> physicalPropertyEventMessage : physicalPropertyEventMessageList) {
+
+            PropertyMapping propertyMapping = compiled.get(physicalPropertyEventMessage.getPhysicalPropertyId());
+
+            if(propertyMapping == null)
+                continue;
+
+            Object value = transform(propertyMapping, physicalPropertyEventMessage.getBody());
+
+            if(value != null)
+                propertyValueMap.put(propertyMapping.getTargetKey(), value);
+        }
+
+        if(propertyValueMap.isEmpty())
+            return;
+
+        try {
+            this.digitalTwinStateManager.executeStateTransaction(digitalTwinStateTransaction -> {
+
+                DigitalTwinState currentDigitalTwinState = digitalTwinStateTransaction.getStartDigitalTwinState();
+                Map<String, Object> updatedValueMap = new LinkedHashMap<>(propertyValueMap);
+
+                for(Map.Entry<String, Object> entry : propertyValueMap.entrySet()) {
+                    try {
+                        if(!currentDigitalTwinState.containsProperty(entry.getKey())) {
+                            this.digitalTwinStateManager.createProperty(digitalTwinStateTransaction, new DigitalTwinStateProperty<>(entry.getKey(), entry.getValue()));
+                            updatedValueMap.remove(entry.getKey());
+                        }
+                    } catch (WldtDigitalTwinStateException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw new WldtDigitalTwinStateException(e.getLocalizedMessage());
+                    }
+                }
+
+                this.digitalTwinStateManager.updatePropertyValues(digitalTwinStateTransaction, updatedValueMap);
+
+            }, MAX_COMMIT_ATTEMPTS);
+        } catch (Exception e) {
+            logger.error("Property Mapping Shadowing Function {} -> Error applying {} property variations ! Error: {}", getId(), physicalPropertyEventMessageList.size(), e.getLocalizedMessage());
+        }
+    }
+
+    @Override
+    protected void onPhysicalAssetEventNotification(PhysicalAssetEventWldtEvent<?> physicalAssetEventWldtEvent) {
+        try {
+            this.digitalTwinStateManager.notifyDigitalTwinStateEvent(new DigitalTwinStateEventNotification<>(
+                    physicalAssetEventWldtEvent.getPhysicalEventKey(),
+                    physicalAssetEventWldtEvent.getBody(),
+                    System.currentTimeMillis()));
+        } catch (Exception e) {
+            logger.error("Property Mapping Shadowing Function {} -> Error notifying event {} ! Error: {}", getId(), physicalAssetEventWldtEvent.getPhysicalEventKey(), e.getLocalizedMessage());
+        }
+    }
+
+    @Override
+    protected void onPhysicalAssetRelationshipEstablished(PhysicalAssetRelationshipInstanceCreatedWldtEvent<?> physicalAssetRelationshipWldtEvent) {
+    }
+
+    @Override
+    protected void onPhysicalAssetRelationshipDeleted(PhysicalAssetRelationshipInstanceDeletedWldtEvent<?> physicalAssetRelationshipWldtEvent) {
+    }
+
+    @Override
+    protected void onDigitalActionEvent(DigitalActionWldtEvent<?> digitalActionWldtEvent) {
+        try {
+            publishPhysicalAssetActionWldtEvent(digitalActionWldtEvent.getActionKey(), digitalActionWldtEvent.getBody());
+        } catch (Exception e) {
+            logger.error("Property Mapping Shadowing Function {} -> Error forwarding action {} ! Error: {}", getId(), digitalActionWldtEvent.getActionKey(), e.getLocalizedMessage());
+        }
+    }
+}
@@ -26,17 +26,30 @@ import it.wldt.adapter.physical.PhysicalAssetEvent;
 import it.wldt.adapter.physical.PhysicalAssetProperty;
 import it.wldt.adapter.physical.PhysicalAssetRelationship;
 import it.wldt.core.event.*;
+import it.wldt.core.execution.WldtTimerService;
+import it.wldt.core.execution.WldtTimerTask;
+import it.wldt.core.state.DigitalTwinStateChange;
+import it.wldt.core.state.DigitalTwinStateFreshnessListener;
 import it.wldt.core.state.DigitalTwinStateManager;
+import it.wldt.core.state.DigitalTwinStateProperty;
 import it.wldt.exception.EventBusException;
 import it.wldt.exception.ModelException;
+import it.wldt.exception.WldtTimerException;
 import it.wldt.adapter.physical.event.*;
 import it.wldt.log.WldtLogger;
 import it.wldt.log.WldtLoggerProvider;
 import it.wldt.management.ResourceManager;
 import it.wldt.storage.StorageManager;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Authors:
@@ -55,6 +68,12 @@ public abstract class ShadowingFunction implements WldtEventListener {
 
     private static final WldtLogger logger = WldtLoggerProvider.getLogger(ShadowingFunction.class);
 
+    // Default max number of changes committed in a single transaction by the parallel shadowing mode
+    private static final int DEFAULT_PARALLEL_SHADOWING_MAX_BATCH_SIZE = 1024;
+
+    // Max time waited for the events dispatched to the partitions when the parallel shadowing mode ends
+    private static final long PARALLEL_SHADOWING_DRAIN_TIMEOUT_MS = 5000;
+
     private String id = null;
 
     /**
@@ -82,6 +101,54 @@ public abstract class ShadowingFunction implements WldtEventListener {
      */
     private ShadowingModelListener shadowingModelListener;
 
+    /**
+     * Lock used to pause the event delivery: events are handled holding the read lock, so acquiring the write lock
+     * waits for the in-flight events before pausing (e.g., during the hot swap of the function)
+     */
+    private final ReadWriteLock eventDeliveryLock = new ReentrantReadWriteLock();
+
+    /**
+     * Flag indicating if the received events are buffered instead of being handled
+     */
+    private volatile boolean eventDeliveryPaused = false;
+
+    /**
+     * Events received while the delivery is paused
+     */
+    private final Queue<WldtEvent<?>> pausedEventQueue = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Function that replaced the current one. Events still reaching a replaced function are forwarded to it
+     */
+    private volatile ShadowingFunction successorFunction = null;
+
+    /**
+     * Dispatcher of the parallel shadowing mode (null when the events are handled serially)
+     */
+    private volatile ParallelShadowingDispatcher parallelShadowingDispatcher = null;
+
+    /**
+     * Max number of property variations delivered with a single onPhysicalAssetPropertyVariations() call
+     * (0 when the variations are delivered one at a time)
+     */
+    private volatile int variationBatchMaxSize = 0;
+
+    private long variationBatchMaxDelayNanos = 0;
+
+    /**
+     * Lock guarding the pending batch of property variations and serializing its delivery
+     */
+    private final Object variationBatchLock = new Object();
+
+    private List<PhysicalAssetPropertyWldtEvent<?>> pendingVariationList = null;
+
+    private WldtTimerTask variationBatchFlushTask = null;
+
+    /**
+     * Listener of the staleness of the Digital Twin State properties driving the sync/out-of-sync notifications
+     */
+    private volatile DigitalTwinStateFreshnessListener stalenessWatchdog = null;
+
     /**
      * Default Constructor
      * @param id Unique Identifier of the Shadowing Model Function
@@ -103,6 +170,21 @@ public abstract class ShadowingFunction implements WldtEventListener {
         this.resourceManager = resourceManager;
     }
 
+    /**
+     * Removes the subscriptions of the function to the event types of the filter. A function replaced through a
+     * hot swap has moved its subscriptions to its successor (that can share its id), so its unsubscriptions
+     * (e.g., from its onStop()) are ignored.
+     */
+    private void unSubscribe(WldtEventFilter wldtEventFilter) throws EventBusException {
+
+        if(this.successorFunction != null) {
+            logger.debug("Shadowing Function {} -> Retired function, unsubscription ignored", this.id);
+            return;
+        }
+
+        WldtEventBus.getInstance().unSubscribe(this.digitalTwinStateManager.getDigitalTwinId(), this.id, wldtEventFilter, this);
+    }
+
     /**
      *
      * @param physicalAssetProperty
@@ -165,7 +247,7 @@ public abstract class ShadowingFunction implements WldtEventListener {
         //Save the adopted EventFilter
         this.physicalEventsFilter.removeAll(wldtEventFilter);
 
-        WldtEventBus.getInstance().unSubscribe(this.digitalTwinStateManager.getDigitalTwinId(), this.id, wldtEventFilter, this);
+        unSubscribe(wldtEventFilter);
     }
 
     /**
@@ -188,7 +270,7 @@ public abstract class ShadowingFunction implements WldtEventListener {
         //Save the adopted EventFilter
         this.physicalEventsFilter.removeAll(wldtEventFilter);
 
-        WldtEventBus.getInstance().unSubscribe(this.digitalTwinStateManager.getDigitalTwinId(), this.id, wldtEventFilter, this);
+        unSubscribe(wldtEventFilter);
     }
 
     ///////////////////// PHYSICAL ASSET EVENT OBSERVATION MANAGEMENT ////////////////////////////////
@@ -255,7 +337,7 @@ public abstract class ShadowingFunction implements WldtEventListener {
         //Save the adopted EventFilter
         this.physicalEventsFilter.removeAll(wldtEventFilter);
 
-        WldtEventBus.getInstance().unSubscribe(this.digitalTwinStateManager.getDigitalTwinId(), this.id, wldtEventFilter, this);
+        unSubscribe(wldtEventFilter);
     }
 
     /**
@@ -278,7 +360,7 @@ public abstract class ShadowingFunction implements WldtEventListener {
         //Save the adopted EventFilter
         this.physicalEventsFilter.removeAll(wldtEventFilter);
 
-        WldtEventBus.getInstance().unSubscribe(this.digitalTwinStateManager.getDigitalTwinId(), this.id, wldtEventFilter, this);
+        unSubscribe(wldtEventFilter);
     }
 
     ///////////////////// PHYSICAL ASSET RELATIONSHIP OBSERVATION MANAGEMENT ////////////////////////////////
@@ -345,7 +427,7 @@ public abstract class ShadowingFunction implements WldtEventListener {
 
         this.physicalEventsFilter.removeAll(wldtEventFilter);
 
-        WldtEventBus.getInstance().unSubscribe(this.digitalTwinStateManager.getDigitalTwinId(), this.id, wldtEventFilter, this);
+        unSubscribe(wldtEventFilter);
     }
 
     /**
@@ -370,9 +452,48 @@ public abstract class ShadowingFunction implements WldtEventListener {
         //Save the adopted EventFilter
         this.physicalEventsFilter.removeAll(wldtEventFilter);
 
-        WldtEventBus.getInstance().unSubscribe(this.digitalTwinStateManager.getDigitalTwinId(), this.id, wldtEventFilter, this);
+        unSubscribe(wldtEventFilter);
     }
 
+    ///////////////////// PRECOMPUTED FILTER OBSERVATION MANAGEMENT ////////////////////////////////
+
+    /**
+     * Observe all the physical event types of an already built filter (e.g., one of the filters precomputed by a
+     * DigitalTwinTemplate) without rebuilding the event types of each property, event or relationship.
+     * The provided filter is only read and can be safely shared across multiple Digital Twin instances.
+     *
+     * @param wldtEventFilter The precomputed filter to observe
+     * @throws EventBusException If an error occurs during the event subscription
+     * @throws ModelException If the provided filter is NULL
+     */
+    protected void observePhysicalEvents(WldtEventFilter wldtEventFilter) throws EventBusException, ModelException {
+
+        if(wldtEventFilter == null)
+            throw new ModelException("Error ! NULL WldtEventFilter ...");
+
+        //Save the adopted EventFilter
+        this.physicalEventsFilter.addAll(wldtEventFilter);
+
+        WldtEventBus.getInstance().subscribe(this.digitalTwinStateManager.getDigitalTwinId(), this.id, wldtEventFilter, this);
+    }
+
+    /**
+     * Un-Observe all the physical event types of an already built filter
+     *
+     * @param wldtEventFilter The precomputed filter to un-observe
+     * @throws EventBusException If an error occurs during the event un-subscription
+     * @throws ModelException If the provided filter is NULL
+     */
+    protected void unObservePhysicalEvents(WldtEventFilter wldtEventFilter) throws EventBusException, ModelException {
+
+        if(wldtEventFilter == null)
+            throw new ModelException("Error ! NULL WldtEventFilter ...");
+
+        //Save the adopted EventFilter
+        this.physicalEventsFilter.removeAll(wldtEventFilter);
+
+        unSubscribe(wldtEventFilter);
+    }
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
@@ -397,7 +518,7 @@ public abstract class ShadowingFunction implements WldtEventListener {
         //wldtEventFilter.add(DigitalAdapter.DIGITAL_ACTION_EVENT);
         // Un-Observe the Wildcard Event Type for Digital Action Event
         wldtEventFilter.add(WldtEventTypes.ALL_DIGITAL_ACTION_EVENT_TYPE);
-        WldtEventBus.getInstance().unSubscribe(this.digitalTwinStateManager.getDigitalTwinId(), this.id, wldtEventFilter, this);
+        unSubscribe(wldtEventFilter);
     }
 
     /**
@@ -411,6 +532,50 @@ public abstract class ShadowingFunction implements WldtEventListener {
         WldtEventBus.getInstance().publishEvent(this.digitalTwinStateManager.getDigitalTwinId(), this.id, new PhysicalAssetActionWldtEvent<>(actionKey, body));
     }
 
+    /**
+     * Schedules a one-shot task (e.g., a timeout) on the shared engine timer service
+     * @param task Task to execute
+     * @param delay Delay before the execution
+     * @param unit Time unit of the delay
+     * @return The handle of the scheduled task
+     * @throws WldtTimerException If the function is not initialized or the parameters are not valid
+     */
+    protected WldtTimerTask scheduleTask(Runnable task, long delay, TimeUnit unit) throws WldtTimerException {
+        return WldtTimerService.getInstance().schedule(getTimerDigitalTwinId(), task, delay, unit);
+    }
+
+    /**
+     * Schedules a periodic task at a fixed rate on the shared engine timer service
+     * @param task Task to execute
+     * @param initialDelay Delay before the first execution
+     * @param period Period between two successive executions
+     * @param unit Time unit of the delay and period
+     * @return The handle of the scheduled task
+     * @throws WldtTimerException If the function is not initialized or the parameters are not valid
+     */
+    protected WldtTimerTask scheduleTaskAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) throws WldtTimerException {
+        return WldtTimerService.getInstance().scheduleAtFixedRate(getTimerDigitalTwinId(), task, initialDelay, period, unit);
+    }
+
+    /**
+     * Schedules a periodic task with a fixed delay between executions on the shared engine timer service
+     * @param task Task to execute
+     * @param initialDelay Delay before the first execution
+     * @param delay Delay between the end of an execution and the start of the next one
+     * @param unit Time unit of the delays
+     * @return The handle of the scheduled task
+     * @throws WldtTimerException If the function is not initialized or the parameters are not valid
+     */
+    protected WldtTimerTask scheduleTaskWithFixedDelay(Runnable task, long initialDelay, long delay, TimeUnit unit) throws WldtTimerException {
+        return WldtTimerService.getInstance().scheduleWithFixedDelay(getTimerDigitalTwinId(), task, initialDelay, delay, unit);
+    }
+
+    private String getTimerDigitalTwinId() throws WldtTimerException {
+        if(this.digitalTwinStateManager == null)
+            throw new WldtTimerException("Error scheduling task ! Shadowing Function not initialized (missing Digital Twin State Manager) !");
+        return this.digitalTwinStateManager.getDigitalTwinId();
+    }
+
     @Override
     public void onEventSubscribed(String eventType) {
         logger.info("Shadowing Model Function -> Subscribed to: {}", eventType);
@@ -424,8 +589,49 @@ public abstract class ShadowingFunction implements WldtEventListener {
     @Override
     public void onEvent(WldtEvent<?> wldtEvent) {
 
+        ShadowingFunction successor = this.successorFunction;
+        if(successor != null) {
+            successor.onEvent(wldtEvent);
+            return;
+        }
+
+        this.eventDeliveryLock.readLock().lock();
+        try {
+            // Retired after the first check: its buffered events have already been handed over to the successor
+            successor = this.successorFunction;
+            if(successor == null) {
+                if(this.eventDeliveryPaused)
+                    this.pausedEventQueue.add(wldtEvent);
+                else
+                    handleEvent(wldtEvent);
+            }
+        } finally {
+            this.eventDeliveryLock.readLock().unlock();
+        }
+
+        if(successor != null)
+            successor.onEvent(wldtEvent);
+    }
+
+    private void handleEvent(WldtEvent<?> wldtEvent) {
+
         logger.info("Shadowing Function -> Received Event: {} Class: {}", wldtEvent, wldtEvent.getClass());
 
+        ParallelShadowingDispatcher dispatcher = this.parallelShadowingDispatcher;
+        if(dispatcher != null && dispatcher.dispatch(wldtEvent))
+            return;
+
+        if(this.variationBatchMaxSize > 0) {
+
+            if(wldtEvent instanceof PhysicalAssetPropertyWldtEvent) {
+                addToVariationBatch((PhysicalAssetPropertyWldtEvent<?>) wldtEvent);
+                return;
+            }
+
+            // The pending variations are delivered before any other event to preserve the arrival order
+            flushPhysicalAssetPropertyVariations();
+        }
+
         // TODO Re-write all the following checks with Event Filters & Wildcard instead of Class Instances
 
         if(wldtEvent instanceof PhysicalAssetPropertyWldtEvent)
@@ -448,6 +654,452 @@ public abstract class ShadowingFunction implements WldtEventListener {
 
     }
 
+    ///////////////////// PARALLEL SHADOWING MANAGEMENT ////////////////////////////////
+
+    /**
+     * Enables the parallel shadowing mode: the physical property variations and event notifications are partitioned
+     * by key across the provided number of partitions running on the shared worker executor. Events with the same
+     * key are handled in their arrival order, while events with different keys are handled in parallel.
+     *
+     * In this mode onPhysicalAssetPropertyVariation() is not invoked: each variation is turned into state changes by
+     * preparePhysicalAssetPropertyVariation() on its partition and a single committer applies the changes prepared
+     * by all the partitions as grouped transactions. Event notifications are handled by
+     * onPhysicalAssetEventNotification() on the partition of the event key, so they have to be thread safe.
+     * Relationship and digital action events are still handled serially on the delivering thread.
+     *
+     * The mode ends when the function is stopped or replaced (the dispatched events are handled first), so it is
+     * usually enabled in onStart(). Enabling it again waits for the events dispatched with the previous configuration,
+     * holding back the delivery of new events meanwhile, so it must not be invoked from an event handling callback.
+     *
+     * @param partitionCount The number of partitions (e.g., the number of available cores)
+     * @throws ModelException If the function is not initialized or the partition count is not positive
+     */
+    protected void enableParallelShadowing(int partitionCount) throws ModelException {
+        enableParallelShadowing(partitionCount, DEFAULT_PARALLEL_SHADOWING_MAX_BATCH_SIZE);
+    }
+
+    /**
+     * Enables the parallel shadowing mode (see enableParallelShadowing(int))
+     *
+     * @param partitionCount The number of partitions
+     * @param maxBatchSize The max number of changes committed in a single transaction
+     * @throws ModelException If the function is not initialized or the parameters are not positive
+     */
+    protected void enableParallelShadowing(int partitionCount, int maxBatchSize) throws ModelException {
+
+        if(this.digitalTwinStateManager == null)
+            throw new ModelException("Error enabling parallel shadowing ! Shadowing Function not initialized (missing Digital Twin State Manager) !");
+
+        if(partitionCount <= 0 || maxBatchSize <= 0)
+            throw new ModelException("Error enabling parallel shadowing ! Partition count and max batch size must be > 0 !");
+
+        this.eventDeliveryLock.writeLock().lock();
+        try {
+            // Events with the same key must not be handled by two dispatchers at the same time
+            drainParallelShadowing();
+            this.parallelShadowingDispatcher = new ParallelShadowingDispatcher(this, this.digitalTwinStateManager, partitionCount, maxBatchSize);
+        } finally {
+            this.eventDeliveryLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Disables the parallel shadowing mode waiting for the events already dispatched to the partitions. Events
+     * received meanwhile wait for the end of the drain, in order to preserve the per-key ordering, and are then handled
+     * serially. For this reason it must not be invoked from an event handling callback.
+     *
+     * @param timeout The max time to wait for the dispatched events
+     * @param unit The time unit of the timeout
+     * @return True if all the dispatched events have been handled within the timeout
+     * @throws InterruptedException If interrupted while waiting
+     */
+    protected boolean disableParallelShadowing(long timeout, TimeUnit unit) throws InterruptedException {
+
+        this.eventDeliveryLock.writeLock().lockInterruptibly();
+        try {
+
+            ParallelShadowingDispatcher dispatcher = this.parallelShadowingDispatcher;
+            if(dispatcher == null)
+                return true;
+
+            try {
+                return dispatcher.awaitIdle(timeout, unit);
+            } finally {
+                this.parallelShadowingDispatcher = null;
+            }
+
+        } finally {
+            this.eventDeliveryLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Waits until all the events dispatched to the partitions have been handled (and their changes committed)
+     *
+     * @param timeout The max time to wait
+     * @param unit The time unit of the timeout
+     * @return True if there are no pending events, false if the timeout expired
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public boolean awaitParallelShadowing(long timeout, TimeUnit unit) throws InterruptedException {
+        ParallelShadowingDispatcher dispatcher = this.parallelShadowingDispatcher;
+        return dispatcher == null || dispatcher.awaitIdle(timeout, unit);
+    }
+
+    /**
+     * Ends the parallel shadowing mode (if enabled) waiting, up to a bounded time, for the events already
+     * dispatched to the partitions. The delivery of new events is held back until the end of the drain, so it must
+     * not be invoked from an event handling callback.
+     */
+    void drainParallelShadowing() {
+        this.eventDeliveryLock.writeLock().lock();
+        try {
+            awaitParallelShadowingDispatcher(this.parallelShadowingDispatcher);
+            this.parallelShadowingDispatcher = null;
+        } finally {
+            this.eventDeliveryLock.writeLock().unlock();
+        }
+    }
+
+    private void awaitParallelShadowingDispatcher(ParallelShadowingDispatcher dispatcher) {
+
+        if(dispatcher == null)
+            return;
+
+        try {
+            if(!dispatcher.awaitIdle(PARALLEL_SHADOWING_DRAIN_TIMEOUT_MS, TimeUnit.MILLISECONDS))
+                logger.warn("Shadowing Function {} -> {} events dispatched to the partitions still pending after {} ms !", this.id, dispatcher.getPendingEventCount(), PARALLEL_SHADOWING_DRAIN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            logger.warn("Shadowing Function {} -> Interrupted while waiting for the events dispatched to the partitions !", this.id);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isParallelShadowingEnabled() {
+        return this.parallelShadowingDispatcher != null;
+    }
+
+    /**
+     * @return The number of grouped transactions committed by the parallel shadowing mode since it was enabled
+     */
+    public long getParallelShadowingCommittedTransactionCount() {
+        ParallelShadowingDispatcher dispatcher = this.parallelShadowingDispatcher;
+        return dispatcher != null ? dispatcher.getCommittedTransactionCount() : 0;
+    }
+
+    /**
+     * Prepares the state changes mirroring a physical property variation in the parallel shadowing mode. It is
+     * invoked on the partition of the property key, concurrently with the other partitions, so it should only read
+     * the published Digital Twin State and compute the changes without starting transactions. The returned changes
+     * are committed together with the ones prepared by the other partitions.
+     *
+     * By default the variation updates the value of the property with the same key, if it exists in the state.
+     *
+     * @param physicalAssetPropertyWldtEvent The physical property variation
+     * @return The changes to commit (null or empty if there is nothing to change)
+     * @throws Exception If the changes can not be prepared
+     */
+    protected List<DigitalTwinStateChange> preparePhysicalAssetPropertyVariation(PhysicalAssetPropertyWldtEvent<?> physicalAssetPropertyWldtEvent) throws Exception {
+
+        String propertyKey = physicalAssetPropertyWldtEvent.getPhysicalPropertyId();
+        Object value = physicalAssetPropertyWldtEvent.getBody();
+
+        if(value == null || !this.digitalTwinStateManager.getDigitalTwinState().containsProperty(propertyKey))
+            return Collections.emptyList();
+
+        return Collections.singletonList(new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_UPDATE_VALUE,
+                DigitalTwinStateChange.ResourceType.PROPERTY_VALUE,
+                new DigitalTwinStateProperty<>(propertyKey, value)));
+    }
+
+    ///////////////////// PROPERTY VARIATION BATCHING ////////////////////////////////
+
+    /**
+     * Enables the batching of the physical property variations: the received variations are delivered together
+     * through onPhysicalAssetPropertyVariations() once maxBatchSize variations are pending or maxDelay elapsed since
+     * the first pending one, so the function can apply them with a single transaction. Any other event delivers the
+     * pending variations first, preserving the arrival order.
+     *
+     * @param maxBatchSize The max number of variations of a batch
+     * @param maxDelay The max time a variation can wait before being delivered
+     * @param unit The time unit of the delay
+     * @throws ModelException If the batch size or the delay are not positive
+     */
+    protected void enablePropertyVariationBatching(int maxBatchSize, long maxDelay, TimeUnit unit) throws ModelException {
+
+        if(maxBatchSize <= 0 || maxDelay <= 0 || unit == null)
+            throw new ModelException("Error enabling property variation batching ! Batch size and delay must be > 0 !");
+
+        synchronized (this.variationBatchLock) {
+            this.variationBatchMaxDelayNanos = unit.toNanos(maxDelay);
+            this.variationBatchMaxSize = maxBatchSize;
+        }
+    }
+
+    /**
+     * Disables the batching of the physical property variations delivering the pending ones
+     */
+    protected void disablePropertyVariationBatching() {
+        synchronized (this.variationBatchLock) {
+            this.variationBatchMaxSize = 0;
+            deliverVariationBatch();
+        }
+    }
+
+    public boolean isPropertyVariationBatchingEnabled() {
+        return this.variationBatchMaxSize > 0;
+    }
+
+    /**
+     * Delivers immediately the pending batch of physical property variations (if any)
+     */
+    public void flushPhysicalAssetPropertyVariations() {
+        synchronized (this.variationBatchLock) {
+            deliverVariationBatch();
+        }
+    }
+
+    private void addToVariationBatch(PhysicalAssetPropertyWldtEvent<?> physicalAssetPropertyWldtEvent) {
+        synchronized (this.variationBatchLock) {
+
+            if(this.pendingVariationList == null)
+                this.pendingVariationList = new ArrayList<>();
+
+            this.pendingVariationList.add(physicalAssetPropertyWldtEvent);
+
+            if(this.pendingVariationList.size() >= this.variationBatchMaxSize) {
+                deliverVariationBatch();
+                return;
+            }
+
+            if(this.variationBatchFlushTask == null) {
+                try {
+                    this.variationBatchFlushTask = scheduleTask(this::onVariationBatchTimeout, this.variationBatchMaxDelayNanos, TimeUnit.NANOSECONDS);
+                } catch (WldtTimerException e) {
+                    logger.error("Shadowing Function {} -> Error scheduling the delivery of the pending variations ! Error: {}", this.id, e.getLocalizedMessage());
+                    deliverVariationBatch();
+                }
+            }
+        }
+    }
+
+    private void onVariationBatchTimeout() {
+        this.eventDeliveryLock.readLock().lock();
+        try {
+            flushPhysicalAssetPropertyVariations();
+        } finally {
+            this.eventDeliveryLock.readLock().unlock();
+        }
+    }
+
+    // Must be invoked holding the variation batch lock
+    private void deliverVariationBatch() {
+
+        if(this.variationBatchFlushTask != null) {
+            this.variationBatchFlushTask.cancel();
+            this.variationBatchFlushTask = null;
+        }
+
+        if(this.pendingVariationList == null || this.pendingVariationList.isEmpty())
+            return;
+
+        List<PhysicalAssetPropertyWldtEvent<?>> variationList = this.pendingVariationList;
+        this.pendingVariationList = null;
+
+        try {
+            onPhysicalAssetPropertyVariations(variationList);
+        } catch (Exception e) {
+            logger.error("Shadowing Function {} -> Error handling {} property variations ! Error: {}", this.id, variationList.size(), e.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * Callback receiving the physical property variations pending since the previous call when the batching of the
+     * variations is enabled (see enablePropertyVariationBatching()), in their arrival order. A function can
+     * override it to apply the whole batch with a single transaction. By default each variation is passed to
+     * onPhysicalAssetPropertyVariation().
+     *
+     * @param physicalPropertyEventMessageList The pending property variations
+     */
+    protected void onPhysicalAssetPropertyVariations(List<PhysicalAssetPropertyWldtEvent<?>> physicalPropertyEventMessageList) {
+        for(PhysicalAssetPropertyWldtEvent<?> physicalPropertyEventMessage : physicalPropertyEventMessageList)
+            onPhysicalAssetPropertyVariation(physicalPropertyEventMessage);
+    }
+
+    ///////////////////// STALENESS WATCHDOG ////////////////////////////////
+
+    /**
+     * Enables the staleness watchdog: the Shadowing Model Listener is notified that the shadowing is out of sync
+     * as soon as a property with a max age goes stale (see DigitalTwinStateManager.setPropertyMaxAge()) and that
+     * it is in sync again once all the stale properties have been updated. Properties without a max age are not
+     * tracked and the function can still notify the transitions on its own.
+     */
+    protected void enableStalenessWatchdog() {
+
+        if(this.stalenessWatchdog != null)
+            return;
+
+        this.stalenessWatchdog = new DigitalTwinStateFreshnessListener() {
+            @Override
+            public void onPropertyStale(String propertyKey, int stalePropertyCount) {
+                logger.debug("Shadowing Function {} -> Property {} is stale", id, propertyKey);
+                if(stalePropertyCount == 1)
+                    notifyShadowingOutOfSync();
+            }
+
+            @Override
+            public void onPropertyFresh(String propertyKey, int stalePropertyCount) {
+                if(stalePropertyCount == 0)
+                    notifyShadowingSync();
+            }
+        };
+
+        this.digitalTwinStateManager.addFreshnessListener(this.stalenessWatchdog);
+
+        // Properties already stale when the watchdog is enabled are not notified again
+        if(this.digitalTwinStateManager.getStalePropertyCount() > 0)
+            notifyShadowingOutOfSync();
+    }
+
+    protected void disableStalenessWatchdog() {
+
+        DigitalTwinStateFreshnessListener currentWatchdog = this.stalenessWatchdog;
+
+        if(currentWatchdog == null)
+            return;
+
+        this.stalenessWatchdog = null;
+        this.digitalTwinStateManager.removeFreshnessListener(currentWatchdog);
+    }
+
+    public boolean isStalenessWatchdogEnabled() {
+        return this.stalenessWatchdog != null;
+    }
+
+    ///////////////////// HOT SWAP MANAGEMENT ////////////////////////////////
+
+    /**
+     * Pauses the delivery of the received events that are buffered until the delivery is resumed.
+     * The method returns when all the events in-flight have been handled.
+     */
+    void pauseEventDelivery() {
+        this.eventDeliveryLock.writeLock().lock();
+        try {
+            // Variations still pending and events dispatched to the partitions are handled by this function before pausing
+            flushPhysicalAssetPropertyVariations();
+            awaitParallelShadowingDispatcher(this.parallelShadowingDispatcher);
+            this.eventDeliveryPaused = true;
+        } finally {
+            this.eventDeliveryLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Resumes the delivery of the events handling first the provided pending events (e.g., buffered by the replaced
+     * function) and then the ones buffered by this function. Concurrent events wait for the end of the replay in
+     * order to preserve the delivery order.
+     *
+     * @param pendingEventList events to handle before the buffered ones
+     * @return the number of replayed events
+     */
+    int resumeEventDelivery(List<WldtEvent<?>> pendingEventList) {
+        this.eventDeliveryLock.writeLock().lock();
+        try {
+
+            int replayedEvents = 0;
+
+            for(WldtEvent<?> wldtEvent : pendingEventList) {
+                replayEvent(wldtEvent);
+                replayedEvents++;
+            }
+
+            WldtEvent<?> wldtEvent;
+            while ((wldtEvent = this.pausedEventQueue.poll()) != null) {
+                replayEvent(wldtEvent);
+                replayedEvents++;
+            }
+
+            this.eventDeliveryPaused = false;
+
+            return replayedEvents;
+
+        } finally {
+            this.eventDeliveryLock.writeLock().unlock();
+        }
+    }
+
+    private void replayEvent(WldtEvent<?> wldtEvent) {
+        try {
+            handleEvent(wldtEvent);
+        } catch (Exception e) {
+            logger.error("Shadowing Function {} -> Error handling buffered event {} ! Error: {}", this.id, wldtEvent, e.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * Moves all the event bus subscriptions and the physical events filter of this function to the new one
+     *
+     * @param newShadowingFunction the function taking over the subscriptions
+     * @return the number of moved subscriptions
+     * @throws EventBusException If an error occurs moving the subscriptions
+     */
+    int migrateSubscriptionsTo(ShadowingFunction newShadowingFunction) throws EventBusException {
+
+        int movedSubscriptions = WldtEventBus.getInstance().replaceSubscriber(this.digitalTwinStateManager.getDigitalTwinId(),
+                this,
+                newShadowingFunction.getId(),
+                newShadowingFunction);
+
+        for(String eventType : this.physicalEventsFilter)
+            if(!newShadowingFunction.physicalEventsFilter.contains(eventType))
+                newShadowingFunction.physicalEventsFilter.add(eventType);
+
+        return movedSubscriptions;
+    }
+
+    /**
+     * Retires the function forwarding to its successor the events that could still reach it (e.g., already in
+     * delivery when the subscriptions have been moved) and returns the events buffered while paused
+     *
+     * @param newShadowingFunction the function that replaced the current one
+     * @return the buffered events in their arrival order
+     */
+    List<WldtEvent<?>> retire(ShadowingFunction newShadowingFunction) {
+        this.eventDeliveryLock.writeLock().lock();
+        try {
+
+            this.successorFunction = newShadowingFunction;
+
+            // The successor decides whether to watch the staleness of the preserved state
+            disableStalenessWatchdog();
+
+            // As well as whether to shadow in parallel
+            drainParallelShadowing();
+
+            if(this.pausedEventQueue.isEmpty())
+                return Collections.emptyList();
+
+            List<WldtEvent<?>> bufferedEventList = new ArrayList<>(this.pausedEventQueue);
+            this.pausedEventQueue.clear();
+            return bufferedEventList;
+
+        } finally {
+            this.eventDeliveryLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Callback invoked on a new function when it replaces a running one, after its onCreate() and onStart() and
+     * before receiving the events buffered during the swap. The event subscriptions of the replaced function
+     * have already been moved to the new one and the Digital Twin State is preserved, so by default nothing has
+     * to be done. A function can override it to initialize its internal data structures (e.g., from the
+     * Physical Asset Descriptions of the bound adapters) without re-running the binding procedure.
+     *
+     * @param adaptersPhysicalAssetDescriptionMap the Physical Asset Descriptions of the bound Physical Adapters
+     */
+    protected void onTakeOver(Map<String, PhysicalAssetDescription> adaptersPhysicalAssetDescriptionMap) {
+    }
+
     abstract protected void onCreate();
 
     abstract protected void onStart();
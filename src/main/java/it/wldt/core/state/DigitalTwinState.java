@@ -26,39 +26,49 @@ import it.wldt.log.WldtLoggerProvider;
 
 import java.time.Instant;
 import java.util.*;
+import java.util.function.UnaryOperator;
 
 /**
  * Represents the state of a digital twin, including properties, actions, events, and relationships.
  * Manages the lifecycle and operations on these components.
  *
+ * Resources are stored in persistent (immutable) maps and the stored resources are never modified in place: a new
+ * state built from a previous one shares all its entries and each change only copies the path to the modified entry.
+ * In this way creating the new state of a transaction does not copy the unchanged resources and the previous state
+ * notified to the adapters is not affected by the changes applied to the new one.
+ *
  * @author Marco Picone, Ph.D. - picone.m@gmail.com
  */
 public class DigitalTwinState {
 
     private static final WldtLogger logger = WldtLoggerProvider.getLogger(DigitalTwinState.class);
 
-    // Maps to store properties, actions, events, and relationships
-    private Map<String, DigitalTwinStateProperty<?>> properties;
-    private Map<String, DigitalTwinStateAction> actions;
-    private Map<String, DigitalTwinStateEvent> events;
-    private Map<String, DigitalTwinStateRelationship<?>> relationships;
+    // Persistent maps to store properties, actions, events, and relationships
+    private PersistentHashTrieMap<String, DigitalTwinStateProperty<?>> properties;
+    private PersistentHashTrieMap<String, DigitalTwinStateAction> actions;
+    private PersistentHashTrieMap<String, DigitalTwinStateEvent> events;
+    private PersistentHashTrieMap<String, DigitalTwinStateRelationship<?>> relationships;
 
     // Timestamp representing the evaluation instant of the digital twin state
     private Instant evaluationInstant;
 
+    // Version of the state assigned by the DigitalTwinStateManager when the state is committed
+    private long version = 0;
+
     /**
      * Default constructor initializes maps and sets the evaluation instant to the current timestamp.
      */
     public DigitalTwinState() {
-        this.properties = new HashMap<>();
-        this.actions = new HashMap<>();
-        this.events = new HashMap<>();
-        this.relationships = new HashMap<>();
+        this.properties = PersistentHashTrieMap.empty();
+        this.actions = PersistentHashTrieMap.empty();
+        this.events = PersistentHashTrieMap.empty();
+        this.relationships = PersistentHashTrieMap.empty();
         this.evaluationInstant = Instant.now();
     }
 
     /**
      * Parameterized constructor to set properties, actions, events, and relationships, and initialize the evaluation instant.
+     * The state stores copies of the provided resources, so neither the maps nor the resources are retained.
      *
      * @param properties      Map of properties
      * @param actions         Map of actions
@@ -69,25 +79,81 @@ public class DigitalTwinState {
                             Map<String, DigitalTwinStateAction> actions,
                             Map<String, DigitalTwinStateEvent> events,
                             Map<String, DigitalTwinStateRelationship<?>> relationships) {
-        this.properties = properties;
-        this.actions = actions;
-        this.events = events;
-        this.relationships = relationships;
+        this(properties, actions, events, relationships, true);
+    }
+
+    /**
+     * Builds a state from the provided resources copying them or, if they are owned by the caller and not used
+     * anymore (e.g., by the decoder of a serialized state), storing them without copying them
+     */
+    DigitalTwinState(Map<String, DigitalTwinStateProperty<?>> properties,
+                     Map<String, DigitalTwinStateAction> actions,
+                     Map<String, DigitalTwinStateEvent> events,
+                     Map<String, DigitalTwinStateRelationship<?>> relationships,
+                     boolean copyResources) {
+        this.properties = storedResourceMap(properties, copyResources ? DigitalTwinStateProperty::copy : null);
+        this.actions = storedResourceMap(actions, copyResources ? DigitalTwinStateAction::copy : null);
+        this.events = storedResourceMap(events, copyResources ? DigitalTwinStateEvent::copy : null);
+        this.relationships = storedResourceMap(relationships, copyResources ? DigitalTwinStateRelationship::copy : null);
         this.evaluationInstant = Instant.now();
     }
 
+    private static <R extends DigitalTwinStateResource> PersistentHashTrieMap<String, R> storedResourceMap(Map<String, R> resourceMap, UnaryOperator<R> copyFunction) {
+
+        PersistentHashTrieMap<String, R> storedMap = PersistentHashTrieMap.empty();
+
+        if(resourceMap == null)
+            return storedMap;
+
+        Map<String, R> storedResourceMap = new HashMap<>(resourceMap.size() * 2);
+        for(Map.Entry<String, R> entry : resourceMap.entrySet())
+            storedResourceMap.put(entry.getKey(), stored(copyFunction != null ? copyFunction.apply(entry.getValue()) : entry.getValue()));
+
+        return storedMap.putAll(storedResourceMap);
+    }
+
+    /**
+     * Freezes a resource before storing it: stored resources are shared between the versions of the state, so
+     * modifying them would silently change the previous versions too
+     */
+    private static <R extends DigitalTwinStateResource> R stored(R resource) {
+        resource.freeze();
+        return resource;
+    }
+
     /**
      * Constructor to build a new DT State from a previous one.
-     * The evaluationInstant will be assigned to now and values are copied
+     * The evaluationInstant will be assigned to now and the resources are shared with the source state without
+     * copying them. Changes applied to the new state do not affect the source one. The version of the source state
+     * is retained until the new state is committed.
      *
      * @param sourceDigitalTwinState The Source DT State to copy
      */
     public DigitalTwinState(DigitalTwinState sourceDigitalTwinState) {
-        this();
-        this.properties.putAll(sourceDigitalTwinState.properties);
-        this.actions.putAll(sourceDigitalTwinState.actions);
-        this.events.putAll(sourceDigitalTwinState.events);
-        this.relationships.putAll(sourceDigitalTwinState.relationships);
+        this.properties = sourceDigitalTwinState.properties;
+        this.actions = sourceDigitalTwinState.actions;
+        this.events = sourceDigitalTwinState.events;
+        this.relationships = sourceDigitalTwinState.relationships;
+        this.evaluationInstant = Instant.now();
+        this.version = sourceDigitalTwinState.version;
+    }
+
+    // Persistent maps of the state, shared with the DigitalTwinStateDiff to skip the resources shared between two states
+
+    PersistentHashTrieMap<String, DigitalTwinStateProperty<?>> getPropertyMap() {
+        return properties;
+    }
+
+    PersistentHashTrieMap<String, DigitalTwinStateAction> getActionMap() {
+        return actions;
+    }
+
+    PersistentHashTrieMap<String, DigitalTwinStateEvent> getEventMap() {
+        return events;
+    }
+
+    PersistentHashTrieMap<String, DigitalTwinStateRelationship<?>> getRelationshipMap() {
+        return relationships;
     }
 
     //////////////////////////// PROPERTY MANAGEMENT //////////////////////////////////////////////////////////
@@ -150,7 +216,7 @@ public class DigitalTwinState {
             if (this.properties == null || this.properties.isEmpty())
                 return Optional.empty();
 
-            return Optional.of(new ArrayList<DigitalTwinStateProperty<?>>(this.properties.values()));
+            return Optional.of(this.properties.values());
 
         } catch (Exception e) {
             throw new WldtDigitalTwinStatePropertyException(e.getLocalizedMessage());
@@ -169,7 +235,7 @@ public class DigitalTwinState {
             throw new WldtDigitalTwinStatePropertyConflictException(String.format("DigitalTwinStateManager: property with Key: %s already existing ! Conflict !", dtStateProperty.getKey()));
 
         try {
-            this.properties.put(dtStateProperty.getKey(), dtStateProperty);
+            this.properties = this.properties.put(dtStateProperty.getKey(), stored(dtStateProperty.copy()));
 
         } catch (Exception e) {
             throw new WldtDigitalTwinStatePropertyException(e.getLocalizedMessage());
@@ -219,7 +285,7 @@ public class DigitalTwinState {
             throw new WldtDigitalTwinStatePropertyBadRequestException(String.format("DigitalTwinStateManager: property with Key: %s not writable !", dtStateProperty.getKey()));
 
         try {
-            this.properties.put(dtStateProperty.getKey(), dtStateProperty);
+            this.properties = this.properties.put(dtStateProperty.getKey(), stored(dtStateProperty.copy()));
         }catch (Exception e){
             throw new WldtDigitalTwinStatePropertyException(e.getLocalizedMessage());
         }
@@ -245,8 +311,10 @@ public class DigitalTwinState {
             if(currentProperty == null)
                 throw new Exception(String.format("Wrong Type between Property Value Type: %s and the provided new value type: %s", currentProperty.getValue().getClass(), propertyValue.getClass()));
             else if(currentProperty.getValue().getClass().equals(propertyValue.getClass())) {
-                currentProperty.setValueObject(propertyValue);
-                this.properties.put(propertyKey, currentProperty);
+                // The stored property can be shared with previous states: replace it with an updated copy
+                DigitalTwinStateProperty<?> updatedProperty = currentProperty.copy();
+                updatedProperty.setValueObject(propertyValue);
+                this.properties = this.properties.put(propertyKey, stored(updatedProperty));
             }
             else
                 throw new Exception(String.format("Wrong Type between Property Value Type: %s and the provided new value type: %s", currentProperty.getValue().getClass(), propertyValue.getClass()));
@@ -255,6 +323,167 @@ public class DigitalTwinState {
         }
     }
 
+    /**
+     * Updates the value of a double property. If the property has been created as a DigitalTwinStateDoubleProperty
+     * the value is updated without boxing it, otherwise the generic updatePropertyValue() is used.
+     *
+     * @param propertyKey The key of the property
+     * @param propertyValue The new value
+     */
+    protected void updatePropertyDoubleValue(String propertyKey, double propertyValue) throws WldtDigitalTwinStatePropertyException, WldtDigitalTwinStatePropertyBadRequestException, WldtDigitalTwinStatePropertyNotFoundException {
+
+        DigitalTwinStateProperty<?> currentProperty = getWritableProperty(propertyKey);
+
+        if(currentProperty instanceof DigitalTwinStateDoubleProperty) {
+            DigitalTwinStateDoubleProperty updatedProperty = ((DigitalTwinStateDoubleProperty) currentProperty).copy();
+            updatedProperty.setDoubleValue(propertyValue);
+            this.properties = this.properties.put(propertyKey, stored(updatedProperty));
+        }
+        else
+            updatePropertyValue(propertyKey, (Object) propertyValue);
+    }
+
+    /**
+     * Updates the value of a long property. If the property has been created as a DigitalTwinStateLongProperty
+     * the value is updated without boxing it, otherwise the generic updatePropertyValue() is used.
+     *
+     * @param propertyKey The key of the property
+     * @param propertyValue The new value
+     */
+    protected void updatePropertyLongValue(String propertyKey, long propertyValue) throws WldtDigitalTwinStatePropertyException, WldtDigitalTwinStatePropertyBadRequestException, WldtDigitalTwinStatePropertyNotFoundException {
+
+        DigitalTwinStateProperty<?> currentProperty = getWritableProperty(propertyKey);
+
+        if(currentProperty instanceof DigitalTwinStateLongProperty) {
+            DigitalTwinStateLongProperty updatedProperty = ((DigitalTwinStateLongProperty) currentProperty).copy();
+            updatedProperty.setLongValue(propertyValue);
+            this.properties = this.properties.put(propertyKey, stored(updatedProperty));
+        }
+        else
+            updatePropertyValue(propertyKey, (Object) propertyValue);
+    }
+
+    /**
+     * Updates the value of a boolean property. If the property has been created as a DigitalTwinStateBooleanProperty
+     * the value is updated without boxing it, otherwise the generic updatePropertyValue() is used.
+     *
+     * @param propertyKey The key of the property
+     * @param propertyValue The new value
+     */
+    protected void updatePropertyBooleanValue(String propertyKey, boolean propertyValue) throws WldtDigitalTwinStatePropertyException, WldtDigitalTwinStatePropertyBadRequestException, WldtDigitalTwinStatePropertyNotFoundException {
+
+        DigitalTwinStateProperty<?> currentProperty = getWritableProperty(propertyKey);
+
+        if(currentProperty instanceof DigitalTwinStateBooleanProperty) {
+            DigitalTwinStateBooleanProperty updatedProperty = ((DigitalTwinStateBooleanProperty) currentProperty).copy();
+            updatedProperty.setBooleanValue(propertyValue);
+            this.properties = this.properties.put(propertyKey, stored(updatedProperty));
+        }
+        else
+            updatePropertyValue(propertyKey, (Object) propertyValue);
+    }
+
+    /**
+     * Updates the values of a set of properties in a single pass. Only the key and the value of the provided
+     * properties are used. All the updates are validated before applying them, so the state is not modified if
+     * one of them is not valid, and then they are applied with a single update of the properties map.
+     *
+     * @param propertyList The properties with the new values
+     */
+    protected void updatePropertyValues(List<? extends DigitalTwinStateProperty<?>> propertyList) throws WldtDigitalTwinStatePropertyException, WldtDigitalTwinStatePropertyBadRequestException, WldtDigitalTwinStatePropertyNotFoundException {
+
+        if (this.properties == null)
+            throw new WldtDigitalTwinStatePropertyException("DigitalTwinStateManager: Properties Map = Null !");
+
+        Map<String, DigitalTwinStateProperty<?>> updatedPropertyMap = new HashMap<>(propertyList.size() * 2);
+
+        for(DigitalTwinStateProperty<?> requestedProperty : propertyList) {
+
+            String propertyKey = requestedProperty.getKey();
+
+            if (propertyKey == null)
+                throw new WldtDigitalTwinStatePropertyBadRequestException("DigitalTwinStateManager: propertyKey = Null !");
+
+            DigitalTwinStateProperty<?> currentProperty = updatedPropertyMap.get(propertyKey);
+
+            if(currentProperty == null)
+                currentProperty = this.properties.get(propertyKey);
+
+            if (currentProperty == null)
+                throw new WldtDigitalTwinStatePropertyNotFoundException(String.format("DigitalTwinStateManager: property with Key: %s not found !", propertyKey));
+
+            if (!currentProperty.isWritable())
+                throw new WldtDigitalTwinStatePropertyBadRequestException(String.format("DigitalTwinStateManager: property with Key: %s not writable !", propertyKey));
+
+            DigitalTwinStateProperty<?> updatedProperty = copyWithValue(currentProperty, requestedProperty);
+
+            if(updatedProperty == null)
+                throw new WldtDigitalTwinStatePropertyException(String.format("Wrong Type between Property Value Type: %s and the provided new value type: %s",
+                        currentProperty.getValue().getClass(),
+                        requestedProperty.getValue() == null ? null : requestedProperty.getValue().getClass()));
+
+            updatedPropertyMap.put(propertyKey, stored(updatedProperty));
+        }
+
+        this.properties = this.properties.putAll(updatedPropertyMap);
+    }
+
+    /**
+     * Returns a copy of the current property with the value of the requested one (without boxing it when both
+     * are primitive-specialized properties of the same type) or null if the value types do not match
+     */
+    private DigitalTwinStateProperty<?> copyWithValue(DigitalTwinStateProperty<?> currentProperty, DigitalTwinStateProperty<?> requestedProperty) {
+
+        if(currentProperty instanceof DigitalTwinStateDoubleProperty && requestedProperty instanceof DigitalTwinStateDoubleProperty) {
+            DigitalTwinStateDoubleProperty updatedProperty = ((DigitalTwinStateDoubleProperty) currentProperty).copy();
+            updatedProperty.setDoubleValue(((DigitalTwinStateDoubleProperty) requestedProperty).getDoubleValue());
+            return updatedProperty;
+        }
+
+        if(currentProperty instanceof DigitalTwinStateLongProperty && requestedProperty instanceof DigitalTwinStateLongProperty) {
+            DigitalTwinStateLongProperty updatedProperty = ((DigitalTwinStateLongProperty) currentProperty).copy();
+            updatedProperty.setLongValue(((DigitalTwinStateLongProperty) requestedProperty).getLongValue());
+            return updatedProperty;
+        }
+
+        if(currentProperty instanceof DigitalTwinStateBooleanProperty && requestedProperty instanceof DigitalTwinStateBooleanProperty) {
+            DigitalTwinStateBooleanProperty updatedProperty = ((DigitalTwinStateBooleanProperty) currentProperty).copy();
+            updatedProperty.setBooleanValue(((DigitalTwinStateBooleanProperty) requestedProperty).getBooleanValue());
+            return updatedProperty;
+        }
+
+        Object propertyValue = requestedProperty.getValue();
+
+        if(propertyValue == null || !currentProperty.getValue().getClass().equals(propertyValue.getClass()))
+            return null;
+
+        DigitalTwinStateProperty<?> updatedProperty = currentProperty.copy();
+        updatedProperty.setValueObject(propertyValue);
+        return updatedProperty;
+    }
+
+    /**
+     * Returns the stored property with the given key checking that it exists and that it is writable
+     */
+    private DigitalTwinStateProperty<?> getWritableProperty(String propertyKey) throws WldtDigitalTwinStatePropertyException, WldtDigitalTwinStatePropertyBadRequestException, WldtDigitalTwinStatePropertyNotFoundException {
+
+        if (this.properties == null)
+            throw new WldtDigitalTwinStatePropertyException("DigitalTwinStateManager: Properties Map = Null !");
+
+        if (propertyKey == null)
+            throw new WldtDigitalTwinStatePropertyBadRequestException("DigitalTwinStateManager: propertyKey = Null !");
+
+        DigitalTwinStateProperty<?> currentProperty = this.properties.get(propertyKey);
+
+        if (currentProperty == null)
+            throw new WldtDigitalTwinStatePropertyNotFoundException(String.format("DigitalTwinStateManager: property with Key: %s not found !", propertyKey));
+
+        if (!currentProperty.isWritable())
+            throw new WldtDigitalTwinStatePropertyBadRequestException(String.format("DigitalTwinStateManager: property with Key: %s not writable !", propertyKey));
+
+        return currentProperty;
+    }
+
     protected void deleteProperty(String propertyKey) throws WldtDigitalTwinStatePropertyException, WldtDigitalTwinStatePropertyBadRequestException, WldtDigitalTwinStatePropertyNotFoundException {
 
         if (this.properties == null)
@@ -268,7 +497,7 @@ public class DigitalTwinState {
 
         try{
             DigitalTwinStateProperty<?> originalValue = this.properties.get(propertyKey);
-            this.properties.remove(propertyKey);
+            this.properties = this.properties.remove(propertyKey);
         }catch (Exception e){
             throw  new WldtDigitalTwinStatePropertyException(e.getLocalizedMessage());
         }
@@ -301,7 +530,7 @@ public class DigitalTwinState {
     public Optional<List<DigitalTwinStateAction>> getActionList() throws WldtDigitalTwinStateActionException {
         try{
             return this.actions == null
-                    || this.actions.isEmpty() ? Optional.empty() : Optional.of(new ArrayList<>(this.actions.values()));
+                    || this.actions.isEmpty() ? Optional.empty() : Optional.of(this.actions.values());
         }catch (Exception e){
             throw new WldtDigitalTwinStateActionException(e.getLocalizedMessage());
         }
@@ -320,7 +549,7 @@ public class DigitalTwinState {
             throw new WldtDigitalTwinStateActionConflictException(String.format("DigitalTwinStateManager: action with Key: %s already existing ! Conflict !", digitalTwinStateAction.getKey()));
 
         try {
-            this.actions.put(digitalTwinStateAction.getKey(), digitalTwinStateAction);
+            this.actions = this.actions.put(digitalTwinStateAction.getKey(), stored(digitalTwinStateAction.copy()));
         } catch (Exception e) {
             throw new WldtDigitalTwinStateActionException(e.getLocalizedMessage());
         }
@@ -339,7 +568,7 @@ public class DigitalTwinState {
             throw new WldtDigitalTwinStateActionNotFoundException(String.format("DigitalTwinStateManager: Action with Key: %s not found !", digitalTwinStateAction.getKey()));
 
         try {
-            this.actions.put(digitalTwinStateAction.getKey(), digitalTwinStateAction);
+            this.actions = this.actions.put(digitalTwinStateAction.getKey(), stored(digitalTwinStateAction.copy()));
         }catch (Exception e){
             throw new WldtDigitalTwinStateActionException(e.getLocalizedMessage());
         }
@@ -360,7 +589,7 @@ public class DigitalTwinState {
 
         try {
             DigitalTwinStateAction originalValue = this.actions.get(actionKey);
-            this.actions.remove(actionKey);
+            this.actions = this.actions.remove(actionKey);
         }catch (Exception e){
             throw new WldtDigitalTwinStateActionException(e.getLocalizedMessage());
         }
@@ -406,7 +635,7 @@ public class DigitalTwinState {
             if (this.events == null || this.events.isEmpty())
                 return Optional.empty();
 
-            return Optional.of(new ArrayList<DigitalTwinStateEvent>(this.events.values()));
+            return Optional.of(this.events.values());
 
         } catch (Exception e) {
             throw new WldtDigitalTwinStateEventException(e.getLocalizedMessage());
@@ -426,7 +655,7 @@ public class DigitalTwinState {
             throw new WldtDigitalTwinStateEventConflictException(String.format("DigitalTwinStateManager: event with Key: %s already existing ! Conflict !", digitalTwinStateEvent.getKey()));
 
         try {
-            this.events.put(digitalTwinStateEvent.getKey(), digitalTwinStateEvent);
+            this.events = this.events.put(digitalTwinStateEvent.getKey(), stored(digitalTwinStateEvent.copy()));
         } catch (Exception e) {
             throw new WldtDigitalTwinStateEventException(e.getLocalizedMessage());
         }
@@ -445,7 +674,7 @@ public class DigitalTwinState {
             throw new WldtDigitalTwinStateEventException(String.format("DigitalTwinStateManager: event with Key: %s not found !", digitalTwinStateEvent.getKey()));
 
         try {
-            this.events.put(digitalTwinStateEvent.getKey(), digitalTwinStateEvent);
+            this.events = this.events.put(digitalTwinStateEvent.getKey(), stored(digitalTwinStateEvent.copy()));
         }catch (Exception e){
             throw new WldtDigitalTwinStateEventException(e.getLocalizedMessage());
         }
@@ -466,7 +695,7 @@ public class DigitalTwinState {
         try{
 
             DigitalTwinStateEvent originalValue = this.events.get(eventKey);
-            this.events.remove(eventKey);
+            this.events = this.events.remove(eventKey);
         }catch (Exception e){
             throw  new WldtDigitalTwinStateEventException(e.getLocalizedMessage());
         }
@@ -486,7 +715,8 @@ public class DigitalTwinState {
     protected void createRelationship(DigitalTwinStateRelationship<?> relationship) throws WldtDigitalTwinStateRelationshipException {
         if(relationship == null || relationship.getName() == null || relationship.getName().isEmpty())
             throw new WldtDigitalTwinStateRelationshipException("DigitalTwinStateRelationship cannot be null or have empty or null name");
-        this.relationships.put(relationship.getName(), relationship);
+        // The relationship of the caller can not be used to change the state (instances are added to a copy)
+        this.relationships = this.relationships.put(relationship.getName(), relationship.copy());
     }
 
 
@@ -494,13 +724,16 @@ public class DigitalTwinState {
         if(name == null || name.isEmpty() || instance == null)
             throw new WldtDigitalTwinStateRelationshipException("DigitalTwinState provided relationship name or instance are null");
         if(containsRelationship(name)){
-            this.relationships.get(name).addInstance(instance);
+            // The stored relationship can be shared with previous states: replace it with an updated copy
+            DigitalTwinStateRelationship<?> updatedRelationship = this.relationships.get(name).copy();
+            updatedRelationship.addInstance(instance);
+            this.relationships = this.relationships.put(name, updatedRelationship);
         } else throw new WldtDigitalTwinStateRelationshipException("DigitalTwinState: Error adding instance because specified relationship does not exist");
     }
 
     
     public Optional<List<DigitalTwinStateRelationship<?>>> getRelationshipList() {
-        return this.relationships.isEmpty() ? Optional.empty() : Optional.of(new ArrayList<>(this.relationships.values()));
+        return this.relationships.isEmpty() ? Optional.empty() : Optional.of(this.relationships.values());
     }
 
     
@@ -508,13 +741,26 @@ public class DigitalTwinState {
         return containsRelationship(name) ? Optional.of(this.relationships.get(name)) : Optional.empty();
     }
 
+    /**
+     * Returns the instances of all the relationships pointing to the provided target, using the target index of
+     * each relationship instead of scanning its instances
+     * @param targetId the target id
+     * @return the list of the instances pointing to the target (empty if there are none)
+     */
+    public List<DigitalTwinStateRelationshipInstance<?>> getRelationshipInstancesByTarget(Object targetId) {
+        List<DigitalTwinStateRelationshipInstance<?>> instanceList = new ArrayList<>();
+        if(targetId != null)
+            this.relationships.forEach((name, relationship) -> instanceList.addAll(relationship.getInstancesByTarget(targetId)));
+        return instanceList;
+    }
+
 
     protected void deleteRelationship(String name) throws WldtDigitalTwinStateRelationshipException {
         if(name == null || name.isEmpty())
             throw new WldtDigitalTwinStateRelationshipException("DigitalTwinState: Error deleting relationship because name is null or empty");
         Optional<DigitalTwinStateRelationship<?>> relationship = getRelationship(name);
         relationship.ifPresent(r -> {
-            this.relationships.remove(name);
+            this.relationships = this.relationships.remove(name);
         });
     }
 
@@ -524,8 +770,9 @@ public class DigitalTwinState {
             throw new WldtDigitalTwinStateRelationshipException("DigitalTwinState: Error deleting relationship instance because name or instanceKey are null or empty");
         getRelationship(relationshipName).ifPresent(relationship -> {
             if(relationship.containsInstance(instanceKey)) {
-                DigitalTwinStateRelationshipInstance<?> instance = relationship.getInstance(instanceKey);
-                relationship.removeInstance(instanceKey);
+                DigitalTwinStateRelationship<?> updatedRelationship = relationship.copy();
+                updatedRelationship.removeInstance(instanceKey);
+                this.relationships = this.relationships.put(relationshipName, updatedRelationship);
             }
         });
     }
@@ -538,6 +785,20 @@ public class DigitalTwinState {
         this.evaluationInstant = evaluationInstant;
     }
 
+    /**
+     * Returns the version of the state. Each state committed by the DigitalTwinStateManager has a version greater
+     * than the one of the previously committed state.
+     *
+     * @return The version of the state
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    protected void setVersion(long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         final StringBuffer sb = new StringBuffer("DigitalTwinState{");
@@ -546,6 +807,7 @@ public class DigitalTwinState {
         sb.append(", events=").append(events);
         sb.append(", relationships=").append(relationships);
         sb.append(", evaluationInstant=").append(evaluationInstant);
+        sb.append(", version=").append(version);
         sb.append('}');
         return sb.toString();
     }
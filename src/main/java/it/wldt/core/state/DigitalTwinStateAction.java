@@ -88,11 +88,25 @@ public class DigitalTwinStateAction extends DigitalTwinStateResource{
         this.exposed = exposed;
     }
 
+    /**
+     * Returns a new action with the same fields that can be independently updated
+     * @return the copy of the action
+     */
+    DigitalTwinStateAction copy() {
+        DigitalTwinStateAction actionCopy = new DigitalTwinStateAction();
+        actionCopy.key = this.key;
+        actionCopy.type = this.type;
+        actionCopy.contentType = this.contentType;
+        actionCopy.exposed = this.exposed;
+        return actionCopy;
+    }
+
     public String getKey() {
         return key;
     }
 
     public void setKey(String key) {
+        checkNotFrozen();
         this.key = key;
     }
 
@@ -101,6 +115,7 @@ public class DigitalTwinStateAction extends DigitalTwinStateResource{
     }
 
     public void setExposed(boolean exposed) {
+        checkNotFrozen();
         this.exposed = exposed;
     }
 
@@ -109,6 +124,7 @@ public class DigitalTwinStateAction extends DigitalTwinStateResource{
     }
 
     public void setType(String type) {
+        checkNotFrozen();
         this.type = type;
     }
 
@@ -117,6 +133,7 @@ public class DigitalTwinStateAction extends DigitalTwinStateResource{
     }
 
     public void setContentType(String contentType) {
+        checkNotFrozen();
         this.contentType = contentType;
     }
 
@@ -0,0 +1,1023 @@
+/*
+ * Copyright (c) 2025 - Current Year
+ * Marco Picone Ph.D
+ * Email: picone.m@gmail.com
+ * Website: https://www.marcopicone.net/
+ * All rights reserved.
+ *
+ * This program is provided under a Dual Licensing model:
+ * 1) GNU General Public License version 3.0 (GPL-3.0) for open-source, academic,
+ *    research, non-profit, and other non-commercial use; or
+ * 2) Commercial License, for any commercial use, proprietary development, or
+ *    closed-source distribution. To obtain a Commercial License, please contact: Marco Picone (picone.m@gmail.com)
+ *
+ * By using this software, you agree to comply with the terms of the applicable license.
+ * This applies to all forms of the software, including source code and compiled/binary forms.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+package it.wldt.core.state;
+
+import it.wldt.exception.WldtDigitalTwinStateException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compact binary codec for Digital Twin States and Digital Twin State Changes (e.g. to checkpoint, replicate or
+ * cache the state of a Digital Twin).
+ *
+ * An encoded stream starts with a header (magic number and format version) followed by a sequence of records,
+ * each one containing a state or a change. Numbers are written as varints (zig-zag encoded when signed),
+ * primitive properties (DigitalTwinStateDoubleProperty, DigitalTwinStateLongProperty and
+ * DigitalTwinStateBooleanProperty) are written without boxing and strings (keys, types, names and string values)
+ * are written once and then referenced through a dictionary shared by all the records of the stream.
+ * Property values, relationship targets and metadata can be null, boxed primitives, strings, byte arrays,
+ * lists, sets and maps of supported values or, as a fallback, Serializable objects.
+ *
+ * Streams may come from untrusted sources: the Decoder rejects counts and lengths larger than the remaining bytes
+ * and only deserializes the Serializable values made of allowed classes (a few JDK value classes by default, the
+ * others have to be allowed through Decoder.allowSerializedClass()).
+ *
+ * Encoder and Decoder keep the dictionary of the stream, so the records of a stream have to be decoded in the
+ * same order by a single Decoder. A record can not be split across two buffers.
+ *
+ * @author Marco Picone, Ph.D. - picone.m@gmail.com
+ */
+public final class DigitalTwinStateBinaryCodec {
+
+    public static final int FORMAT_VERSION = 1;
+
+    private static final int MAGIC_NUMBER = 0x574C4454;
+
+    // Maximum number of strings of the dictionary, the following new strings are always written inline
+    private static final int MAX_DICTIONARY_SIZE = 1 << 16;
+
+    // Maximum nesting of the collections and maps of a value, so a crafted stream can not exhaust the stack
+    private static final int MAX_VALUE_DEPTH = 64;
+
+    private static final byte RECORD_STATE = 1;
+    private static final byte RECORD_CHANGE = 2;
+
+    private static final byte PROPERTY_GENERIC = 0;
+    private static final byte PROPERTY_DOUBLE = 1;
+    private static final byte PROPERTY_LONG = 2;
+    private static final byte PROPERTY_BOOLEAN = 3;
+
+    private static final byte RESOURCE_PROPERTY = 1;
+    private static final byte RESOURCE_ACTION = 2;
+    private static final byte RESOURCE_EVENT = 3;
+    private static final byte RESOURCE_RELATIONSHIP = 4;
+    private static final byte RESOURCE_RELATIONSHIP_INSTANCE = 5;
+
+    private static final byte VALUE_NULL = 0;
+    private static final byte VALUE_TRUE = 1;
+    private static final byte VALUE_FALSE = 2;
+    private static final byte VALUE_INT = 3;
+    private static final byte VALUE_LONG = 4;
+    private static final byte VALUE_DOUBLE = 5;
+    private static final byte VALUE_FLOAT = 6;
+    private static final byte VALUE_STRING = 7;
+    private static final byte VALUE_SHORT = 8;
+    private static final byte VALUE_BYTE = 9;
+    private static final byte VALUE_CHAR = 10;
+    private static final byte VALUE_BYTES = 11;
+    private static final byte VALUE_LIST = 12;
+    private static final byte VALUE_SET = 13;
+    private static final byte VALUE_MAP = 14;
+    private static final byte VALUE_SERIALIZED = 15;
+
+    // Classes that can be deserialized by default: JDK value classes (java.time.Ser is the serial form of java.time)
+    private static final Set<String> DEFAULT_SERIALIZED_CLASS_NAMES = new HashSet<>(Arrays.asList(
+            "java.lang.Number",
+            "java.lang.Enum",
+            "java.lang.String",
+            "java.lang.Boolean",
+            "java.lang.Character",
+            "java.lang.Byte",
+            "java.lang.Short",
+            "java.lang.Integer",
+            "java.lang.Long",
+            "java.lang.Float",
+            "java.lang.Double",
+            "java.math.BigInteger",
+            "java.math.BigDecimal",
+            "java.util.Date",
+            "java.util.UUID",
+            "java.time.Ser"));
+
+    private DigitalTwinStateBinaryCodec(){}
+
+    /**
+     * Encodes a Digital Twin State into a new stream
+     * @param digitalTwinState The state to encode
+     * @return The buffer containing the stream ready to be read
+     * @throws WldtDigitalTwinStateException If the state contains values that can not be encoded
+     */
+    public static ByteBuffer encode(DigitalTwinState digitalTwinState) throws WldtDigitalTwinStateException {
+        return new Encoder().writeState(digitalTwinState).flush();
+    }
+
+    /**
+     * Encodes a list of Digital Twin State Changes into a new stream with a record for each change
+     * @param digitalTwinStateChangeList The changes to encode
+     * @return The buffer containing the stream ready to be read
+     * @throws WldtDigitalTwinStateException If a change contains values that can not be encoded
+     */
+    public static ByteBuffer encode(List<DigitalTwinStateChange> digitalTwinStateChangeList) throws WldtDigitalTwinStateException {
+        Encoder encoder = new Encoder();
+        for(DigitalTwinStateChange digitalTwinStateChange : digitalTwinStateChangeList)
+            encoder.writeChange(digitalTwinStateChange);
+        return encoder.flush();
+    }
+
+    /**
+     * Decodes the state contained in a stream, consuming the buffer
+     * @param buffer The buffer containing a stream with a single state
+     * @return The decoded state
+     * @throws WldtDigitalTwinStateException If the stream is not valid
+     */
+    public static DigitalTwinState decodeState(ByteBuffer buffer) throws WldtDigitalTwinStateException {
+        return new Decoder().readState(buffer);
+    }
+
+    /**
+     * Decodes all the changes contained in a stream, consuming the buffer
+     * @param buffer The buffer containing a stream of changes
+     * @return The decoded changes
+     * @throws WldtDigitalTwinStateException If the stream is not valid
+     */
+    public static List<DigitalTwinStateChange> decodeChanges(ByteBuffer buffer) throws WldtDigitalTwinStateException {
+        Decoder decoder = new Decoder();
+        List<DigitalTwinStateChange> digitalTwinStateChangeList = new ArrayList<>();
+        while(buffer.hasRemaining())
+            digitalTwinStateChangeList.add(decoder.readChange(buffer));
+        return digitalTwinStateChangeList;
+    }
+
+    private static void checkValueDepth(int depth) throws WldtDigitalTwinStateException {
+        if(depth > MAX_VALUE_DEPTH)
+            throw new WldtDigitalTwinStateException(String.format("DigitalTwinStateBinaryCodec: value nested deeper than %d levels !", MAX_VALUE_DEPTH));
+    }
+
+    private static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * Writes states and changes into a growing buffer. The bytes written since the last flush are returned by
+     * flush(), while the dictionary is kept for the following records of the stream.
+     */
+    public static final class Encoder {
+
+        private ByteBuffer buffer;
+
+        private final Map<String, Integer> dictionary = new HashMap<>();
+
+        private final List<String> dictionaryEntries = new ArrayList<>();
+
+        private boolean headerWritten = false;
+
+        public Encoder() {
+            this(4096);
+        }
+
+        public Encoder(int initialCapacity) {
+            this.buffer = ByteBuffer.allocate(Math.max(initialCapacity, 64));
+        }
+
+        /**
+         * Writes a record containing a Digital Twin State
+         * @param digitalTwinState The state to write
+         * @return The encoder
+         * @throws WldtDigitalTwinStateException If the state is null or contains values that can not be encoded
+         */
+        public Encoder writeState(DigitalTwinState digitalTwinState) throws WldtDigitalTwinStateException {
+
+            if(digitalTwinState == null)
+                throw new WldtDigitalTwinStateException("DigitalTwinStateBinaryCodec: Digital Twin State = Null !");
+
+            int recordStart = beginRecord(RECORD_STATE);
+            int dictionarySize = dictionaryEntries.size();
+
+            try {
+
+                writeVarLong(digitalTwinState.getVersion());
+
+                Instant evaluationInstant = digitalTwinState.getEvaluationInstant();
+                writeBoolean(evaluationInstant != null);
+                if(evaluationInstant != null) {
+                    writeVarLong(zigZag(evaluationInstant.getEpochSecond()));
+                    writeVarInt(evaluationInstant.getNano());
+                }
+
+                PersistentHashTrieMap<String, DigitalTwinStateProperty<?>> propertyMap = digitalTwinState.getPropertyMap();
+                writeVarInt(propertyMap.size());
+                for(DigitalTwinStateProperty<?> property : propertyMap.valuesView())
+                    writeProperty(property);
+
+                PersistentHashTrieMap<String, DigitalTwinStateAction> actionMap = digitalTwinState.getActionMap();
+                writeVarInt(actionMap.size());
+                for(DigitalTwinStateAction action : actionMap.valuesView())
+                    writeAction(action);
+
+                PersistentHashTrieMap<String, DigitalTwinStateEvent> eventMap = digitalTwinState.getEventMap();
+                writeVarInt(eventMap.size());
+                for(DigitalTwinStateEvent event : eventMap.valuesView())
+                    writeEvent(event);
+
+                PersistentHashTrieMap<String, DigitalTwinStateRelationship<?>> relationshipMap = digitalTwinState.getRelationshipMap();
+                writeVarInt(relationshipMap.size());
+                for(DigitalTwinStateRelationship<?> relationship : relationshipMap.valuesView())
+                    writeRelationship(relationship);
+
+            } catch (WldtDigitalTwinStateException | RuntimeException e) {
+                rollback(recordStart, dictionarySize);
+                throw e;
+            }
+
+            return this;
+        }
+
+        /**
+         * Writes a record containing a Digital Twin State Change
+         * @param digitalTwinStateChange The change to write
+         * @return The encoder
+         * @throws WldtDigitalTwinStateException If the change is null or contains values that can not be encoded
+         */
+        public Encoder writeChange(DigitalTwinStateChange digitalTwinStateChange) throws WldtDigitalTwinStateException {
+
+            if(digitalTwinStateChange == null)
+                throw new WldtDigitalTwinStateException("DigitalTwinStateBinaryCodec: Digital Twin State Change = Null !");
+
+            int recordStart = beginRecord(RECORD_CHANGE);
+            int dictionarySize = dictionaryEntries.size();
+
+            try {
+
+                ensureCapacity(2);
+                buffer.put((byte) digitalTwinStateChange.getOperation().ordinal());
+                buffer.put((byte) digitalTwinStateChange.getResourceType().ordinal());
+
+                DigitalTwinStateResource resource = digitalTwinStateChange.getResource();
+
+                if(resource instanceof DigitalTwinStateProperty) {
+                    writeByte(RESOURCE_PROPERTY);
+                    writeProperty((DigitalTwinStateProperty<?>) resource);
+                }
+                else if(resource instanceof DigitalTwinStateAction) {
+                    writeByte(RESOURCE_ACTION);
+                    writeAction((DigitalTwinStateAction) resource);
+                }
+                else if(resource instanceof DigitalTwinStateEvent) {
+                    writeByte(RESOURCE_EVENT);
+                    writeEvent((DigitalTwinStateEvent) resource);
+                }
+                else if(resource instanceof DigitalTwinStateRelationship) {
+                    writeByte(RESOURCE_RELATIONSHIP);
+                    writeRelationship((DigitalTwinStateRelationship<?>) resource);
+                }
+                else if(resource instanceof DigitalTwinStateRelationshipInstance) {
+                    writeByte(RESOURCE_RELATIONSHIP_INSTANCE);
+                    writeRelationshipInstance((DigitalTwinStateRelationshipInstance<?>) resource);
+                }
+                else
+                    throw new WldtDigitalTwinStateException(String.format("DigitalTwinStateBinaryCodec: unsupported resource: %s", resource));
+
+            } catch (WldtDigitalTwinStateException | RuntimeException e) {
+                rollback(recordStart, dictionarySize);
+                throw e;
+            }
+
+            return this;
+        }
+
+        /**
+         * Returns the bytes written since the last flush, ready to be read. The encoder continues the stream
+         * on a new buffer.
+         * @return The buffer with the encoded records
+         */
+        public ByteBuffer flush() {
+            ByteBuffer encodedBuffer = this.buffer;
+            encodedBuffer.flip();
+            this.buffer = ByteBuffer.allocate(Math.max(64, Math.min(encodedBuffer.capacity(), 1 << 20)));
+            return encodedBuffer;
+        }
+
+        /**
+         * Returns the number of bytes written since the last flush
+         * @return the number of bytes
+         */
+        public int size() {
+            return buffer.position();
+        }
+
+        private int beginRecord(byte recordType) {
+
+            if(!headerWritten) {
+                ensureCapacity(5);
+                buffer.putInt(MAGIC_NUMBER);
+                buffer.put((byte) FORMAT_VERSION);
+                headerWritten = true;
+            }
+
+            int recordStart = buffer.position();
+            writeByte(recordType);
+            return recordStart;
+        }
+
+        /**
+         * Discards a partially written record and the strings it added to the dictionary
+         */
+        private void rollback(int recordStart, int dictionarySize) {
+            buffer.position(recordStart);
+            while(dictionaryEntries.size() > dictionarySize)
+                dictionary.remove(dictionaryEntries.remove(dictionaryEntries.size() - 1));
+        }
+
+        private void writeProperty(DigitalTwinStateProperty<?> property) throws WldtDigitalTwinStateException {
+
+            byte propertyType = PROPERTY_GENERIC;
+            if(property instanceof DigitalTwinStateDoubleProperty)
+                propertyType = PROPERTY_DOUBLE;
+            else if(property instanceof DigitalTwinStateLongProperty)
+                propertyType = PROPERTY_LONG;
+            else if(property instanceof DigitalTwinStateBooleanProperty)
+                propertyType = PROPERTY_BOOLEAN;
+
+            writeByte((byte) (propertyType << 3
+                    | (property.isReadable() ? 1 : 0)
+                    | (property.isWritable() ? 2 : 0)
+                    | (property.isExposed() ? 4 : 0)));
+            writeString(property.getKey());
+            writeString(property.getType());
+
+            switch (propertyType) {
+                case PROPERTY_DOUBLE:
+                    ensureCapacity(8);
+                    buffer.putDouble(((DigitalTwinStateDoubleProperty) property).getDoubleValue());
+                    break;
+                case PROPERTY_LONG:
+                    writeVarLong(zigZag(((DigitalTwinStateLongProperty) property).getLongValue()));
+                    break;
+                case PROPERTY_BOOLEAN:
+                    writeBoolean(((DigitalTwinStateBooleanProperty) property).getBooleanValue());
+                    break;
+                default:
+                    writeValue(property.getValue(), 0);
+                    break;
+            }
+        }
+
+        private void writeAction(DigitalTwinStateAction action) {
+            writeString(action.getKey());
+            writeString(action.getType());
+            writeString(action.getContentType());
+            writeBoolean(action.isExposed());
+        }
+
+        private void writeEvent(DigitalTwinStateEvent event) {
+            writeString(event.getKey());
+            writeString(event.getType());
+        }
+
+        private void writeRelationship(DigitalTwinStateRelationship<?> relationship) throws WldtDigitalTwinStateException {
+            writeString(relationship.getName());
+            writeString(relationship.getType());
+            writeVarInt(relationship.getInstanceCount());
+            for(DigitalTwinStateRelationshipInstance<?> instance : relationship.getInstanceCollection())
+                writeRelationshipInstance(instance);
+        }
+
+        private void writeRelationshipInstance(DigitalTwinStateRelationshipInstance<?> instance) throws WldtDigitalTwinStateException {
+
+            writeString(instance.getRelationshipName());
+            writeString(instance.getKey());
+            writeValue(instance.getTargetId(), 0);
+
+            // 0 for null metadata, otherwise the number of entries + 1
+            Map<String, Object> metadata = instance.getMetadata();
+            writeVarInt(metadata == null ? 0 : metadata.size() + 1);
+            if(metadata != null)
+                for(Map.Entry<String, Object> entry : metadata.entrySet()) {
+                    writeString(entry.getKey());
+                    writeValue(entry.getValue(), 0);
+                }
+        }
+
+        private void writeValue(Object value, int depth) throws WldtDigitalTwinStateException {
+
+            checkValueDepth(depth);
+
+            if(value == null)
+                writeByte(VALUE_NULL);
+            else if(value instanceof Double) {
+                ensureCapacity(9);
+                buffer.put(VALUE_DOUBLE);
+                buffer.putDouble((Double) value);
+            }
+            else if(value instanceof String) {
+                writeByte(VALUE_STRING);
+                writeString((String) value);
+            }
+            else if(value instanceof Integer) {
+                writeByte(VALUE_INT);
+                writeVarInt(zigZag((Integer) value));
+            }
+            else if(value instanceof Long) {
+                writeByte(VALUE_LONG);
+                writeVarLong(zigZag((Long) value));
+            }
+            else if(value instanceof Boolean)
+                writeByte((Boolean) value ? VALUE_TRUE : VALUE_FALSE);
+            else if(value instanceof Float) {
+                ensureCapacity(5);
+                buffer.put(VALUE_FLOAT);
+                buffer.putFloat((Float) value);
+            }
+            else if(value instanceof Short) {
+                writeByte(VALUE_SHORT);
+                writeVarInt(zigZag((int) (Short) value));
+            }
+            else if(value instanceof Byte) {
+                ensureCapacity(2);
+                buffer.put(VALUE_BYTE);
+                buffer.put((Byte) value);
+            }
+            else if(value instanceof Character) {
+                writeByte(VALUE_CHAR);
+                writeVarInt((Character) value);
+            }
+            else if(value instanceof byte[]) {
+                writeByte(VALUE_BYTES);
+                writeBytes((byte[]) value);
+            }
+            else if(value instanceof Set || value instanceof Collection) {
+                writeByte(value instanceof Set ? VALUE_SET : VALUE_LIST);
+                writeVarInt(((Collection<?>) value).size());
+                for(Object element : (Collection<?>) value)
+                    writeValue(element, depth + 1);
+            }
+            else if(value instanceof Map) {
+                writeByte(VALUE_MAP);
+                writeVarInt(((Map<?, ?>) value).size());
+                for(Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    writeValue(entry.getKey(), depth + 1);
+                    writeValue(entry.getValue(), depth + 1);
+                }
+            }
+            else if(value instanceof Serializable) {
+                writeByte(VALUE_SERIALIZED);
+                writeBytes(serialize(value));
+            }
+            else
+                throw new WldtDigitalTwinStateException(String.format("DigitalTwinStateBinaryCodec: unsupported value type: %s", value.getClass().getName()));
+        }
+
+        private byte[] serialize(Object value) throws WldtDigitalTwinStateException {
+            try {
+                ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+                try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(byteArrayOutputStream)) {
+                    objectOutputStream.writeObject(value);
+                }
+                return byteArrayOutputStream.toByteArray();
+            } catch (Exception e) {
+                throw new WldtDigitalTwinStateException(String.format("DigitalTwinStateBinaryCodec: error serializing value of type %s ! Error: %s", value.getClass().getName(), e.getLocalizedMessage()));
+            }
+        }
+
+        /**
+         * Writes a reference to the dictionary: 0 for null, 1 for a new string written inline and index + 2 for
+         * a string already written in the stream
+         */
+        private void writeString(String value) {
+
+            if(value == null) {
+                writeVarInt(0);
+                return;
+            }
+
+            Integer index = dictionary.get(value);
+
+            if(index != null) {
+                writeVarInt(index + 2);
+                return;
+            }
+
+            writeVarInt(1);
+            writeUtf8(value);
+
+            if(dictionaryEntries.size() < MAX_DICTIONARY_SIZE) {
+                dictionary.put(value, dictionaryEntries.size());
+                dictionaryEntries.add(value);
+            }
+        }
+
+        private void writeUtf8(String value) {
+
+            int length = value.length();
+
+            // ASCII strings (e.g. keys and types) are written without an intermediate byte array
+            for(int i = 0; i < length; i++)
+                if(value.charAt(i) >= 0x80) {
+                    writeBytes(value.getBytes(StandardCharsets.UTF_8));
+                    return;
+                }
+
+            ensureCapacity(5 + length);
+            writeVarInt(length);
+            for(int i = 0; i < length; i++)
+                buffer.put((byte) value.charAt(i));
+        }
+
+        private void writeBytes(byte[] bytes) {
+            ensureCapacity(5 + bytes.length);
+            writeVarInt(bytes.length);
+            buffer.put(bytes);
+        }
+
+        private void writeByte(byte value) {
+            ensureCapacity(1);
+            buffer.put(value);
+        }
+
+        private void writeBoolean(boolean value) {
+            writeByte((byte) (value ? 1 : 0));
+        }
+
+        private void writeVarInt(int value) {
+            ensureCapacity(5);
+            while((value & ~0x7F) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        private void writeVarLong(long value) {
+            ensureCapacity(10);
+            while((value & ~0x7FL) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        private void ensureCapacity(int byteCount) {
+            if(buffer.remaining() >= byteCount)
+                return;
+            ByteBuffer newBuffer = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + byteCount));
+            buffer.flip();
+            newBuffer.put(buffer);
+            buffer = newBuffer;
+        }
+    }
+
+    /**
+     * Reads the records of a stream from one or more buffers, keeping the dictionary of the stream
+     */
+    public static final class Decoder {
+
+        private final List<String> dictionaryEntries = new ArrayList<>();
+
+        private final Set<String> allowedSerializedClassNames = new HashSet<>(DEFAULT_SERIALIZED_CLASS_NAMES);
+
+        private boolean headerRead = false;
+
+        /**
+         * Allows the deserialization of the values of a class encoded through Java serialization. Every class of the
+         * serialized object graph (including superclasses and the classes of the fields) has to be allowed.
+         * @param serializedClass The class to allow
+         * @return The decoder
+         */
+        public Decoder allowSerializedClass(Class<?> serializedClass) {
+            if(serializedClass != null)
+                this.allowedSerializedClassNames.add(serializedClass.getName());
+            return this;
+        }
+
+        /**
+         * Reads a record containing a Digital Twin State, advancing the position of the buffer
+         * @param buffer The buffer containing the record
+         * @return The decoded state
+         * @throws WldtDigitalTwinStateException If the record is not valid or it does not contain a state
+         */
+        public DigitalTwinState readState(ByteBuffer buffer) throws WldtDigitalTwinStateException {
+
+            try {
+
+                readRecordType(buffer, RECORD_STATE);
+
+                long version = readVarLong(buffer);
+                Instant evaluationInstant = buffer.get() != 0 ? Instant.ofEpochSecond(readZigZagLong(buffer), readVarInt(buffer)) : null;
+
+                int propertyCount = readCount(buffer);
+                Map<String, DigitalTwinStateProperty<?>> propertyMap = new HashMap<>();
+                for(int i = 0; i < propertyCount; i++) {
+                    DigitalTwinStateProperty<?> property = readProperty(buffer);
+                    propertyMap.put(property.getKey(), property);
+                }
+
+                int actionCount = readCount(buffer);
+                Map<String, DigitalTwinStateAction> actionMap = new HashMap<>();
+                for(int i = 0; i < actionCount; i++) {
+                    DigitalTwinStateAction action = readAction(buffer);
+                    actionMap.put(action.getKey(), action);
+                }
+
+                int eventCount = readCount(buffer);
+                Map<String, DigitalTwinStateEvent> eventMap = new HashMap<>();
+                for(int i = 0; i < eventCount; i++) {
+                    DigitalTwinStateEvent event = readEvent(buffer);
+                    eventMap.put(event.getKey(), event);
+                }
+
+                int relationshipCount = readCount(buffer);
+                Map<String, DigitalTwinStateRelationship<?>> relationshipMap = new HashMap<>();
+                for(int i = 0; i < relationshipCount; i++) {
+                    DigitalTwinStateRelationship<?> relationship = readRelationship(buffer);
+                    relationshipMap.put(relationship.getName(), relationship);
+                }
+
+                DigitalTwinState digitalTwinState = new DigitalTwinState(propertyMap, actionMap, eventMap, relationshipMap, false);
+                digitalTwinState.setVersion(version);
+                digitalTwinState.setEvaluationInstant(evaluationInstant);
+
+                return digitalTwinState;
+
+            } catch (WldtDigitalTwinStateException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new WldtDigitalTwinStateException(String.format("DigitalTwinStateBinaryCodec: error decoding Digital Twin State ! Error: %s", e));
+            }
+        }
+
+        /**
+         * Reads a record containing a Digital Twin State Change, advancing the position of the buffer
+         * @param buffer The buffer containing the record
+         * @return The decoded change
+         * @throws WldtDigitalTwinStateException If the record is not valid or it does not contain a change
+         */
+        public DigitalTwinStateChange readChange(ByteBuffer buffer) throws WldtDigitalTwinStateException {
+
+            try {
+
+                readRecordType(buffer, RECORD_CHANGE);
+
+                DigitalTwinStateChange.Operation operation = DigitalTwinStateChange.Operation.values()[buffer.get()];
+                DigitalTwinStateChange.ResourceType resourceType = DigitalTwinStateChange.ResourceType.values()[buffer.get()];
+
+                DigitalTwinStateResource resource;
+                byte resourceKind = buffer.get();
+
+                switch (resourceKind) {
+                    case RESOURCE_PROPERTY:
+                        resource = readProperty(buffer);
+                        break;
+                    case RESOURCE_ACTION:
+                        resource = readAction(buffer);
+                        break;
+                    case RESOURCE_EVENT:
+                        resource = readEvent(buffer);
+                        break;
+                    case RESOURCE_RELATIONSHIP:
+                        resource = readRelationship(buffer);
+                        break;
+                    case RESOURCE_RELATIONSHIP_INSTANCE:
+                        resource = readRelationshipInstance(buffer);
+                        break;
+                    default:
+                        throw new WldtDigitalTwinStateException(String.format("DigitalTwinStateBinaryCodec: unknown resource kind: %d", resourceKind));
+                }
+
+                return new DigitalTwinStateChange(operation, resourceType, resource);
+
+            } catch (WldtDigitalTwinStateException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new WldtDigitalTwinStateException(String.format("DigitalTwinStateBinaryCodec: error decoding Digital Twin State Change ! Error: %s", e));
+            }
+        }
+
+        private void readRecordType(ByteBuffer buffer, byte expectedRecordType) throws WldtDigitalTwinStateException {
+
+            if(!headerRead) {
+                int magicNumber = buffer.getInt();
+                int formatVersion = buffer.get();
+                if(magicNumber != MAGIC_NUMBER)
+                    throw new WldtDigitalTwinStateException("DigitalTwinStateBinaryCodec: not a Digital Twin State stream !");
+                if(formatVersion < 1 || formatVersion > FORMAT_VERSION)
+                    throw new WldtDigitalTwinStateException(String.format("DigitalTwinStateBinaryCodec: unsupported format version: %d", formatVersion));
+                headerRead = true;
+            }
+
+            byte recordType = buffer.get(buffer.position());
+            if(recordType != expectedRecordType)
+                throw new WldtDigitalTwinStateException(String.format("DigitalTwinStateBinaryCodec: unexpected record type: %d (expected %d)", recordType, expectedRecordType));
+            buffer.get();
+        }
+
+        private DigitalTwinStateProperty<?> readProperty(ByteBuffer buffer) throws WldtDigitalTwinStateException {
+
+            int header = buffer.get() & 0xFF;
+            boolean readable = (header & 1) != 0;
+            boolean writable = (header & 2) != 0;
+            boolean exposed = (header & 4) != 0;
+            String key = readString(buffer);
+            String type = readString(buffer);
+
+            DigitalTwinStateProperty<?> property;
+
+            switch (header >>> 3) {
+                case PROPERTY_DOUBLE:
+                    property = new DigitalTwinStateDoubleProperty(key, buffer.getDouble(), readable, writable, exposed);
+                    break;
+                case PROPERTY_LONG:
+                    property = new DigitalTwinStateLongProperty(key, readZigZagLong(buffer), readable, writable, exposed);
+                    break;
+                case PROPERTY_BOOLEAN:
+                    property = new DigitalTwinStateBooleanProperty(key, buffer.get() != 0, readable, writable, exposed);
+                    break;
+                case PROPERTY_GENERIC:
+                    DigitalTwinStateProperty<Object> genericProperty = new DigitalTwinStateProperty<>();
+                    genericProperty.setKey(key);
+                    genericProperty.setValue(readValue(buffer, 0));
+                    genericProperty.setReadable(readable);
+                    genericProperty.setWritable(writable);
+                    genericProperty.setExposed(exposed);
+                    property = genericProperty;
+                    break;
+                default:
+                    throw new WldtDigitalTwinStateException(String.format("DigitalTwinStateBinaryCodec: unknown property type: %d", header >>> 3));
+            }
+
+            property.setType(type);
+            return property;
+        }
+
+        private DigitalTwinStateAction readAction(ByteBuffer buffer) throws WldtDigitalTwinStateException {
+            String key = readString(buffer);
+            String type = readString(buffer);
+            String contentType = readString(buffer);
+            return new DigitalTwinStateAction(key, type, contentType, buffer.get() != 0);
+        }
+
+        private DigitalTwinStateEvent readEvent(ByteBuffer buffer) {
+            String key = readString(buffer);
+            return new DigitalTwinStateEvent(key, readString(buffer));
+        }
+
+        private DigitalTwinStateRelationship<?> readRelationship(ByteBuffer buffer) throws WldtDigitalTwinStateException {
+            String name = readString(buffer);
+            DigitalTwinStateRelationship<Object> relationship = new DigitalTwinStateRelationship<>(name, readString(buffer));
+            int instanceCount = readCount(buffer);
+            for(int i = 0; i < instanceCount; i++)
+                relationship.addInstance(readRelationshipInstance(buffer));
+            return relationship;
+        }
+
+        private DigitalTwinStateRelationshipInstance<?> readRelationshipInstance(ByteBuffer buffer) throws WldtDigitalTwinStateException {
+
+            String relationshipName = readString(buffer);
+            String instanceKey = readString(buffer);
+            Object targetId = readValue(buffer, 0);
+
+            Map<String, Object> metadata = null;
+            // The size is written plus one, 0 stands for null metadata
+            int metadataSize = readVarInt(buffer) - 1;
+            if(metadataSize >= 0) {
+                checkCount(metadataSize, buffer);
+                metadata = new HashMap<>();
+                for(int i = 0; i < metadataSize; i++) {
+                    String key = readString(buffer);
+                    metadata.put(key, readValue(buffer, 0));
+                }
+            }
+
+            return new DigitalTwinStateRelationshipInstance<>(relationshipName, targetId, instanceKey, metadata);
+        }
+
+        private Object readValue(ByteBuffer buffer, int depth) throws WldtDigitalTwinStateException {
+
+            checkValueDepth(depth);
+
+            byte valueType = buffer.get();
+
+            switch (valueType) {
+                case VALUE_NULL:
+                    return null;
+                case VALUE_TRUE:
+                    return Boolean.TRUE;
+                case VALUE_FALSE:
+                    return Boolean.FALSE;
+                case VALUE_INT:
+                    return readZigZagInt(buffer);
+                case VALUE_LONG:
+                    return readZigZagLong(buffer);
+                case VALUE_DOUBLE:
+                    return buffer.getDouble();
+                case VALUE_FLOAT:
+                    return buffer.getFloat();
+                case VALUE_STRING:
+                    return readString(buffer);
+                case VALUE_SHORT:
+                    return (short) readZigZagInt(buffer);
+                case VALUE_BYTE:
+                    return buffer.get();
+                case VALUE_CHAR:
+                    return (char) readVarInt(buffer);
+                case VALUE_BYTES:
+                    return readBytes(buffer);
+                case VALUE_LIST:
+                case VALUE_SET: {
+                    int size = readCount(buffer);
+                    Collection<Object> collection = valueType == VALUE_SET ? new HashSet<>() : new ArrayList<>();
+                    for(int i = 0; i < size; i++)
+                        collection.add(readValue(buffer, depth + 1));
+                    return collection;
+                }
+                case VALUE_MAP: {
+                    int size = readCount(buffer);
+                    Map<Object, Object> map = new HashMap<>();
+                    for(int i = 0; i < size; i++) {
+                        Object key = readValue(buffer, depth + 1);
+                        map.put(key, readValue(buffer, depth + 1));
+                    }
+                    return map;
+                }
+                case VALUE_SERIALIZED:
+                    return deserialize(readBytes(buffer));
+                default:
+                    throw new WldtDigitalTwinStateException(String.format("DigitalTwinStateBinaryCodec: unknown value type: %d", valueType));
+            }
+        }
+
+        private Object deserialize(byte[] bytes) throws WldtDigitalTwinStateException {
+            try (ObjectInputStream objectInputStream = new AllowListObjectInputStream(new ByteArrayInputStream(bytes), this.allowedSerializedClassNames)) {
+                return objectInputStream.readObject();
+            } catch (Exception e) {
+                throw new WldtDigitalTwinStateException(String.format("DigitalTwinStateBinaryCodec: error deserializing value ! Error: %s", e.getLocalizedMessage()));
+            }
+        }
+
+        private String readString(ByteBuffer buffer) {
+
+            int reference = readVarInt(buffer);
+
+            if(reference == 0)
+                return null;
+
+            if(reference > 1)
+                return dictionaryEntries.get(reference - 2);
+
+            if(reference < 0)
+                throw new IllegalStateException(String.format("Invalid string reference: %d", reference));
+
+            int length = readLength(buffer);
+            String value;
+
+            if(buffer.hasArray()) {
+                value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+                buffer.position(buffer.position() + length);
+            }
+            else {
+                byte[] bytes = new byte[length];
+                buffer.get(bytes);
+                value = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            if(dictionaryEntries.size() < MAX_DICTIONARY_SIZE)
+                dictionaryEntries.add(value);
+
+            return value;
+        }
+
+        private byte[] readBytes(ByteBuffer buffer) {
+            byte[] bytes = new byte[readLength(buffer)];
+            buffer.get(bytes);
+            return bytes;
+        }
+
+        /**
+         * Reads the number of elements of a collection: each element takes at least one byte, so a count larger
+         * than the remaining bytes can only come from a corrupted or malicious stream
+         */
+        private int readCount(ByteBuffer buffer) {
+            return checkCount(readVarInt(buffer), buffer);
+        }
+
+        private int checkCount(int count, ByteBuffer buffer) {
+            if(count < 0 || count > buffer.remaining())
+                throw new IllegalStateException(String.format("Invalid count: %d (remaining bytes: %d)", count, buffer.remaining()));
+            return count;
+        }
+
+        /**
+         * Reads the length of a string or of a byte array, that has to be contained in the remaining bytes
+         */
+        private int readLength(ByteBuffer buffer) {
+            int length = readVarInt(buffer);
+            if(length < 0 || length > buffer.remaining())
+                throw new IllegalStateException(String.format("Invalid length: %d (remaining bytes: %d)", length, buffer.remaining()));
+            return length;
+        }
+
+        private int readZigZagInt(ByteBuffer buffer) {
+            int value = readVarInt(buffer);
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private long readZigZagLong(ByteBuffer buffer) {
+            long value = readVarLong(buffer);
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private int readVarInt(ByteBuffer buffer) {
+            int value = 0;
+            for(int shift = 0; shift < 35; shift += 7) {
+                byte b = buffer.get();
+                value |= (b & 0x7F) << shift;
+                if(b >= 0)
+                    return value;
+            }
+            throw new IllegalStateException("Malformed varint");
+        }
+
+        private long readVarLong(ByteBuffer buffer) {
+            long value = 0;
+            for(int shift = 0; shift < 70; shift += 7) {
+                byte b = buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                if(b >= 0)
+                    return value;
+            }
+            throw new IllegalStateException("Malformed varint");
+        }
+    }
+
+    /**
+     * Object input stream resolving only the allowed classes (and the arrays of primitives or allowed classes)
+     */
+    private static final class AllowListObjectInputStream extends ObjectInputStream {
+
+        private final Set<String> allowedClassNames;
+
+        private AllowListObjectInputStream(InputStream inputStream, Set<String> allowedClassNames) throws IOException {
+            super(inputStream);
+            this.allowedClassNames = allowedClassNames;
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass objectStreamClass) throws IOException, ClassNotFoundException {
+            if(!isAllowed(objectStreamClass.getName()))
+                throw new InvalidClassException(objectStreamClass.getName(), "class not allowed by DigitalTwinStateBinaryCodec");
+            return super.resolveClass(objectStreamClass);
+        }
+
+        @Override
+        protected Class<?> resolveProxyClass(String[] interfaces) throws IOException {
+            throw new InvalidClassException("Proxy classes are not allowed by DigitalTwinStateBinaryCodec");
+        }
+
+        private boolean isAllowed(String className) {
+
+            int dimensionCount = 0;
+            while(dimensionCount < className.length() && className.charAt(dimensionCount) == '[')
+                dimensionCount++;
+
+            if(dimensionCount == 0)
+                return this.allowedClassNames.contains(className);
+
+            // Array of objects ("[Ljava.lang.String;") or of primitives ("[B")
+            String componentName = className.substring(dimensionCount);
+            if(componentName.startsWith("L") && componentName.endsWith(";"))
+                return this.allowedClassNames.contains(componentName.substring(1, componentName.length() - 1));
+
+            return componentName.length() == 1;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2025 - Current Year
+ * Marco Picone Ph.D
+ * Email: picone.m@gmail.com
+ * Website: https://www.marcopicone.net/
+ * All rights reserved.
+ *
+ * This program is provided under a Dual Licensing model:
+ * 1) GNU General Public License version 3.0 (GPL-3.0) for open-source, academic,
+ *    research, non-profit, and other non-commercial use; or
+ * 2) Commercial License, for any commercial use, proprietary development, or
+ *    closed-source distribution. To obtain a Commercial License, please contact: Marco Picone (picone.m@gmail.com)
+ *
+ * By using this software, you agree to comply with the terms of the applicable license.
+ * This applies to all forms of the software, including source code and compiled/binary forms.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+package it.wldt.core.state;
+
+import it.wldt.exception.WldtDigitalTwinStateException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reduces a list of already applied Digital Twin State changes to the minimal list producing the same state.
+ * The changes of each resource are merged into the position of its first change (a remove into the position of
+ * the first remove and the following add into the position of the first add), keeping the relative order between
+ * different resources (e.g. a relationship is still added before its instances and its instances are still removed
+ * before it):
+ * - the last update of a resource wins over the previous ones;
+ * - a resource added and then removed does not produce any change, as well as the changes of the instances of a
+ *   relationship added and then removed;
+ * - a resource added and then updated produces a single add with the final resource;
+ * - a resource removed and then added again produces a remove followed by an add with the final resource.
+ *
+ * @author Marco Picone, Ph.D. - picone.m@gmail.com
+ */
+final class DigitalTwinStateChangeCompactor {
+
+    private DigitalTwinStateChangeCompactor(){}
+
+    /**
+     * Compacts a list of changes already applied to obtain the provided state
+     *
+     * @param digitalTwinStateChangeList The applied changes in their original order
+     * @param endDigitalTwinState The state obtained applying the changes, used to read the final value of the properties
+     * @return The compacted list or the provided one if each resource is changed only once
+     * @throws WldtDigitalTwinStateException If the compacted changes can not be created
+     */
+    static List<DigitalTwinStateChange> compact(List<DigitalTwinStateChange> digitalTwinStateChangeList,
+                                                DigitalTwinState endDigitalTwinState) throws WldtDigitalTwinStateException {
+
+        int changeCount = digitalTwinStateChangeList.size();
+
+        if(changeCount < 2)
+            return digitalTwinStateChangeList;
+
+        // Each change is linked to the previous change of the same resource
+        String[] resourceIds = new String[changeCount];
+        int[] previousChangeIndexes = new int[changeCount];
+        Map<String, Integer> lastChangeIndexMap = new HashMap<>(changeCount * 2);
+        boolean hasRepeatedResources = false;
+
+        for(int index = 0; index < changeCount; index++) {
+            String resourceId = getResourceId(digitalTwinStateChangeList.get(index));
+            resourceIds[index] = resourceId != null ? resourceId : "change:" + index;
+            Integer previousChangeIndex = lastChangeIndexMap.put(resourceIds[index], index);
+            previousChangeIndexes[index] = previousChangeIndex != null ? previousChangeIndex : -1;
+            hasRepeatedResources |= previousChangeIndex != null;
+        }
+
+        if(!hasRepeatedResources)
+            return digitalTwinStateChangeList;
+
+        // Each compacted change takes the position of one of the original changes of its resource
+        DigitalTwinStateChange[] compactedChanges = new DigitalTwinStateChange[changeCount];
+        Set<String> cancelledRelationshipNames = null;
+
+        for(int index = 0; index < changeCount; index++) {
+
+            // The changes of a resource are merged when its last change is reached
+            if(lastChangeIndexMap.get(resourceIds[index]) != index)
+                continue;
+
+            if(previousChangeIndexes[index] < 0) {
+                compactedChanges[index] = digitalTwinStateChangeList.get(index);
+                continue;
+            }
+
+            List<Integer> resourceChangeIndexList = new ArrayList<>();
+            for(int changeIndex = index; changeIndex >= 0; changeIndex = previousChangeIndexes[changeIndex])
+                resourceChangeIndexList.add(changeIndex);
+            Collections.reverse(resourceChangeIndexList);
+
+            boolean cancelled = compactResourceChanges(digitalTwinStateChangeList, resourceChangeIndexList, endDigitalTwinState, compactedChanges);
+
+            DigitalTwinStateResource resource = digitalTwinStateChangeList.get(index).getResource();
+            if(cancelled && resource instanceof DigitalTwinStateRelationship) {
+                if(cancelledRelationshipNames == null)
+                    cancelledRelationshipNames = new HashSet<>();
+                cancelledRelationshipNames.add(((DigitalTwinStateRelationship<?>) resource).getName());
+            }
+        }
+
+        List<DigitalTwinStateChange> compactedChangeList = new ArrayList<>(lastChangeIndexMap.size());
+
+        for(DigitalTwinStateChange compactedChange : compactedChanges) {
+
+            if(compactedChange == null)
+                continue;
+
+            // The instances of a relationship that has been added and then removed do not exist in any notified state
+            if(cancelledRelationshipNames != null
+                    && compactedChange.getResource() instanceof DigitalTwinStateRelationshipInstance
+                    && cancelledRelationshipNames.contains(((DigitalTwinStateRelationshipInstance<?>) compactedChange.getResource()).getRelationshipName()))
+                continue;
+
+            compactedChangeList.add(compactedChange);
+        }
+
+        return compactedChangeList;
+    }
+
+    /**
+     * Places in the compacted changes the changes equivalent to the ordered list of changes of a single resource
+     *
+     * @param digitalTwinStateChangeList The applied changes in their original order
+     * @param resourceChangeIndexList The ordered positions of the changes of the resource
+     * @param endDigitalTwinState The state obtained applying the changes
+     * @param compactedChanges The compacted changes indexed by the position they take in the original list
+     * @return True if the resource has been added and then removed, so it does not produce any change
+     */
+    private static boolean compactResourceChanges(List<DigitalTwinStateChange> digitalTwinStateChangeList,
+                                                  List<Integer> resourceChangeIndexList,
+                                                  DigitalTwinState endDigitalTwinState,
+                                                  DigitalTwinStateChange[] compactedChanges) throws WldtDigitalTwinStateException {
+
+        int firstIndex = resourceChangeIndexList.get(0);
+        DigitalTwinStateChange firstChange = digitalTwinStateChangeList.get(firstIndex);
+        DigitalTwinStateChange lastChange = digitalTwinStateChangeList.get(resourceChangeIndexList.get(resourceChangeIndexList.size() - 1));
+
+        // An add can only be applied to a missing resource and a remove leaves the resource missing
+        boolean existedBefore = firstChange.getOperation() != DigitalTwinStateChange.Operation.OPERATION_ADD;
+        boolean existsAfter = lastChange.getOperation() != DigitalTwinStateChange.Operation.OPERATION_REMOVE;
+
+        int removeIndex = -1;
+        int addAfterRemoveIndex = -1;
+        boolean hasUpdate = false;
+        boolean hasValueUpdate = false;
+
+        for(int changeIndex : resourceChangeIndexList) {
+            switch (digitalTwinStateChangeList.get(changeIndex).getOperation()) {
+                case OPERATION_REMOVE:
+                    if(removeIndex < 0)
+                        removeIndex = changeIndex;
+                    break;
+                case OPERATION_ADD:
+                    if(removeIndex >= 0 && addAfterRemoveIndex < 0)
+                        addAfterRemoveIndex = changeIndex;
+                    break;
+                case OPERATION_UPDATE:
+                    hasUpdate = true;
+                    break;
+                case OPERATION_UPDATE_VALUE:
+                    hasValueUpdate = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        if(!existsAfter) {
+            if(!existedBefore)
+                return true;
+            compactedChanges[removeIndex] = lastChange;
+            return false;
+        }
+
+        // Only updates of the same kind: the last one wins
+        if(existedBefore && removeIndex < 0 && !(hasUpdate && hasValueUpdate)) {
+            compactedChanges[firstIndex] = lastChange;
+            return false;
+        }
+
+        DigitalTwinStateResource finalResource = getFinalResource(lastChange, endDigitalTwinState);
+
+        // The final value of the property is not available: the changes are kept as they are
+        if(finalResource == null) {
+            for(int changeIndex : resourceChangeIndexList)
+                compactedChanges[changeIndex] = digitalTwinStateChangeList.get(changeIndex);
+            return false;
+        }
+
+        DigitalTwinStateChange.ResourceType resourceType = lastChange.getResourceType() == DigitalTwinStateChange.ResourceType.PROPERTY_VALUE ?
+                DigitalTwinStateChange.ResourceType.PROPERTY :
+                lastChange.getResourceType();
+
+        if(!existedBefore)
+            compactedChanges[firstIndex] = new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_ADD, resourceType, finalResource);
+        else if(removeIndex >= 0) {
+            compactedChanges[removeIndex] = digitalTwinStateChangeList.get(removeIndex);
+            // Without an explicit add the resource is applied again by a later change
+            compactedChanges[addAfterRemoveIndex >= 0 ? addAfterRemoveIndex : resourceChangeIndexList.get(resourceChangeIndexList.size() - 1)] = new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_ADD, resourceType, finalResource);
+        }
+        else
+            compactedChanges[firstIndex] = new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_UPDATE, resourceType, finalResource);
+
+        return false;
+    }
+
+    /**
+     * Returns the resource at the end of the changes: a value update only carries the new value, so the
+     * whole property is read from the final state
+     */
+    private static DigitalTwinStateResource getFinalResource(DigitalTwinStateChange lastChange, DigitalTwinState endDigitalTwinState) {
+
+        if(lastChange.getOperation() != DigitalTwinStateChange.Operation.OPERATION_UPDATE_VALUE)
+            return lastChange.getResource();
+
+        try {
+            return endDigitalTwinState.getProperty(((DigitalTwinStateProperty<?>) lastChange.getResource()).getKey()).orElse(null);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Identifies the resource of a change. Properties are identified by their key for both property and
+     * property value changes.
+     * @return The resource identifier or null if the resource type is unknown
+     */
+    private static String getResourceId(DigitalTwinStateChange digitalTwinStateChange) {
+
+        DigitalTwinStateResource resource = digitalTwinStateChange.getResource();
+
+        if(resource instanceof DigitalTwinStateProperty)
+            return "property:" + ((DigitalTwinStateProperty<?>) resource).getKey();
+        else if(resource instanceof DigitalTwinStateAction)
+            return "action:" + ((DigitalTwinStateAction) resource).getKey();
+        else if(resource instanceof DigitalTwinStateEvent)
+            return "event:" + ((DigitalTwinStateEvent) resource).getKey();
+        else if(resource instanceof DigitalTwinStateRelationship)
+            return "relationship:" + ((DigitalTwinStateRelationship<?>) resource).getName();
+        else if(resource instanceof DigitalTwinStateRelationshipInstance) {
+            // The length of the relationship name avoids ambiguities with names and keys containing the separator
+            String relationshipName = ((DigitalTwinStateRelationshipInstance<?>) resource).getRelationshipName();
+            return "relationship_instance:" + relationshipName.length() + ":" + relationshipName + ":" + ((DigitalTwinStateRelationshipInstance<?>) resource).getKey();
+        }
+        else
+            return null;
+    }
+}
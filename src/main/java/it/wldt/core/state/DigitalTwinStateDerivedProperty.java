@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2025 - Current Year
+ * Marco Picone Ph.D
+ * Email: picone.m@gmail.com
+ * Website: https://www.marcopicone.net/
+ * All rights reserved.
+ *
+ * This program is provided under a Dual Licensing model:
+ * 1) GNU General Public License version 3.0 (GPL-3.0) for open-source, academic,
+ *    research, non-profit, and other non-commercial use; or
+ * 2) Commercial License, for any commercial use, proprietary development, or
+ *    closed-source distribution. To obtain a Commercial License, please contact: Marco Picone (picone.m@gmail.com)
+ *
+ * By using this software, you agree to comply with the terms of the applicable license.
+ * This applies to all forms of the software, including source code and compiled/binary forms.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+package it.wldt.core.state;
+
+import it.wldt.exception.WldtDigitalTwinStateException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Declaration of a property computed from other properties of the Digital Twin State (e.g. power = voltage x current).
+ * Once registered on the DigitalTwinStateManager, the property is recomputed within the commit of each transaction
+ * changing at least one of its inputs, and the resulting change is part of the same transaction. The input keys
+ * can refer to other derived properties as long as they do not form a cycle.
+ *
+ * The property is created with the default attributes the first time its value is computed, i.e. when all its
+ * inputs are available in the state. If one of the inputs is removed the derived property keeps its last value.
+ *
+ * @author Marco Picone, Ph.D. - picone.m@gmail.com
+ */
+public class DigitalTwinStateDerivedProperty {
+
+    private final String key;
+
+    private final List<String> inputPropertyKeys;
+
+    private final DigitalTwinStateDerivedPropertyFunction function;
+
+    public DigitalTwinStateDerivedProperty(String key, List<String> inputPropertyKeys, DigitalTwinStateDerivedPropertyFunction function) throws WldtDigitalTwinStateException {
+
+        if(key == null || inputPropertyKeys == null || inputPropertyKeys.isEmpty() || function == null)
+            throw new WldtDigitalTwinStateException("Error creating DigitalTwinStateDerivedProperty ! Key, input keys and function can not be null or empty !");
+
+        if(inputPropertyKeys.contains(null) || inputPropertyKeys.contains(key))
+            throw new WldtDigitalTwinStateException(String.format("Error creating DigitalTwinStateDerivedProperty %s ! Input keys can not be null or contain the derived property key !", key));
+
+        this.key = key;
+        this.inputPropertyKeys = Collections.unmodifiableList(new ArrayList<>(inputPropertyKeys));
+        this.function = function;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public List<String> getInputPropertyKeys() {
+        return inputPropertyKeys;
+    }
+
+    public DigitalTwinStateDerivedPropertyFunction getFunction() {
+        return function;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("DigitalTwinStateDerivedProperty{");
+        sb.append("key='").append(key).append('\'');
+        sb.append(", inputPropertyKeys=").append(inputPropertyKeys);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2025 - Current Year
+ * Marco Picone Ph.D
+ * Email: picone.m@gmail.com
+ * Website: https://www.marcopicone.net/
+ * All rights reserved.
+ *
+ * This program is provided under a Dual Licensing model:
+ * 1) GNU General Public License version 3.0 (GPL-3.0) for open-source, academic,
+ *    research, non-profit, and other non-commercial use; or
+ * 2) Commercial License, for any commercial use, proprietary development, or
+ *    closed-source distribution. To obtain a Commercial License, please contact: Marco Picone (picone.m@gmail.com)
+ *
+ * By using this software, you agree to comply with the terms of the applicable license.
+ * This applies to all forms of the software, including source code and compiled/binary forms.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+package it.wldt.core.state;
+
+import it.wldt.exception.WldtDigitalTwinStateException;
+
+import java.util.List;
+
+/**
+ * Computes the value of a derived property (see DigitalTwinStateDerivedProperty) from the values of its input
+ * properties. The function is executed by the DigitalTwinStateManager while committing a transaction, so it
+ * should be fast and free of side effects.
+ *
+ * Project: White Label Digital Twin Java Framework - (whitelabel-digitaltwin)
+ */
+public interface DigitalTwinStateDerivedPropertyFunction {
+
+    /**
+     * @param inputValues The values of the input properties in the order of the registered input keys
+     * @return The value of the derived property or null to leave it unchanged
+     * @throws WldtDigitalTwinStateException If the value can not be computed
+     */
+    public Object compute(List<Object> inputValues) throws WldtDigitalTwinStateException;
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2025 - Current Year
+ * Marco Picone Ph.D
+ * Email: picone.m@gmail.com
+ * Website: https://www.marcopicone.net/
+ * All rights reserved.
+ *
+ * This program is provided under a Dual Licensing model:
+ * 1) GNU General Public License version 3.0 (GPL-3.0) for open-source, academic,
+ *    research, non-profit, and other non-commercial use; or
+ * 2) Commercial License, for any commercial use, proprietary development, or
+ *    closed-source distribution. To obtain a Commercial License, please contact: Marco Picone (picone.m@gmail.com)
+ *
+ * By using this software, you agree to comply with the terms of the applicable license.
+ * This applies to all forms of the software, including source code and compiled/binary forms.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+package it.wldt.core.state;
+
+import it.wldt.exception.WldtDigitalTwinStateException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable dependency graph of the derived properties registered on a DigitalTwinStateManager. Registering or
+ * removing a derived property returns a new graph, so a commit always uses a consistent graph without locking.
+ * Derived properties are sorted in topological order, so a derived property is always computed after the
+ * derived properties it depends on.
+ *
+ * @author Marco Picone, Ph.D. - picone.m@gmail.com
+ */
+final class DigitalTwinStateDerivedPropertyGraph {
+
+    static final DigitalTwinStateDerivedPropertyGraph EMPTY = new DigitalTwinStateDerivedPropertyGraph();
+
+    private final Map<String, DigitalTwinStateDerivedProperty> derivedPropertyMap;
+
+    // Input property key -> derived properties using it
+    private final Map<String, List<DigitalTwinStateDerivedProperty>> dependentMap;
+
+    private final Map<String, Integer> topologicalIndexMap;
+
+    private DigitalTwinStateDerivedPropertyGraph() {
+        this.derivedPropertyMap = Collections.emptyMap();
+        this.dependentMap = Collections.emptyMap();
+        this.topologicalIndexMap = Collections.emptyMap();
+    }
+
+    private DigitalTwinStateDerivedPropertyGraph(Map<String, DigitalTwinStateDerivedProperty> derivedPropertyMap) throws WldtDigitalTwinStateException {
+
+        this.derivedPropertyMap = derivedPropertyMap;
+        this.dependentMap = new HashMap<>();
+        this.topologicalIndexMap = new HashMap<>();
+
+        Map<String, Integer> pendingInputCountMap = new HashMap<>();
+
+        for(DigitalTwinStateDerivedProperty derivedProperty : derivedPropertyMap.values()) {
+
+            int pendingInputCount = 0;
+
+            for(String inputPropertyKey : new HashSet<>(derivedProperty.getInputPropertyKeys())) {
+                this.dependentMap.computeIfAbsent(inputPropertyKey, key -> new ArrayList<>()).add(derivedProperty);
+                if(derivedPropertyMap.containsKey(inputPropertyKey))
+                    pendingInputCount++;
+            }
+
+            pendingInputCountMap.put(derivedProperty.getKey(), pendingInputCount);
+        }
+
+        // Kahn's algorithm: a derived property is sorted once all the derived properties it depends on are sorted
+        ArrayDeque<String> readyKeys = new ArrayDeque<>();
+        pendingInputCountMap.forEach((key, pendingInputCount) -> {
+            if(pendingInputCount == 0)
+                readyKeys.add(key);
+        });
+
+        while(!readyKeys.isEmpty()) {
+
+            String key = readyKeys.poll();
+            this.topologicalIndexMap.put(key, this.topologicalIndexMap.size());
+
+            for(DigitalTwinStateDerivedProperty dependent : this.dependentMap.getOrDefault(key, Collections.emptyList()))
+                if(pendingInputCountMap.merge(dependent.getKey(), -1, Integer::sum) == 0)
+                    readyKeys.add(dependent.getKey());
+        }
+
+        if(this.topologicalIndexMap.size() < derivedPropertyMap.size()) {
+            List<String> cyclicKeys = new ArrayList<>(derivedPropertyMap.keySet());
+            cyclicKeys.removeAll(this.topologicalIndexMap.keySet());
+            throw new WldtDigitalTwinStateException(String.format("Derived properties with cyclic dependencies: %s", cyclicKeys));
+        }
+    }
+
+    /**
+     * Returns a new graph with the provided derived property (replacing the one with the same key, if any)
+     * @throws WldtDigitalTwinStateException If the derived property introduces a cycle
+     */
+    DigitalTwinStateDerivedPropertyGraph withDerivedProperty(DigitalTwinStateDerivedProperty derivedProperty) throws WldtDigitalTwinStateException {
+        Map<String, DigitalTwinStateDerivedProperty> newDerivedPropertyMap = new LinkedHashMap<>(this.derivedPropertyMap);
+        newDerivedPropertyMap.put(derivedProperty.getKey(), derivedProperty);
+        return new DigitalTwinStateDerivedPropertyGraph(newDerivedPropertyMap);
+    }
+
+    /**
+     * Returns a new graph without the derived property with the provided key
+     */
+    DigitalTwinStateDerivedPropertyGraph withoutDerivedProperty(String key) throws WldtDigitalTwinStateException {
+
+        if(!this.derivedPropertyMap.containsKey(key))
+            return this;
+
+        Map<String, DigitalTwinStateDerivedProperty> newDerivedPropertyMap = new LinkedHashMap<>(this.derivedPropertyMap);
+        newDerivedPropertyMap.remove(key);
+
+        return newDerivedPropertyMap.isEmpty() ? EMPTY : new DigitalTwinStateDerivedPropertyGraph(newDerivedPropertyMap);
+    }
+
+    boolean isEmpty() {
+        return this.derivedPropertyMap.isEmpty();
+    }
+
+    Set<String> getDerivedPropertyKeys() {
+        return Collections.unmodifiableSet(this.derivedPropertyMap.keySet());
+    }
+
+    /**
+     * Returns the derived properties depending directly or transitively on the changed properties, in
+     * topological order
+     */
+    List<DigitalTwinStateDerivedProperty> getAffectedDerivedProperties(Set<String> changedPropertyKeys) {
+
+        List<DigitalTwinStateDerivedProperty> affectedDerivedProperties = new ArrayList<>();
+        Set<String> visitedKeys = new HashSet<>();
+        ArrayDeque<String> pendingKeys = new ArrayDeque<>(changedPropertyKeys);
+
+        while(!pendingKeys.isEmpty())
+            for(DigitalTwinStateDerivedProperty dependent : this.dependentMap.getOrDefault(pendingKeys.poll(), Collections.emptyList()))
+                if(visitedKeys.add(dependent.getKey())) {
+                    affectedDerivedProperties.add(dependent);
+                    pendingKeys.add(dependent.getKey());
+                }
+
+        if(affectedDerivedProperties.size() > 1)
+            affectedDerivedProperties.sort(Comparator.comparingInt(derivedProperty -> this.topologicalIndexMap.get(derivedProperty.getKey())));
+
+        return affectedDerivedProperties;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2025 - Current Year
+ * Marco Picone Ph.D
+ * Email: picone.m@gmail.com
+ * Website: https://www.marcopicone.net/
+ * All rights reserved.
+ *
+ * This program is provided under a Dual Licensing model:
+ * 1) GNU General Public License version 3.0 (GPL-3.0) for open-source, academic,
+ *    research, non-profit, and other non-commercial use; or
+ * 2) Commercial License, for any commercial use, proprietary development, or
+ *    closed-source distribution. To obtain a Commercial License, please contact: Marco Picone (picone.m@gmail.com)
+ *
+ * By using this software, you agree to comply with the terms of the applicable license.
+ * This applies to all forms of the software, including source code and compiled/binary forms.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+package it.wldt.core.state;
+
+import it.wldt.exception.WldtDigitalTwinStateException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Computes the list of changes transforming a Digital Twin State into another one (e.g. the delta between the
+ * state cached by a Digital Adapter and the current one). The persistent maps of the two states are compared
+ * structurally: the resources shared by states derived one from the other are skipped without being visited,
+ * so the cost depends on the number of differences and not on the size of the states. The remaining resources
+ * are compared by reference and then with equals.
+ *
+ * The produced changes can be applied to the previous state with a DigitalTwinStateTransaction:
+ * - a property whose value changed produces a value update if it is writable and its attributes did not change,
+ *   otherwise an update (or a remove followed by an add if the previous property was not writable);
+ * - a changed action or event produces an update;
+ * - a relationship with a different type is removed and added again, while the instances of a relationship
+ *   are compared one by one (a changed instance produces a remove followed by an add).
+ *
+ * @author Marco Picone, Ph.D. - picone.m@gmail.com
+ */
+public final class DigitalTwinStateDiff {
+
+    private DigitalTwinStateDiff(){}
+
+    /**
+     * Returns the changes transforming the previous state into the new one
+     *
+     * @param previousDigitalTwinState The previous state (e.g. cached by an adapter)
+     * @param newDigitalTwinState The new state
+     * @return The list of changes (empty if the states have the same resources)
+     * @throws WldtDigitalTwinStateException If one of the states is null or a change can not be created
+     */
+    public static List<DigitalTwinStateChange> diff(DigitalTwinState previousDigitalTwinState,
+                                                    DigitalTwinState newDigitalTwinState) throws WldtDigitalTwinStateException {
+
+        if(previousDigitalTwinState == null || newDigitalTwinState == null)
+            throw new WldtDigitalTwinStateException("DigitalTwinStateDiff: provided Digital Twin States can not be null !");
+
+        if(previousDigitalTwinState == newDigitalTwinState)
+            return Collections.emptyList();
+
+        List<DigitalTwinStateChange> changeList = new ArrayList<>();
+
+        for(PersistentHashTrieMap.Difference<String, DigitalTwinStateProperty<?>> difference :
+                PersistentHashTrieMap.diff(previousDigitalTwinState.getPropertyMap(), newDigitalTwinState.getPropertyMap()))
+            addPropertyChanges(difference.previousValue, difference.newValue, changeList);
+
+        for(PersistentHashTrieMap.Difference<String, DigitalTwinStateAction> difference :
+                PersistentHashTrieMap.diff(previousDigitalTwinState.getActionMap(), newDigitalTwinState.getActionMap()))
+            addResourceChanges(difference.previousValue, difference.newValue, DigitalTwinStateChange.ResourceType.ACTION, changeList);
+
+        for(PersistentHashTrieMap.Difference<String, DigitalTwinStateEvent> difference :
+                PersistentHashTrieMap.diff(previousDigitalTwinState.getEventMap(), newDigitalTwinState.getEventMap()))
+            addResourceChanges(difference.previousValue, difference.newValue, DigitalTwinStateChange.ResourceType.EVENT, changeList);
+
+        for(PersistentHashTrieMap.Difference<String, DigitalTwinStateRelationship<?>> difference :
+                PersistentHashTrieMap.diff(previousDigitalTwinState.getRelationshipMap(), newDigitalTwinState.getRelationshipMap()))
+            addRelationshipChanges(difference.previousValue, difference.newValue, changeList);
+
+        return changeList;
+    }
+
+    private static void addPropertyChanges(DigitalTwinStateProperty<?> previousProperty,
+                                           DigitalTwinStateProperty<?> newProperty,
+                                           List<DigitalTwinStateChange> changeList) throws WldtDigitalTwinStateException {
+
+        if(previousProperty == null || newProperty == null || !previousProperty.isWritable()) {
+            addResourceChanges(previousProperty, newProperty, DigitalTwinStateChange.ResourceType.PROPERTY, changeList);
+            return;
+        }
+
+        if(previousProperty.equals(newProperty) && previousProperty.getClass() == newProperty.getClass())
+            return;
+
+        if(hasSameAttributes(previousProperty, newProperty))
+            changeList.add(new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_UPDATE_VALUE, DigitalTwinStateChange.ResourceType.PROPERTY_VALUE, newProperty));
+        else
+            changeList.add(new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_UPDATE, DigitalTwinStateChange.ResourceType.PROPERTY, newProperty));
+    }
+
+    /**
+     * Checks if two properties only differ for their value, so that the new value can be applied to the
+     * previous property
+     */
+    private static boolean hasSameAttributes(DigitalTwinStateProperty<?> previousProperty, DigitalTwinStateProperty<?> newProperty) {
+        return previousProperty.getClass() == newProperty.getClass()
+                && previousProperty.isReadable() == newProperty.isReadable()
+                && previousProperty.isExposed() == newProperty.isExposed()
+                && newProperty.isWritable()
+                && Objects.equals(previousProperty.getType(), newProperty.getType())
+                && previousProperty.getValue() != null
+                && newProperty.getValue() != null
+                && previousProperty.getValue().getClass() == newProperty.getValue().getClass();
+    }
+
+    /**
+     * Adds the changes of a resource that can be added, removed and updated as a whole. Resources that can not
+     * be updated (e.g. a property that is not writable) are removed and added again.
+     */
+    private static void addResourceChanges(DigitalTwinStateResource previousResource,
+                                           DigitalTwinStateResource newResource,
+                                           DigitalTwinStateChange.ResourceType resourceType,
+                                           List<DigitalTwinStateChange> changeList) throws WldtDigitalTwinStateException {
+
+        if(previousResource == null)
+            changeList.add(new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_ADD, resourceType, newResource));
+        else if(newResource == null)
+            changeList.add(new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_REMOVE, resourceType, previousResource));
+        else if(!previousResource.equals(newResource)) {
+            if(previousResource instanceof DigitalTwinStateProperty && !((DigitalTwinStateProperty<?>) previousResource).isWritable()) {
+                changeList.add(new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_REMOVE, resourceType, previousResource));
+                changeList.add(new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_ADD, resourceType, newResource));
+            }
+            else
+                changeList.add(new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_UPDATE, resourceType, newResource));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void addRelationshipChanges(DigitalTwinStateRelationship<?> previousRelationship,
+                                               DigitalTwinStateRelationship<?> newRelationship,
+                                               List<DigitalTwinStateChange> changeList) throws WldtDigitalTwinStateException {
+
+        // Relationships can not be updated: a relationship with a different type is removed and added again
+        if(previousRelationship == null || newRelationship == null || !Objects.equals(previousRelationship.getType(), newRelationship.getType())) {
+            if(previousRelationship != null)
+                changeList.add(new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_REMOVE, DigitalTwinStateChange.ResourceType.RELATIONSHIP, previousRelationship));
+            if(newRelationship != null)
+                changeList.add(new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_ADD, DigitalTwinStateChange.ResourceType.RELATIONSHIP, newRelationship));
+            return;
+        }
+
+        PersistentHashTrieMap<String, DigitalTwinStateRelationshipInstance<?>> previousInstances =
+                (PersistentHashTrieMap<String, DigitalTwinStateRelationshipInstance<?>>) (PersistentHashTrieMap<String, ?>) previousRelationship.getInstanceMap();
+        PersistentHashTrieMap<String, DigitalTwinStateRelationshipInstance<?>> newInstances =
+                (PersistentHashTrieMap<String, DigitalTwinStateRelationshipInstance<?>>) (PersistentHashTrieMap<String, ?>) newRelationship.getInstanceMap();
+
+        for(PersistentHashTrieMap.Difference<String, DigitalTwinStateRelationshipInstance<?>> difference : PersistentHashTrieMap.diff(previousInstances, newInstances)) {
+
+            if(difference.previousValue != null && difference.newValue != null && isSameInstance(difference.previousValue, difference.newValue))
+                continue;
+
+            if(difference.previousValue != null)
+                changeList.add(new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_REMOVE, DigitalTwinStateChange.ResourceType.RELATIONSHIP_INSTANCE, difference.previousValue));
+            if(difference.newValue != null)
+                changeList.add(new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_ADD, DigitalTwinStateChange.ResourceType.RELATIONSHIP_INSTANCE, difference.newValue));
+        }
+    }
+
+    private static boolean isSameInstance(DigitalTwinStateRelationshipInstance<?> previousInstance, DigitalTwinStateRelationshipInstance<?> newInstance) {
+        return Objects.equals(previousInstance.getTargetId(), newInstance.getTargetId())
+                && Objects.equals(previousInstance.getMetadata(), newInstance.getMetadata());
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2025 - Current Year
+ * Marco Picone Ph.D
+ * Email: picone.m@gmail.com
+ * Website: https://www.marcopicone.net/
+ * All rights reserved.
+ *
+ * This program is provided under a Dual Licensing model:
+ * 1) GNU General Public License version 3.0 (GPL-3.0) for open-source, academic,
+ *    research, non-profit, and other non-commercial use; or
+ * 2) Commercial License, for any commercial use, proprietary development, or
+ *    closed-source distribution. To obtain a Commercial License, please contact: Marco Picone (picone.m@gmail.com)
+ *
+ * By using this software, you agree to comply with the terms of the applicable license.
+ * This applies to all forms of the software, including source code and compiled/binary forms.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+package it.wldt.core.state;
+
+import it.wldt.exception.WldtDigitalTwinStateException;
+
+/**
+ * Digital Twin State Property specialized for doubles (e.g., telemetry measurements).
+ * The value is stored in a primitive field and it can be read and updated through getDoubleValue() and
+ * setDoubleValue() without boxing. The generic getValue() and setValue() methods are still available and box the
+ * value on demand, so the property can be used everywhere a {@code DigitalTwinStateProperty<Double>} is expected.
+ *
+ * @author Marco Picone, Ph.D. - picone.m@gmail.com
+ */
+public class DigitalTwinStateDoubleProperty extends DigitalTwinStateProperty<Double> {
+
+    private static final String DOUBLE_PROPERTY_TYPE = Double.class.getName();
+
+    private double doubleValue;
+
+    public DigitalTwinStateDoubleProperty(String key, double value) throws WldtDigitalTwinStateException {
+        this(key, value, true, true, true);
+    }
+
+    public DigitalTwinStateDoubleProperty(String key, double value, boolean readable, boolean writable) throws WldtDigitalTwinStateException {
+        this(key, value, readable, writable, true);
+    }
+
+    public DigitalTwinStateDoubleProperty(String key, double value, boolean readable, boolean writable, boolean exposed) throws WldtDigitalTwinStateException {
+        super(key, DOUBLE_PROPERTY_TYPE, readable, writable, exposed);
+        this.doubleValue = value;
+    }
+
+    private DigitalTwinStateDoubleProperty(DigitalTwinStateDoubleProperty sourceProperty) {
+        super();
+        sourceProperty.copyFieldsTo(this);
+        this.doubleValue = sourceProperty.doubleValue;
+    }
+
+    @Override
+    DigitalTwinStateDoubleProperty copy() {
+        return new DigitalTwinStateDoubleProperty(this);
+    }
+
+    public double getDoubleValue() {
+        return doubleValue;
+    }
+
+    public void setDoubleValue(double value) {
+        checkNotFrozen();
+        this.doubleValue = value;
+    }
+
+    @Override
+    public Double getValue() {
+        return this.doubleValue;
+    }
+
+    @Override
+    public void setValue(Double value) {
+        checkNotFrozen();
+        if(value != null)
+            this.doubleValue = value;
+    }
+
+    @Override
+    public void setValueObject(Object valueObject) {
+        checkNotFrozen();
+        if(valueObject instanceof Double)
+            this.doubleValue = (Double) valueObject;
+    }
+}
@@ -60,11 +60,20 @@ public class DigitalTwinStateEvent extends DigitalTwinStateResource {
         this.type = type;
     }
 
+    /**
+     * Returns a new event with the same fields that can be independently updated
+     * @return the copy of the event
+     */
+    DigitalTwinStateEvent copy() {
+        return new DigitalTwinStateEvent(this.key, this.type);
+    }
+
     public String getKey() {
         return key;
     }
 
     public void setKey(String key) {
+        checkNotFrozen();
         this.key = key;
     }
 
@@ -73,6 +82,7 @@ public class DigitalTwinStateEvent extends DigitalTwinStateResource {
     }
 
     public void setType(String type) {
+        checkNotFrozen();
         this.type = type;
     }
 
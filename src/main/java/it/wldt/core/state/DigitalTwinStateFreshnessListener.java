@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2025 - Current Year
+ * Marco Picone Ph.D
+ * Email: picone.m@gmail.com
+ * Website: https://www.marcopicone.net/
+ * All rights reserved.
+ *
+ * This program is provided under a Dual Licensing model:
+ * 1) GNU General Public License version 3.0 (GPL-3.0) for open-source, academic,
+ *    research, non-profit, and other non-commercial use; or
+ * 2) Commercial License, for any commercial use, proprietary development, or
+ *    closed-source distribution. To obtain a Commercial License, please contact: Marco Picone (picone.m@gmail.com)
+ *
+ * By using this software, you agree to comply with the terms of the applicable license.
+ * This applies to all forms of the software, including source code and compiled/binary forms.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+package it.wldt.core.state;
+
+/**
+ * Listener notified by the DigitalTwinStateManager when a property with a max age (see setPropertyMaxAge()) goes
+ * stale because it has not been updated within its max age, and when a stale property is updated again.
+ * Notifications are serialized and delivered by the committing thread or by the timer service, so they should be
+ * handled quickly.
+ *
+ * Project: White Label Digital Twin Java Framework - (whitelabel-digitaltwin)
+ */
+public interface DigitalTwinStateFreshnessListener {
+
+    /**
+     * @param propertyKey The key of the property that went stale
+     * @param stalePropertyCount The number of stale properties including the notified one
+     */
+    public void onPropertyStale(String propertyKey, int stalePropertyCount);
+
+    /**
+     * @param propertyKey The key of the stale property updated again (or no longer tracked)
+     * @param stalePropertyCount The number of properties still stale
+     */
+    public void onPropertyFresh(String propertyKey, int stalePropertyCount);
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2025 - Current Year
+ * Marco Picone Ph.D
+ * Email: picone.m@gmail.com
+ * Website: https://www.marcopicone.net/
+ * All rights reserved.
+ *
+ * This program is provided under a Dual Licensing model:
+ * 1) GNU General Public License version 3.0 (GPL-3.0) for open-source, academic,
+ *    research, non-profit, and other non-commercial use; or
+ * 2) Commercial License, for any commercial use, proprietary development, or
+ *    closed-source distribution. To obtain a Commercial License, please contact: Marco Picone (picone.m@gmail.com)
+ *
+ * By using this software, you agree to comply with the terms of the applicable license.
+ * This applies to all forms of the software, including source code and compiled/binary forms.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+package it.wldt.core.state;
+
+import it.wldt.exception.WldtDigitalTwinStateException;
+
+/**
+ * Digital Twin State Property specialized for longs (e.g., counters and timestamps).
+ * The value is stored in a primitive field and it can be read and updated through getLongValue() and
+ * setLongValue() without boxing. The generic getValue() and setValue() methods are still available and box the
+ * value on demand, so the property can be used everywhere a {@code DigitalTwinStateProperty<Long>} is expected.
+ *
+ * @author Marco Picone, Ph.D. - picone.m@gmail.com
+ */
+public class DigitalTwinStateLongProperty extends DigitalTwinStateProperty<Long> {
+
+    private static final String LONG_PROPERTY_TYPE = Long.class.getName();
+
+    private long longValue;
+
+    public DigitalTwinStateLongProperty(String key, long value) throws WldtDigitalTwinStateException {
+        this(key, value, true, true, true);
+    }
+
+    public DigitalTwinStateLongProperty(String key, long value, boolean readable, boolean writable) throws WldtDigitalTwinStateException {
+        this(key, value, readable, writable, true);
+    }
+
+    public DigitalTwinStateLongProperty(String key, long value, boolean readable, boolean writable, boolean exposed) throws WldtDigitalTwinStateException {
+        super(key, LONG_PROPERTY_TYPE, readable, writable, exposed);
+        this.longValue = value;
+    }
+
+    private DigitalTwinStateLongProperty(DigitalTwinStateLongProperty sourceProperty) {
+        super();
+        sourceProperty.copyFieldsTo(this);
+        this.longValue = sourceProperty.longValue;
+    }
+
+    @Override
+    DigitalTwinStateLongProperty copy() {
+        return new DigitalTwinStateLongProperty(this);
+    }
+
+    public long getLongValue() {
+        return longValue;
+    }
+
+    public void setLongValue(long value) {
+        checkNotFrozen();
+        this.longValue = value;
+    }
+
+    @Override
+    public Long getValue() {
+        return this.longValue;
+    }
+
+    @Override
+    public void setValue(Long value) {
+        checkNotFrozen();
+        if(value != null)
+            this.longValue = value;
+    }
+
+    @Override
+    public void setValueObject(Object valueObject) {
+        checkNotFrozen();
+        if(valueObject instanceof Long)
+            this.longValue = (Long) valueObject;
+    }
+}
@@ -22,11 +22,17 @@ package it.wldt.core.state;
 
 import it.wldt.core.event.WldtEvent;
 import it.wldt.core.event.WldtEventBus;
+import it.wldt.core.execution.WldtTimerService;
+import it.wldt.core.execution.WldtTimerTask;
 import it.wldt.exception.*;
 import it.wldt.log.WldtLogger;
 import it.wldt.log.WldtLoggerProvider;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Authors:
@@ -58,14 +64,218 @@ public class DigitalTwinStateManager {
 
     private static final String DT_STATE_EVENT_METADATA_KEY_EVENT_KEY = "dt.state.event.metadata.key";
 
-    private DigitalTwinState digitalTwinState = null;
+    // Number of published states whose changed resources are kept to validate the independent transactions
+    private static final int COMMIT_LOG_SIZE = 1024;
 
-    private DigitalTwinStateTransaction digitalTwinStateTransaction = null;
+    /**
+     * Versions and changed resources of the last published states
+     */
+    private static class CommitLogEntry {
+
+        private final long version;
+
+        // Null when the whole state has been replaced (initialization or restore)
+        private final Set<String> changedResourceIds;
+
+        private CommitLogEntry(long version, Set<String> changedResourceIds) {
+            this.version = version;
+            this.changedResourceIds = changedResourceIds;
+        }
+    }
+
+    /**
+     * State update queued within the commit lock and published after releasing it: a single committed
+     * transaction or a group of committed transactions (whose changes are compacted at publication time)
+     */
+    private static class PendingStateNotification {
+
+        private final DigitalTwinState startDigitalTwinState;
+
+        private final DigitalTwinState endDigitalTwinState;
+
+        private final List<DigitalTwinStateChange> changeList;
+
+        // 0 for a single transaction notified at commit time
+        private final int groupTransactionCount;
+
+        private PendingStateNotification(DigitalTwinState startDigitalTwinState, DigitalTwinState endDigitalTwinState, List<DigitalTwinStateChange> changeList, int groupTransactionCount) {
+            this.startDigitalTwinState = startDigitalTwinState;
+            this.endDigitalTwinState = endDigitalTwinState;
+            this.changeList = changeList;
+            this.groupTransactionCount = groupTransactionCount;
+        }
+    }
+
+    /**
+     * Deadband policy of a property together with the time of its last committed value update
+     */
+    private static class PropertyDeadbandTracker {
+
+        private final DigitalTwinStatePropertyDeadband deadband;
+
+        private long lastAcceptedNanos;
+
+        private boolean hasAcceptedUpdates = false;
+
+        private long suppressedUpdateCount = 0;
+
+        private PropertyDeadbandTracker(DigitalTwinStatePropertyDeadband deadband, long nowNanos) {
+            this.deadband = deadband;
+            // The heartbeat starts from the registration of the policy
+            this.lastAcceptedNanos = nowNanos;
+        }
+
+        /**
+         * Checks an update added to a transaction: the time of the last accepted update is moved only when the
+         * transaction is committed (onUpdateCommitted), so an update that is never committed does not count
+         */
+        private synchronized boolean isSuppressed(Object currentValue, Object newValue, long nowNanos) {
+
+            long silenceNanos = nowNanos - this.lastAcceptedNanos;
+            boolean suppressed;
+
+            if(this.deadband.getMaxSilenceNanos() > 0 && silenceNanos >= this.deadband.getMaxSilenceNanos())
+                suppressed = false;
+            else if(this.hasAcceptedUpdates && silenceNanos < this.deadband.getMinIntervalNanos())
+                suppressed = true;
+            else
+                suppressed = this.deadband.isInsideDeadband(currentValue, newValue);
+
+            if(suppressed)
+                this.suppressedUpdateCount++;
+
+            return suppressed;
+        }
+
+        private synchronized void onUpdateCommitted(long nowNanos) {
+            this.lastAcceptedNanos = nowNanos;
+            this.hasAcceptedUpdates = true;
+        }
+
+        private synchronized long getSuppressedUpdateCount() {
+            return this.suppressedUpdateCount;
+        }
+    }
+
+    /**
+     * Max age of a property together with the time of its last update and the deadline task checking it
+     */
+    private static class PropertyFreshnessTracker {
+
+        private final long maxAgeNanos;
+
+        // Written at each update of the property: the deadline is not moved, it is checked when it expires
+        private volatile long lastUpdateNanos;
+
+        private volatile boolean stale = false;
+
+        private WldtTimerTask deadlineTask = null;
+
+        private PropertyFreshnessTracker(long maxAgeNanos, long nowNanos) {
+            this.maxAgeNanos = maxAgeNanos;
+            this.lastUpdateNanos = nowNanos;
+        }
+    }
 
-    private boolean isEditing = false;
+    /**
+     * Stale/fresh transition of a property waiting to be notified to the freshness listeners
+     */
+    private static class PendingFreshnessNotification {
+
+        private final String propertyKey;
+
+        private final boolean stale;
+
+        private final int stalePropertyCount;
+
+        private PendingFreshnessNotification(String propertyKey, boolean stale, int stalePropertyCount) {
+            this.propertyKey = propertyKey;
+            this.stale = stale;
+            this.stalePropertyCount = stalePropertyCount;
+        }
+    }
+
+    // Last committed state: it is never modified after being published, so readers can use it without locking
+    private volatile DigitalTwinState digitalTwinState = null;
+
+    private volatile DigitalTwinStateTransaction digitalTwinStateTransaction = null;
+
+    private volatile boolean isEditing = false;
+
+    // Serializes the publication of new states (and the queueing of their notification) across independent transactions
+    private final Object commitLock = new Object();
+
+    private final ArrayDeque<CommitLogEntry> commitLog = new ArrayDeque<>();
+
+    // State updates in version order (guarded by the commit lock) waiting to be published outside the commit lock
+    private final ArrayDeque<PendingStateNotification> pendingNotificationQueue = new ArrayDeque<>();
+
+    // Serializes the publication of the queued state updates keeping their order
+    private final Object notificationLock = new Object();
 
     private String digitalTwinId = null;
 
+    // Keys of the resources restored from a previous state (warm restart) that have not been confirmed yet by a
+    // committed transaction (e.g., by the shadowing function once the physical bindings are available)
+    private final Set<String> unreconciledPropertyKeys = ConcurrentHashMap.newKeySet();
+
+    private final Set<String> unreconciledActionKeys = ConcurrentHashMap.newKeySet();
+
+    private final Set<String> unreconciledEventKeys = ConcurrentHashMap.newKeySet();
+
+    private final Set<String> unreconciledRelationshipNames = ConcurrentHashMap.newKeySet();
+
+    // Group commit configuration: when enabled the notification of committed transactions is deferred and the
+    // transactions committed within the window (or up to the max number of transactions) are notified together
+    private volatile boolean groupCommitEnabled = false;
+
+    private long groupCommitWindowNanos = 0;
+
+    private int groupCommitMaxTransactions = 0;
+
+    private final Object groupCommitLock = new Object();
+
+    // Pending group: state before its first transaction, state after its last one and the merged change list
+    private DigitalTwinState groupStartDigitalTwinState = null;
+
+    private DigitalTwinState groupEndDigitalTwinState = null;
+
+    private List<DigitalTwinStateChange> groupChangeList = null;
+
+    private int groupTransactionCount = 0;
+
+    private WldtTimerTask groupFlushTask = null;
+
+    // Identifies the pending group: a window task scheduled for an already notified group does nothing
+    private long groupSequenceNumber = 0;
+
+    // Derived properties recomputed within the commit of the transactions changing their inputs
+    private volatile DigitalTwinStateDerivedPropertyGraph derivedPropertyGraph = DigitalTwinStateDerivedPropertyGraph.EMPTY;
+
+    // Deadband policies filtering the value updates of the properties before they are added to a transaction
+    private final Map<String, PropertyDeadbandTracker> propertyDeadbandMap = new ConcurrentHashMap<>();
+
+    private final AtomicLong suppressedUpdateCount = new AtomicLong();
+
+    // Histories of the numeric properties filled at the commit of the transactions changing them
+    private final Map<String, DigitalTwinStatePropertyHistory> propertyHistoryMap = new ConcurrentHashMap<>();
+
+    // Max ages of the properties: each tracked property has a single deadline on the timer service at a time
+    private final Map<String, PropertyFreshnessTracker> propertyFreshnessMap = new ConcurrentHashMap<>();
+
+    // Serializes the stale/fresh transitions (and the queueing of their notification)
+    private final Object freshnessLock = new Object();
+
+    private int stalePropertyCount = 0;
+
+    // Stale/fresh transitions in their order (guarded by the freshness lock) waiting to be notified outside the freshness lock
+    private final ArrayDeque<PendingFreshnessNotification> pendingFreshnessNotificationQueue = new ArrayDeque<>();
+
+    // Serializes the notification of the queued transitions keeping their order
+    private final Object freshnessNotificationLock = new Object();
+
+    private final List<DigitalTwinStateFreshnessListener> freshnessListenerList = new CopyOnWriteArrayList<>();
+
     private DigitalTwinStateManager(){
 
     }
@@ -79,23 +289,136 @@ public class DigitalTwinStateManager {
         this.digitalTwinState = new DigitalTwinState();
     }
 
+    /**
+     * Initializes the Digital Twin State with a copy of the provided one (e.g., the state skeleton of a
+     * DigitalTwinTemplate) without generating a transaction or any state update notification.
+     * It can only be used when there is no active transaction and it is meant to be used before starting the
+     * Digital Twin. The provided state is not modified and can be shared across multiple Digital Twin instances.
+     *
+     * @param initialDigitalTwinState The state used to initialize the Digital Twin State
+     * @throws WldtDigitalTwinStateException If the provided state is null or a transaction is in progress
+     */
+    public synchronized void initializeState(DigitalTwinState initialDigitalTwinState) throws WldtDigitalTwinStateException {
+
+        if(initialDigitalTwinState == null)
+            throw new WldtDigitalTwinStateException("Error initializing Digital Twin State ! Initial State = Null !");
+
+        if(this.isEditing)
+            throw new WldtDigitalTwinStateException("Error initializing Digital Twin State ! A state transaction is in progress !");
+
+        publishDigitalTwinState(new DigitalTwinState(initialDigitalTwinState), null);
+    }
+
+    /**
+     * Restores a previously committed Digital Twin State (e.g., the last state saved on a storage) in order to
+     * warm restart the Digital Twin without waiting for the physical bindings. The restored state is applied
+     * without generating a transaction and all its resources are marked as unreconciled.
+     * Creating a resource that has been restored and not yet reconciled is handled as an update of the restored
+     * one, and each committed change involving a restored resource marks it as reconciled. This allows the
+     * shadowing function to reconcile the state incrementally using its usual create/update logic.
+     *
+     * @param restoredDigitalTwinState The state to restore
+     * @throws WldtDigitalTwinStateException If the provided state is null, a transaction is in progress or the state can not be restored
+     */
+    public synchronized void restoreState(DigitalTwinState restoredDigitalTwinState) throws WldtDigitalTwinStateException {
+
+        if(restoredDigitalTwinState == null)
+            throw new WldtDigitalTwinStateException("Error restoring Digital Twin State ! Restored State = Null !");
+
+        if(this.isEditing)
+            throw new WldtDigitalTwinStateException("Error restoring Digital Twin State ! A state transaction is in progress !");
+
+        DigitalTwinState newDigitalTwinState = new DigitalTwinState(restoredDigitalTwinState);
+
+        this.unreconciledPropertyKeys.clear();
+        this.unreconciledActionKeys.clear();
+        this.unreconciledEventKeys.clear();
+        this.unreconciledRelationshipNames.clear();
+
+        try{
+            newDigitalTwinState.getPropertyList().ifPresent(propertyList -> propertyList.forEach(property -> this.unreconciledPropertyKeys.add(property.getKey())));
+            newDigitalTwinState.getActionList().ifPresent(actionList -> actionList.forEach(action -> this.unreconciledActionKeys.add(action.getKey())));
+            newDigitalTwinState.getEventList().ifPresent(eventList -> eventList.forEach(event -> this.unreconciledEventKeys.add(event.getKey())));
+            newDigitalTwinState.getRelationshipList().ifPresent(relationshipList -> relationshipList.forEach(relationship -> this.unreconciledRelationshipNames.add(relationship.getName())));
+        } catch (Exception e){
+            String errorMsg = String.format("Exception restoring Digital Twin State ! Error: %s", e.getLocalizedMessage());
+            logger.error(errorMsg);
+            throw new WldtDigitalTwinStateException(errorMsg);
+        }
+
+        publishDigitalTwinState(newDigitalTwinState, null);
+
+        logger.info("Digital Twin {} State Restored ! Unreconciled properties: {} actions: {} events: {} relationships: {}",
+                this.digitalTwinId,
+                this.unreconciledPropertyKeys.size(),
+                this.unreconciledActionKeys.size(),
+                this.unreconciledEventKeys.size(),
+                this.unreconciledRelationshipNames.size());
+    }
+
+    /**
+     * Marks as reconciled the restored resource involved in a committed change
+     *
+     * @param digitalTwinStateChange The committed change
+     */
+    private void markReconciled(DigitalTwinStateChange digitalTwinStateChange){
+
+        DigitalTwinStateResource resource = digitalTwinStateChange.getResource();
+
+        if(resource instanceof DigitalTwinStateProperty)
+            this.unreconciledPropertyKeys.remove(((DigitalTwinStateProperty<?>) resource).getKey());
+        else if(resource instanceof DigitalTwinStateAction)
+            this.unreconciledActionKeys.remove(((DigitalTwinStateAction) resource).getKey());
+        else if(resource instanceof DigitalTwinStateEvent)
+            this.unreconciledEventKeys.remove(((DigitalTwinStateEvent) resource).getKey());
+        else if(resource instanceof DigitalTwinStateRelationship)
+            this.unreconciledRelationshipNames.remove(((DigitalTwinStateRelationship<?>) resource).getName());
+        else if(resource instanceof DigitalTwinStateRelationshipInstance)
+            this.unreconciledRelationshipNames.remove(((DigitalTwinStateRelationshipInstance<?>) resource).getRelationshipName());
+    }
+
     /**
      * Start Digital Twin State Transaction to handle DT changes keeping track of variations.
      * Changes will be added to the transaction and applied only after calling the method commit.
+     * There is a single editing transaction for the whole manager: starting a new one while another one has not
+     * been committed (e.g., by another writer or after a failed commit) discards its changes and logs a warning.
+     * Concurrent writers have to use newStateTransaction() and commitStateTransaction(transaction).
      */
-    public void startStateTransaction(){
+    public synchronized void startStateTransaction(){
+
+        DigitalTwinStateTransaction openTransaction = this.digitalTwinStateTransaction;
+
+        if(this.isEditing && openTransaction != null && !openTransaction.isCommitted() && openTransaction.getChangeCount() > 0)
+            logger.warn("Digital Twin {} -> Starting a new State Transaction discards the {} changes of the open one ! Use newStateTransaction() for concurrent writers",
+                    this.digitalTwinId,
+                    openTransaction.getChangeCount());
+
         logger.info("Starting Digital Twin State edit ...");
         this.isEditing = true;
         this.digitalTwinStateTransaction = new DigitalTwinStateTransaction(digitalTwinState);
     }
 
+    /**
+     * Creates a new independent Digital Twin State Transaction based on the current state. Multiple transactions
+     * can be open at the same time (also from different threads): changes are added through the methods
+     * receiving the transaction as first parameter and applied by commitStateTransaction(transaction).
+     * The transaction is committed if no other committed transaction changed the same resources after its base
+     * version, otherwise the commit fails with a WldtDigitalTwinStateTransactionConflictException. Only the changed
+     * resources are checked: values read from the base state of the transaction are not validated at commit time.
+     *
+     * @return The new transaction
+     */
+    public DigitalTwinStateTransaction newStateTransaction(){
+        return new DigitalTwinStateTransaction(this.digitalTwinState);
+    }
+
     /**
      * Rollback an already started transaction to the Digital Twin State that we had at the beginning of the
      * transaction. All required changes will be removed and the state will be recovered to the previous one.
      * After that the Transaction status is still in edit mode and new changes can be added and then commited.
      * @throws WldtDigitalTwinStateException
      */
-    public void rollbackTransaction() throws WldtDigitalTwinStateException {
+    public synchronized void rollbackTransaction() throws WldtDigitalTwinStateException {
 
         if(!this.isEditing)
             throw new WldtDigitalTwinStateException("Trying to edit Digital Twin State without start a transaction ! Call start() and then commit() to apply changes");
@@ -104,68 +427,1090 @@ public class DigitalTwinStateManager {
     }
 
     /**
-     * Apply added changes to the Digital Twin State, update the DT'State accordingly and then notify Digital Adapters
-     * about the state's variation
-     * @throws WldtDigitalTwinStateException
+     * Apply added changes to the Digital Twin State, update the DT'State accordingly and then notify Digital Adapters
+     * about the state's variation
+     * @throws WldtDigitalTwinStateException
+     */
+    public synchronized void commitStateTransaction() throws WldtDigitalTwinStateException {
+
+        if(digitalTwinStateTransaction == null)
+            throw new WldtDigitalTwinStateException("Trying to commit Digital Twin State Transaction without properly starting it ! Call start() and then commit() to apply changes");
+
+        commitStateTransaction(this.digitalTwinStateTransaction);
+
+        //Reset Transaction Status & Flag
+        this.isEditing = false;
+        this.digitalTwinStateTransaction = null;
+    }
+
+    /**
+     * Commits an independent transaction created through newStateTransaction(). The changes are applied outside
+     * the commit lock on the state the transaction is based on, so transactions can be applied concurrently.
+     * If other transactions have been committed in the meantime the transaction is applied again on the new
+     * state when they changed different resources, while it fails when they changed at least one of its resources.
+     *
+     * @param digitalTwinStateTransaction The transaction to commit
+     * @throws WldtDigitalTwinStateTransactionConflictException If the transaction conflicts with a committed one
+     * @throws WldtDigitalTwinStateException If the transaction is not valid or its changes can not be applied
+     */
+    public void commitStateTransaction(DigitalTwinStateTransaction digitalTwinStateTransaction) throws WldtDigitalTwinStateException {
+
+        checkTransaction(digitalTwinStateTransaction);
+
+        if(digitalTwinStateTransaction.isCommitted())
+            throw new WldtDigitalTwinStateException("Digital Twin State Transaction already Committed !");
+
+        List<DigitalTwinStateChange> digitalTwinStateChangeList = digitalTwinStateTransaction.getDigitalTwinStateChangeList();
+
+        // All the updates have been dropped by the deadband policies: there is nothing to publish or notify
+        if(digitalTwinStateChangeList.isEmpty() && digitalTwinStateTransaction.getSuppressedUpdateCount() > 0) {
+            digitalTwinStateTransaction.handleStateChanges();
+            logger.debug("Digital Twin State Transaction with {} suppressed updates and no changes skipped", digitalTwinStateTransaction.getSuppressedUpdateCount());
+            return;
+        }
+
+        // Only the number of changes is logged: formatting the changes would make the commit cost grow with their number
+        logger.debug("Committing Digital Twin State Transaction with {} changes", digitalTwinStateChangeList.size());
+
+        Set<String> changedResourceIds = null;
+
+        while(true) {
+
+            //Apply Digital Twin State Changes on the state the transaction is based on
+            digitalTwinStateTransaction.handleStateChanges();
+
+            synchronized (this.commitLock) {
+
+                DigitalTwinState currentDigitalTwinState = this.digitalTwinState;
+
+                if(currentDigitalTwinState.getVersion() == digitalTwinStateTransaction.getBaseVersion()) {
+
+                    //Recompute the derived properties depending on the changed ones as part of the transaction
+                    if(applyDerivedProperties(digitalTwinStateTransaction))
+                        changedResourceIds = getChangedResourceIds(digitalTwinStateTransaction.getDigitalTwinStateChangeList());
+
+                    //Publish the result of the transaction as the new Digital Twin State
+                    publishDigitalTwinState(digitalTwinStateTransaction.getEndDigitalTwinState(), changedResourceIds != null ? changedResourceIds : getChangedResourceIds(digitalTwinStateChangeList));
+
+                    //Record the new values of the properties with a history
+                    recordPropertyHistory(digitalTwinStateTransaction);
+
+                    //Move the reference time of the deadband policies of the updated properties
+                    recordDeadbandUpdates(digitalTwinStateTransaction);
+
+                    //Mark as reconciled the restored resources involved in the transaction
+                    if(!isReconciled())
+                        digitalTwinStateChangeList.forEach(this::markReconciled);
+
+                    logger.info("Digital Twin State Transaction Committed ! Evaluation Instant: {}", this.digitalTwinState.getEvaluationInstant());
+
+                    //Queue the notification of the New Digital Twin State (or add the transaction to the pending group)
+                    if(this.groupCommitEnabled)
+                        addToGroupCommit(digitalTwinStateTransaction);
+                    else
+                        queueDigitalTwinStateUpdate(digitalTwinStateTransaction);
+
+                    break;
+                }
+
+                if(changedResourceIds == null)
+                    changedResourceIds = getChangedResourceIds(digitalTwinStateChangeList);
+
+                long conflictVersion = findConflictVersion(digitalTwinStateTransaction.getBaseVersion(), changedResourceIds);
+
+                if(conflictVersion >= 0) {
+                    // The transaction is reset on its base state and can be inspected but not committed again
+                    digitalTwinStateTransaction.rebase(digitalTwinStateTransaction.getStartDigitalTwinState());
+                    throw new WldtDigitalTwinStateTransactionConflictException(String.format("Digital Twin State Transaction based on version %d conflicts with the committed version %d !",
+                            digitalTwinStateTransaction.getBaseVersion(),
+                            conflictVersion));
+                }
+
+                //Apply again the changes on top of the current state
+                digitalTwinStateTransaction.rebase(currentDigitalTwinState);
+            }
+        }
+
+        //Publish the queued state updates (including the one of the transaction) outside the commit lock
+        publishPendingNotifications();
+
+        //Refresh the freshness of the updated properties (outside the commit lock as it can notify the listeners)
+        refreshPropertyFreshness(digitalTwinStateTransaction);
+    }
+
+    /**
+     * Creates, fills through the provided body and commits a new independent transaction. When the commit fails
+     * because of a conflict the body is executed again on a new transaction up to the provided number of attempts.
+     *
+     * @param digitalTwinStateTransactionBody The body adding the changes to the transaction
+     * @param maxAttempts The maximum number of attempts (at least 1)
+     * @return The committed transaction
+     * @throws WldtDigitalTwinStateTransactionConflictException If the transaction still conflicts after the last attempt
+     * @throws WldtDigitalTwinStateException If the body fails or the changes can not be applied
+     */
+    public DigitalTwinStateTransaction executeStateTransaction(DigitalTwinStateTransactionBody digitalTwinStateTransactionBody, int maxAttempts) throws WldtDigitalTwinStateException {
+
+        if(digitalTwinStateTransactionBody == null || maxAttempts < 1)
+            throw new WldtDigitalTwinStateException("Error executing Digital Twin State Transaction ! Null body or max attempts < 1 !");
+
+        for(int attempt = 1; ; attempt++) {
+
+            DigitalTwinStateTransaction digitalTwinStateTransaction = newStateTransaction();
+            digitalTwinStateTransactionBody.apply(digitalTwinStateTransaction);
+
+            try {
+                commitStateTransaction(digitalTwinStateTransaction);
+                return digitalTwinStateTransaction;
+            } catch (WldtDigitalTwinStateTransactionConflictException e) {
+                if(attempt >= maxAttempts)
+                    throw e;
+                logger.debug("Digital Twin State Transaction conflict ! Attempt {} of {}", attempt, maxAttempts);
+            }
+        }
+    }
+
+    /**
+     * Registers a derived property (or replaces the one with the same key). The property is recomputed within the
+     * commit of each transaction changing at least one of its inputs (directly or through other derived
+     * properties) and its change is notified together with the changes of the transaction.
+     *
+     * @param derivedProperty The derived property
+     * @throws WldtDigitalTwinStateException If the derived property is null or introduces a cyclic dependency
+     */
+    public void registerDerivedProperty(DigitalTwinStateDerivedProperty derivedProperty) throws WldtDigitalTwinStateException {
+
+        if(derivedProperty == null)
+            throw new WldtDigitalTwinStateException("Error registering derived property ! Derived Property = Null !");
+
+        synchronized (this.commitLock) {
+            try {
+                this.derivedPropertyGraph = this.derivedPropertyGraph.withDerivedProperty(derivedProperty);
+            } catch (WldtDigitalTwinStateException e) {
+                throw new WldtDigitalTwinStateException(String.format("Error registering derived property %s ! Error: %s", derivedProperty.getKey(), e.getLocalizedMessage()));
+            }
+        }
+    }
+
+    /**
+     * Registers a derived property computed from the provided input properties
+     *
+     * @param propertyKey The key of the derived property
+     * @param inputPropertyKeys The keys of the input properties
+     * @param function The function computing the value from the input values
+     * @throws WldtDigitalTwinStateException If the parameters are not valid or the property introduces a cyclic dependency
+     */
+    public void registerDerivedProperty(String propertyKey, List<String> inputPropertyKeys, DigitalTwinStateDerivedPropertyFunction function) throws WldtDigitalTwinStateException {
+        registerDerivedProperty(new DigitalTwinStateDerivedProperty(propertyKey, inputPropertyKeys, function));
+    }
+
+    /**
+     * Stops recomputing a derived property. The property is not removed from the Digital Twin State.
+     *
+     * @param propertyKey The key of the derived property
+     * @throws WldtDigitalTwinStateException If the dependency graph can not be updated
+     */
+    public void unRegisterDerivedProperty(String propertyKey) throws WldtDigitalTwinStateException {
+        synchronized (this.commitLock) {
+            this.derivedPropertyGraph = this.derivedPropertyGraph.withoutDerivedProperty(propertyKey);
+        }
+    }
+
+    public Set<String> getDerivedPropertyKeys() {
+        return this.derivedPropertyGraph.getDerivedPropertyKeys();
+    }
+
+    /**
+     * Attaches a deadband policy to a property (or replaces the current one). The value updates of the property
+     * falling within the deadband are dropped before being added to the transaction and counted as suppressed.
+     * The policy can be attached before the property is created and is retained if the property is deleted.
+     *
+     * @param propertyKey The key of the property
+     * @param deadband The deadband policy or null to remove the current one
+     * @throws WldtDigitalTwinStateException If the property key is null
+     */
+    public void setPropertyDeadband(String propertyKey, DigitalTwinStatePropertyDeadband deadband) throws WldtDigitalTwinStateException {
+
+        if(propertyKey == null)
+            throw new WldtDigitalTwinStateException("Error setting property deadband ! Property Key = Null !");
+
+        if(deadband == null)
+            this.propertyDeadbandMap.remove(propertyKey);
+        else
+            this.propertyDeadbandMap.put(propertyKey, new PropertyDeadbandTracker(deadband, System.nanoTime()));
+    }
+
+    public void removePropertyDeadband(String propertyKey) {
+        if(propertyKey != null)
+            this.propertyDeadbandMap.remove(propertyKey);
+    }
+
+    public Optional<DigitalTwinStatePropertyDeadband> getPropertyDeadband(String propertyKey) {
+        PropertyDeadbandTracker tracker = propertyKey != null ? this.propertyDeadbandMap.get(propertyKey) : null;
+        return tracker != null ? Optional.of(tracker.deadband) : Optional.empty();
+    }
+
+    /**
+     * @return The number of value updates dropped by the deadband policies since the creation of the manager
+     */
+    public long getSuppressedUpdateCount() {
+        return this.suppressedUpdateCount.get();
+    }
+
+    /**
+     * @param propertyKey The key of the property
+     * @return The number of value updates of the property dropped by its current deadband policy
+     */
+    public long getSuppressedUpdateCount(String propertyKey) {
+        PropertyDeadbandTracker tracker = propertyKey != null ? this.propertyDeadbandMap.get(propertyKey) : null;
+        return tracker != null ? tracker.getSuppressedUpdateCount() : 0;
+    }
+
+    /**
+     * Enables (or replaces) the history of a numeric property: a fixed-capacity buffer recording the value of the
+     * property at each commit changing it. If the property already exists its current value is the first sample.
+     *
+     * @param propertyKey The key of the property
+     * @param capacity The number of retained samples (16 bytes each)
+     * @return The history of the property
+     * @throws WldtDigitalTwinStateException If the property key is null or the capacity is not positive
+     */
+    public DigitalTwinStatePropertyHistory enablePropertyHistory(String propertyKey, int capacity) throws WldtDigitalTwinStateException {
+
+        DigitalTwinStatePropertyHistory propertyHistory = new DigitalTwinStatePropertyHistory(propertyKey, capacity);
+
+        synchronized (this.commitLock) {
+
+            DigitalTwinState currentDigitalTwinState = this.digitalTwinState;
+            DigitalTwinStateProperty<?> currentProperty = currentDigitalTwinState != null ? currentDigitalTwinState.getPropertyMap().get(propertyKey) : null;
+
+            if(currentProperty != null)
+                propertyHistory.append(getTimestampMillis(currentDigitalTwinState), currentProperty);
+
+            this.propertyHistoryMap.put(propertyKey, propertyHistory);
+        }
+
+        return propertyHistory;
+    }
+
+    public void disablePropertyHistory(String propertyKey) {
+        if(propertyKey != null)
+            this.propertyHistoryMap.remove(propertyKey);
+    }
+
+    public Optional<DigitalTwinStatePropertyHistory> getPropertyHistory(String propertyKey) {
+        return propertyKey != null ? Optional.ofNullable(this.propertyHistoryMap.get(propertyKey)) : Optional.empty();
+    }
+
+    /**
+     * Sets (or replaces) the max age of a property: if the property is not updated (or reported with a value
+     * dropped by its deadband) within its max age it goes stale and the freshness listeners are notified, the
+     * same happens when it is updated again. Each update only records its time and each property has a single
+     * deadline on the timer service checked when it expires, so the tracking does not scan the state.
+     * The age starts from the call and the tracking ends when the property is deleted.
+     *
+     * @param propertyKey The key of the property
+     * @param maxAge The max age of the property
+     * @param unit The time unit of the max age
+     * @throws WldtDigitalTwinStateException If the property key is null or the max age is not positive
+     */
+    public void setPropertyMaxAge(String propertyKey, long maxAge, TimeUnit unit) throws WldtDigitalTwinStateException {
+
+        if(propertyKey == null || maxAge <= 0 || unit == null)
+            throw new WldtDigitalTwinStateException("Error setting property max age ! Property Key = Null or Max Age <= 0 !");
+
+        registerPropertyMaxAge(propertyKey, unit.toNanos(maxAge));
+    }
+
+    private void registerPropertyMaxAge(String propertyKey, long maxAgeNanos) {
+
+        PropertyFreshnessTracker tracker = new PropertyFreshnessTracker(maxAgeNanos, System.nanoTime());
+
+        synchronized (this.freshnessLock) {
+            stopFreshnessTracking(propertyKey, this.propertyFreshnessMap.put(propertyKey, tracker));
+            scheduleFreshnessDeadline(propertyKey, tracker, tracker.maxAgeNanos);
+        }
+
+        publishFreshnessNotifications();
+    }
+
+    public void removePropertyMaxAge(String propertyKey) {
+        if(propertyKey == null)
+            return;
+        synchronized (this.freshnessLock) {
+            stopFreshnessTracking(propertyKey, this.propertyFreshnessMap.remove(propertyKey));
+        }
+        publishFreshnessNotifications();
+    }
+
+    /**
+     * @param propertyKey The key of the property
+     * @param unit The time unit of the returned max age
+     * @return The max age of the property or -1 if it is not tracked
+     */
+    public long getPropertyMaxAge(String propertyKey, TimeUnit unit) {
+        PropertyFreshnessTracker tracker = propertyKey != null ? this.propertyFreshnessMap.get(propertyKey) : null;
+        return tracker != null ? unit.convert(tracker.maxAgeNanos, TimeUnit.NANOSECONDS) : -1;
+    }
+
+    public boolean isPropertyStale(String propertyKey) {
+        PropertyFreshnessTracker tracker = propertyKey != null ? this.propertyFreshnessMap.get(propertyKey) : null;
+        return tracker != null && tracker.stale;
+    }
+
+    public int getStalePropertyCount() {
+        synchronized (this.freshnessLock) {
+            return this.stalePropertyCount;
+        }
+    }
+
+    public List<String> getStalePropertyKeys() {
+        List<String> stalePropertyKeyList = new ArrayList<>();
+        for(Map.Entry<String, PropertyFreshnessTracker> entry : this.propertyFreshnessMap.entrySet())
+            if(entry.getValue().stale)
+                stalePropertyKeyList.add(entry.getKey());
+        return stalePropertyKeyList;
+    }
+
+    public void addFreshnessListener(DigitalTwinStateFreshnessListener freshnessListener) {
+        if(freshnessListener != null)
+            this.freshnessListenerList.add(freshnessListener);
+    }
+
+    public void removeFreshnessListener(DigitalTwinStateFreshnessListener freshnessListener) {
+        this.freshnessListenerList.remove(freshnessListener);
+    }
+
+    /**
+     * Records the update of the tracked properties changed by a committed transaction, starts tracking the
+     * properties created with a max age and drops the tracking of the deleted ones
+     */
+    private void refreshPropertyFreshness(DigitalTwinStateTransaction digitalTwinStateTransaction) {
+
+        if(this.propertyFreshnessMap.isEmpty() && !digitalTwinStateTransaction.hasPropertyMaxAges())
+            return;
+
+        DigitalTwinState endDigitalTwinState = digitalTwinStateTransaction.getEndDigitalTwinState();
+        long nowNanos = System.nanoTime();
+
+        for(DigitalTwinStateChange digitalTwinStateChange : digitalTwinStateTransaction.getDigitalTwinStateChangeList()) {
+
+            if(!(digitalTwinStateChange.getResource() instanceof DigitalTwinStateProperty))
+                continue;
+
+            String propertyKey = ((DigitalTwinStateProperty<?>) digitalTwinStateChange.getResource()).getKey();
+
+            // A property removed and created again by the same transaction is still tracked
+            if(digitalTwinStateChange.getOperation() == DigitalTwinStateChange.Operation.OPERATION_REMOVE) {
+                if(endDigitalTwinState.getPropertyMap().get(propertyKey) == null)
+                    removePropertyMaxAge(propertyKey);
+                continue;
+            }
+
+            // The age of a property created with a max age starts from the commit of its creation
+            Long maxAgeNanos = digitalTwinStateChange.getOperation() == DigitalTwinStateChange.Operation.OPERATION_ADD ?
+                    digitalTwinStateTransaction.getPropertyMaxAgeNanos(propertyKey) : null;
+
+            if(maxAgeNanos != null && endDigitalTwinState.getPropertyMap().get(propertyKey) != null)
+                registerPropertyMaxAge(propertyKey, maxAgeNanos);
+            else
+                touchPropertyFreshness(propertyKey, nowNanos);
+        }
+    }
+
+    private void touchPropertyFreshness(String propertyKey, long nowNanos) {
+
+        PropertyFreshnessTracker tracker = this.propertyFreshnessMap.get(propertyKey);
+
+        if(tracker == null)
+            return;
+
+        // The time is written before reading the flag: a deadline marking the property as stale concurrently
+        // either sees the new time or is seen here
+        tracker.lastUpdateNanos = nowNanos;
+
+        if(!tracker.stale)
+            return;
+
+        synchronized (this.freshnessLock) {
+            if(tracker.stale && this.propertyFreshnessMap.get(propertyKey) == tracker) {
+                tracker.stale = false;
+                this.stalePropertyCount--;
+                scheduleFreshnessDeadline(propertyKey, tracker, tracker.maxAgeNanos);
+                queueFreshnessNotification(propertyKey, false);
+            }
+        }
+
+        publishFreshnessNotifications();
+    }
+
+    private void onFreshnessDeadline(String propertyKey, PropertyFreshnessTracker tracker) {
+
+        synchronized (this.freshnessLock) {
+
+            if(tracker.stale || this.propertyFreshnessMap.get(propertyKey) != tracker)
+                return;
+
+            tracker.stale = true;
+
+            // Updated after the previous deadline: a new one is scheduled from the last update
+            long ageNanos = System.nanoTime() - tracker.lastUpdateNanos;
+            if(ageNanos < tracker.maxAgeNanos) {
+                tracker.stale = false;
+                scheduleFreshnessDeadline(propertyKey, tracker, tracker.maxAgeNanos - ageNanos);
+                return;
+            }
+
+            this.stalePropertyCount++;
+            queueFreshnessNotification(propertyKey, true);
+        }
+
+        publishFreshnessNotifications();
+    }
+
+    private void scheduleFreshnessDeadline(String propertyKey, PropertyFreshnessTracker tracker, long delayNanos) {
+        try {
+            tracker.deadlineTask = WldtTimerService.getInstance().schedule(this.digitalTwinId,
+                    () -> onFreshnessDeadline(propertyKey, tracker),
+                    delayNanos,
+                    TimeUnit.NANOSECONDS);
+        } catch (WldtTimerException e) {
+            logger.error("Error scheduling the max age deadline of property {} ! Error: {}", propertyKey, e.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * Cancels the deadline of a tracker that is no longer in use, a stale property is notified as fresh
+     */
+    private void stopFreshnessTracking(String propertyKey, PropertyFreshnessTracker tracker) {
+
+        if(tracker == null)
+            return;
+
+        if(tracker.deadlineTask != null)
+            tracker.deadlineTask.cancel();
+
+        if(tracker.stale) {
+            tracker.stale = false;
+            this.stalePropertyCount--;
+            queueFreshnessNotification(propertyKey, false);
+        }
+    }
+
+    /**
+     * Queues a stale/fresh transition with the current stale property count, called holding the freshness lock
+     */
+    private void queueFreshnessNotification(String propertyKey, boolean stale) {
+        this.pendingFreshnessNotificationQueue.add(new PendingFreshnessNotification(propertyKey, stale, this.stalePropertyCount));
+    }
+
+    /**
+     * Notifies the queued stale/fresh transitions in their order without holding the freshness lock, so a slow
+     * listener does not block the commits and the deadlines of the other properties
+     */
+    private void publishFreshnessNotifications() {
+
+        synchronized (this.freshnessNotificationLock) {
+
+            while(true) {
+
+                PendingFreshnessNotification pendingFreshnessNotification;
+
+                synchronized (this.freshnessLock) {
+                    pendingFreshnessNotification = this.pendingFreshnessNotificationQueue.poll();
+                }
+
+                if(pendingFreshnessNotification == null)
+                    return;
+
+                for(DigitalTwinStateFreshnessListener freshnessListener : this.freshnessListenerList) {
+                    try {
+                        if(pendingFreshnessNotification.stale)
+                            freshnessListener.onPropertyStale(pendingFreshnessNotification.propertyKey, pendingFreshnessNotification.stalePropertyCount);
+                        else
+                            freshnessListener.onPropertyFresh(pendingFreshnessNotification.propertyKey, pendingFreshnessNotification.stalePropertyCount);
+                    } catch (Exception e) {
+                        logger.error("Error notifying {} property {} ! Error: {}",
+                                pendingFreshnessNotification.stale ? "stale" : "fresh",
+                                pendingFreshnessNotification.propertyKey,
+                                e.getLocalizedMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Appends to the histories of the changed properties their value in the state published by a transaction
+     */
+    private void recordPropertyHistory(DigitalTwinStateTransaction digitalTwinStateTransaction) {
+
+        if(this.propertyHistoryMap.isEmpty())
+            return;
+
+        DigitalTwinState endDigitalTwinState = digitalTwinStateTransaction.getEndDigitalTwinState();
+        long timestampMillis = getTimestampMillis(endDigitalTwinState);
+
+        for(DigitalTwinStateChange digitalTwinStateChange : digitalTwinStateTransaction.getDigitalTwinStateChangeList()) {
+
+            if(!(digitalTwinStateChange.getResource() instanceof DigitalTwinStateProperty) || digitalTwinStateChange.getOperation() == DigitalTwinStateChange.Operation.OPERATION_REMOVE)
+                continue;
+
+            String propertyKey = ((DigitalTwinStateProperty<?>) digitalTwinStateChange.getResource()).getKey();
+            DigitalTwinStatePropertyHistory propertyHistory = this.propertyHistoryMap.get(propertyKey);
+
+            if(propertyHistory == null)
+                continue;
+
+            DigitalTwinStateProperty<?> property = endDigitalTwinState.getPropertyMap().get(propertyKey);
+            if(property != null)
+                propertyHistory.append(timestampMillis, property);
+        }
+    }
+
+    /**
+     * Marks as accepted the committed value updates of the properties with a deadband policy
+     */
+    private void recordDeadbandUpdates(DigitalTwinStateTransaction digitalTwinStateTransaction) {
+
+        if(this.propertyDeadbandMap.isEmpty())
+            return;
+
+        long nowNanos = System.nanoTime();
+
+        for(DigitalTwinStateChange digitalTwinStateChange : digitalTwinStateTransaction.getDigitalTwinStateChangeList()) {
+
+            // Only the value updates are checked against the deadband policies
+            if(digitalTwinStateChange.getOperation() != DigitalTwinStateChange.Operation.OPERATION_UPDATE_VALUE || !(digitalTwinStateChange.getResource() instanceof DigitalTwinStateProperty))
+                continue;
+
+            PropertyDeadbandTracker tracker = this.propertyDeadbandMap.get(((DigitalTwinStateProperty<?>) digitalTwinStateChange.getResource()).getKey());
+            if(tracker != null)
+                tracker.onUpdateCommitted(nowNanos);
+        }
+    }
+
+    private static long getTimestampMillis(DigitalTwinState digitalTwinState) {
+        return digitalTwinState.getEvaluationInstant() != null ? digitalTwinState.getEvaluationInstant().toEpochMilli() : System.currentTimeMillis();
+    }
+
+    /**
+     * Checks a value update against the deadband policy of its property (if any) using as reference the value of
+     * the property in the state the transaction is based on. Suppressed updates are counted on the transaction.
+     *
+     * @return True if the update has to be dropped
+     */
+    private boolean isSuppressedUpdate(DigitalTwinStateTransaction digitalTwinStateTransaction, String propertyKey, Object newValue) {
+
+        if(this.propertyDeadbandMap.isEmpty() || propertyKey == null)
+            return false;
+
+        PropertyDeadbandTracker tracker = this.propertyDeadbandMap.get(propertyKey);
+
+        if(tracker == null)
+            return false;
+
+        DigitalTwinState startDigitalTwinState = digitalTwinStateTransaction.getStartDigitalTwinState();
+        DigitalTwinStateProperty<?> currentProperty = startDigitalTwinState != null ? startDigitalTwinState.getPropertyMap().get(propertyKey) : null;
+
+        if(!tracker.isSuppressed(currentProperty != null ? currentProperty.getValue() : null, newValue, System.nanoTime()))
+            return false;
+
+        digitalTwinStateTransaction.addSuppressedUpdates(1);
+        this.suppressedUpdateCount.incrementAndGet();
+
+        // The update is dropped but the physical asset still reported the value of the property
+        touchPropertyFreshness(propertyKey, System.nanoTime());
+
+        return true;
+    }
+
+    /**
+     * Returns the entries of a value map that are not dropped by the deadband policies of their properties
+     * (the same map if none of them is dropped)
+     */
+    private Map<String, ?> filterSuppressedUpdates(DigitalTwinStateTransaction digitalTwinStateTransaction, Map<String, ?> propertyValueMap) {
+
+        if(this.propertyDeadbandMap.isEmpty() || propertyValueMap == null)
+            return propertyValueMap;
+
+        Map<String, Object> acceptedValueMap = null;
+
+        for(Map.Entry<String, ?> entry : propertyValueMap.entrySet()) {
+            if(isSuppressedUpdate(digitalTwinStateTransaction, entry.getKey(), entry.getValue())) {
+                if(acceptedValueMap == null)
+                    acceptedValueMap = new LinkedHashMap<>(propertyValueMap);
+                acceptedValueMap.remove(entry.getKey());
+            }
+        }
+
+        return acceptedValueMap != null ? acceptedValueMap : propertyValueMap;
+    }
+
+    /**
+     * Applies to an already applied transaction the new values of the derived properties depending on the
+     * properties it changed. Only derived properties with at least one changed input are computed, in
+     * topological order. A failing derived property is logged and left unchanged.
+     *
+     * @return True if at least one derived property changed
+     */
+    private boolean applyDerivedProperties(DigitalTwinStateTransaction digitalTwinStateTransaction) throws WldtDigitalTwinStateException {
+
+        DigitalTwinStateDerivedPropertyGraph currentDerivedPropertyGraph = this.derivedPropertyGraph;
+
+        if(currentDerivedPropertyGraph.isEmpty())
+            return false;
+
+        Set<String> changedPropertyKeys = new HashSet<>();
+        for(DigitalTwinStateChange digitalTwinStateChange : digitalTwinStateTransaction.getDigitalTwinStateChangeList())
+            if(digitalTwinStateChange.getResource() instanceof DigitalTwinStateProperty)
+                changedPropertyKeys.add(((DigitalTwinStateProperty<?>) digitalTwinStateChange.getResource()).getKey());
+
+        boolean hasDerivedChanges = false;
+        boolean hasRepeatedChanges = false;
+
+        for(DigitalTwinStateDerivedProperty derivedProperty : currentDerivedPropertyGraph.getAffectedDerivedProperties(changedPropertyKeys)) {
+
+            // The inputs may be derived properties whose value did not change
+            if(Collections.disjoint(changedPropertyKeys, derivedProperty.getInputPropertyKeys()))
+                continue;
+
+            try {
+
+                DigitalTwinStateChange derivedPropertyChange = computeDerivedPropertyChange(derivedProperty, digitalTwinStateTransaction.getEndDigitalTwinState());
+
+                if(derivedPropertyChange == null)
+                    continue;
+
+                digitalTwinStateTransaction.applyPropertyChange(derivedPropertyChange);
+                hasRepeatedChanges |= !changedPropertyKeys.add(derivedProperty.getKey());
+                hasDerivedChanges = true;
+
+            } catch (Exception e) {
+                logger.error("Error computing derived property {} ! Error: {}", derivedProperty.getKey(), e.getLocalizedMessage());
+            }
+        }
+
+        // The transaction also changed some of the derived properties directly
+        if(hasRepeatedChanges)
+            digitalTwinStateTransaction.compactStateChanges();
+
+        return hasDerivedChanges;
+    }
+
+    /**
+     * Returns the change setting the new value of a derived property or null if the value is unchanged or can
+     * not be computed because an input is missing
+     */
+    private DigitalTwinStateChange computeDerivedPropertyChange(DigitalTwinStateDerivedProperty derivedProperty, DigitalTwinState endDigitalTwinState) throws WldtDigitalTwinStateException {
+
+        PersistentHashTrieMap<String, DigitalTwinStateProperty<?>> propertyMap = endDigitalTwinState.getPropertyMap();
+        List<String> inputPropertyKeys = derivedProperty.getInputPropertyKeys();
+        Object[] inputValues = new Object[inputPropertyKeys.size()];
+
+        for(int i = 0; i < inputValues.length; i++) {
+            DigitalTwinStateProperty<?> inputProperty = propertyMap.get(inputPropertyKeys.get(i));
+            if(inputProperty == null)
+                return null;
+            inputValues[i] = inputProperty.getValue();
+        }
+
+        Object value = derivedProperty.getFunction().compute(Collections.unmodifiableList(Arrays.asList(inputValues)));
+
+        if(value == null)
+            return null;
+
+        DigitalTwinStateProperty<?> currentProperty = propertyMap.get(derivedProperty.getKey());
+
+        if(currentProperty == null)
+            return new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_ADD,
+                    DigitalTwinStateChange.ResourceType.PROPERTY,
+                    new DigitalTwinStateProperty<>(derivedProperty.getKey(), value));
+
+        if(value.equals(currentProperty.getValue()))
+            return null;
+
+        if(currentProperty.getValue() != null && currentProperty.getValue().getClass().equals(value.getClass()))
+            return new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_UPDATE_VALUE,
+                    DigitalTwinStateChange.ResourceType.PROPERTY_VALUE,
+                    new DigitalTwinStateProperty<>(derivedProperty.getKey(), value));
+
+        return new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_UPDATE,
+                DigitalTwinStateChange.ResourceType.PROPERTY,
+                new DigitalTwinStateProperty<>(derivedProperty.getKey(), value, currentProperty.isReadable(), currentProperty.isWritable(), currentProperty.isExposed()));
+    }
+
+    /**
+     * Returns the transaction started through startStateTransaction()
+     */
+    private DigitalTwinStateTransaction getEditingTransaction() throws WldtDigitalTwinStateException {
+
+        DigitalTwinStateTransaction editingTransaction = this.digitalTwinStateTransaction;
+
+        if(!this.isEditing || editingTransaction == null)
+            throw new WldtDigitalTwinStateException("Trying to edit Digital Twin State without start a transaction ! Call start() and then commit() to apply changes");
+
+        return editingTransaction;
+    }
+
+    private void checkTransaction(DigitalTwinStateTransaction digitalTwinStateTransaction) throws WldtDigitalTwinStateException {
+        if(digitalTwinStateTransaction == null)
+            throw new WldtDigitalTwinStateException("Trying to edit Digital Twin State without a transaction ! Call startStateTransaction() or newStateTransaction()");
+    }
+
+    /**
+     * Returns the identifiers of the resources changed by a list of changes. Relationship instances are
+     * identified by their relationship since they are stored within it.
+     */
+    private Set<String> getChangedResourceIds(List<DigitalTwinStateChange> digitalTwinStateChangeList){
+
+        Set<String> changedResourceIds = new HashSet<>();
+
+        for(DigitalTwinStateChange digitalTwinStateChange : digitalTwinStateChangeList) {
+
+            DigitalTwinStateResource resource = digitalTwinStateChange.getResource();
+
+            if(resource instanceof DigitalTwinStateProperty)
+                changedResourceIds.add("property:" + ((DigitalTwinStateProperty<?>) resource).getKey());
+            else if(resource instanceof DigitalTwinStateAction)
+                changedResourceIds.add("action:" + ((DigitalTwinStateAction) resource).getKey());
+            else if(resource instanceof DigitalTwinStateEvent)
+                changedResourceIds.add("event:" + ((DigitalTwinStateEvent) resource).getKey());
+            else if(resource instanceof DigitalTwinStateRelationship)
+                changedResourceIds.add("relationship:" + ((DigitalTwinStateRelationship<?>) resource).getName());
+            else if(resource instanceof DigitalTwinStateRelationshipInstance)
+                changedResourceIds.add("relationship:" + ((DigitalTwinStateRelationshipInstance<?>) resource).getRelationshipName());
+        }
+
+        return changedResourceIds;
+    }
+
+    /**
+     * Looks for a state published after the base version changing at least one of the provided resources
+     *
+     * @return The version of the first conflicting state or -1 if there are no conflicts
+     */
+    private long findConflictVersion(long baseVersion, Set<String> changedResourceIds){
+
+        // The versions after the base one are no longer in the log: the transaction can not be validated
+        if(this.commitLog.isEmpty() || this.commitLog.peekFirst().version > baseVersion + 1)
+            return this.digitalTwinState.getVersion();
+
+        for(CommitLogEntry commitLogEntry : this.commitLog) {
+
+            if(commitLogEntry.version <= baseVersion)
+                continue;
+
+            if(commitLogEntry.changedResourceIds == null)
+                return commitLogEntry.version;
+
+            for(String changedResourceId : changedResourceIds)
+                if(commitLogEntry.changedResourceIds.contains(changedResourceId))
+                    return commitLogEntry.version;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Assigns the next version to the new state and publishes it as the current one
+     *
+     * @param newDigitalTwinState The new state, that must not be modified after being published
+     * @param changedResourceIds The resources changed with respect to the current state (null if the whole state changed)
+     */
+    private void publishDigitalTwinState(DigitalTwinState newDigitalTwinState, Set<String> changedResourceIds) {
+        synchronized (this.commitLock) {
+
+            newDigitalTwinState.setVersion(this.digitalTwinState.getVersion() + 1);
+
+            this.commitLog.addLast(new CommitLogEntry(newDigitalTwinState.getVersion(), changedResourceIds));
+            if(this.commitLog.size() > COMMIT_LOG_SIZE)
+                this.commitLog.removeFirst();
+
+            this.digitalTwinState = newDigitalTwinState;
+        }
+    }
+
+    /**
+     * Queues the notification of a successful update of the Digital Twin State providing the resulting transaction,
+     * together with the previous State, the new one and the list of applied changes. It is called within the commit
+     * lock, so the notifications are queued in version order.
+     */
+    private void queueDigitalTwinStateUpdate(DigitalTwinStateTransaction digitalTwinStateTransaction) throws WldtDigitalTwinStateException {
+
+        //If the State Transaction is not committed
+        if(!digitalTwinStateTransaction.isCommitted())
+            throw new WldtDigitalTwinStateException("Error notifying DT State Update ! Error: Invalid DigitalTwinStateTransaction ! Missing commit or null starting or final state");
+
+        this.pendingNotificationQueue.addLast(new PendingStateNotification(digitalTwinStateTransaction.getStartDigitalTwinState(),
+                digitalTwinStateTransaction.getEndDigitalTwinState(),
+                digitalTwinStateTransaction.getDigitalTwinStateChangeList(),
+                0));
+    }
+
+    /**
+     * Publishes the queued state updates in their order. Every thread queueing a notification calls it after
+     * releasing the commit lock, so a queued notification is published (by the same thread or by the one already
+     * publishing) before the call returns.
+     *
+     * @throws WldtDigitalTwinStateException If at least one of the state updates can not be notified
+     */
+    private void publishPendingNotifications() throws WldtDigitalTwinStateException {
+
+        WldtDigitalTwinStateException notificationException = null;
+
+        synchronized (this.notificationLock) {
+            while(true) {
+
+                PendingStateNotification pendingStateNotification;
+
+                synchronized (this.commitLock) {
+                    pendingStateNotification = this.pendingNotificationQueue.pollFirst();
+                }
+
+                if(pendingStateNotification == null)
+                    break;
+
+                try {
+                    notifyDigitalTwinStateUpdate(pendingStateNotification);
+                } catch (WldtDigitalTwinStateException e) {
+                    // The following notifications are still published
+                    logger.error("Error publishing Digital Twin State update ! Error: {}", e.getLocalizedMessage());
+                    if(notificationException == null)
+                        notificationException = e;
+                }
+            }
+        }
+
+        if(notificationException != null)
+            throw notificationException;
+    }
+
+    /**
+     * Notifies a queued state update compacting the changes of a group of transactions
+     *
+     * @param pendingStateNotification The queued state update
+     */
+    private void notifyDigitalTwinStateUpdate(PendingStateNotification pendingStateNotification) throws WldtDigitalTwinStateException {
+
+        List<DigitalTwinStateChange> digitalTwinStateChangeList = pendingStateNotification.changeList;
+
+        if(pendingStateNotification.groupTransactionCount > 0) {
+            // The transactions of the group may have changed the same resources
+            digitalTwinStateChangeList = DigitalTwinStateChangeCompactor.compact(digitalTwinStateChangeList, pendingStateNotification.endDigitalTwinState);
+            logger.debug("Notifying group of {} Digital Twin State Transactions with {} changes", pendingStateNotification.groupTransactionCount, digitalTwinStateChangeList.size());
+        }
+
+        notifyDigitalTwinStateUpdate(pendingStateNotification.startDigitalTwinState, pendingStateNotification.endDigitalTwinState, digitalTwinStateChangeList);
+    }
+
+    /**
+     * Publishes the state update event with the new State, the previous one and the list of applied changes
+     *
+     * @param previousDigitalTwinState The DT State before the notified changes
+     * @param newDigitalTwinState The DT State after the notified changes
+     * @param digitalTwinStateChangeList The list of the applied changes
+     */
+    private void notifyDigitalTwinStateUpdate(DigitalTwinState previousDigitalTwinState,
+                                              DigitalTwinState newDigitalTwinState,
+                                              List<DigitalTwinStateChange> digitalTwinStateChangeList) throws WldtDigitalTwinStateException {
+        try {
+
+            if(previousDigitalTwinState == null || newDigitalTwinState == null)
+                throw new WldtDigitalTwinStateException("Invalid DigitalTwinStateTransaction ! Missing commit or null starting or final state");
+
+            //Create the new notification event
+            WldtEvent<DigitalTwinState> wldtEvent = new WldtEvent<>(getStatusUpdatesWldtEventMessageType());
+
+            //Add the new DT State in the event body
+            wldtEvent.setBody(newDigitalTwinState);
+
+            //Add as event metadata both the original DT State before the transaction and the list of applied changes
+            wldtEvent.putMetadata(DT_STATE_UPDATE_METADATA_PREVIOUS_STATE, previousDigitalTwinState);
+            wldtEvent.putMetadata(DT_STATE_UPDATE_METADATA_CHANGE_LIST, digitalTwinStateChangeList);
+
+            //Publish the event on the WLDT event bus
+            WldtEventBus.getInstance().publishEvent(this.digitalTwinId, DT_STATE_PUBLISHER_ID, wldtEvent);
+
+        } catch (Exception e) {
+            throw new WldtDigitalTwinStateException(String.format("Error notifying DT State Update ! Error: %s", e.getLocalizedMessage()));
+        }
+    }
+
+    /**
+     * Enables the group commit of state transactions. Each committed transaction is still immediately applied to the
+     * Digital Twin State, but its notification is deferred: the transactions committed within the configured window
+     * (starting from the first transaction of the group) are notified with a single state update event containing
+     * the state before the first transaction, the state after the last one and the merged list of changes
+     * (compacted when different transactions changed the same resources).
+     * The group is notified earlier if it reaches the maximum number of transactions, bounding the number of state
+     * updates received by the Storage Manager and by the Digital Adapters regardless of the ingest rate.
+     * If group commit is already enabled the pending group is notified before applying the new configuration.
+     *
+     * @param window The maximum time a committed transaction waits before being notified
+     * @param unit The time unit of the window
+     * @param maxTransactions The maximum number of transactions in a group (0 for no limit)
+     * @throws WldtDigitalTwinStateException If the parameters are not valid
+     */
+    public void enableGroupCommit(long window, TimeUnit unit, int maxTransactions) throws WldtDigitalTwinStateException {
+
+        if(window <= 0 || unit == null)
+            throw new WldtDigitalTwinStateException("Error enabling group commit ! The window must be greater than 0 !");
+
+        if(maxTransactions < 0)
+            throw new WldtDigitalTwinStateException("Error enabling group commit ! The max number of transactions can not be negative !");
+
+        synchronized (this.commitLock){
+            queueGroupCommit(takeGroupCommit(-1));
+            synchronized (this.groupCommitLock){
+                this.groupCommitWindowNanos = unit.toNanos(window);
+                this.groupCommitMaxTransactions = maxTransactions;
+                this.groupCommitEnabled = true;
+            }
+        }
+
+        publishPendingNotifications();
+    }
+
+    /**
+     * Disables the group commit notifying the pending group (if any). Subsequent transactions are notified
+     * individually at commit time.
+     *
+     * @throws WldtDigitalTwinStateException If the pending group can not be notified
+     */
+    public void disableGroupCommit() throws WldtDigitalTwinStateException {
+        // Taking the commit lock no transaction can be added to the group after it has been notified
+        synchronized (this.commitLock){
+            this.groupCommitEnabled = false;
+            queueGroupCommit(takeGroupCommit(-1));
+        }
+
+        publishPendingNotifications();
+    }
+
+    /**
+     * @return True if the group commit of state transactions is enabled
+     */
+    public boolean isGroupCommitEnabled() {
+        return groupCommitEnabled;
+    }
+
+    /**
+     * Notifies immediately the pending group of committed transactions (if any) with a single state update event
+     *
+     * @throws WldtDigitalTwinStateException If the pending group can not be notified
      */
-    public void commitStateTransaction() throws WldtDigitalTwinStateException {
+    public void flushGroupCommit() throws WldtDigitalTwinStateException {
+        // Queued within the commit lock in order to keep the notifications ordered
+        synchronized (this.commitLock){
+            queueGroupCommit(takeGroupCommit(-1));
+        }
 
-        if(digitalTwinStateTransaction == null)
-            throw new WldtDigitalTwinStateException("Trying to commit Digital Twin State Transaction without properly starting it ! Call start() and then commit() to apply changes");
+        publishPendingNotifications();
+    }
 
-        logger.debug("Committing Digital Twin State: Start State: {} Changes: {}", this.digitalTwinStateTransaction.getStartDigitalTwinState(), this.digitalTwinStateTransaction.getDigitalTwinStateChangeList());
+    /**
+     * Detaches the pending group (if any) cancelling its window task
+     *
+     * @param groupSequenceNumber The sequence number of the group to detach (-1 for the current one)
+     * @return The detached group or null if there is no pending group with the provided sequence number
+     */
+    private PendingStateNotification takeGroupCommit(long groupSequenceNumber) {
+        synchronized (this.groupCommitLock){
 
-        //Apply Digital Twin State Changes
-        this.digitalTwinStateTransaction.handleStateChanges();
+            if(groupSequenceNumber >= 0 && groupSequenceNumber != this.groupSequenceNumber)
+                return null;
 
-        //Update Digital Twin State with the result of the transaction
-        this.digitalTwinState = this.digitalTwinStateTransaction.getEndDigitalTwinState();
+            if(this.groupFlushTask != null) {
+                this.groupFlushTask.cancel();
+                this.groupFlushTask = null;
+            }
 
-        logger.info("Digital Twin State Transaction Committed ! New Digital Twin State: {}", this.digitalTwinState);
+            if(this.groupTransactionCount == 0)
+                return null;
 
-        //Notify New Digital Twin State
-        notifyDigitalTwinStateUpdate();
+            PendingStateNotification pendingGroupCommit = new PendingStateNotification(this.groupStartDigitalTwinState,
+                    this.groupEndDigitalTwinState,
+                    this.groupChangeList,
+                    this.groupTransactionCount);
 
-        //Reset Transaction Status & Flag
-        this.isEditing = false;
-        this.digitalTwinStateTransaction = null;
+            this.groupStartDigitalTwinState = null;
+            this.groupEndDigitalTwinState = null;
+            this.groupChangeList = null;
+            this.groupTransactionCount = 0;
+            this.groupSequenceNumber++;
 
+            return pendingGroupCommit;
+        }
     }
 
     /**
-     * Notify a successful update of the Digital Twin State providing the resulting transaction, together with
-     * the previous State, the new one and the list of applied changes
+     * Queues the notification of a detached group with a single state update event. It is called within the
+     * commit lock.
+     *
+     * @param pendingGroupCommit The detached group (nothing is queued if null)
      */
-    private void notifyDigitalTwinStateUpdate() throws WldtDigitalTwinStateException {
-        try {
+    private void queueGroupCommit(PendingStateNotification pendingGroupCommit) {
+        if(pendingGroupCommit != null)
+            this.pendingNotificationQueue.addLast(pendingGroupCommit);
+    }
 
-            //If the State Transaction is null
-            if(this.digitalTwinStateTransaction == null)
-                throw new WldtDigitalTwinStateException("Error DigitalTwinStateTransaction = null ! Nothing to notify");
+    /**
+     * Adds a committed transaction to the pending group scheduling the notification of the group when the
+     * transaction is the first one or queueing its notification when the maximum number of transactions has been
+     * reached. It is called within the commit lock.
+     *
+     * @param committedTransaction The committed transaction
+     */
+    private void addToGroupCommit(DigitalTwinStateTransaction committedTransaction) {
 
-            //If the State Transaction is correct
-            if(this.digitalTwinStateTransaction.isCommitted()
-                    && this.digitalTwinStateTransaction.getStartDigitalTwinState() != null
-                    && this.digitalTwinStateTransaction.getEndDigitalTwinState() != null){
+        boolean notifyGroup = false;
 
-                //Create the new notification event
-                WldtEvent<DigitalTwinState> wldtEvent = new WldtEvent<>(getStatusUpdatesWldtEventMessageType());
+        synchronized (this.groupCommitLock){
 
-                //Add the new DT State in the event body
-                wldtEvent.setBody(this.digitalTwinStateTransaction.getEndDigitalTwinState());
+            if(this.groupTransactionCount == 0) {
+                this.groupStartDigitalTwinState = committedTransaction.getStartDigitalTwinState();
+                this.groupChangeList = new ArrayList<>();
+            }
 
-                //Add as event metadata both the original DT State before the transaction and the list of applied changes
-                wldtEvent.putMetadata(DT_STATE_UPDATE_METADATA_PREVIOUS_STATE, this.digitalTwinStateTransaction.getStartDigitalTwinState());
-                wldtEvent.putMetadata(DT_STATE_UPDATE_METADATA_CHANGE_LIST, this.digitalTwinStateTransaction.getDigitalTwinStateChangeList());
+            this.groupEndDigitalTwinState = committedTransaction.getEndDigitalTwinState();
+            this.groupChangeList.addAll(committedTransaction.getDigitalTwinStateChangeList());
+            this.groupTransactionCount++;
+
+            if(this.groupCommitMaxTransactions > 0 && this.groupTransactionCount >= this.groupCommitMaxTransactions)
+                notifyGroup = true;
+            else if(this.groupFlushTask == null) {
+                try {
+                    long groupSequenceNumber = this.groupSequenceNumber;
+                    this.groupFlushTask = WldtTimerService.getInstance().schedule(this.digitalTwinId,
+                            () -> onGroupCommitWindowExpired(groupSequenceNumber),
+                            this.groupCommitWindowNanos,
+                            TimeUnit.NANOSECONDS);
+                } catch (Exception e) {
+                    logger.error("Error scheduling group commit notification ! Notifying the group immediately. Error: {}", e.getLocalizedMessage());
+                    notifyGroup = true;
+                }
+            }
+        }
 
-                //Publish the event on the WLDT event bus
-                WldtEventBus.getInstance().publishEvent(this.digitalTwinId, DT_STATE_PUBLISHER_ID, wldtEvent);
+        if(notifyGroup)
+            queueGroupCommit(takeGroupCommit(-1));
+    }
 
-            } else
-                throw new WldtDigitalTwinStateException("Invalid DigitalTwinStateTransaction ! Missing commit or null starting or final state");
+    /**
+     * Callback of the timer task notifying the pending group at the end of the group commit window
+     *
+     * @param groupSequenceNumber The sequence number of the group the task has been scheduled for
+     */
+    private void onGroupCommitWindowExpired(long groupSequenceNumber) {
+        try {
+            synchronized (this.commitLock){
+                // Nothing to do if the group has already been notified (e.g., flushed when the task was running)
+                queueGroupCommit(takeGroupCommit(groupSequenceNumber));
+            }
 
+            publishPendingNotifications();
         } catch (Exception e) {
-            throw new WldtDigitalTwinStateException(String.format("Error notifying DT State Update ! Error: %s", e.getLocalizedMessage()));
+            logger.error("Error notifying group of Digital Twin State Transactions ! Error: {}", e.getLocalizedMessage());
         }
     }
 
@@ -213,13 +1558,22 @@ public class DigitalTwinStateManager {
      * @throws WldtDigitalTwinStateException
      */
     public void createProperty(DigitalTwinStateProperty<?> dtStateProperty) throws WldtDigitalTwinStateException {
+        createProperty(getEditingTransaction(), dtStateProperty);
+    }
 
-        if(!this.isEditing || this.digitalTwinStateTransaction == null)
-            throw new WldtDigitalTwinStateException("Trying to edit Digital Twin State without start a transaction ! Call start() and then commit() to apply changes");
+    /**
+     * Adds the change of {@link #createProperty(DigitalTwinStateProperty)} to the provided transaction
+     * @param digitalTwinStateTransaction The target transaction
+     * @param dtStateProperty
+     * @throws WldtDigitalTwinStateException
+     */
+    public void createProperty(DigitalTwinStateTransaction digitalTwinStateTransaction, DigitalTwinStateProperty<?> dtStateProperty) throws WldtDigitalTwinStateException {
+
+        checkTransaction(digitalTwinStateTransaction);
 
         try{
-            this.digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(
-                    DigitalTwinStateChange.Operation.OPERATION_ADD,
+            digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(
+                    restoredOperation(dtStateProperty != null && this.unreconciledPropertyKeys.contains(dtStateProperty.getKey()) && digitalTwinStateTransaction.getStartDigitalTwinState().containsProperty(dtStateProperty.getKey())),
                     DigitalTwinStateChange.ResourceType.PROPERTY,
                     dtStateProperty));
         } catch (Exception e){
@@ -229,6 +1583,61 @@ public class DigitalTwinStateManager {
         }
     }
 
+    /**
+     * Manage a new DT State Transaction request associated to the CREATION of a new PROPERTY attaching to it a
+     * deadband policy filtering its following value updates (see setPropertyDeadband()).
+     * The change will be applied after calling the commit() method.
+     * @param dtStateProperty
+     * @param deadband The deadband policy of the property
+     * @throws WldtDigitalTwinStateException
+     */
+    public void createProperty(DigitalTwinStateProperty<?> dtStateProperty, DigitalTwinStatePropertyDeadband deadband) throws WldtDigitalTwinStateException {
+        createProperty(getEditingTransaction(), dtStateProperty, deadband);
+    }
+
+    /**
+     * Adds the change of {@link #createProperty(DigitalTwinStateProperty, DigitalTwinStatePropertyDeadband)} to the provided transaction
+     * @param digitalTwinStateTransaction The target transaction
+     * @param dtStateProperty
+     * @param deadband The deadband policy of the property
+     * @throws WldtDigitalTwinStateException
+     */
+    public void createProperty(DigitalTwinStateTransaction digitalTwinStateTransaction, DigitalTwinStateProperty<?> dtStateProperty, DigitalTwinStatePropertyDeadband deadband) throws WldtDigitalTwinStateException {
+        createProperty(digitalTwinStateTransaction, dtStateProperty);
+        setPropertyDeadband(dtStateProperty.getKey(), deadband);
+    }
+
+    /**
+     * Manage a new DT State Transaction request associated to the CREATION of a new PROPERTY that goes stale if it
+     * is not updated within the provided max age (see setPropertyMaxAge()). The max age is set when the transaction
+     * is committed and the age starts from the commit.
+     * The change will be applied after calling the commit() method.
+     * @param dtStateProperty
+     * @param maxAge The max age of the property
+     * @param unit The time unit of the max age
+     * @throws WldtDigitalTwinStateException
+     */
+    public void createProperty(DigitalTwinStateProperty<?> dtStateProperty, long maxAge, TimeUnit unit) throws WldtDigitalTwinStateException {
+        createProperty(getEditingTransaction(), dtStateProperty, maxAge, unit);
+    }
+
+    /**
+     * Adds the change of {@link #createProperty(DigitalTwinStateProperty, long, TimeUnit)} to the provided transaction
+     * @param digitalTwinStateTransaction The target transaction
+     * @param dtStateProperty
+     * @param maxAge The max age of the property
+     * @param unit The time unit of the max age
+     * @throws WldtDigitalTwinStateException
+     */
+    public void createProperty(DigitalTwinStateTransaction digitalTwinStateTransaction, DigitalTwinStateProperty<?> dtStateProperty, long maxAge, TimeUnit unit) throws WldtDigitalTwinStateException {
+
+        if(maxAge <= 0 || unit == null)
+            throw new WldtDigitalTwinStateException("Error creating property with max age ! Max Age <= 0 !");
+
+        createProperty(digitalTwinStateTransaction, dtStateProperty);
+        digitalTwinStateTransaction.addPropertyMaxAge(dtStateProperty.getKey(), unit.toNanos(maxAge));
+    }
+
     /**
      * Manage a new DT State Transaction request associated to the UPDATE of a PROPERTY.
      * The change will be applied after calling the commit() method.
@@ -236,12 +1645,21 @@ public class DigitalTwinStateManager {
      * @throws WldtDigitalTwinStateException
      */
     public void updateProperty(DigitalTwinStateProperty<?> dtStateProperty) throws WldtDigitalTwinStateException {
+        updateProperty(getEditingTransaction(), dtStateProperty);
+    }
 
-        if(!this.isEditing || this.digitalTwinStateTransaction == null)
-            throw new WldtDigitalTwinStateException("Trying to edit Digital Twin State without start a transaction ! Call start() and then commit() to apply changes");
+    /**
+     * Adds the change of {@link #updateProperty(DigitalTwinStateProperty)} to the provided transaction
+     * @param digitalTwinStateTransaction The target transaction
+     * @param dtStateProperty
+     * @throws WldtDigitalTwinStateException
+     */
+    public void updateProperty(DigitalTwinStateTransaction digitalTwinStateTransaction, DigitalTwinStateProperty<?> dtStateProperty) throws WldtDigitalTwinStateException {
+
+        checkTransaction(digitalTwinStateTransaction);
 
         try{
-            this.digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(
+            digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(
                     DigitalTwinStateChange.Operation.OPERATION_UPDATE,
                     DigitalTwinStateChange.ResourceType.PROPERTY,
                     dtStateProperty));
@@ -256,17 +1674,30 @@ public class DigitalTwinStateManager {
      * Manage a DT State Transaction request associated to the UPDATE of a PROPERTY VALUE.
      * The Property class is used as parameter but only property's key and value will be used in the update procedure.
      * If it is required to update the structure a Property, use the method updateProperty().
+     * If the property has a deadband policy (see setPropertyDeadband()) updates within its deadband are dropped.
      * The change will be applied after calling the commit() method.
      * @param dtStateProperty
      * @throws WldtDigitalTwinStateException
      */
     public void updatePropertyValue(DigitalTwinStateProperty<?> dtStateProperty) throws WldtDigitalTwinStateException {
+        updatePropertyValue(getEditingTransaction(), dtStateProperty);
+    }
 
-        if(!this.isEditing || this.digitalTwinStateTransaction == null)
-            throw new WldtDigitalTwinStateException("Trying to edit Digital Twin State without start a transaction ! Call start() and then commit() to apply changes");
+    /**
+     * Adds the change of {@link #updatePropertyValue(DigitalTwinStateProperty)} to the provided transaction
+     * @param digitalTwinStateTransaction The target transaction
+     * @param dtStateProperty
+     * @throws WldtDigitalTwinStateException
+     */
+    public void updatePropertyValue(DigitalTwinStateTransaction digitalTwinStateTransaction, DigitalTwinStateProperty<?> dtStateProperty) throws WldtDigitalTwinStateException {
+
+        checkTransaction(digitalTwinStateTransaction);
+
+        if(dtStateProperty != null && isSuppressedUpdate(digitalTwinStateTransaction, dtStateProperty.getKey(), dtStateProperty.getValue()))
+            return;
 
         try{
-            this.digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(
+            digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(
                     DigitalTwinStateChange.Operation.OPERATION_UPDATE_VALUE,
                     DigitalTwinStateChange.ResourceType.PROPERTY_VALUE,
                     dtStateProperty));
@@ -277,6 +1708,104 @@ public class DigitalTwinStateManager {
         }
     }
 
+    /**
+     * Manage a DT State Transaction request associated to the UPDATE of a double PROPERTY VALUE without boxing it.
+     * The change will be applied after calling the commit() method.
+     * @param propertyKey
+     * @param propertyValue
+     * @throws WldtDigitalTwinStateException
+     */
+    public void updatePropertyValue(String propertyKey, double propertyValue) throws WldtDigitalTwinStateException {
+        updatePropertyValue(new DigitalTwinStateDoubleProperty(propertyKey, propertyValue));
+    }
+
+    /**
+     * Adds the change of {@link #updatePropertyValue(String, double)} to the provided transaction
+     * @param digitalTwinStateTransaction The target transaction
+     * @param propertyKey
+     * @param propertyValue
+     * @throws WldtDigitalTwinStateException
+     */
+    public void updatePropertyValue(DigitalTwinStateTransaction digitalTwinStateTransaction, String propertyKey, double propertyValue) throws WldtDigitalTwinStateException {
+        updatePropertyValue(digitalTwinStateTransaction, new DigitalTwinStateDoubleProperty(propertyKey, propertyValue));
+    }
+
+    /**
+     * Manage a DT State Transaction request associated to the UPDATE of a long PROPERTY VALUE without boxing it.
+     * The change will be applied after calling the commit() method.
+     * @param propertyKey
+     * @param propertyValue
+     * @throws WldtDigitalTwinStateException
+     */
+    public void updatePropertyValue(String propertyKey, long propertyValue) throws WldtDigitalTwinStateException {
+        updatePropertyValue(new DigitalTwinStateLongProperty(propertyKey, propertyValue));
+    }
+
+    /**
+     * Adds the change of {@link #updatePropertyValue(String, long)} to the provided transaction
+     * @param digitalTwinStateTransaction The target transaction
+     * @param propertyKey
+     * @param propertyValue
+     * @throws WldtDigitalTwinStateException
+     */
+    public void updatePropertyValue(DigitalTwinStateTransaction digitalTwinStateTransaction, String propertyKey, long propertyValue) throws WldtDigitalTwinStateException {
+        updatePropertyValue(digitalTwinStateTransaction, new DigitalTwinStateLongProperty(propertyKey, propertyValue));
+    }
+
+    /**
+     * Manage a DT State Transaction request associated to the UPDATE of a boolean PROPERTY VALUE without boxing it.
+     * The change will be applied after calling the commit() method.
+     * @param propertyKey
+     * @param propertyValue
+     * @throws WldtDigitalTwinStateException
+     */
+    public void updatePropertyValue(String propertyKey, boolean propertyValue) throws WldtDigitalTwinStateException {
+        updatePropertyValue(new DigitalTwinStateBooleanProperty(propertyKey, propertyValue));
+    }
+
+    /**
+     * Adds the change of {@link #updatePropertyValue(String, boolean)} to the provided transaction
+     * @param digitalTwinStateTransaction The target transaction
+     * @param propertyKey
+     * @param propertyValue
+     * @throws WldtDigitalTwinStateException
+     */
+    public void updatePropertyValue(DigitalTwinStateTransaction digitalTwinStateTransaction, String propertyKey, boolean propertyValue) throws WldtDigitalTwinStateException {
+        updatePropertyValue(digitalTwinStateTransaction, new DigitalTwinStateBooleanProperty(propertyKey, propertyValue));
+    }
+
+    /**
+     * Manage a DT State Transaction request associated to the UPDATE of the VALUES of a set of PROPERTIES.
+     * It is equivalent to calling updatePropertyValue() for each entry, but the changes are added with a single call
+     * and applied with a single update of the state. If one of the values can not be applied the commit fails
+     * without applying any of them.
+     * The change will be applied after calling the commit() method.
+     * @param propertyValueMap The new values mapped by property key
+     * @throws WldtDigitalTwinStateException
+     */
+    public void updatePropertyValues(Map<String, ?> propertyValueMap) throws WldtDigitalTwinStateException {
+        updatePropertyValues(getEditingTransaction(), propertyValueMap);
+    }
+
+    /**
+     * Adds the changes of {@link #updatePropertyValues(Map)} to the provided transaction
+     * @param digitalTwinStateTransaction The target transaction
+     * @param propertyValueMap
+     * @throws WldtDigitalTwinStateException
+     */
+    public void updatePropertyValues(DigitalTwinStateTransaction digitalTwinStateTransaction, Map<String, ?> propertyValueMap) throws WldtDigitalTwinStateException {
+
+        checkTransaction(digitalTwinStateTransaction);
+
+        try{
+            digitalTwinStateTransaction.addPropertyValueChanges(filterSuppressedUpdates(digitalTwinStateTransaction, propertyValueMap));
+        } catch (Exception e){
+            String errorMsg = String.format("Exception updating property values ! Error: %s", e.getLocalizedMessage());
+            logger.error(errorMsg);
+            throw new WldtDigitalTwinStateException(errorMsg);
+        }
+    }
+
     /**
      * Manage a new DT State Transaction request associated to the DELETE of a PROPERTY.
      * The change will be applied after calling the commit() method.
@@ -284,16 +1813,25 @@ public class DigitalTwinStateManager {
      * @throws WldtDigitalTwinStateException
      */
     public void deleteProperty(String propertyKey) throws WldtDigitalTwinStateException {
+        deleteProperty(getEditingTransaction(), propertyKey);
+    }
 
-        if(!this.isEditing || this.digitalTwinStateTransaction == null)
-            throw new WldtDigitalTwinStateException("Trying to edit Digital Twin State without start a transaction ! Call start() and then commit() to apply changes");
+    /**
+     * Adds the change of {@link #deleteProperty(String)} to the provided transaction
+     * @param digitalTwinStateTransaction The target transaction
+     * @param propertyKey
+     * @throws WldtDigitalTwinStateException
+     */
+    public void deleteProperty(DigitalTwinStateTransaction digitalTwinStateTransaction, String propertyKey) throws WldtDigitalTwinStateException {
+
+        checkTransaction(digitalTwinStateTransaction);
 
         try{
 
-            Optional<DigitalTwinStateProperty<?>> optionalDigitalTwinStateProperty = this.digitalTwinState.getProperty(propertyKey);
+            Optional<DigitalTwinStateProperty<?>> optionalDigitalTwinStateProperty = digitalTwinStateTransaction.getStartDigitalTwinState().getProperty(propertyKey);
 
             if(optionalDigitalTwinStateProperty.isPresent())
-                this.digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(
+                digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(
                         DigitalTwinStateChange.Operation.OPERATION_REMOVE,
                         DigitalTwinStateChange.ResourceType.PROPERTY,
                         optionalDigitalTwinStateProperty.get()));
@@ -313,13 +1851,22 @@ public class DigitalTwinStateManager {
      * @throws WldtDigitalTwinStateException
      */
     public void enableAction(DigitalTwinStateAction digitalTwinStateAction) throws WldtDigitalTwinStateException {
+        enableAction(getEditingTransaction(), digitalTwinStateAction);
+    }
 
-        if(!this.isEditing || this.digitalTwinStateTransaction == null)
-            throw new WldtDigitalTwinStateException("Trying to edit Digital Twin State without start a transaction ! Call start() and then commit() to apply changes");
+    /**
+     * Adds the change of {@link #enableAction(DigitalTwinStateAction)} to the provided transaction
+     * @param digitalTwinStateTransaction The target transaction
+     * @param digitalTwinStateAction
+     * @throws WldtDigitalTwinStateException
+     */
+    public void enableAction(DigitalTwinStateTransaction digitalTwinStateTransaction, DigitalTwinStateAction digitalTwinStateAction) throws WldtDigitalTwinStateException {
+
+        checkTransaction(digitalTwinStateTransaction);
 
         try{
-            this.digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(
-                    DigitalTwinStateChange.Operation.OPERATION_ADD,
+            digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(
+                    restoredOperation(digitalTwinStateAction != null && this.unreconciledActionKeys.contains(digitalTwinStateAction.getKey()) && digitalTwinStateTransaction.getStartDigitalTwinState().containsAction(digitalTwinStateAction.getKey())),
                     DigitalTwinStateChange.ResourceType.ACTION,
                     digitalTwinStateAction));
         } catch (Exception e){
@@ -336,12 +1883,21 @@ public class DigitalTwinStateManager {
      * @throws WldtDigitalTwinStateException
      */
     public void updateAction(DigitalTwinStateAction digitalTwinStateAction) throws WldtDigitalTwinStateException {
+        updateAction(getEditingTransaction(), digitalTwinStateAction);
+    }
 
-        if(!this.isEditing || this.digitalTwinStateTransaction == null)
-            throw new WldtDigitalTwinStateException("Trying to edit Digital Twin State without start a transaction ! Call start() and then commit() to apply changes");
+    /**
+     * Adds the change of {@link #updateAction(DigitalTwinStateAction)} to the provided transaction
+     * @param digitalTwinStateTransaction The target transaction
+     * @param digitalTwinStateAction
+     * @throws WldtDigitalTwinStateException
+     */
+    public void updateAction(DigitalTwinStateTransaction digitalTwinStateTransaction, DigitalTwinStateAction digitalTwinStateAction) throws WldtDigitalTwinStateException {
+
+        checkTransaction(digitalTwinStateTransaction);
 
         try{
-            this.digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(
+            digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(
                     DigitalTwinStateChange.Operation.OPERATION_UPDATE,
                     DigitalTwinStateChange.ResourceType.ACTION,
                     digitalTwinStateAction));
@@ -359,16 +1915,25 @@ public class DigitalTwinStateManager {
      * @throws WldtDigitalTwinStateException
      */
     public void disableAction(String actionKey) throws WldtDigitalTwinStateException {
+        disableAction(getEditingTransaction(), actionKey);
+    }
 
-        if(!this.isEditing || this.digitalTwinStateTransaction == null)
-            throw new WldtDigitalTwinStateException("Trying to edit Digital Twin State without start a transaction ! Call start() and then commit() to apply changes");
+    /**
+     * Adds the change of {@link #disableAction(String)} to the provided transaction
+     * @param digitalTwinStateTransaction The target transaction
+     * @param actionKey
+     * @throws WldtDigitalTwinStateException
+     */
+    public void disableAction(DigitalTwinStateTransaction digitalTwinStateTransaction, String actionKey) throws WldtDigitalTwinStateException {
+
+        checkTransaction(digitalTwinStateTransaction);
 
         try{
 
-            Optional<DigitalTwinStateAction> optionalDigitalTwinStateAction = this.digitalTwinState.getAction(actionKey);
+            Optional<DigitalTwinStateAction> optionalDigitalTwinStateAction = digitalTwinStateTransaction.getStartDigitalTwinState().getAction(actionKey);
 
             if(optionalDigitalTwinStateAction.isPresent())
-                this.digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(
+                digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(
                         DigitalTwinStateChange.Operation.OPERATION_REMOVE,
                         DigitalTwinStateChange.ResourceType.ACTION,
                         optionalDigitalTwinStateAction.get()));
@@ -390,13 +1955,22 @@ public class DigitalTwinStateManager {
      * @throws WldtDigitalTwinStateException
      */
     public void registerEvent(DigitalTwinStateEvent digitalTwinStateEvent) throws WldtDigitalTwinStateException {
+        registerEvent(getEditingTransaction(), digitalTwinStateEvent);
+    }
 
-        if(!this.isEditing || this.digitalTwinStateTransaction == null)
-            throw new WldtDigitalTwinStateException("Trying to edit Digital Twin State without start a transaction ! Call start() and then commit() to apply changes");
+    /**
+     * Adds the change of {@link #registerEvent(DigitalTwinStateEvent)} to the provided transaction
+     * @param digitalTwinStateTransaction The target transaction
+     * @param digitalTwinStateEvent
+     * @throws WldtDigitalTwinStateException
+     */
+    public void registerEvent(DigitalTwinStateTransaction digitalTwinStateTransaction, DigitalTwinStateEvent digitalTwinStateEvent) throws WldtDigitalTwinStateException {
+
+        checkTransaction(digitalTwinStateTransaction);
 
         try{
-            this.digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(
-                    DigitalTwinStateChange.Operation.OPERATION_ADD,
+            digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(
+                    restoredOperation(digitalTwinStateEvent != null && this.unreconciledEventKeys.contains(digitalTwinStateEvent.getKey()) && digitalTwinStateTransaction.getStartDigitalTwinState().containsEvent(digitalTwinStateEvent.getKey())),
                     DigitalTwinStateChange.ResourceType.EVENT,
                     digitalTwinStateEvent));
         } catch (Exception e){
@@ -413,12 +1987,21 @@ public class DigitalTwinStateManager {
      * @throws WldtDigitalTwinStateException
      */
     public void updateRegisteredEvent(DigitalTwinStateEvent digitalTwinStateEvent) throws WldtDigitalTwinStateException {
+        updateRegisteredEvent(getEditingTransaction(), digitalTwinStateEvent);
+    }
 
-        if(!this.isEditing || this.digitalTwinStateTransaction == null)
-            throw new WldtDigitalTwinStateException("Trying to edit Digital Twin State without start a transaction ! Call start() and then commit() to apply changes");
+    /**
+     * Adds the change of {@link #updateRegisteredEvent(DigitalTwinStateEvent)} to the provided transaction
+     * @param digitalTwinStateTransaction The target transaction
+     * @param digitalTwinStateEvent
+     * @throws WldtDigitalTwinStateException
+     */
+    public void updateRegisteredEvent(DigitalTwinStateTransaction digitalTwinStateTransaction, DigitalTwinStateEvent digitalTwinStateEvent) throws WldtDigitalTwinStateException {
+
+        checkTransaction(digitalTwinStateTransaction);
 
         try{
-            this.digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(
+            digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(
                     DigitalTwinStateChange.Operation.OPERATION_UPDATE,
                     DigitalTwinStateChange.ResourceType.EVENT,
                     digitalTwinStateEvent));
@@ -436,16 +2019,25 @@ public class DigitalTwinStateManager {
      * @throws WldtDigitalTwinStateException
      */
     public void unRegisterEvent(String eventKey) throws WldtDigitalTwinStateException {
+        unRegisterEvent(getEditingTransaction(), eventKey);
+    }
 
-        if(!this.isEditing || this.digitalTwinStateTransaction == null)
-            throw new WldtDigitalTwinStateException("Trying to edit Digital Twin State without start a transaction ! Call start() and then commit() to apply changes");
+    /**
+     * Adds the change of {@link #unRegisterEvent(String)} to the provided transaction
+     * @param digitalTwinStateTransaction The target transaction
+     * @param eventKey
+     * @throws WldtDigitalTwinStateException
+     */
+    public void unRegisterEvent(DigitalTwinStateTransaction digitalTwinStateTransaction, String eventKey) throws WldtDigitalTwinStateException {
+
+        checkTransaction(digitalTwinStateTransaction);
 
         try{
 
-            Optional<DigitalTwinStateEvent> optionalDigitalTwinStateEvent = this.digitalTwinState.getEvent(eventKey);
+            Optional<DigitalTwinStateEvent> optionalDigitalTwinStateEvent = digitalTwinStateTransaction.getStartDigitalTwinState().getEvent(eventKey);
 
             if(optionalDigitalTwinStateEvent.isPresent())
-                this.digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(
+                digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(
                         DigitalTwinStateChange.Operation.OPERATION_REMOVE,
                         DigitalTwinStateChange.ResourceType.EVENT,
                         optionalDigitalTwinStateEvent.get()));
@@ -466,12 +2058,21 @@ public class DigitalTwinStateManager {
      * @throws WldtDigitalTwinStateException
      */
     public void createRelationship(DigitalTwinStateRelationship<?> relationship) throws WldtDigitalTwinStateException {
+        createRelationship(getEditingTransaction(), relationship);
+    }
 
-        if(!this.isEditing || this.digitalTwinStateTransaction == null)
-            throw new WldtDigitalTwinStateException("Trying to edit Digital Twin State without start a transaction ! Call start() and then commit() to apply changes");
+    /**
+     * Adds the change of {@link #createRelationship(DigitalTwinStateRelationship)} to the provided transaction
+     * @param digitalTwinStateTransaction The target transaction
+     * @param relationship
+     * @throws WldtDigitalTwinStateException
+     */
+    public void createRelationship(DigitalTwinStateTransaction digitalTwinStateTransaction, DigitalTwinStateRelationship<?> relationship) throws WldtDigitalTwinStateException {
+
+        checkTransaction(digitalTwinStateTransaction);
 
         try{
-            this.digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(
+            digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(
                     DigitalTwinStateChange.Operation.OPERATION_ADD,
                     DigitalTwinStateChange.ResourceType.RELATIONSHIP,
                     relationship));
@@ -488,13 +2089,22 @@ public class DigitalTwinStateManager {
      * @param instance
      * @throws WldtDigitalTwinStateException
      */
-    public void addRelationshipInstance(DigitalTwinStateRelationshipInstance<?> instance)throws WldtDigitalTwinStateException {
+    public void addRelationshipInstance(DigitalTwinStateRelationshipInstance<?> instance) throws WldtDigitalTwinStateException {
+        addRelationshipInstance(getEditingTransaction(), instance);
+    }
 
-        if(!this.isEditing || this.digitalTwinStateTransaction == null)
-            throw new WldtDigitalTwinStateException("Trying to edit Digital Twin State without start a transaction ! Call start() and then commit() to apply changes");
+    /**
+     * Adds the change of {@link #addRelationshipInstance(DigitalTwinStateRelationshipInstance)} to the provided transaction
+     * @param digitalTwinStateTransaction The target transaction
+     * @param instance
+     * @throws WldtDigitalTwinStateException
+     */
+    public void addRelationshipInstance(DigitalTwinStateTransaction digitalTwinStateTransaction, DigitalTwinStateRelationshipInstance<?> instance) throws WldtDigitalTwinStateException {
+
+        checkTransaction(digitalTwinStateTransaction);
 
         try{
-            this.digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(
+            digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(
                     DigitalTwinStateChange.Operation.OPERATION_ADD,
                     DigitalTwinStateChange.ResourceType.RELATIONSHIP_INSTANCE,
                     instance));
@@ -512,16 +2122,25 @@ public class DigitalTwinStateManager {
      * @throws WldtDigitalTwinStateException
      */
     public void deleteRelationship(String name) throws WldtDigitalTwinStateException {
+        deleteRelationship(getEditingTransaction(), name);
+    }
 
-        if(!this.isEditing || this.digitalTwinStateTransaction == null)
-            throw new WldtDigitalTwinStateException("Trying to edit Digital Twin State without start a transaction ! Call start() and then commit() to apply changes");
+    /**
+     * Adds the change of {@link #deleteRelationship(String)} to the provided transaction
+     * @param digitalTwinStateTransaction The target transaction
+     * @param name
+     * @throws WldtDigitalTwinStateException
+     */
+    public void deleteRelationship(DigitalTwinStateTransaction digitalTwinStateTransaction, String name) throws WldtDigitalTwinStateException {
+
+        checkTransaction(digitalTwinStateTransaction);
 
         try{
 
-            Optional<DigitalTwinStateRelationship<?>> optionalDigitalTwinStateRelationship = this.digitalTwinState.getRelationship(name);
+            Optional<DigitalTwinStateRelationship<?>> optionalDigitalTwinStateRelationship = digitalTwinStateTransaction.getStartDigitalTwinState().getRelationship(name);
 
             if(optionalDigitalTwinStateRelationship.isPresent())
-                this.digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(
+                digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(
                         DigitalTwinStateChange.Operation.OPERATION_REMOVE,
                         DigitalTwinStateChange.ResourceType.RELATIONSHIP,
                         optionalDigitalTwinStateRelationship.get()));
@@ -544,20 +2163,30 @@ public class DigitalTwinStateManager {
      * @throws WldtDigitalTwinStateException
      */
     public void deleteRelationshipInstance(String relationshipName, String instanceKey) throws WldtDigitalTwinStateException {
+        deleteRelationshipInstance(getEditingTransaction(), relationshipName, instanceKey);
+    }
 
-        if(!this.isEditing || this.digitalTwinStateTransaction == null)
-            throw new WldtDigitalTwinStateException("Trying to edit Digital Twin State without start a transaction ! Call start() and then commit() to apply changes");
+    /**
+     * Adds the change of {@link #deleteRelationshipInstance(String, String)} to the provided transaction
+     * @param digitalTwinStateTransaction The target transaction
+     * @param relationshipName
+     * @param instanceKey
+     * @throws WldtDigitalTwinStateException
+     */
+    public void deleteRelationshipInstance(DigitalTwinStateTransaction digitalTwinStateTransaction, String relationshipName, String instanceKey) throws WldtDigitalTwinStateException {
+
+        checkTransaction(digitalTwinStateTransaction);
 
         try{
 
-            Optional<DigitalTwinStateRelationship<?>> optionalDigitalTwinStateRelationship = this.digitalTwinState.getRelationship(relationshipName);
+            Optional<DigitalTwinStateRelationship<?>> optionalDigitalTwinStateRelationship = digitalTwinStateTransaction.getStartDigitalTwinState().getRelationship(relationshipName);
 
             if(optionalDigitalTwinStateRelationship.isPresent()) {
 
                 DigitalTwinStateRelationship<?> digitalTwinStateRelationship = optionalDigitalTwinStateRelationship.get();
 
                 if(digitalTwinStateRelationship.getInstance(instanceKey) != null)
-                    this.digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(
+                    digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(
                             DigitalTwinStateChange.Operation.OPERATION_REMOVE,
                             DigitalTwinStateChange.ResourceType.RELATIONSHIP_INSTANCE,
                             digitalTwinStateRelationship.getInstance(instanceKey)));
@@ -586,13 +2215,85 @@ public class DigitalTwinStateManager {
     }
 
     /**
-     * Returns the current Digital Twin State
+     * Returns the operation used to create a resource: an update if the resource has been restored and is still
+     * unreconciled, an add otherwise
+     *
+     * @param isRestoredResource True if the resource has been restored and is not yet reconciled
+     * @return The operation to use
+     */
+    private DigitalTwinStateChange.Operation restoredOperation(boolean isRestoredResource){
+        return isRestoredResource ? DigitalTwinStateChange.Operation.OPERATION_UPDATE : DigitalTwinStateChange.Operation.OPERATION_ADD;
+    }
+
+    /**
+     * @return True if all the resources restored through restoreState() have been reconciled (or no state has been restored)
+     */
+    public boolean isReconciled() {
+        return this.unreconciledPropertyKeys.isEmpty()
+                && this.unreconciledActionKeys.isEmpty()
+                && this.unreconciledEventKeys.isEmpty()
+                && this.unreconciledRelationshipNames.isEmpty();
+    }
+
+    /**
+     * @return The keys of the restored properties not yet reconciled
+     */
+    public Set<String> getUnreconciledPropertyKeys() {
+        return Collections.unmodifiableSet(new HashSet<>(this.unreconciledPropertyKeys));
+    }
+
+    /**
+     * @return The keys of the restored actions not yet reconciled
+     */
+    public Set<String> getUnreconciledActionKeys() {
+        return Collections.unmodifiableSet(new HashSet<>(this.unreconciledActionKeys));
+    }
+
+    /**
+     * @return The keys of the restored events not yet reconciled
+     */
+    public Set<String> getUnreconciledEventKeys() {
+        return Collections.unmodifiableSet(new HashSet<>(this.unreconciledEventKeys));
+    }
+
+    /**
+     * @return The names of the restored relationships not yet reconciled
+     */
+    public Set<String> getUnreconciledRelationshipNames() {
+        return Collections.unmodifiableSet(new HashSet<>(this.unreconciledRelationshipNames));
+    }
+
+    /**
+     * Returns the current Digital Twin State, i.e., the snapshot published by the last committed transaction.
+     * The snapshot is never modified after being published, so it can be read from any thread without locking
+     * and without copying it. Its properties, actions and events are frozen (their setters throw an
+     * UnsupportedOperationException) and the instances of its relationships can only be changed through a
+     * transaction, so readers (e.g., the digital adapters) do not need defensive copies.
      * @return The current DT State
      */
     public DigitalTwinState getDigitalTwinState() {
         return digitalTwinState;
     }
 
+    /**
+     * Returns the version of the current Digital Twin State. The version increases each time a new state is
+     * published (committed, initialized or restored).
+     * @return The version of the current DT State
+     */
+    public long getStateVersion() {
+        return digitalTwinState.getVersion();
+    }
+
+    /**
+     * Checks if a new Digital Twin State has been published after the one with the provided version
+     *
+     * @param version The version of a previously read state
+     * @return True if the current state has a different version
+     */
+    public boolean hasStateChangedSince(long version) {
+        return digitalTwinState.getVersion() != version;
+    }
+
     public String getDigitalTwinId() {
         return digitalTwinId;
     }
@@ -78,7 +78,30 @@ public class DigitalTwinStateProperty<T> extends DigitalTwinStateResource {
      */
     private boolean exposed = true;
 
-    private DigitalTwinStateProperty() {
+    DigitalTwinStateProperty() {
+    }
+
+    /**
+     * Constructor used by the primitive-specialized properties (e.g., DigitalTwinStateDoubleProperty) that store
+     * the value in a primitive field instead of the generic one.
+     *
+     * @param key the key of the property
+     * @param type the type of the property
+     * @param readable if the property is readable
+     * @param writable if the property is writable
+     * @param exposed if the property is exposed
+     * @throws WldtDigitalTwinStateException If the key is null
+     */
+    protected DigitalTwinStateProperty(String key, String type, boolean readable, boolean writable, boolean exposed) throws WldtDigitalTwinStateException {
+
+        if(key == null)
+            throw new WldtDigitalTwinStateException("Error creating DigitalTwinStateProperty ! Key = Null !");
+
+        this.key = key;
+        this.type = type;
+        this.readable = readable;
+        this.writable = writable;
+        this.exposed = exposed;
     }
 
     public DigitalTwinStateProperty(String key, T value) throws WldtDigitalTwinStateException {
@@ -118,11 +141,58 @@ public class DigitalTwinStateProperty<T> extends DigitalTwinStateResource {
         this.exposed = exposed;
     }
 
+    /**
+     * Builds a new property copying all the fields of the source one. The value reference is shared while the
+     * property container is a new object that can be independently updated (also when the source one is stored in
+     * a Digital Twin State and can not be modified).
+     *
+     * @param sourceProperty The property to copy
+     * @throws WldtDigitalTwinStateException If the source property is null
+     */
+    public DigitalTwinStateProperty(DigitalTwinStateProperty<T> sourceProperty) throws WldtDigitalTwinStateException {
+
+        if(sourceProperty == null)
+            throw new WldtDigitalTwinStateException("Error creating DigitalTwinStateProperty ! Source Property = Null !");
+
+        this.key = sourceProperty.key;
+        this.value = sourceProperty.getValue();
+        this.type = sourceProperty.type;
+        this.readable = sourceProperty.readable;
+        this.writable = sourceProperty.writable;
+        this.exposed = sourceProperty.exposed;
+    }
+
+    /**
+     * Returns a new property with the same fields that can be independently updated. Primitive-specialized
+     * properties return a copy of their own class.
+     *
+     * @return the copy of the property
+     */
+    DigitalTwinStateProperty<T> copy() {
+        DigitalTwinStateProperty<T> propertyCopy = new DigitalTwinStateProperty<>();
+        copyFieldsTo(propertyCopy);
+        propertyCopy.value = this.value;
+        return propertyCopy;
+    }
+
+    /**
+     * Copies the fields of the property (except the value) to the target one
+     * @param targetProperty the property receiving the fields
+     */
+    void copyFieldsTo(DigitalTwinStateProperty<?> targetProperty) {
+        targetProperty.key = this.key;
+        targetProperty.type = this.type;
+        targetProperty.readable = this.readable;
+        targetProperty.writable = this.writable;
+        targetProperty.exposed = this.exposed;
+    }
+
     public String getKey() {
         return key;
     }
 
     public void setKey(String key) {
+        checkNotFrozen();
         this.key = key;
     }
 
@@ -131,10 +201,12 @@ public class DigitalTwinStateProperty<T> extends DigitalTwinStateResource {
     }
 
     public void setValue(T value) {
+        checkNotFrozen();
         this.value = value;
     }
 
     public void setValueObject(Object valueObject){
+        checkNotFrozen();
         if(this.value.getClass().equals(valueObject.getClass()))
             this.value = (T) valueObject;
     }
@@ -144,6 +216,7 @@ public class DigitalTwinStateProperty<T> extends DigitalTwinStateResource {
     }
 
     public void setReadable(boolean readable) {
+        checkNotFrozen();
         this.readable = readable;
     }
 
@@ -152,6 +225,7 @@ public class DigitalTwinStateProperty<T> extends DigitalTwinStateResource {
     }
 
     public void setWritable(boolean writable) {
+        checkNotFrozen();
         this.writable = writable;
     }
 
@@ -160,6 +234,7 @@ public class DigitalTwinStateProperty<T> extends DigitalTwinStateResource {
     }
 
     public void setExposed(boolean exposed) {
+        checkNotFrozen();
         this.exposed = exposed;
     }
 
@@ -168,6 +243,7 @@ public class DigitalTwinStateProperty<T> extends DigitalTwinStateResource {
     }
 
     public void setType(String type) {
+        checkNotFrozen();
         this.type = type;
     }
 
@@ -176,19 +252,19 @@ public class DigitalTwinStateProperty<T> extends DigitalTwinStateResource {
         if (this == o) return true;
         if (!(o instanceof DigitalTwinStateProperty)) return false;
         DigitalTwinStateProperty<?> that = (DigitalTwinStateProperty<?>) o;
-        return readable == that.readable && writable == that.writable && exposed == that.exposed && Objects.equals(key, that.key) && Objects.equals(value, that.value) && Objects.equals(type, that.type);
+        return readable == that.readable && writable == that.writable && exposed == that.exposed && Objects.equals(key, that.key) && Objects.equals(getValue(), that.getValue()) && Objects.equals(type, that.type);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(key, value, readable, writable, exposed);
+        return Objects.hash(key, getValue(), readable, writable, exposed);
     }
 
     @Override
     public String toString() {
         final StringBuffer sb = new StringBuffer("DigitalTwinStateProperty{");
         sb.append("key='").append(key).append('\'');
-        sb.append(", value=").append(value);
+        sb.append(", value=").append(getValue());
         sb.append(", type='").append(type).append('\'');
         sb.append(", readable=").append(readable);
         sb.append(", writable=").append(writable);
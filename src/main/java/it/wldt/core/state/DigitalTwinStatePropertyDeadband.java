@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2025 - Current Year
+ * Marco Picone Ph.D
+ * Email: picone.m@gmail.com
+ * Website: https://www.marcopicone.net/
+ * All rights reserved.
+ *
+ * This program is provided under a Dual Licensing model:
+ * 1) GNU General Public License version 3.0 (GPL-3.0) for open-source, academic,
+ *    research, non-profit, and other non-commercial use; or
+ * 2) Commercial License, for any commercial use, proprietary development, or
+ *    closed-source distribution. To obtain a Commercial License, please contact: Marco Picone (picone.m@gmail.com)
+ *
+ * By using this software, you agree to comply with the terms of the applicable license.
+ * This applies to all forms of the software, including source code and compiled/binary forms.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+package it.wldt.core.state;
+
+import it.wldt.exception.WldtDigitalTwinStateException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deadband policy filtering the value updates of a property before they reach a transaction. Once attached to a
+ * property through the DigitalTwinStateManager (or declared on the PhysicalAssetProperty in the Physical Asset
+ * Description) a value update is dropped when:
+ *
+ * - it is received less than minInterval after the last accepted update of the property, or
+ * - its distance from the current value is within max(absoluteThreshold, relativeThreshold * |current value|)
+ *
+ * unless the last accepted update is older than maxSilence (heartbeat), in which case it is always accepted.
+ * Non-numeric values are only compared for equality. Zero disables the corresponding check: with both
+ * thresholds set to zero only updates with the same value as the current one are dropped.
+ *
+ * @author Marco Picone, Ph.D. - picone.m@gmail.com
+ */
+public class DigitalTwinStatePropertyDeadband {
+
+    private final double absoluteThreshold;
+
+    private final double relativeThreshold;
+
+    private final long minIntervalNanos;
+
+    private final long maxSilenceNanos;
+
+    /**
+     * @param absoluteThreshold Maximum absolute distance from the current value of a dropped update
+     * @param relativeThreshold Maximum distance from the current value of a dropped update as a fraction of it (e.g. 0.01 = 1%)
+     * @param minInterval Minimum interval between two accepted updates
+     * @param maxSilence Maximum interval without accepted updates: the next update is accepted even if inside the deadband
+     * @param unit Time unit of minInterval and maxSilence
+     * @throws WldtDigitalTwinStateException If a parameter is negative or the time unit is null
+     */
+    public DigitalTwinStatePropertyDeadband(double absoluteThreshold, double relativeThreshold, long minInterval, long maxSilence, TimeUnit unit) throws WldtDigitalTwinStateException {
+
+        if(!(absoluteThreshold >= 0) || !(relativeThreshold >= 0) || minInterval < 0 || maxSilence < 0 || unit == null)
+            throw new WldtDigitalTwinStateException("Error creating DigitalTwinStatePropertyDeadband ! Thresholds and intervals must be >= 0 and the time unit can not be null !");
+
+        this.absoluteThreshold = absoluteThreshold;
+        this.relativeThreshold = relativeThreshold;
+        this.minIntervalNanos = unit.toNanos(minInterval);
+        this.maxSilenceNanos = unit.toNanos(maxSilence);
+    }
+
+    /**
+     * Deadband with value thresholds only
+     *
+     * @param absoluteThreshold Maximum absolute distance from the current value of a dropped update
+     * @param relativeThreshold Maximum distance from the current value of a dropped update as a fraction of it
+     * @throws WldtDigitalTwinStateException If a threshold is negative
+     */
+    public DigitalTwinStatePropertyDeadband(double absoluteThreshold, double relativeThreshold) throws WldtDigitalTwinStateException {
+        this(absoluteThreshold, relativeThreshold, 0, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Checks if a new value is within the deadband around the current one (time constraints are not considered)
+     *
+     * @param currentValue The current value of the property
+     * @param newValue The new value of the property
+     * @return True if the new value should be dropped
+     */
+    public boolean isInsideDeadband(Object currentValue, Object newValue) {
+
+        if(currentValue instanceof Number && newValue instanceof Number) {
+
+            double current = ((Number) currentValue).doubleValue();
+            double distance = Math.abs(((Number) newValue).doubleValue() - current);
+
+            // NaN distances (e.g. a NaN reading) are never inside the deadband
+            return distance <= Math.max(this.absoluteThreshold, this.relativeThreshold * Math.abs(current));
+        }
+
+        return currentValue != null && currentValue.equals(newValue);
+    }
+
+    public double getAbsoluteThreshold() {
+        return absoluteThreshold;
+    }
+
+    public double getRelativeThreshold() {
+        return relativeThreshold;
+    }
+
+    public long getMinInterval(TimeUnit unit) {
+        return unit.convert(minIntervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public long getMaxSilence(TimeUnit unit) {
+        return unit.convert(maxSilenceNanos, TimeUnit.NANOSECONDS);
+    }
+
+    long getMinIntervalNanos() {
+        return minIntervalNanos;
+    }
+
+    long getMaxSilenceNanos() {
+        return maxSilenceNanos;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("DigitalTwinStatePropertyDeadband{");
+        sb.append("absoluteThreshold=").append(absoluteThreshold);
+        sb.append(", relativeThreshold=").append(relativeThreshold);
+        sb.append(", minIntervalNanos=").append(minIntervalNanos);
+        sb.append(", maxSilenceNanos=").append(maxSilenceNanos);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2025 - Current Year
+ * Marco Picone Ph.D
+ * Email: picone.m@gmail.com
+ * Website: https://www.marcopicone.net/
+ * All rights reserved.
+ *
+ * This program is provided under a Dual Licensing model:
+ * 1) GNU General Public License version 3.0 (GPL-3.0) for open-source, academic,
+ *    research, non-profit, and other non-commercial use; or
+ * 2) Commercial License, for any commercial use, proprietary development, or
+ *    closed-source distribution. To obtain a Commercial License, please contact: Marco Picone (picone.m@gmail.com)
+ *
+ * By using this software, you agree to comply with the terms of the applicable license.
+ * This applies to all forms of the software, including source code and compiled/binary forms.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+package it.wldt.core.state;
+
+import it.wldt.exception.WldtDigitalTwinStateException;
+
+import java.util.Arrays;
+import java.util.OptionalDouble;
+
+/**
+ * Fixed-capacity history of the values of a numeric property of the Digital Twin State. Once enabled on the
+ * DigitalTwinStateManager, the value of the property is appended at each commit changing it together with the
+ * evaluation instant of the committed state, and the oldest sample is overwritten once the capacity is reached.
+ *
+ * Samples are stored in two primitive arrays (timestamps and values) allocated when the history is created, so
+ * the memory of a history is fixed (16 bytes per sample) and an append does not allocate. Boolean values are
+ * stored as 1.0 / 0.0, while non-numeric values are not recorded.
+ *
+ * Reads are consistent with respect to concurrent commits and return the samples from the oldest to the newest.
+ *
+ * @author Marco Picone, Ph.D. - picone.m@gmail.com
+ */
+public class DigitalTwinStatePropertyHistory {
+
+    private final String propertyKey;
+
+    private final long[] timestamps;
+
+    private final double[] values;
+
+    // Index of the next sample to write and number of available samples
+    private int head = 0;
+
+    private int size = 0;
+
+    DigitalTwinStatePropertyHistory(String propertyKey, int capacity) throws WldtDigitalTwinStateException {
+
+        if(propertyKey == null || capacity <= 0)
+            throw new WldtDigitalTwinStateException("Error creating DigitalTwinStatePropertyHistory ! Property key can not be null and capacity must be > 0 !");
+
+        this.propertyKey = propertyKey;
+        this.timestamps = new long[capacity];
+        this.values = new double[capacity];
+    }
+
+    /**
+     * Appends a sample overwriting the oldest one if the history is full
+     */
+    synchronized void append(long timestampMillis, double value) {
+        this.timestamps[this.head] = timestampMillis;
+        this.values[this.head] = value;
+        this.head = (this.head + 1) % this.values.length;
+        if(this.size < this.values.length)
+            this.size++;
+    }
+
+    /**
+     * Appends the value of a property if it is numeric or boolean
+     *
+     * @return True if the value has been recorded
+     */
+    boolean append(long timestampMillis, DigitalTwinStateProperty<?> property) {
+
+        if(property instanceof DigitalTwinStateDoubleProperty)
+            append(timestampMillis, ((DigitalTwinStateDoubleProperty) property).getDoubleValue());
+        else if(property instanceof DigitalTwinStateLongProperty)
+            append(timestampMillis, (double) ((DigitalTwinStateLongProperty) property).getLongValue());
+        else if(property instanceof DigitalTwinStateBooleanProperty)
+            append(timestampMillis, ((DigitalTwinStateBooleanProperty) property).getBooleanValue() ? 1.0 : 0.0);
+        else if(property.getValue() instanceof Number)
+            append(timestampMillis, ((Number) property.getValue()).doubleValue());
+        else if(property.getValue() instanceof Boolean)
+            append(timestampMillis, (Boolean) property.getValue() ? 1.0 : 0.0);
+        else
+            return false;
+
+        return true;
+    }
+
+    // Index in the arrays of the i-th most recent sample (0 = newest)
+    private int indexOfNewest(int i) {
+        int index = this.head - 1 - i;
+        return index < 0 ? index + this.values.length : index;
+    }
+
+    public String getPropertyKey() {
+        return propertyKey;
+    }
+
+    public int getCapacity() {
+        return values.length;
+    }
+
+    /**
+     * @return The memory used by the samples of the history in bytes
+     */
+    public long getMemorySize() {
+        return (long) values.length * (Long.BYTES + Double.BYTES);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized OptionalDouble getLastValue() {
+        return this.size > 0 ? OptionalDouble.of(this.values[indexOfNewest(0)]) : OptionalDouble.empty();
+    }
+
+    /**
+     * @return The timestamp (ms) of the newest sample or -1 if the history is empty
+     */
+    public synchronized long getLastTimestamp() {
+        return this.size > 0 ? this.timestamps[indexOfNewest(0)] : -1;
+    }
+
+    /**
+     * Copies the last samples into the provided arrays, from the oldest to the newest
+     *
+     * @param count The maximum number of samples to copy
+     * @param timestampArray Destination of the timestamps (ms) or null if not needed
+     * @param valueArray Destination of the values or null if not needed
+     * @return The number of copied samples: the minimum among count, the number of samples and the length of the arrays
+     */
+    public synchronized int copyLast(int count, long[] timestampArray, double[] valueArray) {
+
+        int copyCount = Math.max(0, Math.min(count, this.size));
+        if(timestampArray != null)
+            copyCount = Math.min(copyCount, timestampArray.length);
+        if(valueArray != null)
+            copyCount = Math.min(copyCount, valueArray.length);
+
+        // The samples are stored in at most two contiguous segments of the arrays
+        int start = indexOfNewest(copyCount - 1);
+        int firstSegmentLength = Math.min(copyCount, this.values.length - start);
+
+        if(timestampArray != null) {
+            System.arraycopy(this.timestamps, start, timestampArray, 0, firstSegmentLength);
+            System.arraycopy(this.timestamps, 0, timestampArray, firstSegmentLength, copyCount - firstSegmentLength);
+        }
+
+        if(valueArray != null) {
+            System.arraycopy(this.values, start, valueArray, 0, firstSegmentLength);
+            System.arraycopy(this.values, 0, valueArray, firstSegmentLength, copyCount - firstSegmentLength);
+        }
+
+        return copyCount;
+    }
+
+    /**
+     * @param count The maximum number of values
+     * @return The last values from the oldest to the newest
+     */
+    public double[] getLastValues(int count) {
+        synchronized (this) {
+            double[] valueArray = new double[Math.max(0, Math.min(count, this.size))];
+            copyLast(valueArray.length, null, valueArray);
+            return valueArray;
+        }
+    }
+
+    /**
+     * @param count The maximum number of timestamps
+     * @return The timestamps (ms) of the last samples from the oldest to the newest
+     */
+    public long[] getLastTimestamps(int count) {
+        synchronized (this) {
+            long[] timestampArray = new long[Math.max(0, Math.min(count, this.size))];
+            copyLast(timestampArray.length, timestampArray, null);
+            return timestampArray;
+        }
+    }
+
+    /**
+     * @param fromTimestampMillis The start of the time window (ms, inclusive)
+     * @return The number of samples with a timestamp greater or equal to the provided one
+     */
+    public synchronized int countSince(long fromTimestampMillis) {
+        int count = 0;
+        while(count < this.size && this.timestamps[indexOfNewest(count)] >= fromTimestampMillis)
+            count++;
+        return count;
+    }
+
+    /**
+     * @param fromTimestampMillis The start of the time window (ms, inclusive)
+     * @return The values of the samples within the time window from the oldest to the newest
+     */
+    public double[] getValuesSince(long fromTimestampMillis) {
+        synchronized (this) {
+            return getLastValues(countSince(fromTimestampMillis));
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("DigitalTwinStatePropertyHistory{");
+        sb.append("propertyKey='").append(propertyKey).append('\'');
+        sb.append(", capacity=").append(values.length);
+        sb.append(", size=").append(size());
+        sb.append(", lastValues=").append(Arrays.toString(getLastValues(5)));
+        sb.append('}');
+        return sb.toString();
+    }
+}
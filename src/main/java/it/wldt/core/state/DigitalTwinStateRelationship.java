@@ -32,6 +32,10 @@ import java.util.*;
  * Structures and describes a Relationship in the Digital Twins's State.
  * This is just the description of the relationships while the effective values/instances are described through the
  * other class DigitalTwinStateRelationshipInstance
+ *
+ * Instances are stored in persistent maps indexed both by instance key and by target id, so a copy of the
+ * relationship shares them (adding or removing an instance costs O(log n) and not O(n)) and the instances
+ * pointing to a target are found without scanning the whole relationship.
  */
 public class DigitalTwinStateRelationship<T> extends DigitalTwinStateResource {
 
@@ -39,7 +43,10 @@ public class DigitalTwinStateRelationship<T> extends DigitalTwinStateResource {
 
     private final String type;
 
-    private final Map<String, DigitalTwinStateRelationshipInstance<T>> instances = new HashMap<>();
+    private PersistentHashTrieMap<String, DigitalTwinStateRelationshipInstance<T>> instances = PersistentHashTrieMap.empty();
+
+    // Reverse index: target id -> instances pointing to the target (by instance key)
+    private PersistentHashTrieMap<Object, PersistentHashTrieMap<String, DigitalTwinStateRelationshipInstance<T>>> targetIndex = PersistentHashTrieMap.empty();
 
     public DigitalTwinStateRelationship(String name, String type) {
         this.name = name;
@@ -54,25 +61,94 @@ public class DigitalTwinStateRelationship<T> extends DigitalTwinStateResource {
         return type;
     }
 
+    /**
+     * Returns a new list with the instances of the relationship. Use getInstanceCollection() to iterate over
+     * the instances without copying them.
+     * @return the list of the instances
+     */
     public List<DigitalTwinStateRelationshipInstance<?>> getInstances() {
-        return new ArrayList<>(instances.values());
+        return new ArrayList<>(instances.valuesView());
+    }
+
+    /**
+     * Returns an unmodifiable view of the instances of the relationship. The view is not affected by the
+     * instances added or removed afterwards.
+     * @return the instances of the relationship
+     */
+    public Collection<DigitalTwinStateRelationshipInstance<T>> getInstanceCollection() {
+        return instances.valuesView();
+    }
+
+    /**
+     * Returns an unmodifiable view of the instances pointing to the provided target
+     * @param targetId the target id
+     * @return the instances with the provided target id (empty if there are none)
+     */
+    public Collection<DigitalTwinStateRelationshipInstance<T>> getInstancesByTarget(Object targetId) {
+        PersistentHashTrieMap<String, DigitalTwinStateRelationshipInstance<T>> targetInstances = targetId == null ? null : targetIndex.get(targetId);
+        return targetInstances == null ? Collections.emptyList() : targetInstances.valuesView();
+    }
+
+    PersistentHashTrieMap<String, DigitalTwinStateRelationshipInstance<T>> getInstanceMap() {
+        return instances;
+    }
+
+    public boolean containsTarget(Object targetId){
+        return targetId != null && targetIndex.containsKey(targetId);
+    }
+
+    public int getInstanceCount(){
+        return instances.size();
     }
 
     public boolean containsInstance(String instanceKey){
-        return instances.containsKey(instanceKey);
+        return instanceKey != null && instances.containsKey(instanceKey);
     }
 
     public DigitalTwinStateRelationshipInstance<T> getInstance(String instanceKey){
-        return instances.get(instanceKey);
+        return instanceKey == null ? null : instances.get(instanceKey);
+    }
+
+    /**
+     * Instances are added and removed through the DigitalTwinStateManager, which applies them to a copy of the
+     * relationship stored in the state
+     */
+    @SuppressWarnings("unchecked")
+    void addInstance(DigitalTwinStateRelationshipInstance<?> i){
+        removeInstance(i.getKey());
+        DigitalTwinStateRelationshipInstance<T> instance = (DigitalTwinStateRelationshipInstance<T>) i;
+        this.instances = this.instances.put(instance.getKey(), instance);
+        if(instance.getTargetId() != null) {
+            PersistentHashTrieMap<String, DigitalTwinStateRelationshipInstance<T>> targetInstances = this.targetIndex.get(instance.getTargetId());
+            if(targetInstances == null)
+                targetInstances = PersistentHashTrieMap.empty();
+            this.targetIndex = this.targetIndex.put(instance.getTargetId(), targetInstances.put(instance.getKey(), instance));
+        }
     }
 
-    public void addInstance(DigitalTwinStateRelationshipInstance<?> i){
-        this.instances.put(i.getKey(), (DigitalTwinStateRelationshipInstance<T>) i);
+    /**
+     * Returns a new relationship with the same name, type and instances that can be independently updated.
+     * The instances are shared with the copy and not copied.
+     * @return the copy of the relationship
+     */
+    DigitalTwinStateRelationship<T> copy(){
+        DigitalTwinStateRelationship<T> relationshipCopy = new DigitalTwinStateRelationship<>(this.name, this.type);
+        relationshipCopy.instances = this.instances;
+        relationshipCopy.targetIndex = this.targetIndex;
+        return relationshipCopy;
     }
 
-    public void removeInstance(String instanceKey){
-        if(containsInstance(instanceKey))
-            this.instances.remove(instanceKey);
+    void removeInstance(String instanceKey){
+        DigitalTwinStateRelationshipInstance<T> instance = getInstance(instanceKey);
+        if(instance == null)
+            return;
+        this.instances = this.instances.remove(instanceKey);
+        if(instance.getTargetId() != null) {
+            PersistentHashTrieMap<String, DigitalTwinStateRelationshipInstance<T>> targetInstances = this.targetIndex.get(instance.getTargetId()).remove(instanceKey);
+            this.targetIndex = targetInstances.isEmpty() ?
+                    this.targetIndex.remove(instance.getTargetId()) :
+                    this.targetIndex.put(instance.getTargetId(), targetInstances);
+        }
     }
 
     @Override
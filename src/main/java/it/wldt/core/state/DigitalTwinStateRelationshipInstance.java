@@ -20,6 +20,7 @@
  */
 package it.wldt.core.state;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -47,7 +48,8 @@ public class DigitalTwinStateRelationshipInstance<T> extends DigitalTwinStateRes
         this.relationshipName = relationshipName;
         this.targetId = targetId;
         this.instanceKey = instanceKey;
-        this.metadata = metadata;
+        // Instances are shared by the published states: the metadata can not be modified after the creation
+        this.metadata = metadata == null ? null : Collections.unmodifiableMap(new HashMap<>(metadata));
     }
 
     public DigitalTwinStateRelationshipInstance(String relationshipName, T targetId, String instanceKey) {
@@ -28,4 +28,28 @@ package it.wldt.core.state;
  * @author Marco Picone, Ph.D. - picone.m@gmail.com
  */
 public class DigitalTwinStateResource {
+
+    // Set when the resource is stored in a Digital Twin State: stored resources are shared between the state
+    // versions, so they can not be modified anymore
+    private boolean frozen = false;
+
+    void freeze() {
+        this.frozen = true;
+    }
+
+    /**
+     * @return true if the resource is stored in a Digital Twin State and can not be modified
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Checks that the resource can be modified
+     * @throws UnsupportedOperationException If the resource is stored in a Digital Twin State
+     */
+    protected void checkNotFrozen() {
+        if(this.frozen)
+            throw new UnsupportedOperationException(String.format("%s stored in a Digital Twin State can not be modified ! Update a copy through the DigitalTwinStateManager !", getClass().getSimpleName()));
+    }
 }
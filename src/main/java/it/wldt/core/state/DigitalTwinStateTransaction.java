@@ -26,6 +26,9 @@ import it.wldt.log.WldtLoggerProvider;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * @author Marco Picone, Ph.D. - picone.m@gmail.com
@@ -46,6 +49,12 @@ public class DigitalTwinStateTransaction {
 
     private boolean isCommitted = false;
 
+    // Number of value updates dropped by the deadband policies of their properties
+    private int suppressedUpdateCount = 0;
+
+    // Max ages (in nanoseconds) of the properties created by the transaction, set when it is committed
+    private Map<String, Long> propertyMaxAgeNanosMap = null;
+
     /**
      * List of Digital Twin State Changes
      */
@@ -54,7 +63,9 @@ public class DigitalTwinStateTransaction {
     private DigitalTwinStateTransaction(){}
 
     /**
-     * A new Digital Twin State Transaction is created starting from the current Digital Twin State
+     * A new Digital Twin State Transaction is created starting from the current Digital Twin State.
+     * The new state shares the resources of the start one, so the cost of the transaction only depends on the
+     * number of applied changes and not on the size of the state.
      * @param startDigitalTwinState
      */
     public DigitalTwinStateTransaction(DigitalTwinState startDigitalTwinState) {
@@ -69,7 +80,20 @@ public class DigitalTwinStateTransaction {
      */
     public void clean(){
         this.digitalTwinStateChangeList.clear();
-        this.endDigitalTwinState = this.startDigitalTwinState;
+        this.endDigitalTwinState = new DigitalTwinState(this.startDigitalTwinState);
+        this.suppressedUpdateCount = 0;
+        this.propertyMaxAgeNanosMap = null;
+    }
+
+    /**
+     * Moves the transaction on top of a more recent Digital Twin State discarding the already applied changes.
+     * The list of requested changes is retained and applied again by handleStateChanges().
+     * @param newStartDigitalTwinState The new state the transaction is based on
+     */
+    void rebase(DigitalTwinState newStartDigitalTwinState){
+        this.startDigitalTwinState = newStartDigitalTwinState;
+        this.endDigitalTwinState = new DigitalTwinState(newStartDigitalTwinState);
+        this.isCommitted = false;
     }
 
     /**
@@ -88,8 +112,39 @@ public class DigitalTwinStateTransaction {
         this.digitalTwinStateChangeList.add(digitalTwinStateChange);
     }
 
+    /**
+     * Adds a value update change for each entry of the provided map. The entries are validated only when the
+     * changes are applied, where consecutive value updates are handled in a single pass.
+     * @param propertyValueMap The new values of the properties
+     * @throws WldtDigitalTwinStateException If the transaction is already committed or a key or value is null
+     */
+    public void addPropertyValueChanges(Map<String, ?> propertyValueMap) throws WldtDigitalTwinStateException {
+
+        if(isCommitted)
+            throw new WldtDigitalTwinStateException("Digital Twin State Transaction already Committed !");
+
+        if(propertyValueMap == null)
+            throw new WldtDigitalTwinStateException("Impossible to addPropertyValueChanges() -> Property Value Map = null !");
+
+        int initialSize = this.digitalTwinStateChangeList.size();
+        this.digitalTwinStateChangeList.ensureCapacity(initialSize + propertyValueMap.size());
+
+        try {
+            for(Map.Entry<String, ?> entry : propertyValueMap.entrySet())
+                this.digitalTwinStateChangeList.add(new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_UPDATE_VALUE,
+                        DigitalTwinStateChange.ResourceType.PROPERTY_VALUE,
+                        new DigitalTwinStateProperty<>(entry.getKey(), entry.getValue())));
+        } catch (WldtDigitalTwinStateException e) {
+            // Changes are added all together or not at all
+            this.digitalTwinStateChangeList.subList(initialSize, this.digitalTwinStateChangeList.size()).clear();
+            throw e;
+        }
+    }
+
     /**
      * Apply all the added changes to compute the new Digital Twin State updating also its evaluation Instant.
+     * Once applied, the list of changes is compacted: multiple changes of the same resource are replaced by the
+     * minimal changes leading to its final value (see DigitalTwinStateChangeCompactor).
      * @throws WldtDigitalTwinStateException
      */
     public void handleStateChanges() throws WldtDigitalTwinStateException {
@@ -97,19 +152,59 @@ public class DigitalTwinStateTransaction {
         try {
 
             //Apply Digital Twin State Changes added to the Transaction
-            for(DigitalTwinStateChange digitalTwinStateChange : this.digitalTwinStateChangeList){
-                if((digitalTwinStateChange.getResourceType().equals(DigitalTwinStateChange.ResourceType.PROPERTY) || digitalTwinStateChange.getResourceType().equals(DigitalTwinStateChange.ResourceType.PROPERTY_VALUE) ) && digitalTwinStateChange.getResource() instanceof DigitalTwinStateProperty)
-                    handlePropertyChange(digitalTwinStateChange.getOperation(), (DigitalTwinStateProperty<?>)digitalTwinStateChange.getResource());
-                else if(digitalTwinStateChange.getResourceType().equals(DigitalTwinStateChange.ResourceType.EVENT) && digitalTwinStateChange.getResource() instanceof DigitalTwinStateEvent)
-                    handleEventChange(digitalTwinStateChange.getOperation(), (DigitalTwinStateEvent)digitalTwinStateChange.getResource());
-                else if(digitalTwinStateChange.getResourceType().equals(DigitalTwinStateChange.ResourceType.ACTION) && digitalTwinStateChange.getResource() instanceof DigitalTwinStateAction)
-                    handleActionChange(digitalTwinStateChange.getOperation(), (DigitalTwinStateAction)digitalTwinStateChange.getResource());
-                else if(digitalTwinStateChange.getResourceType().equals(DigitalTwinStateChange.ResourceType.RELATIONSHIP) && digitalTwinStateChange.getResource() instanceof DigitalTwinStateRelationship)
-                    handleRelationshipChange(digitalTwinStateChange.getOperation(), (DigitalTwinStateRelationship<?>)digitalTwinStateChange.getResource());
-                else if(digitalTwinStateChange.getResourceType().equals(DigitalTwinStateChange.ResourceType.RELATIONSHIP_INSTANCE) && digitalTwinStateChange.getResource() instanceof DigitalTwinStateRelationshipInstance)
-                    handleRelationshipInstanceChange(digitalTwinStateChange.getOperation(), (DigitalTwinStateRelationshipInstance<?>)digitalTwinStateChange.getResource());
+            int changeCount = this.digitalTwinStateChangeList.size();
+
+            for(int index = 0; index < changeCount; ){
+
+                DigitalTwinStateChange digitalTwinStateChange = this.digitalTwinStateChangeList.get(index);
+                DigitalTwinStateResource resource = digitalTwinStateChange.getResource();
+
+                // Consecutive property value updates are applied together with a single update of the state
+                int runEnd = index;
+                while(runEnd < changeCount && isPropertyValueUpdate(this.digitalTwinStateChangeList.get(runEnd)))
+                    runEnd++;
+
+                if(runEnd - index > 1) {
+                    List<DigitalTwinStateProperty<?>> propertyList = new ArrayList<>(runEnd - index);
+                    for(int runIndex = index; runIndex < runEnd; runIndex++)
+                        propertyList.add((DigitalTwinStateProperty<?>) this.digitalTwinStateChangeList.get(runIndex).getResource());
+                    this.endDigitalTwinState.updatePropertyValues(propertyList);
+                    index = runEnd;
+                    continue;
+                }
+
+                switch (digitalTwinStateChange.getResourceType()) {
+                    case PROPERTY:
+                    case PROPERTY_VALUE:
+                        if(resource instanceof DigitalTwinStateProperty)
+                            handlePropertyChange(digitalTwinStateChange.getOperation(), (DigitalTwinStateProperty<?>) resource);
+                        break;
+                    case EVENT:
+                        if(resource instanceof DigitalTwinStateEvent)
+                            handleEventChange(digitalTwinStateChange.getOperation(), (DigitalTwinStateEvent) resource);
+                        break;
+                    case ACTION:
+                        if(resource instanceof DigitalTwinStateAction)
+                            handleActionChange(digitalTwinStateChange.getOperation(), (DigitalTwinStateAction) resource);
+                        break;
+                    case RELATIONSHIP:
+                        if(resource instanceof DigitalTwinStateRelationship)
+                            handleRelationshipChange(digitalTwinStateChange.getOperation(), (DigitalTwinStateRelationship<?>) resource);
+                        break;
+                    case RELATIONSHIP_INSTANCE:
+                        if(resource instanceof DigitalTwinStateRelationshipInstance)
+                            handleRelationshipInstanceChange(digitalTwinStateChange.getOperation(), (DigitalTwinStateRelationshipInstance<?>) resource);
+                        break;
+                }
+
+                index++;
             }
 
+            //Keep only the minimal list of changes notified to the adapters and stored (e.g. the last update of a property)
+            List<DigitalTwinStateChange> compactedChangeList = DigitalTwinStateChangeCompactor.compact(this.digitalTwinStateChangeList, this.endDigitalTwinState);
+            if(compactedChangeList != this.digitalTwinStateChangeList)
+                this.digitalTwinStateChangeList = new ArrayList<>(compactedChangeList);
+
             //Update Digital Twin State evaluation Instant
             this.endDigitalTwinState.setEvaluationInstant(Instant.now());
 
@@ -124,6 +219,38 @@ public class DigitalTwinStateTransaction {
 
     }
 
+    /**
+     * Applies a property change computed after the requested ones (e.g. the new value of a derived property)
+     * to the new state of an already applied transaction and adds it to the list of changes
+     * @param digitalTwinStateChange The property change
+     * @throws WldtDigitalTwinStateException If the change can not be applied
+     */
+    void applyPropertyChange(DigitalTwinStateChange digitalTwinStateChange) throws WldtDigitalTwinStateException {
+        try {
+            handlePropertyChange(digitalTwinStateChange.getOperation(), (DigitalTwinStateProperty<?>) digitalTwinStateChange.getResource());
+            this.digitalTwinStateChangeList.add(digitalTwinStateChange);
+        } catch (Exception e) {
+            throw new WldtDigitalTwinStateException(String.format("Exception applying Digital Twin State Change %s ! Error: %s", digitalTwinStateChange, e.getLocalizedMessage()));
+        }
+    }
+
+    /**
+     * Compacts again the list of changes of an already applied transaction (e.g. after applying computed changes
+     * on resources already changed by the transaction)
+     * @throws WldtDigitalTwinStateException If the compacted changes can not be created
+     */
+    void compactStateChanges() throws WldtDigitalTwinStateException {
+        List<DigitalTwinStateChange> compactedChangeList = DigitalTwinStateChangeCompactor.compact(this.digitalTwinStateChangeList, this.endDigitalTwinState);
+        if(compactedChangeList != this.digitalTwinStateChangeList)
+            this.digitalTwinStateChangeList = new ArrayList<>(compactedChangeList);
+    }
+
+    private static boolean isPropertyValueUpdate(DigitalTwinStateChange digitalTwinStateChange) {
+        return digitalTwinStateChange.getOperation() == DigitalTwinStateChange.Operation.OPERATION_UPDATE_VALUE
+                && digitalTwinStateChange.getResourceType() == DigitalTwinStateChange.ResourceType.PROPERTY_VALUE
+                && digitalTwinStateChange.getResource() instanceof DigitalTwinStateProperty;
+    }
+
     /**
      * Handle a Property Change on the new Digital Twin State
      * @param operation
@@ -140,8 +267,17 @@ public class DigitalTwinStateTransaction {
             this.endDigitalTwinState.deleteProperty(digitalTwinStateProperty.getKey());
         else if(operation.equals(DigitalTwinStateChange.Operation.OPERATION_UPDATE))
             this.endDigitalTwinState.updateProperty(digitalTwinStateProperty);
-        else if(operation.equals(DigitalTwinStateChange.Operation.OPERATION_UPDATE_VALUE))
-            this.endDigitalTwinState.updatePropertyValue(digitalTwinStateProperty.getKey(), digitalTwinStateProperty.getValue());
+        else if(operation.equals(DigitalTwinStateChange.Operation.OPERATION_UPDATE_VALUE)) {
+            // Primitive-specialized properties are applied without boxing their values
+            if(digitalTwinStateProperty instanceof DigitalTwinStateDoubleProperty)
+                this.endDigitalTwinState.updatePropertyDoubleValue(digitalTwinStateProperty.getKey(), ((DigitalTwinStateDoubleProperty) digitalTwinStateProperty).getDoubleValue());
+            else if(digitalTwinStateProperty instanceof DigitalTwinStateLongProperty)
+                this.endDigitalTwinState.updatePropertyLongValue(digitalTwinStateProperty.getKey(), ((DigitalTwinStateLongProperty) digitalTwinStateProperty).getLongValue());
+            else if(digitalTwinStateProperty instanceof DigitalTwinStateBooleanProperty)
+                this.endDigitalTwinState.updatePropertyBooleanValue(digitalTwinStateProperty.getKey(), ((DigitalTwinStateBooleanProperty) digitalTwinStateProperty).getBooleanValue());
+            else
+                this.endDigitalTwinState.updatePropertyValue(digitalTwinStateProperty.getKey(), digitalTwinStateProperty.getValue());
+        }
         else
             throw new WldtDigitalTwinStatePropertyException(String.format("Wrong DigitalTwinStateChange Operation Provided: %s", operation));
     }
@@ -230,6 +366,14 @@ public class DigitalTwinStateTransaction {
         return endDigitalTwinState;
     }
 
+    /**
+     * Returns the version of the Digital Twin State the transaction is based on
+     * @return The version of the start Digital Twin State
+     */
+    public long getBaseVersion() {
+        return startDigitalTwinState.getVersion();
+    }
+
     /**
      * Returns if the Transaction has been correctly commited and applied
      * @return
@@ -238,6 +382,35 @@ public class DigitalTwinStateTransaction {
         return isCommitted;
     }
 
+    /**
+     * @return The number of value updates of this transaction dropped by the deadband policies of their properties
+     */
+    public int getSuppressedUpdateCount() {
+        return suppressedUpdateCount;
+    }
+
+    void addSuppressedUpdates(int count) {
+        this.suppressedUpdateCount += count;
+    }
+
+    void addPropertyMaxAge(String propertyKey, long maxAgeNanos) {
+        if(this.propertyMaxAgeNanosMap == null)
+            this.propertyMaxAgeNanosMap = new HashMap<>();
+        this.propertyMaxAgeNanosMap.put(propertyKey, maxAgeNanos);
+    }
+
+    boolean hasPropertyMaxAges() {
+        return this.propertyMaxAgeNanosMap != null;
+    }
+
+    Long getPropertyMaxAgeNanos(String propertyKey) {
+        return this.propertyMaxAgeNanosMap != null ? this.propertyMaxAgeNanosMap.get(propertyKey) : null;
+    }
+
+    int getChangeCount() {
+        return digitalTwinStateChangeList.size();
+    }
+
     public ArrayList<DigitalTwinStateChange> getDigitalTwinStateChangeList() {
         return new ArrayList<>(digitalTwinStateChangeList);
     }
@@ -0,0 +1,739 @@
+/*
+ * Copyright (c) 2025 - Current Year
+ * Marco Picone Ph.D
+ * Email: picone.m@gmail.com
+ * Website: https://www.marcopicone.net/
+ * All rights reserved.
+ *
+ * This program is provided under a Dual Licensing model:
+ * 1) GNU General Public License version 3.0 (GPL-3.0) for open-source, academic,
+ *    research, non-profit, and other non-commercial use; or
+ * 2) Commercial License, for any commercial use, proprietary development, or
+ *    closed-source distribution. To obtain a Commercial License, please contact: Marco Picone (picone.m@gmail.com)
+ *
+ * By using this software, you agree to comply with the terms of the applicable license.
+ * This applies to all forms of the software, including source code and compiled/binary forms.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ */
+package it.wldt.core.state;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable (persistent) map implemented as a Hash Array Mapped Trie (HAMT).
+ * Each update returns a new map sharing all the untouched nodes with the original one: only the path from the root
+ * to the updated entry is copied, so an update costs O(log32 n) and the previous version of the map is never
+ * modified. It is used to store the resources of the DigitalTwinState allowing consecutive states (e.g., the start
+ * and the end state of a transaction) to share the unchanged entries without copying them.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ *
+ * @author Marco Picone, Ph.D. - picone.m@gmail.com
+ */
+final class PersistentHashTrieMap<K, V> {
+
+    private static final int BITS_PER_LEVEL = 5;
+
+    private static final int LEVEL_MASK = 0x1f;
+
+    private static final PersistentHashTrieMap<?, ?> EMPTY = new PersistentHashTrieMap<>(BitmapNode.EMPTY, 0);
+
+    private final Node root;
+
+    private final int size;
+
+    private PersistentHashTrieMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * @return the empty map
+     */
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentHashTrieMap<K, V> empty() {
+        return (PersistentHashTrieMap<K, V>) EMPTY;
+    }
+
+    /**
+     * Builds a persistent map with the entries of the provided map
+     *
+     * @param sourceMap the map to copy (null is handled as an empty map)
+     * @return the new persistent map
+     */
+    static <K, V> PersistentHashTrieMap<K, V> of(Map<K, V> sourceMap) {
+        PersistentHashTrieMap<K, V> map = empty();
+        return sourceMap == null ? map : map.putAll(sourceMap);
+    }
+
+    /**
+     * Returns the value associated to the key
+     *
+     * @param key the key to look for
+     * @return the associated value or null if the key is not in the map
+     */
+    @SuppressWarnings("unchecked")
+    V get(Object key) {
+        Leaf leaf = this.root.find(spread(key), key, 0);
+        return leaf == null ? null : (V) leaf.value;
+    }
+
+    boolean containsKey(Object key) {
+        return this.root.find(spread(key), key, 0) != null;
+    }
+
+    /**
+     * Returns a new map with the key associated to the provided value. The current map is not modified.
+     *
+     * @param key the key (not null)
+     * @param value the value
+     * @return the new map or the current one if the key was already associated to the same value instance
+     */
+    PersistentHashTrieMap<K, V> put(K key, V value) {
+        Objects.requireNonNull(key, "PersistentHashTrieMap key = Null !");
+        boolean[] added = new boolean[1];
+        Node newRoot = this.root.put(spread(key), key, value, 0, added);
+        if(newRoot == this.root)
+            return this;
+        return new PersistentHashTrieMap<>(newRoot, added[0] ? this.size + 1 : this.size);
+    }
+
+    /**
+     * Returns a new map with all the entries of the provided map. The current map is not modified.
+     * The nodes created by the batch are updated in place while inserting the following entries (they are not
+     * reachable from any other map yet), so each node along the updated paths is copied at most once instead of
+     * once per entry.
+     *
+     * @param entryMap the entries to put (keys must not be null)
+     * @return the new map or the current one if no entry changed it
+     */
+    PersistentHashTrieMap<K, V> putAll(Map<? extends K, ? extends V> entryMap) {
+
+        if(entryMap.isEmpty())
+            return this;
+
+        // Identifies the nodes owned by this batch
+        Object edit = new Object();
+        boolean[] added = new boolean[1];
+
+        Node newRoot = this.root;
+        int newSize = this.size;
+
+        for(Map.Entry<? extends K, ? extends V> entry : entryMap.entrySet()) {
+            K key = Objects.requireNonNull(entry.getKey(), "PersistentHashTrieMap key = Null !");
+            added[0] = false;
+            newRoot = newRoot.putInPlace(edit, spread(key), key, entry.getValue(), 0, added);
+            if(added[0])
+                newSize++;
+        }
+
+        if(newRoot == this.root)
+            return this;
+
+        return new PersistentHashTrieMap<>(newRoot, newSize);
+    }
+
+    /**
+     * Returns a new map without the provided key. The current map is not modified.
+     *
+     * @param key the key to remove
+     * @return the new map or the current one if the key was not in the map
+     */
+    PersistentHashTrieMap<K, V> remove(Object key) {
+        Node newRoot = this.root.remove(spread(key), key, 0);
+        if(newRoot == this.root)
+            return this;
+        return new PersistentHashTrieMap<>(newRoot, this.size - 1);
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEach(BiConsumer<? super K, ? super V> action) {
+        this.root.forEach((BiConsumer<Object, Object>) action);
+    }
+
+    /**
+     * @return a new list with the values of the map
+     */
+    List<V> values() {
+        List<V> valueList = new ArrayList<>(this.size);
+        forEach((key, value) -> valueList.add(value));
+        return valueList;
+    }
+
+    /**
+     * Returns an unmodifiable view of the values of the map. Since the map is immutable the view does not copy
+     * the values and can be iterated while new versions of the map are created.
+     *
+     * @return the values of the map
+     */
+    Collection<V> valuesView() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new ValueIterator<>(root);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Difference between two maps for a single key: the previous value is null for an added key and the new
+     * value is null for a removed one
+     */
+    static final class Difference<K, V> {
+
+        final K key;
+
+        final V previousValue;
+
+        final V newValue;
+
+        private Difference(K key, V previousValue, V newValue) {
+            this.key = key;
+            this.previousValue = previousValue;
+            this.newValue = newValue;
+        }
+    }
+
+    /**
+     * Returns the keys added, removed or associated to a different value instance in the new map. The subtries
+     * shared by the two maps are skipped, so comparing two versions of a map derived one from the other costs
+     * O(d log32 n) where d is the number of differences. Maps built independently are compared entry by entry.
+     * Values must not be null.
+     *
+     * @param previousMap the previous map
+     * @param newMap the new map
+     * @return the list of differences
+     */
+    @SuppressWarnings("unchecked")
+    static <K, V> List<Difference<K, V>> diff(PersistentHashTrieMap<K, V> previousMap, PersistentHashTrieMap<K, V> newMap) {
+        List<Difference<Object, Object>> differenceList = new ArrayList<>();
+        diffNodes(previousMap.root, newMap.root, differenceList);
+        return (List<Difference<K, V>>) (List<?>) differenceList;
+    }
+
+    private static void diffNodes(Node previousNode, Node newNode, List<Difference<Object, Object>> differenceList) {
+
+        if(previousNode == newNode)
+            return;
+
+        if(!(previousNode instanceof BitmapNode) || !(newNode instanceof BitmapNode)) {
+            diffEntries(previousNode, newNode, differenceList);
+            return;
+        }
+
+        BitmapNode previousBitmapNode = (BitmapNode) previousNode;
+        BitmapNode newBitmapNode = (BitmapNode) newNode;
+
+        // Slots are compared position by position: both nodes are at the same level of the trie
+        for(int bitmap = previousBitmapNode.bitmap | newBitmapNode.bitmap; bitmap != 0; ) {
+
+            int bit = Integer.lowestOneBit(bitmap);
+            bitmap &= ~bit;
+
+            Object previousSlot = (previousBitmapNode.bitmap & bit) != 0 ? previousBitmapNode.slots[previousBitmapNode.index(bit)] : null;
+            Object newSlot = (newBitmapNode.bitmap & bit) != 0 ? newBitmapNode.slots[newBitmapNode.index(bit)] : null;
+
+            if(previousSlot == newSlot)
+                continue;
+
+            if(previousSlot instanceof Leaf && newSlot instanceof Leaf && Objects.equals(((Leaf) previousSlot).key, ((Leaf) newSlot).key)) {
+                if(((Leaf) previousSlot).value != ((Leaf) newSlot).value)
+                    differenceList.add(new Difference<>(((Leaf) previousSlot).key, ((Leaf) previousSlot).value, ((Leaf) newSlot).value));
+            }
+            else if(previousSlot instanceof Node && newSlot instanceof Node)
+                diffNodes((Node) previousSlot, (Node) newSlot, differenceList);
+            else
+                diffEntries(previousSlot, newSlot, differenceList);
+        }
+    }
+
+    /**
+     * Compares the entries of two slots (each one can be null, a Leaf or a Node) through a temporary map
+     */
+    private static void diffEntries(Object previousSlot, Object newSlot, List<Difference<Object, Object>> differenceList) {
+
+        Map<Object, Object> previousEntries = new HashMap<>();
+        forEachEntry(previousSlot, previousEntries::put);
+
+        forEachEntry(newSlot, (key, value) -> {
+            Object previousValue = previousEntries.remove(key);
+            if(previousValue != value)
+                differenceList.add(new Difference<>(key, previousValue, value));
+        });
+
+        previousEntries.forEach((key, value) -> differenceList.add(new Difference<>(key, value, null)));
+    }
+
+    private static void forEachEntry(Object slot, BiConsumer<Object, Object> action) {
+        if(slot instanceof Leaf)
+            action.accept(((Leaf) slot).key, ((Leaf) slot).value);
+        else if(slot instanceof Node)
+            ((Node) slot).forEach(action);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("{");
+        forEach((key, value) -> {
+            if(sb.length() > 1)
+                sb.append(", ");
+            sb.append(key).append('=').append(value);
+        });
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private static int spread(Object key) {
+        int hash = key == null ? 0 : key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Depth first iterator over the entries of the trie keeping the path from the root in fixed size arrays
+     */
+    private static final class ValueIterator<V> implements Iterator<V> {
+
+        // Up to 7 bitmap levels (32 hash bits, 5 for each level) followed by a collision node
+        private static final int MAX_DEPTH = 8;
+
+        private final Object[][] slotPath = new Object[MAX_DEPTH][];
+
+        private final int[] positionPath = new int[MAX_DEPTH];
+
+        private int depth = 0;
+
+        private Leaf nextLeaf;
+
+        private ValueIterator(Node root) {
+            push(root);
+            advance();
+        }
+
+        private void push(Node node) {
+            this.slotPath[this.depth] = node instanceof BitmapNode ? ((BitmapNode) node).slots : ((CollisionNode) node).leaves;
+            this.positionPath[this.depth] = 0;
+            this.depth++;
+        }
+
+        private void advance() {
+            this.nextLeaf = null;
+            while(this.depth > 0) {
+                Object[] slots = this.slotPath[this.depth - 1];
+                int position = this.positionPath[this.depth - 1];
+                if(position == slots.length) {
+                    this.slotPath[--this.depth] = null;
+                    continue;
+                }
+                this.positionPath[this.depth - 1]++;
+                if(slots[position] instanceof Leaf) {
+                    this.nextLeaf = (Leaf) slots[position];
+                    return;
+                }
+                push((Node) slots[position]);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.nextLeaf != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            if(this.nextLeaf == null)
+                throw new NoSuchElementException();
+            V value = (V) this.nextLeaf.value;
+            advance();
+            return value;
+        }
+    }
+
+    ///////////////////////////////////// TRIE NODES /////////////////////////////////////////////
+
+    /**
+     * Entry of the map stored in a trie node
+     */
+    private static final class Leaf {
+
+        private final int hash;
+
+        private final Object key;
+
+        private final Object value;
+
+        private Leaf(int hash, Object key, Object value) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+        }
+
+        private boolean matches(int hash, Object key) {
+            return this.hash == hash && Objects.equals(this.key, key);
+        }
+    }
+
+    private interface Node {
+
+        Leaf find(int hash, Object key, int shift);
+
+        Node put(int hash, Object key, Object value, int shift, boolean[] added);
+
+        /**
+         * Same as put() but the nodes owned by the provided edit are updated in place instead of being copied
+         */
+        Node putInPlace(Object edit, int hash, Object key, Object value, int shift, boolean[] added);
+
+        Node remove(int hash, Object key, int shift);
+
+        /**
+         * @return the only entry of the node if it contains a single entry, null otherwise
+         */
+        Leaf singleLeaf();
+
+        void forEach(BiConsumer<Object, Object> action);
+    }
+
+    /**
+     * Node with up to 32 slots selected by 5 bits of the hash. Only the used slots are allocated: the bitmap
+     * identifies them and each slot contains either an entry (Leaf) or a child Node.
+     */
+    private static final class BitmapNode implements Node {
+
+        private static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        // Only modified by putInPlace() on the nodes owned by the running batch
+        private int bitmap;
+
+        private Object[] slots;
+
+        // Batch owning the node (null for the nodes of a published map)
+        private final Object edit;
+
+        private BitmapNode(int bitmap, Object[] slots) {
+            this(null, bitmap, slots);
+        }
+
+        private BitmapNode(Object edit, int bitmap, Object[] slots) {
+            this.edit = edit;
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(this.bitmap & (bit - 1));
+        }
+
+        @Override
+        public Leaf find(int hash, Object key, int shift) {
+
+            int bit = 1 << ((hash >>> shift) & LEVEL_MASK);
+
+            if((this.bitmap & bit) == 0)
+                return null;
+
+            Object slot = this.slots[index(bit)];
+
+            if(slot instanceof Leaf)
+                return ((Leaf) slot).matches(hash, key) ? (Leaf) slot : null;
+
+            return ((Node) slot).find(hash, key, shift + BITS_PER_LEVEL);
+        }
+
+        @Override
+        public Node put(int hash, Object key, Object value, int shift, boolean[] added) {
+
+            int bit = 1 << ((hash >>> shift) & LEVEL_MASK);
+            int index = index(bit);
+
+            if((this.bitmap & bit) == 0) {
+                Object[] newSlots = new Object[this.slots.length + 1];
+                System.arraycopy(this.slots, 0, newSlots, 0, index);
+                newSlots[index] = new Leaf(hash, key, value);
+                System.arraycopy(this.slots, index, newSlots, index + 1, this.slots.length - index);
+                added[0] = true;
+                return new BitmapNode(this.bitmap | bit, newSlots);
+            }
+
+            Object slot = this.slots[index];
+            Object newSlot;
+
+            if(slot instanceof Leaf) {
+                Leaf leaf = (Leaf) slot;
+                if(leaf.matches(hash, key)) {
+                    if(leaf.value == value)
+                        return this;
+                    newSlot = new Leaf(hash, leaf.key, value);
+                }
+                else {
+                    newSlot = merge(leaf, new Leaf(hash, key, value), shift + BITS_PER_LEVEL);
+                    added[0] = true;
+                }
+            }
+            else {
+                Node child = (Node) slot;
+                Node newChild = child.put(hash, key, value, shift + BITS_PER_LEVEL, added);
+                if(newChild == child)
+                    return this;
+                newSlot = newChild;
+            }
+
+            Object[] newSlots = this.slots.clone();
+            newSlots[index] = newSlot;
+            return new BitmapNode(this.bitmap, newSlots);
+        }
+
+        @Override
+        public Node putInPlace(Object edit, int hash, Object key, Object value, int shift, boolean[] added) {
+
+            int bit = 1 << ((hash >>> shift) & LEVEL_MASK);
+            int index = index(bit);
+
+            if((this.bitmap & bit) == 0) {
+                Object[] newSlots = new Object[this.slots.length + 1];
+                System.arraycopy(this.slots, 0, newSlots, 0, index);
+                newSlots[index] = new Leaf(hash, key, value);
+                System.arraycopy(this.slots, index, newSlots, index + 1, this.slots.length - index);
+                added[0] = true;
+                if(this.edit != edit)
+                    return new BitmapNode(edit, this.bitmap | bit, newSlots);
+                this.bitmap |= bit;
+                this.slots = newSlots;
+                return this;
+            }
+
+            Object slot = this.slots[index];
+            Object newSlot;
+
+            if(slot instanceof Leaf) {
+                Leaf leaf = (Leaf) slot;
+                if(leaf.matches(hash, key)) {
+                    if(leaf.value == value)
+                        return this;
+                    newSlot = new Leaf(hash, leaf.key, value);
+                }
+                else {
+                    newSlot = merge(leaf, new Leaf(hash, key, value), shift + BITS_PER_LEVEL);
+                    added[0] = true;
+                }
+            }
+            else {
+                Node child = (Node) slot;
+                Node newChild = child.putInPlace(edit, hash, key, value, shift + BITS_PER_LEVEL, added);
+                if(newChild == child)
+                    return this;
+                newSlot = newChild;
+            }
+
+            if(this.edit != edit) {
+                Object[] newSlots = this.slots.clone();
+                newSlots[index] = newSlot;
+                return new BitmapNode(edit, this.bitmap, newSlots);
+            }
+
+            this.slots[index] = newSlot;
+            return this;
+        }
+
+        @Override
+        public Node remove(int hash, Object key, int shift) {
+
+            int bit = 1 << ((hash >>> shift) & LEVEL_MASK);
+
+            if((this.bitmap & bit) == 0)
+                return this;
+
+            int index = index(bit);
+            Object slot = this.slots[index];
+
+            if(slot instanceof Leaf) {
+                if(!((Leaf) slot).matches(hash, key))
+                    return this;
+                return withoutSlot(bit, index);
+            }
+
+            Node child = (Node) slot;
+            Node newChild = child.remove(hash, key, shift + BITS_PER_LEVEL);
+
+            if(newChild == child)
+                return this;
+
+            // Inline the children left with a single entry to keep the trie compact
+            Leaf singleLeaf = newChild.singleLeaf();
+
+            if(singleLeaf == null && newChild == BitmapNode.EMPTY)
+                return withoutSlot(bit, index);
+
+            Object[] newSlots = this.slots.clone();
+            newSlots[index] = singleLeaf != null ? singleLeaf : newChild;
+            return new BitmapNode(this.bitmap, newSlots);
+        }
+
+        private Node withoutSlot(int bit, int index) {
+
+            if(this.slots.length == 1)
+                return EMPTY;
+
+            Object[] newSlots = new Object[this.slots.length - 1];
+            System.arraycopy(this.slots, 0, newSlots, 0, index);
+            System.arraycopy(this.slots, index + 1, newSlots, index, this.slots.length - index - 1);
+            return new BitmapNode(this.bitmap & ~bit, newSlots);
+        }
+
+        @Override
+        public Leaf singleLeaf() {
+            return this.slots.length == 1 && this.slots[0] instanceof Leaf ? (Leaf) this.slots[0] : null;
+        }
+
+        @Override
+        public void forEach(BiConsumer<Object, Object> action) {
+            for(Object slot : this.slots) {
+                if(slot instanceof Leaf)
+                    action.accept(((Leaf) slot).key, ((Leaf) slot).value);
+                else
+                    ((Node) slot).forEach(action);
+            }
+        }
+
+        /**
+         * Builds the node containing two entries that collided at the previous level
+         */
+        private static Node merge(Leaf firstLeaf, Leaf secondLeaf, int shift) {
+
+            if(firstLeaf.hash == secondLeaf.hash)
+                return new CollisionNode(firstLeaf.hash, new Leaf[]{firstLeaf, secondLeaf});
+
+            int firstPosition = (firstLeaf.hash >>> shift) & LEVEL_MASK;
+            int secondPosition = (secondLeaf.hash >>> shift) & LEVEL_MASK;
+            int firstBit = 1 << firstPosition;
+            int secondBit = 1 << secondPosition;
+
+            if(firstBit == secondBit)
+                return new BitmapNode(firstBit, new Object[]{merge(firstLeaf, secondLeaf, shift + BITS_PER_LEVEL)});
+
+            // Slots are ordered by position (comparing the bits would fail for position 31, i.e., the sign bit)
+            return firstPosition < secondPosition
+                    ? new BitmapNode(firstBit | secondBit, new Object[]{firstLeaf, secondLeaf})
+                    : new BitmapNode(firstBit | secondBit, new Object[]{secondLeaf, firstLeaf});
+        }
+    }
+
+    /**
+     * Node containing the entries with the same (full) hash
+     */
+    private static final class CollisionNode implements Node {
+
+        private final int hash;
+
+        private final Leaf[] leaves;
+
+        private CollisionNode(int hash, Leaf[] leaves) {
+            this.hash = hash;
+            this.leaves = leaves;
+        }
+
+        private int indexOf(Object key) {
+            for(int i = 0; i < this.leaves.length; i++)
+                if(Objects.equals(this.leaves[i].key, key))
+                    return i;
+            return -1;
+        }
+
+        @Override
+        public Leaf find(int hash, Object key, int shift) {
+            if(hash != this.hash)
+                return null;
+            int index = indexOf(key);
+            return index < 0 ? null : this.leaves[index];
+        }
+
+        @Override
+        public Node put(int hash, Object key, Object value, int shift, boolean[] added) {
+
+            // A different hash diverges at the current level: wrap the collision node in a bitmap node
+            if(hash != this.hash) {
+                int bit = 1 << ((this.hash >>> shift) & LEVEL_MASK);
+                return new BitmapNode(bit, new Object[]{this}).put(hash, key, value, shift, added);
+            }
+
+            int index = indexOf(key);
+
+            if(index >= 0) {
+                if(this.leaves[index].value == value)
+                    return this;
+                Leaf[] newLeaves = this.leaves.clone();
+                newLeaves[index] = new Leaf(hash, this.leaves[index].key, value);
+                return new CollisionNode(hash, newLeaves);
+            }
+
+            Leaf[] newLeaves = Arrays.copyOf(this.leaves, this.leaves.length + 1);
+            newLeaves[this.leaves.length] = new Leaf(hash, key, value);
+            added[0] = true;
+            return new CollisionNode(hash, newLeaves);
+        }
+
+        @Override
+        public Node putInPlace(Object edit, int hash, Object key, Object value, int shift, boolean[] added) {
+            // Collisions are rare: they are always copied
+            return put(hash, key, value, shift, added);
+        }
+
+        @Override
+        public Node remove(int hash, Object key, int shift) {
+
+            if(hash != this.hash)
+                return this;
+
+            int index = indexOf(key);
+
+            if(index < 0)
+                return this;
+
+            if(this.leaves.length == 1)
+                return BitmapNode.EMPTY;
+
+            Leaf[] newLeaves = new Leaf[this.leaves.length - 1];
+            System.arraycopy(this.leaves, 0, newLeaves, 0, index);
+            System.arraycopy(this.leaves, index + 1, newLeaves, index, this.leaves.length - index - 1);
+            return new CollisionNode(hash, newLeaves);
+        }
+
+        @Override
+        public Leaf singleLeaf() {
+            return this.leaves.length == 1 ? this.leaves[0] : null;
+        }
+
+        @Override
+        public void forEach(BiConsumer<Object, Object> action) {
+            for(Leaf leaf : this.leaves)
+                action.accept(leaf.key, leaf.value);
+        }
+    }
+}
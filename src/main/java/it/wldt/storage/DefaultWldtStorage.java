@@ -774,12 +774,35 @@ public class DefaultWldtStorage extends WldtStorage {
         if(physicalAssetPropertyVariation == null)
             throw new StorageException("Physical Asset Property Variation cannot be null.");
 
-        this.physicalAssetPropertyVariationMap.put(physicalAssetPropertyVariation.getTimestamp(),
-                new PhysicalAssetPropertyVariationRecord(
-                        physicalAssetPropertyVariation.getTimestamp(),
-                        physicalAssetPropertyVariation.getPropertykey(),
-                        physicalAssetPropertyVariation.getBody(),
-                        physicalAssetPropertyVariation.getVariationMetadata()));
+        PhysicalAssetPropertyVariationRecord physicalAssetPropertyVariationRecord;
+
+        // Keep primitive values unboxed
+        if(physicalAssetPropertyVariation.getPrimitiveType() == double.class)
+            physicalAssetPropertyVariationRecord = new PhysicalAssetPropertyVariationRecord(
+                    physicalAssetPropertyVariation.getTimestamp(),
+                    physicalAssetPropertyVariation.getPropertykey(),
+                    physicalAssetPropertyVariation.getDoubleBody(),
+                    physicalAssetPropertyVariation.getVariationMetadata());
+        else if(physicalAssetPropertyVariation.getPrimitiveType() == long.class)
+            physicalAssetPropertyVariationRecord = new PhysicalAssetPropertyVariationRecord(
+                    physicalAssetPropertyVariation.getTimestamp(),
+                    physicalAssetPropertyVariation.getPropertykey(),
+                    physicalAssetPropertyVariation.getLongBody(),
+                    physicalAssetPropertyVariation.getVariationMetadata());
+        else if(physicalAssetPropertyVariation.getPrimitiveType() == boolean.class)
+            physicalAssetPropertyVariationRecord = new PhysicalAssetPropertyVariationRecord(
+                    physicalAssetPropertyVariation.getTimestamp(),
+                    physicalAssetPropertyVariation.getPropertykey(),
+                    physicalAssetPropertyVariation.getBooleanBody(),
+                    physicalAssetPropertyVariation.getVariationMetadata());
+        else
+            physicalAssetPropertyVariationRecord = new PhysicalAssetPropertyVariationRecord(
+                    physicalAssetPropertyVariation.getTimestamp(),
+                    physicalAssetPropertyVariation.getPropertykey(),
+                    physicalAssetPropertyVariation.getBody(),
+                    physicalAssetPropertyVariation.getVariationMetadata());
+
+        this.physicalAssetPropertyVariationMap.put(physicalAssetPropertyVariation.getTimestamp(), physicalAssetPropertyVariationRecord);
     }
 
     /**
@@ -42,6 +42,7 @@ import it.wldt.exception.WldtRuntimeException;
 import it.wldt.adapter.physical.PhysicalAssetPropertyVariation;
 import it.wldt.log.WldtLogger;
 import it.wldt.log.WldtLoggerProvider;
+import it.wldt.storage.model.state.DigitalTwinStateRecord;
 import it.wldt.storage.query.DefaultQueryManager;
 import it.wldt.storage.query.QueryManager;
 import it.wldt.storage.query.QueryRequest;
@@ -50,6 +51,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  *
@@ -256,6 +258,37 @@ public class StorageManager extends DigitalTwinWorker implements IWldtEventObser
 
     }
 
+    /**
+     * Builds the Physical Asset Property Variation associated to the received event. Primitive-specialized events
+     * (e.g., PhysicalAssetDoublePropertyWldtEvent) are stored without boxing their value.
+     *
+     * @param propertyVariationEvent The received property variation event
+     * @return The Physical Asset Property Variation to be saved
+     */
+    private PhysicalAssetPropertyVariation buildPhysicalAssetPropertyVariation(PhysicalAssetPropertyWldtEvent<?> propertyVariationEvent){
+
+        if(propertyVariationEvent instanceof PhysicalAssetDoublePropertyWldtEvent)
+            return new PhysicalAssetPropertyVariation(propertyVariationEvent.getCreationTimestamp(),
+                    propertyVariationEvent.getPhysicalPropertyId(),
+                    ((PhysicalAssetDoublePropertyWldtEvent) propertyVariationEvent).getDoubleValue(),
+                    propertyVariationEvent.getMetadata());
+        else if(propertyVariationEvent instanceof PhysicalAssetLongPropertyWldtEvent)
+            return new PhysicalAssetPropertyVariation(propertyVariationEvent.getCreationTimestamp(),
+                    propertyVariationEvent.getPhysicalPropertyId(),
+                    ((PhysicalAssetLongPropertyWldtEvent) propertyVariationEvent).getLongValue(),
+                    propertyVariationEvent.getMetadata());
+        else if(propertyVariationEvent instanceof PhysicalAssetBooleanPropertyWldtEvent)
+            return new PhysicalAssetPropertyVariation(propertyVariationEvent.getCreationTimestamp(),
+                    propertyVariationEvent.getPhysicalPropertyId(),
+                    ((PhysicalAssetBooleanPropertyWldtEvent) propertyVariationEvent).getBooleanValue(),
+                    propertyVariationEvent.getMetadata());
+        else
+            return new PhysicalAssetPropertyVariation(propertyVariationEvent.getCreationTimestamp(),
+                    propertyVariationEvent.getPhysicalPropertyId(),
+                    propertyVariationEvent.getBody(),
+                    propertyVariationEvent.getMetadata());
+    }
+
     /**
      * Method to be implemented by subclasses.
      * Defines the logic to be executed when a PhysicalAssetWldtEvent is received.
@@ -276,10 +309,7 @@ public class StorageManager extends DigitalTwinWorker implements IWldtEventObser
                         // Save the PhysicalAsset Property Variation
                         if(WldtEventBus.getInstance().matchWildCardType(event.getType(), WldtEventTypes.ALL_PHYSICAL_PROPERTY_VARIATION_EVENT_TYPE) && event instanceof PhysicalAssetPropertyWldtEvent<?>){
                             PhysicalAssetPropertyWldtEvent<?> propertyVariationEvent = (PhysicalAssetPropertyWldtEvent<?>) event;
-                            storage.savePhysicalAssetPropertyVariation(new PhysicalAssetPropertyVariation(propertyVariationEvent.getCreationTimestamp(),
-                                    propertyVariationEvent.getPhysicalPropertyId(),
-                                    propertyVariationEvent.getBody(),
-                                    propertyVariationEvent.getMetadata()));
+                            storage.savePhysicalAssetPropertyVariation(buildPhysicalAssetPropertyVariation(propertyVariationEvent));
                         }
 
                         // Save the PhysicalAsset Event
@@ -491,6 +521,33 @@ public class StorageManager extends DigitalTwinWorker implements IWldtEventObser
         return this.storageMap.containsKey(storageId);
     }
 
+    /**
+     * Returns the most recent Digital Twin State saved on the available storages (compared through the state
+     * evaluation instant). It is used as checkpoint to warm restart a Digital Twin.
+     * Storages raising an error are skipped.
+     *
+     * @return The most recent stored Digital Twin State or an empty Optional if no state has been stored
+     */
+    public Optional<DigitalTwinState> getLastDigitalTwinState() {
+
+        DigitalTwinState lastDigitalTwinState = null;
+
+        for(WldtStorage wldtStorage : this.storageMap.values()) {
+            try {
+                Optional<DigitalTwinStateRecord> stateRecord = wldtStorage.getLastDigitalTwinState();
+                if(stateRecord.isPresent() && stateRecord.get().getCurrentState() != null) {
+                    DigitalTwinState storedState = stateRecord.get().getCurrentState();
+                    if(lastDigitalTwinState == null || storedState.getEvaluationInstant().isAfter(lastDigitalTwinState.getEvaluationInstant()))
+                        lastDigitalTwinState = storedState;
+                }
+            } catch (Exception e) {
+                logger.warn("Error reading the last Digital Twin State from storage {} ! Error: {}", wldtStorage.getStorageId(), e.getLocalizedMessage());
+            }
+        }
+
+        return Optional.ofNullable(lastDigitalTwinState);
+    }
+
     /**
      * Return the list of id of the WldtStorage in the StorageManager
      * @return The list of id of the WldtStorage in the StorageManager
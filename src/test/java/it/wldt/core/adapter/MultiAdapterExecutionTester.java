@@ -0,0 +1,221 @@
+package it.wldt.core.adapter;
+
+import it.wldt.adapter.digital.DigitalAdapter;
+import it.wldt.adapter.physical.PhysicalAdapter;
+import it.wldt.adapter.physical.PhysicalAssetDescription;
+import it.wldt.adapter.physical.PhysicalAssetProperty;
+import it.wldt.adapter.physical.event.*;
+import it.wldt.adapter.digital.event.DigitalActionWldtEvent;
+import it.wldt.core.engine.AdapterExecutionPolicy;
+import it.wldt.core.engine.DigitalTwin;
+import it.wldt.core.engine.DigitalTwinEngine;
+import it.wldt.core.execution.WldtSharedExecutors;
+import it.wldt.core.model.ShadowingFunction;
+import it.wldt.core.state.DigitalTwinState;
+import it.wldt.core.state.DigitalTwinStateChange;
+import it.wldt.core.state.DigitalTwinStateEventNotification;
+import it.wldt.exception.WldtConfigurationException;
+import it.wldt.log.WldtLogger;
+import it.wldt.log.WldtLoggerProvider;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Execution of the adapters on the engine shared executors with 50 Physical Adapters per Digital Twin: all the
+ * adapters are started and the Digital Twin synchronized, without retaining any thread once their start phase is
+ * completed.
+ */
+public class MultiAdapterExecutionTester {
+
+    private static final WldtLogger logger = WldtLoggerProvider.getLogger(MultiAdapterExecutionTester.class);
+
+    private static final int PHYSICAL_ADAPTER_COUNT = 50;
+
+    @Test
+    public void testAdapterExecutionPolicyLimit() throws Exception {
+
+        DigitalTwin digitalTwin = new DigitalTwin("policy-dt", buildShadowingFunction());
+        digitalTwin.setAdapterExecutionPolicy(new AdapterExecutionPolicy(2, 1));
+
+        digitalTwin.addPhysicalAdapter(new BindingPhysicalAdapter("pa-1"));
+        digitalTwin.addPhysicalAdapter(new BindingPhysicalAdapter("pa-2"));
+        assertThrows(WldtConfigurationException.class, () -> digitalTwin.addPhysicalAdapter(new BindingPhysicalAdapter("pa-3")));
+
+        assertThrows(WldtConfigurationException.class, () -> digitalTwin.setAdapterExecutionPolicy(new AdapterExecutionPolicy(1, 1)));
+        assertThrows(WldtConfigurationException.class, () -> digitalTwin.setAdapterExecutionPolicy(null));
+    }
+
+    @Test
+    public void testFiftyPhysicalAdaptersPerTwin() throws Exception {
+
+        runRound("multi-adapter-dt", PHYSICAL_ADAPTER_COUNT);
+
+        // Adapters returning from their start phase must not retain any thread of the shared pool: the tasks of
+        // the last stopped Digital Twin can still be completing, so the pool is given some time to become idle
+        long deadline = System.currentTimeMillis() + 5000;
+        while(WldtSharedExecutors.getBlockingExecutorActiveCount() > 0 && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+
+        assertEquals(0, WldtSharedExecutors.getBlockingExecutorActiveCount());
+        assertTrue(WldtSharedExecutors.getBlockingExecutorPoolSize() <= WldtSharedExecutors.BLOCKING_EXECUTOR_MAX_POOL_SIZE);
+    }
+
+    private void runRound(String digitalTwinId, int physicalAdapterCount) throws Exception {
+
+        CountDownLatch syncLatch = new CountDownLatch(1);
+
+        DigitalTwin digitalTwin = new DigitalTwin(digitalTwinId, buildShadowingFunction());
+
+        for(int i = 0; i < physicalAdapterCount; i++)
+            digitalTwin.addPhysicalAdapter(new BindingPhysicalAdapter(String.format("pa-%d", i)));
+
+        digitalTwin.addDigitalAdapter(new SyncDigitalAdapter("da-1", syncLatch));
+
+        DigitalTwinEngine digitalTwinEngine = new DigitalTwinEngine();
+        digitalTwinEngine.addDigitalTwin(digitalTwin);
+
+        digitalTwinEngine.startDigitalTwin(digitalTwinId);
+        assertTrue(syncLatch.await(10, TimeUnit.SECONDS));
+
+        assertEquals(physicalAdapterCount, digitalTwin.getPhysicalAdapterIds().size());
+
+        digitalTwinEngine.stopDigitalTwin(digitalTwinId);
+    }
+
+    static ShadowingFunction buildShadowingFunction() {
+
+        return new ShadowingFunction("sync-shadowing-function") {
+
+            @Override
+            protected void onCreate() {
+            }
+
+            @Override
+            protected void onStart() {
+            }
+
+            @Override
+            protected void onStop() {
+            }
+
+            @Override
+            protected void onDigitalTwinBound(Map<String, PhysicalAssetDescription> adaptersPhysicalAssetDescriptionMap) {
+                notifyShadowingSync();
+            }
+
+            @Override
+            protected void onDigitalTwinUnBound(Map<String, PhysicalAssetDescription> adaptersPhysicalAssetDescriptionMap, String errorMessage) {
+            }
+
+            @Override
+            protected void onPhysicalAdapterBidingUpdate(String adapterId, PhysicalAssetDescription adapterPhysicalAssetDescription) {
+            }
+
+            @Override
+            protected void onPhysicalAssetPropertyVariation(PhysicalAssetPropertyWldtEvent<?> physicalPropertyEventMessage) {
+            }
+
+            @Override
+            protected void onPhysicalAssetEventNotification(PhysicalAssetEventWldtEvent<?> physicalAssetEventWldtEvent) {
+            }
+
+            @Override
+            protected void onPhysicalAssetRelationshipEstablished(PhysicalAssetRelationshipInstanceCreatedWldtEvent<?> physicalAssetRelationshipWldtEvent) {
+            }
+
+            @Override
+            protected void onPhysicalAssetRelationshipDeleted(PhysicalAssetRelationshipInstanceDeletedWldtEvent<?> physicalAssetRelationshipWldtEvent) {
+            }
+
+            @Override
+            protected void onDigitalActionEvent(DigitalActionWldtEvent<?> digitalActionWldtEvent) {
+            }
+        };
+    }
+
+    static class BindingPhysicalAdapter extends PhysicalAdapter {
+
+        public BindingPhysicalAdapter(String id) {
+            super(id);
+        }
+
+        @Override
+        public void onIncomingPhysicalAction(PhysicalAssetActionWldtEvent<?> physicalActionEvent) {
+        }
+
+        @Override
+        public void onAdapterStart() {
+            try {
+                PhysicalAssetDescription physicalAssetDescription = new PhysicalAssetDescription(
+                        new ArrayList<>(),
+                        Collections.singletonList(new PhysicalAssetProperty<>(String.format("%s-temperature", getId()), 0.0)),
+                        new ArrayList<>());
+                notifyPhysicalAdapterBound(physicalAssetDescription);
+            } catch (Exception e) {
+                logger.error("Error binding Physical Adapter: {}", e.getLocalizedMessage());
+            }
+        }
+
+        @Override
+        public void onAdapterStop() {
+        }
+    }
+
+    static class SyncDigitalAdapter extends DigitalAdapter<Void> {
+
+        private final CountDownLatch syncLatch;
+
+        public SyncDigitalAdapter(String id, CountDownLatch syncLatch) {
+            super(id);
+            this.syncLatch = syncLatch;
+        }
+
+        @Override
+        protected void onStateUpdate(DigitalTwinState newDigitalTwinState, DigitalTwinState previousDigitalTwinState, ArrayList<DigitalTwinStateChange> digitalTwinStateChangeList) {
+        }
+
+        @Override
+        protected void onEventNotificationReceived(DigitalTwinStateEventNotification<?> digitalTwinStateEventNotification) {
+        }
+
+        @Override
+        public void onAdapterStart() {
+        }
+
+        @Override
+        public void onAdapterStop() {
+        }
+
+        @Override
+        public void onDigitalTwinSync(DigitalTwinState digitalTwinState) {
+            this.syncLatch.countDown();
+        }
+
+        @Override
+        public void onDigitalTwinUnSync(DigitalTwinState digitalTwinState) {
+        }
+
+        @Override
+        public void onDigitalTwinCreate() {
+        }
+
+        @Override
+        public void onDigitalTwinStart() {
+        }
+
+        @Override
+        public void onDigitalTwinStop() {
+        }
+
+        @Override
+        public void onDigitalTwinDestroy() {
+        }
+    }
+}
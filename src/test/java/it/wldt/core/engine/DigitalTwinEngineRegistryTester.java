@@ -0,0 +1,132 @@
+package it.wldt.core.engine;
+
+import it.wldt.core.adapter.digital.TestDigitalAdapter;
+import it.wldt.core.adapter.digital.TestDigitalAdapterConfiguration;
+import it.wldt.core.adapter.physical.TestPhysicalAdapter;
+import it.wldt.core.adapter.physical.TestPhysicalAdapterConfiguration;
+import it.wldt.core.adapter.shadowing.TestShadowingFunction;
+import it.wldt.exception.WldtEngineException;
+import it.wldt.log.WldtLogger;
+import it.wldt.log.WldtLoggerProvider;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DigitalTwinEngineRegistryTester {
+
+    private static final WldtLogger logger = WldtLoggerProvider.getLogger(DigitalTwinEngineRegistryTester.class);
+
+    private static final int DIGITAL_TWIN_COUNT = 100;
+
+    private static final long SLOW_ADAPTER_START_MS = 1500;
+
+    @Test
+    public void testLookupAndPagination() throws Exception {
+
+        DigitalTwinEngine digitalTwinEngine = new DigitalTwinEngine();
+
+        for(int i = 0; i < DIGITAL_TWIN_COUNT; i++)
+            digitalTwinEngine.addDigitalTwin(new DigitalTwin(String.format("dt-%04d", i), new TestShadowingFunction()));
+
+        assertEquals(DIGITAL_TWIN_COUNT, digitalTwinEngine.getDigitalTwinCount());
+        assertTrue(digitalTwinEngine.getDigitalTwin("dt-0042").isPresent());
+        assertFalse(digitalTwinEngine.getDigitalTwin("missing-dt").isPresent());
+        assertFalse(digitalTwinEngine.getDigitalTwin(null).isPresent());
+        assertTrue(digitalTwinEngine.containsDigitalTwin("dt-0001"));
+
+        // Iterate through all the pages using the cursor
+        List<String> pagedIds = new ArrayList<>();
+        String cursor = null;
+        List<DigitalTwin> page;
+        do {
+            page = digitalTwinEngine.getDigitalTwinPage(cursor, 30);
+            for(DigitalTwin digitalTwin : page)
+                pagedIds.add(digitalTwin.getDigitalTwinId());
+            if(!page.isEmpty())
+                cursor = page.get(page.size() - 1).getDigitalTwinId();
+        } while (!page.isEmpty());
+
+        assertEquals(DIGITAL_TWIN_COUNT, pagedIds.size());
+        for(int i = 0; i < DIGITAL_TWIN_COUNT; i++)
+            assertEquals(String.format("dt-%04d", i), pagedIds.get(i));
+
+        assertThrows(WldtEngineException.class, () -> digitalTwinEngine.getDigitalTwinPage(null, 0));
+
+        // The map is a live unmodifiable view
+        assertThrows(UnsupportedOperationException.class, () -> digitalTwinEngine.getDigitalTwinMap().remove("dt-0001"));
+        digitalTwinEngine.removeDigitalTwin("dt-0001");
+        assertFalse(digitalTwinEngine.getDigitalTwinMap().containsKey("dt-0001"));
+        assertEquals(DIGITAL_TWIN_COUNT - 1, digitalTwinEngine.streamDigitalTwins().count());
+        assertEquals("dt-0002", digitalTwinEngine.getDigitalTwinPage("dt-0000", 1).get(0).getDigitalTwinId());
+    }
+
+    @Test
+    public void testReadsDoNotBlockDuringLifeCycleTransitions() throws Exception {
+
+        DigitalTwinEngine digitalTwinEngine = new DigitalTwinEngine();
+
+        for(int i = 0; i < DIGITAL_TWIN_COUNT; i++)
+            digitalTwinEngine.addDigitalTwin(new DigitalTwin(String.format("read-dt-%04d", i), new TestShadowingFunction()));
+
+        DigitalTwin slowDigitalTwin = new DigitalTwin("slow-dt", new TestShadowingFunction());
+        slowDigitalTwin.addPhysicalAdapter(new SlowPhysicalAdapter("slow-physical-adapter"));
+        slowDigitalTwin.addDigitalAdapter(new TestDigitalAdapter("slow-digital-adapter", new TestDigitalAdapterConfiguration()));
+        digitalTwinEngine.addDigitalTwin(slowDigitalTwin);
+
+        CountDownLatch startedLatch = new CountDownLatch(1);
+        AtomicBoolean startCompleted = new AtomicBoolean(false);
+
+        Thread starterThread = new Thread(() -> {
+            try {
+                startedLatch.countDown();
+                digitalTwinEngine.startDigitalTwin("slow-dt");
+                startCompleted.set(true);
+            } catch (Exception e) {
+                logger.error("Error starting slow DT: {}", e.getLocalizedMessage());
+            }
+        });
+        starterThread.start();
+        assertTrue(startedLatch.await(1, TimeUnit.SECONDS));
+
+        int readCount = 0;
+        long deadline = System.currentTimeMillis() + SLOW_ADAPTER_START_MS / 2;
+
+        while (System.currentTimeMillis() < deadline) {
+            assertTrue(digitalTwinEngine.getDigitalTwin(String.format("read-dt-%04d", readCount % DIGITAL_TWIN_COUNT)).isPresent());
+            assertFalse(digitalTwinEngine.getDigitalTwinPage(null, 10).isEmpty());
+            readCount++;
+        }
+
+        // All the reads completed while the start of the slow twin was still in progress
+        assertFalse(startCompleted.get());
+        assertTrue(readCount > 0);
+
+        starterThread.join(10000);
+        assertTrue(startCompleted.get());
+
+        digitalTwinEngine.stopDigitalTwin("slow-dt");
+    }
+
+    static class SlowPhysicalAdapter extends TestPhysicalAdapter {
+
+        public SlowPhysicalAdapter(String id) {
+            super(id, new TestPhysicalAdapterConfiguration(), false);
+        }
+
+        @Override
+        public void onAdapterStart() {
+            try {
+                Thread.sleep(SLOW_ADAPTER_START_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            super.onAdapterStart();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package it.wldt.core.engine;
+
+import it.wldt.core.adapter.shadowing.TestShadowingFunction;
+import it.wldt.core.state.DigitalTwinStateManager;
+import it.wldt.core.state.DigitalTwinStateProperty;
+import it.wldt.core.state.DigitalTwinStateRelationship;
+import it.wldt.core.state.DigitalTwinStateRelationshipInstance;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DigitalTwinRelationshipGraphTester {
+
+    private static final int CHAIN_LENGTH = 5;
+
+    private static final int SENSOR_COUNT = 10000;
+
+    private static final int QUERY_COUNT = 1000;
+
+    private void addInstance(DigitalTwin digitalTwin, String relationshipName, String targetId, String instanceKey) throws Exception {
+        DigitalTwinStateManager digitalTwinStateManager = digitalTwin.getDigitalTwinStateManager();
+        digitalTwinStateManager.startStateTransaction();
+        if(!digitalTwinStateManager.getDigitalTwinState().containsRelationship(relationshipName))
+            digitalTwinStateManager.createRelationship(new DigitalTwinStateRelationship<>(relationshipName, relationshipName));
+        digitalTwinStateManager.addRelationshipInstance(new DigitalTwinStateRelationshipInstance<>(relationshipName, targetId, instanceKey));
+        digitalTwinStateManager.commitStateTransaction();
+    }
+
+    static void waitForEdges(DigitalTwinRelationshipGraph relationshipGraph, int expectedCount) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while(relationshipGraph.getEdgeCount() != expectedCount && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+    }
+
+    @Test
+    public void testNeighborhoodAcrossDigitalTwins() throws Exception {
+
+        DigitalTwinEngine digitalTwinEngine = new DigitalTwinEngine();
+        DigitalTwinRelationshipGraph relationshipGraph = digitalTwinEngine.getRelationshipGraph();
+
+        // Chain: graph-dt-0 -> graph-dt-1 -> ... -> graph-dt-4
+        DigitalTwin[] digitalTwins = new DigitalTwin[CHAIN_LENGTH];
+        for(int i = 0; i < CHAIN_LENGTH; i++) {
+            digitalTwins[i] = new DigitalTwin("graph-dt-" + i, new TestShadowingFunction());
+            digitalTwinEngine.addDigitalTwin(digitalTwins[i]);
+            assertTrue(relationshipGraph.isTracked("graph-dt-" + i));
+        }
+
+        for(int i = 0; i < CHAIN_LENGTH - 1; i++)
+            addInstance(digitalTwins[i], "connectedTo", "graph-dt-" + (i + 1), "next");
+
+        addInstance(digitalTwins[0], "insideIn", "room-1", "room");
+
+        waitForEdges(relationshipGraph, CHAIN_LENGTH);
+        assertEquals(CHAIN_LENGTH, relationshipGraph.getEdgeCount());
+
+        assertEquals(2, relationshipGraph.getOutgoingEdges("graph-dt-0").size());
+        assertEquals(1, relationshipGraph.getOutgoingEdges("graph-dt-0", "insideIn").size());
+        assertEquals("graph-dt-0", relationshipGraph.getIncomingEdges("graph-dt-1").get(0).getSourceDigitalTwinId());
+
+        Set<Object> neighbors = relationshipGraph.getNeighbors("graph-dt-1", DigitalTwinRelationshipGraph.Direction.BOTH);
+        assertEquals(2, neighbors.size());
+        assertTrue(neighbors.contains("graph-dt-0") && neighbors.contains("graph-dt-2"));
+
+        Set<Object> twoHops = relationshipGraph.getNeighborhood("graph-dt-0", 2, DigitalTwinRelationshipGraph.Direction.OUTGOING, "connectedTo");
+        assertEquals(2, twoHops.size());
+        assertTrue(twoHops.contains("graph-dt-2"));
+        assertFalse(twoHops.contains("room-1"));
+
+        Set<Object> upstream = relationshipGraph.getNeighborhood("graph-dt-4", CHAIN_LENGTH, DigitalTwinRelationshipGraph.Direction.INCOMING, null);
+        assertEquals(CHAIN_LENGTH - 1, upstream.size());
+
+        // Updates without relationship changes leave the graph unchanged
+        DigitalTwinStateManager digitalTwinStateManager = digitalTwins[0].getDigitalTwinStateManager();
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.createProperty(new DigitalTwinStateProperty<>("temperature", 20.0));
+        digitalTwinStateManager.commitStateTransaction();
+        assertEquals(CHAIN_LENGTH, relationshipGraph.getEdgeCount());
+
+        // Removed instances and twins are removed from the graph
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.deleteRelationship("insideIn");
+        digitalTwinStateManager.commitStateTransaction();
+
+        waitForEdges(relationshipGraph, CHAIN_LENGTH - 1);
+        assertTrue(relationshipGraph.getIncomingEdges("room-1").isEmpty());
+
+        digitalTwinEngine.removeDigitalTwin("graph-dt-1");
+        assertFalse(relationshipGraph.isTracked("graph-dt-1"));
+        assertEquals(CHAIN_LENGTH - 2, relationshipGraph.getEdgeCount());
+        assertTrue(relationshipGraph.getNeighborhood("graph-dt-0", CHAIN_LENGTH, DigitalTwinRelationshipGraph.Direction.OUTGOING, null).contains("graph-dt-1"));
+        assertFalse(relationshipGraph.getNeighborhood("graph-dt-0", CHAIN_LENGTH, DigitalTwinRelationshipGraph.Direction.OUTGOING, null).contains("graph-dt-2"));
+
+        digitalTwinEngine.removeAll();
+        assertEquals(0, relationshipGraph.getEdgeCount());
+    }
+
+    @Test
+    public void testIncomingQueriesOnLargeFanOut() throws Exception {
+
+        DigitalTwinEngine digitalTwinEngine = new DigitalTwinEngine();
+        DigitalTwinRelationshipGraph relationshipGraph = digitalTwinEngine.getRelationshipGraph();
+
+        DigitalTwin plantDigitalTwin = new DigitalTwin("plant-dt", new TestShadowingFunction());
+        digitalTwinEngine.addDigitalTwin(plantDigitalTwin);
+
+        // One transaction creating the relationship with all the sensors of the plant
+        DigitalTwinStateManager digitalTwinStateManager = plantDigitalTwin.getDigitalTwinStateManager();
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.createRelationship(new DigitalTwinStateRelationship<>("isPartOf", "isPartOf"));
+        for(int i = 0; i < SENSOR_COUNT; i++)
+            digitalTwinStateManager.addRelationshipInstance(new DigitalTwinStateRelationshipInstance<>("isPartOf", "line-" + (i % 100), "sensor-" + i));
+        digitalTwinStateManager.commitStateTransaction();
+
+        waitForEdges(relationshipGraph, SENSOR_COUNT);
+        assertEquals(SENSOR_COUNT, relationshipGraph.getEdgeCount());
+
+        int edgeCount = 0;
+        for(int i = 0; i < QUERY_COUNT; i++)
+            edgeCount += relationshipGraph.getIncomingEdges("line-" + (i % 100)).size();
+
+        assertEquals(QUERY_COUNT * (SENSOR_COUNT / 100), edgeCount);
+
+        digitalTwinEngine.removeAll();
+    }
+}
@@ -0,0 +1,93 @@
+package it.wldt.core.engine;
+
+import it.wldt.adapter.physical.PhysicalAssetAction;
+import it.wldt.adapter.physical.PhysicalAssetDescription;
+import it.wldt.adapter.physical.PhysicalAssetEvent;
+import it.wldt.adapter.physical.PhysicalAssetProperty;
+import it.wldt.adapter.physical.event.PhysicalAssetPropertyWldtEvent;
+import it.wldt.core.adapter.digital.TestDigitalAdapter;
+import it.wldt.core.adapter.digital.TestDigitalAdapterConfiguration;
+import it.wldt.core.adapter.physical.TestPhysicalAdapter;
+import it.wldt.core.adapter.physical.TestPhysicalAdapterConfiguration;
+import it.wldt.core.adapter.shadowing.TestShadowingFunction;
+import it.wldt.core.event.WldtEventFilter;
+import it.wldt.core.state.DigitalTwinState;
+import it.wldt.core.state.DigitalTwinStateManager;
+import it.wldt.core.state.DigitalTwinStateProperty;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DigitalTwinTemplateTester {
+
+    private static final int PROPERTY_COUNT = 50;
+
+    static PhysicalAssetDescription buildPhysicalAssetDescription(){
+
+        List<PhysicalAssetProperty<?>> propertyList = new ArrayList<>();
+        for(int i = 0; i < PROPERTY_COUNT; i++)
+            propertyList.add(new PhysicalAssetProperty<>(String.format("property-%d", i), (double) i));
+
+        List<PhysicalAssetEvent> eventList = new ArrayList<>();
+        eventList.add(new PhysicalAssetEvent("overheating", "text/plain"));
+
+        List<PhysicalAssetAction> actionList = new ArrayList<>();
+        actionList.add(new PhysicalAssetAction("switch-on", "demo.action", "text/plain"));
+
+        return new PhysicalAssetDescription(actionList, propertyList, eventList);
+    }
+
+    static DigitalTwinTemplate buildTemplate() throws Exception {
+
+        DigitalTwinTemplate digitalTwinTemplate = new DigitalTwinTemplate("test-template", buildPhysicalAssetDescription(), template -> new TestShadowingFunction());
+        digitalTwinTemplate.addPhysicalAdapterFactory(digitalTwinId -> new TestPhysicalAdapter(String.format("%s-physical-adapter", digitalTwinId), new TestPhysicalAdapterConfiguration(), false));
+        digitalTwinTemplate.addDigitalAdapterFactory(digitalTwinId -> new TestDigitalAdapter(String.format("%s-digital-adapter", digitalTwinId), new TestDigitalAdapterConfiguration()));
+
+        return digitalTwinTemplate;
+    }
+
+    @Test
+    public void testTemplateInstances() throws Exception {
+
+        DigitalTwinTemplate digitalTwinTemplate = buildTemplate();
+
+        assertEquals(PROPERTY_COUNT, digitalTwinTemplate.getPropertyEventsFilter().size());
+        assertEquals(PROPERTY_COUNT + 1, digitalTwinTemplate.getPhysicalEventsFilter().size());
+        assertEquals(PhysicalAssetPropertyWldtEvent.buildEventType(PhysicalAssetPropertyWldtEvent.PHYSICAL_EVENT_BASIC_TYPE, "property-0"), digitalTwinTemplate.getPropertyEventType("property-0").orElse(null));
+        assertFalse(digitalTwinTemplate.getPropertyEventType("missing-property").isPresent());
+
+        // Precomputed filters are shared and can not be modified
+        WldtEventFilter sharedFilter = digitalTwinTemplate.getPhysicalEventsFilter();
+        assertThrows(UnsupportedOperationException.class, () -> sharedFilter.add("dt.physical.event.property.other"));
+        assertThrows(UnsupportedOperationException.class, sharedFilter::clear);
+        assertThrows(UnsupportedOperationException.class, () -> sharedFilter.removeAll(Collections.singletonList("dt.physical.event.property.property-0")));
+
+        DigitalTwin firstDigitalTwin = digitalTwinTemplate.newInstance("template-dt-1");
+        DigitalTwin secondDigitalTwin = digitalTwinTemplate.newInstance("template-dt-2");
+
+        assertEquals(2, digitalTwinTemplate.getInstanceCount());
+        assertEquals(Collections.singletonList("template-dt-1-physical-adapter"), firstDigitalTwin.getPhysicalAdapterIds());
+        assertEquals(Collections.singletonList("template-dt-2-digital-adapter"), secondDigitalTwin.getDigitalAdapterIds());
+
+        DigitalTwinStateManager firstStateManager = firstDigitalTwin.getDigitalTwinStateManager();
+        DigitalTwinStateManager secondStateManager = secondDigitalTwin.getDigitalTwinStateManager();
+
+        DigitalTwinState firstState = firstStateManager.getDigitalTwinState();
+        assertEquals(PROPERTY_COUNT, firstState.getPropertyList().orElse(new ArrayList<>()).size());
+        assertTrue(firstState.containsAction("switch-on"));
+        assertTrue(firstState.containsEvent("overheating"));
+
+        // Updating an instance does not affect the skeleton or the other instances
+        firstStateManager.startStateTransaction();
+        firstStateManager.updatePropertyValue(new DigitalTwinStateProperty<>("property-1", 100.0));
+        firstStateManager.commitStateTransaction();
+
+        assertEquals(100.0, firstStateManager.getDigitalTwinState().getProperty("property-1").map(DigitalTwinStateProperty::getValue).orElse(null));
+        assertEquals(1.0, secondStateManager.getDigitalTwinState().getProperty("property-1").map(DigitalTwinStateProperty::getValue).orElse(null));
+        assertEquals(1.0, digitalTwinTemplate.getStateSkeleton().getProperty("property-1").map(DigitalTwinStateProperty::getValue).orElse(null));
+    }
+}
@@ -0,0 +1,154 @@
+package it.wldt.core.engine;
+
+import it.wldt.core.adapter.digital.TestDigitalAdapter;
+import it.wldt.core.adapter.digital.TestDigitalAdapterConfiguration;
+import it.wldt.core.adapter.physical.TestPhysicalAdapter;
+import it.wldt.core.adapter.physical.TestPhysicalAdapterConfiguration;
+import it.wldt.core.adapter.shadowing.TestShadowingFunction;
+import it.wldt.core.state.*;
+import it.wldt.storage.DefaultWldtStorage;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DigitalTwinWarmRestartTester {
+
+    static final String DIGITAL_TWIN_ID = "warm-restart-dt";
+
+    private static final long PHYSICAL_BINDING_DELAY_MS = 1500;
+
+    private static final String ENERGY_PROPERTY_KEY = "energy";
+
+    static DigitalTwin buildDigitalTwin(DefaultWldtStorage storage,
+                                        CountDownLatch restoredLatch,
+                                        CountDownLatch syncLatch,
+                                        AtomicReference<DigitalTwinState> restoredStateReference) throws Exception {
+
+        DigitalTwin digitalTwin = new DigitalTwin(DIGITAL_TWIN_ID, new TestShadowingFunction());
+        digitalTwin.getStorageManager().putStorage(storage);
+
+        // Physical Adapter emulating a slow binding with the physical asset
+        digitalTwin.addPhysicalAdapter(new TestPhysicalAdapter("test-physical-adapter", new TestPhysicalAdapterConfiguration(), false){
+            @Override
+            public void onAdapterStart() {
+                try {
+                    Thread.sleep(PHYSICAL_BINDING_DELAY_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.onAdapterStart();
+            }
+        });
+
+        digitalTwin.addDigitalAdapter(new TestDigitalAdapter("test-digital-adapter", new TestDigitalAdapterConfiguration()){
+            @Override
+            protected void onDigitalTwinStateRestored(DigitalTwinState restoredDigitalTwinState) {
+                restoredStateReference.set(restoredDigitalTwinState);
+                // Counted only when the restored state is served before the Digital Twin is synchronized
+                if(syncLatch.getCount() > 0)
+                    restoredLatch.countDown();
+            }
+
+            @Override
+            public void onDigitalTwinSync(DigitalTwinState digitalTwinState) {
+                super.onDigitalTwinSync(digitalTwinState);
+                syncLatch.countDown();
+            }
+        });
+
+        return digitalTwin;
+    }
+
+    @Test
+    public void testRestoredResourcesAreReconciled() throws Exception {
+
+        DigitalTwinStateManager sourceStateManager = new DigitalTwinStateManager("source-dt");
+        sourceStateManager.startStateTransaction();
+        sourceStateManager.createProperty(new DigitalTwinStateProperty<>(ENERGY_PROPERTY_KEY, 42.0));
+        sourceStateManager.createProperty(new DigitalTwinStateProperty<>("stale-property", "stale"));
+        sourceStateManager.enableAction(new DigitalTwinStateAction("switch-on", "demo.actuation", "application/json"));
+        sourceStateManager.commitStateTransaction();
+        DigitalTwinState storedState = sourceStateManager.getDigitalTwinState();
+
+        DigitalTwinStateManager digitalTwinStateManager = new DigitalTwinStateManager("restored-dt");
+        digitalTwinStateManager.restoreState(storedState);
+
+        assertEquals(42.0, digitalTwinStateManager.getDigitalTwinState().getProperty(ENERGY_PROPERTY_KEY).map(DigitalTwinStateProperty::getValue).orElse(null));
+        assertEquals(2, digitalTwinStateManager.getUnreconciledPropertyKeys().size());
+        assertEquals(1, digitalTwinStateManager.getUnreconciledActionKeys().size());
+        assertFalse(digitalTwinStateManager.isReconciled());
+
+        // Creating restored resources is handled as an update of the restored ones
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.createProperty(new DigitalTwinStateProperty<>(ENERGY_PROPERTY_KEY, 0.0));
+        digitalTwinStateManager.enableAction(new DigitalTwinStateAction("switch-on", "demo.actuation", "application/json"));
+        digitalTwinStateManager.commitStateTransaction();
+
+        assertEquals(0.0, digitalTwinStateManager.getDigitalTwinState().getProperty(ENERGY_PROPERTY_KEY).map(DigitalTwinStateProperty::getValue).orElse(null));
+        assertEquals(1, digitalTwinStateManager.getUnreconciledPropertyKeys().size());
+        assertTrue(digitalTwinStateManager.getUnreconciledPropertyKeys().contains("stale-property"));
+        assertTrue(digitalTwinStateManager.getUnreconciledActionKeys().isEmpty());
+
+        // The restored state is detached from the stored one
+        assertEquals(42.0, storedState.getProperty(ENERGY_PROPERTY_KEY).map(DigitalTwinStateProperty::getValue).orElse(null));
+
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.deleteProperty("stale-property");
+        digitalTwinStateManager.commitStateTransaction();
+
+        assertTrue(digitalTwinStateManager.isReconciled());
+    }
+
+    @Test
+    public void testStoredStateServedBeforePhysicalBinding() throws Exception {
+
+        DefaultWldtStorage storage = new DefaultWldtStorage("warm-restart-storage", true);
+        DigitalTwinEngine digitalTwinEngine = new DigitalTwinEngine();
+
+        // Cold start: the first state is available only after the physical binding and the shadowing
+        CountDownLatch coldRestoredLatch = new CountDownLatch(1);
+        CountDownLatch coldSyncLatch = new CountDownLatch(1);
+        DigitalTwin coldDigitalTwin = buildDigitalTwin(storage, coldRestoredLatch, coldSyncLatch, new AtomicReference<>());
+
+        digitalTwinEngine.addDigitalTwin(coldDigitalTwin);
+        digitalTwinEngine.startDigitalTwin(DIGITAL_TWIN_ID);
+
+        assertTrue(coldSyncLatch.await(10, TimeUnit.SECONDS));
+        assertEquals(1, coldRestoredLatch.getCount());
+
+        // Wait for the synchronized state to be saved on the storage
+        long deadline = System.currentTimeMillis() + 5000;
+        while(storage.getDigitalTwinStateCount() == 0 && System.currentTimeMillis() < deadline)
+            Thread.sleep(20);
+        assertTrue(storage.getDigitalTwinStateCount() > 0);
+
+        digitalTwinEngine.stopDigitalTwin(DIGITAL_TWIN_ID);
+        digitalTwinEngine.removeDigitalTwin(DIGITAL_TWIN_ID);
+
+        // Warm restart: the stored state is restored and served before the physical binding
+        CountDownLatch warmRestoredLatch = new CountDownLatch(1);
+        CountDownLatch warmSyncLatch = new CountDownLatch(1);
+        AtomicReference<DigitalTwinState> restoredStateReference = new AtomicReference<>();
+        DigitalTwin warmDigitalTwin = buildDigitalTwin(storage, warmRestoredLatch, warmSyncLatch, restoredStateReference);
+        warmDigitalTwin.setWarmRestartEnabled(true);
+
+        digitalTwinEngine.addDigitalTwin(warmDigitalTwin);
+        digitalTwinEngine.startDigitalTwin(DIGITAL_TWIN_ID);
+
+        assertTrue(warmRestoredLatch.await(10, TimeUnit.SECONDS));
+        assertTrue(restoredStateReference.get().containsProperty(ENERGY_PROPERTY_KEY));
+
+        // Reconciliation is performed by the shadowing function once the physical binding is available
+        assertTrue(warmSyncLatch.await(10, TimeUnit.SECONDS));
+        assertTrue(warmDigitalTwin.getDigitalTwinStateManager().isReconciled());
+
+        assertTrue(warmDigitalTwin.getTimeToFirstStateNanos() >= 0);
+
+        digitalTwinEngine.stopDigitalTwin(DIGITAL_TWIN_ID);
+        digitalTwinEngine.removeDigitalTwin(DIGITAL_TWIN_ID);
+    }
+}
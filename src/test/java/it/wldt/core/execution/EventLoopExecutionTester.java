@@ -0,0 +1,354 @@
+package it.wldt.core.execution;
+
+import it.wldt.adapter.digital.DigitalAdapter;
+import it.wldt.adapter.digital.event.DigitalActionWldtEvent;
+import it.wldt.adapter.physical.PhysicalAdapter;
+import it.wldt.adapter.physical.PhysicalAssetDescription;
+import it.wldt.adapter.physical.PhysicalAssetProperty;
+import it.wldt.adapter.physical.event.*;
+import it.wldt.core.engine.DigitalTwin;
+import it.wldt.core.engine.DigitalTwinEngine;
+import it.wldt.core.engine.DigitalTwinExecutionMode;
+import it.wldt.core.event.WldtEvent;
+import it.wldt.core.event.WldtEventBus;
+import it.wldt.core.event.WldtEventFilter;
+import it.wldt.core.event.WldtEventListener;
+import it.wldt.core.model.ShadowingFunction;
+import it.wldt.core.state.DigitalTwinState;
+import it.wldt.core.state.DigitalTwinStateChange;
+import it.wldt.core.state.DigitalTwinStateEventNotification;
+import it.wldt.core.state.DigitalTwinStateProperty;
+import it.wldt.exception.WldtConfigurationException;
+import it.wldt.log.WldtLogger;
+import it.wldt.log.WldtLoggerProvider;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventLoopExecutionTester {
+
+    private static final WldtLogger logger = WldtLoggerProvider.getLogger(EventLoopExecutionTester.class);
+
+    private static final String PROPERTY_KEY = "temperature";
+
+    private static final int PROPERTY_UPDATE_COUNT = 20;
+
+    @Test
+    public void testPinningOnLeastLoadedShard() {
+
+        WldtEventLoopGroup eventLoopGroup = new WldtEventLoopGroup(2);
+
+        WldtEventLoop firstEventLoop = eventLoopGroup.pin("dt-1");
+        WldtEventLoop secondEventLoop = eventLoopGroup.pin("dt-2");
+
+        assertNotSame(firstEventLoop, secondEventLoop);
+        assertSame(firstEventLoop, eventLoopGroup.pin("dt-1"));
+        assertEquals(1, firstEventLoop.getPinnedDigitalTwinCount());
+
+        eventLoopGroup.unpin("dt-1");
+        assertNull(eventLoopGroup.getEventLoop("dt-1"));
+        assertEquals(0, firstEventLoop.getPinnedDigitalTwinCount());
+        assertSame(firstEventLoop, eventLoopGroup.pin("dt-3"));
+
+        for(WldtEventLoop eventLoop : eventLoopGroup.getEventLoopList())
+            eventLoop.shutdown();
+    }
+
+    @Test
+    public void testEventBusDeliveryIsSerializedOnShard() throws Exception {
+
+        String digitalTwinId = "event-loop-bus-dt";
+        String eventType = "test.event.loop";
+        int publisherCount = 4;
+        int eventsPerPublisher = 250;
+
+        WldtEventLoop eventLoop = WldtEventLoopGroup.getInstance().pin(digitalTwinId);
+
+        Set<Thread> deliveryThreads = ConcurrentHashMap.newKeySet();
+        Map<String, List<Integer>> receivedSequences = new HashMap<>();
+        CountDownLatch receivedLatch = new CountDownLatch(publisherCount * eventsPerPublisher);
+
+        WldtEventFilter wldtEventFilter = new WldtEventFilter();
+        wldtEventFilter.add(eventType);
+
+        WldtEventBus.getInstance().subscribe(digitalTwinId, "event-loop-subscriber", wldtEventFilter, new WldtEventListener() {
+            @Override
+            public void onEventSubscribed(String eventType) {
+            }
+
+            @Override
+            public void onEventUnSubscribed(String eventType) {
+            }
+
+            @Override
+            public void onEvent(WldtEvent<?> wldtEvent) {
+                deliveryThreads.add(Thread.currentThread());
+                // No synchronization required: deliveries are serialized on the shard
+                receivedSequences.computeIfAbsent((String) wldtEvent.getMetadata("publisher").orElse(""), k -> new ArrayList<>()).add((Integer) wldtEvent.getBody());
+                receivedLatch.countDown();
+            }
+        });
+
+        List<Thread> publishers = new ArrayList<>();
+        for(int p = 0; p < publisherCount; p++) {
+            String publisherId = String.format("publisher-%d", p);
+            publishers.add(new Thread(() -> {
+                try {
+                    for(int i = 0; i < eventsPerPublisher; i++) {
+                        WldtEvent<Integer> wldtEvent = new WldtEvent<>(eventType, i);
+                        wldtEvent.putMetadata("publisher", publisherId);
+                        WldtEventBus.getInstance().publishEvent(digitalTwinId, publisherId, wldtEvent);
+                    }
+                } catch (Exception e) {
+                    logger.error("Error publishing event: {}", e.getLocalizedMessage());
+                }
+            }));
+        }
+
+        publishers.forEach(Thread::start);
+
+        assertTrue(receivedLatch.await(10, TimeUnit.SECONDS));
+        assertEquals(1, deliveryThreads.size());
+
+        CountDownLatch drainLatch = new CountDownLatch(1);
+        eventLoop.execute(drainLatch::countDown);
+        assertTrue(drainLatch.await(5, TimeUnit.SECONDS));
+
+        for(List<Integer> sequence : receivedSequences.values()) {
+            assertEquals(eventsPerPublisher, sequence.size());
+            for(int i = 0; i < eventsPerPublisher; i++)
+                assertEquals(i, (int) sequence.get(i));
+        }
+
+        WldtEventLoopGroup.getInstance().unpin(digitalTwinId);
+    }
+
+    @Test
+    public void testDigitalTwinCallbacksOnSingleShard() throws Exception {
+
+        String digitalTwinId = "event-loop-dt";
+
+        Set<String> callbackThreadNames = ConcurrentHashMap.newKeySet();
+        CountDownLatch stateUpdateLatch = new CountDownLatch(PROPERTY_UPDATE_COUNT);
+        CountDownLatch timerLatch = new CountDownLatch(3);
+        List<Object> receivedValues = new CopyOnWriteArrayList<>();
+
+        DigitalTwin digitalTwin = new DigitalTwin(digitalTwinId, new EventLoopShadowingFunction(callbackThreadNames, timerLatch));
+        digitalTwin.setExecutionMode(DigitalTwinExecutionMode.EVENT_LOOP);
+        digitalTwin.addPhysicalAdapter(new EventLoopPhysicalAdapter("event-loop-pa"));
+        digitalTwin.addDigitalAdapter(new EventLoopDigitalAdapter("event-loop-da", callbackThreadNames, stateUpdateLatch, receivedValues));
+
+        DigitalTwinEngine digitalTwinEngine = new DigitalTwinEngine();
+        digitalTwinEngine.addDigitalTwin(digitalTwin);
+        digitalTwinEngine.startDigitalTwin(digitalTwinId);
+
+        assertNotNull(digitalTwin.getEventLoop());
+        assertThrows(WldtConfigurationException.class, () -> digitalTwin.setExecutionMode(DigitalTwinExecutionMode.DEFAULT));
+
+        assertTrue(stateUpdateLatch.await(10, TimeUnit.SECONDS));
+        assertTrue(timerLatch.await(5, TimeUnit.SECONDS));
+
+        String eventLoopName = digitalTwin.getEventLoop().getName();
+
+        digitalTwinEngine.stopDigitalTwin(digitalTwinId);
+
+        logger.info("Callback Threads: {}", callbackThreadNames);
+        assertEquals(Collections.singleton(eventLoopName), callbackThreadNames);
+        assertEquals(PROPERTY_UPDATE_COUNT, (int) receivedValues.get(receivedValues.size() - 1));
+        assertNull(digitalTwin.getEventLoop());
+        assertFalse(WldtEventLoopGroup.getInstance().isPinned(digitalTwinId));
+    }
+
+    private static class EventLoopShadowingFunction extends ShadowingFunction {
+
+        private final Set<String> callbackThreadNames;
+
+        private final CountDownLatch timerLatch;
+
+        public EventLoopShadowingFunction(Set<String> callbackThreadNames, CountDownLatch timerLatch) {
+            super("event-loop-shadowing-function");
+            this.callbackThreadNames = callbackThreadNames;
+            this.timerLatch = timerLatch;
+        }
+
+        private void trackThread() {
+            callbackThreadNames.add(Thread.currentThread().getName());
+        }
+
+        @Override
+        protected void onCreate() {
+        }
+
+        @Override
+        protected void onStart() {
+            trackThread();
+            try {
+                scheduleTaskAtFixedRate(() -> {
+                    trackThread();
+                    timerLatch.countDown();
+                }, 0, 20, TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                logger.error("Error scheduling timer: {}", e.getLocalizedMessage());
+            }
+        }
+
+        @Override
+        protected void onStop() {
+        }
+
+        @Override
+        protected void onDigitalTwinBound(Map<String, PhysicalAssetDescription> adaptersPhysicalAssetDescriptionMap) {
+            trackThread();
+            try {
+                this.digitalTwinStateManager.startStateTransaction();
+                this.digitalTwinStateManager.createProperty(new DigitalTwinStateProperty<>(PROPERTY_KEY, 0));
+                this.digitalTwinStateManager.commitStateTransaction();
+
+                for(PhysicalAssetDescription physicalAssetDescription : adaptersPhysicalAssetDescriptionMap.values())
+                    observePhysicalAssetProperties(physicalAssetDescription.getProperties());
+
+                notifyShadowingSync();
+            } catch (Exception e) {
+                logger.error("Error on onDigitalTwinBound: {}", e.getLocalizedMessage());
+            }
+        }
+
+        @Override
+        protected void onDigitalTwinUnBound(Map<String, PhysicalAssetDescription> adaptersPhysicalAssetDescriptionMap, String errorMessage) {
+        }
+
+        @Override
+        protected void onPhysicalAdapterBidingUpdate(String adapterId, PhysicalAssetDescription adapterPhysicalAssetDescription) {
+        }
+
+        @Override
+        protected void onPhysicalAssetPropertyVariation(PhysicalAssetPropertyWldtEvent<?> physicalPropertyEventMessage) {
+            trackThread();
+            try {
+                this.digitalTwinStateManager.startStateTransaction();
+                this.digitalTwinStateManager.updateProperty(new DigitalTwinStateProperty<>(PROPERTY_KEY, physicalPropertyEventMessage.getBody()));
+                this.digitalTwinStateManager.commitStateTransaction();
+            } catch (Exception e) {
+                logger.error("Error on onPhysicalAssetPropertyVariation: {}", e.getLocalizedMessage());
+            }
+        }
+
+        @Override
+        protected void onPhysicalAssetEventNotification(PhysicalAssetEventWldtEvent<?> physicalAssetEventWldtEvent) {
+        }
+
+        @Override
+        protected void onPhysicalAssetRelationshipEstablished(PhysicalAssetRelationshipInstanceCreatedWldtEvent<?> physicalAssetRelationshipWldtEvent) {
+        }
+
+        @Override
+        protected void onPhysicalAssetRelationshipDeleted(PhysicalAssetRelationshipInstanceDeletedWldtEvent<?> physicalAssetRelationshipWldtEvent) {
+        }
+
+        @Override
+        protected void onDigitalActionEvent(DigitalActionWldtEvent<?> digitalActionWldtEvent) {
+        }
+    }
+
+    private static class EventLoopPhysicalAdapter extends PhysicalAdapter {
+
+        public EventLoopPhysicalAdapter(String id) {
+            super(id);
+        }
+
+        @Override
+        public void onIncomingPhysicalAction(PhysicalAssetActionWldtEvent<?> physicalActionEvent) {
+        }
+
+        @Override
+        public void onAdapterStart() {
+            try {
+                notifyPhysicalAdapterBound(new PhysicalAssetDescription(
+                        new ArrayList<>(),
+                        Collections.singletonList(new PhysicalAssetProperty<>(PROPERTY_KEY, 0)),
+                        new ArrayList<>()));
+
+                // Telemetry is published from the adapter thread and delivered on the twin shard
+                for(int i = 1; i <= PROPERTY_UPDATE_COUNT; i++)
+                    publishPhysicalAssetPropertyWldtEvent(new PhysicalAssetPropertyWldtEvent<>(PROPERTY_KEY, i));
+
+            } catch (Exception e) {
+                logger.error("Error starting Physical Adapter: {}", e.getLocalizedMessage());
+            }
+        }
+
+        @Override
+        public void onAdapterStop() {
+        }
+    }
+
+    private static class EventLoopDigitalAdapter extends DigitalAdapter<Void> {
+
+        private final Set<String> callbackThreadNames;
+
+        private final CountDownLatch stateUpdateLatch;
+
+        private final List<Object> receivedValues;
+
+        public EventLoopDigitalAdapter(String id, Set<String> callbackThreadNames, CountDownLatch stateUpdateLatch, List<Object> receivedValues) {
+            super(id);
+            this.callbackThreadNames = callbackThreadNames;
+            this.stateUpdateLatch = stateUpdateLatch;
+            this.receivedValues = receivedValues;
+        }
+
+        @Override
+        protected void onStateUpdate(DigitalTwinState newDigitalTwinState, DigitalTwinState previousDigitalTwinState, ArrayList<DigitalTwinStateChange> digitalTwinStateChangeList) {
+            callbackThreadNames.add(Thread.currentThread().getName());
+            try {
+                newDigitalTwinState.getProperty(PROPERTY_KEY).ifPresent(property -> receivedValues.add(property.getValue()));
+            } catch (Exception e) {
+                logger.error("Error reading state: {}", e.getLocalizedMessage());
+            }
+            stateUpdateLatch.countDown();
+        }
+
+        @Override
+        protected void onEventNotificationReceived(DigitalTwinStateEventNotification<?> digitalTwinStateEventNotification) {
+        }
+
+        @Override
+        public void onAdapterStart() {
+        }
+
+        @Override
+        public void onAdapterStop() {
+        }
+
+        @Override
+        public void onDigitalTwinSync(DigitalTwinState digitalTwinState) {
+            callbackThreadNames.add(Thread.currentThread().getName());
+        }
+
+        @Override
+        public void onDigitalTwinUnSync(DigitalTwinState digitalTwinState) {
+        }
+
+        @Override
+        public void onDigitalTwinCreate() {
+        }
+
+        @Override
+        public void onDigitalTwinStart() {
+        }
+
+        @Override
+        public void onDigitalTwinStop() {
+        }
+
+        @Override
+        public void onDigitalTwinDestroy() {
+        }
+    }
+}
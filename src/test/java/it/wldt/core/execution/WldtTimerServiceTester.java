@@ -0,0 +1,148 @@
+package it.wldt.core.execution;
+
+import it.wldt.exception.WldtTimerException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WldtTimerServiceTester {
+
+    private static final String DIGITAL_TWIN_ID_1 = "timer-dt-1";
+
+    private static final String DIGITAL_TWIN_ID_2 = "timer-dt-2";
+
+    @Test
+    public void testOneShotTask() throws WldtTimerException, InterruptedException {
+
+        CountDownLatch latch = new CountDownLatch(1);
+        long startTime = System.currentTimeMillis();
+
+        WldtTimerTask task = WldtTimerService.getInstance().schedule(DIGITAL_TWIN_ID_1, latch::countDown, 50, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertTrue(System.currentTimeMillis() - startTime >= 50);
+
+        Thread.sleep(50);
+        assertTrue(task.isDone());
+        assertFalse(task.isCancelled());
+        assertEquals(1, task.getExecutionCount());
+        assertEquals(0, WldtTimerService.getInstance().getScheduledTaskCount(DIGITAL_TWIN_ID_1));
+    }
+
+    @Test
+    public void testDoneCallback() throws WldtTimerException, InterruptedException {
+
+        AtomicInteger doneCount = new AtomicInteger(0);
+        CountDownLatch doneLatch = new CountDownLatch(1);
+
+        WldtTimerTask completedTask = WldtTimerService.getInstance().schedule(DIGITAL_TWIN_ID_1, () -> {}, 10, TimeUnit.MILLISECONDS);
+        completedTask.setDoneCallback(doneLatch::countDown);
+        assertTrue(doneLatch.await(2, TimeUnit.SECONDS));
+
+        // Invoked once on cancellation and right away for an already done task
+        WldtTimerTask cancelledTask = WldtTimerService.getInstance().scheduleAtFixedRate(DIGITAL_TWIN_ID_1, () -> {}, 10, 10, TimeUnit.SECONDS);
+        cancelledTask.setDoneCallback(doneCount::incrementAndGet);
+        assertEquals(0, doneCount.get());
+        assertTrue(cancelledTask.cancel());
+        assertFalse(cancelledTask.cancel());
+        assertEquals(1, doneCount.get());
+
+        completedTask.setDoneCallback(doneCount::incrementAndGet);
+        assertEquals(2, doneCount.get());
+    }
+
+    @Test
+    public void testFixedRateAndFixedDelayTasks() throws WldtTimerException, InterruptedException {
+
+        CountDownLatch rateLatch = new CountDownLatch(5);
+        CountDownLatch delayLatch = new CountDownLatch(5);
+
+        WldtTimerTask rateTask = WldtTimerService.getInstance().scheduleAtFixedRate(DIGITAL_TWIN_ID_1, rateLatch::countDown, 0, 20, TimeUnit.MILLISECONDS);
+        WldtTimerTask delayTask = WldtTimerService.getInstance().scheduleWithFixedDelay(DIGITAL_TWIN_ID_1, delayLatch::countDown, 0, 20, TimeUnit.MILLISECONDS);
+
+        assertEquals(2, WldtTimerService.getInstance().getScheduledTaskCount(DIGITAL_TWIN_ID_1));
+
+        assertTrue(rateLatch.await(2, TimeUnit.SECONDS));
+        assertTrue(delayLatch.await(2, TimeUnit.SECONDS));
+
+        assertTrue(rateTask.cancel());
+        assertTrue(delayTask.cancel());
+        assertFalse(rateTask.cancel());
+
+        long executions = rateTask.getExecutionCount();
+        Thread.sleep(100);
+        assertEquals(executions, rateTask.getExecutionCount());
+        assertEquals(0, WldtTimerService.getInstance().getScheduledTaskCount(DIGITAL_TWIN_ID_1));
+    }
+
+    @Test
+    public void testPeriodicExecutionsDoNotOverlap() throws WldtTimerException, InterruptedException {
+
+        AtomicInteger concurrentExecutions = new AtomicInteger(0);
+        AtomicInteger maxConcurrentExecutions = new AtomicInteger(0);
+        CountDownLatch latch = new CountDownLatch(3);
+
+        WldtTimerTask task = WldtTimerService.getInstance().scheduleAtFixedRate(DIGITAL_TWIN_ID_1, () -> {
+            int current = concurrentExecutions.incrementAndGet();
+            maxConcurrentExecutions.accumulateAndGet(current, Math::max);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ignored) {
+            }
+            concurrentExecutions.decrementAndGet();
+            latch.countDown();
+        }, 0, 10, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        task.cancel();
+
+        assertEquals(1, maxConcurrentExecutions.get());
+    }
+
+    @Test
+    public void testPerTwinAccountingAndCancelAll() throws WldtTimerException, InterruptedException {
+
+        AtomicInteger executions = new AtomicInteger(0);
+
+        for(int i = 0; i < 10; i++)
+            WldtTimerService.getInstance().schedule(DIGITAL_TWIN_ID_2, executions::incrementAndGet, 10, TimeUnit.SECONDS);
+
+        WldtTimerTask otherTwinTask = WldtTimerService.getInstance().schedule(DIGITAL_TWIN_ID_1, executions::incrementAndGet, 10, TimeUnit.SECONDS);
+
+        assertEquals(10, WldtTimerService.getInstance().getScheduledTaskCount(DIGITAL_TWIN_ID_2));
+        assertEquals(10, WldtTimerService.getInstance().getScheduledTasks(DIGITAL_TWIN_ID_2).size());
+
+        assertEquals(10, WldtTimerService.getInstance().cancelAll(DIGITAL_TWIN_ID_2));
+        assertEquals(0, WldtTimerService.getInstance().getScheduledTaskCount(DIGITAL_TWIN_ID_2));
+        assertFalse(otherTwinTask.isDone());
+
+        otherTwinTask.cancel();
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    public void testInvalidParameters() {
+        assertThrows(WldtTimerException.class, () -> WldtTimerService.getInstance().schedule(null, () -> {}, 10, TimeUnit.MILLISECONDS));
+        assertThrows(WldtTimerException.class, () -> WldtTimerService.getInstance().schedule(DIGITAL_TWIN_ID_1, null, 10, TimeUnit.MILLISECONDS));
+        assertThrows(WldtTimerException.class, () -> WldtTimerService.getInstance().scheduleAtFixedRate(DIGITAL_TWIN_ID_1, () -> {}, 0, 0, TimeUnit.MILLISECONDS));
+        assertThrows(WldtTimerException.class, () -> WldtTimerService.getInstance().schedule(DIGITAL_TWIN_ID_1, () -> {}, -1, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testManyTasksSingleTicker() throws WldtTimerException, InterruptedException {
+
+        int taskCount = 10000;
+        CountDownLatch latch = new CountDownLatch(taskCount);
+        int threadCountBefore = Thread.activeCount();
+
+        for(int i = 0; i < taskCount; i++)
+            WldtTimerService.getInstance().schedule(DIGITAL_TWIN_ID_1, latch::countDown, 20 + (i % 200), TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(Thread.activeCount() - threadCountBefore < 10);
+    }
+}
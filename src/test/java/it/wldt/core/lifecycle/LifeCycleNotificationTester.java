@@ -0,0 +1,124 @@
+package it.wldt.core.lifecycle;
+
+import it.wldt.adapter.physical.PhysicalAssetDescription;
+import it.wldt.core.adapter.digital.TestDigitalAdapter;
+import it.wldt.core.adapter.digital.TestDigitalAdapterConfiguration;
+import it.wldt.core.adapter.physical.TestPhysicalAdapter;
+import it.wldt.core.adapter.physical.TestPhysicalAdapterConfiguration;
+import it.wldt.core.adapter.shadowing.TestShadowingFunction;
+import it.wldt.core.engine.DigitalTwin;
+import it.wldt.core.engine.DigitalTwinEngine;
+import it.wldt.core.engine.LifeCycleListenerStats;
+import it.wldt.core.state.DigitalTwinState;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LifeCycleNotificationTester {
+
+    private static final String DIGITAL_TWIN_ID = "life-cycle-notification-dt";
+
+    private static final long SLOW_LISTENER_DELAY_MS = 500;
+
+    @Test
+    public void testSlowListenerDoesNotBlockPhysicalBinding() throws Exception {
+
+        List<String> receivedNotificationList = Collections.synchronizedList(new ArrayList<>());
+        AtomicBoolean boundBeforeSlowListener = new AtomicBoolean(false);
+        CountDownLatch notificationLatch = new CountDownLatch(4);
+        CountDownLatch faultyStartLatch = new CountDownLatch(1);
+
+        DigitalTwin digitalTwin = new DigitalTwin(DIGITAL_TWIN_ID, new TestShadowingFunction());
+
+        // Physical Adapter checking whether the notification of its binding waits for the listeners
+        digitalTwin.addPhysicalAdapter(new TestPhysicalAdapter("physical-adapter", new TestPhysicalAdapterConfiguration(), false) {
+            @Override
+            public void onAdapterStart() {
+                super.onAdapterStart();
+                boundBeforeSlowListener.set(!receivedNotificationList.contains("physical-adapter-bound"));
+            }
+        });
+
+        // Slow Digital Adapter spending time on each physical adapter binding
+        TestDigitalAdapter slowDigitalAdapter = new TestDigitalAdapter("slow-digital-adapter", new TestDigitalAdapterConfiguration()) {
+
+            @Override
+            public void onDigitalTwinCreate() {
+                receivedNotificationList.add("create");
+                notificationLatch.countDown();
+            }
+
+            @Override
+            public void onDigitalTwinStart() {
+                receivedNotificationList.add("start");
+                notificationLatch.countDown();
+            }
+
+            @Override
+            public void onPhysicalAdapterBound(String adapterId, PhysicalAssetDescription physicalAssetDescription) {
+                try {
+                    Thread.sleep(SLOW_LISTENER_DELAY_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                receivedNotificationList.add("physical-adapter-bound");
+                notificationLatch.countDown();
+            }
+
+            @Override
+            public void onDigitalTwinSync(DigitalTwinState digitalTwinState) {
+                super.onDigitalTwinSync(digitalTwinState);
+                receivedNotificationList.add("sync");
+                notificationLatch.countDown();
+            }
+        };
+
+        // Faulty Digital Adapter failing on the start notification
+        TestDigitalAdapter faultyDigitalAdapter = new TestDigitalAdapter("faulty-digital-adapter", new TestDigitalAdapterConfiguration()) {
+            @Override
+            public void onDigitalTwinStart() {
+                faultyStartLatch.countDown();
+                throw new IllegalStateException("Faulty listener !");
+            }
+        };
+
+        digitalTwin.addDigitalAdapter(faultyDigitalAdapter);
+        digitalTwin.addDigitalAdapter(slowDigitalAdapter);
+
+        DigitalTwinEngine digitalTwinEngine = new DigitalTwinEngine();
+        digitalTwinEngine.addDigitalTwin(digitalTwin);
+        digitalTwinEngine.startDigitalTwin(DIGITAL_TWIN_ID);
+
+        assertTrue(notificationLatch.await(SLOW_LISTENER_DELAY_MS + 10000, TimeUnit.MILLISECONDS));
+        assertTrue(faultyStartLatch.await(1, TimeUnit.SECONDS));
+
+        // The binding of the Physical Adapter is not blocked by the slow listener
+        assertTrue(boundBeforeSlowListener.get());
+
+        // Notifications are delivered in order and the faulty listener does not stop the delivery to the others
+        // Adapters are executed before the start notification, so only the causal order is checked
+        List<String> notificationList = new ArrayList<>(receivedNotificationList);
+        assertEquals(4, notificationList.size());
+        assertEquals("create", notificationList.get(0));
+        assertTrue(notificationList.indexOf("start") > 0);
+        assertTrue(notificationList.indexOf("physical-adapter-bound") < notificationList.indexOf("sync"));
+
+        LifeCycleListenerStats slowListenerStats = digitalTwin.getLifeCycleListenerStats(slowDigitalAdapter).orElse(null);
+        assertNotNull(slowListenerStats);
+        assertTrue(slowListenerStats.getMaxCallbackLatency(TimeUnit.MILLISECONDS) >= SLOW_LISTENER_DELAY_MS);
+
+        LifeCycleListenerStats faultyListenerStats = digitalTwin.getLifeCycleListenerStats(faultyDigitalAdapter).orElse(null);
+        assertNotNull(faultyListenerStats);
+        assertEquals(1, faultyListenerStats.getFailedNotificationCount());
+
+        digitalTwinEngine.stopDigitalTwin(DIGITAL_TWIN_ID);
+        digitalTwinEngine.removeDigitalTwin(DIGITAL_TWIN_ID);
+    }
+}
@@ -132,8 +132,8 @@ public class LifeCycleTester {
                             logger.error("ERROR ShadowingListener = NULL !");
                     }
 
-                    lock.countDown();
                     receivedPhysicalTelemetryEventMessageList.add((PhysicalAssetPropertyWldtEvent<Double>) physicalEventMessage);
+                    lock.countDown();
                 }
                 else
                     logger.error("WRONG Physical Event Message Received !");
@@ -0,0 +1,283 @@
+package it.wldt.core.shadowing;
+
+import it.wldt.adapter.digital.event.DigitalActionWldtEvent;
+import it.wldt.adapter.physical.PhysicalAssetDescription;
+import it.wldt.adapter.physical.event.PhysicalAssetEventWldtEvent;
+import it.wldt.adapter.physical.event.PhysicalAssetPropertyWldtEvent;
+import it.wldt.adapter.physical.event.PhysicalAssetRelationshipInstanceCreatedWldtEvent;
+import it.wldt.adapter.physical.event.PhysicalAssetRelationshipInstanceDeletedWldtEvent;
+import it.wldt.core.model.ShadowingFunction;
+import it.wldt.core.state.DigitalTwinStateChange;
+import it.wldt.core.state.DigitalTwinStateDoubleProperty;
+import it.wldt.core.state.DigitalTwinStateManager;
+import it.wldt.core.state.DigitalTwinStatePropertyHistory;
+import it.wldt.exception.ModelException;
+import it.wldt.log.WldtLogger;
+import it.wldt.log.WldtLoggerProvider;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelShadowingTester {
+
+    private static final WldtLogger logger = WldtLoggerProvider.getLogger(ParallelShadowingTester.class);
+
+    private static final String DIGITAL_TWIN_ID = "parallel-shadowing-dt";
+
+    private static final int SENSOR_COUNT = 200;
+
+    private static final int VARIATIONS_PER_SENSOR = 50;
+
+    private static final int PARTITION_COUNT = 4;
+
+    // Time spent preparing each variation (e.g., calibration or enrichment of the raw value)
+    private static final long PREPARATION_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /**
+     * Shadowing Function mirroring the sensor values either serially (one transaction per variation) or through
+     * the parallel shadowing mode
+     */
+    static class SensorShadowingFunction extends ShadowingFunction {
+
+        private final Map<String, List<Double>> preparedValueMap = new ConcurrentHashMap<>();
+
+        private final AtomicInteger notifiedEventCount = new AtomicInteger(0);
+
+        public SensorShadowingFunction(DigitalTwinStateManager digitalTwinStateManager) {
+            super("sensor-shadowing-function");
+            init(digitalTwinStateManager, null, null);
+        }
+
+        public void enableParallelShadowing() throws ModelException {
+            enableParallelShadowing(PARTITION_COUNT);
+        }
+
+        public boolean disableParallelShadowing() throws InterruptedException {
+            return disableParallelShadowing(60, TimeUnit.SECONDS);
+        }
+
+        private double calibrate(Object rawValue) {
+            long endNanos = System.nanoTime() + PREPARATION_NANOS;
+            while(System.nanoTime() < endNanos)
+                Thread.yield();
+            return (Double) rawValue;
+        }
+
+        @Override
+        protected List<DigitalTwinStateChange> preparePhysicalAssetPropertyVariation(PhysicalAssetPropertyWldtEvent<?> physicalAssetPropertyWldtEvent) throws Exception {
+
+            double value = calibrate(physicalAssetPropertyWldtEvent.getBody());
+
+            // Only the partition of the key appends to its list
+            preparedValueMap.computeIfAbsent(physicalAssetPropertyWldtEvent.getPhysicalPropertyId(), key -> new ArrayList<>()).add(value);
+
+            List<DigitalTwinStateChange> changeList = new ArrayList<>();
+            changeList.add(new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_UPDATE_VALUE,
+                    DigitalTwinStateChange.ResourceType.PROPERTY_VALUE,
+                    new DigitalTwinStateDoubleProperty(physicalAssetPropertyWldtEvent.getPhysicalPropertyId(), value)));
+            return changeList;
+        }
+
+        @Override
+        protected void onPhysicalAssetPropertyVariation(PhysicalAssetPropertyWldtEvent<?> physicalPropertyEventMessage) {
+            try {
+                double value = calibrate(physicalPropertyEventMessage.getBody());
+                digitalTwinStateManager.startStateTransaction();
+                digitalTwinStateManager.updatePropertyValue(physicalPropertyEventMessage.getPhysicalPropertyId(), value);
+                digitalTwinStateManager.commitStateTransaction();
+            } catch (Exception e) {
+                logger.error("Error updating sensor value ! Error: {}", e.getLocalizedMessage());
+            }
+        }
+
+        @Override
+        protected void onPhysicalAssetEventNotification(PhysicalAssetEventWldtEvent<?> physicalAssetEventWldtEvent) {
+            notifiedEventCount.incrementAndGet();
+        }
+
+        @Override
+        protected void onCreate() {
+        }
+
+        @Override
+        protected void onStart() {
+        }
+
+        @Override
+        protected void onStop() {
+        }
+
+        @Override
+        protected void onDigitalTwinBound(Map<String, PhysicalAssetDescription> adaptersPhysicalAssetDescriptionMap) {
+        }
+
+        @Override
+        protected void onDigitalTwinUnBound(Map<String, PhysicalAssetDescription> adaptersPhysicalAssetDescriptionMap, String errorMessage) {
+        }
+
+        @Override
+        protected void onPhysicalAdapterBidingUpdate(String adapterId, PhysicalAssetDescription adapterPhysicalAssetDescription) {
+        }
+
+        @Override
+        protected void onPhysicalAssetRelationshipEstablished(PhysicalAssetRelationshipInstanceCreatedWldtEvent<?> physicalAssetRelationshipWldtEvent) {
+        }
+
+        @Override
+        protected void onPhysicalAssetRelationshipDeleted(PhysicalAssetRelationshipInstanceDeletedWldtEvent<?> physicalAssetRelationshipWldtEvent) {
+        }
+
+        @Override
+        protected void onDigitalActionEvent(DigitalActionWldtEvent<?> digitalActionWldtEvent) {
+        }
+    }
+
+    static DigitalTwinStateManager createStateManager() throws Exception {
+        DigitalTwinStateManager digitalTwinStateManager = new DigitalTwinStateManager(DIGITAL_TWIN_ID);
+        digitalTwinStateManager.startStateTransaction();
+        for(int i = 0; i < SENSOR_COUNT; i++)
+            digitalTwinStateManager.createProperty(new DigitalTwinStateDoubleProperty("sensor-" + i, -1.0));
+        digitalTwinStateManager.commitStateTransaction();
+        return digitalTwinStateManager;
+    }
+
+    static List<PhysicalAssetPropertyWldtEvent<Double>> createVariations() throws Exception {
+        // Variations of the different sensors are interleaved and the values of each sensor are increasing
+        List<PhysicalAssetPropertyWldtEvent<Double>> variationList = new ArrayList<>();
+        for(int i = 0; i < VARIATIONS_PER_SENSOR; i++)
+            for(int j = 0; j < SENSOR_COUNT; j++)
+                variationList.add(new PhysicalAssetPropertyWldtEvent<>("sensor-" + j, (double) i));
+        return variationList;
+    }
+
+    @Test
+    public void testPerKeyOrderingWithGroupedCommits() throws Exception {
+
+        DigitalTwinStateManager digitalTwinStateManager = createStateManager();
+        SensorShadowingFunction shadowingFunction = new SensorShadowingFunction(digitalTwinStateManager);
+
+        shadowingFunction.enableParallelShadowing();
+        assertTrue(shadowingFunction.isParallelShadowingEnabled());
+
+        // The history of the committed values shows the commit order of each sensor
+        DigitalTwinStatePropertyHistory sensorHistory = digitalTwinStateManager.enablePropertyHistory("sensor-7", VARIATIONS_PER_SENSOR);
+
+        long startVersion = digitalTwinStateManager.getDigitalTwinState().getVersion();
+
+        for(PhysicalAssetPropertyWldtEvent<Double> variation : createVariations())
+            shadowingFunction.onEvent(variation);
+
+        // Event notifications are handled on the partitions, unknown properties are ignored
+        for(int i = 0; i < 10; i++)
+            shadowingFunction.onEvent(new PhysicalAssetEventWldtEvent<>("alarm-" + i, "overheating"));
+        shadowingFunction.onEvent(new PhysicalAssetPropertyWldtEvent<>("unknown-sensor", 1.0));
+
+        assertTrue(shadowingFunction.awaitParallelShadowing(30, TimeUnit.SECONDS));
+
+        for(int i = 0; i < SENSOR_COUNT; i++) {
+            assertEquals((double) (VARIATIONS_PER_SENSOR - 1), digitalTwinStateManager.getDigitalTwinState().getProperty("sensor-" + i).get().getValue());
+            List<Double> preparedValueList = shadowingFunction.preparedValueMap.get("sensor-" + i);
+            assertEquals(VARIATIONS_PER_SENSOR, preparedValueList.size());
+            for(int j = 0; j < VARIATIONS_PER_SENSOR; j++)
+                assertEquals((double) j, preparedValueList.get(j).doubleValue());
+        }
+
+        // Committed values of a sensor never go back in time
+        double[] committedValues = sensorHistory.getLastValues(VARIATIONS_PER_SENSOR);
+        for(int i = 1; i < committedValues.length; i++)
+            assertTrue(committedValues[i] > committedValues[i - 1]);
+
+        assertEquals(10, shadowingFunction.notifiedEventCount.get());
+        assertFalse(digitalTwinStateManager.getDigitalTwinState().containsProperty("unknown-sensor"));
+
+        // Variations are committed in groups
+        long committedVersions = digitalTwinStateManager.getDigitalTwinState().getVersion() - startVersion;
+        assertEquals(committedVersions, shadowingFunction.getParallelShadowingCommittedTransactionCount());
+        assertTrue(committedVersions < SENSOR_COUNT * VARIATIONS_PER_SENSOR);
+
+        assertTrue(shadowingFunction.disableParallelShadowing());
+        assertFalse(shadowingFunction.isParallelShadowingEnabled());
+    }
+
+    @Test
+    public void testReEnableDrainsDispatchedEvents() throws Exception {
+
+        DigitalTwinStateManager digitalTwinStateManager = createStateManager();
+        SensorShadowingFunction shadowingFunction = new SensorShadowingFunction(digitalTwinStateManager);
+
+        shadowingFunction.enableParallelShadowing();
+
+        List<PhysicalAssetPropertyWldtEvent<Double>> variationList = createVariations();
+        for(PhysicalAssetPropertyWldtEvent<Double> variation : variationList)
+            shadowingFunction.onEvent(variation);
+
+        // Events dispatched with the previous configuration are handled before the new one is installed
+        shadowingFunction.enableParallelShadowing();
+        assertTrue(shadowingFunction.isParallelShadowingEnabled());
+        assertEquals(0, shadowingFunction.getParallelShadowingCommittedTransactionCount());
+
+        for(int i = 0; i < SENSOR_COUNT; i++)
+            assertEquals((double) (VARIATIONS_PER_SENSOR - 1), digitalTwinStateManager.getDigitalTwinState().getProperty("sensor-" + i).get().getValue());
+
+        assertTrue(shadowingFunction.disableParallelShadowing());
+    }
+
+    @Test
+    public void testDisableKeepsPerKeyOrdering() throws Exception {
+
+        DigitalTwinStateManager digitalTwinStateManager = createStateManager();
+        SensorShadowingFunction shadowingFunction = new SensorShadowingFunction(digitalTwinStateManager);
+
+        shadowingFunction.enableParallelShadowing();
+
+        // Variations of the same sensor still pending on its partition when the mode is disabled
+        for(int i = 0; i < 10 * VARIATIONS_PER_SENSOR; i++)
+            shadowingFunction.onEvent(new PhysicalAssetPropertyWldtEvent<>("sensor-0", (double) i));
+
+        Thread disablingThread = new Thread(() -> {
+            try {
+                shadowingFunction.disableParallelShadowing();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        disablingThread.start();
+        Thread.sleep(5);
+
+        // A variation delivered during the drain is handled after the dispatched ones
+        shadowingFunction.onEvent(new PhysicalAssetPropertyWldtEvent<>("sensor-0", -100.0));
+
+        disablingThread.join();
+        assertFalse(shadowingFunction.isParallelShadowingEnabled());
+        assertEquals(-100.0, digitalTwinStateManager.getDigitalTwinState().getProperty("sensor-0").get().getValue());
+    }
+
+    @Test
+    public void testParallelShadowingMatchesSerialShadowing() throws Exception {
+
+        List<PhysicalAssetPropertyWldtEvent<Double>> variationList = createVariations();
+
+        DigitalTwinStateManager serialStateManager = createStateManager();
+        SensorShadowingFunction serialShadowingFunction = new SensorShadowingFunction(serialStateManager);
+        for(PhysicalAssetPropertyWldtEvent<Double> variation : variationList)
+            serialShadowingFunction.onEvent(variation);
+
+        DigitalTwinStateManager parallelStateManager = createStateManager();
+        SensorShadowingFunction parallelShadowingFunction = new SensorShadowingFunction(parallelStateManager);
+        parallelShadowingFunction.enableParallelShadowing();
+        for(PhysicalAssetPropertyWldtEvent<Double> variation : variationList)
+            parallelShadowingFunction.onEvent(variation);
+        assertTrue(parallelShadowingFunction.awaitParallelShadowing(60, TimeUnit.SECONDS));
+
+        for(int i = 0; i < SENSOR_COUNT; i++)
+            assertEquals(serialStateManager.getDigitalTwinState().getProperty("sensor-" + i).get().getValue(),
+                    parallelStateManager.getDigitalTwinState().getProperty("sensor-" + i).get().getValue());
+    }
+}
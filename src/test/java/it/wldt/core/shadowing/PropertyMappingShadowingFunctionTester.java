@@ -0,0 +1,186 @@
+package it.wldt.core.shadowing;
+
+import it.wldt.adapter.physical.PhysicalAssetAction;
+import it.wldt.adapter.physical.PhysicalAssetDescription;
+import it.wldt.adapter.physical.PhysicalAssetEvent;
+import it.wldt.adapter.physical.PhysicalAssetProperty;
+import it.wldt.adapter.physical.event.PhysicalAssetPropertyWldtEvent;
+import it.wldt.core.model.PropertyMappingShadowingFunction;
+import it.wldt.core.model.ShadowingFunction;
+import it.wldt.core.state.DigitalTwinState;
+import it.wldt.core.state.DigitalTwinStateManager;
+import it.wldt.core.state.DigitalTwinStateProperty;
+import it.wldt.exception.ModelException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PropertyMappingShadowingFunctionTester {
+
+    private static final String DIGITAL_TWIN_ID = "property-mapping-dt";
+
+    private static final String PHYSICAL_ADAPTER_ID = "test-physical-adapter";
+
+    static final int PROPERTY_COUNT = 200;
+
+    private static final int BURST_COUNT = 50;
+
+    /**
+     * Property Mapping Shadowing Function exposing its life cycle callbacks to the test
+     */
+    static class TestPropertyMappingShadowingFunction extends PropertyMappingShadowingFunction {
+
+        public TestPropertyMappingShadowingFunction(DigitalTwinStateManager digitalTwinStateManager, int maxBatchSize) {
+            super("test-property-mapping-shadowing-function", maxBatchSize, 100, TimeUnit.MILLISECONDS);
+            init(digitalTwinStateManager, null, null);
+        }
+
+        public void create() {
+            onCreate();
+        }
+
+        public void bind(PhysicalAssetDescription physicalAssetDescription) {
+            Map<String, PhysicalAssetDescription> adaptersPhysicalAssetDescriptionMap = new HashMap<>();
+            adaptersPhysicalAssetDescriptionMap.put(PHYSICAL_ADAPTER_ID, physicalAssetDescription);
+            onDigitalTwinBound(adaptersPhysicalAssetDescriptionMap);
+        }
+
+        public void updateBinding(PhysicalAssetDescription physicalAssetDescription) {
+            onPhysicalAdapterBidingUpdate(PHYSICAL_ADAPTER_ID, physicalAssetDescription);
+        }
+    }
+
+    private Object getValue(DigitalTwinStateManager digitalTwinStateManager, String propertyKey) throws Exception {
+        return digitalTwinStateManager.getDigitalTwinState().getProperty(propertyKey).map(DigitalTwinStateProperty::getValue).orElse(null);
+    }
+
+    static PhysicalAssetDescription createPhysicalAssetDescription(int propertyCount) {
+        List<PhysicalAssetProperty<?>> propertyList = new ArrayList<>();
+        for(int i = 0; i < propertyCount; i++)
+            propertyList.add(new PhysicalAssetProperty<>("raw-" + i, 0.0));
+        return new PhysicalAssetDescription(new ArrayList<>(), propertyList, new ArrayList<>());
+    }
+
+    static void sendBurst(ShadowingFunction shadowingFunction, double value) throws Exception {
+        for(int i = 0; i < PROPERTY_COUNT; i++)
+            shadowingFunction.onEvent(new PhysicalAssetPropertyWldtEvent<>("raw-" + i, value));
+    }
+
+    @Test
+    public void testMappingCompiledAtBindTime() throws Exception {
+
+        DigitalTwinStateManager digitalTwinStateManager = new DigitalTwinStateManager(DIGITAL_TWIN_ID);
+        TestPropertyMappingShadowingFunction shadowingFunction = new TestPropertyMappingShadowingFunction(digitalTwinStateManager, 1024);
+
+        shadowingFunction.addPropertyMapping("temperature-f", "temperature", value -> ((Double) value - 32.0) * 5.0 / 9.0)
+                .addPropertyMapping("humidity-raw", "humidity")
+                .addPropertyMapping("status-code", "status", value -> (Integer) value == 0 ? "ok" : null);
+
+        assertThrows(ModelException.class, () -> shadowingFunction.addPropertyMapping(null, "target"));
+
+        List<PhysicalAssetProperty<?>> propertyList = new ArrayList<>();
+        propertyList.add(new PhysicalAssetProperty<>("temperature-f", 212.0));
+        propertyList.add(new PhysicalAssetProperty<>("humidity-raw", 40.0));
+        propertyList.add(new PhysicalAssetProperty<>("status-code", 1));
+        propertyList.add(new PhysicalAssetProperty<>("serial", "A-1"));
+
+        PhysicalAssetDescription physicalAssetDescription = new PhysicalAssetDescription(
+                Collections.singletonList(new PhysicalAssetAction("switch-on", "switch.on", "text/plain")),
+                propertyList,
+                Collections.singletonList(new PhysicalAssetEvent("overheating", "text/plain")));
+
+        shadowingFunction.create();
+        shadowingFunction.bind(physicalAssetDescription);
+
+        assertTrue(shadowingFunction.isPropertyVariationBatchingEnabled());
+        assertEquals(4, shadowingFunction.getCompiledMappingCount());
+
+        // Target properties are created with the transformed initial values, unlisted ones with the same key
+        DigitalTwinState digitalTwinState = digitalTwinStateManager.getDigitalTwinState();
+        assertEquals(100.0, (Double) getValue(digitalTwinStateManager, "temperature"), 1e-9);
+        assertEquals(40.0, getValue(digitalTwinStateManager, "humidity"));
+        assertEquals("A-1", getValue(digitalTwinStateManager, "serial"));
+        assertFalse(digitalTwinState.containsProperty("temperature-f"));
+        assertTrue(digitalTwinState.containsAction("switch-on"));
+        assertTrue(digitalTwinState.containsEvent("overheating"));
+
+        // Discarded initial values: the property is created with its first mapped variation
+        assertFalse(digitalTwinState.containsProperty("status"));
+
+        // A burst is applied with a single transaction keeping the last value of each property
+        long version = digitalTwinStateManager.getDigitalTwinState().getVersion();
+        shadowingFunction.onEvent(new PhysicalAssetPropertyWldtEvent<>("temperature-f", 32.0));
+        shadowingFunction.onEvent(new PhysicalAssetPropertyWldtEvent<>("temperature-f", 50.0));
+        shadowingFunction.onEvent(new PhysicalAssetPropertyWldtEvent<>("status-code", 0));
+        shadowingFunction.onEvent(new PhysicalAssetPropertyWldtEvent<>("unknown", 1.0));
+        shadowingFunction.flushPhysicalAssetPropertyVariations();
+
+        assertEquals(version + 1, digitalTwinStateManager.getDigitalTwinState().getVersion());
+        assertEquals(10.0, (Double) getValue(digitalTwinStateManager, "temperature"), 1e-9);
+        assertEquals("ok", getValue(digitalTwinStateManager, "status"));
+        assertFalse(digitalTwinStateManager.getDigitalTwinState().containsProperty("unknown"));
+
+        // Failed transformations are skipped
+        shadowingFunction.onEvent(new PhysicalAssetPropertyWldtEvent<>("temperature-f", "not-a-number"));
+        shadowingFunction.onEvent(new PhysicalAssetPropertyWldtEvent<>("humidity-raw", 45.0));
+        shadowingFunction.flushPhysicalAssetPropertyVariations();
+
+        assertEquals(10.0, (Double) getValue(digitalTwinStateManager, "temperature"), 1e-9);
+        assertEquals(45.0, getValue(digitalTwinStateManager, "humidity"));
+
+        // New properties described by a binding update are compiled and created
+        shadowingFunction.setMapUnlistedProperties(false);
+        shadowingFunction.addPropertyMapping("pressure-pa", "pressure", value -> (Double) value / 100.0);
+
+        List<PhysicalAssetProperty<?>> updatedPropertyList = new ArrayList<>(propertyList);
+        updatedPropertyList.add(new PhysicalAssetProperty<>("pressure-pa", 101325.0));
+        updatedPropertyList.add(new PhysicalAssetProperty<>("ignored", 1.0));
+        shadowingFunction.updateBinding(new PhysicalAssetDescription(new ArrayList<>(), updatedPropertyList, new ArrayList<>()));
+
+        assertEquals(4, shadowingFunction.getCompiledMappingCount());
+        assertEquals(1013.25, (Double) getValue(digitalTwinStateManager, "pressure"), 1e-9);
+        assertFalse(digitalTwinStateManager.getDigitalTwinState().containsProperty("ignored"));
+
+        // Properties no longer mapped are not updated anymore
+        shadowingFunction.onEvent(new PhysicalAssetPropertyWldtEvent<>("serial", "B-2"));
+        shadowingFunction.flushPhysicalAssetPropertyVariations();
+        assertEquals("A-1", getValue(digitalTwinStateManager, "serial"));
+    }
+
+    @Test
+    public void testBurstsMatchPerEventCommits() throws Exception {
+
+        // Reference: the same mapping without batching, committing each variation
+        DigitalTwinStateManager singleStateManager = new DigitalTwinStateManager(DIGITAL_TWIN_ID);
+        TestPropertyMappingShadowingFunction singleShadowingFunction = new TestPropertyMappingShadowingFunction(singleStateManager, 1);
+        singleShadowingFunction.bind(createPhysicalAssetDescription(PROPERTY_COUNT));
+
+        long startVersion = singleStateManager.getDigitalTwinState().getVersion();
+        for(int i = 0; i < BURST_COUNT; i++)
+            sendBurst(singleShadowingFunction, i);
+        long singleTransactionCount = singleStateManager.getDigitalTwinState().getVersion() - startVersion;
+
+        DigitalTwinStateManager batchStateManager = new DigitalTwinStateManager(DIGITAL_TWIN_ID);
+        TestPropertyMappingShadowingFunction batchShadowingFunction = new TestPropertyMappingShadowingFunction(batchStateManager, PROPERTY_COUNT);
+        batchShadowingFunction.create();
+        batchShadowingFunction.bind(createPhysicalAssetDescription(PROPERTY_COUNT));
+
+        startVersion = batchStateManager.getDigitalTwinState().getVersion();
+        for(int i = 0; i < BURST_COUNT; i++)
+            sendBurst(batchShadowingFunction, i);
+        batchShadowingFunction.flushPhysicalAssetPropertyVariations();
+        long batchTransactionCount = batchStateManager.getDigitalTwinState().getVersion() - startVersion;
+
+        assertEquals(BURST_COUNT, batchTransactionCount);
+        assertEquals((long) BURST_COUNT * PROPERTY_COUNT, singleTransactionCount);
+        for(int i = 0; i < PROPERTY_COUNT; i++)
+            assertEquals(getValue(singleStateManager, "raw-" + i), getValue(batchStateManager, "raw-" + i));
+    }
+}
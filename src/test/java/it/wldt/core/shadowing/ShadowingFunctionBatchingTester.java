@@ -0,0 +1,250 @@
+package it.wldt.core.shadowing;
+
+import it.wldt.adapter.digital.event.DigitalActionWldtEvent;
+import it.wldt.adapter.physical.PhysicalAssetDescription;
+import it.wldt.adapter.physical.event.PhysicalAssetEventWldtEvent;
+import it.wldt.adapter.physical.event.PhysicalAssetPropertyWldtEvent;
+import it.wldt.adapter.physical.event.PhysicalAssetRelationshipInstanceCreatedWldtEvent;
+import it.wldt.adapter.physical.event.PhysicalAssetRelationshipInstanceDeletedWldtEvent;
+import it.wldt.core.model.ShadowingFunction;
+import it.wldt.core.state.DigitalTwinStateDoubleProperty;
+import it.wldt.core.state.DigitalTwinStateManager;
+import it.wldt.exception.ModelException;
+import it.wldt.log.WldtLogger;
+import it.wldt.log.WldtLoggerProvider;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShadowingFunctionBatchingTester {
+
+    private static final WldtLogger logger = WldtLoggerProvider.getLogger(ShadowingFunctionBatchingTester.class);
+
+    private static final String DIGITAL_TWIN_ID = "batching-dt";
+
+    static final int PROPERTY_COUNT = 200;
+
+    private static final int SAMPLE_COUNT = 50;
+
+    /**
+     * Shadowing Function mirroring the property variations and recording the received callbacks
+     */
+    static class RecordingShadowingFunction extends ShadowingFunction {
+
+        private final boolean batchTransactions;
+
+        private final List<String> callbackList = Collections.synchronizedList(new ArrayList<>());
+
+        private final List<Integer> batchSizeList = Collections.synchronizedList(new ArrayList<>());
+
+        public RecordingShadowingFunction(DigitalTwinStateManager digitalTwinStateManager, boolean batchTransactions) {
+            super("recording-shadowing-function");
+            this.batchTransactions = batchTransactions;
+            init(digitalTwinStateManager, null, null);
+        }
+
+        public void enableBatching(int maxBatchSize, long maxDelayMs) throws ModelException {
+            enablePropertyVariationBatching(maxBatchSize, maxDelayMs, TimeUnit.MILLISECONDS);
+        }
+
+        public void disableBatching() {
+            disablePropertyVariationBatching();
+        }
+
+        @Override
+        protected void onPhysicalAssetPropertyVariations(List<PhysicalAssetPropertyWldtEvent<?>> physicalPropertyEventMessageList) {
+
+            batchSizeList.add(physicalPropertyEventMessageList.size());
+
+            if(!batchTransactions) {
+                super.onPhysicalAssetPropertyVariations(physicalPropertyEventMessageList);
+                return;
+            }
+
+            // The whole batch is applied with a single transaction
+            try {
+                Map<String, Object> propertyValueMap = new HashMap<>();
+                for(PhysicalAssetPropertyWldtEvent<?> physicalPropertyEventMessage : physicalPropertyEventMessageList) {
+                    callbackList.add(physicalPropertyEventMessage.getPhysicalPropertyId());
+                    propertyValueMap.put(physicalPropertyEventMessage.getPhysicalPropertyId(), physicalPropertyEventMessage.getBody());
+                }
+                digitalTwinStateManager.startStateTransaction();
+                digitalTwinStateManager.updatePropertyValues(propertyValueMap);
+                digitalTwinStateManager.commitStateTransaction();
+            } catch (Exception e) {
+                logger.error("Error applying property variations ! Error: {}", e.getLocalizedMessage());
+            }
+        }
+
+        @Override
+        protected void onPhysicalAssetPropertyVariation(PhysicalAssetPropertyWldtEvent<?> physicalPropertyEventMessage) {
+            callbackList.add(physicalPropertyEventMessage.getPhysicalPropertyId());
+            try {
+                digitalTwinStateManager.startStateTransaction();
+                digitalTwinStateManager.updatePropertyValue(physicalPropertyEventMessage.getPhysicalPropertyId(), (Double) physicalPropertyEventMessage.getBody());
+                digitalTwinStateManager.commitStateTransaction();
+            } catch (Exception e) {
+                logger.error("Error applying property variation ! Error: {}", e.getLocalizedMessage());
+            }
+        }
+
+        @Override
+        protected void onPhysicalAssetEventNotification(PhysicalAssetEventWldtEvent<?> physicalAssetEventWldtEvent) {
+            callbackList.add(physicalAssetEventWldtEvent.getPhysicalEventKey());
+        }
+
+        @Override
+        protected void onCreate() {
+        }
+
+        @Override
+        protected void onStart() {
+        }
+
+        @Override
+        protected void onStop() {
+        }
+
+        @Override
+        protected void onDigitalTwinBound(Map<String, PhysicalAssetDescription> adaptersPhysicalAssetDescriptionMap) {
+        }
+
+        @Override
+        protected void onDigitalTwinUnBound(Map<String, PhysicalAssetDescription> adaptersPhysicalAssetDescriptionMap, String errorMessage) {
+        }
+
+        @Override
+        protected void onPhysicalAdapterBidingUpdate(String adapterId, PhysicalAssetDescription adapterPhysicalAssetDescription) {
+        }
+
+        @Override
+        protected void onPhysicalAssetRelationshipEstablished(PhysicalAssetRelationshipInstanceCreatedWldtEvent<?> physicalAssetRelationshipWldtEvent) {
+        }
+
+        @Override
+        protected void onPhysicalAssetRelationshipDeleted(PhysicalAssetRelationshipInstanceDeletedWldtEvent<?> physicalAssetRelationshipWldtEvent) {
+        }
+
+        @Override
+        protected void onDigitalActionEvent(DigitalActionWldtEvent<?> digitalActionWldtEvent) {
+        }
+    }
+
+    static DigitalTwinStateManager createStateManager() throws Exception {
+        DigitalTwinStateManager digitalTwinStateManager = new DigitalTwinStateManager(DIGITAL_TWIN_ID);
+        digitalTwinStateManager.startStateTransaction();
+        for(int i = 0; i < PROPERTY_COUNT; i++)
+            digitalTwinStateManager.createProperty(new DigitalTwinStateDoubleProperty("property-" + i, 0.0));
+        digitalTwinStateManager.commitStateTransaction();
+        return digitalTwinStateManager;
+    }
+
+    static void sendSample(ShadowingFunction shadowingFunction, double value) throws Exception {
+        // A device sample carries a value for each property
+        for(int i = 0; i < PROPERTY_COUNT; i++)
+            shadowingFunction.onEvent(new PhysicalAssetPropertyWldtEvent<>("property-" + i, value));
+    }
+
+    @Test
+    public void testBatchesBySizeTimeAndOrder() throws Exception {
+
+        DigitalTwinStateManager digitalTwinStateManager = createStateManager();
+        RecordingShadowingFunction shadowingFunction = new RecordingShadowingFunction(digitalTwinStateManager, true);
+
+        shadowingFunction.enableBatching(PROPERTY_COUNT, 50);
+        assertTrue(shadowingFunction.isPropertyVariationBatchingEnabled());
+
+        // A full sample is delivered as a single batch and committed with a single transaction
+        long version = digitalTwinStateManager.getDigitalTwinState().getVersion();
+        sendSample(shadowingFunction, 1.0);
+
+        assertEquals(Collections.singletonList(PROPERTY_COUNT), shadowingFunction.batchSizeList);
+        assertEquals(version + 1, digitalTwinStateManager.getDigitalTwinState().getVersion());
+        assertEquals(1.0, digitalTwinStateManager.getDigitalTwinState().getProperty("property-" + (PROPERTY_COUNT - 1)).get().getValue());
+
+        // Partial batches are delivered once the max delay elapses
+        shadowingFunction.onEvent(new PhysicalAssetPropertyWldtEvent<>("property-0", 2.0));
+        shadowingFunction.onEvent(new PhysicalAssetPropertyWldtEvent<>("property-1", 2.0));
+        assertEquals(1, shadowingFunction.batchSizeList.size());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while(shadowingFunction.batchSizeList.size() < 2 && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+
+        assertEquals(2, shadowingFunction.batchSizeList.get(1).intValue());
+        assertEquals(2.0, digitalTwinStateManager.getDigitalTwinState().getProperty("property-1").get().getValue());
+
+        // Other events deliver the pending variations first
+        shadowingFunction.callbackList.clear();
+        shadowingFunction.onEvent(new PhysicalAssetPropertyWldtEvent<>("property-2", 3.0));
+        shadowingFunction.onEvent(new PhysicalAssetEventWldtEvent<>("alarm", "overheating"));
+        shadowingFunction.onEvent(new PhysicalAssetPropertyWldtEvent<>("property-3", 3.0));
+
+        assertEquals("property-2", shadowingFunction.callbackList.get(0));
+        assertEquals("alarm", shadowingFunction.callbackList.get(1));
+        assertEquals(2, shadowingFunction.callbackList.size());
+
+        // Disabling the batching delivers the pending variations
+        shadowingFunction.disableBatching();
+        assertEquals("property-3", shadowingFunction.callbackList.get(2));
+        assertFalse(shadowingFunction.isPropertyVariationBatchingEnabled());
+    }
+
+    @Test
+    public void testDefaultBatchCallbackFallback() throws Exception {
+
+        DigitalTwinStateManager digitalTwinStateManager = createStateManager();
+        RecordingShadowingFunction shadowingFunction = new RecordingShadowingFunction(digitalTwinStateManager, false);
+
+        shadowingFunction.enableBatching(10, 1000);
+
+        for(int i = 0; i < 25; i++)
+            shadowingFunction.onEvent(new PhysicalAssetPropertyWldtEvent<>("property-" + i, (double) i));
+        shadowingFunction.flushPhysicalAssetPropertyVariations();
+
+        // Each variation of the batches reaches the single event callback in order
+        assertEquals(25, shadowingFunction.callbackList.size());
+        for(int i = 0; i < 25; i++) {
+            assertEquals("property-" + i, shadowingFunction.callbackList.get(i));
+            assertEquals((double) i, digitalTwinStateManager.getDigitalTwinState().getProperty("property-" + i).get().getValue());
+        }
+
+        assertEquals(3, shadowingFunction.batchSizeList.size());
+        assertEquals(5, shadowingFunction.batchSizeList.get(2).intValue());
+    }
+
+    @Test
+    public void testBatchedSamplesMatchSingleEvents() throws Exception {
+
+        DigitalTwinStateManager singleStateManager = createStateManager();
+        RecordingShadowingFunction singleShadowingFunction = new RecordingShadowingFunction(singleStateManager, false);
+
+        long startVersion = singleStateManager.getDigitalTwinState().getVersion();
+        for(int i = 0; i < SAMPLE_COUNT; i++)
+            sendSample(singleShadowingFunction, i);
+        long singleTransactionCount = singleStateManager.getDigitalTwinState().getVersion() - startVersion;
+
+        DigitalTwinStateManager batchStateManager = createStateManager();
+        RecordingShadowingFunction batchShadowingFunction = new RecordingShadowingFunction(batchStateManager, true);
+        batchShadowingFunction.enableBatching(PROPERTY_COUNT, 100);
+
+        startVersion = batchStateManager.getDigitalTwinState().getVersion();
+        for(int i = 0; i < SAMPLE_COUNT; i++)
+            sendSample(batchShadowingFunction, i);
+        batchShadowingFunction.flushPhysicalAssetPropertyVariations();
+        long batchTransactionCount = batchStateManager.getDigitalTwinState().getVersion() - startVersion;
+
+        assertEquals(SAMPLE_COUNT, batchTransactionCount);
+        assertEquals((long) SAMPLE_COUNT * PROPERTY_COUNT, singleTransactionCount);
+        for(int i = 0; i < PROPERTY_COUNT; i++)
+            assertEquals(singleStateManager.getDigitalTwinState().getProperty("property-" + i).get().getValue(),
+                    batchStateManager.getDigitalTwinState().getProperty("property-" + i).get().getValue());
+    }
+}
@@ -0,0 +1,195 @@
+package it.wldt.core.shadowing;
+
+import it.wldt.adapter.physical.PhysicalAssetDescription;
+import it.wldt.adapter.physical.event.PhysicalAssetPropertyWldtEvent;
+import it.wldt.core.adapter.digital.TestDigitalAdapter;
+import it.wldt.core.adapter.digital.TestDigitalAdapterConfiguration;
+import it.wldt.core.adapter.physical.TestPhysicalAdapter;
+import it.wldt.core.adapter.physical.TestPhysicalAdapterConfiguration;
+import it.wldt.core.adapter.shadowing.TestShadowingFunction;
+import it.wldt.core.engine.DigitalTwin;
+import it.wldt.core.engine.DigitalTwinEngine;
+import it.wldt.core.event.WldtEventBus;
+import it.wldt.core.event.WldtEventFilter;
+import it.wldt.core.state.DigitalTwinState;
+import it.wldt.core.state.DigitalTwinStateChange;
+import it.wldt.log.WldtLogger;
+import it.wldt.log.WldtLoggerProvider;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShadowingFunctionHotSwapTester {
+
+    private static final WldtLogger logger = WldtLoggerProvider.getLogger(ShadowingFunctionHotSwapTester.class);
+
+    private static final String DIGITAL_TWIN_ID = "hot-swap-dt";
+
+    private static final int TARGET_EVENT_COUNT = 2000;
+
+    private static final int SWAP_EVENT_INDEX = TARGET_EVENT_COUNT / 2;
+
+    /**
+     * Shadowing Function counting the received energy variations
+     */
+    static class CountingShadowingFunction extends TestShadowingFunction {
+
+        private final AtomicInteger receivedEventCount = new AtomicInteger(0);
+
+        private final AtomicInteger takeOverCount = new AtomicInteger(0);
+
+        public CountingShadowingFunction(String id) {
+            super();
+            setId(id);
+        }
+
+        @Override
+        protected void onTakeOver(Map<String, PhysicalAssetDescription> adaptersPhysicalAssetDescriptionMap) {
+            takeOverCount.incrementAndGet();
+        }
+
+        @Override
+        protected void onPhysicalAssetPropertyVariation(PhysicalAssetPropertyWldtEvent<?> physicalPropertyEventMessage) {
+            if(TestPhysicalAdapter.ENERGY_PROPERTY_KEY.equals(physicalPropertyEventMessage.getPhysicalPropertyId()))
+                receivedEventCount.incrementAndGet();
+            super.onPhysicalAssetPropertyVariation(physicalPropertyEventMessage);
+        }
+
+        public int getReceivedEventCount() {
+            return receivedEventCount.get();
+        }
+
+        @Override
+        protected void onStop() {
+            // A stopped function releases its subscriptions
+            try {
+                WldtEventFilter wldtEventFilter = new WldtEventFilter();
+                wldtEventFilter.addAll(getPhysicalEventsFilter());
+                unObservePhysicalEvents(wldtEventFilter);
+            } catch (Exception e) {
+                logger.error("Error releasing the subscriptions ! Error: {}", e.getLocalizedMessage());
+            }
+        }
+
+        public int getTakeOverCount() {
+            return takeOverCount.get();
+        }
+    }
+
+    @Test
+    public void testHotSwapWithoutEventLoss() throws Exception {
+
+        AtomicReference<CountDownLatch> syncLatchReference = new AtomicReference<>(new CountDownLatch(1));
+
+        CountingShadowingFunction firstShadowingFunction = new CountingShadowingFunction("shadowing-function-v1");
+        CountingShadowingFunction secondShadowingFunction = new CountingShadowingFunction("shadowing-function-v2");
+
+        DigitalTwin digitalTwin = new DigitalTwin(DIGITAL_TWIN_ID, firstShadowingFunction);
+        digitalTwin.addPhysicalAdapter(new TestPhysicalAdapter("test-physical-adapter", new TestPhysicalAdapterConfiguration(), false));
+        digitalTwin.addDigitalAdapter(new TestDigitalAdapter("test-digital-adapter", new TestDigitalAdapterConfiguration()) {
+            @Override
+            public void onDigitalTwinSync(DigitalTwinState digitalTwinState) {
+                super.onDigitalTwinSync(digitalTwinState);
+                syncLatchReference.get().countDown();
+            }
+
+            @Override
+            protected void onStateUpdate(DigitalTwinState newDigitalTwinState, DigitalTwinState previousDigitalTwinState, ArrayList<DigitalTwinStateChange> digitalTwinStateChangeList) {
+                // Updates are generated faster than the evaluation instant resolution, so they are only counted
+                assertNotNull(newDigitalTwinState);
+            }
+        });
+
+        DigitalTwinEngine digitalTwinEngine = new DigitalTwinEngine();
+        digitalTwinEngine.addDigitalTwin(digitalTwin);
+        digitalTwinEngine.startDigitalTwin(DIGITAL_TWIN_ID);
+
+        assertTrue(syncLatchReference.get().await(10, TimeUnit.SECONDS));
+
+        // Emulate a stream of physical property variations while the shadowing function is replaced
+        CountDownLatch swapLatch = new CountDownLatch(1);
+        Thread publisherThread = new Thread(() -> {
+            try {
+                for(int i = 0; i < TARGET_EVENT_COUNT; i++) {
+                    WldtEventBus.getInstance().publishEvent(DIGITAL_TWIN_ID, "test-physical-adapter",
+                            new PhysicalAssetPropertyWldtEvent<>(TestPhysicalAdapter.ENERGY_PROPERTY_KEY, (double) i));
+                    if(i == SWAP_EVENT_INDEX)
+                        swapLatch.countDown();
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        });
+        publisherThread.start();
+
+        assertTrue(swapLatch.await(10, TimeUnit.SECONDS));
+        digitalTwin.replaceShadowingFunction(secondShadowingFunction);
+        publisherThread.join(10000);
+
+        assertSame(secondShadowingFunction, digitalTwin.getShadowingFunction());
+        assertEquals(1, secondShadowingFunction.getTakeOverCount());
+        assertTrue(secondShadowingFunction.getPhysicalEventsFilter().contains(
+                PhysicalAssetPropertyWldtEvent.buildEventType(PhysicalAssetPropertyWldtEvent.PHYSICAL_EVENT_BASIC_TYPE, TestPhysicalAdapter.ENERGY_PROPERTY_KEY)));
+
+        // Every event has been handled exactly once either by the replaced or by the new function
+        assertEquals(TARGET_EVENT_COUNT, firstShadowingFunction.getReceivedEventCount() + secondShadowingFunction.getReceivedEventCount());
+        assertTrue(secondShadowingFunction.getReceivedEventCount() > 0);
+        assertTrue(digitalTwin.getLastShadowingFunctionSwapNanos() > 0);
+
+        digitalTwinEngine.stopDigitalTwin(DIGITAL_TWIN_ID);
+        digitalTwinEngine.removeDigitalTwin(DIGITAL_TWIN_ID);
+    }
+
+    @Test
+    public void testHotSwapWithSameFunctionId() throws Exception {
+
+        String digitalTwinId = "hot-swap-same-id-dt";
+        CountDownLatch syncLatch = new CountDownLatch(1);
+
+        // The new version of the function keeps the id of the replaced one
+        CountingShadowingFunction firstShadowingFunction = new CountingShadowingFunction("shadowing-function");
+        CountingShadowingFunction secondShadowingFunction = new CountingShadowingFunction("shadowing-function");
+        assertEquals(firstShadowingFunction, secondShadowingFunction);
+
+        DigitalTwin digitalTwin = new DigitalTwin(digitalTwinId, firstShadowingFunction);
+        digitalTwin.addPhysicalAdapter(new TestPhysicalAdapter("test-physical-adapter", new TestPhysicalAdapterConfiguration(), false));
+        digitalTwin.addDigitalAdapter(new TestDigitalAdapter("test-digital-adapter", new TestDigitalAdapterConfiguration()) {
+            @Override
+            public void onDigitalTwinSync(DigitalTwinState digitalTwinState) {
+                super.onDigitalTwinSync(digitalTwinState);
+                syncLatch.countDown();
+            }
+        });
+
+        DigitalTwinEngine digitalTwinEngine = new DigitalTwinEngine();
+        digitalTwinEngine.addDigitalTwin(digitalTwin);
+        digitalTwinEngine.startDigitalTwin(digitalTwinId);
+
+        assertTrue(syncLatch.await(10, TimeUnit.SECONDS));
+
+        // The replaced function releases its subscriptions in onStop(): the ones moved to the new function are kept
+        digitalTwin.replaceShadowingFunction(secondShadowingFunction);
+
+        int firstReceivedEventCount = firstShadowingFunction.getReceivedEventCount();
+
+        for(int i = 0; i < 100; i++) {
+            WldtEventBus.getInstance().publishEvent(digitalTwinId, "test-physical-adapter",
+                    new PhysicalAssetPropertyWldtEvent<>(TestPhysicalAdapter.ENERGY_PROPERTY_KEY, (double) i));
+            // The test digital adapter expects distinct evaluation instants across state updates
+            Thread.sleep(2);
+        }
+
+        assertEquals(100, secondShadowingFunction.getReceivedEventCount());
+        assertEquals(firstReceivedEventCount, firstShadowingFunction.getReceivedEventCount());
+
+        digitalTwinEngine.stopDigitalTwin(digitalTwinId);
+        digitalTwinEngine.removeDigitalTwin(digitalTwinId);
+    }
+}
@@ -0,0 +1,243 @@
+package it.wldt.core.shadowing;
+
+import it.wldt.adapter.digital.event.DigitalActionWldtEvent;
+import it.wldt.adapter.physical.PhysicalAssetDescription;
+import it.wldt.adapter.physical.event.PhysicalAssetEventWldtEvent;
+import it.wldt.adapter.physical.event.PhysicalAssetPropertyWldtEvent;
+import it.wldt.adapter.physical.event.PhysicalAssetRelationshipInstanceCreatedWldtEvent;
+import it.wldt.adapter.physical.event.PhysicalAssetRelationshipInstanceDeletedWldtEvent;
+import it.wldt.core.execution.WldtTimerService;
+import it.wldt.core.model.ShadowingFunction;
+import it.wldt.core.model.ShadowingModelListener;
+import it.wldt.core.state.DigitalTwinState;
+import it.wldt.core.state.DigitalTwinStateManager;
+import it.wldt.core.state.DigitalTwinStateProperty;
+import it.wldt.exception.WldtDigitalTwinStateException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StalenessWatchdogTester {
+
+    private static final long MAX_AGE_MS = 200;
+
+    static final int PROPERTY_COUNT = 10000;
+
+    static final int UPDATE_ROUND_COUNT = 20;
+
+    private static final String SYNC = "sync";
+
+    private static final String OUT_OF_SYNC = "out-of-sync";
+
+    /**
+     * Shadowing Function relying on the staleness watchdog for the sync/out-of-sync notifications
+     */
+    private static class WatchdogShadowingFunction extends ShadowingFunction {
+
+        public WatchdogShadowingFunction(DigitalTwinStateManager digitalTwinStateManager) {
+            super("watchdog-shadowing-function");
+            init(digitalTwinStateManager, null, null);
+        }
+
+        public void enableWatchdog() {
+            enableStalenessWatchdog();
+        }
+
+        public void disableWatchdog() {
+            disableStalenessWatchdog();
+        }
+
+        @Override
+        protected void onCreate() {
+        }
+
+        @Override
+        protected void onStart() {
+        }
+
+        @Override
+        protected void onStop() {
+        }
+
+        @Override
+        protected void onDigitalTwinBound(Map<String, PhysicalAssetDescription> adaptersPhysicalAssetDescriptionMap) {
+        }
+
+        @Override
+        protected void onDigitalTwinUnBound(Map<String, PhysicalAssetDescription> adaptersPhysicalAssetDescriptionMap, String errorMessage) {
+        }
+
+        @Override
+        protected void onPhysicalAdapterBidingUpdate(String adapterId, PhysicalAssetDescription adapterPhysicalAssetDescription) {
+        }
+
+        @Override
+        protected void onPhysicalAssetPropertyVariation(PhysicalAssetPropertyWldtEvent<?> physicalPropertyEventMessage) {
+        }
+
+        @Override
+        protected void onPhysicalAssetEventNotification(PhysicalAssetEventWldtEvent<?> physicalAssetEventWldtEvent) {
+        }
+
+        @Override
+        protected void onPhysicalAssetRelationshipEstablished(PhysicalAssetRelationshipInstanceCreatedWldtEvent<?> physicalAssetRelationshipWldtEvent) {
+        }
+
+        @Override
+        protected void onPhysicalAssetRelationshipDeleted(PhysicalAssetRelationshipInstanceDeletedWldtEvent<?> physicalAssetRelationshipWldtEvent) {
+        }
+
+        @Override
+        protected void onDigitalActionEvent(DigitalActionWldtEvent<?> digitalActionWldtEvent) {
+        }
+    }
+
+    private void updateProperty(DigitalTwinStateManager digitalTwinStateManager, String propertyKey, double value) throws Exception {
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.updatePropertyValue(propertyKey, value);
+        digitalTwinStateManager.commitStateTransaction();
+    }
+
+    private void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while(!condition.getAsBoolean() && System.currentTimeMillis() < deadline)
+            Thread.sleep(5);
+    }
+
+    @Test
+    public void testSyncTransitionsDrivenByStaleProperties() throws Exception {
+
+        DigitalTwinStateManager digitalTwinStateManager = new DigitalTwinStateManager("staleness-watchdog-dt");
+        WatchdogShadowingFunction shadowingFunction = new WatchdogShadowingFunction(digitalTwinStateManager);
+
+        List<String> transitionList = Collections.synchronizedList(new ArrayList<>());
+        shadowingFunction.setShadowingModelListener(new ShadowingModelListener() {
+            @Override
+            public void onShadowingSync(DigitalTwinState digitalTwinState) {
+                transitionList.add(SYNC);
+            }
+
+            @Override
+            public void onShadowingOutOfSync(DigitalTwinState digitalTwinState) {
+                transitionList.add(OUT_OF_SYNC);
+            }
+        });
+
+        shadowingFunction.enableWatchdog();
+        assertTrue(shadowingFunction.isStalenessWatchdogEnabled());
+
+        assertThrows(WldtDigitalTwinStateException.class, () -> digitalTwinStateManager.setPropertyMaxAge("temperature", 0, TimeUnit.MILLISECONDS));
+
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.createProperty(new DigitalTwinStateProperty<>("temperature", 20.0), MAX_AGE_MS, TimeUnit.MILLISECONDS);
+        digitalTwinStateManager.createProperty(new DigitalTwinStateProperty<>("humidity", 50.0), MAX_AGE_MS, TimeUnit.MILLISECONDS);
+        digitalTwinStateManager.createProperty(new DigitalTwinStateProperty<>("label", "kitchen"));
+
+        // Max ages are set when the creation is committed
+        assertEquals(-1, digitalTwinStateManager.getPropertyMaxAge("temperature", TimeUnit.MILLISECONDS));
+
+        digitalTwinStateManager.commitStateTransaction();
+
+        assertEquals(MAX_AGE_MS, digitalTwinStateManager.getPropertyMaxAge("temperature", TimeUnit.MILLISECONDS));
+        assertEquals(-1, digitalTwinStateManager.getPropertyMaxAge("label", TimeUnit.MILLISECONDS));
+
+        // The temperature is updated within its max age while the humidity is not
+        long endMillis = System.currentTimeMillis() + 3 * MAX_AGE_MS;
+        double value = 20.0;
+        while(System.currentTimeMillis() < endMillis) {
+            updateProperty(digitalTwinStateManager, "temperature", value++);
+            Thread.sleep(MAX_AGE_MS / 10);
+        }
+
+        assertTrue(digitalTwinStateManager.isPropertyStale("humidity"));
+        assertFalse(digitalTwinStateManager.isPropertyStale("temperature"));
+        assertFalse(digitalTwinStateManager.isPropertyStale("label"));
+        assertEquals(Collections.singletonList("humidity"), digitalTwinStateManager.getStalePropertyKeys());
+        assertEquals(Collections.singletonList(OUT_OF_SYNC), transitionList);
+
+        // The update of the stale property brings the shadowing back in sync
+        updateProperty(digitalTwinStateManager, "humidity", 55.0);
+        assertFalse(digitalTwinStateManager.isPropertyStale("humidity"));
+        assertEquals(SYNC, transitionList.get(1));
+
+        // Only the first stale property and the last recovered one change the sync status
+        waitFor(() -> digitalTwinStateManager.getStalePropertyCount() == 2);
+        assertEquals(2, digitalTwinStateManager.getStalePropertyCount());
+        assertEquals(3, transitionList.size());
+        assertEquals(OUT_OF_SYNC, transitionList.get(2));
+
+        updateProperty(digitalTwinStateManager, "temperature", 30.0);
+        assertEquals(1, digitalTwinStateManager.getStalePropertyCount());
+        assertEquals(3, transitionList.size());
+
+        // Deleted properties are no longer tracked
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.deleteProperty("humidity");
+        digitalTwinStateManager.commitStateTransaction();
+
+        assertEquals(0, digitalTwinStateManager.getStalePropertyCount());
+        assertEquals(-1, digitalTwinStateManager.getPropertyMaxAge("humidity", TimeUnit.MILLISECONDS));
+        assertEquals(SYNC, transitionList.get(3));
+
+        // Without the watchdog the transitions are left to the function
+        shadowingFunction.disableWatchdog();
+        waitFor(() -> digitalTwinStateManager.isPropertyStale("temperature"));
+        assertTrue(digitalTwinStateManager.isPropertyStale("temperature"));
+        assertEquals(4, transitionList.size());
+
+        // A watchdog enabled while a property is stale notifies the shadowing out of sync
+        shadowingFunction.enableWatchdog();
+        assertEquals(5, transitionList.size());
+        assertEquals(OUT_OF_SYNC, transitionList.get(4));
+
+        digitalTwinStateManager.removePropertyMaxAge("temperature");
+        assertEquals(0, digitalTwinStateManager.getStalePropertyCount());
+        assertEquals(SYNC, transitionList.get(5));
+    }
+
+    static DigitalTwinStateManager createStateManager(String digitalTwinId) throws Exception {
+        DigitalTwinStateManager digitalTwinStateManager = new DigitalTwinStateManager(digitalTwinId);
+        digitalTwinStateManager.startStateTransaction();
+        for(int i = 0; i < PROPERTY_COUNT; i++)
+            digitalTwinStateManager.createProperty(new DigitalTwinStateProperty<>("property-" + i, 0.0), 1, TimeUnit.HOURS);
+        digitalTwinStateManager.commitStateTransaction();
+        return digitalTwinStateManager;
+    }
+
+    static void updateAllProperties(DigitalTwinStateManager digitalTwinStateManager) throws Exception {
+        for(int round = 0; round < UPDATE_ROUND_COUNT; round++) {
+            Map<String, Object> propertyValueMap = new HashMap<>();
+            for(int i = 0; i < PROPERTY_COUNT; i++)
+                propertyValueMap.put("property-" + i, (double) round);
+            digitalTwinStateManager.startStateTransaction();
+            digitalTwinStateManager.updatePropertyValues(propertyValueMap);
+            digitalTwinStateManager.commitStateTransaction();
+        }
+    }
+
+    @Test
+    public void testUpdatesDoNotScheduleNewDeadlines() throws Exception {
+
+        String digitalTwinId = "staleness-large-state-dt";
+
+        DigitalTwinStateManager digitalTwinStateManager = createStateManager(digitalTwinId);
+        updateAllProperties(digitalTwinStateManager);
+
+        // There is still one deadline per property
+        assertEquals(PROPERTY_COUNT, WldtTimerService.getInstance().getScheduledTaskCount(digitalTwinId));
+        assertEquals(0, digitalTwinStateManager.getStalePropertyCount());
+
+        for(int i = 0; i < PROPERTY_COUNT; i++)
+            digitalTwinStateManager.removePropertyMaxAge("property-" + i);
+
+        assertEquals(0, WldtTimerService.getInstance().getScheduledTaskCount(digitalTwinId));
+    }
+}
@@ -0,0 +1,260 @@
+package it.wldt.core.state;
+
+import it.wldt.exception.WldtDigitalTwinStateException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DigitalTwinStateBinaryCodecTester {
+
+    private static final int PROPERTY_COUNT = 10000;
+
+    private DigitalTwinState createState() throws Exception {
+
+        DigitalTwinState digitalTwinState = new DigitalTwinState();
+
+        Map<String, Object> configuration = new HashMap<>();
+        configuration.put("threshold", 30);
+        configuration.put("labels", Arrays.asList("kitchen", "first-floor"));
+        configuration.put("tags", new HashSet<>(Arrays.asList(1L, 2L)));
+
+        digitalTwinState.createProperty(new DigitalTwinStateDoubleProperty("temperature", -21.5));
+        digitalTwinState.createProperty(new DigitalTwinStateLongProperty("counter", Long.MIN_VALUE, true, false));
+        digitalTwinState.createProperty(new DigitalTwinStateBooleanProperty("switch", true, false, true, false));
+        digitalTwinState.createProperty(new DigitalTwinStateProperty<>("name", "Küche ☕"));
+        digitalTwinState.createProperty(new DigitalTwinStateProperty<>("level", 42, "ontology:Level"));
+        digitalTwinState.createProperty(new DigitalTwinStateProperty<>("ratio", 0.5f));
+        digitalTwinState.createProperty(new DigitalTwinStateProperty<>("configuration", configuration));
+        digitalTwinState.createProperty(new DigitalTwinStateProperty<>("uptime", Duration.ofSeconds(3600)));
+        digitalTwinState.enableAction(new DigitalTwinStateAction("switch-on", "switch.on", "text/plain", false));
+        digitalTwinState.registerEvent(new DigitalTwinStateEvent("overheating", "text/plain"));
+        digitalTwinState.createRelationship(new DigitalTwinStateRelationship<>("insideIn", "insideIn"));
+        digitalTwinState.createRelationship(new DigitalTwinStateRelationship<>("connectedTo", "connectedTo"));
+
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("since", 1700000000000L);
+        digitalTwinState.addRelationshipInstance("insideIn", new DigitalTwinStateRelationshipInstance<>("insideIn", "room-1", "room-1-instance", metadata));
+        digitalTwinState.addRelationshipInstance("connectedTo", new DigitalTwinStateRelationshipInstance<>("connectedTo", 7, "device-7-instance", null));
+        digitalTwinState.setVersion(12);
+
+        return digitalTwinState;
+    }
+
+    private static int encodedSize(DigitalTwinState digitalTwinState) throws WldtDigitalTwinStateException {
+        return DigitalTwinStateBinaryCodec.encode(digitalTwinState).remaining();
+    }
+
+    @Test
+    public void testStateRoundTrip() throws Exception {
+
+        DigitalTwinState digitalTwinState = createState();
+
+        ByteBuffer buffer = DigitalTwinStateBinaryCodec.encode(digitalTwinState);
+        DigitalTwinState decodedState = DigitalTwinStateBinaryCodec.decodeState(buffer);
+
+        assertFalse(buffer.hasRemaining());
+        assertEquals(12, decodedState.getVersion());
+        assertEquals(digitalTwinState.getEvaluationInstant(), decodedState.getEvaluationInstant());
+
+        // Same resources with the same property classes and attributes
+        assertTrue(DigitalTwinStateDiff.diff(digitalTwinState, decodedState).isEmpty());
+        assertTrue(decodedState.getProperty("temperature").get() instanceof DigitalTwinStateDoubleProperty);
+        assertFalse(decodedState.getProperty("counter").get().isWritable());
+        assertEquals("ontology:Level", decodedState.getProperty("level").get().getType());
+        assertEquals(Duration.ofSeconds(3600), decodedState.getProperty("uptime").get().getValue());
+        assertFalse(decodedState.getAction("switch-on").get().isExposed());
+        assertNull(decodedState.getRelationship("connectedTo").get().getInstance("device-7-instance").getMetadata());
+        assertEquals(1, decodedState.getRelationshipInstancesByTarget(7).size());
+    }
+
+    @Test
+    public void testChangeStreamAcrossBuffers() throws Exception {
+
+        List<DigitalTwinStateChange> changeList = new ArrayList<>();
+        changeList.add(new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_ADD, DigitalTwinStateChange.ResourceType.PROPERTY, new DigitalTwinStateProperty<>("temperature", 20.0)));
+        changeList.add(new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_UPDATE_VALUE, DigitalTwinStateChange.ResourceType.PROPERTY_VALUE, new DigitalTwinStateDoubleProperty("temperature", 21.0)));
+        changeList.add(new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_UPDATE, DigitalTwinStateChange.ResourceType.ACTION, new DigitalTwinStateAction("switch-on", "switch.on", "application/json")));
+        changeList.add(new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_REMOVE, DigitalTwinStateChange.ResourceType.EVENT, new DigitalTwinStateEvent("overheating", "text/plain")));
+        changeList.add(new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_ADD, DigitalTwinStateChange.ResourceType.RELATIONSHIP_INSTANCE, new DigitalTwinStateRelationshipInstance<>("insideIn", "room-1", "room-1-instance")));
+
+        DigitalTwinStateBinaryCodec.Encoder encoder = new DigitalTwinStateBinaryCodec.Encoder();
+        DigitalTwinStateBinaryCodec.Decoder decoder = new DigitalTwinStateBinaryCodec.Decoder();
+
+        // A value that can not be encoded does not corrupt the stream
+        assertThrows(WldtDigitalTwinStateException.class, () -> encoder.writeChange(new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_ADD,
+                DigitalTwinStateChange.ResourceType.PROPERTY,
+                new DigitalTwinStateProperty<>("unsupported-key", new Object()))));
+
+        // Each change is flushed in its own buffer: the following buffers only reference the strings of the previous ones
+        List<ByteBuffer> bufferList = new ArrayList<>();
+        for(DigitalTwinStateChange digitalTwinStateChange : changeList)
+            bufferList.add(encoder.writeChange(digitalTwinStateChange).flush());
+
+        assertTrue(bufferList.get(1).remaining() < bufferList.get(0).remaining());
+
+        for(int i = 0; i < changeList.size(); i++) {
+
+            DigitalTwinStateChange expectedChange = changeList.get(i);
+            DigitalTwinStateChange decodedChange = decoder.readChange(bufferList.get(i));
+
+            assertFalse(bufferList.get(i).hasRemaining());
+            assertEquals(expectedChange.getOperation(), decodedChange.getOperation());
+            assertEquals(expectedChange.getResourceType(), decodedChange.getResourceType());
+            assertEquals(expectedChange.getResource().getClass(), decodedChange.getResource().getClass());
+
+            if(expectedChange.getResource() instanceof DigitalTwinStateRelationshipInstance) {
+                DigitalTwinStateRelationshipInstance<?> decodedInstance = (DigitalTwinStateRelationshipInstance<?>) decodedChange.getResource();
+                assertEquals("room-1", decodedInstance.getTargetId());
+                assertEquals("room-1-instance", decodedInstance.getKey());
+                assertEquals(Collections.emptyMap(), decodedInstance.getMetadata());
+            }
+            else
+                assertEquals(expectedChange.getResource(), decodedChange.getResource());
+        }
+
+        assertEquals(changeList.size(), DigitalTwinStateBinaryCodec.decodeChanges(DigitalTwinStateBinaryCodec.encode(changeList)).size());
+
+        // Records of a different type or corrupted streams are rejected
+        assertThrows(WldtDigitalTwinStateException.class, () -> DigitalTwinStateBinaryCodec.decodeState(DigitalTwinStateBinaryCodec.encode(changeList)));
+        assertThrows(WldtDigitalTwinStateException.class, () -> DigitalTwinStateBinaryCodec.decodeState(ByteBuffer.wrap(new byte[] { 1, 2, 3, 4, 5, 6 })));
+    }
+
+    /**
+     * Serializable value that is not allowed by default
+     */
+    private static class CustomValue implements Serializable {
+
+        private final String label;
+
+        private CustomValue(String label) {
+            this.label = label;
+        }
+    }
+
+    private static ByteBuffer stateStreamHeader() {
+        return stateStreamHeader(64);
+    }
+
+    private static ByteBuffer stateStreamHeader(int capacity) {
+        ByteBuffer buffer = ByteBuffer.allocate(capacity);
+        buffer.putInt(0x574C4454);
+        buffer.put((byte) DigitalTwinStateBinaryCodec.FORMAT_VERSION);
+        // State record, version 0 and no evaluation instant
+        buffer.put((byte) 1);
+        buffer.put((byte) 0);
+        buffer.put((byte) 0);
+        return buffer;
+    }
+
+    @Test
+    public void testUntrustedStreams() throws Exception {
+
+        // A property count larger than the stream is rejected before allocating anything
+        ByteBuffer hugeCountBuffer = stateStreamHeader();
+        hugeCountBuffer.put(new byte[] { (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07 });
+        hugeCountBuffer.flip();
+        assertThrows(WldtDigitalTwinStateException.class, () -> DigitalTwinStateBinaryCodec.decodeState(hugeCountBuffer));
+
+        // Same for a string length (a single generic property with an inline key)
+        ByteBuffer hugeLengthBuffer = stateStreamHeader();
+        hugeLengthBuffer.put(new byte[] { 1, 0, 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F });
+        hugeLengthBuffer.flip();
+        assertThrows(WldtDigitalTwinStateException.class, () -> DigitalTwinStateBinaryCodec.decodeState(hugeLengthBuffer));
+
+        // Deeply nested collections are rejected instead of exhausting the stack (null key and type, then the value)
+        int nestingCount = 400000;
+        ByteBuffer deepNestingBuffer = stateStreamHeader(64 + 2 * nestingCount);
+        deepNestingBuffer.put(new byte[] { 1, 0, 0, 0 });
+        for(int i = 0; i < nestingCount; i++)
+            deepNestingBuffer.put(new byte[] { 0x0C, 0x01 });
+        deepNestingBuffer.put((byte) 0);
+        deepNestingBuffer.flip();
+        assertThrows(WldtDigitalTwinStateException.class, () -> DigitalTwinStateBinaryCodec.decodeState(deepNestingBuffer));
+
+        // The encoder applies the same limit, while values nested within it are still supported
+        List<Object> nestedValue = new ArrayList<>();
+        List<Object> innerList = nestedValue;
+        for(int i = 0; i < 40; i++) {
+            List<Object> childList = new ArrayList<>();
+            innerList.add(childList);
+            innerList = childList;
+        }
+        DigitalTwinState nestedState = new DigitalTwinState();
+        nestedState.createProperty(new DigitalTwinStateProperty<>("nested", nestedValue));
+        assertEquals(nestedValue, DigitalTwinStateBinaryCodec.decodeState(DigitalTwinStateBinaryCodec.encode(nestedState)).getProperty("nested").get().getValue());
+
+        for(int i = 0; i < 40; i++) {
+            List<Object> childList = new ArrayList<>();
+            innerList.add(childList);
+            innerList = childList;
+        }
+        DigitalTwinState tooNestedState = new DigitalTwinState();
+        tooNestedState.createProperty(new DigitalTwinStateProperty<>("nested", nestedValue));
+        assertThrows(WldtDigitalTwinStateException.class, () -> DigitalTwinStateBinaryCodec.encode(tooNestedState));
+
+        // Serialized values are decoded only if their classes are allowed
+        DigitalTwinState digitalTwinState = new DigitalTwinState();
+        digitalTwinState.createProperty(new DigitalTwinStateProperty<>("custom", new CustomValue("kitchen")));
+
+        assertThrows(WldtDigitalTwinStateException.class, () -> DigitalTwinStateBinaryCodec.decodeState(DigitalTwinStateBinaryCodec.encode(digitalTwinState)));
+
+        DigitalTwinStateBinaryCodec.Decoder decoder = new DigitalTwinStateBinaryCodec.Decoder()
+                .allowSerializedClass(CustomValue.class);
+        DigitalTwinState decodedState = decoder.readState(DigitalTwinStateBinaryCodec.encode(digitalTwinState));
+        assertEquals("kitchen", ((CustomValue) decodedState.getProperty("custom").get().getValue()).label);
+    }
+
+    @Test
+    public void testEncodedSize() throws Exception {
+
+        Map<String, DigitalTwinStateProperty<?>> propertyMap = new HashMap<>();
+        HashMap<String, Object> valueMap = new HashMap<>();
+
+        for(int i = 0; i < PROPERTY_COUNT; i++) {
+            String key = String.format("sensor-%05d.temperature", i);
+            DigitalTwinStateProperty<?> property = i % 2 == 0 ?
+                    new DigitalTwinStateDoubleProperty(key, 20.0 + i / 100.0) :
+                    new DigitalTwinStateProperty<>(key, 20.0 + i / 100.0);
+            propertyMap.put(key, property);
+            valueMap.put(key, property.getValue());
+        }
+
+        DigitalTwinState digitalTwinState = new DigitalTwinState(propertyMap, Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
+
+        ByteBuffer buffer = DigitalTwinStateBinaryCodec.encode(digitalTwinState);
+        int encodedSize = buffer.remaining();
+        assertEquals(PROPERTY_COUNT, DigitalTwinStateBinaryCodec.decodeState(buffer).getPropertyMap().size());
+        assertEquals(encodedSize, encodedSize(digitalTwinState));
+
+        // Smaller than the Java serialization of the bare key -> value map (without types and attributes)
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(byteArrayOutputStream)) {
+            objectOutputStream.writeObject(valueMap);
+        }
+        assertTrue(encodedSize < byteArrayOutputStream.size());
+
+        // Value updates of the same properties in a single stream: keys and types are written only once
+        DigitalTwinStateBinaryCodec.Encoder encoder = new DigitalTwinStateBinaryCodec.Encoder();
+        int firstRoundSize = 0;
+        for(int round = 0; round < 2; round++) {
+            for(DigitalTwinStateProperty<?> property : propertyMap.values())
+                encoder.writeChange(new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_UPDATE_VALUE, DigitalTwinStateChange.ResourceType.PROPERTY_VALUE, property));
+            if(round == 0)
+                firstRoundSize = encoder.size();
+        }
+        assertTrue(encoder.flush().remaining() - firstRoundSize < firstRoundSize / 2);
+    }
+}
@@ -0,0 +1,102 @@
+package it.wldt.core.state;
+
+import it.wldt.exception.WldtDigitalTwinStateException;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DigitalTwinStateBulkUpdateTester {
+
+    private static final String DIGITAL_TWIN_ID = "bulk-update-dt";
+
+    private static final int PROPERTY_COUNT = 500;
+
+    private DigitalTwinStateManager createStateManager() throws Exception {
+
+        DigitalTwinStateManager digitalTwinStateManager = new DigitalTwinStateManager(DIGITAL_TWIN_ID);
+
+        digitalTwinStateManager.startStateTransaction();
+        for(int i = 0; i < PROPERTY_COUNT; i++)
+            digitalTwinStateManager.createProperty(new DigitalTwinStateProperty<>(String.format("property-%03d", i), 0.0));
+        digitalTwinStateManager.createProperty(new DigitalTwinStateDoubleProperty("temperature", 0.0));
+        digitalTwinStateManager.createProperty(new DigitalTwinStateProperty<>("label", "none"));
+        digitalTwinStateManager.createProperty(new DigitalTwinStateProperty<>("read-only", "value", true, false));
+        digitalTwinStateManager.commitStateTransaction();
+
+        return digitalTwinStateManager;
+    }
+
+    private Map<String, Object> buildSample(double value) {
+        Map<String, Object> sampleMap = new HashMap<>();
+        for(int i = 0; i < PROPERTY_COUNT; i++)
+            sampleMap.put(String.format("property-%03d", i), value + i);
+        return sampleMap;
+    }
+
+    @Test
+    public void testBulkPropertyValueUpdate() throws Exception {
+
+        DigitalTwinStateManager digitalTwinStateManager = createStateManager();
+
+        Map<String, Object> sampleMap = buildSample(1.0);
+        sampleMap.put("temperature", 21.5);
+        sampleMap.put("label", "updated");
+
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.updatePropertyValues(sampleMap);
+        DigitalTwinStateTransaction digitalTwinStateTransaction = digitalTwinStateManager.getDigitalTwinStateTransaction();
+        digitalTwinStateManager.commitStateTransaction();
+
+        DigitalTwinState digitalTwinState = digitalTwinStateManager.getDigitalTwinState();
+        assertEquals(1.0, digitalTwinState.getProperty("property-000").get().getValue());
+        assertEquals(1.0 + PROPERTY_COUNT - 1, digitalTwinState.getProperty(String.format("property-%03d", PROPERTY_COUNT - 1)).get().getValue());
+        assertEquals("updated", digitalTwinState.getProperty("label").get().getValue());
+
+        // Primitive-specialized properties keep their representation
+        assertInstanceOf(DigitalTwinStateDoubleProperty.class, digitalTwinState.getProperty("temperature").get());
+        assertEquals(21.5, ((DigitalTwinStateDoubleProperty) digitalTwinState.getProperty("temperature").get()).getDoubleValue());
+
+        // One change for each property is still notified
+        List<DigitalTwinStateChange> changeList = digitalTwinStateTransaction.getDigitalTwinStateChangeList();
+        assertEquals(PROPERTY_COUNT + 2, changeList.size());
+        assertTrue(changeList.stream().allMatch(change -> change.getOperation() == DigitalTwinStateChange.Operation.OPERATION_UPDATE_VALUE));
+    }
+
+    @Test
+    public void testInvalidBulkUpdateIsNotApplied() throws Exception {
+
+        DigitalTwinStateManager digitalTwinStateManager = createStateManager();
+        DigitalTwinState initialState = digitalTwinStateManager.getDigitalTwinState();
+
+        // Missing property, read only property and wrong value type
+        Object[][] invalidEntryArray = new Object[][]{{"missing", 1.0}, {"read-only", "new"}, {"label", 1.0}};
+
+        for(Object[] invalidEntry : invalidEntryArray) {
+
+            Map<String, Object> sampleMap = buildSample(5.0);
+            sampleMap.put((String) invalidEntry[0], invalidEntry[1]);
+
+            DigitalTwinStateTransaction digitalTwinStateTransaction = digitalTwinStateManager.newStateTransaction();
+            digitalTwinStateManager.updatePropertyValues(digitalTwinStateTransaction, sampleMap);
+
+            assertThrows(WldtDigitalTwinStateException.class, () -> digitalTwinStateManager.commitStateTransaction(digitalTwinStateTransaction));
+
+            // None of the valid values has been applied
+            assertSame(initialState, digitalTwinStateManager.getDigitalTwinState());
+            assertEquals(0.0, digitalTwinStateManager.getDigitalTwinState().getProperty("property-001").get().getValue());
+        }
+
+        // Null values are rejected when added
+        Map<String, Object> nullValueMap = new HashMap<>();
+        nullValueMap.put("property-001", 1.0);
+        nullValueMap.put("property-002", null);
+
+        DigitalTwinStateTransaction digitalTwinStateTransaction = digitalTwinStateManager.newStateTransaction();
+        assertThrows(WldtDigitalTwinStateException.class, () -> digitalTwinStateManager.updatePropertyValues(digitalTwinStateTransaction, nullValueMap));
+        assertTrue(digitalTwinStateTransaction.getDigitalTwinStateChangeList().isEmpty());
+    }
+}
@@ -0,0 +1,222 @@
+package it.wldt.core.state;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DigitalTwinStateChangeCompactionTester {
+
+    private static final String DIGITAL_TWIN_ID = "change-compaction-dt";
+
+    private static final int UPDATE_COUNT = 100;
+
+    private DigitalTwinStateManager createStateManager() throws Exception {
+
+        DigitalTwinStateManager digitalTwinStateManager = new DigitalTwinStateManager(DIGITAL_TWIN_ID);
+
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.createProperty(new DigitalTwinStateProperty<>("temperature", 20.0));
+        digitalTwinStateManager.createProperty(new DigitalTwinStateProperty<>("humidity", 50.0));
+        digitalTwinStateManager.createRelationship(new DigitalTwinStateRelationship<>("insideIn", "insideIn"));
+        digitalTwinStateManager.commitStateTransaction();
+
+        return digitalTwinStateManager;
+    }
+
+    private List<DigitalTwinStateChange> commit(DigitalTwinStateManager digitalTwinStateManager) throws Exception {
+        DigitalTwinStateTransaction digitalTwinStateTransaction = digitalTwinStateManager.getDigitalTwinStateTransaction();
+        digitalTwinStateManager.commitStateTransaction();
+        return digitalTwinStateTransaction.getDigitalTwinStateChangeList();
+    }
+
+    @Test
+    public void testLastWriteWins() throws Exception {
+
+        DigitalTwinStateManager digitalTwinStateManager = createStateManager();
+
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.updatePropertyValue("temperature", 21.0);
+        digitalTwinStateManager.updatePropertyValue(new DigitalTwinStateProperty<>("humidity", 55.0));
+        digitalTwinStateManager.updatePropertyValue("temperature", 22.0);
+        digitalTwinStateManager.updatePropertyValue("temperature", 23.0);
+        List<DigitalTwinStateChange> changeList = commit(digitalTwinStateManager);
+
+        // The changes keep the order of the first change of each resource
+        assertEquals(2, changeList.size());
+        assertEquals(DigitalTwinStateChange.Operation.OPERATION_UPDATE_VALUE, changeList.get(0).getOperation());
+        assertEquals(23.0, ((DigitalTwinStateProperty<?>) changeList.get(0).getResource()).getValue());
+        assertEquals("humidity", ((DigitalTwinStateProperty<?>) changeList.get(1).getResource()).getKey());
+        assertEquals(23.0, digitalTwinStateManager.getDigitalTwinState().getProperty("temperature").get().getValue());
+
+        // Property update followed by a value update
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.updateProperty(new DigitalTwinStateProperty<>("humidity", 60.0, false, true));
+        digitalTwinStateManager.updatePropertyValue(new DigitalTwinStateProperty<>("humidity", 65.0));
+        changeList = commit(digitalTwinStateManager);
+
+        assertEquals(1, changeList.size());
+        assertEquals(DigitalTwinStateChange.Operation.OPERATION_UPDATE, changeList.get(0).getOperation());
+        assertEquals(DigitalTwinStateChange.ResourceType.PROPERTY, changeList.get(0).getResourceType());
+        DigitalTwinStateProperty<?> humidityProperty = (DigitalTwinStateProperty<?>) changeList.get(0).getResource();
+        assertEquals(65.0, humidityProperty.getValue());
+        assertFalse(humidityProperty.isReadable());
+    }
+
+    @Test
+    public void testAddAndRemoveFolding() throws Exception {
+
+        DigitalTwinStateManager digitalTwinStateManager = createStateManager();
+
+        digitalTwinStateManager.startStateTransaction();
+        DigitalTwinStateTransaction digitalTwinStateTransaction = digitalTwinStateManager.getDigitalTwinStateTransaction();
+
+        // Added and then removed: no change (the manager only removes resources of the start state)
+        DigitalTwinStateProperty<Double> pressureProperty = new DigitalTwinStateProperty<>("pressure", 1.0);
+        digitalTwinStateManager.createProperty(pressureProperty);
+        digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_REMOVE,
+                DigitalTwinStateChange.ResourceType.PROPERTY,
+                pressureProperty));
+
+        // Added and then updated: a single add with the final value
+        digitalTwinStateManager.createProperty(new DigitalTwinStateDoubleProperty("voltage", 220.0));
+        digitalTwinStateManager.updatePropertyValue("voltage", 230.0);
+
+        // Removed and then added again: both changes are kept
+        digitalTwinStateManager.deleteProperty("temperature");
+        digitalTwinStateManager.createProperty(new DigitalTwinStateProperty<>("temperature", "hot"));
+
+        // The instance is added after its relationship
+        digitalTwinStateManager.createRelationship(new DigitalTwinStateRelationship<>("connectedTo", "connectedTo"));
+        digitalTwinStateManager.addRelationshipInstance(new DigitalTwinStateRelationshipInstance<>("connectedTo", "device-1", "device-1-instance"));
+        DigitalTwinStateRelationshipInstance<String> roomInstance = new DigitalTwinStateRelationshipInstance<>("insideIn", "room-1", "room-1-instance");
+        digitalTwinStateManager.addRelationshipInstance(roomInstance);
+        digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_REMOVE,
+                DigitalTwinStateChange.ResourceType.RELATIONSHIP_INSTANCE,
+                roomInstance));
+
+        List<DigitalTwinStateChange> changeList = commit(digitalTwinStateManager);
+
+        assertEquals(5, changeList.size());
+
+        assertEquals(DigitalTwinStateChange.Operation.OPERATION_ADD, changeList.get(0).getOperation());
+        assertEquals(DigitalTwinStateChange.ResourceType.PROPERTY, changeList.get(0).getResourceType());
+        assertEquals(230.0, ((DigitalTwinStateDoubleProperty) changeList.get(0).getResource()).getDoubleValue());
+
+        assertEquals(DigitalTwinStateChange.Operation.OPERATION_REMOVE, changeList.get(1).getOperation());
+        assertEquals(DigitalTwinStateChange.Operation.OPERATION_ADD, changeList.get(2).getOperation());
+        assertEquals("hot", ((DigitalTwinStateProperty<?>) changeList.get(2).getResource()).getValue());
+
+        assertEquals(DigitalTwinStateChange.ResourceType.RELATIONSHIP, changeList.get(3).getResourceType());
+        assertEquals(DigitalTwinStateChange.ResourceType.RELATIONSHIP_INSTANCE, changeList.get(4).getResourceType());
+
+        DigitalTwinState digitalTwinState = digitalTwinStateManager.getDigitalTwinState();
+        assertFalse(digitalTwinState.containsProperty("pressure"));
+        assertEquals(230.0, digitalTwinState.getProperty("voltage").get().getValue());
+        assertEquals("hot", digitalTwinState.getProperty("temperature").get().getValue());
+        assertTrue(digitalTwinState.containsRelationshipInstance("connectedTo", "device-1-instance"));
+        assertFalse(digitalTwinState.containsRelationshipInstance("insideIn", "room-1-instance"));
+    }
+
+    @Test
+    public void testMergedChangesKeepFirstPosition() throws Exception {
+
+        DigitalTwinStateManager digitalTwinStateManager = createStateManager();
+
+        DigitalTwinStateRelationshipInstance<String> roomInstance = new DigitalTwinStateRelationshipInstance<>("insideIn", "room-1", "room-1-instance");
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.addRelationshipInstance(roomInstance);
+        digitalTwinStateManager.commitStateTransaction();
+
+        digitalTwinStateManager.startStateTransaction();
+        DigitalTwinStateTransaction digitalTwinStateTransaction = digitalTwinStateManager.getDigitalTwinStateTransaction();
+
+        // A property added and then updated after another change: the merged add keeps its position
+        digitalTwinStateManager.createProperty(new DigitalTwinStateDoubleProperty("voltage", 220.0));
+        digitalTwinStateManager.updatePropertyValue("humidity", 55.0);
+        digitalTwinStateManager.updatePropertyValue("voltage", 230.0);
+
+        // A relationship removed and added again together with its instance
+        DigitalTwinStateRelationship<String> insideInRelationship = new DigitalTwinStateRelationship<>("insideIn", "insideIn");
+        digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_REMOVE,
+                DigitalTwinStateChange.ResourceType.RELATIONSHIP_INSTANCE,
+                roomInstance));
+        digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_REMOVE,
+                DigitalTwinStateChange.ResourceType.RELATIONSHIP,
+                insideInRelationship));
+        digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_ADD,
+                DigitalTwinStateChange.ResourceType.RELATIONSHIP,
+                insideInRelationship));
+        digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_ADD,
+                DigitalTwinStateChange.ResourceType.RELATIONSHIP_INSTANCE,
+                roomInstance));
+
+        List<DigitalTwinStateChange> changeList = commit(digitalTwinStateManager);
+
+        assertEquals(6, changeList.size());
+
+        assertEquals(DigitalTwinStateChange.Operation.OPERATION_ADD, changeList.get(0).getOperation());
+        assertEquals(230.0, ((DigitalTwinStateDoubleProperty) changeList.get(0).getResource()).getDoubleValue());
+        assertEquals("humidity", ((DigitalTwinStateProperty<?>) changeList.get(1).getResource()).getKey());
+
+        // The instance is removed before its relationship and added again after it
+        assertEquals(DigitalTwinStateChange.Operation.OPERATION_REMOVE, changeList.get(2).getOperation());
+        assertEquals(DigitalTwinStateChange.ResourceType.RELATIONSHIP_INSTANCE, changeList.get(2).getResourceType());
+        assertEquals(DigitalTwinStateChange.Operation.OPERATION_REMOVE, changeList.get(3).getOperation());
+        assertEquals(DigitalTwinStateChange.ResourceType.RELATIONSHIP, changeList.get(3).getResourceType());
+        assertEquals(DigitalTwinStateChange.Operation.OPERATION_ADD, changeList.get(4).getOperation());
+        assertEquals(DigitalTwinStateChange.ResourceType.RELATIONSHIP, changeList.get(4).getResourceType());
+        assertEquals(DigitalTwinStateChange.Operation.OPERATION_ADD, changeList.get(5).getOperation());
+        assertEquals(DigitalTwinStateChange.ResourceType.RELATIONSHIP_INSTANCE, changeList.get(5).getResourceType());
+    }
+
+    @Test
+    public void testCancelledRelationshipDropsInstanceChanges() throws Exception {
+
+        DigitalTwinStateManager digitalTwinStateManager = createStateManager();
+
+        digitalTwinStateManager.startStateTransaction();
+        DigitalTwinStateTransaction digitalTwinStateTransaction = digitalTwinStateManager.getDigitalTwinStateTransaction();
+
+        // Relationship added with its instance and then removed: none of its changes is notified
+        DigitalTwinStateRelationship<String> connectedToRelationship = new DigitalTwinStateRelationship<>("connectedTo", "connectedTo");
+        digitalTwinStateManager.createRelationship(connectedToRelationship);
+        digitalTwinStateManager.addRelationshipInstance(new DigitalTwinStateRelationshipInstance<>("connectedTo", "device-1", "device-1-instance"));
+        digitalTwinStateManager.updatePropertyValue("temperature", 21.0);
+        digitalTwinStateTransaction.addStateChange(new DigitalTwinStateChange(DigitalTwinStateChange.Operation.OPERATION_REMOVE,
+                DigitalTwinStateChange.ResourceType.RELATIONSHIP,
+                connectedToRelationship));
+
+        // The instances of the other relationships are kept
+        digitalTwinStateManager.addRelationshipInstance(new DigitalTwinStateRelationshipInstance<>("insideIn", "room-1", "room-1-instance"));
+
+        List<DigitalTwinStateChange> changeList = commit(digitalTwinStateManager);
+
+        assertEquals(2, changeList.size());
+        assertEquals(DigitalTwinStateChange.ResourceType.PROPERTY_VALUE, changeList.get(0).getResourceType());
+        assertEquals(DigitalTwinStateChange.ResourceType.RELATIONSHIP_INSTANCE, changeList.get(1).getResourceType());
+        assertEquals("insideIn", ((DigitalTwinStateRelationshipInstance<?>) changeList.get(1).getResource()).getRelationshipName());
+    }
+
+    @Test
+    public void testRepeatedUpdatesWithinTransactions() throws Exception {
+
+        DigitalTwinStateManager digitalTwinStateManager = createStateManager();
+
+        // A shadowing function updating the same properties several times within the same transaction
+        for(int i = 1; i <= UPDATE_COUNT; i++) {
+
+            digitalTwinStateManager.startStateTransaction();
+
+            for(int j = 0; j < 50; j++) {
+                digitalTwinStateManager.updatePropertyValue("temperature", 20.0 + i + j);
+                digitalTwinStateManager.updatePropertyValue("humidity", 50.0 + i + j);
+            }
+
+            assertEquals(2, commit(digitalTwinStateManager).size());
+        }
+
+        assertEquals(20.0 + UPDATE_COUNT + 49, digitalTwinStateManager.getDigitalTwinState().getProperty("temperature").get().getValue());
+    }
+}
@@ -0,0 +1,133 @@
+package it.wldt.core.state;
+
+import it.wldt.exception.WldtDigitalTwinStateException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DigitalTwinStateDerivedPropertyTester {
+
+    private static final String DIGITAL_TWIN_ID = "derived-property-dt";
+
+    private static final int INPUT_PROPERTY_COUNT = 400;
+
+    private static final int DERIVED_PROPERTY_COUNT = 200;
+
+    private static final int COMMIT_COUNT = 2000;
+
+    private List<DigitalTwinStateChange> commit(DigitalTwinStateManager digitalTwinStateManager) throws Exception {
+        DigitalTwinStateTransaction digitalTwinStateTransaction = digitalTwinStateManager.getDigitalTwinStateTransaction();
+        digitalTwinStateManager.commitStateTransaction();
+        return digitalTwinStateTransaction.getDigitalTwinStateChangeList();
+    }
+
+    private Object getValue(DigitalTwinStateManager digitalTwinStateManager, String propertyKey) throws Exception {
+        return digitalTwinStateManager.getDigitalTwinState().getProperty(propertyKey).map(DigitalTwinStateProperty::getValue).orElse(null);
+    }
+
+    @Test
+    public void testDerivedPropertiesRecomputedWithinCommit() throws Exception {
+
+        DigitalTwinStateManager digitalTwinStateManager = new DigitalTwinStateManager(DIGITAL_TWIN_ID);
+
+        AtomicInteger powerComputationCount = new AtomicInteger();
+
+        digitalTwinStateManager.registerDerivedProperty("power", Arrays.asList("voltage", "current"), inputValues -> {
+            powerComputationCount.incrementAndGet();
+            return (Double) inputValues.get(0) * (Double) inputValues.get(1);
+        });
+
+        // Derived from another derived property
+        digitalTwinStateManager.registerDerivedProperty("cost", Arrays.asList("power", "price"),
+                inputValues -> (Double) inputValues.get(0) * (Double) inputValues.get(1));
+
+        // Cyclic dependencies are rejected
+        assertThrows(WldtDigitalTwinStateException.class, () -> digitalTwinStateManager.registerDerivedProperty("voltage", Collections.singletonList("cost"), inputValues -> 0.0));
+        assertEquals(2, digitalTwinStateManager.getDerivedPropertyKeys().size());
+
+        // The derived properties are created once all their inputs are available
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.createProperty(new DigitalTwinStateProperty<>("voltage", 220.0));
+        digitalTwinStateManager.createProperty(new DigitalTwinStateDoubleProperty("current", 2.0));
+        List<DigitalTwinStateChange> changeList = commit(digitalTwinStateManager);
+
+        assertEquals(3, changeList.size());
+        assertEquals(440.0, getValue(digitalTwinStateManager, "power"));
+        assertNull(getValue(digitalTwinStateManager, "cost"));
+
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.createProperty(new DigitalTwinStateProperty<>("price", 0.5));
+        digitalTwinStateManager.createProperty(new DigitalTwinStateProperty<>("location", "kitchen"));
+        changeList = commit(digitalTwinStateManager);
+
+        assertEquals(3, changeList.size());
+        assertEquals(220.0, getValue(digitalTwinStateManager, "cost"));
+        assertEquals(1, powerComputationCount.get());
+
+        // A change of an input updates the chain of derived properties in the same transaction
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.updatePropertyValue("current", 3.0);
+        changeList = commit(digitalTwinStateManager);
+
+        assertEquals(3, changeList.size());
+        assertEquals(DigitalTwinStateChange.Operation.OPERATION_UPDATE_VALUE, changeList.get(1).getOperation());
+        assertEquals("power", ((DigitalTwinStateProperty<?>) changeList.get(1).getResource()).getKey());
+        assertEquals(660.0, getValue(digitalTwinStateManager, "power"));
+        assertEquals(330.0, getValue(digitalTwinStateManager, "cost"));
+
+        // Properties that are not inputs do not trigger any computation
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.updatePropertyValue(new DigitalTwinStateProperty<>("location", "garage"));
+        assertEquals(1, commit(digitalTwinStateManager).size());
+        assertEquals(2, powerComputationCount.get());
+
+        // A derived value overwritten by the transaction is replaced by the computed one
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.updatePropertyValue(new DigitalTwinStateProperty<>("power", 0.0));
+        digitalTwinStateManager.updatePropertyValue(new DigitalTwinStateProperty<>("voltage", 230.0));
+        changeList = commit(digitalTwinStateManager);
+
+        assertEquals(3, changeList.size());
+        assertEquals(690.0, getValue(digitalTwinStateManager, "power"));
+        assertEquals(345.0, getValue(digitalTwinStateManager, "cost"));
+
+        // Unregistered derived properties keep their last value
+        digitalTwinStateManager.unRegisterDerivedProperty("cost");
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.updatePropertyValue(new DigitalTwinStateProperty<>("price", 1.0));
+        commit(digitalTwinStateManager);
+
+        assertEquals(345.0, getValue(digitalTwinStateManager, "cost"));
+    }
+
+    @Test
+    public void testOnlyDependentDerivedPropertiesRecomputed() throws Exception {
+
+        DigitalTwinStateManager digitalTwinStateManager = new DigitalTwinStateManager(DIGITAL_TWIN_ID);
+
+        digitalTwinStateManager.startStateTransaction();
+        for(int i = 0; i < INPUT_PROPERTY_COUNT; i++)
+            digitalTwinStateManager.createProperty(new DigitalTwinStateDoubleProperty(String.format("input-%03d", i), i));
+        commit(digitalTwinStateManager);
+
+        for(int i = 0; i < DERIVED_PROPERTY_COUNT; i++)
+            digitalTwinStateManager.registerDerivedProperty(String.format("derived-%03d", i),
+                    Arrays.asList(String.format("input-%03d", 2 * i), String.format("input-%03d", 2 * i + 1)),
+                    inputValues -> (Double) inputValues.get(0) * (Double) inputValues.get(1));
+
+        // Only the one depending on the changed input is computed
+        for(int i = 0; i < COMMIT_COUNT; i++) {
+            digitalTwinStateManager.startStateTransaction();
+            digitalTwinStateManager.updatePropertyValue(String.format("input-%03d", (2 * i) % INPUT_PROPERTY_COUNT), (double) i + 1);
+            assertEquals(2, commit(digitalTwinStateManager).size());
+        }
+
+        int lastInput = (2 * (COMMIT_COUNT - 1)) % INPUT_PROPERTY_COUNT;
+        assertEquals((double) COMMIT_COUNT * (lastInput + 1), getValue(digitalTwinStateManager, String.format("derived-%03d", lastInput / 2)));
+    }
+}
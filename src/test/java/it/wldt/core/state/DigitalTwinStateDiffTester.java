@@ -0,0 +1,161 @@
+package it.wldt.core.state;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DigitalTwinStateDiffTester {
+
+    private static final int PROPERTY_COUNT = 10000;
+
+    private static final int CHANGED_PROPERTY_COUNT = 5;
+
+    private DigitalTwinState createState() throws Exception {
+
+        DigitalTwinState digitalTwinState = new DigitalTwinState();
+
+        digitalTwinState.createProperty(new DigitalTwinStateProperty<>("temperature", 20.0));
+        digitalTwinState.createProperty(new DigitalTwinStateDoubleProperty("humidity", 50.0));
+        digitalTwinState.createProperty(new DigitalTwinStateProperty<>("serial", "A-1", true, false));
+        digitalTwinState.createProperty(new DigitalTwinStateProperty<>("mode", "auto"));
+        digitalTwinState.enableAction(new DigitalTwinStateAction("switch-on", "switch.on", "text/plain"));
+        digitalTwinState.registerEvent(new DigitalTwinStateEvent("overheating", "text/plain"));
+        digitalTwinState.createRelationship(new DigitalTwinStateRelationship<>("insideIn", "insideIn"));
+        digitalTwinState.createRelationship(new DigitalTwinStateRelationship<>("connectedTo", "connectedTo"));
+        digitalTwinState.addRelationshipInstance("insideIn", new DigitalTwinStateRelationshipInstance<>("insideIn", "room-1", "room-1-instance"));
+        digitalTwinState.addRelationshipInstance("connectedTo", new DigitalTwinStateRelationshipInstance<>("connectedTo", "device-1", "device-1-instance"));
+        digitalTwinState.addRelationshipInstance("connectedTo", new DigitalTwinStateRelationshipInstance<>("connectedTo", "device-2", "device-2-instance"));
+
+        return digitalTwinState;
+    }
+
+    private DigitalTwinState apply(DigitalTwinState digitalTwinState, List<DigitalTwinStateChange> changeList) throws Exception {
+        DigitalTwinStateTransaction digitalTwinStateTransaction = new DigitalTwinStateTransaction(digitalTwinState);
+        for(DigitalTwinStateChange digitalTwinStateChange : changeList)
+            digitalTwinStateTransaction.addStateChange(digitalTwinStateChange);
+        digitalTwinStateTransaction.handleStateChanges();
+        return digitalTwinStateTransaction.getEndDigitalTwinState();
+    }
+
+    private void assertSameResources(DigitalTwinState expectedState, DigitalTwinState actualState) throws Exception {
+
+        assertEquals(toMap(expectedState.getPropertyList().orElse(Collections.emptyList())), toMap(actualState.getPropertyList().orElse(Collections.emptyList())));
+        assertEquals(expectedState.getActionList().orElse(Collections.emptyList()).size(), actualState.getActionList().orElse(Collections.emptyList()).size());
+        for(DigitalTwinStateAction action : expectedState.getActionList().orElse(Collections.emptyList()))
+            assertEquals(action, actualState.getAction(action.getKey()).get());
+        assertEquals(expectedState.getEventList().orElse(Collections.emptyList()).size(), actualState.getEventList().orElse(Collections.emptyList()).size());
+        for(DigitalTwinStateEvent event : expectedState.getEventList().orElse(Collections.emptyList()))
+            assertEquals(event, actualState.getEvent(event.getKey()).get());
+
+        List<DigitalTwinStateRelationship<?>> expectedRelationshipList = expectedState.getRelationshipList().orElse(Collections.emptyList());
+        assertEquals(expectedRelationshipList.size(), actualState.getRelationshipList().orElse(Collections.emptyList()).size());
+
+        for(DigitalTwinStateRelationship<?> expectedRelationship : expectedRelationshipList) {
+            DigitalTwinStateRelationship<?> actualRelationship = actualState.getRelationship(expectedRelationship.getName()).get();
+            assertEquals(expectedRelationship.getType(), actualRelationship.getType());
+            assertEquals(expectedRelationship.getInstanceCount(), actualRelationship.getInstanceCount());
+            for(DigitalTwinStateRelationshipInstance<?> expectedInstance : expectedRelationship.getInstanceCollection())
+                assertEquals(expectedInstance.getTargetId(), actualRelationship.getInstance(expectedInstance.getKey()).getTargetId());
+        }
+    }
+
+    private Map<String, DigitalTwinStateProperty<?>> toMap(List<DigitalTwinStateProperty<?>> propertyList) {
+        Map<String, DigitalTwinStateProperty<?>> propertyMap = new HashMap<>();
+        for(DigitalTwinStateProperty<?> property : propertyList)
+            propertyMap.put(property.getKey(), property);
+        return propertyMap;
+    }
+
+    @Test
+    public void testDiffAppliedToPreviousState() throws Exception {
+
+        DigitalTwinState previousState = createState();
+        DigitalTwinState newState = new DigitalTwinState(previousState);
+
+        assertTrue(DigitalTwinStateDiff.diff(previousState, newState).isEmpty());
+
+        newState.updatePropertyValue("temperature", 25.0);
+        newState.updatePropertyDoubleValue("humidity", 55.0);
+        newState.updateProperty(new DigitalTwinStateProperty<>("mode", "manual", false, true));
+        newState.deleteProperty("serial");
+        newState.createProperty(new DigitalTwinStateProperty<>("serial", "B-2", true, false));
+        newState.createProperty(new DigitalTwinStateProperty<>("pressure", 1.0));
+        newState.updateAction(new DigitalTwinStateAction("switch-on", "switch.on", "application/json"));
+        newState.unRegisterEvent("overheating");
+        newState.deleteRelationshipInstance("connectedTo", "device-1-instance");
+        newState.addRelationshipInstance("connectedTo", new DigitalTwinStateRelationshipInstance<>("connectedTo", "device-3", "device-2-instance"));
+        newState.addRelationshipInstance("connectedTo", new DigitalTwinStateRelationshipInstance<>("connectedTo", "device-4", "device-4-instance"));
+        newState.deleteRelationship("insideIn");
+        newState.createRelationship(new DigitalTwinStateRelationship<>("partOf", "partOf"));
+
+        List<DigitalTwinStateChange> changeList = DigitalTwinStateDiff.diff(previousState, newState);
+
+        Map<String, DigitalTwinStateChange.Operation> propertyOperationMap = new HashMap<>();
+        for(DigitalTwinStateChange digitalTwinStateChange : changeList)
+            if(digitalTwinStateChange.getResource() instanceof DigitalTwinStateProperty && digitalTwinStateChange.getOperation() != DigitalTwinStateChange.Operation.OPERATION_REMOVE)
+                propertyOperationMap.put(((DigitalTwinStateProperty<?>) digitalTwinStateChange.getResource()).getKey(), digitalTwinStateChange.getOperation());
+
+        // Value updates for writable properties, whole updates when the attributes changed and remove + add for the rest
+        assertEquals(DigitalTwinStateChange.Operation.OPERATION_UPDATE_VALUE, propertyOperationMap.get("temperature"));
+        assertEquals(DigitalTwinStateChange.Operation.OPERATION_UPDATE_VALUE, propertyOperationMap.get("humidity"));
+        assertEquals(DigitalTwinStateChange.Operation.OPERATION_UPDATE, propertyOperationMap.get("mode"));
+        assertEquals(DigitalTwinStateChange.Operation.OPERATION_ADD, propertyOperationMap.get("serial"));
+        assertEquals(DigitalTwinStateChange.Operation.OPERATION_ADD, propertyOperationMap.get("pressure"));
+
+        // 6 property changes, 1 action, 1 event, 2 relationships and 4 instance changes
+        assertEquals(14, changeList.size());
+
+        assertSameResources(newState, apply(previousState, changeList));
+
+        // The reverse diff restores the previous state
+        assertSameResources(previousState, apply(newState, DigitalTwinStateDiff.diff(newState, previousState)));
+    }
+
+    @Test
+    public void testDiffOfIndependentStates() throws Exception {
+
+        Map<String, DigitalTwinStateProperty<?>> previousPropertyMap = new HashMap<>();
+        Map<String, DigitalTwinStateProperty<?>> newPropertyMap = new HashMap<>();
+
+        for(int i = 0; i < 1000; i++) {
+            previousPropertyMap.put("property-" + i, new DigitalTwinStateProperty<>("property-" + i, (double) i));
+            newPropertyMap.put("property-" + i, new DigitalTwinStateProperty<>("property-" + i, i % 100 == 0 ? -1.0 : (double) i));
+        }
+        newPropertyMap.remove("property-7");
+
+        // States built separately do not share any resource: the properties are compared with equals
+        DigitalTwinState previousState = new DigitalTwinState(previousPropertyMap, Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
+        DigitalTwinState newState = new DigitalTwinState(newPropertyMap, Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
+
+        List<DigitalTwinStateChange> changeList = DigitalTwinStateDiff.diff(previousState, newState);
+
+        assertEquals(11, changeList.size());
+        assertSameResources(newState, apply(previousState, changeList));
+    }
+
+    @Test
+    public void testDiffOfLargeStates() throws Exception {
+
+        Map<String, DigitalTwinStateProperty<?>> propertyMap = new HashMap<>();
+        for(int i = 0; i < PROPERTY_COUNT; i++)
+            propertyMap.put(String.format("property-%05d", i), new DigitalTwinStateProperty<>(String.format("property-%05d", i), (double) i));
+
+        DigitalTwinState previousState = new DigitalTwinState(propertyMap, Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
+        DigitalTwinState newState = new DigitalTwinState(previousState);
+        for(int i = 0; i < CHANGED_PROPERTY_COUNT; i++)
+            newState.updatePropertyValue(String.format("property-%05d", i * 1000), -1.0);
+
+        // Only the changed properties are reported
+        List<DigitalTwinStateChange> changeList = DigitalTwinStateDiff.diff(previousState, newState);
+        assertEquals(CHANGED_PROPERTY_COUNT, changeList.size());
+        for(DigitalTwinStateChange change : changeList)
+            assertEquals(-1.0, ((DigitalTwinStateProperty<?>) change.getResource()).getValue());
+
+        assertSameResources(newState, apply(previousState, changeList));
+    }
+}
@@ -0,0 +1,185 @@
+package it.wldt.core.state;
+
+import it.wldt.core.event.WldtEvent;
+import it.wldt.core.event.WldtEventBus;
+import it.wldt.core.event.WldtEventFilter;
+import it.wldt.core.event.WldtEventListener;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DigitalTwinStateGroupCommitTester {
+
+    private static final String SUBSCRIBER_ID = "group-commit-subscriber";
+
+    private static final int TRANSACTION_COUNT = 2000;
+
+    private List<WldtEvent<?>> subscribeStateUpdates(String digitalTwinId) throws Exception {
+
+        List<WldtEvent<?>> receivedEventList = new CopyOnWriteArrayList<>();
+
+        WldtEventFilter wldtEventFilter = new WldtEventFilter();
+        wldtEventFilter.add(DigitalTwinStateManager.getStatusUpdatesWldtEventMessageType());
+
+        WldtEventBus.getInstance().subscribe(digitalTwinId, SUBSCRIBER_ID, wldtEventFilter, new WldtEventListener() {
+
+            @Override
+            public void onEventSubscribed(String eventType) {
+            }
+
+            @Override
+            public void onEventUnSubscribed(String eventType) {
+            }
+
+            @Override
+            public void onEvent(WldtEvent<?> wldtEvent) {
+                receivedEventList.add(wldtEvent);
+            }
+        });
+
+        return receivedEventList;
+    }
+
+    private void waitForEvents(List<WldtEvent<?>> receivedEventList, int expectedCount) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 3000;
+        while(receivedEventList.size() < expectedCount && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+    }
+
+    @Test
+    public void testTransactionsMergedWithinWindow() throws Exception {
+
+        String digitalTwinId = "group-commit-window-dt";
+        List<WldtEvent<?>> receivedEventList = subscribeStateUpdates(digitalTwinId);
+
+        DigitalTwinStateManager digitalTwinStateManager = new DigitalTwinStateManager(digitalTwinId);
+        digitalTwinStateManager.enableGroupCommit(200, TimeUnit.MILLISECONDS, 0);
+        assertTrue(digitalTwinStateManager.isGroupCommitEnabled());
+
+        DigitalTwinState initialState = digitalTwinStateManager.getDigitalTwinState();
+
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.createProperty(new DigitalTwinStateProperty<>("temperature", 20.0));
+        digitalTwinStateManager.commitStateTransaction();
+
+        for(int i = 1; i <= 3; i++) {
+            digitalTwinStateManager.startStateTransaction();
+            digitalTwinStateManager.updatePropertyValue("temperature", 20.0 + i);
+            digitalTwinStateManager.commitStateTransaction();
+        }
+
+        // The state is updated at commit time, only the notification is deferred
+        assertEquals(23.0, digitalTwinStateManager.getDigitalTwinState().getProperty("temperature").get().getValue());
+
+        waitForEvents(receivedEventList, 1);
+        Thread.sleep(300);
+
+        assertEquals(1, receivedEventList.size());
+
+        WldtEvent<?> stateUpdateEvent = receivedEventList.get(0);
+        assertSame(digitalTwinStateManager.getDigitalTwinState(), stateUpdateEvent.getBody());
+        assertSame(initialState, stateUpdateEvent.getMetadata(DigitalTwinStateManager.DT_STATE_UPDATE_METADATA_PREVIOUS_STATE).get());
+
+        // The merged changes are compacted: the property is added with its final value
+        List<?> changeList = (List<?>) stateUpdateEvent.getMetadata(DigitalTwinStateManager.DT_STATE_UPDATE_METADATA_CHANGE_LIST).get();
+        assertEquals(1, changeList.size());
+        assertEquals(DigitalTwinStateChange.Operation.OPERATION_ADD, ((DigitalTwinStateChange) changeList.get(0)).getOperation());
+        assertEquals(23.0, ((DigitalTwinStateProperty<?>) ((DigitalTwinStateChange) changeList.get(0)).getResource()).getValue());
+
+        // Once disabled each transaction is notified at commit time
+        digitalTwinStateManager.disableGroupCommit();
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.updatePropertyValue("temperature", 30.0);
+        digitalTwinStateManager.commitStateTransaction();
+
+        waitForEvents(receivedEventList, 2);
+        assertEquals(2, receivedEventList.size());
+    }
+
+    @Test
+    public void testGroupBoundedByMaxTransactions() throws Exception {
+
+        String digitalTwinId = "group-commit-max-dt";
+        List<WldtEvent<?>> receivedEventList = subscribeStateUpdates(digitalTwinId);
+
+        DigitalTwinStateManager digitalTwinStateManager = new DigitalTwinStateManager(digitalTwinId);
+        digitalTwinStateManager.enableGroupCommit(10, TimeUnit.SECONDS, 100);
+
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.createProperty(new DigitalTwinStateDoubleProperty("temperature", 0.0));
+        digitalTwinStateManager.commitStateTransaction();
+
+        for(int i = 1; i < TRANSACTION_COUNT; i++) {
+            digitalTwinStateManager.startStateTransaction();
+            digitalTwinStateManager.updatePropertyValue("temperature", (double) i);
+            digitalTwinStateManager.commitStateTransaction();
+        }
+
+        waitForEvents(receivedEventList, TRANSACTION_COUNT / 100);
+        assertEquals(TRANSACTION_COUNT / 100, receivedEventList.size());
+
+        // The last notified state is the one of the last transaction
+        DigitalTwinState lastNotifiedState = (DigitalTwinState) receivedEventList.get(receivedEventList.size() - 1).getBody();
+        assertEquals((double) (TRANSACTION_COUNT - 1), lastNotifiedState.getProperty("temperature").get().getValue());
+
+        // Explicit flush of a partial group
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.updatePropertyValue("temperature", -1.0);
+        digitalTwinStateManager.commitStateTransaction();
+        digitalTwinStateManager.flushGroupCommit();
+        digitalTwinStateManager.flushGroupCommit();
+
+        waitForEvents(receivedEventList, TRANSACTION_COUNT / 100 + 1);
+        assertEquals(TRANSACTION_COUNT / 100 + 1, receivedEventList.size());
+    }
+
+    @Test
+    public void testFlushedGroupWindowDoesNotCutNextGroup() throws Exception {
+
+        String digitalTwinId = "group-commit-flush-window-dt";
+        List<WldtEvent<?>> receivedEventList = subscribeStateUpdates(digitalTwinId);
+
+        DigitalTwinStateManager digitalTwinStateManager = new DigitalTwinStateManager(digitalTwinId);
+        digitalTwinStateManager.enableGroupCommit(400, TimeUnit.MILLISECONDS, 0);
+
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.createProperty(new DigitalTwinStateProperty<>("temperature", 20.0));
+        digitalTwinStateManager.commitStateTransaction();
+
+        // The first group is flushed before the end of its window and a new group is started
+        Thread.sleep(200);
+        digitalTwinStateManager.flushGroupCommit();
+        assertEquals(1, receivedEventList.size());
+
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.updatePropertyValue("temperature", 21.0);
+        digitalTwinStateManager.commitStateTransaction();
+
+        // The end of the window of the first group does not notify the new one
+        Thread.sleep(300);
+        assertEquals(1, receivedEventList.size());
+
+        waitForEvents(receivedEventList, 2);
+        assertEquals(2, receivedEventList.size());
+        assertEquals(21.0, ((DigitalTwinState) receivedEventList.get(1).getBody()).getProperty("temperature").get().getValue());
+
+        // Disabling the group commit notifies the pending group before the transactions notified at commit time
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.updatePropertyValue("temperature", 22.0);
+        digitalTwinStateManager.commitStateTransaction();
+        digitalTwinStateManager.disableGroupCommit();
+
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.updatePropertyValue("temperature", 23.0);
+        digitalTwinStateManager.commitStateTransaction();
+
+        waitForEvents(receivedEventList, 4);
+        assertEquals(4, receivedEventList.size());
+        assertEquals(22.0, ((DigitalTwinState) receivedEventList.get(2).getBody()).getProperty("temperature").get().getValue());
+        assertEquals(23.0, ((DigitalTwinState) receivedEventList.get(3).getBody()).getProperty("temperature").get().getValue());
+    }
+}
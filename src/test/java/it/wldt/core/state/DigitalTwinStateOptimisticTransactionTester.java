@@ -0,0 +1,240 @@
+package it.wldt.core.state;
+
+import it.wldt.core.event.WldtEvent;
+import it.wldt.core.event.WldtEventBus;
+import it.wldt.core.event.WldtEventFilter;
+import it.wldt.core.event.WldtEventListener;
+import it.wldt.exception.WldtDigitalTwinStateTransactionConflictException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DigitalTwinStateOptimisticTransactionTester {
+
+    private static final String DIGITAL_TWIN_ID = "optimistic-transaction-dt";
+
+    private static final int WRITER_COUNT = 4;
+
+    private static final int UPDATE_COUNT = 2000;
+
+    private DigitalTwinStateManager createStateManager() throws Exception {
+
+        DigitalTwinStateManager digitalTwinStateManager = new DigitalTwinStateManager(DIGITAL_TWIN_ID);
+
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.createProperty(new DigitalTwinStateLongProperty("counter", 0L));
+        for(int i = 0; i < WRITER_COUNT; i++)
+            digitalTwinStateManager.createProperty(new DigitalTwinStateLongProperty("property-" + i, 0L));
+        digitalTwinStateManager.commitStateTransaction();
+
+        return digitalTwinStateManager;
+    }
+
+    private long getLongValue(DigitalTwinState digitalTwinState, String key) throws Exception {
+        return ((DigitalTwinStateLongProperty) digitalTwinState.getProperty(key).get()).getLongValue();
+    }
+
+    @Test
+    public void testDisjointAndConflictingTransactions() throws Exception {
+
+        DigitalTwinStateManager digitalTwinStateManager = createStateManager();
+        long baseVersion = digitalTwinStateManager.getStateVersion();
+
+        DigitalTwinStateTransaction firstTransaction = digitalTwinStateManager.newStateTransaction();
+        DigitalTwinStateTransaction secondTransaction = digitalTwinStateManager.newStateTransaction();
+        DigitalTwinStateTransaction conflictingTransaction = digitalTwinStateManager.newStateTransaction();
+
+        digitalTwinStateManager.updatePropertyValue(firstTransaction, "property-0", 10L);
+        digitalTwinStateManager.updatePropertyValue(secondTransaction, "property-1", 20L);
+        digitalTwinStateManager.updatePropertyValue(conflictingTransaction, "property-0", 30L);
+
+        assertEquals(baseVersion, secondTransaction.getBaseVersion());
+
+        digitalTwinStateManager.commitStateTransaction(firstTransaction);
+
+        // Different resources: the transaction is applied on top of the new state
+        digitalTwinStateManager.commitStateTransaction(secondTransaction);
+        assertEquals(baseVersion + 1, secondTransaction.getBaseVersion());
+
+        // Same resource changed after the base version
+        assertThrows(WldtDigitalTwinStateTransactionConflictException.class, () -> digitalTwinStateManager.commitStateTransaction(conflictingTransaction));
+
+        DigitalTwinState digitalTwinState = digitalTwinStateManager.getDigitalTwinState();
+        assertEquals(baseVersion + 2, digitalTwinState.getVersion());
+        assertEquals(10L, getLongValue(digitalTwinState, "property-0"));
+        assertEquals(20L, getLongValue(digitalTwinState, "property-1"));
+
+        // The single transaction API still works and is validated in the same way
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.updatePropertyValue("property-2", 1L);
+
+        DigitalTwinStateTransaction concurrentTransaction = digitalTwinStateManager.newStateTransaction();
+        digitalTwinStateManager.updatePropertyValue(concurrentTransaction, "property-3", 1L);
+        digitalTwinStateManager.commitStateTransaction(concurrentTransaction);
+
+        digitalTwinStateManager.commitStateTransaction();
+
+        digitalTwinState = digitalTwinStateManager.getDigitalTwinState();
+        assertEquals(1L, getLongValue(digitalTwinState, "property-2"));
+        assertEquals(1L, getLongValue(digitalTwinState, "property-3"));
+        assertThrows(Exception.class, () -> digitalTwinStateManager.commitStateTransaction(concurrentTransaction));
+    }
+
+    @Test
+    public void testParallelWriters() throws Exception {
+
+        DigitalTwinStateManager digitalTwinStateManager = createStateManager();
+
+        AtomicReference<Exception> writerError = new AtomicReference<>(null);
+        List<Thread> writerList = new ArrayList<>();
+
+        for(int w = 0; w < WRITER_COUNT; w++) {
+
+            String propertyKey = "property-" + w;
+
+            Thread writer = new Thread(() -> {
+                try {
+                    for(long i = 1; i <= UPDATE_COUNT; i++) {
+
+                        long value = i;
+
+                        // Disjoint keys never conflict
+                        digitalTwinStateManager.executeStateTransaction(transaction ->
+                                digitalTwinStateManager.updatePropertyValue(transaction, propertyKey, value), 1);
+
+                        // Shared key: read-modify-write retried on conflict
+                        if(i % 10 == 0)
+                            digitalTwinStateManager.executeStateTransaction(transaction -> {
+                                try {
+                                    long counter = getLongValue(transaction.getStartDigitalTwinState(), "counter");
+                                    digitalTwinStateManager.updatePropertyValue(transaction, "counter", counter + 1);
+                                } catch (Exception e) {
+                                    throw new RuntimeException(e);
+                                }
+                            }, Integer.MAX_VALUE);
+                    }
+                } catch (Exception e) {
+                    writerError.set(e);
+                }
+            });
+
+            writerList.add(writer);
+            writer.start();
+        }
+
+        for(Thread writer : writerList)
+            writer.join();
+
+        assertNull(writerError.get());
+
+        DigitalTwinState digitalTwinState = digitalTwinStateManager.getDigitalTwinState();
+
+        for(int w = 0; w < WRITER_COUNT; w++)
+            assertEquals((long) UPDATE_COUNT, getLongValue(digitalTwinState, "property-" + w));
+
+        assertEquals((long) WRITER_COUNT * UPDATE_COUNT / 10, getLongValue(digitalTwinState, "counter"));
+    }
+
+    @Test
+    public void testSlowStateUpdateListenerDoesNotBlockCommits() throws Exception {
+
+        String digitalTwinId = "slow-listener-dt";
+
+        DigitalTwinStateManager digitalTwinStateManager = new DigitalTwinStateManager(digitalTwinId);
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.createProperty(new DigitalTwinStateLongProperty("property-0", 0L));
+        digitalTwinStateManager.createProperty(new DigitalTwinStateLongProperty("property-1", 0L));
+        digitalTwinStateManager.commitStateTransaction();
+
+        long baseVersion = digitalTwinStateManager.getStateVersion();
+
+        List<Long> notifiedVersionList = new CopyOnWriteArrayList<>();
+        CountDownLatch listenerBlockedLatch = new CountDownLatch(1);
+        CountDownLatch listenerReleaseLatch = new CountDownLatch(1);
+
+        WldtEventFilter wldtEventFilter = new WldtEventFilter();
+        wldtEventFilter.add(DigitalTwinStateManager.getStatusUpdatesWldtEventMessageType());
+
+        WldtEventListener wldtEventListener = new WldtEventListener() {
+
+            @Override
+            public void onEventSubscribed(String eventType) {
+            }
+
+            @Override
+            public void onEventUnSubscribed(String eventType) {
+            }
+
+            @Override
+            public void onEvent(WldtEvent<?> wldtEvent) {
+                DigitalTwinState digitalTwinState = (DigitalTwinState) wldtEvent.getBody();
+                notifiedVersionList.add(digitalTwinState.getVersion());
+                // The listener of the first update is slow
+                if(digitalTwinState.getVersion() == baseVersion + 1) {
+                    listenerBlockedLatch.countDown();
+                    try {
+                        listenerReleaseLatch.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        };
+
+        WldtEventBus.getInstance().subscribe(digitalTwinId, "slow-listener", wldtEventFilter, wldtEventListener);
+
+        try {
+            AtomicReference<Exception> writerError = new AtomicReference<>(null);
+
+            Thread firstWriter = new Thread(() -> {
+                try {
+                    digitalTwinStateManager.executeStateTransaction(transaction ->
+                            digitalTwinStateManager.updatePropertyValue(transaction, "property-0", 1L), 1);
+                } catch (Exception e) {
+                    writerError.set(e);
+                }
+            });
+            firstWriter.start();
+            assertTrue(listenerBlockedLatch.await(5, TimeUnit.SECONDS));
+
+            Thread secondWriter = new Thread(() -> {
+                try {
+                    digitalTwinStateManager.executeStateTransaction(transaction ->
+                            digitalTwinStateManager.updatePropertyValue(transaction, "property-1", 1L), 1);
+                } catch (Exception e) {
+                    writerError.set(e);
+                }
+            });
+            secondWriter.start();
+
+            // The second transaction is committed while the first state update is still being notified
+            long deadline = System.currentTimeMillis() + 5000;
+            while(digitalTwinStateManager.getStateVersion() < baseVersion + 2 && System.currentTimeMillis() < deadline)
+                Thread.sleep(5);
+
+            assertEquals(baseVersion + 2, digitalTwinStateManager.getStateVersion());
+            assertEquals(1, notifiedVersionList.size());
+
+            listenerReleaseLatch.countDown();
+            firstWriter.join(5000);
+            secondWriter.join(5000);
+
+            assertNull(writerError.get());
+
+            // Notified in version order
+            assertEquals(2, notifiedVersionList.size());
+            assertEquals(baseVersion + 1, (long) notifiedVersionList.get(0));
+            assertEquals(baseVersion + 2, (long) notifiedVersionList.get(1));
+        } finally {
+            listenerReleaseLatch.countDown();
+            WldtEventBus.getInstance().unSubscribe(digitalTwinId, "slow-listener", wldtEventFilter, wldtEventListener);
+        }
+    }
+}
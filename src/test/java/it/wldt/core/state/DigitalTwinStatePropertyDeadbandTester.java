@@ -0,0 +1,185 @@
+package it.wldt.core.state;
+
+import it.wldt.exception.WldtDigitalTwinStateException;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DigitalTwinStatePropertyDeadbandTester {
+
+    private static final String DIGITAL_TWIN_ID = "deadband-dt";
+
+    private static final int UPDATE_COUNT = 20000;
+
+    private Object getValue(DigitalTwinStateManager digitalTwinStateManager, String propertyKey) throws Exception {
+        return digitalTwinStateManager.getDigitalTwinState().getProperty(propertyKey).map(DigitalTwinStateProperty::getValue).orElse(null);
+    }
+
+    private long updateAndCommit(DigitalTwinStateManager digitalTwinStateManager, String propertyKey, Object value) throws Exception {
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.updatePropertyValue(new DigitalTwinStateProperty<>(propertyKey, value));
+        digitalTwinStateManager.commitStateTransaction();
+        return digitalTwinStateManager.getDigitalTwinState().getVersion();
+    }
+
+    @Test
+    public void testValueThresholds() throws Exception {
+
+        DigitalTwinStateManager digitalTwinStateManager = new DigitalTwinStateManager(DIGITAL_TWIN_ID);
+
+        assertThrows(WldtDigitalTwinStateException.class, () -> new DigitalTwinStatePropertyDeadband(-1.0, 0.0));
+
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.createProperty(new DigitalTwinStateProperty<>("temperature", 20.0), new DigitalTwinStatePropertyDeadband(0.5, 0.0));
+        digitalTwinStateManager.createProperty(new DigitalTwinStateDoubleProperty("pressure", 1000.0), new DigitalTwinStatePropertyDeadband(0.0, 0.01));
+        digitalTwinStateManager.createProperty(new DigitalTwinStateProperty<>("mode", "auto"), new DigitalTwinStatePropertyDeadband(0.0, 0.0));
+        digitalTwinStateManager.createProperty(new DigitalTwinStateProperty<>("location", "kitchen"));
+        digitalTwinStateManager.commitStateTransaction();
+
+        long version = digitalTwinStateManager.getDigitalTwinState().getVersion();
+
+        // Updates inside the deadband do not produce any new state
+        assertEquals(version, updateAndCommit(digitalTwinStateManager, "temperature", 20.3));
+        assertEquals(version, updateAndCommit(digitalTwinStateManager, "temperature", 19.5));
+        assertEquals(20.0, getValue(digitalTwinStateManager, "temperature"));
+
+        version = updateAndCommit(digitalTwinStateManager, "temperature", 20.6);
+        assertEquals(20.6, getValue(digitalTwinStateManager, "temperature"));
+
+        // The deadband is computed around the current value
+        assertEquals(version, updateAndCommit(digitalTwinStateManager, "temperature", 21.0));
+
+        // Relative threshold (1% of the current value) with the primitive update
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.updatePropertyValue("pressure", 1009.0);
+        digitalTwinStateManager.commitStateTransaction();
+        assertEquals(version, digitalTwinStateManager.getDigitalTwinState().getVersion());
+
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.updatePropertyValue("pressure", 1011.0);
+        digitalTwinStateManager.commitStateTransaction();
+        assertEquals(1011.0, getValue(digitalTwinStateManager, "pressure"));
+
+        // Non-numeric values are only compared for equality
+        version = digitalTwinStateManager.getDigitalTwinState().getVersion();
+        assertEquals(version, updateAndCommit(digitalTwinStateManager, "mode", "auto"));
+        assertNotEquals(version, updateAndCommit(digitalTwinStateManager, "mode", "manual"));
+
+        // Bulk updates only keep the changes outside the deadband
+        Map<String, Object> propertyValueMap = new HashMap<>();
+        propertyValueMap.put("temperature", 20.7);
+        propertyValueMap.put("pressure", 1012.0);
+        propertyValueMap.put("location", "garage");
+
+        DigitalTwinStateTransaction digitalTwinStateTransaction = digitalTwinStateManager.newStateTransaction();
+        digitalTwinStateManager.updatePropertyValues(digitalTwinStateTransaction, propertyValueMap);
+        digitalTwinStateManager.commitStateTransaction(digitalTwinStateTransaction);
+
+        assertEquals(1, digitalTwinStateTransaction.getDigitalTwinStateChangeList().size());
+        assertEquals(2, digitalTwinStateTransaction.getSuppressedUpdateCount());
+        assertEquals("garage", getValue(digitalTwinStateManager, "location"));
+
+        assertEquals(4, digitalTwinStateManager.getSuppressedUpdateCount("temperature"));
+        assertEquals(2, digitalTwinStateManager.getSuppressedUpdateCount("pressure"));
+        assertEquals(7, digitalTwinStateManager.getSuppressedUpdateCount());
+
+        // Without the policy every update is applied
+        digitalTwinStateManager.removePropertyDeadband("temperature");
+        assertFalse(digitalTwinStateManager.getPropertyDeadband("temperature").isPresent());
+        updateAndCommit(digitalTwinStateManager, "temperature", 20.61);
+        assertEquals(20.61, getValue(digitalTwinStateManager, "temperature"));
+    }
+
+    @Test
+    public void testMinIntervalAndHeartbeat() throws Exception {
+
+        DigitalTwinStateManager digitalTwinStateManager = new DigitalTwinStateManager(DIGITAL_TWIN_ID);
+
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.createProperty(new DigitalTwinStateProperty<>("temperature", 20.0),
+                new DigitalTwinStatePropertyDeadband(0.5, 0.0, 200, 600, TimeUnit.MILLISECONDS));
+        digitalTwinStateManager.commitStateTransaction();
+
+        updateAndCommit(digitalTwinStateManager, "temperature", 25.0);
+        assertEquals(25.0, getValue(digitalTwinStateManager, "temperature"));
+
+        // Too close to the last accepted update, even if outside the deadband
+        updateAndCommit(digitalTwinStateManager, "temperature", 30.0);
+        assertEquals(25.0, getValue(digitalTwinStateManager, "temperature"));
+
+        Thread.sleep(300);
+        updateAndCommit(digitalTwinStateManager, "temperature", 30.0);
+        assertEquals(30.0, getValue(digitalTwinStateManager, "temperature"));
+
+        // After the maximum silence an update inside the deadband is accepted as heartbeat
+        Thread.sleep(300);
+        long version = digitalTwinStateManager.getDigitalTwinState().getVersion();
+        assertEquals(version, updateAndCommit(digitalTwinStateManager, "temperature", 30.1));
+
+        Thread.sleep(400);
+        assertNotEquals(version, updateAndCommit(digitalTwinStateManager, "temperature", 30.1));
+        assertEquals(30.1, getValue(digitalTwinStateManager, "temperature"));
+
+        assertEquals(2, digitalTwinStateManager.getSuppressedUpdateCount());
+
+        // An update added to a transaction that is never committed does not start a new interval
+        Thread.sleep(300);
+        DigitalTwinStateTransaction abandonedTransaction = digitalTwinStateManager.newStateTransaction();
+        digitalTwinStateManager.updatePropertyValue(abandonedTransaction, "temperature", 35.0);
+        assertEquals(1, abandonedTransaction.getDigitalTwinStateChangeList().size());
+
+        updateAndCommit(digitalTwinStateManager, "temperature", 35.0);
+        assertEquals(35.0, getValue(digitalTwinStateManager, "temperature"));
+    }
+
+    @Test
+    public void testNoisySensorReadingsSuppressed() throws Exception {
+
+        DigitalTwinStateManager filteredStateManager = new DigitalTwinStateManager(DIGITAL_TWIN_ID);
+        DigitalTwinStateManager unfilteredStateManager = new DigitalTwinStateManager(DIGITAL_TWIN_ID);
+
+        filteredStateManager.startStateTransaction();
+        filteredStateManager.createProperty(new DigitalTwinStateDoubleProperty("temperature", 20.0), new DigitalTwinStatePropertyDeadband(0.5, 0.0));
+        filteredStateManager.commitStateTransaction();
+
+        unfilteredStateManager.startStateTransaction();
+        unfilteredStateManager.createProperty(new DigitalTwinStateDoubleProperty("temperature", 20.0));
+        unfilteredStateManager.commitStateTransaction();
+
+        // Readings of a slowly increasing temperature with a small noise
+        double[] readings = new double[UPDATE_COUNT];
+        Random random = new Random(42);
+        for(int i = 0; i < UPDATE_COUNT; i++)
+            readings[i] = 20.0 + i * 0.0005 + random.nextGaussian() * 0.05;
+
+        long startVersion = unfilteredStateManager.getDigitalTwinState().getVersion();
+
+        for(double reading : readings) {
+            unfilteredStateManager.startStateTransaction();
+            unfilteredStateManager.updatePropertyValue("temperature", reading);
+            unfilteredStateManager.commitStateTransaction();
+        }
+
+        long unfilteredCommitCount = unfilteredStateManager.getDigitalTwinState().getVersion() - startVersion;
+
+        startVersion = filteredStateManager.getDigitalTwinState().getVersion();
+
+        for(double reading : readings) {
+            filteredStateManager.startStateTransaction();
+            filteredStateManager.updatePropertyValue("temperature", reading);
+            filteredStateManager.commitStateTransaction();
+        }
+
+        long filteredCommitCount = filteredStateManager.getDigitalTwinState().getVersion() - startVersion;
+
+        assertEquals(UPDATE_COUNT, unfilteredCommitCount);
+        assertEquals(UPDATE_COUNT, filteredCommitCount + filteredStateManager.getSuppressedUpdateCount());
+        assertTrue(filteredCommitCount < UPDATE_COUNT / 100);
+        assertEquals((double) getValue(unfilteredStateManager, "temperature"), (double) getValue(filteredStateManager, "temperature"), 0.7);
+    }
+}
@@ -0,0 +1,140 @@
+package it.wldt.core.state;
+
+import it.wldt.exception.WldtDigitalTwinStateException;
+import org.junit.jupiter.api.Test;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DigitalTwinStatePropertyHistoryTester {
+
+    private static final String DIGITAL_TWIN_ID = "property-history-dt";
+
+    private static final int PROPERTY_COUNT = 100;
+
+    private static final int SAMPLE_COUNT = 100000;
+
+    private static final int WINDOW_SIZE = 100;
+
+    private void updateAndCommit(DigitalTwinStateManager digitalTwinStateManager, String propertyKey, double value) throws Exception {
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.updatePropertyValue(propertyKey, value);
+        digitalTwinStateManager.commitStateTransaction();
+    }
+
+    @Test
+    public void testHistoryFilledOnCommit() throws Exception {
+
+        DigitalTwinStateManager digitalTwinStateManager = new DigitalTwinStateManager(DIGITAL_TWIN_ID);
+
+        assertThrows(WldtDigitalTwinStateException.class, () -> digitalTwinStateManager.enablePropertyHistory("temperature", 0));
+
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.createProperty(new DigitalTwinStateDoubleProperty("temperature", 20.0));
+        digitalTwinStateManager.createProperty(new DigitalTwinStateProperty<>("mode", "auto"));
+        digitalTwinStateManager.commitStateTransaction();
+
+        // The current value is the first sample
+        DigitalTwinStatePropertyHistory temperatureHistory = digitalTwinStateManager.enablePropertyHistory("temperature", 4);
+        DigitalTwinStatePropertyHistory modeHistory = digitalTwinStateManager.enablePropertyHistory("mode", 4);
+        DigitalTwinStatePropertyHistory countHistory = digitalTwinStateManager.enablePropertyHistory("count", 4);
+        DigitalTwinStatePropertyHistory switchHistory = digitalTwinStateManager.enablePropertyHistory("switch", 4);
+
+        assertEquals(1, temperatureHistory.size());
+        assertEquals(20.0, temperatureHistory.getLastValue().getAsDouble());
+        assertEquals(64, temperatureHistory.getMemorySize());
+        assertSame(temperatureHistory, digitalTwinStateManager.getPropertyHistory("temperature").get());
+
+        // Properties created later and non-primitive numeric or boolean values are recorded
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.createProperty(new DigitalTwinStateProperty<>("count", 7L));
+        digitalTwinStateManager.createProperty(new DigitalTwinStateBooleanProperty("switch", true));
+        digitalTwinStateManager.updatePropertyValue(new DigitalTwinStateProperty<>("mode", "manual"));
+        digitalTwinStateManager.commitStateTransaction();
+
+        assertArrayEquals(new double[]{7.0}, countHistory.getLastValues(10));
+        assertArrayEquals(new double[]{1.0}, switchHistory.getLastValues(10));
+
+        // Non-numeric values are not recorded
+        assertEquals(0, modeHistory.size());
+        assertFalse(modeHistory.getLastValue().isPresent());
+        assertEquals(-1, modeHistory.getLastTimestamp());
+
+        // Only the changed properties get a new sample
+        for(int i = 1; i <= 5; i++)
+            updateAndCommit(digitalTwinStateManager, "temperature", 20.0 + i);
+
+        assertEquals(1, countHistory.size());
+
+        // The oldest samples are overwritten once the capacity is reached
+        assertEquals(4, temperatureHistory.size());
+        assertArrayEquals(new double[]{22.0, 23.0, 24.0, 25.0}, temperatureHistory.getLastValues(10));
+        assertArrayEquals(new double[]{24.0, 25.0}, temperatureHistory.getLastValues(2));
+
+        long[] timestamps = new long[3];
+        double[] values = new double[3];
+        assertEquals(3, temperatureHistory.copyLast(10, timestamps, values));
+        assertArrayEquals(new double[]{23.0, 24.0, 25.0}, values);
+        assertTrue(timestamps[0] <= timestamps[1] && timestamps[1] <= timestamps[2]);
+        assertEquals(temperatureHistory.getLastTimestamp(), timestamps[2]);
+        assertEquals(digitalTwinStateManager.getDigitalTwinState().getEvaluationInstant().toEpochMilli(), timestamps[2]);
+
+        // Time window reads
+        assertEquals(4, temperatureHistory.countSince(0));
+        assertEquals(0, temperatureHistory.countSince(Long.MAX_VALUE));
+        int windowCount = temperatureHistory.countSince(timestamps[2]);
+        assertTrue(windowCount >= 1 && windowCount <= 4);
+        assertArrayEquals(temperatureHistory.getLastValues(windowCount), temperatureHistory.getValuesSince(timestamps[2]));
+
+        // Deleted properties are not recorded
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.deleteProperty("temperature");
+        digitalTwinStateManager.commitStateTransaction();
+        assertEquals(25.0, temperatureHistory.getLastValue().getAsDouble());
+
+        digitalTwinStateManager.disablePropertyHistory("temperature");
+        assertFalse(digitalTwinStateManager.getPropertyHistory("temperature").isPresent());
+    }
+
+    @Test
+    public void testWindowMatchesVariationScan() throws Exception {
+
+        DigitalTwinStateManager digitalTwinStateManager = new DigitalTwinStateManager(DIGITAL_TWIN_ID);
+
+        digitalTwinStateManager.startStateTransaction();
+        for(int i = 0; i < PROPERTY_COUNT; i++)
+            digitalTwinStateManager.createProperty(new DigitalTwinStateDoubleProperty("property-" + i, 0.0));
+        digitalTwinStateManager.commitStateTransaction();
+
+        DigitalTwinStatePropertyHistory propertyHistory = digitalTwinStateManager.enablePropertyHistory("property-0", WINDOW_SIZE);
+
+        // Reference: variations stored by timestamp as in the storage, filtered by key on each read
+        Map<Long, Map.Entry<String, Double>> variationMap = new HashMap<>();
+
+        for(int i = 0; i < SAMPLE_COUNT; i++) {
+            String propertyKey = "property-" + (i % PROPERTY_COUNT);
+            variationMap.put((long) i, new AbstractMap.SimpleEntry<>(propertyKey, (double) i));
+            if(i % PROPERTY_COUNT == 0 && i >= (SAMPLE_COUNT - WINDOW_SIZE * PROPERTY_COUNT))
+                updateAndCommit(digitalTwinStateManager, propertyKey, i);
+        }
+
+        double[] windowValues = propertyHistory.getLastValues(WINDOW_SIZE);
+
+        List<Double> scannedValues = new ArrayList<>();
+        for(long timestamp = SAMPLE_COUNT - 1; timestamp >= 0 && scannedValues.size() < WINDOW_SIZE; timestamp--) {
+            Map.Entry<String, Double> variation = variationMap.get(timestamp);
+            if(variation.getKey().equals("property-0"))
+                scannedValues.add(0, variation.getValue());
+        }
+
+        assertEquals(WINDOW_SIZE, windowValues.length);
+        assertEquals(WINDOW_SIZE, scannedValues.size());
+        for(int i = 0; i < WINDOW_SIZE; i++)
+            assertEquals(scannedValues.get(i).doubleValue(), windowValues[i]);
+    }
+}
@@ -0,0 +1,84 @@
+package it.wldt.core.state;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DigitalTwinStateRelationshipIndexTester {
+
+    private static final String DIGITAL_TWIN_ID = "relationship-index-dt";
+
+    private static final int INSTANCE_COUNT = 20000;
+
+    private static final int TARGET_COUNT = 100;
+
+    @Test
+    public void testForwardAndReverseIndexes() throws Exception {
+
+        DigitalTwinStateRelationship<String> relationship = new DigitalTwinStateRelationship<>("isPartOf", "isPartOf");
+
+        for(int i = 0; i < 1000; i++)
+            relationship.addInstance(new DigitalTwinStateRelationshipInstance<>("isPartOf", "target-" + (i % 10), "instance-" + i));
+
+        assertEquals(1000, relationship.getInstanceCount());
+        assertEquals(100, relationship.getInstancesByTarget("target-3").size());
+        assertTrue(relationship.getInstancesByTarget("target-3").stream().allMatch(instance -> instance.getTargetId().equals("target-3")));
+        assertTrue(relationship.getInstancesByTarget("missing").isEmpty());
+
+        // Replacing an instance moves it to the new target
+        relationship.addInstance(new DigitalTwinStateRelationshipInstance<>("isPartOf", "target-new", "instance-3"));
+        assertEquals(1000, relationship.getInstanceCount());
+        assertEquals(99, relationship.getInstancesByTarget("target-3").size());
+        assertEquals("instance-3", relationship.getInstancesByTarget("target-new").iterator().next().getKey());
+
+        // The copy shares the instances but is updated independently
+        DigitalTwinStateRelationship<String> relationshipCopy = relationship.copy();
+        relationshipCopy.removeInstance("instance-3");
+        assertFalse(relationshipCopy.containsTarget("target-new"));
+        assertTrue(relationship.containsTarget("target-new"));
+        assertEquals(999, relationshipCopy.getInstanceCount());
+        assertEquals(1000, relationship.getInstanceCount());
+
+        // The view can be iterated without copies and is not affected by later changes
+        Collection<DigitalTwinStateRelationshipInstance<String>> instanceView = relationship.getInstanceCollection();
+        relationship.removeInstance("instance-0");
+        Set<String> instanceKeys = new HashSet<>();
+        for(DigitalTwinStateRelationshipInstance<String> instance : instanceView)
+            instanceKeys.add(instance.getKey());
+        assertEquals(1000, instanceKeys.size());
+        assertTrue(instanceKeys.contains("instance-0"));
+        assertEquals(999, relationship.getInstances().size());
+        assertThrows(UnsupportedOperationException.class, () -> instanceView.add(null));
+    }
+
+    @Test
+    public void testLargeRelationshipFanOut() throws Exception {
+
+        DigitalTwinStateManager digitalTwinStateManager = new DigitalTwinStateManager(DIGITAL_TWIN_ID);
+
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.createRelationship(new DigitalTwinStateRelationship<>("connectedTo", "connectedTo"));
+        digitalTwinStateManager.commitStateTransaction();
+
+        // Each instance is added with its own transaction: the relationship is copied at each commit
+        for(int i = 0; i < INSTANCE_COUNT; i++) {
+            digitalTwinStateManager.startStateTransaction();
+            digitalTwinStateManager.addRelationshipInstance(new DigitalTwinStateRelationshipInstance<>("connectedTo", "device-" + (i % TARGET_COUNT), "instance-" + i));
+            digitalTwinStateManager.commitStateTransaction();
+        }
+
+        DigitalTwinState digitalTwinState = digitalTwinStateManager.getDigitalTwinState();
+        DigitalTwinStateRelationship<?> relationship = digitalTwinState.getRelationship("connectedTo").get();
+        assertEquals(INSTANCE_COUNT, relationship.getInstanceCount());
+
+        int foundInstances = 0;
+        for(int i = 0; i < TARGET_COUNT; i++)
+            foundInstances += digitalTwinState.getRelationshipInstancesByTarget("device-" + i).size();
+
+        assertEquals(INSTANCE_COUNT, foundInstances);
+    }
+}
@@ -0,0 +1,160 @@
+package it.wldt.core.state;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DigitalTwinStateSnapshotTester {
+
+    private static final String DIGITAL_TWIN_ID = "snapshot-dt";
+
+    private static final int COMMIT_COUNT = 5000;
+
+    private static final int READER_COUNT = 4;
+
+    @Test
+    public void testVersionAndChangedSince() throws Exception {
+
+        DigitalTwinStateManager digitalTwinStateManager = new DigitalTwinStateManager(DIGITAL_TWIN_ID);
+
+        long initialVersion = digitalTwinStateManager.getStateVersion();
+        assertFalse(digitalTwinStateManager.hasStateChangedSince(initialVersion));
+
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.createProperty(new DigitalTwinStateProperty<>("temperature", 20.0));
+
+        // An open transaction does not change the published snapshot
+        assertFalse(digitalTwinStateManager.hasStateChangedSince(initialVersion));
+
+        digitalTwinStateManager.commitStateTransaction();
+
+        DigitalTwinState snapshot = digitalTwinStateManager.getDigitalTwinState();
+        assertEquals(initialVersion + 1, snapshot.getVersion());
+        assertTrue(digitalTwinStateManager.hasStateChangedSince(initialVersion));
+        assertFalse(digitalTwinStateManager.hasStateChangedSince(snapshot.getVersion()));
+
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.updatePropertyValue("temperature", 25.0);
+        digitalTwinStateManager.commitStateTransaction();
+
+        // The previous snapshot keeps its version and content
+        assertEquals(initialVersion + 1, snapshot.getVersion());
+        assertEquals(20.0, snapshot.getProperty("temperature").get().getValue());
+        assertEquals(initialVersion + 2, digitalTwinStateManager.getStateVersion());
+    }
+
+    @Test
+    public void testSnapshotIsolationFromReaders() throws Exception {
+
+        DigitalTwinStateManager digitalTwinStateManager = new DigitalTwinStateManager(DIGITAL_TWIN_ID);
+
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.createProperty(new DigitalTwinStateProperty<>("temperature", 20.0));
+        digitalTwinStateManager.createProperty(new DigitalTwinStateDoubleProperty("humidity", 40.0));
+        digitalTwinStateManager.enableAction(new DigitalTwinStateAction("switch", "switch.on", "text/plain"));
+        digitalTwinStateManager.registerEvent(new DigitalTwinStateEvent("overheating", "text/plain"));
+        digitalTwinStateManager.createRelationship(new DigitalTwinStateRelationship<>("insideIn", "insideIn"));
+        digitalTwinStateManager.addRelationshipInstance(new DigitalTwinStateRelationshipInstance<>("insideIn", "room-1", "room-1-instance"));
+        digitalTwinStateManager.commitStateTransaction();
+
+        DigitalTwinState snapshot = digitalTwinStateManager.getDigitalTwinState();
+        long version = snapshot.getVersion();
+
+        // Every resource handed out by the snapshot refuses to be modified through its public API
+        for(DigitalTwinStateProperty<?> property : snapshot.getPropertyList().get()) {
+            assertThrows(UnsupportedOperationException.class, () -> property.setValueObject(99.0));
+            assertThrows(UnsupportedOperationException.class, () -> property.setKey("renamed"));
+            assertThrows(UnsupportedOperationException.class, () -> property.setReadable(false));
+        }
+        DigitalTwinStateDoubleProperty humidity = (DigitalTwinStateDoubleProperty) snapshot.getProperty("humidity").get();
+        assertThrows(UnsupportedOperationException.class, () -> humidity.setDoubleValue(99.0));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getAction("switch").get().setType("switch.off"));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getEvent("overheating").get().setType("application/json"));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getRelationship("insideIn").get().getInstanceCollection().clear());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getRelationship("insideIn").get().getInstance("room-1-instance").getMetadata().put("floor", 1));
+
+        // A writer committing after the failed attempts does not change the snapshot either
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.updatePropertyValue("temperature", 25.0);
+        digitalTwinStateManager.deleteRelationshipInstance("insideIn", "room-1-instance");
+        digitalTwinStateManager.commitStateTransaction();
+
+        assertEquals(version, snapshot.getVersion());
+        assertEquals(20.0, snapshot.getProperty("temperature").get().getValue());
+        assertEquals(40.0, snapshot.getProperty("humidity").get().getValue());
+        assertEquals("temperature", snapshot.getProperty("temperature").get().getKey());
+        assertTrue(snapshot.getProperty("temperature").get().isReadable());
+        assertEquals("switch.on", snapshot.getAction("switch").get().getType());
+        assertEquals("text/plain", snapshot.getEvent("overheating").get().getType());
+        assertEquals(1, snapshot.getRelationship("insideIn").get().getInstanceCount());
+        assertEquals(version + 1, digitalTwinStateManager.getStateVersion());
+    }
+
+    @Test
+    public void testConsistentSnapshotsWhileCommitting() throws Exception {
+
+        DigitalTwinStateManager digitalTwinStateManager = new DigitalTwinStateManager(DIGITAL_TWIN_ID);
+
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.createProperty(new DigitalTwinStateLongProperty("first", 0L));
+        digitalTwinStateManager.createProperty(new DigitalTwinStateLongProperty("second", 0L));
+        digitalTwinStateManager.commitStateTransaction();
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> readerError = new AtomicReference<>(null);
+        AtomicLong readCount = new AtomicLong(0);
+
+        List<Thread> readerList = new ArrayList<>();
+
+        for(int r = 0; r < READER_COUNT; r++) {
+
+            Thread reader = new Thread(() -> {
+                try {
+                    long lastVersion = -1;
+                    while(running.get() && readerError.get() == null) {
+
+                        DigitalTwinState snapshot = digitalTwinStateManager.getDigitalTwinState();
+
+                        if(snapshot.getVersion() < lastVersion)
+                            readerError.set(String.format("Version went backwards: %d -> %d", lastVersion, snapshot.getVersion()));
+
+                        Object first = snapshot.getProperty("first").get().getValue();
+                        Object second = snapshot.getProperty("second").get().getValue();
+
+                        // Both properties are always updated in the same transaction
+                        if(!first.equals(second))
+                            readerError.set(String.format("Inconsistent snapshot %d: first=%s second=%s", snapshot.getVersion(), first, second));
+
+                        lastVersion = snapshot.getVersion();
+                        readCount.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    readerError.set(e.getLocalizedMessage());
+                }
+            });
+
+            readerList.add(reader);
+            reader.start();
+        }
+
+        for(long i = 1; i <= COMMIT_COUNT; i++) {
+            digitalTwinStateManager.startStateTransaction();
+            digitalTwinStateManager.updatePropertyValue("first", i);
+            digitalTwinStateManager.updatePropertyValue("second", i);
+            digitalTwinStateManager.commitStateTransaction();
+        }
+
+        running.set(false);
+        for(Thread reader : readerList)
+            reader.join();
+
+        assertNull(readerError.get());
+        assertEquals((long) COMMIT_COUNT, ((DigitalTwinStateLongProperty) digitalTwinStateManager.getDigitalTwinState().getProperty("first").get()).getLongValue());
+    }
+}
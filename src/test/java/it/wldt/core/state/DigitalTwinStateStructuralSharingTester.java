@@ -0,0 +1,236 @@
+package it.wldt.core.state;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DigitalTwinStateStructuralSharingTester {
+
+    private static final String DIGITAL_TWIN_ID = "structural-sharing-dt";
+
+    private static final int PROPERTY_COUNT = 10000;
+
+    private static final int COMMIT_COUNT = 5000;
+
+    /**
+     * Key with a fixed hash code used to force hash collisions in the trie
+     */
+    private static class CollidingKey {
+
+        private final String name;
+
+        private CollidingKey(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CollidingKey && ((CollidingKey) o).name.equals(name);
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+    }
+
+    @Test
+    public void testPersistentMapAgainstHashMap() {
+
+        Random random = new Random(7);
+        Map<Integer, Integer> referenceMap = new HashMap<>();
+        PersistentHashTrieMap<Integer, Integer> persistentMap = PersistentHashTrieMap.empty();
+
+        for(int i = 0; i < 50000; i++) {
+
+            int key = random.nextInt(5000);
+            PersistentHashTrieMap<Integer, Integer> previousMap = persistentMap;
+            int previousSize = previousMap.size();
+            Integer previousValue = previousMap.get(key);
+
+            if(random.nextInt(3) == 0) {
+                referenceMap.remove(key);
+                persistentMap = persistentMap.remove(key);
+            }
+            else {
+                referenceMap.put(key, i);
+                persistentMap = persistentMap.put(key, i);
+            }
+
+            // The previous version is never modified
+            assertEquals(previousSize, previousMap.size());
+            assertEquals(previousValue, previousMap.get(key));
+            assertEquals(referenceMap.size(), persistentMap.size());
+            assertEquals(referenceMap.get(key), persistentMap.get(key));
+        }
+
+        Map<Integer, Integer> iteratedMap = new HashMap<>();
+        persistentMap.forEach(iteratedMap::put);
+        assertEquals(referenceMap, iteratedMap);
+
+        // Hash collisions
+        PersistentHashTrieMap<CollidingKey, String> collidingMap = PersistentHashTrieMap.empty();
+        for(int i = 0; i < 10; i++)
+            collidingMap = collidingMap.put(new CollidingKey("key-" + i), "value-" + i);
+
+        assertEquals(10, collidingMap.size());
+        assertEquals("value-3", collidingMap.get(new CollidingKey("key-3")));
+
+        for(int i = 0; i < 10; i++)
+            collidingMap = collidingMap.remove(new CollidingKey("key-" + i));
+
+        assertTrue(collidingMap.isEmpty());
+        assertNull(collidingMap.get(new CollidingKey("key-3")));
+    }
+
+    @Test
+    public void testPersistentMapPutAll() {
+
+        Random random = new Random(11);
+        Map<Integer, Integer> referenceMap = new HashMap<>();
+        PersistentHashTrieMap<Integer, Integer> persistentMap = PersistentHashTrieMap.empty();
+
+        for(int i = 0; i < 200; i++) {
+
+            Map<Integer, Integer> batchMap = new HashMap<>();
+            for(int j = random.nextInt(100); j >= 0; j--)
+                batchMap.put(random.nextInt(5000), random.nextInt());
+
+            PersistentHashTrieMap<Integer, Integer> previousMap = persistentMap;
+            Map<Integer, Integer> previousReferenceMap = new HashMap<>(referenceMap);
+
+            referenceMap.putAll(batchMap);
+            persistentMap = persistentMap.putAll(batchMap);
+
+            Map<Integer, Integer> iteratedMap = new HashMap<>();
+            persistentMap.forEach(iteratedMap::put);
+            assertEquals(referenceMap, iteratedMap);
+            assertEquals(referenceMap.size(), persistentMap.size());
+
+            // Every entry can be found (also the ones merged into the last slot of a node)
+            for(Map.Entry<Integer, Integer> entry : referenceMap.entrySet())
+                assertEquals(entry.getValue(), persistentMap.get(entry.getKey()));
+
+            // The nodes updated in place by the batch are not shared with the previous version
+            Map<Integer, Integer> previousIteratedMap = new HashMap<>();
+            previousMap.forEach(previousIteratedMap::put);
+            assertEquals(previousReferenceMap, previousIteratedMap);
+        }
+
+        // Hash collisions
+        Map<CollidingKey, String> collidingBatch = new HashMap<>();
+        for(int i = 0; i < 10; i++)
+            collidingBatch.put(new CollidingKey("key-" + i), "value-" + i);
+
+        PersistentHashTrieMap<CollidingKey, String> collidingMap = PersistentHashTrieMap.<CollidingKey, String>empty().putAll(collidingBatch);
+        assertEquals(10, collidingMap.size());
+        assertEquals("value-7", collidingMap.get(new CollidingKey("key-7")));
+    }
+
+    @Test
+    public void testPreviousStateIsNotModified() throws Exception {
+
+        DigitalTwinStateManager digitalTwinStateManager = new DigitalTwinStateManager(DIGITAL_TWIN_ID);
+
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.createProperty(new DigitalTwinStateProperty<>("temperature", 21.0));
+        digitalTwinStateManager.createRelationship(new DigitalTwinStateRelationship<>("insideIn", "insideIn"));
+        digitalTwinStateManager.commitStateTransaction();
+
+        DigitalTwinState previousState = digitalTwinStateManager.getDigitalTwinState();
+
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.updatePropertyValue(new DigitalTwinStateProperty<>("temperature", 25.0));
+        digitalTwinStateManager.addRelationshipInstance(new DigitalTwinStateRelationshipInstance<>("insideIn", "room-1", "room-1-instance"));
+        digitalTwinStateManager.commitStateTransaction();
+
+        DigitalTwinState newState = digitalTwinStateManager.getDigitalTwinState();
+
+        assertNotSame(previousState, newState);
+        assertEquals(21.0, previousState.getProperty("temperature").get().getValue());
+        assertEquals(25.0, newState.getProperty("temperature").get().getValue());
+        assertFalse(previousState.containsRelationshipInstance("insideIn", "room-1-instance"));
+        assertTrue(newState.containsRelationshipInstance("insideIn", "room-1-instance"));
+    }
+
+    @Test
+    public void testSharedResourcesCanNotBeModified() throws Exception {
+
+        DigitalTwinStateManager digitalTwinStateManager = new DigitalTwinStateManager(DIGITAL_TWIN_ID);
+
+        DigitalTwinStateProperty<Double> createdProperty = new DigitalTwinStateProperty<>("b", 2.0);
+        DigitalTwinStateRelationship<String> createdRelationship = new DigitalTwinStateRelationship<>("insideIn", "insideIn");
+        DigitalTwinStateAction createdAction = new DigitalTwinStateAction("switch", "switch.on", "text/plain");
+
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.createProperty(new DigitalTwinStateProperty<>("a", 1.0));
+        digitalTwinStateManager.createProperty(createdProperty);
+        digitalTwinStateManager.createRelationship(createdRelationship);
+        digitalTwinStateManager.enableAction(createdAction);
+        digitalTwinStateManager.commitStateTransaction();
+
+        DigitalTwinState previousState = digitalTwinStateManager.getDigitalTwinState();
+
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.updatePropertyValue("a", 5.0);
+        digitalTwinStateManager.commitStateTransaction();
+
+        DigitalTwinState newState = digitalTwinStateManager.getDigitalTwinState();
+
+        // "b" is shared by both versions and can not be modified through any of them
+        DigitalTwinStateProperty<?> sharedProperty = newState.getProperty("b").get();
+        assertSame(previousState.getProperty("b").get(), sharedProperty);
+        assertTrue(sharedProperty.isFrozen());
+        assertThrows(UnsupportedOperationException.class, () -> sharedProperty.setValueObject(99.0));
+        assertThrows(UnsupportedOperationException.class, () -> sharedProperty.setWritable(false));
+        assertThrows(UnsupportedOperationException.class, () -> newState.getAction("switch").get().setContentType("application/json"));
+        assertEquals(2.0, previousState.getProperty("b").get().getValue());
+
+        // The objects provided by the caller are copied into the state and can still be modified
+        createdProperty.setValue(3.0);
+        createdAction.setType("switch.off");
+        createdRelationship.addInstance(new DigitalTwinStateRelationshipInstance<>("insideIn", "room-1", "room-1-instance"));
+
+        assertEquals(2.0, newState.getProperty("b").get().getValue());
+        assertEquals("switch.on", newState.getAction("switch").get().getType());
+        assertEquals(0, newState.getRelationship("insideIn").get().getInstanceCount());
+        assertFalse(digitalTwinStateManager.hasStateChangedSince(newState.getVersion()));
+
+        // A copy of a stored property can be modified and used to update the state
+        DigitalTwinStateProperty<Double> updatedProperty = new DigitalTwinStateProperty<>((DigitalTwinStateProperty<Double>) sharedProperty);
+        updatedProperty.setValue(4.0);
+
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.updateProperty(updatedProperty);
+        digitalTwinStateManager.commitStateTransaction();
+
+        assertEquals(4.0, digitalTwinStateManager.getDigitalTwinState().getProperty("b").get().getValue());
+        assertEquals(2.0, newState.getProperty("b").get().getValue());
+    }
+
+    @Test
+    public void testSinglePropertyCommitsOnLargeState() throws Exception {
+
+        DigitalTwinStateManager digitalTwinStateManager = new DigitalTwinStateManager(DIGITAL_TWIN_ID);
+
+        digitalTwinStateManager.startStateTransaction();
+        for(int i = 0; i < PROPERTY_COUNT; i++)
+            digitalTwinStateManager.createProperty(new DigitalTwinStateProperty<>(String.format("property-%05d", i), (double) i));
+        digitalTwinStateManager.commitStateTransaction();
+
+        for(int i = 0; i < COMMIT_COUNT; i++) {
+            digitalTwinStateManager.startStateTransaction();
+            digitalTwinStateManager.updatePropertyValue(new DigitalTwinStateProperty<>(String.format("property-%05d", i % PROPERTY_COUNT), (double) -i));
+            digitalTwinStateManager.commitStateTransaction();
+        }
+
+        DigitalTwinState digitalTwinState = digitalTwinStateManager.getDigitalTwinState();
+        assertEquals(PROPERTY_COUNT, digitalTwinState.getPropertyList().get().size());
+        assertEquals(-(double) (COMMIT_COUNT - 1), digitalTwinState.getProperty(String.format("property-%05d", COMMIT_COUNT - 1)).get().getValue());
+        assertEquals((double) (PROPERTY_COUNT - 1), digitalTwinState.getProperty(String.format("property-%05d", PROPERTY_COUNT - 1)).get().getValue());
+    }
+}
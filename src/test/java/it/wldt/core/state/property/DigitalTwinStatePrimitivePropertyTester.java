@@ -0,0 +1,112 @@
+package it.wldt.core.state.property;
+
+import it.wldt.adapter.physical.PhysicalAssetPropertyVariation;
+import it.wldt.adapter.physical.event.PhysicalAssetBooleanPropertyWldtEvent;
+import it.wldt.adapter.physical.event.PhysicalAssetDoublePropertyWldtEvent;
+import it.wldt.adapter.physical.event.PhysicalAssetLongPropertyWldtEvent;
+import it.wldt.adapter.physical.event.PhysicalAssetPropertyWldtEvent;
+import it.wldt.core.state.*;
+import it.wldt.exception.WldtDigitalTwinStateException;
+import it.wldt.storage.DefaultWldtStorage;
+import it.wldt.storage.model.physical.PhysicalAssetPropertyVariationRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DigitalTwinStatePrimitivePropertyTester {
+
+    private static final String DIGITAL_TWIN_ID = "primitive-property-dt";
+
+    @Test
+    public void testPrimitivePropertiesAlongsideGenericApi() throws Exception {
+
+        DigitalTwinStateManager digitalTwinStateManager = new DigitalTwinStateManager(DIGITAL_TWIN_ID);
+
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.createProperty(new DigitalTwinStateDoubleProperty("temperature", 21.5));
+        digitalTwinStateManager.createProperty(new DigitalTwinStateLongProperty("counter", 1L));
+        digitalTwinStateManager.createProperty(new DigitalTwinStateBooleanProperty("switch", false));
+        digitalTwinStateManager.createProperty(new DigitalTwinStateProperty<>("humidity", 40.0));
+        digitalTwinStateManager.commitStateTransaction();
+
+        DigitalTwinState previousState = digitalTwinStateManager.getDigitalTwinState();
+
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.updatePropertyValue("temperature", 22.5);
+        digitalTwinStateManager.updatePropertyValue("counter", 2L);
+        digitalTwinStateManager.updatePropertyValue("switch", true);
+        // Primitive update of a generic property and generic update of a primitive property
+        digitalTwinStateManager.updatePropertyValue("humidity", 45.0);
+        digitalTwinStateManager.commitStateTransaction();
+
+        DigitalTwinState digitalTwinState = digitalTwinStateManager.getDigitalTwinState();
+
+        DigitalTwinStateProperty<?> temperatureProperty = digitalTwinState.getProperty("temperature").get();
+        assertInstanceOf(DigitalTwinStateDoubleProperty.class, temperatureProperty);
+        assertEquals(22.5, ((DigitalTwinStateDoubleProperty) temperatureProperty).getDoubleValue());
+        assertEquals(22.5, temperatureProperty.getValue());
+        assertEquals(Double.class.getName(), temperatureProperty.getType());
+        assertEquals(2L, ((DigitalTwinStateLongProperty) digitalTwinState.getProperty("counter").get()).getLongValue());
+        assertTrue(((DigitalTwinStateBooleanProperty) digitalTwinState.getProperty("switch").get()).getBooleanValue());
+        assertEquals(45.0, digitalTwinState.getProperty("humidity").get().getValue());
+        assertEquals(21.5, previousState.getProperty("temperature").get().getValue());
+
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.updatePropertyValue(new DigitalTwinStateProperty<>("temperature", 23.5));
+        digitalTwinStateManager.commitStateTransaction();
+
+        temperatureProperty = digitalTwinStateManager.getDigitalTwinState().getProperty("temperature").get();
+        assertInstanceOf(DigitalTwinStateDoubleProperty.class, temperatureProperty);
+        assertEquals(23.5, ((DigitalTwinStateDoubleProperty) temperatureProperty).getDoubleValue());
+        assertEquals(new DigitalTwinStateProperty<>("temperature", 23.5), temperatureProperty);
+
+        // Value type mismatch is still detected
+        digitalTwinStateManager.startStateTransaction();
+        digitalTwinStateManager.updatePropertyValue("temperature", 5L);
+        assertThrows(WldtDigitalTwinStateException.class, digitalTwinStateManager::commitStateTransaction);
+    }
+
+    @Test
+    public void testPrimitiveEventsAndStorageRecords() throws Exception {
+
+        PhysicalAssetDoublePropertyWldtEvent doubleEvent = new PhysicalAssetDoublePropertyWldtEvent("temperature", 21.5);
+        PhysicalAssetPropertyWldtEvent<Long> longEvent = new PhysicalAssetLongPropertyWldtEvent("counter", 7L);
+        PhysicalAssetBooleanPropertyWldtEvent booleanEvent = new PhysicalAssetBooleanPropertyWldtEvent("switch", true);
+
+        assertEquals(21.5, doubleEvent.getDoubleValue());
+        assertEquals(21.5, doubleEvent.getBody().doubleValue());
+        assertEquals(Double.class.getName(), doubleEvent.getContentType());
+        assertEquals(PhysicalAssetPropertyWldtEvent.buildEventType(PhysicalAssetPropertyWldtEvent.PHYSICAL_EVENT_BASIC_TYPE, "temperature"), doubleEvent.getType());
+        assertEquals(7L, longEvent.getBody().longValue());
+        assertTrue(booleanEvent.getBooleanValue());
+
+        // Same content type of the generic events carrying the boxed values
+        assertEquals(new PhysicalAssetPropertyWldtEvent<>("counter", 7L).getContentType(), longEvent.getContentType());
+        assertEquals(new PhysicalAssetPropertyWldtEvent<>("switch", true).getContentType(), booleanEvent.getContentType());
+
+        DefaultWldtStorage wldtStorage = new DefaultWldtStorage("primitive-storage", true);
+
+        long timestamp = System.currentTimeMillis();
+        wldtStorage.savePhysicalAssetPropertyVariation(new PhysicalAssetPropertyVariation(timestamp, "temperature", 21.5, null));
+        wldtStorage.savePhysicalAssetPropertyVariation(new PhysicalAssetPropertyVariation(timestamp + 1, "counter", 7L, null));
+        wldtStorage.savePhysicalAssetPropertyVariation(new PhysicalAssetPropertyVariation(timestamp + 2, "switch", true, null));
+        wldtStorage.savePhysicalAssetPropertyVariation(new PhysicalAssetPropertyVariation(timestamp + 3, "label", "generic", null));
+
+        Map<String, PhysicalAssetPropertyVariationRecord> recordMap = new HashMap<>();
+        for(PhysicalAssetPropertyVariationRecord record : wldtStorage.getPhysicalAssetPropertyVariationInTimeRange(timestamp, timestamp + 3))
+            recordMap.put(record.getPropertykey(), record);
+
+        assertEquals(4, recordMap.size());
+        assertEquals(double.class, recordMap.get("temperature").getPrimitiveType());
+        assertEquals(21.5, recordMap.get("temperature").getDoubleBody());
+        assertEquals(21.5, recordMap.get("temperature").getBody());
+        assertEquals(7L, recordMap.get("counter").getLongBody());
+        assertTrue(recordMap.get("switch").getBooleanBody());
+        assertNull(recordMap.get("label").getPrimitiveType());
+        assertEquals("generic", recordMap.get("label").getBody());
+        assertThrows(IllegalStateException.class, () -> recordMap.get("label").getDoubleBody());
+    }
+}